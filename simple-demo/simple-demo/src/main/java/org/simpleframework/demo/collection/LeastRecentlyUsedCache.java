@@ -1,13 +1,13 @@
 package org.simpleframework.demo.collection;
 
-import java.util.Map;
 import java.util.Set;
 
-import org.simpleframework.demo.collection.LeastRecentlyUsedMap.RemovalListener;
+import org.simpleframework.common.LeastRecentlyUsedMap.RemovalListener;
+import org.simpleframework.common.cache.ConcurrentCache;
 
 public class LeastRecentlyUsedCache<K, V> implements Cache<K, V> {
 
-   private final Map<K, V> cache;
+   private final ConcurrentCache<K, V> cache;
 
    public LeastRecentlyUsedCache() {
       this(null);
@@ -22,46 +22,46 @@ public class LeastRecentlyUsedCache<K, V> implements Cache<K, V> {
    }
 
    public LeastRecentlyUsedCache(RemovalListener<K, V> removalListener, int capacity) {
-      this.cache = new LeastRecentlyUsedMap<K, V>(removalListener, capacity);
+      this.cache = new ConcurrentCache<K, V>(removalListener, capacity);
    }
 
    @Override
-   public synchronized void clear() {
+   public void clear() {
       cache.clear();
    }
 
    @Override
-   public synchronized int size() {
+   public int size() {
       return cache.size();
    }
 
    @Override
-   public synchronized Set keySet() {
+   public Set keySet() {
       return cache.keySet();
    }
 
    @Override
-   public synchronized V fetch(K key) {
+   public V fetch(K key) {
       return cache.get(key);
    }
 
    @Override
-   public synchronized void cache(K key, V value) {
+   public void cache(K key, V value) {
       cache.put(key, value);
    }
 
    @Override
-   public synchronized V take(K key) {
+   public V take(K key) {
       return cache.remove(key);
    }
 
    @Override
-   public synchronized boolean contains(K key) {
+   public boolean contains(K key) {
       return cache.containsKey(key);
    }
 
    @Override
-   public synchronized boolean isEmpty() {
-      return cache.isEmpty();
+   public boolean isEmpty() {
+      return cache.size() == 0;
    }
 }
\ No newline at end of file
@@ -1,10 +1,10 @@
 package org.simpleframework.demo.http.resource;
 
+import static org.simpleframework.http.Protocol.CACHE_CONTROL;
 import static org.simpleframework.http.Protocol.CONTENT_TYPE;
 import static org.simpleframework.http.Status.OK;
 
 import java.nio.channels.FileChannel;
-import java.nio.channels.WritableByteChannel;
 
 import org.simpleframework.demo.io.FileResolver;
 import org.simpleframework.http.Path;
@@ -35,14 +35,17 @@ public class FileSystemResource implements Resource {
       String match = target.toLowerCase();
       String type = typeResolver.resolveType(match);
       FileChannel channel = fileResolver.resolveChannel(target);
-      WritableByteChannel output = response.getByteChannel();
       long length = channel.size();
 
       response.setStatus(status);
       response.setValue(CONTENT_TYPE, type);
       response.setContentLength(length);
-      channel.transferTo(0, length, output);
+      
+      if(status == OK) {
+         response.setValue(CACHE_CONTROL, "public, max-age=60");
+      }
+      response.sendFile(channel, 0, length);
       channel.close();
-      output.close();
+      response.close();
    }
 }
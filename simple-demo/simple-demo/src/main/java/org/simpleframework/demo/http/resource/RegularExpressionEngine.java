@@ -3,7 +3,7 @@ package org.simpleframework.demo.http.resource;
 import java.util.Map;
 import java.util.Set;
 
-import org.simpleframework.demo.collection.LeastRecentlyUsedMap;
+import org.simpleframework.common.cache.ConcurrentCache;
 import org.simpleframework.http.Path;
 import org.simpleframework.http.Request;
 import org.simpleframework.http.Response;
@@ -11,7 +11,7 @@ import org.simpleframework.http.Response;
 public class RegularExpressionEngine implements ResourceEngine {
 
    private final Map<String, Resource> resources;
-   private final Map<String, Resource> cache;
+   private final ConcurrentCache<String, Resource> cache;
    private final Resource fallback;
 
    public RegularExpressionEngine(Map<String, Resource> resources, Resource fallback) {
@@ -19,12 +19,12 @@ public class RegularExpressionEngine implements ResourceEngine {
    }
 
    public RegularExpressionEngine(Map<String, Resource> resources, Resource fallback, int capacity) {
-      this.cache = new LeastRecentlyUsedMap<String, Resource>(capacity);
+      this.cache = new ConcurrentCache<String, Resource>(capacity);
       this.resources = resources;
       this.fallback = fallback;
    }
 
-   public synchronized Resource resolve(Request request, Response response) {
+   public Resource resolve(Request request, Response response) {
       Path path = request.getPath();
       String target = path.getPath();
       Resource resource = cache.get(target);
@@ -39,7 +39,7 @@ public class RegularExpressionEngine implements ResourceEngine {
       return resource;
    }
 
-   private synchronized Resource match(Request request, String target) {
+   private Resource match(Request request, String target) {
       Set<String> mappings = resources.keySet();
 
       for (String mapping : mappings) {
@@ -0,0 +1,141 @@
+/*
+ * BudgetAllocator.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.common.buffer;
+
+import static org.simpleframework.common.buffer.MemoryCategory.CONTENT;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The <code>BudgetAllocator</code> is used to charge the bytes that
+ * are appended to allocated buffers against a <code>MemoryBudget</code>.
+ * Buffers are created by the source allocator, and each byte that
+ * is appended to them is charged to the budget. When the content is
+ * no longer needed, for instance when the response to a request has
+ * been sent, the allocator is released and the bytes are returned.
+ * 
+ * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.common.buffer.MemoryBudget
+ */
+public class BudgetAllocator implements Allocator {
+   
+   /**
+    * This is the category the appended bytes are charged to.
+    */
+   private final MemoryCategory category;
+   
+   /**
+    * This is the budget that the appended bytes are charged to.
+    */
+   private final MemoryBudget budget;
+   
+   /**
+    * This is the allocator used to create the actual buffers.
+    */
+   private final Allocator source;
+   
+   /**
+    * This is the number of bytes charged by this allocator.
+    */
+   private final AtomicLong count;
+   
+   /**
+    * Constructor for the <code>BudgetAllocator</code> object. This is
+    * used to create an allocator that charges the bytes appended to
+    * its buffers to the budget as request content.
+    * 
+    * @param source this is the allocator used to create buffers
+    * @param budget this is the budget to charge the bytes to
+    */
+   public BudgetAllocator(Allocator source, MemoryBudget budget) {
+      this(source, budget, CONTENT);
+   }
+   
+   /**
+    * Constructor for the <code>BudgetAllocator</code> object. This is
+    * used to create an allocator that charges the bytes appended to
+    * its buffers to the budget using the category specified.
+    * 
+    * @param source this is the allocator used to create buffers
+    * @param budget this is the budget to charge the bytes to
+    * @param category this is the category to charge bytes to
+    */
+   public BudgetAllocator(Allocator source, MemoryBudget budget, MemoryCategory category) {
+      this.count = new AtomicLong();
+      this.category = category;
+      this.budget = budget;
+      this.source = source;
+   }
+   
+   /**
+    * This will allocate a buffer using the source allocator. All of
+    * the bytes appended to the buffer are charged to the budget 
+    * until this allocator has been released.
+    * 
+    * @return a buffer which charges appended bytes to the budget
+    */
+   public Buffer allocate() throws IOException {
+      Buffer buffer = source.allocate();
+      return new BudgetBuffer(this, buffer);
+   }
+   
+   /**
+    * This will allocate a buffer using the source allocator. All of
+    * the bytes appended to the buffer are charged to the budget 
+    * until this allocator has been released.
+    * 
+    * @param size this is the initial capacity of the buffer
+    * 
+    * @return a buffer which charges appended bytes to the budget
+    */
+   public Buffer allocate(long size) throws IOException {
+      Buffer buffer = source.allocate(size);
+      return new BudgetBuffer(this, buffer);
+   }
+   
+   /**
+    * This is used to charge bytes that have been appended to one of
+    * the buffers created by this allocator. The bytes remain charged
+    * to the budget until the allocator is released.
+    * 
+    * @param size this is the number of bytes to be charged
+    */
+   public void charge(long size) {
+      if(size > 0) {
+         count.addAndGet(size);
+         budget.charge(category, size);
+      }
+   }
+   
+   /**
+    * This is used to release all of the bytes charged by the buffers
+    * created with this allocator. This should be called once the 
+    * content of the buffers is no longer required. Any bytes that
+    * are appended after this will be charged once again.
+    */
+   public void release() {
+      long size = count.getAndSet(0);
+      
+      if(size > 0) {
+         budget.release(category, size);
+      }
+   }
+}
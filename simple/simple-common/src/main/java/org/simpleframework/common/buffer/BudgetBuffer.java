@@ -0,0 +1,166 @@
+/*
+ * BudgetBuffer.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.common.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The <code>BudgetBuffer</code> is used to charge each byte that is
+ * appended to a buffer against a budget. This delegates to the
+ * buffer it wraps, and informs the allocator that created it of the
+ * number of bytes appended. Segments allocated from the buffer are
+ * also wrapped so that the bytes appended to them are charged.
+ * 
+ * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.common.buffer.BudgetAllocator
+ */
+class BudgetBuffer implements Buffer {
+   
+   /**
+    * This is the allocator that the appended bytes are charged to.
+    */
+   private final BudgetAllocator allocator;
+   
+   /**
+    * This is the buffer that the bytes are actually appended to.
+    */
+   private final Buffer buffer;
+   
+   /**
+    * Constructor for the <code>BudgetBuffer</code> object. This is
+    * used to create a buffer that charges the bytes appended to the
+    * allocator provided before appending them to the buffer.
+    * 
+    * @param allocator this is the allocator to charge bytes to
+    * @param buffer this is the buffer to append the bytes to
+    */
+   public BudgetBuffer(BudgetAllocator allocator, Buffer buffer) {
+      this.allocator = allocator;
+      this.buffer = buffer;
+   }
+   
+   /**
+    * This method is used to allocate a segment of this buffer. The
+    * segment is also charged to the budget so that all the bytes
+    * appended to the underlying buffer are accounted for.
+    * 
+    * @return this returns a segment of this buffer
+    */
+   public Buffer allocate() throws IOException {
+      Buffer segment = buffer.allocate();
+      return new BudgetBuffer(allocator, segment);
+   }
+   
+   /**
+    * This method is used so that a buffer can be represented as a
+    * stream of bytes. This provides a quick means to access the data
+    * that has been written to the buffer.
+    * 
+    * @return this returns an input stream for the buffered bytes
+    */
+   public InputStream open() throws IOException {
+      return buffer.open();
+   }
+   
+   /**
+    * This method is used to acquire the buffered bytes as a string.
+    * This will use the default charset of the buffer, which for the
+    * buffers within this framework is UTF-8.
+    * 
+    * @return this returns a string of the buffered bytes
+    */
+   public String encode() throws IOException {
+      return buffer.encode();
+   }
+   
+   /**
+    * This method is used to acquire the buffered bytes as a string.
+    * This will use the charset provided to convert the bytes that
+    * have been appended to the buffer in to a string.
+    * 
+    * @param charset this is the charset to encode the data with
+    * 
+    * @return this returns a string of the buffered bytes
+    */
+   public String encode(String charset) throws IOException {
+      return buffer.encode(charset);
+   }
+   
+   /**
+    * This method is used to append bytes to the end of the buffer.
+    * The number of bytes appended is charged to the budget before
+    * the bytes are appended to the underlying buffer.
+    * 
+    * @param array this is the byte array to append to this buffer
+    * 
+    * @return this returns this buffer for another operation
+    */
+   public Buffer append(byte[] array) throws IOException {
+      return append(array, 0, array.length);
+   }
+   
+   /**
+    * This method is used to append bytes to the end of the buffer.
+    * The number of bytes appended is charged to the budget before
+    * the bytes are appended to the underlying buffer.
+    * 
+    * @param array this is the byte array to append to this buffer
+    * @param off this is the offset to begin reading the bytes from
+    * @param size the number of bytes to be read from the array
+    * 
+    * @return this returns this buffer for another operation
+    */
+   public Buffer append(byte[] array, int off, int size) throws IOException {
+      allocator.charge(size);
+      buffer.append(array, off, size);
+      return this;
+   }
+   
+   /**
+    * This will clear all data from the buffer. This simply sets the
+    * count to be zero, it will not clear the memory occupied by the
+    * instance as the internal buffer will remain. The bytes remain 
+    * charged until the allocator is released.
+    */
+   public void clear() throws IOException {
+      buffer.clear();
+   }
+   
+   /**
+    * This method is used to ensure the buffer can be closed. Once
+    * the buffer is closed it is an immutable collection of bytes and
+    * can not longer be modified. 
+    */
+   public void close() throws IOException {
+      buffer.close();
+   }
+   
+   /**
+    * This is used to provide the number of bytes that have been
+    * written to the buffer. This increases as bytes are appended
+    * to the buffer. if the buffer is cleared this resets to zero.
+    *  
+    * @return this returns the number of bytes within the buffer
+    */
+   public long length() {
+      return buffer.length();
+   }
+}
@@ -0,0 +1,133 @@
+/*
+ * DirectAllocator.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.common.buffer;
+
+import java.io.IOException;
+
+/**
+ * The <code>DirectAllocator</code> object is used to create buffers
+ * from pooled chunks of direct memory. Buffers of a known size up to
+ * the limit are built from a chain of chunks, so a buffer grows by
+ * taking another chunk rather than copying its bytes to a larger
+ * array. Once a buffer has been released its chunks are returned to
+ * the pool, which means request bodies do not create garbage on the
+ * heap. Buffers larger than the limit, or of an unknown size, are 
+ * created with the source allocator.
+ * <p>
+ * Buffers are released using a <code>RecycleAllocator</code>, which
+ * records the pooled buffers it creates and releases them together
+ * once their content is no longer required.
+ * 
+ * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.common.buffer.RecycleAllocator
+ */
+public class DirectAllocator implements Allocator {
+   
+   /**
+    * This is the allocator used for buffers over the limit.
+    */
+   private final Allocator source;
+   
+   /**
+    * This is the pool that the chunks of each buffer come from.
+    */
+   private final DirectPool pool;
+   
+   /**
+    * This is the limit up to which buffers are pooled.
+    */
+   private final int limit;
+   
+   /**
+    * Constructor for the <code>DirectAllocator</code> object. This 
+    * creates pooled buffers up to one megabyte, and buffers larger
+    * than that are written to extents within a spool file.
+    */
+   public DirectAllocator() {
+      this(new SpoolAllocator());
+   }
+   
+   /**
+    * Constructor for the <code>DirectAllocator</code> object. This 
+    * creates pooled buffers up to one megabyte, and buffers larger
+    * than that are created with the source allocator provided.
+    * 
+    * @param source this is the allocator used for large buffers
+    */
+   public DirectAllocator(Allocator source) {
+      this(source, 1048576);
+   }
+   
+   /**
+    * Constructor for the <code>DirectAllocator</code> object. This 
+    * creates pooled buffers up to the limit, and buffers larger
+    * than that are created with the source allocator provided.
+    * 
+    * @param source this is the allocator used for large buffers
+    * @param limit this is the maximum size for a pooled buffer
+    */
+   public DirectAllocator(Allocator source, int limit) {
+      this(source, limit, 67108864);
+   }
+   
+   /**
+    * Constructor for the <code>DirectAllocator</code> object. This 
+    * creates pooled buffers up to the limit, and buffers larger
+    * than that are created with the source allocator provided. The
+    * pool will hold no more than the capacity of direct memory.
+    * 
+    * @param source this is the allocator used for large buffers
+    * @param limit this is the maximum size for a pooled buffer
+    * @param capacity this is the maximum direct memory to pool
+    */
+   public DirectAllocator(Allocator source, int limit, long capacity) {
+      this.pool = new DirectPool(capacity);
+      this.source = source;
+      this.limit = limit;
+   }
+   
+   /**
+    * This will allocate a buffer using the source allocator. As the
+    * size of the buffer is not known it can not be pooled, since it
+    * could grow well beyond the limit for a pooled buffer.
+    * 
+    * @return a buffer created using the source allocator
+    */
+   public Buffer allocate() throws IOException {
+      return source.allocate();
+   }
+   
+   /**
+    * This will allocate a pooled buffer if the size is within the
+    * limit. The chunks of the buffer are taken from the pool as it
+    * is filled, and the first chunk is sized to fit the bytes. If
+    * the size is over the limit the source allocator is used.
+    * 
+    * @param size this is the size of the buffer to be created
+    * 
+    * @return a buffer that is either pooled or from the source
+    */
+   public Buffer allocate(long size) throws IOException {
+      if(size <= limit) {
+         return new PooledBuffer(pool, size);
+      }
+      return source.allocate(size);
+   }
+}
@@ -0,0 +1,202 @@
+/*
+ * DirectPool.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.common.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The <code>DirectPool</code> is used to pool chunks of direct memory
+ * for the <code>PooledBuffer</code> objects. Chunks are provided in a
+ * small number of size classes. When a size class has no free chunks
+ * a slab of direct memory is allocated and carved in to chunks of
+ * that size, so direct memory is only ever allocated in large blocks.
+ * Chunks that are recycled are placed back on the free list for the
+ * size class so that they can be used by another buffer.
+ * <p>
+ * The amount of direct memory held by the pool is limited. Once the
+ * limit has been reached chunks are allocated on the heap instead,
+ * and these are simply dropped rather than recycled.
+ * 
+ * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.common.buffer.DirectAllocator
+ */
+class DirectPool {
+   
+   /**
+    * These are the sizes of the chunks provided by the pool.
+    */
+   private static final int[] SIZES = { 4096, 16384, 65536 };
+   
+   /**
+    * This is the free list of chunks for each size class.
+    */
+   private final List<Queue<ByteBuffer>> free;
+   
+   /**
+    * This is the number of bytes of direct memory allocated.
+    */
+   private final AtomicLong reserved;
+   
+   /**
+    * This is the maximum number of direct bytes to allocate.
+    */
+   private final long capacity;
+   
+   /**
+    * This is the size of each slab that is carved in to chunks.
+    */
+   private final int slab;
+   
+   /**
+    * Constructor for the <code>DirectPool</code> object. This creates
+    * a pool that will allocate no more than the specified number of
+    * bytes of direct memory, in slabs of one megabyte.
+    * 
+    * @param capacity this is the maximum direct memory to allocate
+    */
+   public DirectPool(long capacity) {
+      this(capacity, 1048576);
+   }
+   
+   /**
+    * Constructor for the <code>DirectPool</code> object. This creates
+    * a pool that will allocate no more than the specified number of
+    * bytes of direct memory, in slabs of the size specified.
+    * 
+    * @param capacity this is the maximum direct memory to allocate
+    * @param slab this is the size of each slab of direct memory
+    */
+   public DirectPool(long capacity, int slab) {
+      this.free = new ArrayList<Queue<ByteBuffer>>();
+      this.reserved = new AtomicLong();
+      this.capacity = capacity;
+      this.slab = slab;
+      
+      for(int i = 0; i < SIZES.length; i++) {
+         free.add(new ConcurrentLinkedQueue<ByteBuffer>());
+      }
+   }
+   
+   /**
+    * This is used to acquire a chunk that is large enough to hold
+    * the required number of bytes. If the requirement is larger than
+    * the largest size class then a chunk of the largest class is
+    * provided, so a large buffer is built from a chain of chunks.
+    * 
+    * @param require this is the number of bytes that are required
+    * 
+    * @return this returns an empty chunk taken from the pool
+    */
+   public ByteBuffer acquire(long require) {
+      int index = index(require);
+      ByteBuffer chunk = free.get(index).poll();
+      
+      if(chunk == null) {
+         return expand(index);
+      }
+      return chunk;
+   }
+   
+   /**
+    * This is used to return a chunk to the pool. The chunk is cleared
+    * and placed on the free list for its size class. If the chunk
+    * was allocated on the heap because the pool was exhausted it is
+    * simply dropped so that it can be collected.
+    * 
+    * @param chunk this is the chunk that is to be returned
+    */
+   public void recycle(ByteBuffer chunk) {
+      if(chunk.isDirect()) {
+         int index = index(chunk.capacity());
+         
+         chunk.clear();
+         free.get(index).offer(chunk);
+      }
+   }
+   
+   /**
+    * This is used to determine the size class for the requirement.
+    * This is the smallest class that can hold all of the bytes, or
+    * the largest class if none of them are large enough.
+    * 
+    * @param require this is the number of bytes that are required
+    * 
+    * @return this returns the index of the size class to use
+    */
+   private int index(long require) {
+      for(int i = 0; i < SIZES.length - 1; i++) {
+         if(require <= SIZES[i]) {
+            return i;
+         }
+      }
+      return SIZES.length - 1;
+   }
+   
+   /**
+    * This is used to allocate a slab of direct memory for the size
+    * class. The slab is carved in to chunks, one of which is returned
+    * while the rest are placed on the free list. If the pool has
+    * reached its capacity then a heap chunk is returned instead.
+    * 
+    * @param index this is the index of the size class to expand
+    * 
+    * @return this returns a chunk of the requested size class
+    */
+   private ByteBuffer expand(int index) {
+      int size = SIZES[index];
+      
+      if(reserved.addAndGet(slab) > capacity) {
+         reserved.addAndGet(-slab);
+         return ByteBuffer.allocate(size);
+      }
+      ByteBuffer memory = ByteBuffer.allocateDirect(slab);
+      int count = slab / size;
+      
+      for(int i = 1; i < count; i++) {
+         free.get(index).offer(slice(memory, i * size, size));
+      }
+      return slice(memory, 0, size);
+   }
+   
+   /**
+    * This is used to create a chunk from a region of the slab. The
+    * chunk shares the memory of the slab but has its own position
+    * and limit, so it can be written independently of the others.
+    * 
+    * @param memory this is the slab the chunk is carved from
+    * @param off this is the offset of the chunk within the slab
+    * @param size this is the size of the chunk to be created
+    * 
+    * @return this returns a chunk that is a region of the slab
+    */
+   private ByteBuffer slice(ByteBuffer memory, int off, int size) {
+      ByteBuffer region = memory.duplicate();
+      
+      region.limit(off + size);
+      region.position(off);
+      
+      return region.slice();
+   }
+}
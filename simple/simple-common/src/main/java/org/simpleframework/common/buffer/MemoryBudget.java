@@ -0,0 +1,245 @@
+/*
+ * MemoryBudget.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.common.buffer;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.simpleframework.common.thread.ConcurrentExecutor;
+
+/**
+ * The <code>MemoryBudget</code> is used to limit the total memory a
+ * server will use for buffering. Each buffer that is created for a
+ * connection, a request body or a response is charged against the
+ * budget, and released once it is no longer needed. When the total
+ * exceeds the limit the budget is exhausted, and any work that would
+ * require more memory is suspended until memory has been released.
+ * <p>
+ * Work is suspended by handing it to the budget as an executor. If
+ * the budget is not exhausted the task runs immediately, otherwise
+ * it is queued until enough memory has been released. The queued
+ * tasks are then handed to an executor, so the thread that releases
+ * the memory, which is often servicing a request, is not used to 
+ * run work for other connections.
+ * For a server this is used to stop reading from connections, and
+ * to stop accepting them, while the memory in use is too high.
+ *
+ * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.common.buffer.BudgetAllocator
+ */
+public class MemoryBudget implements Executor {
+   
+   /**
+    * This is the queue of tasks waiting for memory to be released.
+    */
+   private final Queue<Runnable> waiting;
+   
+   /**
+    * This is used to run the tasks once memory has been released.
+    */
+   private final Executor executor;
+   
+   /**
+    * This contains the number of bytes used for each category.
+    */
+   private final AtomicLongArray usage;
+   
+   /**
+    * This is the total number of bytes charged to the budget.
+    */
+   private final AtomicLong total;
+   
+   /**
+    * This is the maximum number of bytes before suspending work.
+    */
+   private final long limit;
+   
+   /**
+    * Constructor for the <code>MemoryBudget</code> object. This is
+    * used to create a budget that will be exhausted once the bytes
+    * charged against it exceed the limit specified.
+    * 
+    * @param limit this is the maximum number of bytes to buffer
+    */
+   public MemoryBudget(long limit) {
+      this(limit, new ConcurrentExecutor(MemoryBudget.class, 0, 1));
+   }
+   
+   /**
+    * Constructor for the <code>MemoryBudget</code> object. This is
+    * used to create a budget that will be exhausted once the bytes
+    * charged against it exceed the limit specified. Tasks that were
+    * suspended are run by the executor once memory is released.
+    * 
+    * @param limit this is the maximum number of bytes to buffer
+    * @param executor this is used to run the suspended tasks
+    */
+   public MemoryBudget(long limit, Executor executor) {
+      this.usage = new AtomicLongArray(MemoryCategory.values().length);
+      this.waiting = new ConcurrentLinkedQueue<Runnable>();
+      this.total = new AtomicLong();
+      this.executor = executor;
+      this.limit = limit;
+   }
+   
+   /**
+    * This is used to acquire the limit for the budget. Once the
+    * total number of bytes charged reaches the limit the budget is
+    * exhausted until some of the bytes are released.
+    * 
+    * @return this returns the number of bytes the budget allows
+    */
+   public long getLimit() {
+      return limit;
+   }
+   
+   /**
+    * This is used to acquire the total number of bytes that have
+    * been charged against the budget and not yet released. This
+    * is the sum of the usage for each category.
+    * 
+    * @return this returns the total number of bytes in use
+    */
+   public long getUsage() {
+      return total.get();
+   }
+   
+   /**
+    * This is used to acquire the number of bytes that have been
+    * charged against the budget for a specific category. This is
+    * useful in determining where memory is being used.
+    * 
+    * @param category this is the category to acquire usage for
+    * 
+    * @return this returns the number of bytes in use for this
+    */
+   public long getUsage(MemoryCategory category) {
+      int index = category.ordinal();
+      return usage.get(index);
+   }
+   
+   /**
+    * This is used to determine if the budget has been exhausted. If
+    * the budget is exhausted then any further work that requires
+    * memory should be suspended until memory is released.
+    * 
+    * @return this returns true if the budget has been exhausted
+    */
+   public boolean isExhausted() {
+      return total.get() >= limit;
+   }
+   
+   /**
+    * This is used to charge a number of bytes against the budget. A
+    * charge is never refused, as the memory will typically already
+    * be needed, however it may cause the budget to be exhausted and
+    * so suspend further work until memory is released.
+    * 
+    * @param category this is the category to charge the bytes to
+    * @param size this is the number of bytes to be charged
+    */
+   public void charge(MemoryCategory category, long size) {
+      int index = category.ordinal();
+      
+      if(size > 0) {
+         usage.addAndGet(index, size);
+         total.addAndGet(size);
+      }
+   }
+   
+   /**
+    * This is used to release a number of bytes that were previously
+    * charged against the budget. If this brings the total below the
+    * limit then any tasks that were suspended are handed to the
+    * executor of the budget to be run.
+    * 
+    * @param category this is the category to release the bytes from
+    * @param size this is the number of bytes to be released
+    */
+   public void release(MemoryCategory category, long size) {
+      int index = category.ordinal();
+      
+      if(size > 0) {
+         usage.addAndGet(index, -size);
+         total.addAndGet(-size);
+         resume();
+      }
+   }
+   
+   /**
+    * This is used to execute a task once there is memory available.
+    * If the budget is not exhausted the task is run immediately by
+    * the calling thread. Otherwise it is suspended until enough
+    * memory has been released to bring the total below the limit.
+    * 
+    * @param task this is the task to execute when memory is free
+    */
+   public void execute(Runnable task) {
+      if(isExhausted()) {
+         waiting.offer(task);
+         resume(); // released before the offer
+      } else {
+         task.run();
+      }
+   }
+   
+   /**
+    * This is used to execute any suspended tasks if the budget is no
+    * longer exhausted. The budget is checked before each task is 
+    * handed to the executor so that a release of a few bytes does 
+    * not resume everything.
+    */
+   private void resume() {
+      while(!isExhausted()) {
+         Runnable task = waiting.poll();
+         
+         if(task == null) {
+            break;
+         }
+         executor.execute(task);
+      }
+   }
+   
+   /**
+    * This provides a report of the memory that is currently in use.
+    * The report includes the total and the limit as well as the 
+    * usage for each of the categories, which is useful for logging.
+    * 
+    * @return this returns a report of the memory in use
+    */
+   @Override
+   public String toString() {
+      StringBuilder builder = new StringBuilder();
+      
+      builder.append("usage=").append(total.get());
+      builder.append(" limit=").append(limit);
+      
+      for(MemoryCategory category : MemoryCategory.values()) {
+         builder.append(' ');
+         builder.append(category);
+         builder.append('=');
+         builder.append(getUsage(category));
+      }
+      return builder.toString();
+   }
+}
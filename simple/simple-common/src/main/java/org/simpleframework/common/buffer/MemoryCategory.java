@@ -0,0 +1,48 @@
+/*
+ * MemoryCategory.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.common.buffer;
+
+/**
+ * The <code>MemoryCategory</code> is used to classify the memory that
+ * is charged against a <code>MemoryBudget</code>. Each category is
+ * tracked separately so that the budget can report where the memory
+ * held by a server is being used, for instance whether it is held
+ * by large request bodies or by connections with slow readers.
+ *
+ * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.common.buffer.MemoryBudget
+ */
+public enum MemoryCategory {
+   
+   /**
+    * This represents the buffers held by each open connection.
+    */
+   TRANSPORT,
+   
+   /**
+    * This represents bytes buffered for the body of a request.
+    */
+   CONTENT,
+   
+   /**
+    * This represents bytes buffered for the body of a response.
+    */
+   RESPONSE;
+}
@@ -0,0 +1,752 @@
+/*
+ * PooledBuffer.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.common.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The <code>PooledBuffer</code> object is used to buffer bytes in a
+ * chain of chunks taken from a <code>DirectPool</code>. Rather than
+ * copying the buffered bytes to a larger array when the buffer is
+ * full, a further chunk is taken from the pool and added to the end
+ * of the chain. Once the buffer has been released and every stream
+ * opened for it has been closed or fully read, the chunks are given
+ * back to the pool so that they can be reused by another buffer.
+ * <p>
+ * The streams provided by this buffer are also byte channels, so
+ * the buffered bytes can be read in to a <code>ByteBuffer</code>
+ * directly from the chunks without an intermediate array.
+ * 
+ * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.common.buffer.DirectAllocator
+ */
+class PooledBuffer implements Buffer {
+   
+   /**
+    * This counts the buffer itself and each stream that is open.
+    */
+   private final AtomicInteger references;
+   
+   /**
+    * This is used to ensure the buffer is only released once.
+    */
+   private final AtomicBoolean released;
+   
+   /**
+    * This is the pool that the chunks of the buffer are taken from.
+    */
+   private final DirectPool pool;
+   
+   /**
+    * This is the chain of chunks that hold the buffered bytes.
+    */
+   private ByteBuffer[] chunks;
+   
+   /**
+    * This represents the last segment that has been created.
+    */
+   private Segment segment;
+   
+   /**
+    * This is the expected size of the buffer when it was created.
+    */
+   private long expect;
+   
+   /**
+    * This is the number of bytes currently appended to the buffer.
+    */
+   private long count;
+   
+   /**
+    * This is the number of chunks that have been taken for this.
+    */
+   private int size;
+   
+   /**
+    * This is the index of the chunk that bytes are appended to.
+    */
+   private int index;
+   
+   /**
+    * This is used to determine if this buffer has been closed.
+    */
+   private boolean closed;
+   
+   /**
+    * Constructor for the <code>PooledBuffer</code> object. This will
+    * create a buffer that takes chunks from the pool as bytes are
+    * appended. The first chunk is sized to fit the expected length.
+    * 
+    * @param pool this is the pool that chunks are taken from
+    * @param expect this is the expected length of the buffer
+    */
+   public PooledBuffer(DirectPool pool, long expect) {
+      this.references = new AtomicInteger(1);
+      this.released = new AtomicBoolean();
+      this.chunks = new ByteBuffer[4];
+      this.expect = expect;
+      this.pool = pool;
+   }
+   
+   /**
+    * This is used to allocate a segment within this buffer. If the
+    * buffer is closed this will throw an exception, if however the
+    * buffer is still open then a segment is created which will 
+    * write all appended data to this buffer. However it can be
+    * treated as an independent source of data.
+    * 
+    * @return this returns a buffer which is a segment of this 
+    */
+   public Buffer allocate() throws IOException {
+      if(closed) {
+         throw new BufferException("Buffer has been closed");
+      }
+      if(segment != null) {
+         segment.close();
+      }
+      segment = new Segment(this, count);
+      return segment;
+   }
+   
+   /**
+    * This is used to append the specified data to the buffer. All
+    * bytes appended can be consumed at a later stage by acquiring 
+    * the <code>InputStream</code> from this buffer. Also if required
+    * the data can be encoded as a string in a required character set.
+    * 
+    * @param array this is the array to write the the buffer
+    * 
+    * @return this returns this buffer for further operations
+    */
+   public Buffer append(byte[] array) throws IOException {
+      return append(array, 0, array.length);
+   }
+   
+   /**
+    * This is used to append the specified data to the buffer. The
+    * bytes are written to the last chunk in the chain and when it is
+    * full a further chunk is taken from the pool. No bytes that have
+    * already been appended are ever copied.
+    * 
+    * @param array this is the array to write the the buffer
+    * @param off this is the offset within the array to write
+    * @param length this is the number of bytes to be appended
+    * 
+    * @return this returns this buffer for further operations
+    */
+   public Buffer append(byte[] array, int off, int length) throws IOException {
+      if(closed) {
+         throw new BufferException("Buffer has been closed");
+      }
+      if(references.get() <= 0) {
+         throw new BufferException("Buffer has been released");
+      }
+      while(length > 0) {
+         ByteBuffer chunk = chunk();
+         int space = Math.min(chunk.remaining(), length);
+         
+         chunk.put(array, off, space);
+         count += space;
+         length -= space;
+         off += space;
+      }
+      return this;
+   }
+   
+   /**
+    * This is used to acquire the chunk that bytes are appended to.
+    * If every chunk in the chain is full then a further chunk is
+    * taken from the pool, which is larger as the buffer grows.
+    * 
+    * @return this returns a chunk that has space remaining
+    */
+   private ByteBuffer chunk() {
+      while(index < size) {
+         ByteBuffer chunk = chunks[index];
+         
+         if(chunk.hasRemaining()) {
+            return chunk;
+         }
+         index++;
+      }
+      if(size >= chunks.length) {
+         ByteBuffer[] copy = new ByteBuffer[size * 2];
+         System.arraycopy(chunks, 0, copy, 0, size);
+         chunks = copy;
+      }
+      ByteBuffer chunk = pool.acquire(Math.max(expect - count, count));
+      
+      chunks[size++] = chunk;
+      return chunk;
+   }
+   
+   /**
+    * This method is used to acquire the buffered bytes as a string.
+    * This is useful if the contents need to be manipulated as a
+    * string or transferred into another encoding. If the UTF-8
+    * content encoding is not supported the platform default is 
+    * used, however this is unlikely as UTF-8 should be supported.
+    *
+    * @return this returns a UTF-8 encoding of the buffer contents
+    */ 
+   public String encode() throws IOException {
+      return encode("UTF-8");
+   }
+   
+   /**
+    * This method is used to acquire the buffered bytes as a string.
+    * This is useful if the contents need to be manipulated as a
+    * string or transferred into another encoding. This will convert
+    * the bytes using the specified character encoding format.
+    * 
+    * @param charset this is the charset to encode the data with
+    *
+    * @return this returns the encoding of the buffer contents
+    */   
+   public String encode(String charset) throws IOException {
+      return convert(0, count, charset);
+   }
+   
+   /**
+    * This method is used to acquire a range of the buffered bytes as
+    * a string. The bytes are copied from the chunks that hold them in
+    * to a single array, which is then decoded.
+    * 
+    * @param first this is the offset of the first byte to encode
+    * @param length this is the number of bytes to be encoded
+    * @param charset this is the charset to encode the data with
+    *
+    * @return this returns the encoding of the buffer range
+    */   
+   private String convert(long first, long length, String charset) throws IOException {
+      Range range = new Range(first, length);
+      byte[] data = new byte[(int)length];
+      int done = 0;
+      
+      try {
+         while(done < length) {
+            done += range.read(data, done, data.length - done);
+         }
+      } finally {
+         range.close();
+      }
+      return new String(data, charset);
+   }
+   
+   /**
+    * This method is used so that a buffer can be represented as a
+    * stream of bytes. The stream holds a reference to the buffer, so
+    * its chunks are not recycled until the stream is closed or read
+    * to the end, even if the buffer is released before then.
+    *
+    * @return a stream that can be used to read the buffered bytes
+    */ 
+   public InputStream open() throws IOException {
+      return new Range(0, count);
+   }
+   
+   /**
+    * This will clear all data from the buffer. This simply sets the
+    * count to be zero, the chunks taken for the buffer are kept so
+    * that they are written over as data is appended once again.
+    */   
+   public void clear() throws IOException {
+      if(closed) {
+         throw new BufferException("Buffer has been closed");
+      }
+      for(int i = 0; i < size; i++) {
+         chunks[i].clear();
+      }
+      segment = null;
+      index = 0;
+      count = 0;
+   }
+   
+   /**
+    * This method is used to ensure the buffer can be closed. Once
+    * the buffer is closed it is an immutable collection of bytes and
+    * can not longer be modified. This ensures that it can be passed
+    * by value without the risk of modification of the bytes.
+    */   
+   public void close() throws IOException {
+      if(!closed) {
+         closed = true;
+      }
+      if(segment != null) {
+         segment.close();
+      }
+   }
+   
+   /**
+    * This is used to release the buffer once its content is no
+    * longer required. If no stream is reading from the buffer the
+    * chunks are returned to the pool immediately, otherwise they are
+    * returned once the last stream has been closed or fully read.
+    */
+   public void release() {
+      if(released.compareAndSet(false, true)) {
+         dereference();
+      }
+   }
+   
+   /**
+    * This is used to take a reference to the buffer for a stream. A
+    * reference can not be taken once the chunks have been recycled,
+    * as they may already have been taken by another buffer.
+    */
+   private void reference() throws IOException {
+      while(true) {
+         int current = references.get();
+         
+         if(current <= 0) {
+            throw new BufferException("Buffer has been released");
+         }
+         if(references.compareAndSet(current, current + 1)) {
+            break;
+         }
+      }
+   }
+   
+   /**
+    * This is used to give up a reference to the buffer. When the
+    * last reference has been given up the chunks are returned to the
+    * pool, after which the buffer can no longer be read or written.
+    */
+   private void dereference() {
+      if(references.decrementAndGet() == 0) {
+         for(int i = 0; i < size; i++) {
+            pool.recycle(chunks[i]);
+            chunks[i] = null;
+         }
+         size = 0;
+      }
+   }
+   
+   /**
+    * This is used to provide the number of bytes that have been
+    * written to the buffer. This increases as bytes are appended
+    * to the buffer. if the buffer is cleared this resets to zero.
+    *  
+    * @return this returns the number of bytes within the buffer
+    */
+   public long length() {
+      return count;
+   }
+   
+   /**
+    * The <code>Segment</code> object is used to create a segment of
+    * the parent buffer. The segment will write to the parent however
+    * it can be read as a unique range of bytes starting with the 
+    * first sequence of bytes appended to the segment. A segment can
+    * be used to create a collection of buffers backed by the same
+    * chunks, as is required with multipart uploads.
+    */
+   private class Segment implements Buffer {
+      
+      /**
+       * This is an internal segment created from this segment.
+       */
+      private Segment segment;
+      
+      /**
+       * This is the parent buffer that bytes are to be appended to.
+       */
+      private Buffer parent;
+      
+      /**
+       * This is the offset of the first byte within the sequence.
+       */
+      private long first;
+      
+      /**
+       * This is the last byte within the segment for this segment.
+       */
+      private long last;
+      
+      /**
+       * This determines if the segment is currently open or closed.
+       */
+      private boolean closed;
+      
+      /**
+       * Constructor for the <code>Segment</code> object. This is used
+       * to create a segment from a parent buffer. A segment is a part
+       * of the parent buffer and appends its bytes to the parent. It
+       * can however be treated as an independent source of bytes.
+       * 
+       * @param parent this is the parent buffer to be appended to
+       * @param first this is the offset for the first byte in this
+       */
+      public Segment(Buffer parent, long first) {
+         this.parent = parent;
+         this.first = first;
+         this.last = first;
+      }
+      
+      /**
+       * This is used to allocate a segment within this segment. If
+       * the segment is closed this will throw an exception, if it is
+       * still open then a segment is created which will write all
+       * appended data to this segment and in turn to the buffer.
+       * 
+       * @return this returns a buffer which is a segment of this 
+       */
+      public Buffer allocate() throws IOException {
+         if(closed) {
+            throw new BufferException("Buffer has been closed");
+         }
+         if(segment != null) {
+            segment.close();
+         }
+         segment = new Segment(this, last);
+         return segment;
+      }
+      
+      /**
+       * This is used to append the specified data to the parent so
+       * that it is written to the chunks of the buffer. The bytes
+       * can be read back independently of the rest of the buffer.
+       * 
+       * @param array this is the array to write the the buffer
+       * 
+       * @return this returns this buffer for further operations
+       */
+      public Buffer append(byte[] array) throws IOException {
+         return append(array, 0, array.length);
+      }
+      
+      /**
+       * This is used to append the specified data to the parent so
+       * that it is written to the chunks of the buffer. The bytes
+       * can be read back independently of the rest of the buffer.
+       * 
+       * @param array this is the array to write the the buffer
+       * @param off this is the offset within the array to write
+       * @param size this is the number of bytes to be appended
+       * 
+       * @return this returns this buffer for further operations
+       */
+      public Buffer append(byte[] array, int off, int size) throws IOException {
+         if(closed) {
+            throw new BufferException("Buffer has been closed");
+         }
+         if(size > 0) {
+            parent.append(array, off, size);
+            last += size;
+         }
+         return this;
+      }
+      
+      /**
+       * This method is used to acquire the segment bytes as a string
+       * using the UTF-8 encoding. The bytes are copied directly from
+       * the chunks of the parent buffer that hold the segment.
+       *
+       * @return this returns a UTF-8 encoding of the segment
+       */ 
+      public String encode() throws IOException {
+         return encode("UTF-8");
+      }
+      
+      /**
+       * This method is used to acquire the segment bytes as a string
+       * using the specified encoding. The bytes are copied directly
+       * from the chunks of the parent buffer that hold the segment.
+       * 
+       * @param charset this is the charset to encode the data with
+       *
+       * @return this returns the encoding of the segment
+       */  
+      public String encode(String charset) throws IOException {
+         return convert(first, last - first, charset);
+      }
+      
+      /**
+       * This method is used so that a segment can be represented as
+       * a stream of bytes. The stream begins at the chunk holding the
+       * first byte of the segment, so nothing needs to be skipped.
+       *
+       * @return a stream that can be used to read the segment bytes
+       */ 
+      public InputStream open() throws IOException {
+         return new Range(first, last - first);
+      }
+      
+      /**
+       * This will clear all data from the segment. As the bytes of
+       * the segment have been written to the parent buffer they are
+       * not removed, so this only checks that the segment is open.
+       */  
+      public void clear() throws IOException {
+         if(closed) {
+            throw new BufferException("Buffer is closed");
+         }
+      }
+      
+      /**
+       * This method is used to ensure the segment can be closed. Once
+       * closed it is an immutable collection of bytes and can not be
+       * modified, which also closes any segment created from it.
+       */   
+      public void close() throws IOException {
+         if(!closed) {
+            closed = true;
+         }
+         if(segment != null) {
+            segment.close();
+         }
+      }
+      
+      /**
+       * This is used to provide the number of bytes that have been
+       * written to the segment. This increases as bytes are appended
+       * to the segment, which also appends them to the parent.
+       *  
+       * @return this returns the number of bytes within the segment
+       */
+      public long length() {
+         return last - first;
+      }
+   }
+   
+   /**
+    * The <code>Range</code> object is used to read a range of bytes
+    * from the chunks of the buffer. It is both a stream and a byte
+    * channel, and when read as a channel the bytes are copied from
+    * the chunks straight in to the buffer provided. The range holds
+    * a reference to the buffer until it is closed or fully read.
+    */
+   private class Range extends InputStream implements ReadableByteChannel {
+      
+      /**
+       * This is the number of bytes that remain within the range.
+       */
+      private long length;
+      
+      /**
+       * This is the index of the chunk the next byte is read from.
+       */
+      private int chunk;
+      
+      /**
+       * This is the position within the chunk of the next byte.
+       */
+      private int pos;
+      
+      /**
+       * This is used to determine if the range has been closed.
+       */
+      private boolean closed;
+      
+      /**
+       * Constructor for the <code>Range</code> object. This creates
+       * a range that reads the specified number of bytes from the
+       * buffer starting at the offset provided.
+       * 
+       * @param offset this is the offset of the first byte to read
+       * @param length this is the number of bytes that can be read
+       */
+      public Range(long offset, long length) throws IOException {
+         this.length = length;
+         this.reference();
+         this.seek(offset);
+      }
+      
+      /**
+       * This is used to take a reference to the buffer so that its
+       * chunks are not recycled while the range is being read. If
+       * the range is empty no reference is needed.
+       */
+      private void reference() throws IOException {
+         if(length > 0) {
+            PooledBuffer.this.reference();
+         } else {
+            closed = true;
+         }
+      }
+      
+      /**
+       * This is used to find the chunk that holds the byte at the
+       * offset. Every chunk before the last is full, so the chunk is
+       * found by walking the chain subtracting the chunk capacities.
+       * 
+       * @param offset this is the offset within the buffer to find
+       */
+      private void seek(long offset) {
+         while(chunk < size) {
+            int capacity = chunks[chunk].capacity();
+            
+            if(offset < capacity) {
+               break;
+            }
+            offset -= capacity;
+            chunk++;
+         }
+         pos = (int)offset;
+      }
+      
+      /**
+       * This is used to acquire a view of the next bytes to be read.
+       * The view shares the memory of the chunk but has its own limit
+       * and position, so reading does not disturb the buffer.
+       * 
+       * @param require this is the maximum number of bytes required
+       * 
+       * @return this returns a view of the bytes to be read next
+       */
+      private ByteBuffer view(int require) {
+         ByteBuffer view = chunks[chunk].duplicate();
+         int capacity = view.capacity();
+         
+         if(pos >= capacity) {
+            view = chunks[++chunk].duplicate();
+            capacity = view.capacity();
+            pos = 0;
+         }
+         int ready = (int)Math.min(length, capacity - pos);
+         int count = Math.min(ready, require);
+         
+         view.limit(pos + count);
+         view.position(pos);
+         pos += count;
+         length -= count;
+         return view;
+      }
+      
+      /**
+       * This will read a single byte from the range. When all of the
+       * bytes within the range have been read this returns -1.
+       * 
+       * @return this returns the octet read from the buffer
+       */
+      @Override
+      public int read() throws IOException {
+         if(length > 0) {
+            ByteBuffer view = view(1);
+            int octet = view.get() & 0xff;
+            
+            if(length <= 0) {
+               close();
+            }
+            return octet;
+         }
+         return -1;
+      }
+      
+      /**
+       * This will read bytes from the chunks up to the number of 
+       * bytes remaining in the range. When all of the bytes within
+       * the range have been read this returns -1.
+       * 
+       * @param array this is the array to read the bytes in to
+       * @param off this is the start offset to append the bytes to
+       * @param size this is the number of bytes that are required
+       * 
+       * @return this returns the number of bytes that were read
+       */
+      @Override
+      public int read(byte[] array, int off, int size) throws IOException {
+         if(length > 0) {
+            ByteBuffer view = view(size);
+            int count = view.remaining();
+            
+            view.get(array, off, count);
+            
+            if(length <= 0) {
+               close();
+            }
+            return count;
+         }
+         if(size <= 0) {
+            return 0;
+         }
+         return -1;
+      }
+      
+      /**
+       * This will read bytes from the chunks in to the buffer given.
+       * The bytes are copied from each chunk in a single operation,
+       * which for a direct buffer requires no intermediate array.
+       * When all of the bytes have been read this returns -1.
+       * 
+       * @param buffer this is the buffer to read the bytes in to
+       * 
+       * @return this returns the number of bytes that were read
+       */
+      public int read(ByteBuffer buffer) throws IOException {
+         int count = 0;
+         
+         if(length <= 0) {
+            return -1;
+         }
+         while(length > 0 && buffer.hasRemaining()) {
+            ByteBuffer view = view(buffer.remaining());
+            
+            count += view.remaining();
+            buffer.put(view);
+         }
+         if(length <= 0) {
+            close();
+         }
+         return count;
+      }
+      
+      /**
+       * This returns the number of bytes that can be read from the
+       * range. This will be the actual number of bytes the range
+       * contains as the bytes are held in memory.
+       * 
+       * @return this returns the number of bytes within the range
+       */
+      @Override
+      public int available() throws IOException {
+         return (int)Math.min(length, Integer.MAX_VALUE);
+      }
+      
+      /**
+       * This is used to determine if the range is open. The range is
+       * closed once it has been fully read or explicitly closed.
+       * 
+       * @return this returns true if the range has not been closed
+       */
+      public boolean isOpen() {
+         return !closed;
+      }
+      
+      /**
+       * This is used to close the range. Closing the range gives up
+       * its reference to the buffer so that the chunks can be given
+       * back to the pool once the buffer has also been released.
+       */
+      @Override
+      public void close() throws IOException {
+         if(!closed) {
+            closed = true;
+            length = 0;
+            dereference();
+         }
+      }
+   }
+}
@@ -0,0 +1,125 @@
+/*
+ * RecycleAllocator.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.common.buffer;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The <code>RecycleAllocator</code> is used to release the pooled
+ * buffers created for a unit of work, such as a request, in one go.
+ * Buffers are created by the source allocator, and each one that is
+ * taken from a pool is recorded. When the content is no longer 
+ * needed, for instance once a request has been handled and its
+ * response has been sent, the allocator is released and the buffers
+ * are given back.
+ * <p>
+ * Once released, the content of a pooled buffer can no longer be 
+ * read, and an attempt to do so results in a 
+ * <code>BufferException</code>. Only a stream that was opened before
+ * the release can still be read to the end. So the owner must not
+ * release the allocator until nothing will read from it.
+ * 
+ * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.common.buffer.DirectAllocator
+ */
+public class RecycleAllocator implements Allocator {
+   
+   /**
+    * This is used to record the pooled buffers that are created.
+    */
+   private final Queue<PooledBuffer> buffers;
+   
+   /**
+    * This is the allocator used to create the actual buffers.
+    */
+   private final Allocator source;
+   
+   /**
+    * Constructor for the <code>RecycleAllocator</code> object. This
+    * is used to create an allocator that records the pooled buffers
+    * created by the source so they can be released later.
+    * 
+    * @param source this is the allocator used to create buffers
+    */
+   public RecycleAllocator(Allocator source) {
+      this.buffers = new ConcurrentLinkedQueue<PooledBuffer>();
+      this.source = source;
+   }
+   
+   /**
+    * This will allocate a buffer using the source allocator. If the
+    * buffer has been taken from a pool it is recorded so that it is
+    * given back once this allocator has been released.
+    * 
+    * @return a buffer created using the source allocator
+    */
+   public Buffer allocate() throws IOException {
+      Buffer buffer = source.allocate();
+      return record(buffer);
+   }
+   
+   /**
+    * This will allocate a buffer using the source allocator. If the
+    * buffer has been taken from a pool it is recorded so that it is
+    * given back once this allocator has been released.
+    * 
+    * @param size this is the initial capacity of the buffer
+    * 
+    * @return a buffer created using the source allocator
+    */
+   public Buffer allocate(long size) throws IOException {
+      Buffer buffer = source.allocate(size);
+      return record(buffer);
+   }
+   
+   /**
+    * This is used to record the buffer if it is a pooled buffer. A
+    * buffer that is not pooled is left to be garbage collected.
+    * 
+    * @param buffer this is the buffer that has been created
+    * 
+    * @return this returns the buffer that was provided
+    */
+   private Buffer record(Buffer buffer) {
+      if(buffer instanceof PooledBuffer) {
+         buffers.offer((PooledBuffer)buffer);
+      }
+      return buffer;
+   }
+   
+   /**
+    * This is used to release all of the pooled buffers created with
+    * this allocator. This should be called once the content of the
+    * buffers is no longer required. Any buffer that is still being
+    * read is given back once its streams have been closed.
+    */
+   public void release() {
+      while(true) {
+         PooledBuffer buffer = buffers.poll();
+         
+         if(buffer == null) {
+            break;
+         }
+         buffer.release();
+      }
+   }
+}
@@ -0,0 +1,328 @@
+/*
+ * Spool.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.common.buffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.simpleframework.common.thread.DaemonFactory;
+
+/**
+ * The <code>Spool</code> object is used to manage the files that the
+ * spooled buffers are written to. Rather than creating a file for
+ * each buffer, a small number of large files are created and carved
+ * in to fixed size extents. A buffer takes extents as it grows and
+ * writes to them with positional writes, and once the buffer can no
+ * longer be reached its extents are returned to a free list by a
+ * background thread so that the space can be reused.
+ * <p>
+ * Each file is removed from the file system as soon as it has been
+ * opened, so that it exists only for as long as the channel is held.
+ * As a result no sweep of the temporary directory is needed, and the
+ * space used by a spool is given back if the process exits.
+ * 
+ * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.common.buffer.SpoolAllocator
+ */
+class Spool {
+   
+   /**
+    * This is used to hold the references for registered buffers.
+    */
+   private final Set<SpoolReference> references;
+   
+   /**
+    * This is the queue that unreachable buffers are enqueued on.
+    */
+   private final ReferenceQueue<Object> queue;
+   
+   /**
+    * This is the list of channels for the spool files created.
+    */
+   private final List<FileChannel> files;
+   
+   /**
+    * This is the factory used to create the cleaner thread.
+    */
+   private final DaemonFactory factory;
+   
+   /**
+    * This is the prefix used for the names of the spool files.
+    */
+   private final String prefix;
+   
+   /**
+    * This is the size in bytes of each extent within a file.
+    */
+   private final int extent;
+   
+   /**
+    * This is the number of extents within each spool file.
+    */
+   private final int count;
+   
+   /**
+    * This is the stack of extents that are free to be taken.
+    */
+   private int[] free;
+   
+   /**
+    * This is the number of extents held on the free stack.
+    */
+   private int top;
+   
+   /**
+    * Constructor for the <code>Spool</code> object. No files are 
+    * created until the first extent is taken, so a spool that only
+    * ever provides buffers that fit in memory has no files.
+    * 
+    * @param prefix this is the file prefix for the spool files
+    * @param extent this is the size of each extent within a file
+    * @param count this is the number of extents within each file
+    */
+   public Spool(String prefix, int extent, int count) {
+      this.references = Collections.synchronizedSet(new HashSet<SpoolReference>());
+      this.queue = new ReferenceQueue<Object>();
+      this.files = new ArrayList<FileChannel>();
+      this.factory = new DaemonFactory();
+      this.free = new int[count];
+      this.prefix = prefix;
+      this.extent = extent;
+      this.count = count;
+   }
+   
+   /**
+    * This returns the size in bytes of each extent in the spool. A
+    * buffer uses this to determine which of its extents holds the
+    * byte at a given offset and where within the extent it is.
+    * 
+    * @return this returns the size of each extent in the spool
+    */
+   public int getExtent() {
+      return extent;
+   }
+   
+   /**
+    * This is used to create a reference for a buffer. The reference
+    * records the extents taken for the buffer and is enqueued when
+    * the buffer can no longer be reached, at which point its extents
+    * are returned to the spool by the cleaner thread.
+    * 
+    * @param owner this is the buffer that extents are taken for
+    * 
+    * @return this returns a reference used to record the extents
+    */
+   public SpoolReference register(Object owner) {
+      SpoolReference reference = new SpoolReference(owner, queue);
+      
+      references.add(reference);
+      return reference;
+   }
+   
+   /**
+    * This is used to take an extent from the spool. If there are no
+    * free extents a new file is created, and all of its extents are
+    * placed on the free stack. The extent taken is recorded with the
+    * reference for the buffer so that it is returned later.
+    * 
+    * @param reference this is the reference for the buffer
+    * 
+    * @return this returns the identifier of the extent taken
+    */
+   public synchronized int acquire(SpoolReference reference) throws IOException {
+      if(top <= 0) {
+         expand();
+      }
+      int next = free[--top];
+      
+      if(reference != null) {
+         reference.add(next);
+      }
+      return next;
+   }
+   
+   /**
+    * This is used to return the extents recorded for a buffer to the
+    * spool. Once returned the extents can be taken by another buffer
+    * and so this must only be done once the buffer is unreachable.
+    * 
+    * @param reference this is the reference for the buffer
+    */
+   private synchronized void release(SpoolReference reference) {
+      int size = reference.size();
+      
+      if(top + size > free.length) {
+         int[] copy = new int[Math.max(top + size, free.length * 2)];
+         System.arraycopy(free, 0, copy, 0, top);
+         free = copy;
+      }
+      for(int i = size - 1; i >= 0; i--) {
+         free[top++] = reference.getExtent(i);
+      }
+      references.remove(reference);
+   }
+   
+   /**
+    * This is used to create a new spool file. The file is sized to
+    * hold the extents up front, which on most file systems creates
+    * a sparse file, and is then removed so it does not remain on the
+    * file system. The cleaner thread is started with the first file.
+    */
+   private void expand() throws IOException {
+      File file = File.createTempFile(prefix, null);
+      RandomAccessFile access = new RandomAccessFile(file, "rw");
+      FileChannel channel = access.getChannel();
+      int index = files.size();
+      
+      if(!file.delete()) {
+         file.deleteOnExit();
+      }
+      if(index == 0) {
+         start();
+      }
+      if(free.length - top < count) {
+         int[] copy = new int[top + count];
+         System.arraycopy(free, 0, copy, 0, top);
+         free = copy;
+      }
+      access.setLength((long)extent * count);
+      files.add(channel);
+      
+      for(int i = count - 1; i >= 0; i--) {
+         free[top++] = index * count + i;
+      }
+   }
+   
+   /**
+    * This is used to start the thread that returns the extents of
+    * unreachable buffers to the spool. The thread is a daemon so it
+    * does not prevent the process from exiting when it is idle.
+    */
+   private void start() {
+      Cleaner cleaner = new Cleaner();
+      Thread thread = factory.newThread(cleaner, Spool.class);
+      
+      thread.setDaemon(true);
+      thread.start();
+   }
+   
+   /**
+    * This is used to write bytes to an extent. The bytes are written
+    * with a positional write so that no file pointer is shared and
+    * no stream needs to be opened for the extent.
+    * 
+    * @param id this is the identifier of the extent to write to
+    * @param pos this is the position within the extent to write at
+    * @param array this is the array of bytes to be written
+    * @param off this is the offset within the array to write from
+    * @param size this is the number of bytes to be written
+    */
+   public void write(int id, int pos, byte[] array, int off, int size) throws IOException {
+      FileChannel channel = channel(id);
+      ByteBuffer buffer = ByteBuffer.wrap(array, off, size);
+      long start = (long)(id % count) * extent + pos;
+      
+      while(buffer.hasRemaining()) {
+         int done = channel.write(buffer, start);
+         
+         if(done > 0) {
+            start += done;
+         }
+      }
+   }
+   
+   /**
+    * This is used to read bytes from an extent. The bytes are read
+    * with a positional read, so any number of streams can read from
+    * the same file at once without opening it again or skipping.
+    * 
+    * @param id this is the identifier of the extent to read from
+    * @param pos this is the position within the extent to read at
+    * @param array this is the array to read the bytes in to
+    * @param off this is the offset within the array to read to
+    * @param size this is the maximum number of bytes to read
+    * 
+    * @return this returns the number of bytes that were read
+    */
+   public int read(int id, int pos, byte[] array, int off, int size) throws IOException {
+      FileChannel channel = channel(id);
+      ByteBuffer buffer = ByteBuffer.wrap(array, off, size);
+      long start = (long)(id % count) * extent + pos;
+      
+      while(buffer.hasRemaining()) {
+         int done = channel.read(buffer, start);
+         
+         if(done < 0) {
+            throw new BufferException("Could not read extent %s", id);
+         }
+         start += done;
+      }
+      return size;
+   }
+   
+   /**
+    * This is used to acquire the channel for the file that holds
+    * the specified extent. The extents of each file are numbered
+    * consecutively, so the file is found with a simple division.
+    * 
+    * @param id this is the identifier of the extent to find
+    * 
+    * @return this returns the channel for the file
+    */
+   private synchronized FileChannel channel(int id) {
+      return files.get(id / count);
+   }
+   
+   /**
+    * The <code>Cleaner</code> is used to take references from the
+    * queue once the buffers they refer to can no longer be reached.
+    * The extents recorded for each buffer are returned to the spool
+    * so that the space they occupy in the files can be reused.
+    */
+   private class Cleaner implements Runnable {
+      
+      /**
+       * This waits for references to be enqueued and releases the
+       * extents they record. The thread runs until interrupted.
+       */
+      public void run() {
+         try {
+            while(true) {
+               SpoolReference reference = (SpoolReference)queue.remove();
+               
+               if(reference != null) {
+                  release(reference);
+               }
+            }
+         } catch(InterruptedException e) {
+            return;
+         }
+      }
+   }
+}
@@ -0,0 +1,141 @@
+/*
+ * SpoolAllocator.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.common.buffer;
+
+import java.io.IOException;
+
+/**
+ * The <code>SpoolAllocator</code> object is used to create buffers
+ * that are written to the file system without creating a file for
+ * each buffer. Buffers over the limit are written to extents carved
+ * from a small number of large spool files, which are created once
+ * and reused for the life of the allocator. When a buffer is no
+ * longer referenced its extents are returned to the spool by a
+ * background thread so that they can be used by another buffer.
+ * <p>
+ * Unlike the <code>FileAllocator</code> this does not scan the
+ * temporary directory when a buffer is created, and the bytes of a
+ * buffer or any of its segments are read with positional reads of
+ * the spool file rather than by opening the file and skipping.
+ * 
+ * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.common.buffer.SpoolBuffer
+ */
+public class SpoolAllocator implements Allocator {
+   
+   /**
+    * This is the default prefix used when none has been specified.
+    */
+   private static final String PREFIX = "spool";
+   
+   /**
+    * This is the spool that the buffer extents are taken from.
+    */
+   private final Spool spool;
+   
+   /**
+    * This is the limit up to which buffers are allocated in memory.
+    */
+   private final int limit;
+   
+   /**
+    * Constructor for the <code>SpoolAllocator</code> object. This is
+    * used to create buffers in memory up to a threshold size. If a
+    * buffer is required over the threshold size then the data is
+    * written to extents within a shared spool file.
+    */
+   public SpoolAllocator() {
+      this(1048576);
+   }
+   
+   /**
+    * Constructor for the <code>SpoolAllocator</code> object. This is
+    * used to create buffers in memory up to a threshold size. If a
+    * buffer is required over the threshold size then the data is
+    * written to extents within a shared spool file.
+    * 
+    * @param limit this is the maximum size for a heap buffer
+    */
+   public SpoolAllocator(int limit) {
+      this(PREFIX, limit);
+   }
+   
+   /**
+    * Constructor for the <code>SpoolAllocator</code> object. This is
+    * used to create buffers in memory up to a threshold size. If a
+    * buffer is required over the threshold size then the data is
+    * written to extents within a shared spool file.
+    * 
+    * @param prefix this is the file prefix for the spool files
+    * @param limit this is the maximum size for a heap buffer
+    */
+   public SpoolAllocator(String prefix, int limit) {
+      this(prefix, limit, 262144, 256);
+   }
+   
+   /**
+    * Constructor for the <code>SpoolAllocator</code> object. This is
+    * used to create buffers in memory up to a threshold size. If a
+    * buffer is required over the threshold size then the data is
+    * written to extents within a shared spool file. Each spool file
+    * is created with room for the specified number of extents.
+    * 
+    * @param prefix this is the file prefix for the spool files
+    * @param limit this is the maximum size for a heap buffer
+    * @param extent this is the size of each extent within a file
+    * @param count this is the number of extents within each file
+    */
+   public SpoolAllocator(String prefix, int limit, int extent, int count) {
+      this.spool = new Spool(prefix, extent, count);
+      this.limit = limit;
+   }
+   
+   /**
+    * This will allocate a buffer which will write data to extents
+    * taken from the spool. Buffers allocated by this method can be
+    * of arbitrary size as further extents are taken as the data is
+    * appended. This ensures there is no upper limit for the data.
+    * 
+    * @return a buffer which will write to the spool files
+    */
+   public Buffer allocate() throws IOException {
+      return new SpoolBuffer(spool);
+   }
+   
+   /**
+    * This will allocate a buffer which will write data to extents
+    * taken from the spool. Buffers allocated by this method can be
+    * of arbitrary size as further extents are taken as the data is
+    * appended. If the size required is less than the limit then the
+    * buffer is an in memory array which provides optimal performance.
+    * 
+    * @param size this is the size of the buffer to be created
+    * 
+    * @return a buffer which will write to the spool files
+    */
+   public Buffer allocate(long size) throws IOException {
+      int required = (int)size;
+      
+      if(size <= limit) {
+         return new ArrayBuffer(required); 
+      }
+      return allocate();
+   }
+}
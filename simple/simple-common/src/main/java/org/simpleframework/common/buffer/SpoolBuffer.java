@@ -0,0 +1,568 @@
+/*
+ * SpoolBuffer.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.common.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The <code>SpoolBuffer</code> object is used to create a buffer
+ * which will write the appended data to extents within a spool file.
+ * This is typically used for buffers that are too large to allocate
+ * in memory. As data is appended further extents are taken from the
+ * spool, and the data can be read back using positional reads of
+ * the spool file. Once the buffer can no longer be reached all of
+ * the extents it took are returned to the spool to be reused.
+ * 
+ * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.common.buffer.SpoolAllocator
+ */
+class SpoolBuffer implements Buffer {
+   
+   /**
+    * This is the spool that the extents for the buffer come from.
+    */
+   private final Spool spool;
+   
+   /**
+    * This records the extents that have been taken for the buffer.
+    */
+   private SpoolReference reference;
+   
+   /**
+    * This represents the last segment that has been created.
+    */
+   private Segment segment;
+   
+   /**
+    * This is the number of bytes currently appended to the buffer.
+    */
+   private long count;
+   
+   /**
+    * This is used to determine if this buffer has been closed.
+    */
+   private boolean closed;
+   
+   /**
+    * Constructor for the <code>SpoolBuffer</code> object. This will
+    * create a buffer that takes extents from the provided spool. No
+    * extent is taken until the first bytes are appended.
+    * 
+    * @param spool this is the spool that extents are taken from
+    */
+   public SpoolBuffer(Spool spool) {
+      this.spool = spool;
+   }
+   
+   /**
+    * This is used to allocate a segment within this buffer. If the
+    * buffer is closed this will throw an exception, if however the
+    * buffer is still open then a segment is created which will 
+    * write all appended data to this buffer. However it can be
+    * treated as an independent source of data.
+    * 
+    * @return this returns a buffer which is a segment of this 
+    */
+   public Buffer allocate() throws IOException {
+      if(closed) {
+         throw new BufferException("Buffer has been closed");
+      }
+      if(segment != null) {
+         segment.close();
+      }
+      segment = new Segment(this, count);
+      return segment;
+   }
+   
+   /**
+    * This is used to append the specified data to the spool. All
+    * bytes appended can be consumed at a later stage by acquiring 
+    * the <code>InputStream</code> from this buffer. Also if required
+    * the data can be encoded as a string in a required character set.
+    * 
+    * @param array this is the array to write the the spool
+    * 
+    * @return this returns this buffer for further operations
+    */
+   public Buffer append(byte[] array) throws IOException {
+      return append(array, 0, array.length);
+   }
+   
+   /**
+    * This is used to append the specified data to the spool. The
+    * bytes are written to the last extent taken for the buffer, and
+    * when it is full a further extent is taken from the spool. The
+    * extents need not be adjacent within the spool file.
+    * 
+    * @param array this is the array to write the the spool
+    * @param off this is the offset within the array to write
+    * @param size this is the number of bytes to be appended
+    * 
+    * @return this returns this buffer for further operations
+    */
+   public Buffer append(byte[] array, int off, int size) throws IOException {
+      int extent = spool.getExtent();
+      
+      if(closed) {
+         throw new BufferException("Buffer has been closed");
+      }
+      while(size > 0) {
+         int index = (int)(count / extent);
+         int pos = (int)(count % extent);
+         int length = Math.min(size, extent - pos);
+         int id = extent(index);
+         
+         spool.write(id, pos, array, off, length);
+         count += length;
+         size -= length;
+         off += length;
+      }
+      return this;
+   }
+   
+   /**
+    * This is used to acquire the extent at the specified index. If
+    * the buffer has not yet taken the extent then it is taken from
+    * the spool, which registers the buffer on its first extent.
+    * 
+    * @param index this is the position of the extent in the buffer
+    * 
+    * @return this returns the identifier for the extent
+    */
+   private int extent(int index) throws IOException {
+      if(reference == null) {
+         reference = spool.register(this);
+      }
+      if(index >= reference.size()) {
+         return spool.acquire(reference);
+      }
+      return reference.getExtent(index);
+   }
+   
+   /**
+    * This is used to read bytes from the buffer at the specified 
+    * offset. This reads no further than the end of the extent that
+    * holds the offset, so fewer bytes than requested may be read.
+    * 
+    * @param offset this is the offset within the buffer to read
+    * @param array this is the array to read the bytes in to
+    * @param off this is the offset within the array to read to
+    * @param size this is the maximum number of bytes to read
+    * 
+    * @return this returns the number of bytes that were read
+    */
+   private int read(long offset, byte[] array, int off, int size) throws IOException {
+      int extent = spool.getExtent();
+      int index = (int)(offset / extent);
+      int pos = (int)(offset % extent);
+      int length = Math.min(size, extent - pos);
+      int id = reference.getExtent(index);
+      
+      return spool.read(id, pos, array, off, length);
+   }
+   
+   /**
+    * This method is used to acquire the buffered bytes as a string.
+    * This is useful if the contents need to be manipulated as a
+    * string or transferred into another encoding. If the UTF-8
+    * content encoding is not supported the platform default is 
+    * used, however this is unlikely as UTF-8 should be supported.
+    *
+    * @return this returns a UTF-8 encoding of the buffer contents
+    */ 
+   public String encode() throws IOException {
+      return encode("UTF-8");
+   }
+   
+   /**
+    * This method is used to acquire the buffered bytes as a string.
+    * This is useful if the contents need to be manipulated as a
+    * string or transferred into another encoding. This will convert
+    * the bytes using the specified character encoding format.
+    * 
+    * @param charset this is the charset to encode the data with
+    *
+    * @return this returns the encoding of the buffer contents
+    */   
+   public String encode(String charset) throws IOException {
+      return convert(0, count, charset);
+   }
+   
+   /**
+    * This method is used to acquire a range of the buffered bytes as
+    * a string. The bytes are read directly from the extents that hold
+    * them in to a single array, which is then decoded.
+    * 
+    * @param first this is the offset of the first byte to encode
+    * @param length this is the number of bytes to be encoded
+    * @param charset this is the charset to encode the data with
+    *
+    * @return this returns the encoding of the buffer range
+    */   
+   private String convert(long first, long length, String charset) throws IOException {
+      byte[] buffer = new byte[(int)length];
+      int done = 0;
+      
+      while(done < length) {
+         done += read(first + done, buffer, done, buffer.length - done);
+      }
+      return new String(buffer, charset);
+   }
+   
+   /**
+    * This method is used so that a buffer can be represented as a
+    * stream of bytes. Each stream reads from its own offset using
+    * positional reads, so many streams can be opened for a buffer
+    * without the spool file being opened again.
+    *
+    * @return a stream that can be used to read the buffered bytes
+    */ 
+   public InputStream open() throws IOException {
+      return new Range(0, count);
+   }
+   
+   /**
+    * This will clear all data from the buffer. This simply sets the
+    * count to be zero, the extents taken for the buffer are kept so
+    * that they are written over as data is appended once again.
+    */   
+   public void clear() throws IOException {
+      if(closed) {
+         throw new BufferException("Buffer has been closed");
+      }
+      if(segment != null) {
+         segment.close();
+      }
+      segment = null;
+      count = 0;
+   }
+   
+   /**
+    * This method is used to ensure the buffer can be closed. Once
+    * the buffer is closed it is an immutable collection of bytes and
+    * can not longer be modified. This ensures that it can be passed
+    * by value without the risk of modification of the bytes.
+    */   
+   public void close() throws IOException {
+      if(!closed) {
+         closed = true;
+      }
+      if(segment != null) {
+         segment.close();
+      }
+   }
+   
+   /**
+    * This is used to provide the number of bytes that have been
+    * written to the buffer. This increases as bytes are appended
+    * to the buffer. if the buffer is cleared this resets to zero.
+    *  
+    * @return this returns the number of bytes within the buffer
+    */
+   public long length() {
+      return count;
+   }
+   
+   /**
+    * The <code>Segment</code> object is used to create a segment of
+    * the parent buffer. The segment will write to the parent however
+    * it can be read as a unique range of bytes starting with the 
+    * first sequence of bytes appended to the segment. A segment can
+    * be used to create a collection of buffers backed by the same
+    * extents, as is required with multipart uploads.
+    */
+   private class Segment implements Buffer {
+      
+      /**
+       * This is an internal segment created from this segment.
+       */
+      private Segment segment;
+      
+      /**
+       * This is the parent buffer that bytes are to be appended to.
+       */
+      private Buffer parent;
+      
+      /**
+       * This is the offset of the first byte within the sequence.
+       */
+      private long first;
+      
+      /**
+       * This is the last byte within the segment for this segment.
+       */
+      private long last;
+      
+      /**
+       * This determines if the segment is currently open or closed.
+       */
+      private boolean closed;
+      
+      /**
+       * Constructor for the <code>Segment</code> object. This is used
+       * to create a segment from a parent buffer. A segment is a part
+       * of the parent buffer and appends its bytes to the parent. It
+       * can however be treated as an independent source of bytes.
+       * 
+       * @param parent this is the parent buffer to be appended to
+       * @param first this is the offset for the first byte in this
+       */
+      public Segment(Buffer parent, long first) {
+         this.parent = parent;
+         this.first = first;
+         this.last = first;
+      }
+      
+      /**
+       * This is used to allocate a segment within this segment. If
+       * the segment is closed this will throw an exception, if it is
+       * still open then a segment is created which will write all
+       * appended data to this segment and in turn to the buffer.
+       * 
+       * @return this returns a buffer which is a segment of this 
+       */
+      public Buffer allocate() throws IOException {
+         if(closed) {
+            throw new BufferException("Buffer has been closed");
+         }
+         if(segment != null) {
+            segment.close();
+         }
+         segment = new Segment(this, last);
+         return segment;
+      }
+      
+      /**
+       * This is used to append the specified data to the parent so
+       * that it is written to the spool. The bytes appended can be
+       * read back independently of the rest of the parent buffer.
+       * 
+       * @param array this is the array to write the the spool
+       * 
+       * @return this returns this buffer for further operations
+       */
+      public Buffer append(byte[] array) throws IOException {
+         return append(array, 0, array.length);
+      }
+      
+      /**
+       * This is used to append the specified data to the parent so
+       * that it is written to the spool. The bytes appended can be
+       * read back independently of the rest of the parent buffer.
+       * 
+       * @param array this is the array to write the the spool
+       * @param off this is the offset within the array to write
+       * @param size this is the number of bytes to be appended
+       * 
+       * @return this returns this buffer for further operations
+       */
+      public Buffer append(byte[] array, int off, int size) throws IOException {
+         if(closed) {
+            throw new BufferException("Buffer has been closed");
+         }
+         if(size > 0) {
+            parent.append(array, off, size);
+            last += size;
+         }
+         return this;
+      }
+      
+      /**
+       * This method is used to acquire the segment bytes as a string
+       * using the UTF-8 encoding. The bytes are read directly from
+       * the extents of the parent buffer that hold the segment.
+       *
+       * @return this returns a UTF-8 encoding of the segment
+       */ 
+      public String encode() throws IOException {
+         return encode("UTF-8");
+      }
+      
+      /**
+       * This method is used to acquire the segment bytes as a string
+       * using the specified encoding. The bytes are read directly from
+       * the extents of the parent buffer that hold the segment.
+       * 
+       * @param charset this is the charset to encode the data with
+       *
+       * @return this returns the encoding of the segment
+       */  
+      public String encode(String charset) throws IOException {
+         return convert(first, last - first, charset);
+      }
+      
+      /**
+       * This method is used so that a segment can be represented as
+       * a stream of bytes. The stream reads from the offset of the
+       * segment within the spool, so nothing needs to be skipped.
+       *
+       * @return a stream that can be used to read the segment bytes
+       */ 
+      public InputStream open() throws IOException {
+         return new Range(first, last - first);
+      }
+      
+      /**
+       * This will clear all data from the segment. As the bytes of
+       * the segment have been written to the parent buffer they are
+       * not removed, so this only checks that the segment is open.
+       */  
+      public void clear() throws IOException {
+         if(closed) {
+            throw new BufferException("Buffer is closed");
+         }
+      }
+      
+      /**
+       * This method is used to ensure the segment can be closed. Once
+       * closed it is an immutable collection of bytes and can not be
+       * modified, which also closes any segment created from it.
+       */   
+      public void close() throws IOException {
+         if(!closed) {
+            closed = true;
+         }
+         if(segment != null) {
+            segment.close();
+         }
+      }
+      
+      /**
+       * This is used to provide the number of bytes that have been
+       * written to the segment. This increases as bytes are appended
+       * to the segment, which also appends them to the parent.
+       *  
+       * @return this returns the number of bytes within the segment
+       */
+      public long length() {
+         return last - first;
+      }
+   }
+   
+   /**
+    * The <code>Range</code> object is used to provide a stream that
+    * reads a range of bytes from the buffer. Each read is a positional
+    * read of the spool file, so the stream holds no file descriptor
+    * and does not need to be closed to release resources.
+    */
+   private class Range extends InputStream {
+      
+      /**
+       * This is the offset within the buffer of the next byte read.
+       */
+      private long offset;
+      
+      /**
+       * This is the number of bytes that remain within the range.
+       */
+      private long length;
+      
+      /**
+       * Constructor for the <code>Range</code> object. This creates
+       * a stream that reads the specified number of bytes from the
+       * buffer starting at the offset provided.
+       * 
+       * @param offset this is the offset of the first byte to read
+       * @param length this is the number of bytes that can be read
+       */
+      public Range(long offset, long length) {
+         this.offset = offset;
+         this.length = length;
+      }
+      
+      /**
+       * This will read a single byte from the range. When all of the
+       * bytes within the range have been read this returns -1.
+       * 
+       * @return this returns the octet read from the buffer
+       */
+      @Override
+      public int read() throws IOException {
+         byte[] octet = new byte[1];
+         int count = read(octet, 0, 1);
+         
+         if(count > 0) {
+            return octet[0] & 0xff;
+         }
+         return -1;
+      }
+      
+      /**
+       * This will read bytes from the buffer up to the number of 
+       * bytes remaining in the range. When all of the bytes within
+       * the range have been read this returns -1.
+       * 
+       * @param array this is the array to read the bytes in to
+       * @param off this is the start offset to append the bytes to
+       * @param size this is the number of bytes that are required
+       * 
+       * @return this returns the number of bytes that were read
+       */
+      @Override
+      public int read(byte[] array, int off, int size) throws IOException {
+         int left = (int)Math.min(length, size);
+         
+         if(left > 0) {
+            int count = SpoolBuffer.this.read(offset, array, off, left);
+            
+            if(count > 0) {
+               offset += count;
+               length -= count;
+            }
+            return count;
+         }
+         if(size <= 0) {
+            return 0;
+         }
+         return -1;
+      }
+      
+      /**
+       * This returns the number of bytes that can be read from the
+       * range. This will be the actual number of bytes the range
+       * contains as the spool file will not block reading.
+       * 
+       * @return this returns the number of bytes within the range
+       */
+      @Override
+      public int available() throws IOException {
+         return (int)Math.min(length, Integer.MAX_VALUE);
+      }
+      
+      /**
+       * This is the number of bytes to skip from the range. As the
+       * reads are positional this simply moves the offset forward,
+       * so no bytes are read from the spool file to skip them.
+       * 
+       * @param size this is the number of bytes to skip
+       * 
+       * @return this returns the number of bytes that were skipped
+       */
+      @Override
+      public long skip(long size) throws IOException {
+         long skip = Math.max(0, Math.min(length, size));
+         
+         offset += skip;
+         length -= skip;
+         return skip;
+      }
+   }
+}
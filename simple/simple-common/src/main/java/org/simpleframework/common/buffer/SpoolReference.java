@@ -0,0 +1,100 @@
+/*
+ * SpoolReference.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.common.buffer;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+
+/**
+ * The <code>SpoolReference</code> is used to record the extents that
+ * have been taken from the spool for a buffer. It is a phantom
+ * reference to the buffer, so once the buffer and all segments and
+ * streams created from it can no longer be reached the reference is
+ * enqueued, and the extents it records are returned to the spool.
+ * This means a spooled buffer does not need to be released.
+ * 
+ * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.common.buffer.Spool
+ */
+class SpoolReference extends PhantomReference<Object> {
+   
+   /**
+    * This is the list of extent identifiers held by the buffer.
+    */
+   private int[] extents;
+   
+   /**
+    * This is the number of extents that have been recorded.
+    */
+   private int count;
+   
+   /**
+    * Constructor for the <code>SpoolReference</code> object. This is
+    * used to create a reference to the buffer that is enqueued with
+    * the provided queue once the buffer is no longer reachable.
+    * 
+    * @param owner this is the buffer that the extents belong to
+    * @param queue this is the queue the reference is enqueued on
+    */
+   public SpoolReference(Object owner, ReferenceQueue<Object> queue) {
+      super(owner, queue);
+      this.extents = new int[4];
+   }
+   
+   /**
+    * This is used to record an extent that has been taken from the
+    * spool for the buffer. The extents are recorded in the order
+    * they are taken, which is the order the buffer fills them.
+    * 
+    * @param extent this is the identifier of the extent taken
+    */
+   public void add(int extent) {
+      if(count >= extents.length) {
+         int[] copy = new int[count * 2];
+         System.arraycopy(extents, 0, copy, 0, count);
+         extents = copy;
+      }
+      extents[count++] = extent;
+   }
+   
+   /**
+    * This is used to acquire the identifier of an extent held by
+    * the buffer. The index is the position of the extent within the
+    * buffer, so the bytes for an offset are found with a division.
+    * 
+    * @param index this is the position of the extent in the buffer
+    * 
+    * @return this returns the identifier of the extent
+    */
+   public int getExtent(int index) {
+      return extents[index];
+   }
+   
+   /**
+    * This returns the number of extents that have been recorded for
+    * the buffer. This is used to determine if a further extent must
+    * be taken from the spool before more bytes are written.
+    * 
+    * @return this returns the number of extents recorded
+    */
+   public int size() {
+      return count;
+   }
+}
@@ -0,0 +1,132 @@
+/*
+ * CacheNode.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.common.cache;
+
+/**
+ * The <code>CacheNode</code> represents an entry within the cache. The
+ * key and value can be read by any thread without locking. The links
+ * to the adjacent nodes and the weight charged to the cache are only
+ * ever used by the thread holding the lock for the eviction policy.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.common.cache.CacheQueue
+ */
+class CacheNode<K, V> {
+
+   /**
+    * This is the key that the entry is held under.
+    */
+   public final K key;
+
+   /**
+    * This is the spread hash of the key used by the sketch.
+    */
+   public final int hash;
+
+   /**
+    * This is the value that is currently held by the entry.
+    */
+   public volatile V value;
+
+   /**
+    * This is the weight of the current value of the entry.
+    */
+   public volatile int weight;
+
+   /**
+    * This is the time the value of the entry was last written.
+    */
+   public volatile long write;
+
+   /**
+    * This is the time the entry was last read or written.
+    */
+   public volatile long access;
+
+   /**
+    * This is true once the entry has been removed from the cache.
+    */
+   public volatile boolean retired;
+
+   /**
+    * This is the queue the entry is held in by the policy.
+    */
+   public CacheQueue<K, V> queue;
+
+   /**
+    * This is the node before this one within the queue.
+    */
+   public CacheNode<K, V> previous;
+
+   /**
+    * This is the node after this one within the queue.
+    */
+   public CacheNode<K, V> next;
+
+   /**
+    * This is the weight the policy has charged for the entry.
+    */
+   public int charge;
+
+   /**
+    * Constructor for the <code>CacheNode</code> object. This creates
+    * a node that is used as the sentinel of a queue, so it does not
+    * hold an entry.
+    */
+   public CacheNode() {
+      this(null, null, 0, 0);
+   }
+
+   /**
+    * Constructor for the <code>CacheNode</code> object. This creates
+    * a node for an entry that was written at the time given.
+    *
+    * @param key this is the key that the entry is held under
+    * @param value this is the value that is held by the entry
+    * @param weight this is the weight of the value for the entry
+    * @param time this is the time the entry was written
+    */
+   public CacheNode(K key, V value, int weight, long time) {
+      this.hash = key == null ? 0 : spread(key.hashCode());
+      this.weight = weight;
+      this.access = time;
+      this.write = time;
+      this.value = value;
+      this.key = key;
+   }
+
+   /**
+    * This is used to spread the bits of the hash of the key. As the
+    * sketch picks its counters from the lower bits of the hash, a
+    * poor hash would otherwise place many keys in the same counters.
+    *
+    * @param hash this is the hash code of the key
+    *
+    * @return this returns a hash with its bits spread
+    */
+   private static int spread(int hash) {
+      hash ^= hash >>> 17;
+      hash *= 0xed5ad4bb;
+      hash ^= hash >>> 11;
+      hash *= 0xac4c1b51;
+      hash ^= hash >>> 15;
+      return hash;
+   }
+}
@@ -0,0 +1,168 @@
+/*
+ * CacheQueue.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.common.cache;
+
+/**
+ * The <code>CacheQueue</code> is a doubly linked list of entries in the
+ * order they were last used. The least recently used entry is at the
+ * head and the most recently used at the tail. The queue keeps the 
+ * total weight of its entries so that the policy can determine when
+ * an entry must move to another queue or be evicted.
+ * <p>
+ * This is not thread safe, it is only used by the thread holding the
+ * lock for the eviction policy.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.common.cache.ConcurrentCache
+ */
+class CacheQueue<K, V> {
+
+   /**
+    * This is the sentinel that is both before the head and after the
+    * tail of the queue, so that no link is ever null.
+    */
+   private final CacheNode<K, V> sentinel;
+
+   /**
+    * This is the total weight charged for the entries queued.
+    */
+   private long weight;
+
+   /**
+    * Constructor for the <code>CacheQueue</code> object. This creates
+    * an empty queue, where the sentinel is linked to itself.
+    */
+   public CacheQueue() {
+      this.sentinel = new CacheNode<K, V>();
+      this.sentinel.previous = sentinel;
+      this.sentinel.next = sentinel;
+   }
+
+   /**
+    * This provides the total weight charged for the queued entries.
+    *
+    * @return this returns the weight of the entries in the queue
+    */
+   public long getWeight() {
+      return weight;
+   }
+
+   /**
+    * This determines if there are any entries within the queue.
+    *
+    * @return this returns true if the queue has no entries
+    */
+   public boolean isEmpty() {
+      return sentinel.next == sentinel;
+   }
+
+   /**
+    * This provides the least recently used entry in the queue.
+    *
+    * @return this returns the head of the queue or null if empty
+    */
+   public CacheNode<K, V> peek() {
+      CacheNode<K, V> node = sentinel.next;
+
+      if(node != sentinel) {
+         return node;
+      }
+      return null;
+   }
+
+   /**
+    * This provides the most recently used entry in the queue.
+    *
+    * @return this returns the tail of the queue or null if empty
+    */
+   public CacheNode<K, V> last() {
+      CacheNode<K, V> node = sentinel.previous;
+
+      if(node != sentinel) {
+         return node;
+      }
+      return null;
+   }
+
+   /**
+    * This is used to add an entry to the tail of the queue. The weight
+    * charged for the entry is added to the weight of the queue.
+    *
+    * @param node this is the entry that is to be added
+    */
+   public void add(CacheNode<K, V> node) {
+      CacheNode<K, V> tail = sentinel.previous;
+
+      node.previous = tail;
+      node.next = sentinel;
+      node.queue = this;
+      tail.next = node;
+      sentinel.previous = node;
+      weight += node.charge;
+   }
+
+   /**
+    * This is used to remove an entry from the queue. The weight that
+    * was charged for the entry is removed from the weight of the queue.
+    *
+    * @param node this is the entry that is to be removed
+    */
+   public void remove(CacheNode<K, V> node) {
+      node.previous.next = node.next;
+      node.next.previous = node.previous;
+      node.previous = null;
+      node.next = null;
+      node.queue = null;
+      weight -= node.charge;
+   }
+
+   /**
+    * This is used to move an entry to the tail of the queue, which is
+    * done each time the entry is used.
+    *
+    * @param node this is the entry that has been used
+    */
+   public void touch(CacheNode<K, V> node) {
+      if(sentinel.previous != node) {
+         remove(node);
+         add(node);
+      }
+   }
+
+   /**
+    * This is used to remove all of the entries from the queue. The
+    * entries are unlinked so that none of them refer to the queue.
+    */
+   public void clear() {
+      CacheNode<K, V> node = sentinel.next;
+
+      while(node != sentinel) {
+         CacheNode<K, V> next = node.next;
+
+         node.previous = null;
+         node.next = null;
+         node.queue = null;
+         node = next;
+      }
+      sentinel.previous = sentinel;
+      sentinel.next = sentinel;
+      weight = 0;
+   }
+}
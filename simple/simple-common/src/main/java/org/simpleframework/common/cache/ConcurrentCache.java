@@ -0,0 +1,898 @@
+/*
+ * ConcurrentCache.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.common.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.simpleframework.common.LeastRecentlyUsedMap.RemovalListener;
+
+/**
+ * The <code>ConcurrentCache</code> is a bounded cache that can be used
+ * by many threads at once without a global lock. Entries are held in a
+ * concurrent hash map, so a read never blocks. Rather than reordering
+ * the entries on every read, as the <code>LeastRecentlyUsedMap</code>
+ * does, each read and write is recorded in a buffer and replayed on 
+ * the eviction policy later by whichever thread acquires its lock.
+ * <p>
+ * Reads are recorded in striped buffers that are allowed to drop a 
+ * read when full, as the policy only needs a sample of them. Writes
+ * are recorded in striped queues that are never lossy, so the policy
+ * always knows the weight held. Once the total weight of the entries
+ * exceeds the maximum, entries are evicted using the W-TinyLFU policy.
+ * New entries are admitted to a small window ordered by recency. When
+ * they leave the window they compete with the entry that would next
+ * be evicted from the main space, and only the one used most often
+ * according to a frequency sketch is kept. This keeps entries that
+ * are popular from being displaced by a scan of entries used once.
+ * <p>
+ * Entries can optionally expire a fixed time after they were written
+ * or after they were last used. An expired entry is never returned,
+ * and is removed when found or when the policy is next maintained.
+ * The listener is notified of entries that are evicted or expired, 
+ * but not of those that are removed or replaced explicitly, which 
+ * matches the <code>LeastRecentlyUsedMap</code> it replaces.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.common.LeastRecentlyUsedMap
+ */
+public class ConcurrentCache<K, V> {
+
+   /**
+    * This is the number of stripes the buffers are divided in to.
+    */
+   private static final int STRIPES = stripes();
+
+   /**
+    * This is the number of reads each read stripe can hold.
+    */
+   private static final int READS = 16;
+
+   /**
+    * This is the number of writes pending before writers must wait.
+    */
+   private static final int WRITES = STRIPES * 128;
+
+   /**
+    * This is the type of task used when an entry is added.
+    */
+   private static final int ADD = 0;
+
+   /**
+    * This is the type of task used when an entry is replaced.
+    */
+   private static final int UPDATE = 1;
+
+   /**
+    * This is the type of task used when an entry is removed.
+    */
+   private static final int REMOVE = 2;
+
+   /**
+    * This is the type of task used when an entry is found to expire.
+    */
+   private static final int EXPIRE = 3;
+
+   /**
+    * This contains the entries of the cache indexed by their key.
+    */
+   private final ConcurrentHashMap<K, CacheNode<K, V>> data;
+
+   /**
+    * This contains the write tasks that are yet to be replayed.
+    */
+   private final List<Queue<Task<K, V>>> writes;
+
+   /**
+    * This contains the reads that are yet to be replayed.
+    */
+   private final AtomicReferenceArray<CacheNode<K, V>> reads;
+
+   /**
+    * This contains the number of reads recorded for each stripe.
+    */
+   private final AtomicIntegerArray counts;
+
+   /**
+    * This is the number of write tasks that are yet to be replayed.
+    */
+   private final AtomicInteger pending;
+
+   /**
+    * This is the lock held while the policy is being maintained.
+    */
+   private final ReentrantLock lock;
+
+   /**
+    * This is used to notify of entries that are evicted or expired.
+    */
+   private final RemovalListener<K, V> listener;
+
+   /**
+    * This is used to determine the weight of each entry.
+    */
+   private final Weigher<K, V> weigher;
+
+   /**
+    * This estimates how often each key has been used recently.
+    */
+   private final FrequencySketch sketch;
+
+   /**
+    * This holds the entries that have recently been added.
+    */
+   private final CacheQueue<K, V> window;
+
+   /**
+    * This holds the entries that have been used once in main space.
+    */
+   private final CacheQueue<K, V> probation;
+
+   /**
+    * This holds the entries that have been used again in main space.
+    */
+   private final CacheQueue<K, V> protect;
+
+   /**
+    * This is the maximum weight of the entries in the window.
+    */
+   private final long limit;
+
+   /**
+    * This is the maximum weight of the protected entries.
+    */
+   private final long protection;
+
+   /**
+    * This is the maximum weight of all of the entries.
+    */
+   private final long maximum;
+
+   /**
+    * This is the milliseconds an entry is kept after it is written.
+    */
+   private final long write;
+
+   /**
+    * This is the milliseconds an entry is kept after it is used.
+    */
+   private final long access;
+
+   /**
+    * This is the total weight that the policy has charged.
+    */
+   private volatile long weight;
+
+   /**
+    * Constructor for the <code>ConcurrentCache</code> object. This
+    * creates a cache that keeps up to one hundred entries, which is
+    * the same default capacity as the least recently used map.
+    */
+   public ConcurrentCache() {
+      this(100);
+   }
+
+   /**
+    * Constructor for the <code>ConcurrentCache</code> object. This
+    * creates a cache that keeps up to the given number of entries,
+    * where each entry is given a weight of one.
+    *
+    * @param capacity this is the number of entries to be kept
+    */
+   public ConcurrentCache(long capacity) {
+      this(null, capacity);
+   }
+
+   /**
+    * Constructor for the <code>ConcurrentCache</code> object. This
+    * creates a cache that keeps up to the given number of entries.
+    * The listener is notified when an entry is evicted or expires.
+    *
+    * @param listener this listens for entries that are removed
+    * @param capacity this is the number of entries to be kept
+    */
+   public ConcurrentCache(RemovalListener<K, V> listener, long capacity) {
+      this(listener, capacity, null);
+   }
+
+   /**
+    * Constructor for the <code>ConcurrentCache</code> object. This
+    * creates a cache that keeps entries up to the given total weight.
+    * If no weigher is provided then each entry has a weight of one.
+    *
+    * @param listener this listens for entries that are removed
+    * @param maximum this is the maximum weight to be kept
+    * @param weigher this is used to determine the entry weights
+    */
+   public ConcurrentCache(RemovalListener<K, V> listener, long maximum, Weigher<K, V> weigher) {
+      this(listener, maximum, weigher, 0, 0);
+   }
+
+   /**
+    * Constructor for the <code>ConcurrentCache</code> object. This
+    * creates a cache that keeps entries up to the given total weight.
+    * Entries also expire the specified number of milliseconds after
+    * they were written or last used, where zero means never.
+    *
+    * @param listener this listens for entries that are removed
+    * @param maximum this is the maximum weight to be kept
+    * @param weigher this is used to determine the entry weights
+    * @param write this is the time an entry is kept once written
+    * @param access this is the time an entry is kept once used
+    */
+   public ConcurrentCache(RemovalListener<K, V> listener, long maximum, Weigher<K, V> weigher, long write, long access) {
+      this.data = new ConcurrentHashMap<K, CacheNode<K, V>>();
+      this.reads = new AtomicReferenceArray<CacheNode<K, V>>(STRIPES * READS);
+      this.sketch = new FrequencySketch((int)Math.min(maximum, 1024));
+      this.counts = new AtomicIntegerArray(STRIPES);
+      this.writes = new ArrayList<Queue<Task<K, V>>>();
+      this.probation = new CacheQueue<K, V>();
+      this.protect = new CacheQueue<K, V>();
+      this.window = new CacheQueue<K, V>();
+      this.pending = new AtomicInteger();
+      this.lock = new ReentrantLock();
+      this.limit = Math.max(1, maximum / 100);
+      this.protection = (maximum - limit) * 4 / 5;
+      this.listener = listener;
+      this.weigher = weigher;
+      this.maximum = maximum;
+      this.access = access;
+      this.write = write;
+
+      for(int i = 0; i < STRIPES; i++) {
+         writes.add(new ConcurrentLinkedQueue<Task<K, V>>());
+      }
+   }
+
+   /**
+    * This provides the number of entries held within the cache. As
+    * entries are evicted after they are added this may briefly be
+    * more than the capacity while the policy is being maintained.
+    *
+    * @return this returns the number of entries that are cached
+    */
+   public int size() {
+      return data.size();
+   }
+
+   /**
+    * This provides the total weight of the entries that the policy
+    * has accounted for. Once the policy has been maintained this 
+    * will never exceed the maximum weight of the cache.
+    *
+    * @return this returns the total weight of the cached entries
+    */
+   public long getWeight() {
+      return weight;
+   }
+
+   /**
+    * This provides the keys of the entries held within the cache. The
+    * set can not be modified, but it reflects changes to the cache.
+    *
+    * @return this returns the keys of the cached entries
+    */
+   public Set<K> keySet() {
+      return Collections.unmodifiableSet(data.keySet());
+   }
+
+   /**
+    * This determines if there is an entry for the given key. Unlike 
+    * a read this does not count as a use of the entry.
+    *
+    * @param key this is the key of the entry to look for
+    *
+    * @return this returns true if an entry is held for the key
+    */
+   public boolean containsKey(K key) {
+      CacheNode<K, V> node = data.get(key);
+
+      if(node != null) {
+         return !isExpired(node, time());
+      }
+      return false;
+   }
+
+   /**
+    * This is used to acquire the value held for the given key. The
+    * read is recorded so that the policy can account for it, however
+    * no lock is acquired unless the buffer of reads has filled.
+    *
+    * @param key this is the key of the entry to be read
+    *
+    * @return this returns the value held or null if there is none
+    */
+   public V get(K key) {
+      CacheNode<K, V> node = data.get(key);
+
+      if(node != null) {
+         long time = time();
+
+         if(isExpired(node, time)) {
+            expire(node);
+            return null;
+         }
+         if(access > 0) {
+            node.access = time;
+         }
+         record(node);
+         return node.value;
+      }
+      return null;
+   }
+
+   /**
+    * This is used to insert or replace the value for the given key.
+    * If the entry is new then it is added to the window of the policy,
+    * otherwise its value and weight are replaced and it is used.
+    *
+    * @param key this is the key of the entry to be written
+    * @param value this is the value to be written for the key
+    *
+    * @return this returns the value previously held or null
+    */
+   public V put(K key, V value) {
+      int weight = weigh(key, value);
+      long time = time();
+      CacheNode<K, V> node = new CacheNode<K, V>(key, value, weight, time);
+
+      while(true) {
+         CacheNode<K, V> existing = data.putIfAbsent(key, node);
+
+         if(existing == null) {
+            schedule(new Task<K, V>(node, ADD));
+            return null;
+         }
+         if(!existing.retired) {
+            V previous = existing.value;
+
+            existing.value = value;
+            existing.weight = weight;
+            existing.access = time;
+            existing.write = time;
+            schedule(new Task<K, V>(existing, UPDATE));
+            return previous;
+         }
+      }
+   }
+
+   /**
+    * This is used to remove the entry for the given key. The listener
+    * is not notified, as the entry has not been evicted. The weight of
+    * the entry is released when the policy is next maintained.
+    *
+    * @param key this is the key of the entry to be removed
+    *
+    * @return this returns the value that was held or null
+    */
+   public V remove(K key) {
+      CacheNode<K, V> node = data.remove(key);
+
+      if(node != null) {
+         node.retired = true;
+         schedule(new Task<K, V>(node, REMOVE));
+         return node.value;
+      }
+      return null;
+   }
+
+   /**
+    * This is used to remove every entry from the cache. The listener
+    * is not notified, and any reads or writes not yet replayed on the
+    * policy are discarded, as they refer to removed entries.
+    */
+   public void clear() {
+      lock.lock();
+
+      try {
+         for(CacheNode<K, V> node : data.values()) {
+            node.retired = true;
+         }
+         data.clear();
+         process(new ArrayList<CacheNode<K, V>>());
+         window.clear();
+         probation.clear();
+         protect.clear();
+         weight = 0;
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * This is used to maintain the policy immediately. Any reads and
+    * writes are replayed, expired entries are removed, and entries 
+    * are evicted until the weight is within the maximum. This is not
+    * normally required, as the cache maintains itself as it is used.
+    */
+   public void clean() {
+      List<CacheNode<K, V>> removed = null;
+
+      lock.lock();
+
+      try {
+         removed = maintain();
+      } finally {
+         lock.unlock();
+      }
+      notify(removed);
+   }
+
+   /**
+    * This is used to record a read of an entry. The read is placed
+    * in the stripe for the current thread, and if the stripe has 
+    * filled the policy is maintained. Reads that arrive when the 
+    * stripe is full are dropped, so a read never has to wait. If the
+    * lock is busy the drain is retried only once every stripe length
+    * of dropped reads, so readers do not contend for the lock.
+    *
+    * @param node this is the entry that has been read
+    */
+   private void record(CacheNode<K, V> node) {
+      int stripe = stripe();
+      int index = counts.getAndIncrement(stripe);
+
+      if(index < READS) {
+         reads.lazySet(stripe * READS + index, node);
+      }
+      if((index & (READS - 1)) == READS - 1) {
+         drain();
+      }
+   }
+
+   /**
+    * This is used to record a write to the cache. Unlike reads these 
+    * are never dropped, and the policy is maintained immediately if
+    * the lock can be acquired, so the weight is promptly accounted.
+    * Should writes arrive faster than they can be replayed then the
+    * writer waits for the lock, so the pending writes are bounded.
+    *
+    * @param task this is the write that is to be replayed
+    */
+   private void schedule(Task<K, V> task) {
+      int stripe = stripe();
+
+      writes.get(stripe).offer(task);
+
+      if(pending.incrementAndGet() > WRITES) {
+         clean();
+      } else {
+         drain();
+      }
+   }
+
+   /**
+    * This is used to remove an entry that has been found to expire.
+    * If another thread has already removed or replaced the entry
+    * then this does nothing, so the listener is notified only once.
+    *
+    * @param node this is the entry that has expired
+    */
+   private void expire(CacheNode<K, V> node) {
+      if(data.remove(node.key, node)) {
+         node.retired = true;
+         schedule(new Task<K, V>(node, EXPIRE));
+      }
+   }
+
+   /**
+    * This is used to maintain the policy if the lock is available. If 
+    * another thread holds the lock it will see the work recorded by
+    * this thread when it completes, so this thread does not wait.
+    * The listener is notified once the lock has been released.
+    */
+   private void drain() {
+      while(lock.tryLock()) {
+         List<CacheNode<K, V>> removed = null;
+
+         try {
+            removed = maintain();
+         } finally {
+            lock.unlock();
+         }
+         notify(removed);
+
+         if(pending.get() <= 0) {
+            break;
+         }
+      }
+   }
+
+   /**
+    * This is used to maintain the policy while holding the lock. The
+    * writes are replayed before the reads so that a read of an entry
+    * just added is applied to the entry once it has been linked.
+    *
+    * @return this returns the entries that were evicted or expired
+    */
+   private List<CacheNode<K, V>> maintain() {
+      List<CacheNode<K, V>> removed = new ArrayList<CacheNode<K, V>>();
+
+      process(removed);
+      replay();
+      expire(removed);
+      evict(removed);
+      return removed;
+   }
+
+   /**
+    * This is used to replay the writes on the policy. Each entry that 
+    * is added is charged to the policy and placed in the window. An 
+    * update adjusts the charge to the new weight of the entry, and a
+    * removal releases the charge for the entry.
+    *
+    * @param removed this is used to collect entries found to expire
+    */
+   private void process(List<CacheNode<K, V>> removed) {
+      for(int i = 0; i < STRIPES; i++) {
+         Queue<Task<K, V>> queue = writes.get(i);
+         Task<K, V> task = queue.poll();
+
+         while(task != null) {
+            CacheNode<K, V> node = task.node;
+
+            if(task.type == ADD) {
+               add(node);
+            } else if(task.type == UPDATE) {
+               update(node);
+            } else {
+               unlink(node);
+
+               if(task.type == EXPIRE) {
+                  removed.add(node);
+               }
+            }
+            pending.decrementAndGet();
+            task = queue.poll();
+         }
+      }
+   }
+
+   /**
+    * This is used to replay the reads on the policy. Each stripe is
+    * emptied and each entry read is counted by the sketch and moved 
+    * within the queues of the policy to reflect its recent use.
+    */
+   private void replay() {
+      for(int i = 0; i < STRIPES; i++) {
+         int count = Math.min(counts.get(i), READS);
+
+         for(int j = 0; j < count; j++) {
+            CacheNode<K, V> node = reads.getAndSet(i * READS + j, null);
+
+            if(node != null) {
+               touch(node);
+            }
+         }
+         counts.set(i, 0);
+      }
+   }
+
+   /**
+    * This is used to charge a new entry to the policy. The entry is
+    * counted as a use by the sketch and placed at the tail of the 
+    * window. If it was removed before it could be added it is ignored.
+    *
+    * @param node this is the entry that has been added
+    */
+   private void add(CacheNode<K, V> node) {
+      if(!node.retired && node.queue == null) {
+         node.charge = node.weight;
+         weight += node.charge;
+         sketch.ensure(data.size());
+         sketch.increment(node.hash);
+         window.add(node);
+      }
+   }
+
+   /**
+    * This is used to adjust the charge for an entry that has been 
+    * replaced. The entry is moved to the tail of its queue with its
+    * new weight, which is then counted as a use of the entry.
+    *
+    * @param node this is the entry that has been replaced
+    */
+   private void update(CacheNode<K, V> node) {
+      CacheQueue<K, V> queue = node.queue;
+
+      if(queue != null) {
+         weight -= node.charge;
+         queue.remove(node);
+         node.charge = node.weight;
+         weight += node.charge;
+         queue.add(node);
+         touch(node);
+      }
+   }
+
+   /**
+    * This is used to release the charge for an entry that has been
+    * removed. If the entry has already been unlinked, for instance
+    * because it was found to expire, then this does nothing.
+    *
+    * @param node this is the entry that has been removed
+    */
+   private void unlink(CacheNode<K, V> node) {
+      CacheQueue<K, V> queue = node.queue;
+
+      if(queue != null) {
+         queue.remove(node);
+         weight -= node.charge;
+      }
+   }
+
+   /**
+    * This is used to apply a use of an entry to the policy. An entry
+    * in the window or the protected queue is moved to the tail of its
+    * queue. An entry on probation is used again so it is protected, 
+    * which may require the least recent protected entries to return 
+    * to probation to keep the protected queue within its limit.
+    *
+    * @param node this is the entry that has been used
+    */
+   private void touch(CacheNode<K, V> node) {
+      CacheQueue<K, V> queue = node.queue;
+
+      sketch.increment(node.hash);
+
+      if(queue == probation) {
+         probation.remove(node);
+         protect.add(node);
+
+         while(protect.getWeight() > protection) {
+            CacheNode<K, V> demote = protect.peek();
+
+            protect.remove(demote);
+            probation.add(demote);
+         }
+      } else if(queue != null) {
+         queue.touch(node);
+      }
+   }
+
+   /**
+    * This is used to remove entries that have expired. As each queue 
+    * is ordered by use, the search stops at the first entry that has
+    * not expired. This is a best effort, and any entry that expired
+    * but is not removed here is still never returned by a read.
+    *
+    * @param removed this is used to collect the expired entries
+    */
+   private void expire(List<CacheNode<K, V>> removed) {
+      if(write > 0 || access > 0) {
+         long time = time();
+
+         expire(window, removed, time);
+         expire(probation, removed, time);
+         expire(protect, removed, time);
+      }
+   }
+
+   /**
+    * This is used to remove entries that have expired from the head
+    * of a queue. Entries are removed until the head has not expired.
+    *
+    * @param queue this is the queue to remove the entries from
+    * @param removed this is used to collect the expired entries
+    * @param time this is the time used to determine expiry
+    */
+   private void expire(CacheQueue<K, V> queue, List<CacheNode<K, V>> removed, long time) {
+      CacheNode<K, V> node = queue.peek();
+
+      while(node != null && isExpired(node, time)) {
+         retire(node, removed);
+         node = queue.peek();
+      }
+   }
+
+   /**
+    * This is used to evict entries until the weight is within the 
+    * maximum. Entries leaving the window go on probation, and the
+    * entry at the tail of probation competes with the entry at the
+    * head. Whichever the sketch estimates to be used least is evicted.
+    * If probation is empty the protected and then window entries are
+    * evicted in order of use.
+    *
+    * @param removed this is used to collect the evicted entries
+    */
+   private void evict(List<CacheNode<K, V>> removed) {
+      while(window.getWeight() > limit) {
+         CacheNode<K, V> node = window.peek();
+
+         window.remove(node);
+         probation.add(node);
+      }
+      while(weight > maximum) {
+         CacheNode<K, V> victim = probation.peek();
+         CacheNode<K, V> candidate = probation.last();
+
+         if(victim == null) {
+            victim = protect.peek();
+         }
+         if(victim == null) {
+            victim = window.peek();
+         }
+         if(victim == null) {
+            break;
+         }
+         if(candidate != null && candidate != victim) {
+            int first = sketch.frequency(victim.hash);
+            int second = sketch.frequency(candidate.hash);
+
+            if(second <= first) {
+               victim = candidate;
+            }
+         }
+         retire(victim, removed);
+      }
+   }
+
+   /**
+    * This is used to remove an entry from both the policy and the map.
+    * If the entry was replaced or removed by another thread it is only
+    * unlinked from the policy, as the listener must not be notified.
+    *
+    * @param node this is the entry that is to be removed
+    * @param removed this is used to collect the removed entries
+    */
+   private void retire(CacheNode<K, V> node, List<CacheNode<K, V>> removed) {
+      unlink(node);
+
+      if(data.remove(node.key, node)) {
+         node.retired = true;
+         removed.add(node);
+      }
+   }
+
+   /**
+    * This is used to notify the listener of the entries that have been
+    * evicted or expired. This is done without holding the lock, so a
+    * listener is free to use the cache when it is notified.
+    *
+    * @param removed these are the entries that have been removed
+    */
+   private void notify(List<CacheNode<K, V>> removed) {
+      if(listener != null && removed != null) {
+         for(CacheNode<K, V> node : removed) {
+            listener.notifyRemoved(node.key, node.value);
+         }
+      }
+   }
+
+   /**
+    * This is used to determine if an entry has expired. If neither
+    * kind of expiry has been specified then this always returns false.
+    *
+    * @param node this is the entry to be checked for expiry
+    * @param time this is the time used to determine expiry
+    *
+    * @return this returns true if the entry has expired
+    */
+   private boolean isExpired(CacheNode<K, V> node, long time) {
+      if(write > 0 && time - node.write >= write) {
+         return true;
+      }
+      if(access > 0 && time - node.access >= access) {
+         return true;
+      }
+      return false;
+   }
+
+   /**
+    * This is used to determine the weight of an entry. If no weigher
+    * was provided then every entry is given a weight of one.
+    *
+    * @param key this is the key of the entry to be weighed
+    * @param value this is the value of the entry to be weighed
+    *
+    * @return this returns the weight of the entry
+    */
+   private int weigh(K key, V value) {
+      if(weigher != null) {
+         int weight = weigher.weigh(key, value);
+
+         if(weight < 0) {
+            throw new IllegalArgumentException("Weight of " + key + " is negative");
+         }
+         return weight;
+      }
+      return 1;
+   }
+
+   /**
+    * This provides the current time if any expiry was specified. As
+    * the time is not needed otherwise this avoids reading the clock.
+    *
+    * @return this returns the current time or zero
+    */
+   private long time() {
+      if(write > 0 || access > 0) {
+         return System.currentTimeMillis();
+      }
+      return 0;
+   }
+
+   /**
+    * This is used to choose the stripe for the current thread. Each
+    * thread uses the same stripe, so threads on different processors
+    * rarely contend for the same buffer.
+    *
+    * @return this returns the stripe for the current thread
+    */
+   private static int stripe() {
+      long id = Thread.currentThread().getId();
+      int hash = (int)(id ^ (id >>> 32)) * 0x9e3779b9;
+
+      return (hash >>> 16) & (STRIPES - 1);
+   }
+
+   /**
+    * This is used to determine the number of stripes to use. This is
+    * the number of processors rounded up to a power of two, so that
+    * each processor is likely to have a stripe to itself.
+    *
+    * @return this returns the number of stripes to use
+    */
+   private static int stripes() {
+      int count = Runtime.getRuntime().availableProcessors();
+      int stripes = Integer.highestOneBit(Math.max(count, 1) - 1) << 1;
+
+      return Math.max(1, Math.min(stripes, 64));
+   }
+
+   /**
+    * The <code>Task</code> object represents a write to the cache that
+    * is yet to be replayed on the policy. It simply holds the entry
+    * that was written and the type of write that was performed.
+    */
+   private static class Task<K, V> {
+
+      /**
+       * This is the entry that was written to the cache.
+       */
+      private final CacheNode<K, V> node;
+
+      /**
+       * This is the type of write that was performed.
+       */
+      private final int type;
+
+      /**
+       * Constructor for the <code>Task</code> object. This creates a
+       * task to replay the write of the specified type on the entry.
+       *
+       * @param node this is the entry that was written
+       * @param type this is the type of write that was performed
+       */
+      public Task(CacheNode<K, V> node, int type) {
+         this.node = node;
+         this.type = type;
+      }
+   }
+}
@@ -0,0 +1,201 @@
+/*
+ * FrequencySketch.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.common.cache;
+
+/**
+ * The <code>FrequencySketch</code> is used to estimate how often each
+ * key has been used recently. Rather than holding a count for every 
+ * key it holds a table of small counters, and each key is counted in
+ * four of them chosen by hashing the key. The estimate for a key is 
+ * the smallest of its four counters, so a key is only overestimated
+ * when all four of its counters are shared with keys used more often.
+ * <p>
+ * Each counter is four bits, so sixteen are packed in to each long.
+ * Once the number of increments reaches ten times the table size all
+ * counters are halved, so the estimates reflect recent use rather 
+ * than use since the cache was created. This is the frequency sketch
+ * used by the TinyLFU admission policy.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.common.cache.ConcurrentCache
+ */
+class FrequencySketch {
+
+   /**
+    * These are the seeds used to choose the counters for each key.
+    */
+   private static final long[] SEEDS = {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 
+      0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+   };
+
+   /**
+    * This is the mask used to extract the lower four bits of a long.
+    */
+   private static final long ONE_MASK = 0x1111111111111111L;
+
+   /**
+    * This is the mask used to halve every counter at once.
+    */
+   private static final long RESET_MASK = 0x7777777777777777L;
+
+   /**
+    * This is the table of counters, with sixteen in each long.
+    */
+   private long[] table;
+
+   /**
+    * This is the number of increments since counters were halved.
+    */
+   private int additions;
+
+   /**
+    * This is the number of increments before counters are halved.
+    */
+   private int sample;
+
+   /**
+    * Constructor for the <code>FrequencySketch</code> object. This 
+    * creates a sketch that is large enough to estimate the frequency
+    * of the specified number of keys with reasonable accuracy.
+    *
+    * @param capacity this is the number of keys to be estimated
+    */
+   public FrequencySketch(int capacity) {
+      this.ensure(capacity);
+   }
+
+   /**
+    * This is used to ensure the sketch can estimate the number of keys
+    * given. If the table is too small it is replaced with a larger one
+    * and the counts are lost, which is acceptable as this only happens
+    * while the cache is growing and has not yet filled.
+    *
+    * @param capacity this is the number of keys to be estimated
+    */
+   public void ensure(int capacity) {
+      int require = Math.min(Math.max(capacity, 16), 1 << 30);
+      int length = Integer.highestOneBit(require - 1) << 1;
+
+      if(table == null || table.length < length) {
+         table = new long[length];
+         sample = Math.max(10 * length, 10);
+         additions = 0;
+      }
+   }
+
+   /**
+    * This provides the estimated number of times the key has been used
+    * recently. This is the smallest of the four counters for the key,
+    * and as each counter is four bits it is never more than fifteen.
+    *
+    * @param hash this is the hash of the key to be estimated
+    *
+    * @return this returns the estimated frequency of the key
+    */
+   public int frequency(int hash) {
+      int start = (hash & 3) << 2;
+      int frequency = Integer.MAX_VALUE;
+
+      for(int i = 0; i < 4; i++) {
+         int index = index(hash, i);
+         int count = (int)((table[index] >>> ((start + i) << 2)) & 0xfL);
+
+         frequency = Math.min(frequency, count);
+      }
+      return frequency;
+   }
+
+   /**
+    * This is used to count a use of the key. Each of the four counters
+    * for the key is incremented unless it has reached its maximum. If
+    * any counter was incremented this counts towards the sample, and
+    * once the sample is complete all of the counters are halved.
+    *
+    * @param hash this is the hash of the key that was used
+    */
+   public void increment(int hash) {
+      int start = (hash & 3) << 2;
+      boolean added = false;
+
+      for(int i = 0; i < 4; i++) {
+         int index = index(hash, i);
+
+         added |= increment(index, start + i);
+      }
+      if(added && ++additions >= sample) {
+         reset();
+      }
+   }
+
+   /**
+    * This is used to increment the counter at the offset given within
+    * the long at the index given. A counter that has reached fifteen 
+    * is not incremented, as it can hold no larger value.
+    *
+    * @param index this is the index of the long holding the counter
+    * @param offset this is the offset of the counter within the long
+    *
+    * @return this returns true if the counter was incremented
+    */
+   private boolean increment(int index, int offset) {
+      int shift = offset << 2;
+      long mask = 0xfL << shift;
+
+      if((table[index] & mask) != mask) {
+         table[index] += 1L << shift;
+         return true;
+      }
+      return false;
+   }
+
+   /**
+    * This is used to halve all of the counters. The counters are 
+    * shifted right a long at a time, and the bit that would move 
+    * in to the adjacent counter is masked off. The number of odd 
+    * counters is used to correct the count of additions.
+    */
+   private void reset() {
+      int count = 0;
+
+      for(int i = 0; i < table.length; i++) {
+         count += Long.bitCount(table[i] & ONE_MASK);
+         table[i] = (table[i] >>> 1) & RESET_MASK;
+      }
+      additions = (additions >>> 1) - (count >>> 2);
+   }
+
+   /**
+    * This is used to choose the long that holds one of the counters
+    * for a key. The hash is mixed with a seed for each of the four
+    * counters, so that keys sharing one counter rarely share another.
+    *
+    * @param hash this is the hash of the key
+    * @param depth this is the counter being chosen for the key
+    *
+    * @return this returns the index of the long to use
+    */
+   private int index(int hash, int depth) {
+      long value = (hash + SEEDS[depth]) * SEEDS[depth];
+
+      value += value >>> 32;
+      return ((int)value) & (table.length - 1);
+   }
+}
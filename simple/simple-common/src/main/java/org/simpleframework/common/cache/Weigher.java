@@ -0,0 +1,46 @@
+/*
+ * Weigher.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.common.cache;
+
+/**
+ * The <code>Weigher</code> is used to determine the weight of an entry
+ * within a <code>ConcurrentCache</code>. The cache is bounded by the
+ * total weight of its entries rather than by their number, so entries
+ * that hold more memory can be given a larger weight. For instance a
+ * cache of byte arrays could weigh each entry by the array length.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.common.cache.ConcurrentCache
+ */
+public interface Weigher<K, V> {
+
+   /**
+    * This is used to determine the weight of an entry. The weight is
+    * determined when the entry is added or replaced and must not be
+    * negative. An entry with a weight of zero does not count towards
+    * the maximum weight of the cache.
+    *
+    * @param key this is the key of the entry to be weighed
+    * @param value this is the value of the entry to be weighed
+    *
+    * @return this returns the weight of the entry
+    */
+   int weigh(K key, V value);
+}
@@ -0,0 +1,125 @@
+package org.simpleframework.common.buffer;
+
+import static org.simpleframework.common.buffer.MemoryCategory.CONTENT;
+import static org.simpleframework.common.buffer.MemoryCategory.RESPONSE;
+import static org.simpleframework.common.buffer.MemoryCategory.TRANSPORT;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+
+public class MemoryBudgetTest extends TestCase {
+   
+   public void testUsage() throws Exception {
+      MemoryBudget budget = new MemoryBudget(1000);
+      
+      budget.charge(TRANSPORT, 100);
+      budget.charge(CONTENT, 200);
+      budget.charge(RESPONSE, 300);
+      
+      assertEquals(600, budget.getUsage());
+      assertEquals(100, budget.getUsage(TRANSPORT));
+      assertEquals(200, budget.getUsage(CONTENT));
+      assertEquals(300, budget.getUsage(RESPONSE));
+      assertFalse(budget.isExhausted());
+      
+      budget.charge(CONTENT, 400);
+      
+      assertTrue(budget.isExhausted());
+      assertEquals("usage=1000 limit=1000 TRANSPORT=100 CONTENT=600 RESPONSE=300", budget.toString());
+      
+      budget.release(CONTENT, 600);
+      
+      assertFalse(budget.isExhausted());
+      assertEquals(400, budget.getUsage());
+      assertEquals(0, budget.getUsage(CONTENT));
+   }
+   
+   public void testSuspend() throws Exception {
+      final AtomicInteger count = new AtomicInteger();
+      final List<Runnable> resumed = new ArrayList<Runnable>();
+      Executor executor = new Executor() {
+         public void execute(Runnable task) {
+            resumed.add(task);
+         }
+      };
+      MemoryBudget budget = new MemoryBudget(100, executor);
+      Runnable task = new Runnable() {
+         public void run() {
+            count.getAndIncrement();
+         }
+      };
+      budget.execute(task);
+      assertEquals(1, count.get());
+      assertEquals(0, resumed.size());
+      
+      budget.charge(CONTENT, 150);
+      budget.execute(task);
+      budget.execute(task);
+      assertEquals(1, count.get());
+      assertEquals(0, resumed.size());
+      
+      budget.release(CONTENT, 10);
+      assertEquals(1, count.get());
+      assertEquals(0, resumed.size());
+      
+      budget.release(CONTENT, 100);
+      assertEquals(1, count.get());
+      assertEquals(2, resumed.size());
+      
+      for(Runnable next : resumed) {
+         next.run();
+      }
+      assertEquals(3, count.get());
+   }
+   
+   public void testResumeThread() throws Exception {
+      final CountDownLatch latch = new CountDownLatch(1);
+      final AtomicReference<Thread> thread = new AtomicReference<Thread>();
+      MemoryBudget budget = new MemoryBudget(100);
+      Runnable task = new Runnable() {
+         public void run() {
+            thread.set(Thread.currentThread());
+            latch.countDown();
+         }
+      };
+      budget.charge(CONTENT, 150);
+      budget.execute(task);
+      budget.release(CONTENT, 100);
+      
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+      assertNotNull(thread.get());
+      assertNotSame(Thread.currentThread(), thread.get());
+   }
+   
+   public void testAllocator() throws Exception {
+      MemoryBudget budget = new MemoryBudget(1024);
+      BudgetAllocator allocator = new BudgetAllocator(new ArrayAllocator(), budget);
+      Buffer buffer = allocator.allocate();
+      
+      buffer.append("hello ".getBytes());
+      
+      Buffer segment = buffer.allocate();
+      
+      segment.append("world".getBytes());
+      
+      assertEquals("hello world", buffer.encode());
+      assertEquals("world", segment.encode());
+      assertEquals(11, budget.getUsage(CONTENT));
+      
+      allocator.release();
+      
+      assertEquals(0, budget.getUsage(CONTENT));
+      assertEquals(0, budget.getUsage());
+      
+      allocator.release();
+      
+      assertEquals(0, budget.getUsage());
+   }
+}
@@ -0,0 +1,127 @@
+package org.simpleframework.common.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class PooledBufferTest extends TestCase {
+   
+   public void testSegments() throws Exception {
+      Allocator allocator = new DirectAllocator();
+      Buffer buffer = allocator.allocate(10);
+      buffer.append("abcdefghijklmnopqrstuvwxyz".getBytes());
+      
+      Buffer alphabet = buffer.allocate();      
+      alphabet.append("ABCDEFGHIJKLMNOPQRSTUVWXYZ".getBytes());
+      
+      Buffer digits = buffer.allocate();
+      digits.append("0123456789".getBytes());
+      
+      expect(buffer, "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".getBytes());
+      expect(alphabet, "ABCDEFGHIJKLMNOPQRSTUVWXYZ".getBytes());
+      expect(digits, "0123456789".getBytes());
+      assertEquals("ABCDEFGHIJKLMNOPQRSTUVWXYZ", alphabet.encode());
+      assertEquals("0123456789", digits.encode());
+   }
+   
+   public void testChainedChunks() throws Exception {
+      Allocator allocator = new DirectAllocator();
+      Buffer buffer = allocator.allocate(1000);
+      byte[] data = new byte[300000];
+      
+      new Random(1).nextBytes(data);
+      
+      for(int off = 0; off < data.length; off += 777) {
+         buffer.append(data, off, Math.min(777, data.length - off));
+      }
+      Buffer segment = buffer.allocate();
+      segment.append(data, 0, 5000);
+      
+      assertEquals(data.length + 5000, buffer.length());
+      expect(segment, copy(data, 0, 5000));
+      
+      ReadableByteChannel channel = (ReadableByteChannel)buffer.open();
+      ByteBuffer result = ByteBuffer.allocateDirect(data.length + 5000);
+      
+      while(channel.read(result) >= 0) {
+         assertTrue(result.hasRemaining() || !channel.isOpen());
+      }
+      result.flip();
+      
+      for(int i = 0; i < data.length; i++) {
+         assertEquals(data[i], result.get(i));
+      }
+      assertFalse(channel.isOpen());
+   }
+   
+   public void testRecycle() throws Exception {
+      final DirectPool pool = new DirectPool(4096, 4096);
+      RecycleAllocator allocator = new RecycleAllocator(new Allocator() {
+         public Buffer allocate() {
+            return new PooledBuffer(pool, 0);
+         }
+         public Buffer allocate(long size) {
+            return new PooledBuffer(pool, size);
+         }
+      });
+      Buffer buffer = allocator.allocate(100);
+      buffer.append("hello world".getBytes());
+      
+      InputStream source = buffer.open();
+      allocator.release();
+      
+      assertFalse(pool.acquire(100).isDirect());
+      assertEquals('h', source.read());
+      source.close();
+      assertTrue(pool.acquire(100).isDirect());
+      
+      try {
+         buffer.open();
+         fail("Buffer should have been released");
+      } catch(BufferException e) {
+         assertTrue(true);
+      }
+      try {
+         buffer.append("again".getBytes());
+         fail("Buffer should have been released");
+      } catch(BufferException e) {
+         assertTrue(true);
+      }
+   }
+   
+   public void testPoolCapacity() throws Exception {
+      DirectPool pool = new DirectPool(65536, 65536);
+      ByteBuffer first = pool.acquire(70000);
+      ByteBuffer second = pool.acquire(70000);
+      
+      assertTrue(first.isDirect());
+      assertFalse(second.isDirect());
+      pool.recycle(first);
+      pool.recycle(second);
+      assertSame(first, pool.acquire(65536));
+   }
+   
+   private static byte[] copy(byte[] data, int off, int length) {
+      byte[] result = new byte[length];
+      System.arraycopy(data, off, result, 0, length);
+      return result;
+   }
+   
+   private void expect(Buffer buffer, byte[] expect) throws IOException {
+      InputStream result = buffer.open();
+      
+      for(int i = 0; i < expect.length; i++) {
+         int value = result.read();
+         
+         if(value < 0) {
+            throw new IOException("Buffer exhausted too early");
+         }
+         assertEquals(expect[i], (byte)value);
+      }
+      assertEquals(-1, result.read());
+   }
+}
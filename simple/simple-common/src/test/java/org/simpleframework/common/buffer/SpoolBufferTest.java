@@ -0,0 +1,102 @@
+package org.simpleframework.common.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class SpoolBufferTest extends TestCase {
+   
+   public void testSegments() throws Exception {
+      Allocator allocator = new SpoolAllocator("spool", 0, 16, 4);
+      Buffer buffer = allocator.allocate(1024);
+      buffer.append("abcdefghijklmnopqrstuvwxyz".getBytes());
+      
+      Buffer alphabet = buffer.allocate();      
+      alphabet.append("ABCDEFGHIJKLMNOPQRSTUVWXYZ".getBytes());
+      
+      Buffer digits = buffer.allocate();
+      digits.append("0123456789".getBytes());
+      
+      expect(buffer, "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".getBytes());
+      expect(alphabet, "ABCDEFGHIJKLMNOPQRSTUVWXYZ".getBytes());
+      expect(digits, "0123456789".getBytes());
+      assertEquals("ABCDEFGHIJKLMNOPQRSTUVWXYZ", alphabet.encode());
+      assertEquals("0123456789", digits.encode());
+   }
+   
+   public void testLargeBuffers() throws Exception {
+      Allocator allocator = new SpoolAllocator("spool", 1024, 4096, 8);
+      Buffer[] buffers = new Buffer[5];
+      byte[][] data = new byte[5][];
+      Random random = new Random(1);
+      
+      for(int i = 0; i < buffers.length; i++) {
+         data[i] = new byte[20000 + i * 1000];
+         random.nextBytes(data[i]);
+         buffers[i] = allocator.allocate(data[i].length);
+      }
+      for(int off = 0; off < 30000; off += 777) {
+         for(int i = 0; i < buffers.length; i++) {
+            int size = Math.min(777, data[i].length - off);
+            
+            if(size > 0) {
+               buffers[i].append(data[i], off, size);
+            }
+         }
+      }
+      for(int i = 0; i < buffers.length; i++) {
+         assertEquals(data[i].length, buffers[i].length());
+         expect(buffers[i], data[i]);
+      }
+      buffers[0].clear();
+      buffers[0].append("reused".getBytes());
+      assertEquals("reused", buffers[0].encode());
+   }
+   
+   public void testReleasedExtents() throws Exception {
+      Spool spool = new Spool("spool", 16, 4);
+      Object owner = new Object();
+      SpoolReference reference = spool.register(owner);
+      
+      for(int i = 0; i < 4; i++) {
+         assertTrue(spool.acquire(reference) < 4);
+      }
+      List<Object> owners = new ArrayList<Object>();
+      
+      owner = null;
+      reference = null;
+      
+      for(int i = 0; i < 100; i++) {
+         Object next = new Object();
+         SpoolReference other = spool.register(next);
+         
+         owners.add(next);
+         
+         System.gc();
+         Thread.sleep(50);
+         
+         if(spool.acquire(other) < 4) {
+            return;
+         }
+      }
+      fail("Extents were not returned to the spool");
+   }
+   
+   private void expect(Buffer buffer, byte[] expect) throws IOException {
+      InputStream result = buffer.open();
+      
+      for(int i = 0; i < expect.length; i++) {
+         int value = result.read();
+         
+         if(value < 0) {
+            throw new IOException("Buffer exhausted too early");
+         }
+         assertEquals(expect[i], (byte)value);
+      }
+      assertEquals(-1, result.read());
+   }
+}
@@ -0,0 +1,127 @@
+package org.simpleframework.common.cache;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.TestCase;
+
+import org.simpleframework.common.LeastRecentlyUsedMap;
+
+public class ConcurrentCachePerformanceTest extends TestCase {
+   
+   private static final int THREADS = 8;
+   private static final int ITERATIONS = 1000000;
+   private static final int CAPACITY = 1000;
+   private static final int KEYS = 20000;
+   
+   private static interface Cache {
+      String get(Integer key);
+      void put(Integer key, String value);
+   }
+   
+   private static class SynchronizedCache implements Cache {
+      
+      private final Map<Integer, String> map = new LeastRecentlyUsedMap<Integer, String>(CAPACITY);
+      
+      public synchronized String get(Integer key) {
+         return map.get(key);
+      }
+      
+      public synchronized void put(Integer key, String value) {
+         map.put(key, value);
+      }
+   }
+   
+   private static class ConcurrentAdapter implements Cache {
+      
+      private final ConcurrentCache<Integer, String> cache = new ConcurrentCache<Integer, String>(CAPACITY);
+      
+      public String get(Integer key) {
+         return cache.get(key);
+      }
+      
+      public void put(Integer key, String value) {
+         cache.put(key, value);
+      }
+   }
+   
+   private static Integer[] keys(int seed) {
+      Integer[] keys = new Integer[ITERATIONS];
+      Random random = new Random(seed);
+      double total = 0;
+      double[] weights = new double[KEYS];
+      
+      for(int i = 0; i < KEYS; i++) {
+         total += 1.0 / (i + 1);
+         weights[i] = total;
+      }
+      for(int i = 0; i < ITERATIONS; i++) {
+         double value = random.nextDouble() * total;
+         int low = 0;
+         int high = KEYS - 1;
+         
+         while(low < high) {
+            int middle = (low + high) >>> 1;
+            
+            if(weights[middle] < value) {
+               low = middle + 1;
+            } else {
+               high = middle;
+            }
+         }
+         keys[i] = low;
+      }
+      return keys;
+   }
+   
+   private static void measure(String name, final Cache cache) throws Exception {
+      final CountDownLatch start = new CountDownLatch(1);
+      final CountDownLatch stop = new CountDownLatch(THREADS);
+      final AtomicLong hits = new AtomicLong();
+      
+      for(int i = 0; i < THREADS; i++) {
+         final Integer[] keys = keys(i);
+         Thread thread = new Thread(new Runnable() {
+            public void run() {
+               try {
+                  int count = 0;
+                  
+                  start.await();
+                  
+                  for(Integer key : keys) {
+                     if(cache.get(key) == null) {
+                        cache.put(key, "value");
+                     } else {
+                        count++;
+                     }
+                  }
+                  hits.addAndGet(count);
+               } catch(Exception e) {
+                  e.printStackTrace();
+               } finally {
+                  stop.countDown();
+               }
+            }
+         });
+         thread.start();
+      }
+      long time = System.nanoTime();
+      
+      start.countDown();
+      stop.await();
+      
+      long duration = System.nanoTime() - time;
+      long operations = (long)THREADS * ITERATIONS;
+      
+      System.err.printf("%s: %d ops/sec, hit rate %.2f%%%n", name, operations * 1000000000L / duration, hits.get() * 100.0 / operations);
+   }
+   
+   public void testCachePerformance() throws Exception {
+      for(int i = 0; i < 3; i++) {
+         measure("synchronized LeastRecentlyUsedMap", new SynchronizedCache());
+         measure("ConcurrentCache", new ConcurrentAdapter());
+      }
+   }
+}
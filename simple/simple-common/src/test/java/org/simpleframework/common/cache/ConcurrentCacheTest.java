@@ -0,0 +1,194 @@
+package org.simpleframework.common.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.simpleframework.common.LeastRecentlyUsedMap.RemovalListener;
+
+public class ConcurrentCacheTest extends TestCase {
+   
+   private static class RecordingListener implements RemovalListener<String, String> {
+      
+      private final List<String> removed = new ArrayList<String>();
+      
+      public synchronized void notifyRemoved(String key, String value) {
+         removed.add(key);
+      }
+      
+      public synchronized List<String> getRemoved() {
+         return new ArrayList<String>(removed);
+      }
+   }
+   
+   public void testBounded() throws Exception {
+      RecordingListener listener = new RecordingListener();
+      ConcurrentCache<String, String> cache = new ConcurrentCache<String, String>(listener, 100);
+      
+      for(int i = 0; i < 1000; i++) {
+         cache.put("key-" + i, "value-" + i);
+      }
+      cache.clean();
+      
+      assertEquals(100, cache.size());
+      assertEquals(100, cache.getWeight());
+      assertEquals(900, listener.getRemoved().size());
+      
+      for(String key : cache.keySet()) {
+         assertEquals(key.replace("key", "value"), cache.get(key));
+      }
+   }
+   
+   public void testReplace() throws Exception {
+      ConcurrentCache<String, String> cache = new ConcurrentCache<String, String>(10);
+      
+      assertNull(cache.put("a", "1"));
+      assertEquals("1", cache.put("a", "2"));
+      assertEquals("2", cache.get("a"));
+      assertTrue(cache.containsKey("a"));
+      assertEquals("2", cache.remove("a"));
+      assertNull(cache.get("a"));
+      assertNull(cache.remove("a"));
+      assertFalse(cache.containsKey("a"));
+      
+      cache.clean();
+      assertEquals(0, cache.size());
+      assertEquals(0, cache.getWeight());
+   }
+   
+   public void testWeight() throws Exception {
+      Weigher<String, String> weigher = new Weigher<String, String>() {
+         public int weigh(String key, String value) {
+            return value.length();
+         }
+      };
+      ConcurrentCache<String, String> cache = new ConcurrentCache<String, String>(null, 1000, weigher);
+      
+      for(int i = 0; i < 100; i++) {
+         cache.put("key-" + i, "0123456789012345678901234567890123456789");
+      }
+      cache.clean();
+      
+      assertEquals(25, cache.size());
+      assertEquals(1000, cache.getWeight());
+      
+      cache.put("big", "012345678901234567890123456789012345678901234567890123456789");
+      cache.put("key-0", "0");
+      cache.clean();
+      
+      assertTrue(cache.getWeight() <= 1000);
+      
+      cache.clear();
+      
+      assertEquals(0, cache.size());
+      assertEquals(0, cache.getWeight());
+   }
+   
+   public void testScanResistance() throws Exception {
+      ConcurrentCache<String, String> cache = new ConcurrentCache<String, String>(100);
+      
+      for(int i = 0; i < 50; i++) {
+         cache.put("hot-" + i, "value");
+      }
+      for(int i = 0; i < 10; i++) {
+         for(int j = 0; j < 50; j++) {
+            cache.get("hot-" + j);
+         }
+         cache.clean();
+      }
+      for(int i = 0; i < 1000; i++) {
+         cache.put("scan-" + i, "value");
+      }
+      cache.clean();
+      
+      int count = 0;
+      
+      for(int i = 0; i < 50; i++) {
+         if(cache.get("hot-" + i) != null) {
+            count++;
+         }
+      }
+      assertEquals(100, cache.size());
+      assertEquals(50, count);
+   }
+   
+   public void testExpireAfterWrite() throws Exception {
+      RecordingListener listener = new RecordingListener();
+      ConcurrentCache<String, String> cache = new ConcurrentCache<String, String>(listener, 100, null, 200, 0);
+      
+      cache.put("a", "1");
+      cache.put("b", "2");
+      
+      assertEquals("1", cache.get("a"));
+      Thread.sleep(300);
+      assertNull(cache.get("a"));
+      
+      cache.clean();
+      
+      assertEquals(0, cache.size());
+      assertEquals(0, cache.getWeight());
+      assertEquals(2, listener.getRemoved().size());
+      assertTrue(listener.getRemoved().contains("a"));
+      assertTrue(listener.getRemoved().contains("b"));
+   }
+   
+   public void testExpireAfterAccess() throws Exception {
+      ConcurrentCache<String, String> cache = new ConcurrentCache<String, String>(null, 100, null, 0, 300);
+      
+      cache.put("a", "1");
+      cache.put("b", "2");
+      
+      for(int i = 0; i < 5; i++) {
+         Thread.sleep(100);
+         assertEquals("1", cache.get("a"));
+      }
+      assertNull(cache.get("b"));
+      assertEquals("1", cache.get("a"));
+   }
+   
+   public void testConcurrentAccess() throws Exception {
+      final ConcurrentCache<Integer, Integer> cache = new ConcurrentCache<Integer, Integer>(500);
+      final CountDownLatch latch = new CountDownLatch(8);
+      final AtomicInteger errors = new AtomicInteger();
+      
+      for(int i = 0; i < 8; i++) {
+         final Random random = new Random(i);
+         Thread thread = new Thread(new Runnable() {
+            public void run() {
+               try {
+                  for(int j = 0; j < 100000; j++) {
+                     Integer key = random.nextInt(2000);
+                     Integer value = cache.get(key);
+                     
+                     if(value != null && !value.equals(key)) {
+                        errors.incrementAndGet();
+                     }
+                     if(value == null) {
+                        cache.put(key, key);
+                     }
+                     if(j % 100 == 0) {
+                        cache.remove(key);
+                     }
+                  }
+               } catch(Throwable e) {
+                  e.printStackTrace();
+                  errors.incrementAndGet();
+               } finally {
+                  latch.countDown();
+               }
+            }
+         });
+         thread.start();
+      }
+      latch.await();
+      cache.clean();
+      
+      assertEquals(0, errors.get());
+      assertTrue(cache.size() <= 500);
+      assertEquals(cache.size(), cache.getWeight());
+   }
+}
@@ -27,6 +27,7 @@ import java.util.Map;
 
 import org.simpleframework.transport.Certificate;
 import org.simpleframework.transport.Channel;
+import org.simpleframework.transport.Credential;
 
 /**
  * The <code>Request</code> is used to provide an interface to the 
@@ -106,11 +107,24 @@ public interface Request extends RequestHeader {
     */
    Certificate getClientCertificate();
    
+   /**
+    * This is used to acquire the credential of the client process
+    * when the connection was accepted from a Unix domain socket. A
+    * domain socket has no network address, so the operating system
+    * provides the user and group of the peer instead. For TCP 
+    * connections this will be null.
+    * 
+    * @return this returns the credential of the client if any
+    */
+   Credential getClientCredential();
+   
    /**
     * This is used to acquire the remote client address. This can 
     * be used to acquire both the port and the I.P address for the 
     * client. It allows the connected clients to be logged and if
     * require it can be used to perform course grained security.
+    * For connections accepted from a Unix domain socket this will
+    * be null, in which case the client credential should be used.
     * 
     * @return this returns the client address for this request
     */
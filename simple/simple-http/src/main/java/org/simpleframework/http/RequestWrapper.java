@@ -28,6 +28,7 @@ import java.util.Map;
 
 import org.simpleframework.transport.Certificate;
 import org.simpleframework.transport.Channel;
+import org.simpleframework.transport.Credential;
 
 /** 
  * The <code>RequestWrapper</code> object is used so that the original
@@ -370,6 +371,19 @@ public class RequestWrapper implements Request {
       return request.getClientCertificate();
    }
    
+   /**
+    * This is used to acquire the credential of the client process
+    * when the connection was accepted from a Unix domain socket. A
+    * domain socket has no network address, so the operating system
+    * provides the user and group of the peer instead. For TCP 
+    * connections this will be null.
+    * 
+    * @return this returns the credential of the client if any
+    */
+   public Credential getClientCredential() {
+      return request.getClientCredential();
+   }
+   
    /**
     * This can be used to retrieve the response attributes. These can
     * be used to keep state with the response when it is passed to
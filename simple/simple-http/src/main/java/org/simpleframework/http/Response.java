@@ -21,6 +21,7 @@ package org.simpleframework.http;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.channels.FileChannel;
 import java.nio.channels.WritableByteChannel;
 
 /**
@@ -185,6 +186,25 @@ public interface Response extends ResponseHeader {
     */ 
    WritableByteChannel getByteChannel(int size) throws IOException;
    
+   /**
+    * This is used to send a region of a file as the message body, or
+    * as part of it. Any content already written is sent first, which
+    * commits the response, and the region is then handed directly to 
+    * the transport. On a plain connection the region is sent by the 
+    * operating system straight from the file to the socket, so the 
+    * bytes are never copied in to the server. As with the other means
+    * of writing the body, the length should be set beforehand if it 
+    * is known, otherwise the body is chunked or the connection closed.
+    * <p>
+    * The file is not closed once the region has been sent, however 
+    * the response must still be closed to complete the body. 
+    * 
+    * @param file this is the file containing the region to send
+    * @param position this is the position within the file to send from
+    * @param length this is the number of bytes that are to be sent
+    */
+   void sendFile(FileChannel file, long position, long length) throws IOException;
+   
    /**
     * This represents the time at which the response has fully written.
     * Because the response is delivered asynchronously to the client
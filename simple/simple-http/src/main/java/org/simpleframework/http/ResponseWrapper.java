@@ -21,6 +21,7 @@ package org.simpleframework.http;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.channels.FileChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.List;
 
@@ -659,6 +660,22 @@ public class ResponseWrapper implements Response {
    public WritableByteChannel getByteChannel(int size) throws IOException {
       return response.getByteChannel(size);
    }
+
+   /**
+    * This is used to send a region of a file as the message body, or
+    * as part of it. Any content already written is sent first, which
+    * commits the response, and the region is then handed directly to 
+    * the transport. On a plain connection the region is sent by the 
+    * operating system straight from the file to the socket, so the 
+    * bytes are never copied in to the server.
+    * 
+    * @param file this is the file containing the region to send
+    * @param position this is the position within the file to send from
+    * @param length this is the number of bytes that are to be sent
+    */
+   public void sendFile(FileChannel file, long position, long length) throws IOException {
+      response.sendFile(file, position, length);
+   }
    
    /**
     * This is used to determine if the HTTP response message is a 
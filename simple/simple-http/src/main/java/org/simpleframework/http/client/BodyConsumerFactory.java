@@ -0,0 +1,149 @@
+/*
+ * BodyConsumerFactory.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.client;
+
+import static org.simpleframework.http.Protocol.CHUNKED;
+
+import org.simpleframework.common.buffer.Allocator;
+import org.simpleframework.http.message.BodyConsumer;
+import org.simpleframework.http.message.ChunkedConsumer;
+import org.simpleframework.http.message.CloseConsumer;
+import org.simpleframework.http.message.EmptyConsumer;
+import org.simpleframework.http.message.FixedLengthConsumer;
+import org.simpleframework.http.message.ResponseConsumer;
+
+/**
+ * The <code>BodyConsumerFactory</code> is used to create a consumer
+ * for the body of a response. The consumer is selected using the
+ * rules of RFC 2616 section 4.4, so responses to HEAD requests and
+ * responses with a 1xx, 204, or 304 status have no body, chunked
+ * responses are decoded, and responses with neither a length nor
+ * a transfer coding are delimited by the connection closing.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.client.ClientExchange
+ */
+class BodyConsumerFactory {
+
+   /**
+    * This is the allocator used to deliver the response content.
+    */
+   private final Allocator allocator;
+
+   /**
+    * This is the response header that has been consumed.
+    */
+   private final ResponseConsumer header;
+
+   /**
+    * This is the request that the response was received for.
+    */
+   private final ClientRequest request;
+
+   /**
+    * Constructor for the <code>BodyConsumerFactory</code> object.
+    * This is used to create a factory that selects a consumer for
+    * the response body based on the request method and the status
+    * and headers of the response header provided.
+    *
+    * @param allocator this is used to deliver the response content
+    * @param request this is the request that was sent
+    * @param header this is the response header that was consumed
+    */
+   public BodyConsumerFactory(Allocator allocator, ClientRequest request, ResponseConsumer header) {
+      this.allocator = allocator;
+      this.request = request;
+      this.header = header;
+   }
+
+   /**
+    * This method is used to create a body consumer to read the body
+    * from the connection. The consumer chosen depends on the method
+    * of the request, the status of the response, and the headers
+    * that determine how the body is delimited.
+    *
+    * @return this returns a consumer used to read the body
+    */
+   public BodyConsumer getInstance() {
+      long length = getContentLength();
+
+      if(isEmpty()) {
+         return new EmptyConsumer();
+      }
+      if(isChunked()) {
+         return new ChunkedConsumer(allocator);
+      }
+      if(length > 0) {
+         return new FixedLengthConsumer(allocator, length);
+      }
+      if(length == 0) {
+         return new EmptyConsumer();
+      }
+      return new CloseConsumer(allocator);
+   }
+
+   /**
+    * This is used to determine if the response can contain a body.
+    * A response to a HEAD request never has a body, nor does any
+    * response with a 1xx, 204 or 304 status code regardless of
+    * the headers that are sent with it.
+    *
+    * @return true if the response can not have a body
+    */
+   public boolean isEmpty() {
+      String method = request.getMethod();
+      int code = header.getCode();
+
+      if(method.equalsIgnoreCase("HEAD")) {
+         return true;
+      }
+      if(code < 200) {
+         return true;
+      }
+      return code == 204 || code == 304;
+   }
+
+   /**
+    * This is used to determine if the response is chunked. If the
+    * <code>Transfer-Encoding</code> header is chunked then the
+    * body is decoded as it is read and any length is ignored.
+    *
+    * @return true if the response body is chunked
+    */
+   public boolean isChunked() {
+      String encoding = header.getTransferEncoding();
+
+      if(encoding != null) {
+         return encoding.equalsIgnoreCase(CHUNKED);
+      }
+      return false;
+   }
+
+   /**
+    * This is used to determine the length of the response body. If
+    * there is no <code>Content-Length</code> header then this will
+    * return -1 to indicate the length is delimited by the close.
+    *
+    * @return this returns the length of the response body
+    */
+   public long getContentLength() {
+      return header.getContentLength();
+   }
+}
@@ -0,0 +1,70 @@
+/*
+ * Client.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Future;
+
+/**
+ * The <code>Client</code> interface represents an asynchronous HTTP
+ * client. Requests sent with a client are written to a connection
+ * taken from a pool of persistent connections and the response is
+ * delivered either through a <code>Future</code> or by notifying a
+ * <code>ResponseListener</code> as the response is consumed. No
+ * thread is held while waiting for a response to arrive.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.client.SocketClient
+ */
+public interface Client extends Closeable {
+
+   /**
+    * This is used to send a request to the host it is addressed to.
+    * The response is buffered in full before the future completes,
+    * so this is suited to responses that are of a modest size. If
+    * the request could not be completed the future will report an
+    * execution exception with the cause of the failure.
+    *
+    * @param request this is the request that is to be sent
+    *
+    * @return this returns a future that provides the response
+    */
+   Future<ClientResponse> send(ClientRequest request) throws IOException;
+
+   /**
+    * This is used to send a request to the host it is addressed to.
+    * Rather than buffering the response the listener is notified
+    * of the header once it has arrived, and is then given each
+    * fragment of content as it is read from the connection.
+    *
+    * @param request this is the request that is to be sent
+    * @param listener this is notified as the response arrives
+    */
+   void send(ClientRequest request, ResponseListener listener) throws IOException;
+
+   /**
+    * This is used to close the client and all of the connections
+    * that it holds. Any requests that have not been completed will
+    * fail once the client is closed. This also stops all of the
+    * threads used to read responses and establish connections.
+    */
+   void close() throws IOException;
+}
@@ -0,0 +1,418 @@
+/*
+ * ClientConnection.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.client;
+
+import static java.nio.channels.SelectionKey.OP_READ;
+import static org.simpleframework.http.client.ClientEvent.CLOSE;
+import static org.simpleframework.http.client.ClientEvent.ERROR;
+import static org.simpleframework.http.client.ClientEvent.READ_WAIT;
+import static org.simpleframework.http.client.ClientEvent.RESPONSE_FINISHED;
+import static org.simpleframework.http.client.ClientEvent.RESPONSE_HEADER;
+import static org.simpleframework.http.client.ClientEvent.WRITE_REQUEST;
+
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.simpleframework.transport.ByteCursor;
+import org.simpleframework.transport.ByteWriter;
+import org.simpleframework.transport.Channel;
+import org.simpleframework.transport.reactor.Reactor;
+import org.simpleframework.transport.trace.Trace;
+
+/**
+ * The <code>ClientConnection</code> represents a single persistent
+ * connection to a server. Exchanges sent on the connection are kept
+ * in the order they were written so that responses, which arrive in
+ * the same order, can be matched to them. Reading is asynchronous,
+ * the connection registers for read readiness with a reactor and is
+ * only given a thread when there are bytes to consume. The exchange
+ * being read can suspend reading, so that a listener that can not
+ * keep up with the content does not hold on to the reading thread.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.client.ConnectionGroup
+ */
+class ClientConnection {
+
+   /**
+    * This contains the exchanges in the order they were sent.
+    */
+   private final LinkedList<ClientExchange> exchanges;
+
+   /**
+    * This is the operation used to read from the connection.
+    */
+   private final ConnectionReader reader;
+
+   /**
+    * This is the group of connections this connection belongs to.
+    */
+   private final ConnectionGroup group;
+
+   /**
+    * This is the reactor used to wait for bytes to be read.
+    */
+   private final Reactor reactor;
+
+   /**
+    * This is the cursor used to read responses from the channel.
+    */
+   private ByteCursor cursor;
+
+   /**
+    * This is the writer used to write requests to the channel.
+    */
+   private ByteWriter writer;
+
+   /**
+    * This is the channel once the connection is established.
+    */
+   private Channel channel;
+
+   /**
+    * This is the trace used to trace events on the connection.
+    */
+   private Trace trace;
+
+   /**
+    * This determines if the connection has been closed.
+    */
+   private boolean closed;
+
+   /**
+    * This determines if the exchange being read has suspended it.
+    */
+   private boolean suspended;
+
+   /**
+    * This determines if reading stopped because of the suspension.
+    */
+   private boolean parked;
+
+   /**
+    * Constructor for the <code>ClientConnection</code> object. This
+    * creates a connection that has not yet been established. Any
+    * exchanges sent before the connection is established are held
+    * until the channel is provided and then written in order.
+    *
+    * @param group this is the group this connection belongs to
+    * @param reactor this is used to wait for bytes to be read
+    */
+   public ClientConnection(ConnectionGroup group, Reactor reactor) {
+      this.exchanges = new LinkedList<ClientExchange>();
+      this.reader = new ConnectionReader(this);
+      this.reactor = reactor;
+      this.group = group;
+   }
+
+   /**
+    * This is used to acquire the channel for the connection. This
+    * will return null until the connection has been established,
+    * at which point the channel can be used to read and write.
+    *
+    * @return this returns the channel for the connection
+    */
+   public synchronized Channel getChannel() {
+      return channel;
+   }
+
+   /**
+    * This is used to determine the number of exchanges that have
+    * been sent on this connection and are awaiting a response. A
+    * connection with no exchanges outstanding is idle.
+    *
+    * @return this returns the number of outstanding exchanges
+    */
+   public synchronized int count() {
+      return exchanges.size();
+   }
+
+   /**
+    * This is used to determine if the connection is closed. Once
+    * a connection has been closed no further exchanges can be sent
+    * on it and it is removed from its group.
+    *
+    * @return this returns true if the connection has been closed
+    */
+   public synchronized boolean isClosed() {
+      return closed;
+   }
+
+   /**
+    * This is used to determine if the connection can accept another
+    * pipelined exchange. This is the case only if every exchange
+    * outstanding on the connection can itself be pipelined, so that
+    * a failure never affects a request that can not be retried.
+    *
+    * @return this returns true if a request can be pipelined
+    */
+   public synchronized boolean isPipelined() {
+      for(ClientExchange exchange : exchanges) {
+         ClientRequest request = exchange.getRequest();
+
+         if(!request.isPipelined()) {
+            return false;
+         }
+      }
+      return !closed;
+   }
+
+   /**
+    * This is used to send an exchange on the connection. If the
+    * connection has been established the request is written and
+    * flushed immediately, otherwise it is held until the channel
+    * has been established and is then written in order.
+    *
+    * @param exchange this is the exchange to be sent
+    *
+    * @return this returns true if the exchange was accepted
+    */
+   public boolean send(ClientExchange exchange) {
+      try {
+         return write(exchange);
+      } catch(Exception cause) {
+         trace.trace(ERROR, cause);
+         close();
+      }
+      return true;
+   }
+
+   /**
+    * This is used to queue the exchange and write the request if
+    * the connection has been established. The request is flushed
+    * once written so that the server can begin to respond to it
+    * while further exchanges are being sent.
+    *
+    * @param exchange this is the exchange to be written
+    *
+    * @return this returns true if the exchange was accepted
+    */
+   private synchronized boolean write(ClientExchange exchange) throws IOException {
+      if(closed) {
+         return false;
+      }
+      exchanges.add(exchange);
+      exchange.attach(this);
+
+      if(channel != null) {
+         exchange.write(writer);
+         writer.flush();
+         trace.trace(WRITE_REQUEST, exchange);
+      }
+      return true;
+   }
+
+   /**
+    * This is invoked once the connection has been established. All
+    * of the exchanges that were sent while the connection was being
+    * established are written, and the connection then registers
+    * with the reactor so that it can read the responses.
+    *
+    * @param channel this is the channel that has been established
+    */
+   public void start(Channel channel) throws IOException {
+      synchronized(this) {
+         this.cursor = channel.getCursor();
+         this.writer = channel.getWriter();
+         this.trace = channel.getTrace();
+         this.channel = channel;
+
+         if(closed) {
+            channel.close();
+            return;
+         }
+         for(ClientExchange exchange : exchanges) {
+            exchange.write(writer);
+            trace.trace(WRITE_REQUEST, exchange);
+         }
+         writer.flush();
+      }
+      select();
+   }
+
+   /**
+    * This is used to consume responses from the connection. Each
+    * response is delivered to the exchange at the head of the queue.
+    * When an exchange finishes it is removed and the group is told
+    * that the connection is available. If the end of the stream has
+    * been reached the connection is closed.
+    */
+   public void collect() throws IOException {
+      while(cursor.isReady()) {
+         ClientExchange exchange = peek();
+
+         if(exchange == null) {
+            throw new IOException("Response received with no request");
+         }
+         boolean started = exchange.isStarted();
+
+         exchange.consume(cursor);
+
+         if(!started && exchange.isStarted()) {
+            trace.trace(RESPONSE_HEADER, exchange);
+         }
+         if(exchange.isFinished()) {
+            finish(exchange);
+         }
+         if(isClosed() || isParked()) {
+            return;
+         }
+      }
+      if(!cursor.isOpen()) {
+         ClientExchange exchange = peek();
+
+         if(exchange != null) {
+            exchange.terminate();
+
+            if(exchange.isFinished()) {
+               finish(exchange);
+            }
+         }
+         close();
+      } else {
+         select();
+      }
+   }
+
+   /**
+    * This is used to finish an exchange once its response has been
+    * fully consumed. The listener is notified, and if the response
+    * allows the connection to persist the group is told that this
+    * connection can be used for another exchange.
+    *
+    * @param exchange this is the exchange that has finished
+    */
+   private void finish(ClientExchange exchange) throws IOException {
+      synchronized(this) {
+         exchanges.remove(exchange);
+         suspended = false;
+      }
+      trace.trace(RESPONSE_FINISHED, exchange);
+      exchange.complete();
+
+      if(!exchange.isKeepAlive()) {
+         close();
+      } else {
+         group.release(this);
+      }
+   }
+
+   /**
+    * This is used to suspend reading for the exchange provided. Once
+    * the bytes already consumed have been delivered to the exchange
+    * no more are read until it resumes. This is ignored unless the
+    * exchange is the one that is currently being read.
+    *
+    * @param exchange this is the exchange that is to be suspended
+    */
+   public synchronized void suspend(ClientExchange exchange) {
+      if(exchanges.peek() == exchange) {
+         suspended = true;
+      }
+   }
+
+   /**
+    * This is used to resume reading for the exchange provided. If the
+    * reading thread has already stopped then reading is restarted on
+    * a new thread, as there may be bytes held by the cursor that 
+    * will not cause the connection to become read ready.
+    *
+    * @param exchange this is the exchange that is to be resumed
+    */
+   public void resume(ClientExchange exchange) throws IOException {
+      synchronized(this) {
+         if(exchanges.peek() != exchange) {
+            return;
+         }
+         suspended = false;
+
+         if(!parked) {
+            return;
+         }
+         parked = false;
+      }
+      if(!isClosed()) {
+         reactor.process(reader);
+      }
+   }
+
+   /**
+    * This is used to determine if reading is to stop because the
+    * exchange being read has suspended it. If so the connection is
+    * not registered for reading until the exchange resumes.
+    *
+    * @return this returns true if the reading thread is to stop
+    */
+   private synchronized boolean isParked() {
+      if(suspended) {
+         parked = true;
+      }
+      return parked;
+   }
+
+   /**
+    * This is used to acquire the exchange that is at the head of
+    * the queue. This is the exchange that the next bytes read from
+    * the connection belong to, as responses arrive in order.
+    *
+    * @return this returns the exchange at the head of the queue
+    */
+   private synchronized ClientExchange peek() {
+      return exchanges.peek();
+   }
+
+   /**
+    * This is used to register the connection with the reactor so
+    * that it is notified when there are bytes to be read. This is
+    * done even when the connection is idle, so that the connection
+    * is closed promptly if the server closes it.
+    */
+   private void select() throws IOException {
+      if(!isClosed()) {
+         trace.trace(READ_WAIT);
+         reactor.process(reader, OP_READ);
+      }
+   }
+
+   /**
+    * This is used to close the connection. All exchanges that are
+    * still outstanding are handed to the group, which will retry
+    * those that can be retried and fail the rest. The group is
+    * called outside of the lock for the connection.
+    */
+   public void close() {
+      List<ClientExchange> remaining = new LinkedList<ClientExchange>();
+
+      synchronized(this) {
+         if(!closed) {
+            remaining.addAll(exchanges);
+            exchanges.clear();
+            closed = true;
+
+            if(channel != null) {
+               trace.trace(CLOSE);
+               channel.close();
+            }
+         }
+      }
+      group.remove(this, remaining);
+   }
+}
@@ -0,0 +1,72 @@
+/*
+ * ClientEvent.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.client;
+
+/**
+ * The <code>ClientEvent</code> enumeration contains the events that
+ * are traced by the client as requests are sent and responses are
+ * received. These events are delivered to the <code>Trace</code>
+ * associated with the connection a request is sent on.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.transport.trace.Trace
+ */
+public enum ClientEvent {
+
+   /**
+    * This indicates that a connection is being established.
+    */
+   CONNECT,
+
+   /**
+    * This indicates that a request has been written to a connection.
+    */
+   WRITE_REQUEST,
+
+   /**
+    * This indicates that the connection is waiting for more bytes.
+    */
+   READ_WAIT,
+
+   /**
+    * This indicates that a response header has been received.
+    */
+   RESPONSE_HEADER,
+
+   /**
+    * This indicates that a response has been fully received.
+    */
+   RESPONSE_FINISHED,
+
+   /**
+    * This indicates that a request was retried on a new connection.
+    */
+   RETRY_REQUEST,
+
+   /**
+    * This indicates that the connection has been closed.
+    */
+   CLOSE,
+
+   /**
+    * This indicates that an error occurred on the connection.
+    */
+   ERROR;
+}
@@ -0,0 +1,612 @@
+/*
+ * ClientExchange.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.client;
+
+import static org.simpleframework.http.Protocol.CLOSE;
+import static org.simpleframework.http.Protocol.CONNECTION;
+import static org.simpleframework.http.Protocol.KEEP_ALIVE;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import org.simpleframework.common.buffer.Allocator;
+import org.simpleframework.http.ContentType;
+import org.simpleframework.http.Cookie;
+import org.simpleframework.http.message.BodyConsumer;
+import org.simpleframework.http.message.CloseConsumer;
+import org.simpleframework.http.message.ResponseConsumer;
+import org.simpleframework.transport.ByteCursor;
+import org.simpleframework.transport.ByteWriter;
+
+/**
+ * The <code>ClientExchange</code> represents a single request and
+ * response exchange on a connection. It is used to write the request
+ * and then to consume the response as bytes become available on the
+ * connection. Interim 1xx responses are discarded, and once the
+ * final response header has been consumed a body consumer is chosen
+ * that delivers the content to the <code>ResponseListener</code>.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.client.ClientConnection
+ */
+class ClientExchange implements ClientResponse {
+
+   /**
+    * This is the terminal token used to end a chunk of content.
+    */
+   private static final byte[] CRLF = { '\r', '\n' };
+
+   /**
+    * This is the final chunk used to end chunked content.
+    */
+   private static final byte[] LAST = { '0', '\r', '\n', '\r', '\n' };
+
+   /**
+    * This is used to deliver content to the response listener.
+    */
+   private final ContentAllocator allocator;
+
+   /**
+    * This is the listener that is notified of the response.
+    */
+   private final ResponseListener listener;
+
+   /**
+    * This is the request that is sent for this exchange.
+    */
+   private final ClientRequest request;
+
+   /**
+    * This is used to consume the header of the response.
+    */
+   private ResponseConsumer header;
+
+   /**
+    * This is used to consume the body of the response.
+    */
+   private BodyConsumer body;
+
+   /**
+    * This is the connection the exchange was last sent on.
+    */
+   private ClientConnection connection;
+
+   /**
+    * This determines if the request has been written.
+    */
+   private boolean written;
+
+   /**
+    * This determines if the exchange has completed or failed.
+    */
+   private boolean done;
+
+   /**
+    * This is the number of times the exchange has been retried.
+    */
+   private int retries;
+
+   /**
+    * Constructor for the <code>ClientExchange</code> object. This
+    * is used to create an exchange that writes the request and
+    * delivers the response to the listener. If an allocator is
+    * provided the content of the response is also buffered.
+    *
+    * @param request this is the request to be sent
+    * @param listener this is the listener notified of the response
+    * @param allocator this is used to buffer the content if given
+    */
+   public ClientExchange(ClientRequest request, ResponseListener listener, Allocator allocator) {
+      this.allocator = new ContentAllocator(this, listener, allocator);
+      this.header = new ResponseConsumer();
+      this.listener = listener;
+      this.request = request;
+   }
+
+   /**
+    * This is used to acquire the request that is sent with this
+    * exchange. The request determines the connection group used
+    * as well as whether the exchange can be pipelined.
+    *
+    * @return this returns the request for this exchange
+    */
+   public ClientRequest getRequest() {
+      return request;
+   }
+
+   /**
+    * This is used to attach the exchange to the connection it has
+    * been sent on. If the exchange is retried it is attached to the
+    * connection it is retried on, so that it can suspend reading.
+    *
+    * @param connection this is the connection the exchange is on
+    */
+   public synchronized void attach(ClientConnection connection) {
+      this.connection = connection;
+   }
+
+   /**
+    * This is used to stop reading the content of the response. The
+    * connection is not read again until the response is resumed, so
+    * a listener can stop content arriving faster than it is used.
+    */
+   public void suspend() {
+      ClientConnection current = null;
+
+      synchronized(this) {
+         current = connection;
+      }
+      if(current != null) {
+         current.suspend(this);
+      }
+   }
+
+   /**
+    * This is used to resume reading the content of the response. If
+    * reading was suspended then it continues on another thread.
+    */
+   public void resume() throws IOException {
+      ClientConnection current = null;
+
+      synchronized(this) {
+         current = connection;
+      }
+      if(current != null) {
+         current.resume(this);
+      }
+   }
+
+   /**
+    * This is used to write the request to the provided writer. The
+    * request header is written followed by any content. If the
+    * content is provided by a stream it is copied in chunks so that
+    * it is never held in memory in full.
+    *
+    * @param writer this is the writer the request is written to
+    */
+   public void write(ByteWriter writer) throws IOException {
+      InputStream source = request.getSource();
+      byte[] content = request.getContent();
+      byte[] head = request.getHeader();
+
+      writer.write(head);
+
+      if(source != null) {
+         write(writer, source);
+      } else if(content.length > 0) {
+         writer.write(content);
+      }
+      written = true;
+   }
+
+   /**
+    * This is used to copy the content of the request from a stream
+    * to the writer. If the length of the content is known then only
+    * that many bytes are copied, otherwise the content is copied
+    * until the end of the stream using the chunked encoding.
+    *
+    * @param writer this is the writer the request is written to
+    * @param source this is the stream the content is read from
+    */
+   private void write(ByteWriter writer, InputStream source) throws IOException {
+      byte[] chunk = new byte[8192];
+      long length = request.getLength();
+      boolean chunked = request.isChunked();
+
+      while(chunked || length > 0) {
+         int size = chunk.length;
+
+         if(!chunked && length < size) {
+            size = (int)length;
+         }
+         int count = source.read(chunk, 0, size);
+
+         if(count < 0) {
+            break;
+         }
+         if(chunked) {
+            String line = Integer.toHexString(count) + "\r\n";
+            writer.write(line.getBytes("ISO-8859-1"));
+         }
+         writer.write(chunk, 0, count);
+
+         if(chunked) {
+            writer.write(CRLF);
+         }
+         length -= count;
+      }
+      if(chunked) {
+         writer.write(LAST);
+      } else if(length > 0) {
+         throw new IOException("Request content ended before length");
+      }
+   }
+
+   /**
+    * This is used to consume the response from the cursor. This will
+    * read the header, and once the header has finished it will read
+    * the body. If the header is for an interim response it is simply
+    * discarded, and a new header is consumed in its place.
+    *
+    * @param cursor this is the cursor to consume the response from
+    */
+   public void consume(ByteCursor cursor) throws IOException {
+      if(body != null) {
+         body.consume(cursor);
+      } else {
+         header.consume(cursor);
+
+         if(header.isFinished()) {
+            int code = header.getCode();
+
+            if(code >= 100 && code < 200 && code != 101) {
+               header = new ResponseConsumer();
+            } else {
+               start();
+            }
+         }
+      }
+   }
+
+   /**
+    * This is invoked once the final response header has been read.
+    * It will select the body consumer used to read the remainder of
+    * the response, and will notify the listener of the header.
+    */
+   private void start() throws IOException {
+      BodyConsumerFactory factory = new BodyConsumerFactory(allocator, request, header);
+
+      try {
+         body = factory.getInstance();
+         listener.onHeader(this);
+      } catch(Exception cause) {
+         throw new IOException("Listener could not accept header", cause);
+      }
+   }
+
+   /**
+    * This is invoked when the end of the stream has been reached.
+    * If the body of the response is delimited by the connection
+    * closing then this will finish the exchange, otherwise the
+    * exchange remains unfinished and should be failed.
+    */
+   public void terminate() {
+      if(body instanceof CloseConsumer) {
+         CloseConsumer consumer = (CloseConsumer)body;
+         consumer.terminate();
+      }
+   }
+
+   /**
+    * This is used to retry the exchange. An exchange can be retried
+    * once only, and only if the request was never written or if the
+    * request is idempotent, its content can be written again, and
+    * no response has been received.
+    *
+    * @return this returns true if the exchange can be retried
+    */
+   public boolean retry() {
+      if(retries++ > 0) {
+         return false;
+      }
+      if(written) {
+         if(!request.isRepeatable()) {
+            return false;
+         }
+         if(!request.isIdempotent()) {
+            return false;
+         }
+         if(isStarted()) {
+            return false;
+         }
+      }
+      header = new ResponseConsumer();
+      written = false;
+      return true;
+   }
+
+   /**
+    * This is used to notify the listener that the exchange has
+    * finished. This will close the content buffer so that it can
+    * be read. A listener is only ever notified of completion once.
+    */
+   public void complete() throws IOException {
+      if(!done) {
+         allocator.getBuffer().close();
+         done = true;
+         listener.onComplete(this);
+      }
+   }
+
+   /**
+    * This is used to notify the listener that the exchange has
+    * failed. This is used when the connection was closed or could
+    * not be established. A listener is only ever notified once.
+    *
+    * @param cause this is the reason the exchange has failed
+    */
+   public void fail(Exception cause) {
+      if(!done) {
+         done = true;
+         listener.onFailure(request, cause);
+      }
+   }
+
+   /**
+    * This is used to determine if any of the response has been
+    * read. Once the response has started the exchange can not be
+    * retried, as the listener may have been given the header.
+    *
+    * @return true if any of the response has been consumed
+    */
+   public boolean isStarted() {
+      return body != null;
+   }
+
+   /**
+    * This is used to determine if the exchange has finished. An
+    * exchange is finished when the body of the response has been
+    * fully consumed from the connection.
+    *
+    * @return true if the response has been fully consumed
+    */
+   public boolean isFinished() {
+      if(body != null) {
+         return body.isFinished();
+      }
+      return false;
+   }
+
+   /**
+    * This is used to determine if the connection the response was
+    * received on can be used for subsequent requests. This takes
+    * into account the protocol version and the connection header.
+    *
+    * @return true if the connection was kept alive by the server
+    */
+   public boolean isKeepAlive() {
+      String value = header.getValue(CONNECTION);
+
+      if(body instanceof CloseConsumer) {
+         return false;
+      }
+      if(header.getMajor() == 1 && header.getMinor() == 0) {
+         if(value != null) {
+            return value.equalsIgnoreCase(KEEP_ALIVE);
+         }
+         return false;
+      }
+      if(value != null) {
+         return !value.equalsIgnoreCase(CLOSE);
+      }
+      return true;
+   }
+
+   /**
+    * This represents the status code of the HTTP response. The
+    * response code represents the type of message that is being
+    * received from the server. For a description of the codes
+    * see RFC 2616 section 10, Status Code Definitions.
+    *
+    * @return the status code that this HTTP response has
+    */
+   public int getCode() {
+      return header.getCode();
+   }
+
+   /**
+    * This can be used to retrieve the text of a HTTP status line.
+    * This is the text description for the status code. This should
+    * match the status code specified by the RFC.
+    *
+    * @return the message description of the response
+    */
+   public String getDescription() {
+      return header.getDescription();
+   }
+
+   /**
+    * This can be used to get the major number from a HTTP version.
+    * The major version corresponds to the major type that is the 1
+    * of a HTTP/1.0 version string.
+    *
+    * @return the major version number for the response message
+    */
+   public int getMajor() {
+      return header.getMajor();
+   }
+
+   /**
+    * This can be used to get the minor number from a HTTP version.
+    * The minor version corresponds to the major type that is the 0
+    * of a HTTP/1.0 version string.
+    *
+    * @return the minor version number for the response message
+    */
+   public int getMinor() {
+      return header.getMinor();
+   }
+
+   /**
+    * This is used to acquire the names of the of the headers that
+    * have been sent with the response. This can be used to acquire
+    * all header values by name that have been sent by the server.
+    *
+    * @return this returns a list of the names within the header
+    */
+   public List<String> getNames() {
+      return header.getNames();
+   }
+
+   /**
+    * This can be used to get the value of the first message header
+    * that has the specified name. The value provided from this will
+    * be trimmed so there is no need to modify the value. If the
+    * header is not present this will return null.
+    *
+    * @param name the HTTP message header to get the value from
+    *
+    * @return this returns the value that the HTTP message header
+    */
+   public String getValue(String name) {
+      return header.getValue(name);
+   }
+
+   /**
+    * This can be used to get the value of the message header at the
+    * specified index. This is useful when there are several headers
+    * with the same name, such as <code>Set-Cookie</code>, as the
+    * values are provided exactly as they were sent.
+    *
+    * @param name the HTTP message header to get the value from
+    * @param index used if there are multiple headers present
+    *
+    * @return this returns the value that the HTTP message header
+    */
+   public String getValue(String name, int index) {
+      return header.getValue(name, index);
+   }
+
+   /**
+    * This can be used to get the values of HTTP message headers
+    * that have the specified name. This is a convenience method that
+    * will present that values as tokens extracted from the header.
+    *
+    * @param name the name of the headers that are to be retrieved
+    *
+    * @return ordered list of tokens extracted from the header(s)
+    */
+   public List<String> getValues(String name) {
+      return header.getValues(name);
+   }
+
+   /**
+    * This can be used to get the integer of the first message header
+    * that has the specified name. If the header is not present then
+    * this returns a value of -1 to indicate that it does not exist.
+    *
+    * @param name the HTTP message header to get the value from
+    *
+    * @return this returns the integer value of the message header
+    */
+   public int getInteger(String name) {
+      return header.getInteger(name);
+   }
+
+   /**
+    * This can be used to get the date of the first message header
+    * that has the specified name. This returns -1 if the header is
+    * missing from the response.
+    *
+    * @param name the HTTP message header to get the value from
+    *
+    * @return this returns the date as a long from the header value
+    */
+   public long getDate(String name) {
+      return header.getDate(name);
+   }
+
+   /**
+    * This is used to acquire the cookies that have been set by the
+    * server using the <code>Set-Cookie</code> header. Only the name
+    * and value of each cookie is recorded.
+    *
+    * @return this returns the cookies set by the response
+    */
+   public List<Cookie> getCookies() {
+      return header.getCookies();
+   }
+
+   /**
+    * This is a convenience method that can be used to determine the
+    * content type of the message body. This will determine whether
+    * there is a <code>Content-Type</code> header, if there is then
+    * this will parse that header and represent it as a typed object.
+    *
+    * @return this returns the content type value if it exists
+    */
+   public ContentType getContentType() {
+      return header.getContentType();
+   }
+
+   /**
+    * This is a convenience method that can be used to determine
+    * the length of the message body. This will determine if there
+    * is a <code>Content-Length</code> header, if it does then the
+    * length can be determined, if not then this returns -1.
+    *
+    * @return the content length, or -1 if it cannot be determined
+    */
+   public long getContentLength() {
+      return header.getContentLength();
+   }
+
+   /**
+    * This is used to get the content of the response as a string.
+    * The charset declared by the content type is used to decode
+    * the content, if none is declared ISO-8859-1 is used. If the
+    * content was not buffered this returns an empty string.
+    *
+    * @return this returns the content of the response message
+    */
+   public String getContent() throws IOException {
+      ContentType type = header.getContentType();
+      ContentBuffer buffer = allocator.getBuffer();
+
+      if(type != null) {
+         String charset = type.getCharset();
+
+         if(charset != null) {
+            return buffer.encode(charset);
+         }
+      }
+      return buffer.encode();
+   }
+
+   /**
+    * This is used to read the content of the response. If the
+    * content was not buffered, as is the case when the response is
+    * delivered to a listener, then this returns an empty stream.
+    *
+    * @return this returns a stream to read the response content
+    */
+   public InputStream getInputStream() throws IOException {
+      return allocator.getBuffer().open();
+   }
+
+   /**
+    * This is used to provide a description of the exchange. The
+    * description is the request line along with the status line
+    * of the response if one has been received.
+    *
+    * @return this returns a description of the exchange
+    */
+   @Override
+   public String toString() {
+      String method = request.getMethod();
+      String path = request.getPath();
+
+      if(body != null) {
+         return String.format("%s %s -> %s", method, path, header.getCode());
+      }
+      return String.format("%s %s", method, path);
+   }
+}
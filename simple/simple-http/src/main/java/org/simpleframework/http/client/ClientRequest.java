@@ -0,0 +1,408 @@
+/*
+ * ClientRequest.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.client;
+
+import static org.simpleframework.http.Protocol.CHUNKED;
+import static org.simpleframework.http.Protocol.CONTENT_LENGTH;
+import static org.simpleframework.http.Protocol.COOKIE;
+import static org.simpleframework.http.Protocol.HOST;
+import static org.simpleframework.http.Protocol.TRANSFER_ENCODING;
+
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.List;
+
+import org.simpleframework.http.Cookie;
+import org.simpleframework.http.message.MessageHeader;
+
+/**
+ * The <code>ClientRequest</code> object represents a request that
+ * is to be sent by a <code>Client</code>. A request is created with
+ * a method and an absolute URI, which determines the host that the
+ * request is sent to. Headers are added in the same way as they
+ * are for a response, and the <code>Host</code> header and the
+ * <code>Content-Length</code> header are added automatically if
+ * they have not been specified explicitly.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.client.Client
+ */
+public class ClientRequest extends MessageHeader {
+
+   /**
+    * This is the absolute URI the request is to be sent to.
+    */
+   private final URI target;
+
+   /**
+    * This is the method that is to be used for the request.
+    */
+   private final String method;
+
+   /**
+    * This is a stream that the request content is read from.
+    */
+   private InputStream source;
+
+   /**
+    * This is the content that is to be sent with the request.
+    */
+   private byte[] content;
+
+   /**
+    * This is the number of bytes to read from the source.
+    */
+   private long length;
+
+   /**
+    * Constructor for the <code>ClientRequest</code> object. This is
+    * used to create a request using the method and URI provided.
+    * The URI must be absolute, as the scheme, host, and port are
+    * used to determine the connection the request is sent on.
+    *
+    * @param method this is the method used for the request
+    * @param target this is the absolute URI for the request
+    */
+   public ClientRequest(String method, String target) {
+      this(method, URI.create(target));
+   }
+
+   /**
+    * Constructor for the <code>ClientRequest</code> object. This is
+    * used to create a request using the method and URI provided.
+    * The URI must be absolute, as the scheme, host, and port are
+    * used to determine the connection the request is sent on.
+    *
+    * @param method this is the method used for the request
+    * @param target this is the absolute URI for the request
+    */
+   public ClientRequest(String method, URI target) {
+      this.content = new byte[]{};
+      this.method = method;
+      this.target = target;
+   }
+
+   /**
+    * This is used to acquire the method that is used to send the
+    * request. Typically this will be a GET or POST request, but
+    * any method can be used if the server supports it.
+    *
+    * @return this returns the method used for the request
+    */
+   public String getMethod() {
+      return method;
+   }
+
+   /**
+    * This is used to acquire the absolute URI for the request. The
+    * URI determines the scheme, host and port that are used to
+    * connect, as well as the path sent in the request line.
+    *
+    * @return this returns the absolute URI for the request
+    */
+   public URI getTarget() {
+      return target;
+   }
+
+   /**
+    * This is used to acquire the host the request is sent to. The
+    * host is taken from the URI and is used both to connect to
+    * the server and to provide the <code>Host</code> header.
+    *
+    * @return this returns the host the request is sent to
+    */
+   public String getHost() {
+      return target.getHost();
+   }
+
+   /**
+    * This is used to acquire the port the request is sent to. If
+    * the URI does not declare a port then the default port for
+    * the scheme is used, that is 443 for HTTPS and 80 otherwise.
+    *
+    * @return this returns the port the request is sent to
+    */
+   public int getPort() {
+      int port = target.getPort();
+
+      if(port < 0) {
+         return isSecure() ? 443 : 80;
+      }
+      return port;
+   }
+
+   /**
+    * This is used to acquire the path that is sent in the request
+    * line. This includes any query string that was specified in
+    * the URI. If the URI has no path then "/" is used.
+    *
+    * @return this returns the path that is sent with the request
+    */
+   public String getPath() {
+      String path = target.getRawPath();
+      String query = target.getRawQuery();
+
+      if(path == null || path.length() == 0) {
+         path = "/";
+      }
+      if(query != null) {
+         return path + "?" + query;
+      }
+      return path;
+   }
+
+   /**
+    * This is used to acquire the address that should be used to
+    * connect to the server. This is created each time it is
+    * requested so that a change in DNS is picked up.
+    *
+    * @return this returns the address the request is sent to
+    */
+   public InetSocketAddress getAddress() {
+      String host = getHost();
+      int port = getPort();
+
+      return new InetSocketAddress(host, port);
+   }
+
+   /**
+    * This is used to determine if the request is to be sent over
+    * a secure connection. This is determined by the scheme of the
+    * URI, if the scheme is HTTPS then SSL will be used.
+    *
+    * @return this returns true if the request is to be secure
+    */
+   public boolean isSecure() {
+      String scheme = target.getScheme();
+
+      if(scheme != null) {
+         return scheme.equalsIgnoreCase("https");
+      }
+      return false;
+   }
+
+   /**
+    * This is used to determine if the request is idempotent. An
+    * idempotent request can be safely retried on a new connection
+    * if the connection it was sent on was closed before the full
+    * response could be received.
+    *
+    * @return this returns true if the request is idempotent
+    */
+   public boolean isIdempotent() {
+      if(method.equalsIgnoreCase("GET")) {
+         return true;
+      }
+      if(method.equalsIgnoreCase("HEAD")) {
+         return true;
+      }
+      if(method.equalsIgnoreCase("OPTIONS")) {
+         return true;
+      }
+      if(method.equalsIgnoreCase("PUT")) {
+         return true;
+      }
+      return method.equalsIgnoreCase("DELETE");
+   }
+
+   /**
+    * This is used to determine if the request is safe to send on
+    * a connection that already has requests waiting for responses.
+    * Only GET and HEAD requests are pipelined by the client.
+    *
+    * @return this returns true if the request can be pipelined
+    */
+   public boolean isPipelined() {
+      if(method.equalsIgnoreCase("GET")) {
+         return true;
+      }
+      return method.equalsIgnoreCase("HEAD");
+   }
+
+   /**
+    * This is used to acquire the content that is to be sent with
+    * the request. If no content has been set then this will return
+    * an empty array, and no content will be sent.
+    *
+    * @return this returns the content sent with the request
+    */
+   public byte[] getContent() {
+      return content;
+   }
+
+   /**
+    * This is used to set the content that is to be sent with the
+    * request. The string is encoded as UTF-8, if a different
+    * charset is required then the content should be encoded and
+    * provided as an array of bytes.
+    *
+    * @param text this is the text to be sent with the request
+    */
+   public void setContent(String text) {
+      try {
+         setContent(text.getBytes("UTF-8"));
+      } catch(UnsupportedEncodingException e) {
+         throw new IllegalStateException("Could not encode content", e);
+      }
+   }
+
+   /**
+    * This is used to set the content that is to be sent with the
+    * request. The <code>Content-Length</code> header is set from
+    * the length of the array when the request is sent, unless it
+    * has been set explicitly.
+    *
+    * @param content this is the content to be sent
+    */
+   public void setContent(byte[] content) {
+      this.length = content.length;
+      this.content = content;
+      this.source = null;
+   }
+
+   /**
+    * This is used to set a stream that the content of the request
+    * is read from. The content is copied from the stream to the
+    * connection in small chunks as the request is written, so the
+    * content is never held in memory in full. If the length is not
+    * known then the content is sent using the chunked encoding.
+    *
+    * @param source this is the stream to read the content from
+    * @param length this is the length of the content or -1
+    */
+   public void setContent(InputStream source, long length) {
+      this.content = new byte[]{};
+      this.length = length;
+      this.source = source;
+   }
+
+   /**
+    * This is used to acquire the stream the content is read from.
+    * If the content has been provided as an array, or there is no
+    * content, then this will return null.
+    *
+    * @return this returns the stream to read the content from
+    */
+   public InputStream getSource() {
+      return source;
+   }
+
+   /**
+    * This is used to determine the length of the content. If the
+    * content is provided by a stream of unknown length this will
+    * return -1, in which case the chunked encoding is used.
+    *
+    * @return this returns the length of the request content
+    */
+   public long getLength() {
+      return length;
+   }
+
+   /**
+    * This is used to determine if the request can be written more
+    * than once. A request with content read from a stream can not
+    * be repeated, as the stream will have been consumed.
+    *
+    * @return this returns true if the request can be repeated
+    */
+   public boolean isRepeatable() {
+      return source == null;
+   }
+
+   /**
+    * This is used to determine if the content is to be sent using
+    * the chunked transfer encoding. This is the case only when the
+    * content is read from a stream of unknown length.
+    *
+    * @return this returns true if the content is to be chunked
+    */
+   public boolean isChunked() {
+      return source != null && length < 0;
+   }
+
+   /**
+    * This is used to encode the request header so that it can be
+    * written to a connection. The header is encoded as ISO-8859-1
+    * as is required by RFC 2616 for the request line and headers.
+    *
+    * @return this returns the request header as a byte array
+    */
+   public byte[] getHeader() {
+      try {
+         return toString().getBytes("ISO-8859-1");
+      } catch(UnsupportedEncodingException e) {
+         throw new IllegalStateException("Could not encode header", e);
+      }
+   }
+
+   /**
+    * This is used to compose the request header. This includes the
+    * request line and all of the headers that have been set. If
+    * the <code>Host</code> and <code>Content-Length</code> headers
+    * have not been set they are added here.
+    *
+    * @return this returns the text representing the header
+    */
+   @Override
+   public String toString() {
+      StringBuilder head = new StringBuilder(256);
+      List<Cookie> cookies = getCookies();
+
+      head.append(method).append(' ');
+      head.append(getPath());
+      head.append(" HTTP/1.1\r\n");
+
+      if(getValue(HOST) == null) {
+         head.append(HOST).append(": ");
+         head.append(getHost());
+
+         if(target.getPort() > 0) {
+            head.append(':').append(getPort());
+         }
+         head.append("\r\n");
+      }
+      if(isChunked()) {
+         head.append(TRANSFER_ENCODING).append(": ");
+         head.append(CHUNKED);
+         head.append("\r\n");
+      } else if(getValue(CONTENT_LENGTH) == null && length > 0) {
+         head.append(CONTENT_LENGTH).append(": ");
+         head.append(length);
+         head.append("\r\n");
+      }
+      for(String name : getNames()) {
+         for(String value : getAll(name)) {
+            head.append(name);
+            head.append(": ");
+            head.append(value);
+            head.append("\r\n");
+         }
+      }
+      for(Cookie cookie : cookies) {
+         head.append(COOKIE).append(": ");
+         head.append(cookie.getName()).append('=');
+         head.append(cookie.getValue());
+         head.append("\r\n");
+      }
+      return head.append("\r\n").toString();
+   }
+}
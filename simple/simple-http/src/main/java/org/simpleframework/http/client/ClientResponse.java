@@ -0,0 +1,221 @@
+/*
+ * ClientResponse.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import org.simpleframework.http.ContentType;
+import org.simpleframework.http.Cookie;
+
+/**
+ * The <code>ClientResponse</code> represents a response received by
+ * a <code>Client</code>. This provides the status line and headers
+ * of the response as well as its content. The content is available
+ * only if the response was buffered, responses delivered to a
+ * <code>ResponseListener</code> provide their content to the
+ * listener as it is read and so it is not retained.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.client.Client
+ */
+public interface ClientResponse {
+
+   /**
+    * This represents the status code of the HTTP response. The
+    * response code represents the type of message that is being
+    * received from the server. For a description of the codes
+    * see RFC 2616 section 10, Status Code Definitions.
+    *
+    * @return the status code that this HTTP response has
+    */
+   int getCode();
+
+   /**
+    * This can be used to retrieve the text of a HTTP status line.
+    * This is the text description for the status code. This should
+    * match the status code specified by the RFC.
+    *
+    * @return the message description of the response
+    */
+   String getDescription();
+
+   /**
+    * This can be used to get the major number from a HTTP version.
+    * The major version corresponds to the major type that is the 1
+    * of a HTTP/1.0 version string.
+    *
+    * @return the major version number for the response message
+    */
+   int getMajor();
+
+   /**
+    * This can be used to get the minor number from a HTTP version.
+    * The minor version corresponds to the major type that is the 0
+    * of a HTTP/1.0 version string.
+    *
+    * @return the minor version number for the response message
+    */
+   int getMinor();
+
+   /**
+    * This is used to acquire the names of the of the headers that
+    * have been sent with the response. This can be used to acquire
+    * all header values by name that have been sent by the server.
+    *
+    * @return this returns a list of the names within the header
+    */
+   List<String> getNames();
+
+   /**
+    * This can be used to get the value of the first message header
+    * that has the specified name. The value provided from this will
+    * be trimmed so there is no need to modify the value. If the
+    * header is not present this will return null.
+    *
+    * @param name the HTTP message header to get the value from
+    *
+    * @return this returns the value that the HTTP message header
+    */
+   String getValue(String name);
+
+   /**
+    * This can be used to get the value of the message header at the
+    * specified index. This is useful when there are several headers
+    * with the same name, such as <code>Set-Cookie</code>, as the
+    * values are provided exactly as they were sent.
+    *
+    * @param name the HTTP message header to get the value from
+    * @param index used if there are multiple headers present
+    *
+    * @return this returns the value that the HTTP message header
+    */
+   String getValue(String name, int index);
+
+   /**
+    * This can be used to get the values of HTTP message headers
+    * that have the specified name. This is a convenience method that
+    * will present that values as tokens extracted from the header.
+    * This has obvious performance benefits as it avoids having to
+    * deal with <code>substring</code> and <code>trim</code> calls.
+    *
+    * @param name the name of the headers that are to be retrieved
+    *
+    * @return ordered list of tokens extracted from the header(s)
+    */
+   List<String> getValues(String name);
+
+   /**
+    * This can be used to get the integer of the first message header
+    * that has the specified name. If the header is not present then
+    * this returns a value of -1 to indicate that it does not exist.
+    *
+    * @param name the HTTP message header to get the value from
+    *
+    * @return this returns the integer value of the message header
+    */
+   int getInteger(String name);
+
+   /**
+    * This can be used to get the date of the first message header
+    * that has the specified name. This is a convenience method that
+    * avoids having to deal with parsing the value of the requested
+    * HTTP message header. This returns -1 if the header is missing.
+    *
+    * @param name the HTTP message header to get the value from
+    *
+    * @return this returns the date as a long from the header value
+    */
+   long getDate(String name);
+
+   /**
+    * This is used to acquire the cookies that have been set by the
+    * server using the <code>Set-Cookie</code> header. Only the name
+    * and value of each cookie is recorded.
+    *
+    * @return this returns the cookies set by the response
+    */
+   List<Cookie> getCookies();
+
+   /**
+    * This is a convenience method that can be used to determine the
+    * content type of the message body. This will determine whether
+    * there is a <code>Content-Type</code> header, if there is then
+    * this will parse that header and represent it as a typed object.
+    *
+    * @return this returns the content type value if it exists
+    */
+   ContentType getContentType();
+
+   /**
+    * This is a convenience method that can be used to determine
+    * the length of the message body. This will determine if there
+    * is a <code>Content-Length</code> header, if it does then the
+    * length can be determined, if not then this returns -1.
+    *
+    * @return the content length, or -1 if it cannot be determined
+    */
+   long getContentLength();
+
+   /**
+    * This is used to determine if the connection the response was
+    * received on can be used for subsequent requests. This takes
+    * into account the protocol version and the connection header.
+    *
+    * @return true if the connection was kept alive by the server
+    */
+   boolean isKeepAlive();
+
+   /**
+    * This is used to get the content of the response as a string.
+    * The charset declared by the content type is used to decode
+    * the content, if none is declared ISO-8859-1 is used. If the
+    * content was not buffered this returns an empty string.
+    *
+    * @return this returns the content of the response message
+    */
+   String getContent() throws IOException;
+
+   /**
+    * This is used to read the content of the response. If the
+    * content was not buffered, as is the case when the response is
+    * delivered to a listener, then this returns an empty stream.
+    *
+    * @return this returns a stream to read the response content
+    */
+   InputStream getInputStream() throws IOException;
+
+   /**
+    * This is used to stop reading the content of the response. It is
+    * intended for a <code>ResponseListener</code> that hands content
+    * on to something slower than the connection, so that no more is
+    * read until it has caught up. This has no effect once the whole
+    * of the response has been read.
+    */
+   void suspend();
+
+   /**
+    * This is used to resume reading the content of the response if
+    * it has been suspended. Reading continues on another thread, so
+    * this can be invoked from any thread and does not block.
+    */
+   void resume() throws IOException;
+}
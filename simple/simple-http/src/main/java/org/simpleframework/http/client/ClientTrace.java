@@ -0,0 +1,77 @@
+/*
+ * ClientTrace.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.client;
+
+import org.simpleframework.transport.trace.Trace;
+
+/**
+ * The <code>ClientTrace</code> is used to wrap a trace for a client
+ * connection. Wrapping the trace in this way ensures that if no
+ * analyzer has been provided to the client the events are simply
+ * ignored, so the connection never needs to check for a trace.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.client.ConnectionPool
+ */
+class ClientTrace implements Trace {
+
+   /**
+    * This is the trace that events are delivered to if it exists.
+    */
+   private final Trace trace;
+
+   /**
+    * Constructor for the <code>ClientTrace</code> object. This will
+    * create a trace that delivers events to the trace provided. If
+    * the provided trace is null then events are simply ignored.
+    *
+    * @param trace this is the trace that events are delivered to
+    */
+   public ClientTrace(Trace trace) {
+      this.trace = trace;
+   }
+
+   /**
+    * This method is used to accept an event that occurred on the
+    * connection. If there is no underlying trace then the event is
+    * ignored, otherwise it is passed on to the underlying trace.
+    *
+    * @param event this is the event that occurred on the connection
+    */
+   public void trace(Object event) {
+      if(trace != null) {
+         trace.trace(event);
+      }
+   }
+
+   /**
+    * This method is used to accept an event that occurred on the
+    * connection. If there is no underlying trace then the event is
+    * ignored, otherwise it is passed on to the underlying trace.
+    *
+    * @param event this is the event that occurred on the connection
+    * @param value provides additional information such as an exception
+    */
+   public void trace(Object event, Object value) {
+      if(trace != null) {
+         trace.trace(event, value);
+      }
+   }
+}
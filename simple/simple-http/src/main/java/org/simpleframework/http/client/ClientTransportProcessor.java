@@ -0,0 +1,86 @@
+/*
+ * ClientTransportProcessor.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.client;
+
+import static org.simpleframework.http.client.ClientEvent.ERROR;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.simpleframework.transport.Channel;
+import org.simpleframework.transport.Transport;
+import org.simpleframework.transport.TransportChannel;
+import org.simpleframework.transport.TransportProcessor;
+import org.simpleframework.transport.trace.Trace;
+
+/**
+ * The <code>ClientTransportProcessor</code> is used to start client
+ * connections once their transport is ready. For a secure connection
+ * this is once the SSL handshake has completed. The connection the
+ * transport belongs to is taken from the attributes of the socket,
+ * where it was placed when the connect was finished.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.client.ConnectionBuilder
+ */
+class ClientTransportProcessor implements TransportProcessor {
+
+   /**
+    * Constructor for the <code>ClientTransportProcessor</code>. This
+    * creates a processor that will start the connection associated
+    * with each transport so that requests can be written to it.
+    */
+   public ClientTransportProcessor() {
+      super();
+   }
+
+   /**
+    * This is used to start the connection the transport belongs to.
+    * A channel is created for the transport and given to the client
+    * connection, which will write any queued requests to it. If the
+    * connection can not be started the transport is closed.
+    *
+    * @param transport this is the transport that is ready
+    */
+   public void process(Transport transport) throws IOException {
+      Map attributes = transport.getAttributes();
+      Object value = attributes.get(ClientConnection.class);
+      ClientConnection connection = (ClientConnection)value;
+      Channel channel = new TransportChannel(transport);
+
+      try {
+         connection.start(channel);
+      } catch(Exception cause) {
+         Trace trace = channel.getTrace();
+
+         trace.trace(ERROR, cause);
+         connection.close();
+      }
+   }
+
+   /**
+    * This method is used to stop the processor. As the connections
+    * are owned by the connection pool, which closes them, there is
+    * nothing that needs to be done to stop this processor.
+    */
+   public void stop() throws IOException {
+      return;
+   }
+}
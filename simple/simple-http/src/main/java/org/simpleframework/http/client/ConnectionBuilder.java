@@ -0,0 +1,147 @@
+/*
+ * ConnectionBuilder.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.client;
+
+import static org.simpleframework.http.client.ClientEvent.ERROR;
+
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+
+import javax.net.ssl.SSLEngine;
+
+import org.simpleframework.transport.Socket;
+import org.simpleframework.transport.SocketProcessor;
+import org.simpleframework.transport.SocketWrapper;
+import org.simpleframework.transport.reactor.Operation;
+import org.simpleframework.transport.trace.Trace;
+
+/**
+ * The <code>ConnectionBuilder</code> is used to finish a connection
+ * once the socket has connected. This is registered with a reactor
+ * for connect readiness, and once executed the connect is finished
+ * and the socket is given to the socket processor. The connection
+ * is stored as a socket attribute so that it can be started once
+ * the transport, and any SSL handshake, is ready.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.client.ClientTransportProcessor
+ */
+class ConnectionBuilder implements Operation {
+
+   /**
+    * This is the connection that is being established.
+    */
+   private final ClientConnection connection;
+
+   /**
+    * This is used to create a transport for the socket.
+    */
+   private final SocketProcessor processor;
+
+   /**
+    * This is the channel that is being connected.
+    */
+   private final SocketChannel channel;
+
+   /**
+    * This is the engine used if the connection is secure.
+    */
+   private final SSLEngine engine;
+
+   /**
+    * This is the trace used to trace the connection.
+    */
+   private final Trace trace;
+
+   /**
+    * Constructor for the <code>ConnectionBuilder</code> object. This
+    * is used to create an operation that finishes the connect for
+    * the channel provided and hands the socket to the processor.
+    *
+    * @param processor this is used to create a transport
+    * @param connection this is the connection being established
+    * @param channel this is the channel that is being connected
+    * @param trace this is the trace used to trace the connection
+    * @param engine this is the engine used for secure connections
+    */
+   public ConnectionBuilder(SocketProcessor processor, ClientConnection connection, SocketChannel channel, Trace trace, SSLEngine engine) {
+      this.connection = connection;
+      this.processor = processor;
+      this.channel = channel;
+      this.engine = engine;
+      this.trace = trace;
+   }
+
+   /**
+    * This is used to acquire the trace used by the connection. The
+    * trace is used to record events that occur on the connection
+    * such as errors that occur when finishing the connect.
+    *
+    * @return this returns the trace associated with the connection
+    */
+   public Trace getTrace() {
+      return trace;
+   }
+
+   /**
+    * This is the channel that is being connected. The reactor uses
+    * this to determine when the connect can be finished, after
+    * which the connection will be handed to the socket processor.
+    *
+    * @return this returns the channel that is being connected
+    */
+   public SocketChannel getChannel() {
+      return channel;
+   }
+
+   /**
+    * This is used to finish the connect. Once connected the socket
+    * is wrapped, the connection is stored as an attribute of the
+    * socket, and the socket is given to the processor so that a
+    * transport can be created and a handshake performed.
+    */
+   public void run() {
+      try {
+         Socket socket = new SocketWrapper(channel, trace, engine);
+         Map attributes = socket.getAttributes();
+
+         channel.finishConnect();
+         attributes.put(ClientConnection.class, connection);
+         processor.process(socket);
+      } catch(Exception cause) {
+         trace.trace(ERROR, cause);
+         cancel();
+      }
+   }
+
+   /**
+    * This is used to cancel the operation if the connect could not
+    * be finished. This is called if the connect times out, and it
+    * ensures the channel is closed and the connection is failed.
+    */
+   public void cancel() {
+      try {
+         channel.close();
+      } catch(Exception cause) {
+         trace.trace(ERROR, cause);
+      }
+      connection.close();
+   }
+}
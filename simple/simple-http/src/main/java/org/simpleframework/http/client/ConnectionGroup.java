@@ -0,0 +1,230 @@
+/*
+ * ConnectionGroup.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.client;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.simpleframework.transport.reactor.Reactor;
+
+/**
+ * The <code>ConnectionGroup</code> contains the connections to a
+ * single host and port. When an exchange is sent the group will use
+ * an idle connection if there is one, or will open a new connection
+ * if the limit has not been reached. Once the limit is reached GET
+ * and HEAD requests are pipelined on connections that only carry
+ * such requests, and all other exchanges wait for a connection.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.client.ConnectionPool
+ */
+class ConnectionGroup {
+
+   /**
+    * This contains the exchanges waiting for a connection.
+    */
+   private final LinkedList<ClientExchange> waiting;
+
+   /**
+    * This contains the connections that are open to the host.
+    */
+   private final List<ClientConnection> connections;
+
+   /**
+    * This is the pool used to establish new connections.
+    */
+   private final ConnectionPool pool;
+
+   /**
+    * This is the reactor used by connections to read responses.
+    */
+   private final Reactor reactor;
+
+   /**
+    * This is the maximum number of connections to the host.
+    */
+   private final int limit;
+
+   /**
+    * This is the maximum number of pipelined exchanges.
+    */
+   private final int depth;
+
+   /**
+    * This determines if the group has been closed.
+    */
+   private boolean closed;
+
+   /**
+    * Constructor for the <code>ConnectionGroup</code> object. This
+    * is used to create a group of connections to a single host. The
+    * number of connections is limited, as is the number of requests
+    * that can be pipelined on a single connection.
+    *
+    * @param pool this is the pool used to establish connections
+    * @param reactor this is used by connections to read responses
+    * @param limit this is the maximum number of connections
+    * @param depth this is the maximum number of pipelined requests
+    */
+   public ConnectionGroup(ConnectionPool pool, Reactor reactor, int limit, int depth) {
+      this.connections = new ArrayList<ClientConnection>();
+      this.waiting = new LinkedList<ClientExchange>();
+      this.reactor = reactor;
+      this.limit = limit;
+      this.depth = depth;
+      this.pool = pool;
+   }
+
+   /**
+    * This is used to send an exchange to the host. If a connection
+    * is available the exchange is sent immediately, otherwise the
+    * exchange will wait until a connection has been released by an
+    * exchange that has completed.
+    *
+    * @param exchange this is the exchange to be sent
+    */
+   public synchronized void send(ClientExchange exchange) {
+      if(closed) {
+         exchange.fail(new IOException("Client has been closed"));
+      } else {
+         ClientConnection connection = select(exchange);
+
+         if(connection != null) {
+            if(!connection.send(exchange)) {
+               waiting.add(exchange);
+            }
+         } else if(connections.size() < limit) {
+            create(exchange);
+         } else {
+            waiting.add(exchange);
+         }
+      }
+   }
+
+   /**
+    * This is used to select a connection for the exchange. An idle
+    * connection is preferred, and if there is none and no further
+    * connections can be opened then an exchange that can be
+    * pipelined is sent on a connection with spare capacity.
+    *
+    * @param exchange this is the exchange a connection is needed for
+    *
+    * @return this returns a connection or null if none available
+    */
+   private ClientConnection select(ClientExchange exchange) {
+      ClientRequest request = exchange.getRequest();
+
+      for(ClientConnection connection : connections) {
+         if(connection.count() == 0 && !connection.isClosed()) {
+            return connection;
+         }
+      }
+      if(connections.size() >= limit && request.isPipelined()) {
+         for(ClientConnection connection : connections) {
+            if(connection.count() < depth && connection.isPipelined()) {
+               return connection;
+            }
+         }
+      }
+      return null;
+   }
+
+   /**
+    * This is used to create a new connection to the host. The
+    * exchange is queued on the connection before it is established
+    * so that if the connection fails the exchange is retried or
+    * failed along with the connection.
+    *
+    * @param exchange this is the exchange that requires a connection
+    */
+   private void create(ClientExchange exchange) {
+      ClientRequest request = exchange.getRequest();
+      ClientConnection connection = new ClientConnection(this, reactor);
+
+      connections.add(connection);
+      connection.send(exchange);
+      pool.connect(connection, request);
+   }
+
+   /**
+    * This is invoked when a connection has finished an exchange and
+    * can be used for another. If there are exchanges waiting then
+    * they are sent in the order they arrived.
+    *
+    * @param connection this is the connection that has been released
+    */
+   public synchronized void release(ClientConnection connection) {
+      int count = waiting.size();
+
+      for(int i = 0; i < count; i++) {
+         ClientExchange exchange = waiting.poll();
+
+         if(exchange != null) {
+            send(exchange);
+         }
+      }
+   }
+
+   /**
+    * This is invoked when a connection has been closed. Exchanges
+    * that were outstanding on the connection are retried if this
+    * is safe, and otherwise they are failed. As a slot has been
+    * freed any waiting exchanges are then sent.
+    *
+    * @param connection this is the connection that was closed
+    * @param remaining these are the exchanges that did not finish
+    */
+   public synchronized void remove(ClientConnection connection, List<ClientExchange> remaining) {
+      connections.remove(connection);
+
+      for(ClientExchange exchange : remaining) {
+         if(!closed && exchange.retry()) {
+            send(exchange);
+         } else {
+            exchange.fail(new IOException("Connection closed before response"));
+         }
+      }
+      release(connection);
+   }
+
+   /**
+    * This is used to close the group and all of its connections.
+    * Any exchanges that are waiting for a connection are failed,
+    * as are the exchanges outstanding on each connection.
+    */
+   public void close() {
+      List<ClientConnection> list = new ArrayList<ClientConnection>();
+
+      synchronized(this) {
+         list.addAll(connections);
+         closed = true;
+
+         for(ClientExchange exchange : waiting) {
+            exchange.fail(new IOException("Client has been closed"));
+         }
+         waiting.clear();
+      }
+      for(ClientConnection connection : list) {
+         connection.close();
+      }
+   }
+}
@@ -0,0 +1,266 @@
+/*
+ * ConnectionPool.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.client;
+
+import static java.nio.channels.SelectionKey.OP_CONNECT;
+import static org.simpleframework.http.client.ClientEvent.CONNECT;
+import static org.simpleframework.http.client.ClientEvent.ERROR;
+
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+
+import org.simpleframework.transport.SocketProcessor;
+import org.simpleframework.transport.reactor.Reactor;
+import org.simpleframework.transport.trace.Trace;
+import org.simpleframework.transport.trace.TraceAnalyzer;
+
+/**
+ * The <code>ConnectionPool</code> contains a group of connections
+ * for each host and port that requests are sent to. It is also
+ * responsible for establishing new connections, which is done with
+ * a non-blocking connect so that no thread waits while the TCP and
+ * SSL handshakes complete.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.client.ConnectionGroup
+ */
+class ConnectionPool {
+
+   /**
+    * This contains the connection groups keyed by host and port.
+    */
+   private final Map<String, ConnectionGroup> groups;
+
+   /**
+    * This is used to create transports for new connections.
+    */
+   private final SocketProcessor processor;
+
+   /**
+    * This is used to trace the connections that are established.
+    */
+   private final TraceAnalyzer analyzer;
+
+   /**
+    * This is the context used to create secure connections.
+    */
+   private final SSLContext context;
+
+   /**
+    * This is the reactor used to connect and to read responses.
+    */
+   private final Reactor reactor;
+
+   /**
+    * This is the maximum number of connections to each host.
+    */
+   private final int limit;
+
+   /**
+    * This is the maximum number of pipelined exchanges.
+    */
+   private final int depth;
+
+   /**
+    * This determines if the pool has been closed.
+    */
+   private boolean closed;
+
+   /**
+    * Constructor for the <code>ConnectionPool</code> object. This is
+    * used to create a pool that establishes connections using the
+    * reactor provided. Once a connection is established it is given
+    * to the socket processor so that a transport can be created.
+    *
+    * @param processor this is used to create transports
+    * @param reactor this is used to connect and read responses
+    * @param analyzer this is used to trace the connections
+    * @param context this is the context for secure connections
+    * @param limit this is the maximum connections to each host
+    * @param depth this is the maximum number of pipelined requests
+    */
+   public ConnectionPool(SocketProcessor processor, Reactor reactor, TraceAnalyzer analyzer, SSLContext context, int limit, int depth) {
+      this.groups = new LinkedHashMap<String, ConnectionGroup>();
+      this.processor = processor;
+      this.analyzer = analyzer;
+      this.context = context;
+      this.reactor = reactor;
+      this.limit = limit;
+      this.depth = depth;
+   }
+
+   /**
+    * This is used to send an exchange to the host it is addressed
+    * to. The group for the host and port is acquired, and if there
+    * is no group for the host then one is created.
+    *
+    * @param exchange this is the exchange that is to be sent
+    */
+   public void send(ClientExchange exchange) {
+      ClientRequest request = exchange.getRequest();
+      ConnectionGroup group = getGroup(request);
+
+      group.send(exchange);
+   }
+
+   /**
+    * This is used to acquire the group for the host and port the
+    * request is sent to. Secure and plain connections to the same
+    * host and port are held in different groups.
+    *
+    * @param request this is the request to acquire a group for
+    *
+    * @return this returns the group for the host of the request
+    */
+   private synchronized ConnectionGroup getGroup(ClientRequest request) {
+      String host = request.getHost();
+      String key = String.format("%s:%s:%s", host, request.getPort(), request.isSecure());
+      ConnectionGroup group = groups.get(key);
+
+      if(group == null) {
+         group = new ConnectionGroup(this, reactor, limit, depth);
+
+         if(!closed) {
+            groups.put(key, group);
+         } else {
+            group.close();
+         }
+      }
+      return group;
+   }
+
+   /**
+    * This is used to establish a connection to the host of the
+    * request. A non-blocking connect is started and the channel is
+    * registered with the reactor so that the connection is finished
+    * once it is ready. If the connect fails the connection is closed.
+    *
+    * @param connection this is the connection to be established
+    * @param request this is the request the connection is for
+    */
+   public void connect(ClientConnection connection, ClientRequest request) {
+      SocketChannel channel = null;
+      Trace trace = null;
+
+      try {
+         InetSocketAddress address = request.getAddress();
+         SSLEngine engine = getEngine(request);
+
+         channel = SocketChannel.open();
+         trace = getTrace(channel);
+         channel.configureBlocking(false);
+         channel.socket().setTcpNoDelay(true);
+         trace.trace(CONNECT, address);
+
+         if(channel.connect(address)) {
+            reactor.process(new ConnectionBuilder(processor, connection, channel, trace, engine));
+         } else {
+            reactor.process(new ConnectionBuilder(processor, connection, channel, trace, engine), OP_CONNECT);
+         }
+      } catch(Exception cause) {
+         if(trace != null) {
+            trace.trace(ERROR, cause);
+         }
+         close(channel);
+         connection.close();
+      }
+   }
+
+   /**
+    * This is used to create an SSL engine for a secure request. The
+    * engine is created with the host and port so that sessions can
+    * be resumed. If the request is not secure this returns null.
+    *
+    * @param request this is the request to create the engine for
+    *
+    * @return this returns an engine for the secure connection
+    */
+   private SSLEngine getEngine(ClientRequest request) throws Exception {
+      if(request.isSecure()) {
+         String host = request.getHost();
+         int port = request.getPort();
+
+         if(context == null) {
+            return SSLContext.getDefault().createSSLEngine(host, port);
+         }
+         return context.createSSLEngine(host, port);
+      }
+      return null;
+   }
+
+   /**
+    * This is used to create a trace for the channel. If there is no
+    * analyzer then the trace created will simply ignore events,
+    * otherwise the events are delivered to the analyzer's trace.
+    *
+    * @param channel this is the channel to acquire a trace for
+    *
+    * @return this returns the trace to use for the channel
+    */
+   private Trace getTrace(SocketChannel channel) {
+      if(analyzer != null) {
+         Trace trace = analyzer.attach(channel);
+         return new ClientTrace(trace);
+      }
+      return new ClientTrace(null);
+   }
+
+   /**
+    * This is used to close a channel that could not be connected.
+    * Any error closing the channel is ignored, as the connection
+    * will be failed regardless of whether the close succeeds.
+    *
+    * @param channel this is the channel that is to be closed
+    */
+   private void close(SocketChannel channel) {
+      try {
+         if(channel != null) {
+            channel.close();
+         }
+      } catch(Exception cause) {
+         return;
+      }
+   }
+
+   /**
+    * This is used to close all of the groups within the pool. Once
+    * closed any exchanges that are sent will fail, as will any of
+    * the exchanges that are outstanding on existing connections.
+    */
+   public void close() {
+      List<ConnectionGroup> list = new ArrayList<ConnectionGroup>();
+
+      synchronized(this) {
+         list.addAll(groups.values());
+         groups.clear();
+         closed = true;
+      }
+      for(ConnectionGroup group : list) {
+         group.close();
+      }
+   }
+}
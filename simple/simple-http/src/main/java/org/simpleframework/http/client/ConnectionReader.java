@@ -0,0 +1,106 @@
+/*
+ * ConnectionReader.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.client;
+
+import static org.simpleframework.http.client.ClientEvent.ERROR;
+
+import java.nio.channels.SocketChannel;
+
+import org.simpleframework.transport.Channel;
+import org.simpleframework.transport.reactor.Operation;
+import org.simpleframework.transport.trace.Trace;
+
+/**
+ * The <code>ConnectionReader</code> object is used to read responses
+ * from a connection when it is ready. This is registered with the
+ * reactor whenever the connection is waiting for bytes, and once
+ * executed it hands control to the connection to consume. If the
+ * operation expires before bytes arrive the connection is closed.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.client.ClientConnection
+ */
+class ConnectionReader implements Operation {
+
+   /**
+    * This is the connection that responses are read from.
+    */
+   private final ClientConnection connection;
+
+   /**
+    * Constructor for the <code>ConnectionReader</code> object. This
+    * is used to create an operation that reads from the connection
+    * provided once the reactor determines it has bytes to read.
+    *
+    * @param connection this is the connection to read from
+    */
+   public ConnectionReader(ClientConnection connection) {
+      this.connection = connection;
+   }
+
+   /**
+    * This is used to acquire the trace the connection is using. The
+    * trace is used to record events that occur on the connection
+    * such as errors that occur when reading the response.
+    *
+    * @return this returns the trace associated with the connection
+    */
+   public Trace getTrace() {
+      return connection.getChannel().getTrace();
+   }
+
+   /**
+    * This is the <code>SocketChannel</code> used to determine if the
+    * connection has some bytes that can be read. If it contains any
+    * data then that data is read from and is used to compose the
+    * response of the exchange at the head of the connection.
+    *
+    * @return this returns the socket for the connection
+    */
+   public SocketChannel getChannel() {
+      return connection.getChannel().getSocket();
+   }
+
+   /**
+    * This is used to consume the responses from the connection. If
+    * any error occurs while reading the connection is closed and
+    * any outstanding exchanges are either retried or failed.
+    */
+   public void run() {
+      try {
+         connection.collect();
+      } catch(Throwable cause) {
+         Channel channel = connection.getChannel();
+         Trace trace = channel.getTrace();
+
+         trace.trace(ERROR, cause);
+         connection.close();
+      }
+   }
+
+   /**
+    * This is used to cancel the operation if it has timed out. This
+    * is called when the connection has been idle, or waiting for a
+    * response, for longer than the expiry of the reactor.
+    */
+   public void cancel() {
+      connection.close();
+   }
+}
@@ -0,0 +1,118 @@
+/*
+ * ContentAllocator.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.client;
+
+import java.io.IOException;
+
+import org.simpleframework.common.buffer.Allocator;
+import org.simpleframework.common.buffer.Buffer;
+
+/**
+ * The <code>ContentAllocator</code> is used to deliver the content
+ * of a response to a <code>ResponseListener</code> as it is read.
+ * This is provided to the body consumers in place of a typical
+ * allocator, so that once the transfer coding has been removed
+ * each fragment is given to the listener. If an allocator is also
+ * provided the content is buffered so it can be read later.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.client.ContentBuffer
+ */
+class ContentAllocator implements Allocator {
+
+   /**
+    * This is the listener that is notified of the content.
+    */
+   private final ResponseListener listener;
+
+   /**
+    * This is the response that the content is delivered for.
+    */
+   private final ClientResponse response;
+
+   /**
+    * This is an optional allocator used to buffer the content.
+    */
+   private final Allocator allocator;
+
+   /**
+    * This is the buffer that is used to deliver the content.
+    */
+   private ContentBuffer buffer;
+
+   /**
+    * Constructor for the <code>ContentAllocator</code> object. This
+    * is used to create an allocator that delivers content to the
+    * listener. If the allocator provided is not null the content
+    * is also buffered so that it can be read once complete.
+    *
+    * @param response this is the response the content is for
+    * @param listener this is the listener to deliver content to
+    * @param allocator this is used to buffer the content if given
+    */
+   public ContentAllocator(ClientResponse response, ResponseListener listener, Allocator allocator) {
+      this.allocator = allocator;
+      this.listener = listener;
+      this.response = response;
+   }
+
+   /**
+    * This is used to acquire the buffer that has been used to
+    * deliver the content. If no content has been delivered then
+    * an empty buffer is created so that it can be read from.
+    *
+    * @return this returns the buffer used to deliver content
+    */
+   public ContentBuffer getBuffer() throws IOException {
+      return allocate();
+   }
+
+   /**
+    * This method is used to allocate a default buffer. Only a
+    * single buffer is ever created by this allocator, as all of
+    * the content for the response is delivered through it.
+    *
+    * @return this returns the buffer used to deliver content
+    */
+   public ContentBuffer allocate() throws IOException {
+      return allocate(0);
+   }
+
+   /**
+    * This method is used to allocate a default buffer. Only a
+    * single buffer is ever created by this allocator, as all of
+    * the content for the response is delivered through it.
+    *
+    * @param size this is the expected size of the content
+    *
+    * @return this returns the buffer used to deliver content
+    */
+   public ContentBuffer allocate(long size) throws IOException {
+      if(buffer == null) {
+         Buffer content = null;
+
+         if(allocator != null) {
+            content = allocator.allocate(size);
+         }
+         buffer = new ContentBuffer(response, listener, content);
+      }
+      return buffer;
+   }
+}
@@ -0,0 +1,194 @@
+/*
+ * ContentBuffer.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.simpleframework.common.buffer.Buffer;
+
+/**
+ * The <code>ContentBuffer</code> is a buffer that delivers the
+ * content appended to it to a <code>ResponseListener</code>. If a
+ * buffer is provided then the content is also appended to that
+ * buffer, so that it can be read once the response has finished.
+ * Without a buffer the content is simply passed on and dropped.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.client.ContentAllocator
+ */
+class ContentBuffer implements Buffer {
+
+   /**
+    * This is the listener that is notified of the content.
+    */
+   private final ResponseListener listener;
+
+   /**
+    * This is the response that the content is delivered for.
+    */
+   private final ClientResponse response;
+
+   /**
+    * This is an optional buffer used to retain the content.
+    */
+   private final Buffer buffer;
+
+   /**
+    * Constructor for the <code>ContentBuffer</code> object. This
+    * is used to create a buffer that delivers content to the
+    * listener. If the buffer provided is not null then the content
+    * will be retained within it so that it can be read later.
+    *
+    * @param response this is the response the content is for
+    * @param listener this is the listener to deliver content to
+    * @param buffer this is the buffer used to retain the content
+    */
+   public ContentBuffer(ClientResponse response, ResponseListener listener, Buffer buffer) {
+      this.listener = listener;
+      this.response = response;
+      this.buffer = buffer;
+   }
+
+   /**
+    * This method is used to allocate a segment of this buffer. As
+    * all content is delivered to the listener as it arrives the
+    * segments are not supported and this buffer is returned.
+    *
+    * @return this returns this buffer as segments are not used
+    */
+   public Buffer allocate() throws IOException {
+      return this;
+   }
+
+   /**
+    * This method is used to acquire the buffered bytes as a stream.
+    * If the content has not been retained then this will return
+    * an empty stream, as the listener will have read the content.
+    *
+    * @return this returns a stream to read the retained content
+    */
+   public InputStream open() throws IOException {
+      if(buffer == null) {
+         return new ByteArrayInputStream(new byte[]{});
+      }
+      return buffer.open();
+   }
+
+   /**
+    * This method is used to acquire the buffered bytes as a string.
+    * If the content has not been retained then this will return
+    * an empty string, as the listener will have read the content.
+    *
+    * @return this returns a string created from the content
+    */
+   public String encode() throws IOException {
+      return encode("ISO-8859-1");
+   }
+
+   /**
+    * This method is used to acquire the buffered bytes as a string.
+    * If the content has not been retained then this will return
+    * an empty string, as the listener will have read the content.
+    *
+    * @param charset this is the charset used to decode the bytes
+    *
+    * @return this returns a string created from the content
+    */
+   public String encode(String charset) throws IOException {
+      if(buffer == null) {
+         return "";
+      }
+      return buffer.encode(charset);
+   }
+
+   /**
+    * This method is used to deliver the provided array to the
+    * listener. If a buffer has been provided the array is also
+    * appended to that buffer so that the content is retained.
+    *
+    * @param array this is the array of bytes to be delivered
+    *
+    * @return this returns this buffer for further operations
+    */
+   public Buffer append(byte[] array) throws IOException {
+      return append(array, 0, array.length);
+   }
+
+   /**
+    * This method is used to deliver the provided array to the
+    * listener. If a buffer has been provided the array is also
+    * appended to that buffer so that the content is retained.
+    *
+    * @param array this is the array of bytes to be delivered
+    * @param off this is the offset to begin reading the bytes from
+    * @param size the number of bytes to be read from the array
+    *
+    * @return this returns this buffer for further operations
+    */
+   public Buffer append(byte[] array, int off, int size) throws IOException {
+      if(buffer != null) {
+         buffer.append(array, off, size);
+      }
+      try {
+         listener.onContent(response, array, off, size);
+      } catch(Exception cause) {
+         throw new IOException("Listener could not accept content", cause);
+      }
+      return this;
+   }
+
+   /**
+    * This will clear all data from the buffer. This simply sets the
+    * count to be zero, it will not clear the memory occupied by the
+    * instance as the internal buffer will remain.
+    */
+   public void clear() throws IOException {
+      if(buffer != null) {
+         buffer.clear();
+      }
+   }
+
+   /**
+    * This method is used to ensure the buffer can be closed. Once
+    * the buffer is closed it is an immutable collection of bytes and
+    * can not longer be modified.
+    */
+   public void close() throws IOException {
+      if(buffer != null) {
+         buffer.close();
+      }
+   }
+
+   /**
+    * This is used to provide the number of bytes that have been
+    * retained by the buffer. If content is not being retained then
+    * this will always return zero.
+    *
+    * @return this returns the number of bytes that are retained
+    */
+   public long length() {
+      if(buffer == null) {
+         return 0;
+      }
+      return buffer.length();
+   }
+}
@@ -0,0 +1,191 @@
+/*
+ * ResponseFuture.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.client;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The <code>ResponseFuture</code> is used to provide a response once
+ * it has been fully received. This acts as the listener for the
+ * exchange, and once notified that the response has completed, or
+ * that the request has failed, any thread waiting on the future is
+ * released. Cancellation is not supported.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.client.SocketClient
+ */
+class ResponseFuture implements Future<ClientResponse>, ResponseListener {
+
+   /**
+    * This is used to wait for the response to complete.
+    */
+   private final CountDownLatch latch;
+
+   /**
+    * This is the response once it has completed.
+    */
+   private volatile ClientResponse response;
+
+   /**
+    * This is the reason the request failed if it did.
+    */
+   private volatile Exception cause;
+
+   /**
+    * Constructor for the <code>ResponseFuture</code> object. This
+    * creates a future that can be waited on until the response has
+    * been received or the request has failed.
+    */
+   public ResponseFuture() {
+      this.latch = new CountDownLatch(1);
+   }
+
+   /**
+    * This is used to wait for the response to be received. If the
+    * request has failed this will throw an exception with the cause
+    * of the failure provided.
+    *
+    * @return this returns the response once it has been received
+    */
+   public ClientResponse get() throws InterruptedException, ExecutionException {
+      latch.await();
+      return getResponse();
+   }
+
+   /**
+    * This is used to wait for the response to be received. If the
+    * response is not received within the time specified then this
+    * will throw a timeout exception.
+    *
+    * @param duration this is the time to wait for the response
+    * @param unit this is the unit of time for the duration
+    *
+    * @return this returns the response once it has been received
+    */
+   public ClientResponse get(long duration, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+      if(!latch.await(duration, unit)) {
+         throw new TimeoutException("Response not received in time");
+      }
+      return getResponse();
+   }
+
+   /**
+    * This is used to acquire the response once the latch has been
+    * released. If the request failed then an execution exception
+    * is thrown with the cause of the failure.
+    *
+    * @return this returns the response that was received
+    */
+   private ClientResponse getResponse() throws ExecutionException {
+      if(cause != null) {
+         throw new ExecutionException(cause);
+      }
+      return response;
+   }
+
+   /**
+    * This is used to determine if the future has completed. The
+    * future is complete when the response has been received or
+    * when the request has failed.
+    *
+    * @return this returns true if the future has completed
+    */
+   public boolean isDone() {
+      return latch.getCount() == 0;
+   }
+
+   /**
+    * This is used to determine if the future was cancelled. As
+    * cancellation of a request is not supported this will always
+    * return false.
+    *
+    * @return this returns false as cancellation is not supported
+    */
+   public boolean isCancelled() {
+      return false;
+   }
+
+   /**
+    * This is used to cancel the future. As a request may already
+    * have been written to the connection it can not be cancelled,
+    * so this will always return false.
+    *
+    * @param interrupt determines if the thread should be interrupted
+    *
+    * @return this returns false as cancellation is not supported
+    */
+   public boolean cancel(boolean interrupt) {
+      return false;
+   }
+
+   /**
+    * This is invoked once the response header has been consumed.
+    * As the future provides the response only once it has fully
+    * completed this does nothing.
+    *
+    * @param response this is the response that has been received
+    */
+   public void onHeader(ClientResponse response) {
+      return;
+   }
+
+   /**
+    * This is invoked each time a fragment of the content has been
+    * consumed. As the content is buffered by the exchange for the
+    * future there is nothing to do with the fragment here.
+    *
+    * @param response this is the response the content belongs to
+    * @param array this is the array containing the content
+    * @param off this is the offset within the array to read from
+    * @param size this is the number of bytes provided
+    */
+   public void onContent(ClientResponse response, byte[] array, int off, int size) {
+      return;
+   }
+
+   /**
+    * This is invoked once the response has been fully consumed. It
+    * will record the response and release any threads waiting on
+    * the future so that they can read the response.
+    *
+    * @param response this is the response that has completed
+    */
+   public void onComplete(ClientResponse response) {
+      this.response = response;
+      this.latch.countDown();
+   }
+
+   /**
+    * This is invoked if the request could not be completed. It will
+    * record the cause of the failure and release any threads that
+    * are waiting on the future.
+    *
+    * @param request this is the request that has failed
+    * @param cause this is the reason the request failed
+    */
+   public void onFailure(ClientRequest request, Exception cause) {
+      this.cause = cause;
+      this.latch.countDown();
+   }
+}
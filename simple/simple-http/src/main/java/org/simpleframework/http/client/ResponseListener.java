@@ -0,0 +1,80 @@
+/*
+ * ResponseListener.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.client;
+
+/**
+ * The <code>ResponseListener</code> is used to receive a response
+ * as it is consumed from a connection. Notifications are made on
+ * the thread that reads the response, so an implementation should
+ * never block for long periods as doing so will delay other
+ * responses that are waiting to be read. A listener that hands the
+ * content on to something slower can suspend the response, so that
+ * no more is read until it resumes it.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.client.Client
+ */
+public interface ResponseListener {
+
+   /**
+    * This is invoked once the response header has been consumed.
+    * The status line and all of the headers are available from
+    * the response at this point, however none of the content has
+    * been delivered to the listener yet.
+    *
+    * @param response this is the response that has been received
+    */
+   void onHeader(ClientResponse response) throws Exception;
+
+   /**
+    * This is invoked each time a fragment of the response content
+    * has been consumed. Any transfer coding has been removed from
+    * the content, so the bytes provided are exactly those of the
+    * entity sent by the server. The array is reused once this
+    * method returns so the content must be copied if retained.
+    *
+    * @param response this is the response the content belongs to
+    * @param array this is the array containing the content
+    * @param off this is the offset within the array to read from
+    * @param size this is the number of bytes provided
+    */
+   void onContent(ClientResponse response, byte[] array, int off, int size) throws Exception;
+
+   /**
+    * This is invoked once the response has been fully consumed. No
+    * further notifications will be made for the response after
+    * this. If the response was buffered its content is available
+    * from the response once this has been invoked.
+    *
+    * @param response this is the response that has completed
+    */
+   void onComplete(ClientResponse response);
+
+   /**
+    * This is invoked if the request could not be completed. This
+    * could be because a connection could not be established, or
+    * because the connection was closed or timed out before the
+    * full response could be read.
+    *
+    * @param request this is the request that has failed
+    * @param cause this is the reason the request failed
+    */
+   void onFailure(ClientRequest request, Exception cause);
+}
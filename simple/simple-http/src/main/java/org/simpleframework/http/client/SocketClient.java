@@ -0,0 +1,254 @@
+/*
+ * SocketClient.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.client;
+
+import java.io.IOException;
+import java.util.concurrent.Future;
+
+import javax.net.ssl.SSLContext;
+
+import org.simpleframework.common.buffer.Allocator;
+import org.simpleframework.common.buffer.SpoolAllocator;
+import org.simpleframework.common.thread.ConcurrentExecutor;
+import org.simpleframework.transport.SocketProcessor;
+import org.simpleframework.transport.TransportProcessor;
+import org.simpleframework.transport.TransportSocketProcessor;
+import org.simpleframework.transport.reactor.ExecutorReactor;
+import org.simpleframework.transport.reactor.Reactor;
+import org.simpleframework.transport.trace.TraceAnalyzer;
+
+/**
+ * The <code>SocketClient</code> is an asynchronous HTTP/1.1 client
+ * built on the same reactor and transport as the server. Requests
+ * are sent on persistent connections which are pooled for each host,
+ * and responses are read only when bytes are available, so a small
+ * number of threads can serve a large number of requests. Requests
+ * to a host that has reached its connection limit wait for an idle
+ * connection, unless they can be pipelined.
+ * <pre>
+ *
+ *    Client client = new SocketClient();
+ *    ClientRequest request = new ClientRequest("GET", "http://host/");
+ *    ClientResponse response = client.send(request).get();
+ *
+ * </pre>
+ * Connections that remain idle, or that wait for a response, for
+ * longer than the expiry are closed. This is the same mechanism the
+ * server uses to close idle connections.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.client.ClientRequest
+ */
+public class SocketClient implements Client {
+
+   /**
+    * This is the executor used to read responses from connections.
+    */
+   private final ConcurrentExecutor executor;
+
+   /**
+    * This is used to create transports for new connections.
+    */
+   private final SocketProcessor processor;
+
+   /**
+    * This contains the connections for each host and port.
+    */
+   private final ConnectionPool pool;
+
+   /**
+    * This is used to allocate buffers for response content.
+    */
+   private final Allocator allocator;
+
+   /**
+    * This is the reactor used to connect and to read responses.
+    */
+   private final Reactor reactor;
+
+   /**
+    * Constructor for the <code>SocketClient</code> object. This is
+    * used to create a client with the default settings. Responses
+    * are buffered in memory, and are written to spool files if
+    * they are larger than the memory limit of the allocator.
+    */
+   public SocketClient() throws IOException {
+      this(new SpoolAllocator());
+   }
+
+   /**
+    * Constructor for the <code>SocketClient</code> object. This is
+    * used to create a client that buffers the content of responses
+    * using the allocator provided. Secure connections are created
+    * using the default SSL context.
+    *
+    * @param allocator this is used to buffer response content
+    */
+   public SocketClient(Allocator allocator) throws IOException {
+      this(allocator, null);
+   }
+
+   /**
+    * Constructor for the <code>SocketClient</code> object. This is
+    * used to create a client that buffers the content of responses
+    * using the allocator provided. Secure connections are created
+    * using the SSL context provided.
+    *
+    * @param allocator this is used to buffer response content
+    * @param context this is used to create secure connections
+    */
+   public SocketClient(Allocator allocator, SSLContext context) throws IOException {
+      this(allocator, context, 8);
+   }
+
+   /**
+    * Constructor for the <code>SocketClient</code> object. This is
+    * used to create a client that limits the number of connections
+    * that are opened to each host.
+    *
+    * @param allocator this is used to buffer response content
+    * @param context this is used to create secure connections
+    * @param limit this is the maximum connections to each host
+    */
+   public SocketClient(Allocator allocator, SSLContext context, int limit) throws IOException {
+      this(allocator, context, limit, 4);
+   }
+
+   /**
+    * Constructor for the <code>SocketClient</code> object. This is
+    * used to create a client that limits the number of connections
+    * that are opened to each host, and that limits the number of
+    * GET and HEAD requests pipelined on each connection.
+    *
+    * @param allocator this is used to buffer response content
+    * @param context this is used to create secure connections
+    * @param limit this is the maximum connections to each host
+    * @param depth this is the maximum number of pipelined requests
+    */
+   public SocketClient(Allocator allocator, SSLContext context, int limit, int depth) throws IOException {
+      this(allocator, context, limit, depth, 120000);
+   }
+
+   /**
+    * Constructor for the <code>SocketClient</code> object. This is
+    * used to create a client that closes connections that have been
+    * idle, or waiting for a response, for longer than the expiry.
+    *
+    * @param allocator this is used to buffer response content
+    * @param context this is used to create secure connections
+    * @param limit this is the maximum connections to each host
+    * @param depth this is the maximum number of pipelined requests
+    * @param expiry this is the time a connection may wait for bytes
+    */
+   public SocketClient(Allocator allocator, SSLContext context, int limit, int depth, long expiry) throws IOException {
+      this(allocator, context, limit, depth, expiry, 8);
+   }
+
+   /**
+    * Constructor for the <code>SocketClient</code> object. This is
+    * used to create a client that uses the specified number of
+    * threads to read responses and to process transports.
+    *
+    * @param allocator this is used to buffer response content
+    * @param context this is used to create secure connections
+    * @param limit this is the maximum connections to each host
+    * @param depth this is the maximum number of pipelined requests
+    * @param expiry this is the time a connection may wait for bytes
+    * @param threads this is the number of threads to read with
+    */
+   public SocketClient(Allocator allocator, SSLContext context, int limit, int depth, long expiry, int threads) throws IOException {
+      this(allocator, context, limit, depth, expiry, threads, null);
+   }
+
+   /**
+    * Constructor for the <code>SocketClient</code> object. This is
+    * used to create a client that uses the specified number of
+    * threads to read responses and to process transports. Events
+    * on each connection are reported to the analyzer provided.
+    *
+    * @param allocator this is used to buffer response content
+    * @param context this is used to create secure connections
+    * @param limit this is the maximum connections to each host
+    * @param depth this is the maximum number of pipelined requests
+    * @param expiry this is the time a connection may wait for bytes
+    * @param threads this is the number of threads to read with
+    * @param analyzer this is used to trace the connections
+    */
+   public SocketClient(Allocator allocator, SSLContext context, int limit, int depth, long expiry, int threads, TraceAnalyzer analyzer) throws IOException {
+      TransportProcessor starter = new ClientTransportProcessor();
+
+      this.executor = new ConcurrentExecutor(ConnectionReader.class, threads);
+      this.reactor = new ExecutorReactor(executor, 1, expiry);
+      this.processor = new TransportSocketProcessor(starter, threads, 4096, 20480, true);
+      this.pool = new ConnectionPool(processor, reactor, analyzer, context, limit, depth);
+      this.allocator = allocator;
+   }
+
+   /**
+    * This is used to send a request to the host it is addressed to.
+    * The response is buffered in full before the future completes,
+    * so this is suited to responses that are of a modest size. If
+    * the request could not be completed the future will report an
+    * execution exception with the cause of the failure.
+    *
+    * @param request this is the request that is to be sent
+    *
+    * @return this returns a future that provides the response
+    */
+   public Future<ClientResponse> send(ClientRequest request) throws IOException {
+      ResponseFuture future = new ResponseFuture();
+      ClientExchange exchange = new ClientExchange(request, future, allocator);
+
+      pool.send(exchange);
+      return future;
+   }
+
+   /**
+    * This is used to send a request to the host it is addressed to.
+    * Rather than buffering the response the listener is notified
+    * of the header once it has arrived, and is then given each
+    * fragment of content as it is read from the connection.
+    *
+    * @param request this is the request that is to be sent
+    * @param listener this is notified as the response arrives
+    */
+   public void send(ClientRequest request, ResponseListener listener) throws IOException {
+      ClientExchange exchange = new ClientExchange(request, listener, null);
+
+      pool.send(exchange);
+   }
+
+   /**
+    * This is used to close the client and all of the connections
+    * that it holds. Any requests that have not been completed will
+    * fail once the client is closed. This also stops all of the
+    * threads used to read responses and establish connections.
+    */
+   public void close() throws IOException {
+      try {
+         pool.close();
+         processor.stop();
+         reactor.stop();
+         executor.stop();
+      } catch(Exception cause) {
+         throw new IOException("Error closing client", cause);
+      }
+   }
+}
@@ -0,0 +1,162 @@
+/*
+ * BlockingContainer.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.core;
+
+import java.util.concurrent.Executor;
+
+import org.simpleframework.common.thread.ConcurrentExecutor;
+import org.simpleframework.http.Request;
+import org.simpleframework.http.Response;
+import org.simpleframework.http.Status;
+
+/**
+ * The <code>BlockingContainer</code> is used to hand requests to a 
+ * separate thread pool before they are serviced. This is intended
+ * for use with the <code>PartitionSocketProcessor</code>, where the
+ * container is invoked by the worker that owns the connection. Any
+ * container that performs blocking operations, such as database 
+ * queries or file access, should be wrapped so that it does not
+ * stall the other connections within the same partition.
+ * <pre>
+ * 
+ *    Container container = new BlockingContainer(database, 20);
+ *    SocketProcessor server = new PartitionSocketProcessor(container);
+ * 
+ * </pre>
+ * As the response is completed by the thread pool the partition is
+ * free to service other connections while the request is blocked.
+ * 
+ * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.http.core.PartitionSocketProcessor
+ */
+public class BlockingContainer implements Container {
+   
+   /**
+    * This is the executor used to run the blocking container.
+    */
+   private final Executor executor;
+   
+   /**
+    * This is the container that is to be executed in the pool.
+    */
+   private final Container container;
+   
+   /**
+    * Constructor for the <code>BlockingContainer</code> object. This
+    * will create a thread pool with the specified number of threads
+    * which is used to service requests with the container provided.
+    * 
+    * @param container this is the container that may block
+    * @param count this is the number of threads to be used
+    */
+   public BlockingContainer(Container container, int count) {
+      this(container, new ConcurrentExecutor(BlockingContainer.class, count));
+   }
+   
+   /**
+    * Constructor for the <code>BlockingContainer</code> object. This
+    * will use the provided executor to service requests with the 
+    * container. This allows a thread pool to be shared by several
+    * containers that may block.
+    * 
+    * @param container this is the container that may block
+    * @param executor this is the executor used to run the container
+    */
+   public BlockingContainer(Container container, Executor executor) {
+      this.container = container;
+      this.executor = executor;
+   }
+   
+   /**
+    * This is used to hand the request and response to the executor
+    * so that the container can service them on a separate thread. 
+    * If the executor rejects the request then the response is sent
+    * with a 503 status so that the client is not left waiting.
+    * 
+    * @param request this is the request to be serviced
+    * @param response this is the response to the request
+    */
+   public void handle(Request request, Response response) {
+      Runnable task = new BlockingTask(request, response);
+      
+      try {
+         executor.execute(task);
+      } catch(Exception cause) {
+         reject(response);
+      }
+   }
+   
+   /**
+    * This is used to respond to a request that could not be handed
+    * to the executor. Typically this will occur only if the executor
+    * has been stopped or if its queue has been exhausted.
+    * 
+    * @param response this is the response to the request
+    */
+   private void reject(Response response) {
+      try {
+         response.setStatus(Status.SERVICE_UNAVAILABLE);
+         response.setContentLength(0);
+         response.close();
+      } catch(Exception cause) {
+         return;
+      }
+   }
+   
+   /**
+    * The <code>BlockingTask</code> is used to service a request in
+    * the thread pool. It simply invokes the container with the 
+    * request and response when it is executed.
+    */
+   private class BlockingTask implements Runnable {
+      
+      /**
+       * This is the response to the request being serviced.
+       */
+      private final Response response;
+      
+      /**
+       * This is the request that is to be serviced.
+       */
+      private final Request request;
+      
+      /**
+       * Constructor for the <code>BlockingTask</code> object. This
+       * will hold the request and response until a thread from the
+       * pool is available to service them.
+       * 
+       * @param request this is the request to be serviced
+       * @param response this is the response to the request
+       */
+      public BlockingTask(Request request, Response response) {
+         this.response = response;
+         this.request = request;
+      }
+      
+      /**
+       * This is used to service the request with the container. It
+       * executes within the thread pool so that the partition that
+       * collected the request is free to continue.
+       */
+      public void run() {
+         container.handle(request, response);
+      }
+   }
+}
@@ -20,6 +20,7 @@ package org.simpleframework.http.core;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 /**
  * The <code>BodyEncoder</code> object is used to encode content from
@@ -88,6 +89,18 @@ interface BodyEncoder {
     */          
    void encode(ByteBuffer buffer, int off, int size) throws IOException;
    
+   /**
+    * This method is used to encode a region of a file and send it to
+    * the client. Where the encoding leaves the bytes of the body as
+    * they are the region is handed to the transport as a file, which
+    * allows it to be sent without the server copying the bytes. 
+    *
+    * @param file this is the file containing the region to send
+    * @param position this is the position within the file to send from
+    * @param length this is the number of bytes that are to be sent
+    */
+   void encode(FileChannel file, long position, long length) throws IOException;
+   
    /**
     * This method is used to flush the contents of the buffer to 
     * the client. This method will block until such time as all of
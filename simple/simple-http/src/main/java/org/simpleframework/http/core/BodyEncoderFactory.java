@@ -18,6 +18,8 @@
 
 package org.simpleframework.http.core;
 
+import org.simpleframework.http.RequestHeader;
+import org.simpleframework.http.ResponseHeader;
 import org.simpleframework.transport.Channel;
 import org.simpleframework.transport.ByteWriter;
 
@@ -88,6 +90,31 @@ class BodyEncoderFactory {
       return getInstance(chunkable);
    }
    
+   /**
+    * This is used to create an a <code>BodyEncoder</code> object 
+    * that can be used to encode content according to the HTTP header.
+    * If a content coding is given then the content is compressed
+    * before it is given to the encoder for the transfer coding, at
+    * the level the policy determines for the response.
+    *
+    * @param coding this is the content coding to compress with
+    *
+    * @return this returns the producer used to send the response
+    */  
+   public BodyEncoder getInstance(String coding) {
+      BodyEncoder encoder = getInstance();
+      
+      if(coding != null) {
+         CompressionPolicy policy = support.getPolicy();
+         RequestHeader request = support.getRequest();
+         ResponseHeader response = support.getResponse();
+         int level = policy.getLevel(request, response);
+         
+         return new CompressEncoder(policy, encoder, coding, level);
+      }
+      return encoder;
+   }
+   
    /**
     * This is used to create an a <code>BodyEncoder</code> object 
     * that can be used to encode content according to the HTTP header.
@@ -0,0 +1,142 @@
+/*
+ * BufferPool.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.core;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The <code>BufferPool</code> is used to hold the arrays that each
+ * response body is buffered in by default. Rather than allocating an
+ * array for every response, an array of the threshold size is taken
+ * from the pool when the body is first written and returned to it
+ * once the response has been closed. A body that fits within the
+ * threshold can then be sent with an exact Content-Length, while a
+ * larger body overflows the array and is streamed.
+ * <p>
+ * Only arrays of the threshold size are kept, and only up to the 
+ * limit of the pool, so a burst of concurrent responses does not 
+ * hold on to memory once it has passed.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.core.ResponseBuffer
+ */
+public class BufferPool {
+
+   /**
+    * This contains the arrays that are free to buffer a response.
+    */
+   private final Queue<byte[]> pool;
+
+   /**
+    * This is the number of arrays that are held within the pool.
+    */
+   private final AtomicInteger count;
+
+   /**
+    * This is the maximum number of arrays that the pool will hold.
+    */
+   private final int limit;
+
+   /**
+    * This is the size of each of the arrays held within the pool.
+    */
+   private final int size;
+
+   /**
+    * Constructor for the <code>BufferPool</code> object. This creates
+    * a pool that will buffer up to eight kilobytes of each response,
+    * which is enough for most generated pages and small resources.
+    */
+   public BufferPool() {
+      this(8192);
+   }
+
+   /**
+    * Constructor for the <code>BufferPool</code> object. This creates
+    * a pool of arrays of the specified size. Any response body that
+    * does not exceed this size is sent with a Content-Length.
+    *
+    * @param size this is the threshold for buffering a response
+    */
+   public BufferPool(int size) {
+      this(size, 256);
+   }
+
+   /**
+    * Constructor for the <code>BufferPool</code> object. This creates
+    * a pool of arrays of the specified size, which will hold no more
+    * than the given number of free arrays at any one time.
+    *
+    * @param size this is the threshold for buffering a response
+    * @param limit this is the maximum number of free arrays held
+    */
+   public BufferPool(int size, int limit) {
+      this.pool = new ConcurrentLinkedQueue<byte[]>();
+      this.count = new AtomicInteger();
+      this.limit = limit;
+      this.size = size;
+   }
+
+   /**
+    * This returns the size of the arrays provided by the pool. This
+    * is the number of bytes of a response body that are buffered 
+    * before the response is committed and the body is streamed.
+    *
+    * @return this returns the size of the arrays in the pool
+    */
+   public int getSize() {
+      return size;
+   }
+
+   /**
+    * This is used to acquire an array to buffer a response body in.
+    * If there is no free array within the pool a new one is created.
+    *
+    * @return this returns an array of the threshold size
+    */
+   public byte[] acquire() {
+      byte[] array = pool.poll();
+
+      if(array != null) {
+         count.decrementAndGet();
+         return array;
+      }
+      return new byte[size];
+   }
+
+   /**
+    * This is used to return an array to the pool. Arrays that are
+    * not of the threshold size, such as those expanded for a larger
+    * buffer, are dropped, as are any beyond the limit of the pool.
+    *
+    * @param array this is the array that is to be returned
+    */
+   public void recycle(byte[] array) {
+      if(array.length == size && size > 0) {
+         if(count.incrementAndGet() <= limit) {
+            pool.offer(array);
+         } else {
+            count.decrementAndGet();
+         }
+      }
+   }
+}
@@ -20,6 +20,7 @@ package org.simpleframework.http.core;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import org.simpleframework.transport.ByteWriter;
 
@@ -166,6 +167,43 @@ class ChunkedEncoder implements BodyEncoder {
       }
    }
 
+   /**
+    * This method is used to send a region of a file as chunks. Each
+    * chunk header and trailer is written as bytes, with the region of
+    * the file handed to the transport between them, so the content of
+    * the chunk can be sent directly from the file.
+    *
+    * @param file this is the file containing the region to send
+    * @param position this is the position within the file to send from
+    * @param length this is the number of bytes that are to be sent
+    */
+   public void encode(FileChannel file, long position, long length) throws IOException {
+      long limit = position + length;
+
+      if(observer.isClosed()) {
+         throw new BodyEncoderException("Stream has been closed");
+      }
+      while(position < limit) {
+         int len = (int)Math.min(limit - position, Integer.MAX_VALUE);
+         int pos = 7;
+
+         for(int num = len; num > 0; num >>>= 4){      
+            size[pos--] = index[num & 0xf];
+         }
+         try {
+            writer.write(size, pos + 1, 9 - pos);      
+            writer.write(file, position, len);
+            writer.write(size, 8, 2);
+         } catch(Exception cause) {
+            if(writer != null) {
+               observer.error(writer);
+            }
+            throw new BodyEncoderException("Error sending response", cause);
+         }
+         position += len;
+      }
+   }
+
    /**
     * This method is used to flush the contents of the buffer to 
     * the client. This method will block until such time as all of
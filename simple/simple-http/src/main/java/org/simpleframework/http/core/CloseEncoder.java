@@ -20,6 +20,7 @@ package org.simpleframework.http.core;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import org.simpleframework.transport.ByteWriter;
 
@@ -138,6 +139,29 @@ class CloseEncoder implements BodyEncoder {
       }
    }
    
+   /**
+    * This method is used to send a region of a file to the client. As
+    * the body is delimited by the connection closing, the region is 
+    * handed to the transport as it is, to be sent from the file.
+    *
+    * @param file this is the file containing the region to send
+    * @param position this is the position within the file to send from
+    * @param length this is the number of bytes that are to be sent
+    */
+   public void encode(FileChannel file, long position, long length) throws IOException {
+      if(observer.isClosed()) {
+         throw new BodyEncoderException("Stream has been closed");
+      }
+      try {
+         writer.write(file, position, length);
+      } catch(Exception cause) {
+         if(writer != null) {
+            observer.error(writer);
+         }
+         throw new BodyEncoderException("Error sending response", cause);
+      }
+   }
+   
    /**
     * This method is used to flush the contents of the buffer to 
     * the client. This method will block until such time as all of
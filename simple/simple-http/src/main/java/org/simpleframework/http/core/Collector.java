@@ -29,7 +29,8 @@ import org.simpleframework.http.message.Entity;
  * of the data is consumed and the entity is created and then it
  * is sent to the <code>Controller</code> object for processing. 
  * If the request has completed the next request can be collected
- * from the underlying transport using a new collector object.  
+ * from the underlying transport using the next collector, which is 
+ * typically one that has been reset so that its buffers are reused.
  * 
  * @author Niall Gallagher
  */
@@ -47,4 +48,42 @@ interface Collector extends Entity {
     * @param controller this is the controller used to queue this
     */
    void collect(Controller controller) throws IOException;
+   
+   /**
+    * This is used to release any memory that has been charged to a
+    * budget while collecting the entity, along with any buffers that
+    * were taken from a pool. This is invoked both once the response 
+    * has completed and once the container has returned, and memory
+    * is only released when both have done so, as the container may
+    * still read the content after it has closed the response.
+    */
+   void release() throws IOException;
+   
+   /**
+    * This is used to signal that the response or a streamed body has
+    * completed. If the body was streamed to the container both must
+    * complete before the next request can be read, as the rest of
+    * the body must first be read from the transport.
+    * 
+    * @return this returns true if the next request can be read
+    */
+   boolean complete() throws IOException;
+   
+   /**
+    * This is used to signal that one of the parties referencing the
+    * collector has finished with it. Both the dispatcher and the
+    * response must finish before the collector can be reused for a
+    * later request on the same connection.
+    */
+   void finish();
+   
+   /**
+    * This is used to acquire a collector for the next request on the
+    * connection. If a collector that has been finished with by both
+    * its dispatcher and its response is available it is reset and
+    * returned, otherwise a new collector is created.
+    * 
+    * @return this returns a collector for the next request
+    */
+   Collector next() throws IOException;
 }
\ No newline at end of file
@@ -0,0 +1,355 @@
+/*
+ * CompressEncoder.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+
+package org.simpleframework.http.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * The <code>CompressEncoder</code> is used to compress the body of a
+ * response before it is given to the transfer encoder. This sits
+ * beneath the transfer coding, so the compressed bytes are chunked or
+ * delimited by the connection close just as the original bytes would
+ * have been. Both the <code>gzip</code> and <code>deflate</code> codings
+ * are produced, the former by writing the gzip header and trailer
+ * around a raw deflate stream.
+ * <p>
+ * Compressed bytes are gathered in to a chunk which is only written
+ * once it is full, so the transfer encoder is not given many small
+ * fragments. A flush of the body performs a sync flush of the
+ * compressor and writes the chunk, so that everything written so far
+ * can be decoded by the client. This ensures that streamed responses
+ * are not held back waiting for the compressor to fill.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.core.CompressionPolicy
+ */
+class CompressEncoder implements BodyEncoder {
+
+   /**
+    * This is the header written at the start of a gzip stream.
+    */
+   private static final byte[] HEADER = { 0x1f, (byte)0x8b, 8, 0, 0, 0, 0, 0, 0, 0 };
+
+   /**
+    * This is the policy the compressor is acquired from.
+    */
+   private final CompressionPolicy policy;
+
+   /**
+    * This is the transfer encoder the compressed bytes go to.
+    */
+   private final BodyEncoder encoder;
+
+   /**
+    * This is the compressor used to compress the response body.
+    */
+   private final Deflater deflater;
+
+   /**
+    * This is used to produce the checksum for the gzip trailer.
+    */
+   private final CRC32 checksum;
+
+   /**
+    * This is used to hold the bytes produced by the compressor.
+    */
+   private final byte[] chunk;
+
+   /**
+    * This determines if the gzip header and trailer are written.
+    */
+   private final boolean gzip;
+
+   /**
+    * This is the number of bytes held within the chunk.
+    */
+   private int mark;
+
+   /**
+    * This is the number of bytes given to be compressed.
+    */
+   private long input;
+
+   /**
+    * This is the number of bytes that have been produced.
+    */
+   private long output;
+
+   /**
+    * This is true once the start of the stream has been written.
+    */
+   private boolean started;
+
+   /**
+    * This is true once the compressed stream has been finished.
+    */
+   private boolean closed;
+
+   /**
+    * Constructor for the <code>CompressEncoder</code> object. This is
+    * used to create an encoder that compresses the body using the
+    * named coding and passes the result to the transfer encoder.
+    *
+    * @param policy this is the policy to acquire a compressor from
+    * @param encoder this is the transfer encoder to write to
+    * @param coding this is the content coding to be produced
+    * @param level this is the level the body is compressed at
+    */
+   public CompressEncoder(CompressionPolicy policy, BodyEncoder encoder, String coding, int level) {
+      this.gzip = coding.equals("gzip");
+      this.deflater = policy.acquire(level, gzip);
+      this.checksum = new CRC32();
+      this.chunk = new byte[8192];
+      this.encoder = encoder;
+      this.policy = policy;
+   }
+
+   /**
+    * This method is used to compress the provided array of bytes and
+    * pass the compressed bytes to the transfer encoder. Compressed
+    * bytes are only produced once the compressor has enough input.
+    *
+    * @param array this is the array of bytes to send to the client
+    */
+   public void encode(byte[] array) throws IOException {
+      encode(array, 0, array.length);
+   }
+
+   /**
+    * This method is used to compress the provided array of bytes and
+    * pass the compressed bytes to the transfer encoder. Compressed
+    * bytes are only produced once the compressor has enough input.
+    *
+    * @param array this is the array of bytes to send to the client
+    * @param off this is the offset within the array to send from
+    * @param size this is the number of bytes that are to be sent
+    */
+   public void encode(byte[] array, int off, int size) throws IOException {
+      if(closed) {
+         throw new BodyEncoderException("Stream has been closed");
+      }
+      if(size > 0) {
+         start();
+         checksum.update(array, off, size);
+         deflater.setInput(array, off, size);
+
+         while(!deflater.needsInput()) {
+            deflate(Deflater.NO_FLUSH);
+         }
+         input += size;
+      }
+   }
+
+   /**
+    * This method is used to compress the provided buffer of bytes and
+    * pass the compressed bytes to the transfer encoder. The bytes are
+    * read from the buffer directly if it is backed by an array.
+    *
+    * @param buffer this is the buffer of bytes to send to the client
+    */
+   public void encode(ByteBuffer buffer) throws IOException {
+      int mark = buffer.position();
+      int size = buffer.limit();
+
+      if(mark > size) {
+         throw new BodyEncoderException("Buffer position greater than limit");
+      }
+      encode(buffer, 0, size - mark);
+   }
+
+   /**
+    * This method is used to compress the provided buffer of bytes and
+    * pass the compressed bytes to the transfer encoder. The bytes are
+    * read from the current position of the buffer, which is advanced
+    * past the bytes that have been compressed.
+    *
+    * @param buffer this is the buffer of bytes to send to the client
+    * @param off this is the offset within the buffer to send from
+    * @param size this is the number of bytes that are to be sent
+    */
+   public void encode(ByteBuffer buffer, int off, int size) throws IOException {
+      int mark = buffer.position();
+
+      if(buffer.hasArray()) {
+         byte[] array = buffer.array();
+         int start = buffer.arrayOffset() + mark;
+
+         encode(array, start, size);
+         buffer.position(mark + size);
+      } else {
+         byte[] array = new byte[Math.min(size, 8192)];
+
+         while(size > 0) {
+            int count = Math.min(size, array.length);
+
+            buffer.get(array, 0, count);
+            encode(array, 0, count);
+            size -= count;
+         }
+      }
+   }
+
+   /**
+    * This method is used to compress a region of a file. The bytes
+    * must pass through the compressor, so the region can not be sent
+    * from the file directly. Instead it is read in to an array a piece
+    * at a time, and each piece is compressed as it is read.
+    *
+    * @param file this is the file containing the region to send
+    * @param position this is the position within the file to send from
+    * @param length this is the number of bytes that are to be sent
+    */
+   public void encode(FileChannel file, long position, long length) throws IOException {
+      ByteBuffer buffer = ByteBuffer.allocate((int)Math.min(length, 8192));
+      long limit = position + length;
+
+      while(position < limit) {
+         int size = (int)Math.min(limit - position, buffer.capacity());
+
+         buffer.clear();
+         buffer.limit(size);
+
+         while(buffer.hasRemaining()) {
+            if(file.read(buffer, position + buffer.position()) < 0) {
+               throw new BodyEncoderException("Region exceeds the length of the file");
+            }
+         }
+         encode(buffer.array(), 0, size);
+         position += size;
+      }
+   }
+
+   /**
+    * This is used to flush the compressed bytes to the client. The
+    * compressor performs a sync flush so that every byte encoded so
+    * far can be decoded, before the transfer encoder is flushed.
+    */
+   public void flush() throws IOException {
+      if(!closed) {
+         if(started) {
+            deflate(Deflater.SYNC_FLUSH);
+            write();
+         }
+         encoder.flush();
+      }
+   }
+
+   /**
+    * This is used to finish the compressed stream. Any remaining bytes
+    * held by the compressor are written along with the gzip trailer,
+    * after which the compressor is returned to the pool and the number
+    * of bytes compressed is recorded with the policy.
+    */
+   public void close() throws IOException {
+      if(!closed) {
+         start();
+         deflater.finish();
+
+         while(!deflater.finished()) {
+            deflate(Deflater.NO_FLUSH);
+         }
+         if(gzip) {
+            finish();
+         }
+         write();
+         policy.record(input, output);
+         policy.recycle(deflater, gzip);
+         closed = true;
+         encoder.close();
+      }
+   }
+
+   /**
+    * This is used to begin the compressed stream. For a 
+    * <code>deflate</code> coding the compressor writes its own header
+    * so only the <code>gzip</code> coding requires a header here. It
+    * is placed at the start of the chunk ahead of compressed bytes.
+    */
+   private void start() {
+      if(!started) {
+         if(gzip) {
+            System.arraycopy(HEADER, 0, chunk, 0, HEADER.length);
+            mark = HEADER.length;
+         }
+         started = true;
+      }
+   }
+
+   /**
+    * This is used to write the gzip trailer. The trailer contains the
+    * checksum of the bytes compressed and the number of bytes, both
+    * written as little endian integers.
+    */
+   private void finish() throws IOException {
+      long value = checksum.getValue();
+      byte[] trailer = new byte[8];
+
+      for(int i = 0; i < 4; i++) {
+         trailer[i] = (byte)(value >>> (i * 8));
+         trailer[i + 4] = (byte)(input >>> (i * 8));
+      }
+      if(chunk.length - mark < trailer.length) {
+         write();
+      }
+      System.arraycopy(trailer, 0, chunk, mark, trailer.length);
+      mark += trailer.length;
+   }
+
+   /**
+    * This is used to take the bytes produced by the compressor and
+    * gather them in to the chunk. Each time the chunk is filled it is
+    * written to the transfer encoder. The compressor is drained until
+    * it can not fill the space that remains, which means it has no
+    * more to provide for the given flush mode.
+    *
+    * @param mode this is the flush mode the compressor is to use
+    */
+   private void deflate(int mode) throws IOException {
+      while(true) {
+         int space = chunk.length - mark;
+         int count = deflater.deflate(chunk, mark, space, mode);
+
+         mark += count;
+
+         if(count < space) {
+            break;
+         }
+         write();
+      }
+   }
+
+   /**
+    * This is used to write the chunk to the transfer encoder. All of
+    * the bytes written are counted so that the size of the compressed
+    * body can be recorded with the policy once it is finished.
+    */
+   private void write() throws IOException {
+      if(mark > 0) {
+         encoder.encode(chunk, 0, mark);
+         output += mark;
+         mark = 0;
+      }
+   }
+}
@@ -0,0 +1,364 @@
+/*
+ * CompressionPolicy.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+
+package org.simpleframework.http.core;
+
+import static org.simpleframework.http.Protocol.ACCEPT_ENCODING;
+import static org.simpleframework.http.Protocol.CONTENT_ENCODING;
+import static org.simpleframework.http.Protocol.CONTENT_RANGE;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+import org.simpleframework.http.ContentType;
+import org.simpleframework.http.RequestHeader;
+import org.simpleframework.http.ResponseHeader;
+
+/**
+ * The <code>CompressionPolicy</code> is used to decide whether the body
+ * of a response is compressed before it is sent. The content coding is
+ * negotiated from the <code>Accept-Encoding</code> header of the request,
+ * with <code>gzip</code> preferred over <code>deflate</code> when both
+ * have the same quality. Only responses with a content type within the
+ * allow list, and with a body of at least the minimum size, are sent
+ * compressed, as compressing small bodies or media that is already
+ * compressed costs time and saves nothing.
+ * <p>
+ * The compression level can be tuned for each response by overriding
+ * the <code>getLevel</code> method, which is given both the request and
+ * the response. The number of bytes given to the compressor and the
+ * number of bytes it produced are recorded, so the ratio achieved can
+ * be monitored. Compressors are pooled, as each holds native memory 
+ * that is expensive to allocate for every response.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.core.CompressEncoder
+ */
+public class CompressionPolicy {
+
+   /**
+    * These are the content types that are compressed by default.
+    */
+   private static final String[] TYPES = {
+   "text/*",
+   "application/json",
+   "application/javascript",
+   "application/xml",
+   "application/xhtml+xml",
+   "image/svg+xml" };
+
+   /**
+    * This is the maximum number of compressors held in each pool.
+    */
+   private static final int LIMIT = 64;
+
+   /**
+    * This contains the compressors that produce a raw stream.
+    */
+   private final Queue<Deflater> raw;
+
+   /**
+    * This contains the compressors that produce a zlib stream.
+    */
+   private final Queue<Deflater> wrapped;
+
+   /**
+    * This is the number of compressors that have been pooled.
+    */
+   private final AtomicInteger count;
+
+   /**
+    * This is the number of bytes given to be compressed.
+    */
+   private final AtomicLong input;
+
+   /**
+    * This is the number of bytes produced by compression.
+    */
+   private final AtomicLong output;
+
+   /**
+    * These are the content types that are to be compressed.
+    */
+   private final String[] types;
+
+   /**
+    * This is the smallest body that is to be compressed.
+    */
+   private final int minimum;
+
+   /**
+    * This is the default level used to compress a response.
+    */
+   private final int level;
+
+   /**
+    * Constructor for the <code>CompressionPolicy</code> object. This
+    * creates a policy that compresses text and structured data types
+    * of at least one kilobyte with the default compression level.
+    */
+   public CompressionPolicy() {
+      this(Deflater.DEFAULT_COMPRESSION);
+   }
+
+   /**
+    * Constructor for the <code>CompressionPolicy</code> object. This
+    * creates a policy that compresses text and structured data types
+    * of at least one kilobyte with the specified compression level.
+    *
+    * @param level this is the level from zero to nine to compress at
+    */
+   public CompressionPolicy(int level) {
+      this(level, 1024);
+   }
+
+   /**
+    * Constructor for the <code>CompressionPolicy</code> object. This
+    * creates a policy that compresses text and structured data types
+    * with the specified compression level and minimum size.
+    *
+    * @param level this is the level from zero to nine to compress at
+    * @param minimum this is the smallest body to be compressed
+    */
+   public CompressionPolicy(int level, int minimum) {
+      this(level, minimum, TYPES);
+   }
+
+   /**
+    * Constructor for the <code>CompressionPolicy</code> object. This
+    * creates a policy that compresses the specified content types. A
+    * type such as <code>text/*</code> matches any text subtype.
+    *
+    * @param level this is the level from zero to nine to compress at
+    * @param minimum this is the smallest body to be compressed
+    * @param types these are the content types to be compressed
+    */
+   public CompressionPolicy(int level, int minimum, String... types) {
+      this.wrapped = new ConcurrentLinkedQueue<Deflater>();
+      this.raw = new ConcurrentLinkedQueue<Deflater>();
+      this.count = new AtomicInteger();
+      this.output = new AtomicLong();
+      this.input = new AtomicLong();
+      this.minimum = minimum;
+      this.types = types;
+      this.level = level;
+   }
+
+   /**
+    * This is used to determine the content coding to use for the
+    * response. The codings accepted by the client are examined in
+    * order of preference, and the first supported one is chosen. A
+    * wildcard selects <code>gzip</code> unless it was refused.
+    *
+    * @param request this is the request that was sent by the client
+    *
+    * @return this returns the coding to use, or null for none
+    */
+   public String getCoding(RequestHeader request) {
+      List<String> list = request.getValues(ACCEPT_ENCODING);
+
+      for(String coding : list) {
+         if(coding.equalsIgnoreCase("gzip") || coding.equalsIgnoreCase("x-gzip")) {
+            return "gzip";
+         }
+         if(coding.equalsIgnoreCase("deflate")) {
+            return "deflate";
+         }
+         if(coding.equals("*")) {
+            String value = request.getValue(ACCEPT_ENCODING);
+
+            if(value.toLowerCase().indexOf("gzip") == -1) {
+               return "gzip";
+            }
+         }
+      }
+      return null;
+   }
+
+   /**
+    * This is used to determine if the response should be compressed.
+    * A response is compressed if it has no content coding and is not
+    * a range of the content, if its content type is in the allow list,
+    * and if its length is unknown or at least the minimum size.
+    *
+    * @param response this is the response that is to be sent
+    * @param length this is the length of the body or minus one
+    *
+    * @return this returns true if the response can be compressed
+    */
+   public boolean isCompressible(ResponseHeader response, long length) {
+      ContentType type = response.getContentType();
+
+      if(length >= 0 && length < minimum) {
+         return false;
+      }
+      if(response.getValue(CONTENT_ENCODING) != null) {
+         return false;
+      }
+      if(response.getValue(CONTENT_RANGE) != null) {
+         return false;
+      }
+      if(type != null) {
+         return isAllowed(type);
+      }
+      return false;
+   }
+
+   /**
+    * This is used to determine if the content type is one of those
+    * that is to be compressed. Types are compared without regard to
+    * case, and a wildcard subtype matches any subtype.
+    *
+    * @param type this is the content type of the response
+    *
+    * @return this returns true if the type is to be compressed
+    */
+   private boolean isAllowed(ContentType type) {
+      String primary = type.getPrimary();
+      String secondary = type.getSecondary();
+
+      if(primary == null || secondary == null) {
+         return false;
+      }
+      for(String allow : types) {
+         int split = allow.indexOf('/');
+
+         if(allow.regionMatches(true, 0, primary, 0, split) && primary.length() == split) {
+            String rest = allow.substring(split + 1);
+
+            if(rest.equals("*") || rest.equalsIgnoreCase(secondary)) {
+               return true;
+            }
+         }
+      }
+      return false;
+   }
+
+   /**
+    * This is used to determine the compression level for a response.
+    * By default every response is compressed at the same level, but
+    * this can be overridden to use a lower level for larger bodies
+    * or a higher level for content that is sent to slow clients.
+    *
+    * @param request this is the request that was sent by the client
+    * @param response this is the response that is to be compressed
+    *
+    * @return this returns the level from zero to nine to use
+    */
+   public int getLevel(RequestHeader request, ResponseHeader response) {
+      return level;
+   }
+
+   /**
+    * This returns the total number of bytes that have been given to
+    * be compressed. Along with the number of bytes produced this can
+    * be used to determine how effective compression has been.
+    *
+    * @return this returns the number of bytes that were compressed
+    */
+   public long getInput() {
+      return input.get();
+   }
+
+   /**
+    * This returns the total number of bytes that were produced by
+    * compression. This includes the header and trailer of the coding
+    * and so it is the number of bytes actually sent for the bodies.
+    *
+    * @return this returns the number of bytes that were produced
+    */
+   public long getOutput() {
+      return output.get();
+   }
+
+   /**
+    * This returns the ratio of bytes produced to the bytes given to
+    * be compressed. A ratio of a quarter means that compression sent
+    * a quarter of the bytes that would otherwise have been sent.
+    *
+    * @return this returns the ratio of compressed to original bytes
+    */
+   public double getRatio() {
+      long total = input.get();
+
+      if(total > 0) {
+         return (double)output.get() / total;
+      }
+      return 1.0;
+   }
+
+   /**
+    * This is used to record the number of bytes that were compressed
+    * for a response and the number of bytes this produced.
+    *
+    * @param in this is the number of bytes given to be compressed
+    * @param out this is the number of bytes that were produced
+    */
+   void record(long in, long out) {
+      input.addAndGet(in);
+      output.addAndGet(out);
+   }
+
+   /**
+    * This is used to acquire a compressor from the pool. A raw stream
+    * is used for <code>gzip</code>, for which the header and trailer
+    * are written separately, and the zlib stream for deflate.
+    *
+    * @param level this is the level the compressor is to use
+    * @param nowrap determines if a raw stream is to be produced
+    *
+    * @return this returns a compressor that is ready to be used
+    */
+   Deflater acquire(int level, boolean nowrap) {
+      Queue<Deflater> pool = nowrap ? raw : wrapped;
+      Deflater deflater = pool.poll();
+
+      if(deflater == null) {
+         return new Deflater(level, nowrap);
+      }
+      count.decrementAndGet();
+      deflater.setLevel(level);
+      return deflater;
+   }
+
+   /**
+    * This is used to return a compressor to the pool. If the pool is
+    * full then the native memory of the compressor is released now
+    * rather than waiting for the object to be collected.
+    *
+    * @param deflater this is the compressor that is to be returned
+    * @param nowrap determines if this produces a raw stream
+    */
+   void recycle(Deflater deflater, boolean nowrap) {
+      Queue<Deflater> pool = nowrap ? raw : wrapped;
+
+      if(count.incrementAndGet() <= LIMIT) {
+         deflater.reset();
+         pool.offer(deflater);
+      } else {
+         count.decrementAndGet();
+         deflater.end();
+      }
+   }
+}
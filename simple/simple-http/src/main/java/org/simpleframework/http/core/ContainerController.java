@@ -18,15 +18,17 @@
 
 package org.simpleframework.http.core;
 
-import static java.nio.channels.SelectionKey.OP_READ;
-
 import java.io.IOException;
+import java.util.Map;
 
 import org.simpleframework.common.buffer.Allocator;
+import org.simpleframework.common.buffer.MemoryBudget;
 import org.simpleframework.common.thread.ConcurrentExecutor;
+import org.simpleframework.http.message.Header;
 import org.simpleframework.transport.Channel;
 import org.simpleframework.transport.TransportException;
 import org.simpleframework.transport.reactor.ExecutorReactor;
+import org.simpleframework.transport.reactor.Operation;
 import org.simpleframework.transport.reactor.Reactor;
 
 /**
@@ -37,6 +39,15 @@ import org.simpleframework.transport.reactor.Reactor;
  * pools. The first is used to collect data from the channels and
  * create request entities. The second is used to take the created
  * entities and service them with the provided container.
+ * <p>
+ * If a pipeline depth greater than one is specified then several
+ * requests from a connection can be dispatched at once. Requests are
+ * read ahead of their responses, and the responses are delivered in
+ * the order the requests arrived using a <code>Pipeline</code>.
+ * <p>
+ * If streaming is enabled a request with a body is dispatched once
+ * its header has been read. The body is read by the container as it
+ * arrives, so a large body is never held in full by the server.
  * 
  * @author Niall Gallagher
  */
@@ -52,6 +63,21 @@ class ContainerController implements Controller {
     */
    private final ConcurrentExecutor collect;
 
+   /**
+    * If provided this is used to suspend reading from connections.
+    */
+   private final MemoryBudget budget;
+   
+   /**
+    * If provided this is used to compress the response bodies.
+    */
+   private final CompressionPolicy policy;
+   
+   /**
+    * If provided this is used to buffer the response bodies.
+    */
+   private final BufferPool pool;
+   
    /**
     * This is the allocator used to create the buffers needed.
     */
@@ -66,6 +92,16 @@ class ContainerController implements Controller {
     * This is the reactor used to schedule the collectors.
     */
    private final Reactor reactor; 
+   
+   /**
+    * This is the number of requests to dispatch for a connection.
+    */
+   private final int depth;
+   
+   /**
+    * This determines if bodies are streamed to the container.
+    */
+   private final boolean stream;
 
    /**
     * Constructor for the <code>ContainerController</code> object. This
@@ -79,10 +115,32 @@ class ContainerController implements Controller {
     * @param select this is the number of controller threads to use
     */
    public ContainerController(Container container, Allocator allocator, int count, int select) throws IOException {
+      this(container, new ContainerSettings(allocator, count, select));
+   }
+
+   /**
+    * Constructor for the <code>ContainerController</code> object. This
+    * is used to create a controller which will collect and dispatch
+    * requests using two thread pools. The settings determine the size
+    * of the thread pools as well as how requests are collected and
+    * how the responses to them are buffered and compressed.
+    * 
+    * @param container this is the container used to service requests
+    * @param settings these are the settings used by the controller
+    */
+   public ContainerController(Container container, ContainerSettings settings) throws IOException {
+      int count = settings.getCount();
+      int select = settings.getSelect();
+      
       this.executor = new ConcurrentExecutor(RequestDispatcher.class, count); 
       this.collect = new ConcurrentExecutor(RequestReader.class, count);
       this.reactor = new ExecutorReactor(collect, select);     
-      this.allocator = allocator;
+      this.allocator = settings.getAllocator();
+      this.budget = settings.getBudget();
+      this.policy = settings.getPolicy();
+      this.stream = settings.isStream();
+      this.depth = settings.getDepth();
+      this.pool = settings.getPool();
       this.container = container;
    }
 
@@ -98,7 +156,30 @@ class ContainerController implements Controller {
     * @param channel the channel to process the request from
     */   
    public void start(Channel channel) throws IOException {
-      start(new RequestCollector(allocator, channel));    
+      if(depth > 1) {
+         int limit = pool == null ? 8192 : pool.getSize();
+         Pipeline pipeline = new Pipeline(channel, depth, budget, limit);
+         Map attributes = channel.getAttributes();
+         
+         attributes.put(Pipeline.class, pipeline);
+         start(pipeline);
+      } else {
+         start(new RequestCollector(allocator, channel, budget, stream));
+      }
+   }
+   
+   /**
+    * This is used to start collecting the next request from a 
+    * pipelined connection. Each request on the connection is given
+    * its own channel so that its response can be sequenced with the
+    * responses of the other requests dispatched from the connection.
+    * 
+    * @param pipeline this is the pipeline for the connection
+    */
+   private void start(Pipeline pipeline) throws IOException {
+      Channel channel = pipeline.open();
+      
+      start(new RequestCollector(allocator, channel, budget, stream));
    }
 
    /**
@@ -111,18 +192,45 @@ class ContainerController implements Controller {
     * @param collector this is the collector used to collect data
     */   
    public void start(Collector collector) throws IOException {
-      reactor.process(new RequestReader(this, collector));   
+      if(isExhausted()) {
+         select(collector);
+      } else {
+         reactor.process(new RequestReader(this, collector));   
+      }
    }
    
    /**
     * The select event is used to register the connected socket with 
     * a Java NIO selector which can efficiently determine when there 
-    * are bytes ready to read from the socket. 
+    * are bytes ready to read from the socket. If the memory budget
+    * is exhausted the registration is suspended until it is not.
     *      
     * @param collector this is the collector used to collect data
     */   
    public void select(Collector collector) throws IOException {
-      reactor.process(new RequestReader(this, collector), OP_READ);      
+      Operation reader = new RequestReader(this, collector);
+      Runnable task = new RequestSelector(reactor, reader);
+      
+      if(budget != null) {
+         budget.execute(task);
+      } else {
+         task.run();
+      }
+   }
+   
+   /**
+    * This is used to determine if the memory budget is exhausted. If
+    * it is then no further bytes should be read from connections, so
+    * rather than reading immediately the collector is suspended until
+    * memory has been released.
+    * 
+    * @return this returns true if the budget has been exhausted
+    */
+   private boolean isExhausted() {
+      if(budget != null) {
+         return budget.isExhausted();
+      }
+      return false;
    }
    
    /**
@@ -133,9 +241,67 @@ class ContainerController implements Controller {
     * @param collector this is the collector used to collect data
     */   
    public void ready(Collector collector) throws IOException {
-      executor.execute(new RequestDispatcher(container, this, collector));
+      Pipeline pipeline = getPipeline(collector);
+      
+      if(pipeline != null) {
+         Header header = collector.getHeader();
+         boolean next = pipeline.dispatch(header);
+         
+         executor.execute(new RequestDispatcher(container, this, collector, budget, policy, pool));
+         
+         if(next) {
+            start(pipeline);
+         }
+      } else {
+         executor.execute(new RequestDispatcher(container, this, collector, budget, policy, pool));
+      }
    }   
    
+   /**
+    * The complete event is used when the response to a request has
+    * been delivered successfully. If the connection is pipelined the
+    * next request is collected only if reading was suspended, as it
+    * will otherwise have been read ahead of this response. If the
+    * body was streamed nothing happens until it has also been read.
+    * 
+    * @param collector this is the collector used to collect data
+    */
+   public void complete(Collector collector) throws IOException {
+      if(collector.complete()) {
+         Pipeline pipeline = getPipeline(collector);
+         
+         if(pipeline != null) {
+            Channel channel = collector.getChannel();
+            
+            if(pipeline.complete(channel)) {
+               start(pipeline);
+            }
+         } else {
+            collector.finish();
+            start(collector.next());
+         }
+      }
+   }
+   
+   /**
+    * This is used to acquire the pipeline for the connection the
+    * collector reads from. If pipelining has not been enabled then
+    * there is no pipeline and this will return null.
+    * 
+    * @param collector this is the collector to get the pipeline for
+    * 
+    * @return this returns the pipeline for the connection or null
+    */
+   private Pipeline getPipeline(Collector collector) {
+      if(depth > 1) {
+         Channel channel = collector.getChannel();
+         Map attributes = channel.getAttributes();
+         
+         return (Pipeline)attributes.get(Pipeline.class);
+      }
+      return null;
+   }
+   
    /**
     * This method is used to stop the <code>Selector</code> so that
     * all resources are released. As well as freeing occupied memory
@@ -0,0 +1,289 @@
+/*
+ * ContainerSettings.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.core;
+
+import org.simpleframework.common.buffer.Allocator;
+import org.simpleframework.common.buffer.MemoryBudget;
+import org.simpleframework.common.buffer.SpoolAllocator;
+
+/**
+ * The <code>ContainerSettings</code> object is used to hold the options
+ * used to collect and dispatch requests to a container. Rather than
+ * passing each option to the processor, the settings are populated
+ * with the options that differ from the defaults and handed to the
+ * processor, which then passes them through to the controller.
+ * <pre>
+ * 
+ *    ContainerSettings settings = new ContainerSettings();
+ *    settings.setBudget(budget);
+ *    settings.setStream(true);
+ *    SocketProcessor server = new ContainerSocketProcessor(container, settings);
+ * 
+ * </pre>
+ * The options are read when the processor is created, so changing 
+ * the settings afterwards has no effect on a running processor.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.core.ContainerSocketProcessor
+ */
+public class ContainerSettings {
+
+   /**
+    * This is the allocator used to create the buffers needed.
+    */
+   private Allocator allocator;
+
+   /**
+    * If provided this is used to suspend reading from connections.
+    */
+   private MemoryBudget budget;
+
+   /**
+    * If provided this is used to compress the response bodies.
+    */
+   private CompressionPolicy policy;
+
+   /**
+    * If provided this is used to buffer the response bodies.
+    */
+   private BufferPool pool;
+
+   /**
+    * This determines if bodies are streamed to the container.
+    */
+   private boolean stream;
+
+   /**
+    * This is the number of threads used for each thread pool.
+    */
+   private int count;
+
+   /**
+    * This is the number of selector threads that are used.
+    */
+   private int select;
+
+   /**
+    * This is the number of requests to dispatch for a connection.
+    */
+   private int depth;
+
+   /**
+    * Constructor for the <code>ContainerSettings</code> object. This 
+    * creates settings that spool request bodies to a file if they are
+    * large, use eight threads for each pool and a single selector, and
+    * buffer each response body with a pool of the default size.
+    */
+   public ContainerSettings() {
+      this(new SpoolAllocator(), 8, 1);
+   }
+
+   /**
+    * Constructor for the <code>ContainerSettings</code> object. This 
+    * creates settings with the allocator and number of threads given.
+    * One request is dispatched at a time for a connection, and each
+    * response body is buffered with a pool of the default size.
+    *
+    * @param allocator this is the allocator used to create buffers
+    * @param count this is the number of threads used for each pool
+    * @param select this is the number of selector threads to use
+    */
+   public ContainerSettings(Allocator allocator, int count, int select) {
+      this.pool = new BufferPool();
+      this.allocator = allocator;
+      this.select = select;
+      this.count = count;
+      this.depth = 1;
+   }
+
+   /**
+    * This is used to acquire the allocator used to create buffers
+    * for the requests. Each request body is buffered in memory or 
+    * spooled to a file depending on the allocator used.
+    *
+    * @return this returns the allocator used to create buffers
+    */
+   public Allocator getAllocator() {
+      return allocator;
+   }
+
+   /**
+    * This is used to specify the allocator used to create buffers
+    * for the requests. Each request body is buffered in memory or 
+    * spooled to a file depending on the allocator used.
+    *
+    * @param allocator this is the allocator used to create buffers
+    */
+   public void setAllocator(Allocator allocator) {
+      this.allocator = allocator;
+   }
+
+   /**
+    * This is used to acquire the budget that buffers are charged to.
+    * If there is no budget then this returns null, and reading from
+    * connections is never suspended.
+    *
+    * @return this returns the budget that buffers are charged to
+    */
+   public MemoryBudget getBudget() {
+      return budget;
+   }
+
+   /**
+    * This is used to specify the budget that buffers are charged to.
+    * When the budget is exhausted reading from the connections, and
+    * accepting new connections, is suspended until memory is freed.
+    *
+    * @param budget this is the budget that buffers are charged to
+    */
+   public void setBudget(MemoryBudget budget) {
+      this.budget = budget;
+   }
+
+   /**
+    * This is used to acquire the policy used to compress responses.
+    * If there is no policy then this returns null, and responses are
+    * sent as they were written by the container.
+    *
+    * @return this returns the policy used to compress responses
+    */
+   public CompressionPolicy getPolicy() {
+      return policy;
+   }
+
+   /**
+    * This is used to specify the policy used to compress responses.
+    * The policy determines the content types that are compressed as
+    * well as the content codings accepted by each client.
+    *
+    * @param policy this is the policy used to compress responses
+    */
+   public void setPolicy(CompressionPolicy policy) {
+      this.policy = policy;
+   }
+
+   /**
+    * This is used to acquire the pool used to buffer the responses.
+    * If there is no pool then this returns null, and each response 
+    * body is only buffered when the container requests it.
+    *
+    * @return this returns the pool used to buffer response bodies
+    */
+   public BufferPool getPool() {
+      return pool;
+   }
+
+   /**
+    * This is used to specify the pool used to buffer the responses.
+    * Any response body that does not exceed the size of the arrays
+    * within the pool is sent with an exact Content-Length.
+    *
+    * @param pool this is the pool used to buffer response bodies
+    */
+   public void setPool(BufferPool pool) {
+      this.pool = pool;
+   }
+
+   /**
+    * This is used to determine if request bodies are streamed to the
+    * container. If they are then a request is dispatched once its
+    * header has been read, rather than when its body is complete.
+    *
+    * @return this returns true if bodies are streamed
+    */
+   public boolean isStream() {
+      return stream;
+   }
+
+   /**
+    * This is used to specify if request bodies are streamed to the
+    * container. If they are then a large body is read by container
+    * as it arrives and is never held in full by the server.
+    *
+    * @param stream determines if bodies are streamed to the container
+    */
+   public void setStream(boolean stream) {
+      this.stream = stream;
+   }
+
+   /**
+    * This is used to acquire the number of threads that are used by
+    * each thread pool. There is one pool used to collect requests 
+    * and one that is used to service those requests.
+    *
+    * @return this returns the number of threads for each pool
+    */
+   public int getCount() {
+      return count;
+   }
+
+   /**
+    * This is used to specify the number of threads that are used by
+    * each thread pool. There is one pool used to collect requests 
+    * and one that is used to service those requests.
+    *
+    * @param count this is the number of threads used for each pool
+    */
+   public void setCount(int count) {
+      this.count = count;
+   }
+
+   /**
+    * This is used to acquire the number of selector threads used to
+    * determine when bytes are ready to read from the connections.
+    *
+    * @return this returns the number of selector threads to use
+    */
+   public int getSelect() {
+      return select;
+   }
+
+   /**
+    * This is used to specify the number of selector threads used to
+    * determine when bytes are ready to read from the connections.
+    *
+    * @param select this is the number of selector threads to use
+    */
+   public void setSelect(int select) {
+      this.select = select;
+   }
+
+   /**
+    * This is used to acquire the number of requests that can be 
+    * dispatched at once for a single connection. If this is one
+    * then requests on a connection are not pipelined.
+    *
+    * @return this returns the number of requests to dispatch at once
+    */
+   public int getDepth() {
+      return depth;
+   }
+
+   /**
+    * This is used to specify the number of requests that can be 
+    * dispatched at once for a single connection. Requests are read
+    * ahead of their responses, which are sent in request order.
+    *
+    * @param depth this is the number of requests to dispatch at once
+    */
+   public void setDepth(int depth) {
+      this.depth = depth;
+   }
+}
@@ -21,7 +21,8 @@ package org.simpleframework.http.core;
 import java.io.IOException;
 
 import org.simpleframework.common.buffer.Allocator;
-import org.simpleframework.common.buffer.FileAllocator;
+import org.simpleframework.common.buffer.MemoryBudget;
+import org.simpleframework.common.buffer.SpoolAllocator;
 import org.simpleframework.transport.TransportProcessor;
 import org.simpleframework.transport.TransportSocketProcessor;
 import org.simpleframework.transport.SocketProcessor;
@@ -87,7 +88,7 @@ public class ContainerSocketProcessor implements SocketProcessor {
     * @param select this is the number of selector threads to use
     */
    public ContainerSocketProcessor(Container container, int count, int select) throws IOException {
-      this(container, new FileAllocator(), count, select);
+      this(container, new SpoolAllocator(), count, select);
    }
    
    /**
@@ -126,9 +127,26 @@ public class ContainerSocketProcessor implements SocketProcessor {
     * @param select this is the number of selector threads to use
     */   
    public ContainerSocketProcessor(Container container, Allocator allocator, int count, int select) throws IOException {
-     this.processor = new ContainerTransportProcessor(container, allocator, count, select);
-     this.adapter = new TransportSocketProcessor(processor, count); 
+     this(container, new ContainerSettings(allocator, count, select));
    }  
+   
+   /**
+    * Constructor for the <code>ContainerSocketProcessor</code> object. 
+    * The connector created will collect HTTP requests from the pipelines
+    * provided and dispatch those requests to the provided container.
+    * The settings are passed through to the controller, and if they
+    * specify a budget it is also used to suspend accepting sockets.
+    * 
+    * @param container this is the container used to service requests
+    * @param settings these are the settings used by the controller
+    */   
+   public ContainerSocketProcessor(Container container, ContainerSettings settings) throws IOException {
+     MemoryBudget budget = settings.getBudget();
+     int count = settings.getCount();
+     
+     this.processor = new ContainerTransportProcessor(container, settings);
+     this.adapter = new TransportSocketProcessor(processor, count, 4096, 20480, false, budget); 
+   }
 
    /**
     * This is used to consume HTTP messages that arrive on the socket
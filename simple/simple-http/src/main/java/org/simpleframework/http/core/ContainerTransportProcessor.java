@@ -68,9 +68,35 @@ public class ContainerTransportProcessor implements TransportProcessor {
     * @param select this is the number of controller threads to use
     */
    public ContainerTransportProcessor(Container container, Allocator allocator, int count, int select) throws IOException {
-     this.controller = new ContainerController(container, allocator, count, select);
+     this(container, new ContainerSettings(allocator, count, select));
+   }
+
+   /**
+    * Constructor for the <code>ContainerProcessor</code> object.
+    * This is used to create a processor which will convert the
+    * provided transport objects to channels, which can then be
+    * processed by the controller and dispatched to the container.
+    * The settings are passed through to the controller.
+    * 
+    * @param container the container to dispatch requests to
+    * @param settings these are the settings used by the controller
+    */
+   public ContainerTransportProcessor(Container container, ContainerSettings settings) throws IOException {
+     this.controller = new ContainerController(container, settings);
    }        
 
+   /**
+    * Constructor for the <code>ContainerProcessor</code> object.
+    * This is used to create a processor which will convert the
+    * provided transport objects to channels, which are then given
+    * to the provided controller to be collected and dispatched.
+    * 
+    * @param controller this is the controller used for channels
+    */
+   ContainerTransportProcessor(Controller controller) {
+     this.controller = controller;
+   }
+
    /**
     * This is used to consume HTTP messages that arrive on the given
     * transport. All messages consumed from the transport are then
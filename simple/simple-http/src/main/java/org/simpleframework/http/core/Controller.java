@@ -90,6 +90,16 @@ interface Controller {
     */
    void ready(Collector collector) throws IOException;
    
+   /**
+    * The complete event is used when the response to a request has
+    * been delivered and the connection is to be kept alive. This is
+    * where the next request from the connection is collected. If
+    * the body was streamed this is also used once it has been read.
+    * 
+    * @param collector this is the collector used to collect data
+    */
+   void complete(Collector collector) throws IOException;
+   
    /**
     * This method is used to stop the <code>Selector</code> so that
     * all resources are released. As well as freeing occupied memory
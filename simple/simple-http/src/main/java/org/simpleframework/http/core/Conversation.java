@@ -22,13 +22,19 @@ import static org.simpleframework.http.Method.CONNECT;
 import static org.simpleframework.http.Method.HEAD;
 import static org.simpleframework.http.Protocol.CHUNKED;
 import static org.simpleframework.http.Protocol.CLOSE;
+import static org.simpleframework.http.Protocol.ACCEPT_ENCODING;
 import static org.simpleframework.http.Protocol.CONNECTION;
+import static org.simpleframework.http.Protocol.CONTENT_ENCODING;
 import static org.simpleframework.http.Protocol.CONTENT_LENGTH;
+import static org.simpleframework.http.Protocol.ETAG;
 import static org.simpleframework.http.Protocol.KEEP_ALIVE;
 import static org.simpleframework.http.Protocol.TRANSFER_ENCODING;
 import static org.simpleframework.http.Protocol.UPGRADE;
+import static org.simpleframework.http.Protocol.VARY;
 import static org.simpleframework.http.Protocol.WEBSOCKET;
 
+import java.util.List;
+
 import org.simpleframework.http.RequestHeader;
 import org.simpleframework.http.ResponseHeader;
 
@@ -57,6 +63,11 @@ public class Conversation {
     */ 
    private final RequestHeader request;
    
+   /**
+    * This is used to determine if the response is compressed.
+    */
+   private final CompressionPolicy policy;
+   
    /**
     * Constructor for the <code>Conversation</code> object. This is
     * used to create an object that makes use of both the request 
@@ -68,9 +79,36 @@ public class Conversation {
     * @param response this is the response that is to be sent
     */ 
    public Conversation(RequestHeader request, ResponseHeader response) {
+      this(request, response, null);
+   }   
+   
+   /**
+    * Constructor for the <code>Conversation</code> object. This is
+    * used to create an object that makes use of both the request 
+    * and response HTTP headers to determine how best to deliver
+    * the response body. If a policy is provided it determines if 
+    * the body can be compressed for the client.
+    *
+    * @param request this is the request from the client
+    * @param response this is the response that is to be sent
+    * @param policy this is the policy used to compress the body
+    */ 
+   public Conversation(RequestHeader request, ResponseHeader response, CompressionPolicy policy) {
       this.response = response;
       this.request = request;
-   }   
+      this.policy = policy;
+   }
+   
+   /**
+    * This provides the policy used to compress the response body. If
+    * there is no policy then responses are never compressed and are
+    * sent exactly as they were written by the container.
+    *
+    * @return this returns the policy used to compress the body
+    */
+   public CompressionPolicy getPolicy() {
+      return policy;
+   }
    
    /**
     * This provides the <code>Request</code> object. This can be 
@@ -278,6 +316,100 @@ public class Conversation {
       response.setValue(CONNECTION, UPGRADE);
    }
   
+   /**
+    * This is used to determine the content coding to compress the
+    * response with. A response is compressed only if there is a 
+    * policy that allows it and the client accepts a supported coding.
+    * Responses without a body and responses to a tunnel or to a 
+    * <code>HEAD</code> request are never compressed.
+    * 
+    * @param length this is the length of the body or minus one
+    * 
+    * @return this returns the content coding to use or null
+    */
+   public String getCompression(long length) {
+      int code = response.getCode();
+      
+      if(policy != null && code >= 200) {
+         if(!isEmpty() && !isHead() && !isTunnel()) {
+            if(policy.isCompressible(response, length)) {
+               return policy.getCoding(request);
+            }
+         }
+      }
+      return null;
+   }
+   
+   /**
+    * This is used to declare the content coding of the response. As
+    * the length of the compressed body is not known the length is
+    * removed, and a cache is told that the representation depends 
+    * on the <code>Accept-Encoding</code> header of the request. A
+    * strong entity tag is given a suffix for the coding, so that the
+    * compressed and identity representations have distinct tags.
+    * 
+    * @param coding this is the content coding that is to be used
+    */
+   public void setContentEncoded(String coding) {
+      String tag = response.getValue(ETAG);
+      boolean varied = isVaried();
+      
+      if(!varied) {
+         response.addValue(VARY, ACCEPT_ENCODING);
+      }
+      if(tag != null) {
+         response.setValue(ETAG, getTag(tag, coding));
+      }
+      response.setValue(CONTENT_ENCODING, coding);
+      response.setValue(CONTENT_LENGTH, null);
+   }
+   
+   /**
+    * This is used to create the entity tag of a compressed response.
+    * A strong tag must not be shared by representations with different
+    * bytes, so the coding is added within the quotes of the tag, for
+    * example <code>"abc"</code> becomes <code>"abc-gzip"</code>. A weak
+    * tag can be shared by equivalent representations so it is kept.
+    * 
+    * @param tag this is the entity tag given by the container
+    * @param coding this is the content coding that is to be used
+    * 
+    * @return this returns the entity tag for the compressed response
+    */
+   private String getTag(String tag, String coding) {
+      String value = tag.trim();
+      int length = value.length();
+      
+      if(value.startsWith("W/")) {
+         return value;
+      }
+      if(length > 1 && value.endsWith("\"")) {
+         return value.substring(0, length - 1) + "-" + coding + "\"";
+      }
+      return value + "-" + coding;
+   }
+   
+   /**
+    * This is used to determine if the response already declares that
+    * it varies with the <code>Accept-Encoding</code> header. A value 
+    * of <code>*</code> means the response varies with every header.
+    * 
+    * @return this returns true if the response varies by coding
+    */
+   private boolean isVaried() {
+      List<String> list = response.getValues(VARY);
+      
+      for(String value : list) {
+         if(value.equalsIgnoreCase(ACCEPT_ENCODING)) {
+            return true;
+         }
+         if(value.equals("*")) {
+            return true;
+         }
+      }
+      return false;
+   }
+   
    /**
     * This will remove all explicit transfer encoding headers from 
     * the response header. By default the identity encoding is used
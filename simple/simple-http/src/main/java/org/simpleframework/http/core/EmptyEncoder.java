@@ -20,6 +20,7 @@ package org.simpleframework.http.core;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import org.simpleframework.transport.ByteWriter;
 
@@ -111,6 +112,18 @@ class EmptyEncoder implements BodyEncoder {
       return;
    }
    
+   /**
+    * This method performs no operation. As there is no body to send
+    * the region of the file is ignored, and nothing is read from it.
+    *
+    * @param file this is the file containing the region to send
+    * @param position this is the position within the file to send from
+    * @param length this is the number of bytes that are to be sent
+    */
+   public void encode(FileChannel file, long position, long length) throws IOException {
+      return;
+   }
+   
    /**
     * This method performs no operation. Because this producer is
     * not required to generate a response body this will ignore all
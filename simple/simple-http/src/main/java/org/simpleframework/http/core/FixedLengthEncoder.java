@@ -20,6 +20,7 @@ package org.simpleframework.http.core;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import org.simpleframework.transport.ByteWriter;
 
@@ -160,6 +161,37 @@ class FixedLengthEncoder implements BodyEncoder{
       count += size;
    }
    
+   /**
+    * This method is used to send a region of a file to the client. As
+    * a fixed length body is sent as it is, the region is handed to the
+    * transport, which can send it directly from the file. Only bytes
+    * within the declared length are sent, as with any other content.
+    *
+    * @param file this is the file containing the region to send
+    * @param position this is the position within the file to send from
+    * @param length this is the number of bytes that are to be sent
+    */
+   public void encode(FileChannel file, long position, long length) throws IOException {
+      long size = Math.min(length, limit - count);             
+      
+      try {
+         if(observer.isClosed()) {
+            throw new BodyEncoderException("Response content complete");
+         }
+         writer.write(file, position, size);
+         
+         if(count + size == limit) {
+            observer.ready(writer);
+         }        
+      } catch(Exception cause) {
+         if(writer != null) {
+            observer.error(writer);
+         }
+         throw new BodyEncoderException("Error sending response", cause);
+      }
+      count += size;
+   }
+   
    /**
     * This method is used to flush the contents of the buffer to 
     * the client. This method will block until such time as all of
@@ -0,0 +1,316 @@
+/*
+ * HeaderEncoder.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+
+package org.simpleframework.http.core;
+
+import static org.simpleframework.http.Protocol.SET_COOKIE;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.simpleframework.http.Cookie;
+import org.simpleframework.http.Status;
+import org.simpleframework.http.parse.DateClock;
+import org.simpleframework.transport.ByteWriter;
+
+/**
+ * The <code>HeaderEncoder</code> is used to write the header of a
+ * response directly as bytes. Rather than composing the header as a
+ * string and then encoding it, the status line and each header are
+ * written straight in to a pooled <code>ByteBuffer</code>, which is
+ * then handed to the transport. The bytes produced are identical to
+ * the UTF-8 encoding of the string form of the response header.
+ * <p>
+ * The status lines for the known status codes are encoded once, so
+ * for most responses the status line is a single copy. Likewise, a 
+ * date set to the current time is taken from the shared bytes of the 
+ * <code>DateClock</code> rather than being encoded again.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.core.ResponseMessage
+ */
+class HeaderEncoder {
+
+   /**
+    * These are the encoded status lines for HTTP/1.0 and HTTP/1.1.
+    */
+   private static final byte[][][] LINES = new byte[2][600][];
+
+   /**
+    * These are the standard descriptions for the known status codes.
+    */
+   private static final String[] TEXTS = new String[600];
+
+   /**
+    * This contains the buffers that are free to encode a header.
+    */
+   private static final Queue<ByteBuffer> POOL = new ConcurrentLinkedQueue<ByteBuffer>();
+
+   /**
+    * This is the number of buffers that are held within the pool.
+    */
+   private static final AtomicInteger COUNT = new AtomicInteger();
+
+   /**
+    * This is the maximum number of buffers that the pool will hold.
+    */
+   private static final int LIMIT = 256;
+
+   /**
+    * This is the size of the buffers that are held within the pool.
+    */
+   private static final int SIZE = 4096;
+
+   static {
+      for(Status status : Status.values()) {
+         TEXTS[status.code] = status.description;
+
+         for(int minor = 0; minor < 2; minor++) {
+            String line = "HTTP/1." + minor + " " + status.code + " " + status.description + "\r\n";
+            LINES[minor][status.code] = encode(line);
+         }
+      }
+   }
+
+   /**
+    * This is the response message that is to be encoded.
+    */
+   private final ResponseMessage message;
+
+   /**
+    * This is the buffer that the header is currently written to.
+    */
+   private ByteBuffer buffer;
+
+   /**
+    * Constructor for the <code>HeaderEncoder</code> object. This is
+    * used to create an encoder for the specified response message.
+    * The header is encoded from the state of the message at the time
+    * it is written, so it can be created before the headers are set.
+    *
+    * @param message this is the response message to be encoded
+    */
+   public HeaderEncoder(ResponseMessage message) {
+      this.message = message;
+   }
+
+   /**
+    * This is used to write the response header to the given writer.
+    * The status line, headers, and cookies are written in to a buffer
+    * taken from the pool, which is returned once the writer has taken
+    * the bytes. A writer either copies the bytes or writes them to the
+    * socket before returning, so the buffer can be safely reused.
+    *
+    * @param writer this is the writer the header is written to
+    */
+   public void encode(ByteWriter writer) throws IOException {
+      buffer = acquire();
+
+      try {
+         status();
+         headers();
+         cookies();
+         write("\r\n");
+         buffer.flip();
+         writer.write(buffer);
+      } finally {
+         recycle(buffer);
+         buffer = null;
+      }
+   }
+
+   /**
+    * This is used to write the status line of the response. If the
+    * response uses the standard description for a known status then
+    * the encoded line is copied, otherwise the line is encoded.
+    */
+   private void status() {
+      String text = message.getDescription();
+      int major = message.getMajor();
+      int minor = message.getMinor();
+      int code = message.getCode();
+
+      if(major == 1 && minor >= 0 && minor < 2 && code >= 0 && code < 600) {
+         byte[] line = LINES[minor][code];
+
+         if(line != null && text.equals(TEXTS[code])) {
+            write(line);
+            return;
+         }
+      }
+      write("HTTP/");
+      write(String.valueOf(major));
+      write(".");
+      write(String.valueOf(minor));
+      write(" ");
+      write(String.valueOf(code));
+      write(" ");
+      write(text);
+      write("\r\n");
+   }
+
+   /**
+    * This is used to write each of the headers of the response. The
+    * names are written in the case they were added to the response.
+    * A value that is the current date is written from the bytes held
+    * by the clock, as it is identical to the value being written.
+    */
+   private void headers() {
+      for(String name : message.getNames()) {
+         for(String value : message.getAll(name)) {
+            byte[] date = DateClock.getBytes(value);
+
+            write(name);
+            write(": ");
+
+            if(date != null) {
+               write(date);
+            } else {
+               write(value);
+            }
+            write("\r\n");
+         }
+      }
+   }
+
+   /**
+    * This is used to write the cookies that have been set on the
+    * response. Each cookie is written as a separate header, so that
+    * the attributes of each cookie are not confused by the client.
+    */
+   private void cookies() {
+      for(Cookie cookie : message.getCookies()) {
+         write(SET_COOKIE);
+         write(": ");
+         write(cookie.toString());
+         write("\r\n");
+      }
+   }
+
+   /**
+    * This is used to write the provided bytes to the buffer. If the
+    * buffer does not have enough space then it is expanded first.
+    *
+    * @param data this is the bytes that are to be written
+    */
+   private void write(byte[] data) {
+      ensure(data.length);
+      buffer.put(data);
+   }
+
+   /**
+    * This is used to write the characters of the text to the buffer.
+    * Characters in the US-ASCII range are written as single bytes,
+    * and should the text contain any other character the remainder 
+    * is encoded as UTF-8, which is how the header was always encoded.
+    *
+    * @param text this is the text that is to be written
+    */
+   private void write(String text) {
+      int length = text.length();
+
+      ensure(length);
+
+      for(int i = 0; i < length; i++) {
+         char next = text.charAt(i);
+
+         if(next >= 0x80) {
+            write(encode(text.substring(i)));
+            return;
+         }
+         buffer.put((byte)next);
+      }
+   }
+
+   /**
+    * This is used to ensure the buffer can hold the specified number
+    * of bytes. If it can not then a buffer of double the size is used
+    * instead, and the pooled buffer is returned to the pool.
+    *
+    * @param count this is the number of bytes that are to be written
+    */
+   private void ensure(int count) {
+      int remaining = buffer.remaining();
+
+      if(remaining < count) {
+         int capacity = buffer.capacity();
+         int require = buffer.position() + count;
+         ByteBuffer expand = ByteBuffer.allocate(Math.max(capacity * 2, require));
+
+         buffer.flip();
+         expand.put(buffer);
+         recycle(buffer);
+         buffer = expand;
+      }
+   }
+
+   /**
+    * This is used to acquire a buffer to encode a header in to. If
+    * there is no buffer within the pool then a new one is created.
+    *
+    * @return this returns an empty buffer to write the header to
+    */
+   private static ByteBuffer acquire() {
+      ByteBuffer buffer = POOL.poll();
+
+      if(buffer != null) {
+         COUNT.decrementAndGet();
+         return buffer;
+      }
+      return ByteBuffer.allocate(SIZE);
+   }
+
+   /**
+    * This is used to return a buffer to the pool. Only buffers of the
+    * standard size are kept, and only up to the limit of the pool, so
+    * that an unusually large header does not hold memory forever.
+    *
+    * @param buffer this is the buffer that is to be returned
+    */
+   private static void recycle(ByteBuffer buffer) {
+      if(buffer.capacity() == SIZE) {
+         if(COUNT.incrementAndGet() <= LIMIT) {
+            buffer.clear();
+            POOL.offer(buffer);
+         } else {
+            COUNT.decrementAndGet();
+         }
+      }
+   }
+
+   /**
+    * This is used to encode the text as UTF-8. The status lines are
+    * encoded in this way, as is any header that is not US-ASCII.
+    *
+    * @param text this is the text that is to be encoded
+    *
+    * @return this returns the bytes for the encoded text
+    */
+   private static byte[] encode(String text) {
+      try {
+         return text.getBytes("UTF-8");
+      } catch(Exception e) {
+         throw new IllegalStateException("Could not encode header", e);
+      }
+   }
+}
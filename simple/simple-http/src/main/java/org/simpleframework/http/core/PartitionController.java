@@ -0,0 +1,206 @@
+/*
+ * PartitionController.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.core;
+
+import java.io.IOException;
+
+import org.simpleframework.common.buffer.Allocator;
+import org.simpleframework.common.buffer.MemoryBudget;
+import org.simpleframework.transport.Channel;
+import org.simpleframework.transport.TransportException;
+import org.simpleframework.transport.reactor.PartitionReactor;
+import org.simpleframework.transport.reactor.Operation;
+import org.simpleframework.transport.reactor.Reactor;
+
+/**
+ * The <code>PartitionController</code> object is a controller that
+ * collects and services requests for a connection on a single thread.
+ * Rather than handing a collected request to a separate thread pool
+ * the request is dispatched to the container by the same partition
+ * worker that read it. This means a request never changes thread 
+ * between the read, the parse, the dispatch and the response.
+ * <p>
+ * A container used with this controller must not block, as it would
+ * stall all other connections within the same partition. Containers
+ * that need to block should be wrapped in a blocking container.
+ * 
+ * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.http.core.BlockingContainer
+ */
+class PartitionController implements Controller {
+   
+   /**
+    * If provided this is used to suspend reading from connections.
+    */
+   private final MemoryBudget budget;
+   
+   /**
+    * This is the allocator used to create the buffers needed.
+    */
+   private final Allocator allocator; 
+   
+   /**
+    * This is the container used to service the requests.
+    */
+   private final Container container;
+   
+   /**
+    * This is the reactor used to partition the connections.
+    */
+   private final Reactor reactor; 
+   
+   /**
+    * Constructor for the <code>PartitionController</code> object. 
+    * This is used to create a controller which will collect and 
+    * dispatch requests using a single worker for each partition. The
+    * connections are divided evenly among the partitions.
+    * 
+    * @param container this is the container used to service requests
+    * @param allocator this is used to allocate any buffers needed
+    * @param count this is the number of partitions to be used
+    */
+   public PartitionController(Container container, Allocator allocator, int count) throws IOException {
+      this(container, allocator, count, null);
+   }
+   
+   /**
+    * Constructor for the <code>PartitionController</code> object. 
+    * This is used to create a controller which will collect and 
+    * dispatch requests using a single worker for each partition. If
+    * a budget is provided reading is suspended while it is exhausted.
+    * 
+    * @param container this is the container used to service requests
+    * @param allocator this is used to allocate any buffers needed
+    * @param count this is the number of partitions to be used
+    * @param budget this is the budget used to suspend reading
+    */
+   public PartitionController(Container container, Allocator allocator, int count, MemoryBudget budget) throws IOException {
+      this.reactor = new PartitionReactor(count);     
+      this.allocator = allocator;
+      this.container = container;
+      this.budget = budget;
+   }
+
+   /**
+    * This is used to initiate the processing of the channel. Once
+    * the channel is passed in to the initiator any bytes ready on
+    * the HTTP pipeline will be processed and parsed in to a HTTP
+    * request. When the request has been built it is dispatched to
+    * the <code>Container</code> by the worker for the partition.
+    * 
+    * @param channel the channel to process the request from
+    */ 
+   public void start(Channel channel) throws IOException {
+      start(new RequestCollector(allocator, channel, budget));    
+   }
+
+   /**
+    * The start event is used to immediately consume bytes form the
+    * underlying transport, it does not require a select to check
+    * if the socket is read ready which improves performance. This
+    * is executed by the worker for the partition of the channel.
+    * 
+    * @param collector this is the collector used to collect data
+    */   
+   public void start(Collector collector) throws IOException {
+      if(isExhausted()) {
+         select(collector);
+      } else {
+         reactor.process(new RequestReader(this, collector));   
+      }
+   }
+   
+   /**
+    * The select event is used to register the connected socket with 
+    * the selector for the partition that owns the channel. When the
+    * socket is read ready the partition worker will collect it. If
+    * the memory budget is exhausted registration is suspended.
+    *      
+    * @param collector this is the collector used to collect data
+    */   
+   public void select(Collector collector) throws IOException {
+      Operation reader = new RequestReader(this, collector);
+      Runnable task = new RequestSelector(reactor, reader);
+      
+      if(budget != null) {
+         budget.execute(task);
+      } else {
+         task.run();
+      }
+   }
+   
+   /**
+    * This is used to determine if the memory budget is exhausted. If
+    * it is then no further bytes should be read from connections, so
+    * rather than reading immediately the collector is suspended until
+    * memory has been released.
+    * 
+    * @return this returns true if the budget has been exhausted
+    */
+   private boolean isExhausted() {
+      if(budget != null) {
+         return budget.isExhausted();
+      }
+      return false;
+   }
+   
+   /**
+    * The ready event is used when a full HTTP entity has been 
+    * collected from the underlying transport. As this is invoked by
+    * the partition worker that collected the request the container
+    * is invoked directly, so that there is no further hand off.
+    * 
+    * @param collector this is the collector used to collect data
+    */   
+   public void ready(Collector collector) throws IOException {
+      Runnable dispatcher = new RequestDispatcher(container, this, collector, budget);
+      
+      dispatcher.run();
+   }
+   
+   /**
+    * The complete event is used when the response to a request has
+    * been delivered and the connection is to be kept alive. Here the
+    * collector is finished with and the next collector for the 
+    * connection is started so that the next request is read.
+    * 
+    * @param collector this is the collector used to collect data
+    */
+   public void complete(Collector collector) throws IOException {
+      if(collector.complete()) {
+         collector.finish();
+         start(collector.next());
+      }
+   }   
+   
+   /**
+    * This method is used to stop the <code>Reactor</code> so that
+    * all resources are released. This will stop the selector for
+    * each of the partitions and the worker thread paired with it,
+    * which means it can no longer be used to collect requests.
+    */   
+   public void stop() throws IOException {
+     try {
+        reactor.stop();
+     } catch(Exception cause) {
+        throw new TransportException("Error stopping", cause);
+     }
+   }
+}
@@ -0,0 +1,140 @@
+/*
+ * PartitionSocketProcessor.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.core;
+
+import java.io.IOException;
+
+import org.simpleframework.common.buffer.Allocator;
+import org.simpleframework.common.buffer.MemoryBudget;
+import org.simpleframework.common.buffer.SpoolAllocator;
+import org.simpleframework.transport.Socket;
+import org.simpleframework.transport.SocketProcessor;
+import org.simpleframework.transport.TransportProcessor;
+import org.simpleframework.transport.TransportSocketProcessor;
+
+/**
+ * The <code>PartitionSocketProcessor</code> object is a connector 
+ * that services each connection entirely on one thread. Connections
+ * are divided among a number of partitions, typically one for each
+ * processor, and each partition pairs a selector with one worker. 
+ * That worker reads the request, parses it, invokes the container 
+ * and writes the response, so a request never changes thread.
+ * <p>
+ * This is well suited to containers that respond without blocking,
+ * for instance those that serve content from memory. A container
+ * that must block should be wrapped in a <code>BlockingContainer</code>
+ * so that it is executed by a separate thread pool and does not 
+ * stall the other connections within its partition.
+ * 
+ * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.http.core.BlockingContainer
+ */
+public class PartitionSocketProcessor implements SocketProcessor {
+   
+   /**
+    * This is the transporter used to process the connections.
+    */
+   private final TransportProcessor processor;
+   
+   /**
+    * This is used to deliver pipelines to the container.
+    */
+   private final SocketProcessor adapter;  
+   
+   /**
+    * Constructor for the <code>PartitionSocketProcessor</code> object. 
+    * This creates a partition for each available processor. Requests
+    * are collected and dispatched to the container by the worker for
+    * the partition that owns the connection.
+    * 
+    * @param container this is the container used to service requests
+    */
+   public PartitionSocketProcessor(Container container) throws IOException {
+      this(container, Runtime.getRuntime().availableProcessors());
+   }
+   
+   /**
+    * Constructor for the <code>PartitionSocketProcessor</code> object. 
+    * This creates the specified number of partitions. Requests are 
+    * collected and dispatched to the container by the worker for the
+    * partition that owns the connection.
+    * 
+    * @param container this is the container used to service requests
+    * @param count this is the number of partitions to be used
+    */
+   public PartitionSocketProcessor(Container container, int count) throws IOException {
+      this(container, new SpoolAllocator(), count);
+   }
+   
+   /**
+    * Constructor for the <code>PartitionSocketProcessor</code> object. 
+    * This creates the specified number of partitions. Requests are 
+    * collected and dispatched to the container by the worker for the
+    * partition that owns the connection.
+    * 
+    * @param container this is the container used to service requests
+    * @param allocator this is the allocator used to create buffers
+    * @param count this is the number of partitions to be used
+    */
+   public PartitionSocketProcessor(Container container, Allocator allocator, int count) throws IOException {
+      this(container, allocator, count, null);
+   }
+   
+   /**
+    * Constructor for the <code>PartitionSocketProcessor</code> object. 
+    * This creates the specified number of partitions. The buffers for
+    * each connection, request and response are charged to the budget
+    * and reading is suspended while the budget is exhausted.
+    * 
+    * @param container this is the container used to service requests
+    * @param allocator this is the allocator used to create buffers
+    * @param count this is the number of partitions to be used
+    * @param budget this is the budget that buffers are charged to
+    */
+   public PartitionSocketProcessor(Container container, Allocator allocator, int count, MemoryBudget budget) throws IOException {
+      Controller controller = new PartitionController(container, allocator, count, budget);
+      
+      this.processor = new ContainerTransportProcessor(controller);
+      this.adapter = new TransportSocketProcessor(processor, count, 4096, 20480, false, budget);
+   }
+   
+   /**
+    * This is used to consume HTTP messages that arrive on the socket
+    * and dispatch them to the internal container. Depending on whether
+    * the socket contains an <code>SSLEngine</code> an SSL handshake may
+    * be performed before any HTTP messages are consumed. This can be
+    * called from multiple threads and does not block. 
+    *
+    * @param socket this is the connected HTTP pipeline to process
+    */ 
+   public void process(Socket socket) throws IOException {
+      adapter.process(socket);
+   }
+   
+   /**
+    * This method is used to stop the connector in such a way that it
+    * will not accept and process any further messages. If there are
+    * resources to clean up they may be cleaned up asynchronously
+    * so that this method can return without blocking.
+    */ 
+   public void stop() throws IOException {
+      adapter.stop();
+   }
+}
@@ -0,0 +1,406 @@
+/*
+ * Pipeline.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.core;
+
+import static org.simpleframework.http.Method.GET;
+import static org.simpleframework.http.Method.HEAD;
+import static org.simpleframework.http.Protocol.CONNECTION;
+import static org.simpleframework.http.Protocol.KEEP_ALIVE;
+import static org.simpleframework.http.Protocol.UPGRADE;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.LinkedList;
+
+import org.simpleframework.common.buffer.MemoryBudget;
+import org.simpleframework.http.message.Header;
+import org.simpleframework.transport.ByteWriter;
+import org.simpleframework.transport.Channel;
+import org.simpleframework.transport.TransportException;
+
+/**
+ * The <code>Pipeline</code> object is used to sequence the responses
+ * to requests that have been pipelined on a single connection. Each
+ * request is given its own channel, with a writer that buffers the
+ * response until all of the responses to earlier requests have been
+ * delivered. This allows several requests from a connection to be
+ * handled by the container at once, while ensuring the client will
+ * receive the responses in the order the requests were sent.
+ * <p>
+ * Only GET and HEAD requests on a persistent connection are read
+ * ahead of their responses. Any other request acts as a barrier, so
+ * that no further requests are read until all of the outstanding
+ * responses, including its own, have completed. This ensures that
+ * a request with side effects, or one that upgrades the connection,
+ * is never followed by a request the server has already consumed.
+ * <p>
+ * Each writer buffers no more than a fixed number of bytes, which 
+ * is charged to the memory budget while it is held. A writer that
+ * has filled its buffer blocks until it reaches the head of the
+ * pipeline, so a slow response can not cause those behind it to
+ * hold an unbounded amount of memory.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.core.PipelineWriter
+ */
+class Pipeline {
+
+   /**
+    * This contains the writers for each request in request order.
+    */
+   private final LinkedList<PipelineWriter> queue;
+
+   /**
+    * This is the writer for the underlying connection.
+    */
+   private final ByteWriter writer;
+
+   /**
+    * This is the budget that buffered responses are charged to.
+    */
+   private final MemoryBudget budget;
+
+   /**
+    * This is the channel for the underlying connection.
+    */
+   private final Channel channel;
+
+   /**
+    * This is the maximum number of requests to dispatch at once.
+    */
+   private final int depth;
+
+   /**
+    * This is the maximum number of bytes each writer can buffer.
+    */
+   private final int limit;
+
+   /**
+    * This determines if reading waits for all responses to finish.
+    */
+   private boolean barrier;
+
+   /**
+    * This determines if reading has been suspended for responses.
+    */
+   private boolean suspend;
+
+   /**
+    * This determines if the underlying connection has been closed.
+    */
+   private boolean closed;
+
+   /**
+    * This is the number of dispatched requests yet to complete.
+    */
+   private int active;
+
+   /**
+    * Constructor for the <code>Pipeline</code> object. This is used
+    * to create a pipeline that will dispatch at most the specified
+    * number of requests from the channel at once. Responses that
+    * can not yet be sent are buffered until they can be.
+    *
+    * @param channel this is the channel the requests arrive on
+    * @param depth this is the maximum requests to dispatch at once
+    */
+   public Pipeline(Channel channel, int depth) {
+      this(channel, depth, null);
+   }
+
+   /**
+    * Constructor for the <code>Pipeline</code> object. This is used
+    * to create a pipeline that will dispatch at most the specified
+    * number of requests from the channel at once. Each response that
+    * can not yet be sent buffers up to eight kilobytes.
+    *
+    * @param channel this is the channel the requests arrive on
+    * @param depth this is the maximum requests to dispatch at once
+    * @param budget this is the budget to charge buffered bytes to
+    */
+   public Pipeline(Channel channel, int depth, MemoryBudget budget) {
+      this(channel, depth, budget, 8192);
+   }
+
+   /**
+    * Constructor for the <code>Pipeline</code> object. This is used
+    * to create a pipeline that will dispatch at most the specified
+    * number of requests from the channel at once. Each response that
+    * can not yet be sent buffers up to the limit given, after which
+    * it waits until the responses before it have been delivered.
+    *
+    * @param channel this is the channel the requests arrive on
+    * @param depth this is the maximum requests to dispatch at once
+    * @param budget this is the budget to charge buffered bytes to
+    * @param limit this is the maximum bytes buffered per response
+    */
+   public Pipeline(Channel channel, int depth, MemoryBudget budget, int limit) {
+      this.queue = new LinkedList<PipelineWriter>();
+      this.writer = channel.getWriter();
+      this.channel = channel;
+      this.budget = budget;
+      this.depth = depth;
+      this.limit = limit;
+   }
+
+   /**
+    * This is used to create the channel used for the next request on
+    * the connection. The channel shares the cursor and attributes of
+    * the connection, however it provides a writer that is sequenced
+    * behind the writers of any requests that arrived before it.
+    *
+    * @return this returns a channel for the next request
+    */
+   public synchronized Channel open() {
+      PipelineWriter slot = new PipelineWriter(this, budget, limit);
+
+      queue.addLast(slot);
+      return new PipelineChannel(channel, slot);
+   }
+
+   /**
+    * This is used when a request has been collected and is about to
+    * be dispatched to the container. If the request can be pipelined
+    * and there is room for another then this returns true, and the
+    * next request should be read immediately. Otherwise reading is
+    * suspended until enough of the responses have completed.
+    *
+    * @param header this is the header of the request to dispatch
+    *
+    * @return this returns true if the next request can be read
+    */
+   public synchronized boolean dispatch(Header header) {
+      boolean pipelined = isPipelined(header);
+
+      if(++active < depth && pipelined) {
+         return true;
+      }
+      barrier = !pipelined;
+      suspend = true;
+      return false;
+   }
+
+   /**
+    * This is used when the response to a request has completed. The
+    * response is delivered as soon as all of the earlier responses
+    * have been delivered. If reading was suspended and can now be
+    * resumed this returns true, and the next request should be read.
+    *
+    * @param channel this is the channel the request was read from
+    *
+    * @return this returns true if the next request can be read
+    */
+   public synchronized boolean complete(Channel channel) throws IOException {
+      PipelineWriter slot = (PipelineWriter)channel.getWriter();
+
+      slot.finish();
+      active--;
+      advance();
+
+      if(suspend && !closed) {
+         if(active == 0 || (!barrier && active < depth)) {
+            suspend = false;
+            barrier = false;
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * This is used to write bytes for the provided writer. If the
+    * writer is at the head of the pipeline the bytes are written to
+    * the connection directly, otherwise they are buffered until all
+    * of the earlier responses have been delivered. If the buffer of
+    * the writer is full this waits until the writer is at the head.
+    *
+    * @param slot this is the writer the bytes were written to
+    * @param array this is the array of bytes to be written
+    * @param off this is the offset within the array to write from
+    * @param len this is the number of bytes that are to be written
+    */
+   synchronized void write(PipelineWriter slot, byte[] array, int off, int len) throws IOException {
+      while(len > 0) {
+         if(closed) {
+            throw new TransportException("Connection has been closed");
+         }
+         if(queue.peekFirst() == slot) {
+            writer.write(array, off, len);
+            break;
+         }
+         int size = slot.append(array, off, len);
+
+         if(size <= 0) {
+            await(slot);
+         }
+         off += size;
+         len -= size;
+      }
+   }
+
+   /**
+    * This is used to write a region of a file for the provided writer.
+    * The region is sent to the connection directly once the writer is
+    * at the head of the pipeline. As the caller is free to close the
+    * file once this returns, a writer that is not at the head waits 
+    * until the earlier responses and its own buffered bytes have been
+    * delivered, rather than reading the region in to memory.
+    *
+    * @param slot this is the writer the region was written to
+    * @param file this is the file containing the region to write
+    * @param position this is the position within the file to write
+    * @param length this is the number of bytes that are to be written
+    */
+   synchronized void write(PipelineWriter slot, FileChannel file, long position, long length) throws IOException {
+      await(slot);
+
+      if(closed) {
+         throw new TransportException("Connection has been closed");
+      }
+      writer.write(file, position, length);
+   }
+
+   /**
+    * This is used to flush the provided writer. Only the writer at
+    * the head of the pipeline will flush the connection, the bytes
+    * of the other writers are flushed once they reach the head.
+    *
+    * @param slot this is the writer that is to be flushed
+    */
+   synchronized void flush(PipelineWriter slot) throws IOException {
+      if(!closed) {
+         if(queue.peekFirst() == slot) {
+            writer.flush();
+         }
+      }
+   }
+
+   /**
+    * This is used to close the provided writer. The connection is
+    * closed once all of the responses before this writer have been
+    * delivered along with any bytes buffered by this writer. Any
+    * later responses are discarded as the connection is closed.
+    *
+    * @param slot this is the writer that is to be closed
+    */
+   synchronized void close(PipelineWriter slot) throws IOException {
+      slot.terminate();
+      advance();
+   }
+
+   /**
+    * This is used to wait for the earlier responses to be delivered.
+    * A writer that can buffer no more bytes, or that has a region of
+    * a file to send, waits here until it is at the head of the
+    * pipeline, or until the connection closes.
+    *
+    * @param slot this is the writer that is waiting for the head
+    */
+   private void await(PipelineWriter slot) throws IOException {
+      while(!closed && queue.peekFirst() != slot) {
+         try {
+            wait();
+         } catch(InterruptedException e) {
+            throw new TransportException("Interrupted waiting for earlier responses");
+         }
+      }
+   }
+
+   /**
+    * This is used to deliver the buffered responses that are now at
+    * the head of the pipeline. Each finished writer is removed and
+    * the bytes buffered by the writer behind it are delivered. If a
+    * closed writer reaches the head the connection is closed, and the
+    * bytes buffered for any later responses are discarded.
+    */
+   private void advance() throws IOException {
+      try {
+         deliver();
+      } finally {
+         notifyAll();
+      }
+   }
+
+   /**
+    * This is used to deliver the buffered responses that are now at
+    * the head of the pipeline. Any writers waiting for the head must
+    * be notified once this has completed, as the head may be new.
+    */
+   private void deliver() throws IOException {
+      while(!closed && !queue.isEmpty()) {
+         PipelineWriter head = queue.getFirst();
+
+         if(head.isClosed()) {
+            for(PipelineWriter slot : queue) {
+               slot.release();
+            }
+            queue.clear();
+            closed = true;
+            writer.close();
+         } else if(head.isFinished()) {
+            queue.removeFirst();
+
+            if(!queue.isEmpty()) {
+               PipelineWriter next = queue.getFirst();
+               next.drain(writer);
+            }
+            writer.flush();
+         } else {
+            break;
+         }
+      }
+   }
+
+   /**
+    * This is used to determine if the request can be pipelined. Only
+    * GET and HEAD requests on a persistent connection that do not
+    * ask to upgrade the connection are read ahead of their response.
+    * A request with a body is not, as the body may still be arriving.
+    *
+    * @param header this is the header of the request to evaluate
+    *
+    * @return this returns true if the next request can be read
+    */
+   private boolean isPipelined(Header header) {
+      String method = header.getMethod();
+      String upgrade = header.getValue(UPGRADE);
+      String token = header.getValue(CONNECTION);
+
+      if(upgrade != null) {
+         return false;
+      }
+      if(!method.equals(GET) && !method.equals(HEAD)) {
+         return false;
+      }
+      if(header.getContentLength() > 0 || header.getTransferEncoding() != null) {
+         return false;
+      }
+      if(token != null) {
+         return token.equalsIgnoreCase(KEEP_ALIVE);
+      }
+      int major = header.getMajor();
+      int minor = header.getMinor();
+
+      if(major == 1) {
+         return minor > 0;
+      }
+      return major > 1;
+   }
+}
@@ -0,0 +1,144 @@
+/*
+ * PipelineChannel.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.core;
+
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+
+import org.simpleframework.transport.ByteCursor;
+import org.simpleframework.transport.ByteWriter;
+import org.simpleframework.transport.Certificate;
+import org.simpleframework.transport.Channel;
+import org.simpleframework.transport.trace.Trace;
+
+/**
+ * The <code>PipelineChannel</code> represents the channel used for a
+ * single request on a pipelined connection. Everything is delegated
+ * to the channel for the connection apart from the writer, which is
+ * unique to the request so that its response can be sequenced with
+ * the responses to the other requests on the connection.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.core.Pipeline
+ */
+class PipelineChannel implements Channel {
+
+   /**
+    * This is the writer used to sequence the response.
+    */
+   private final ByteWriter writer;
+
+   /**
+    * This is the channel for the underlying connection.
+    */
+   private final Channel channel;
+
+   /**
+    * Constructor for the <code>PipelineChannel</code> object. This
+    * creates a channel that reads from the connection channel but
+    * which writes the response using the writer provided.
+    *
+    * @param channel this is the channel for the connection
+    * @param writer this is the writer used for the response
+    */
+   public PipelineChannel(Channel channel, ByteWriter writer) {
+      this.channel = channel;
+      this.writer = writer;
+   }
+
+   /**
+    * This is used to determine if the channel is secure and that
+    * data read from and data written to the request is encrypted.
+    *
+    * @return true if this is secure for reading and writing
+    */
+   public boolean isSecure() {
+      return channel.isSecure();
+   }
+
+   /**
+    * This is used to acquire the SSL certificate used for security,
+    * which is the certificate provided for the connection.
+    *
+    * @return this returns the certificate for the connection
+    */
+   public Certificate getCertificate() {
+      return channel.getCertificate();
+   }
+
+   /**
+    * This is used to acquire the trace for the connection. All of
+    * the requests on the connection share the same trace.
+    *
+    * @return this returns the trace for the connection
+    */
+   public Trace getTrace() {
+      return channel.getTrace();
+   }
+
+   /**
+    * This is the connected socket channel for the connection. It is
+    * shared by all of the requests read from the connection.
+    *
+    * @return this returns the socket for the connection
+    */
+   public SocketChannel getSocket() {
+      return channel.getSocket();
+   }
+
+   /**
+    * This returns the attributes for the connection. These are the
+    * same for every request that is read from the connection.
+    *
+    * @return this returns the attributes for the connection
+    */
+   public Map getAttributes() {
+      return channel.getAttributes();
+   }
+
+   /**
+    * This returns the cursor used to read from the connection. The
+    * requests on the connection are read in turn from this cursor.
+    *
+    * @return this returns the cursor for the connection
+    */
+   public ByteCursor getCursor() {
+      return channel.getCursor();
+   }
+
+   /**
+    * This returns the writer used to deliver the response. Unlike
+    * the other resources this is unique to the request, as it must
+    * wait for the responses to earlier requests to be delivered.
+    *
+    * @return this returns the writer for the response
+    */
+   public ByteWriter getWriter() {
+      return writer;
+   }
+
+   /**
+    * This closes the connection immediately. Any responses that are
+    * waiting to be delivered on the connection are discarded.
+    */
+   public void close() {
+      channel.close();
+   }
+}
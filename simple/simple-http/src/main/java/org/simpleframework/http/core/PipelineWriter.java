@@ -0,0 +1,323 @@
+/*
+ * PipelineWriter.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.core;
+
+import static org.simpleframework.common.buffer.MemoryCategory.RESPONSE;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.simpleframework.common.buffer.MemoryBudget;
+import org.simpleframework.transport.ByteWriter;
+
+/**
+ * The <code>PipelineWriter</code> is used to write the response for
+ * a single request on a pipelined connection. If the writer is not at
+ * the head of the pipeline the bytes written are buffered, and are
+ * only delivered once the responses to all of the earlier requests
+ * on the connection have been delivered. No more than a fixed number
+ * of bytes are buffered, and these are charged to the budget until
+ * they have been delivered. Regions of a file are never buffered.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.core.Pipeline
+ */
+class PipelineWriter implements ByteWriter {
+
+   /**
+    * This is the pipeline used to sequence the response.
+    */
+   private final Pipeline pipeline;
+
+   /**
+    * This is the budget that the buffered bytes are charged to.
+    */
+   private final MemoryBudget budget;
+
+   /**
+    * This contains the bytes written while waiting on the head.
+    */
+   private byte[] buffer;
+
+   /**
+    * This determines if the response has completed successfully.
+    */
+   private boolean finished;
+
+   /**
+    * This determines if the connection is to close after this.
+    */
+   private boolean closed;
+
+   /**
+    * This is the number of bytes that have been buffered.
+    */
+   private int count;
+
+   /**
+    * This is the maximum number of bytes that can be buffered.
+    */
+   private final int limit;
+
+   /**
+    * Constructor for the <code>PipelineWriter</code> object. This is
+    * used to create a writer that is sequenced by the pipeline given.
+    * No memory is allocated for buffering until bytes are written
+    * while the writer is waiting behind an earlier response.
+    *
+    * @param pipeline this is the pipeline used for sequencing
+    */
+   public PipelineWriter(Pipeline pipeline) {
+      this(pipeline, null, 8192);
+   }
+
+   /**
+    * Constructor for the <code>PipelineWriter</code> object. This is
+    * used to create a writer that is sequenced by the pipeline given.
+    * While waiting behind an earlier response this will buffer up to
+    * the limit given, charging the memory it holds to the budget.
+    *
+    * @param pipeline this is the pipeline used for sequencing
+    * @param budget this is the budget to charge buffered bytes to
+    * @param limit this is the maximum number of bytes to buffer
+    */
+   public PipelineWriter(Pipeline pipeline, MemoryBudget budget, int limit) {
+      this.pipeline = pipeline;
+      this.budget = budget;
+      this.limit = limit;
+   }
+
+   /**
+    * This is used to write the bytes for the response. If the writer
+    * is not at the head of the pipeline then the bytes are buffered
+    * until the earlier responses have been delivered.
+    *
+    * @param array this is the array of bytes to be written
+    */
+   public void write(byte[] array) throws IOException {
+      write(array, 0, array.length);
+   }
+
+   /**
+    * This is used to write the bytes for the response. If the writer
+    * is not at the head of the pipeline then the bytes are buffered
+    * until the earlier responses have been delivered.
+    *
+    * @param array this is the array of bytes to be written
+    * @param off this is the offset within the array to write from
+    * @param len this is the number of bytes that are to be written
+    */
+   public void write(byte[] array, int off, int len) throws IOException {
+      if(len > 0) {
+         pipeline.write(this, array, off, len);
+      }
+   }
+
+   /**
+    * This is used to write the remaining bytes in the buffer. As
+    * with the underlying transport writer the bytes are taken from
+    * the current position of the buffer up to its limit.
+    *
+    * @param data this is the buffer containing the bytes to write
+    */
+   public void write(ByteBuffer data) throws IOException {
+      write(data, 0, data.remaining());
+   }
+
+   /**
+    * This is used to write bytes from the buffer. The bytes are
+    * taken from the current position of the buffer, and at most the
+    * specified number of bytes are written, which is consistent with
+    * the way the transport writer consumes a buffer.
+    *
+    * @param data this is the buffer containing the bytes to write
+    * @param off this is unused as bytes are read from the position
+    * @param len this is the maximum number of bytes to write
+    */
+   public void write(ByteBuffer data, int off, int len) throws IOException {
+      int size = Math.min(len, data.remaining());
+
+      if(data.hasArray()) {
+         int mark = data.position();
+         int start = data.arrayOffset() + mark;
+
+         write(data.array(), start, size);
+         data.position(mark + size);
+      } else {
+         byte[] array = new byte[size];
+
+         data.get(array);
+         write(array, 0, size);
+      }
+   }
+
+   /**
+    * This is used to write a region of a file for the response. The
+    * region is never read in to memory, instead if the writer is not 
+    * at the head of the pipeline this waits until it is, and then the
+    * region is sent directly to the connection.
+    *
+    * @param file this is the file containing the region to write
+    * @param position this is the position within the file to write
+    * @param length this is the number of bytes that are to be written
+    */
+   public void write(FileChannel file, long position, long length) throws IOException {
+      if(length > 0) {
+         pipeline.write(this, file, position, length);
+      }
+   }
+
+   /**
+    * This is used to flush the response. The connection is flushed
+    * only if this writer is at the head of the pipeline, otherwise
+    * the bytes are flushed once the earlier responses are delivered.
+    */
+   public void flush() throws IOException {
+      pipeline.flush(this);
+   }
+
+   /**
+    * This is used to close the connection once this response, and
+    * all of the responses to earlier requests, have been delivered.
+    * Responses to any later requests are discarded.
+    */
+   public void close() throws IOException {
+      pipeline.close(this);
+   }
+
+   /**
+    * This is used to buffer bytes written while the writer is waiting
+    * behind an earlier response. The buffer grows as required up to
+    * the limit, and any growth is charged to the budget. If the limit
+    * has been reached fewer bytes than requested are buffered.
+    *
+    * @param array this is the array of bytes to be buffered
+    * @param off this is the offset within the array to read from
+    * @param len this is the number of bytes that are to be buffered
+    *
+    * @return this returns the number of bytes that were buffered
+    */
+   int append(byte[] array, int off, int len) {
+      int size = Math.min(len, limit - count);
+
+      if(size > 0) {
+         expand(count + size);
+         System.arraycopy(array, off, buffer, count, size);
+         count += size;
+      }
+      return Math.max(size, 0);
+   }
+
+   /**
+    * This is used to expand the buffer so that it can hold at least
+    * the number of bytes given. The buffer is doubled in size where
+    * possible, however it is never larger than the limit. Only the
+    * memory added to the buffer is charged to the budget.
+    *
+    * @param capacity this is the minimum capacity of the buffer
+    */
+   private void expand(int capacity) {
+      int length = buffer == null ? 0 : buffer.length;
+
+      if(capacity > length) {
+         int size = Math.max(capacity, Math.min(limit, Math.max(length * 2, 1024)));
+         byte[] copy = new byte[size];
+
+         if(count > 0) {
+            System.arraycopy(buffer, 0, copy, 0, count);
+         }
+         if(budget != null) {
+            budget.charge(RESPONSE, size - length);
+         }
+         buffer = copy;
+      }
+   }
+
+   /**
+    * This is used to deliver any buffered bytes once this writer has
+    * reached the head of the pipeline. After this any bytes written
+    * go directly to the connection, so the buffer is released.
+    *
+    * @param writer this is the writer for the connection
+    */
+   void drain(ByteWriter writer) throws IOException {
+      try {
+         if(count > 0) {
+            writer.write(buffer, 0, count);
+         }
+      } finally {
+         release();
+      }
+   }
+
+   /**
+    * This is used to release the buffer held by the writer. If the
+    * buffer was charged to a budget the charge is released so that
+    * reading can resume on any connections suspended by the budget.
+    */
+   void release() {
+      if(buffer != null && budget != null) {
+         budget.release(RESPONSE, buffer.length);
+      }
+      buffer = null;
+      count = 0;
+   }
+
+   /**
+    * This is used to record that the response has completed. Once a
+    * finished writer reaches the head of the pipeline it is removed
+    * so that the writer behind it can deliver its response.
+    */
+   void finish() {
+      finished = true;
+   }
+
+   /**
+    * This is used to record that the connection is to be closed once
+    * this writer reaches the head of the pipeline, which happens when
+    * the response requires the connection to close, or on error.
+    */
+   void terminate() {
+      closed = true;
+   }
+
+   /**
+    * This is used to determine if the response has completed. A
+    * finished writer is removed from the pipeline when it reaches
+    * the head so that the next response can be delivered.
+    *
+    * @return this returns true if the response has completed
+    */
+   boolean isFinished() {
+      return finished;
+   }
+
+   /**
+    * This is used to determine if the connection is to close after
+    * this response. If so then once this reaches the head of the
+    * pipeline the connection is closed.
+    *
+    * @return this returns true if the connection is to close
+    */
+   boolean isClosed() {
+      return closed;
+   }
+}
@@ -21,11 +21,15 @@ package org.simpleframework.http.core;
 import static org.simpleframework.http.Protocol.APPLICATION;
 import static org.simpleframework.http.Protocol.URL_ENCODED;
 
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
 import org.simpleframework.http.ContentType;
 import org.simpleframework.http.Query;
 import org.simpleframework.http.Request;
 import org.simpleframework.http.message.Entity;
 import org.simpleframework.http.message.Header;
+import org.simpleframework.http.parse.QueryIndex;
 
 /**
  * The <code>QueryBuilder</code> object is used to create the query. 
@@ -33,6 +37,10 @@ import org.simpleframework.http.message.Header;
  * sent. The application/x-www-form-urlencoded conent type identifies
  * the body as contain form data. If there are duplicates then they
  * both are available from the query that is built.
+ * <p>
+ * A form post body is always buffered, even if request bodies are
+ * streamed to the container, so reading the parameters here does
+ * not consume the body that the container may also want to read.
  * 
  * @author Niall Gallagher
  */
@@ -81,34 +89,45 @@ class QueryBuilder {
     * This method is used to acquire the query part from the HTTP 
     * request URI target and a form post if it exists. Both the 
     * query and the form post are merge together in a single query.
+    * The form post is indexed as it is read from the body, and its
+    * parameters are only decoded when they are requested.
     * 
     * @param query this is the URI query string to be used
     * 
     * @return the query associated with the HTTP target URI
     */   
    private Query getQuery(Query query) {
-      String body = getContent(); 
-      
-      if(body == null) {
+      try {
+         String charset = getCharset();
+         
+         if(Charset.isSupported(charset)) {
+            InputStream source = request.getInputStream(); 
+         
+            if(source != null) {
+               return new QueryIndex(query, source, charset);
+            }
+         }
+      } catch(Exception e) {
          return query;
       }
-      return new QueryCombiner(query, body);
+      return query;
    }
    
    /**
-    * This method attempts to acquire the content of the  request
-    * body. If there is an <code>IOException</code> acquiring the
-    * content of the body then this will simply return a null
-    * value without reporting the exception.
+    * This is used to determine the character set of the form post.
+    * If the content type does not specify a charset then the body
+    * is taken to be ISO-8859-1, as it is for the request content.
     * 
-    * @return the content of the body, or null on error
+    * @return this returns the character set of the form post
     */
-   private String getContent() {
-      try {
-         return request.getContent();
-      } catch(Exception e) {
-         return null;
+   private String getCharset() {
+      ContentType type = request.getContentType();
+      String charset = type.getCharset();
+      
+      if(charset == null) {
+         return "ISO-8859-1";
       }
+      return charset;
    }
    
    /**
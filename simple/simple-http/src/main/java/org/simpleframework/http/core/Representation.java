@@ -0,0 +1,251 @@
+/*
+ * Representation.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+
+package org.simpleframework.http.core;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The <code>Representation</code> represents a single encoded form of
+ * a cached resource. Each form, such as the identity bytes or the bytes
+ * compressed with <code>gzip</code>, is held as a separate representation
+ * with its own entity tag, so that a client is only ever told the two
+ * forms are the same when the bytes it receives are the same. 
+ * <p>
+ * Along with the bytes the status and the headers of the response 
+ * that produced them are held, so that the response can be replayed
+ * in full. The time the form was cached and the time it expires are
+ * also held, so that it is only ever sent while it is still fresh.
+ * <p>
+ * The bytes are held in a read only buffer. This may be a buffer on
+ * the heap, or for a large representation a buffer mapped from a file,
+ * so that the content is not held within the heap at all.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.core.RepresentationCache
+ */
+class Representation {
+
+   /**
+    * This is the read only buffer containing the encoded bytes.
+    */
+   private final ByteBuffer data;
+
+   /**
+    * These are the headers of the response that are to be replayed.
+    */
+   private final Map<String, List<String>> headers;
+
+   /**
+    * This is the description of the status of the response.
+    */
+   private final String text;
+
+   /**
+    * This is the content coding used or null for the identity.
+    */
+   private final String coding;
+
+   /**
+    * This is the entity tag that identifies the encoded bytes.
+    */
+   private final String tag;
+
+   /**
+    * This determines if the resource has several encoded forms.
+    */
+   private final boolean varied;
+
+   /**
+    * This is the time the resource was last modified.
+    */
+   private final long modified;
+
+   /**
+    * This is the time the resource was produced and cached.
+    */
+   private final long created;
+
+   /**
+    * This is the time after which the resource is stale.
+    */
+   private final long expiry;
+
+   /**
+    * This is the status code of the response that was cached.
+    */
+   private final int code;
+
+   /**
+    * Constructor for the <code>Representation</code> object. This is
+    * used to create an encoded form of a resource from the buffer of
+    * bytes that has been produced for it.
+    *
+    * @param data this is the buffer containing the encoded bytes
+    * @param headers these are the response headers to be replayed
+    * @param code this is the status code of the response
+    * @param text this is the description of the response status
+    * @param coding this is the content coding used or null
+    * @param tag this is the entity tag for the encoded bytes
+    * @param varied this determines if the resource has other forms
+    * @param modified this is the time the resource was modified
+    * @param created this is the time the resource was cached
+    * @param expiry this is the time the resource becomes stale
+    */
+   public Representation(ByteBuffer data, Map<String, List<String>> headers, int code, String text, String coding, String tag, boolean varied, long modified, long created, long expiry) {
+      this.data = data.asReadOnlyBuffer();
+      this.modified = modified;
+      this.created = created;
+      this.headers = headers;
+      this.expiry = expiry;
+      this.coding = coding;
+      this.varied = varied;
+      this.code = code;
+      this.text = text;
+      this.tag = tag;
+   }
+
+   /**
+    * This provides the encoded bytes for the representation. Each
+    * caller is given its own view of the bytes, so that they can be
+    * written concurrently to several connections at once.
+    *
+    * @return this returns a buffer containing the encoded bytes
+    */
+   public ByteBuffer getData() {
+      return data.duplicate();
+   }
+
+   /**
+    * This provides the number of encoded bytes. This is the value of
+    * the <code>Content-Length</code> sent with the representation.
+    *
+    * @return this returns the number of bytes that are encoded
+    */
+   public int getLength() {
+      return data.remaining();
+   }
+
+   /**
+    * This provides the headers of the response that was cached. The
+    * headers that describe how the bytes were framed and encoded are
+    * not included, as they are set for each form when it is sent.
+    *
+    * @return this returns the headers that are to be replayed
+    */
+   public Map<String, List<String>> getHeaders() {
+      return headers;
+   }
+
+   /**
+    * This provides the status code of the response that was cached.
+    * This is typically 200, however other responses that are allowed
+    * to be cached, such as a 404 or a 301, are replayed in the same way.
+    *
+    * @return this returns the status code of the response
+    */
+   public int getCode() {
+      return code;
+   }
+
+   /**
+    * This provides the description of the status of the response.
+    * This is replayed so that the status line is the same as the
+    * one that was sent when the response was first produced.
+    *
+    * @return this returns the description of the status
+    */
+   public String getDescription() {
+      return text;
+   }
+
+   /**
+    * This provides the content coding that has been applied to the
+    * bytes. If the bytes are the identity form this returns null.
+    *
+    * @return this returns the content coding that was applied
+    */
+   public String getCoding() {
+      return coding;
+   }
+
+   /**
+    * This provides the entity tag for the encoded bytes. As a strong
+    * tag this differs between each of the forms of a resource.
+    *
+    * @return this returns the entity tag for the representation
+    */
+   public String getTag() {
+      return tag;
+   }
+
+   /**
+    * This provides the time the resource was last modified. If the 
+    * response did not declare a time this is the time it was cached,
+    * so that a client can revalidate the resource with a date.
+    *
+    * @return this returns the time the resource was modified
+    */
+   public long getModified() {
+      return modified;
+   }
+
+   /**
+    * This provides the number of seconds since the resource was 
+    * cached. This is sent to the client so that it can determine
+    * how much longer its own copy of the resource remains fresh.
+    *
+    * @param time this is the time the resource is being sent
+    *
+    * @return this returns the age of the resource in seconds
+    */
+   public long getAge(long time) {
+      if(time > created) {
+         return (time - created) / 1000;
+      }
+      return 0;
+   }
+
+   /**
+    * This determines if the resource is stale at the time given. A
+    * stale resource must not be sent from the cache, it must instead
+    * be produced again by the container.
+    *
+    * @param time this is the time the resource is to be sent
+    *
+    * @return this returns true if the resource is no longer fresh
+    */
+   public boolean isExpired(long time) {
+      return time >= expiry;
+   }
+
+   /**
+    * This determines if there is more than one form of the resource.
+    * If so then the response must declare that it varies with the
+    * content codings that are accepted by the client.
+    *
+    * @return this returns true if there are several encoded forms
+    */
+   public boolean isVaried() {
+      return varied;
+   }
+}
@@ -0,0 +1,417 @@
+/*
+ * RepresentationCache.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+
+package org.simpleframework.http.core;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.simpleframework.common.cache.ConcurrentCache;
+
+/**
+ * The <code>RepresentationCache</code> is used to hold the encoded forms
+ * of resources in memory. Each form is keyed by the identity of the 
+ * resource, the request headers it varies by, and its content coding,
+ * so that a compressed form can be sent directly without compressing
+ * the resource again. The total size of the forms held is bounded
+ * by a budget, and once the budget is exceeded the forms that were
+ * least recently used are evicted.
+ * <p>
+ * Small forms are held on the heap. A form at or above the mapping 
+ * threshold is written to a temporary file which is then mapped in to
+ * memory, so large resources are held by the operating system rather
+ * than occupying the heap. Such files are deleted once mapped.
+ * <p>
+ * A form is only provided while it is fresh. Once it has expired it
+ * is evicted when it is next looked up. The number of lookups that 
+ * were answered, the number that were not, and the number of forms 
+ * evicted are counted so that the effectiveness of the cache can be
+ * monitored while the server is running.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.core.RepresentationContainer
+ */
+public class RepresentationCache {
+
+   /**
+    * This contains the cached forms ordered by their last use.
+    */
+   private final Map<String, Representation> forms;
+
+   /**
+    * This contains the headers each resource was found to vary by.
+    */
+   private final ConcurrentCache<String, String> variants;
+
+   /**
+    * This is the maximum number of bytes the cache can hold.
+    */
+   private final long budget;
+
+   /**
+    * This is the size of the largest form that can be cached.
+    */
+   private final int limit;
+
+   /**
+    * This is the size at which forms are mapped from a file.
+    */
+   private final int map;
+
+   /**
+    * This is the number of bytes held by the cached forms.
+    */
+   private long size;
+
+   /**
+    * This is the number of lookups that found a fresh form.
+    */
+   private long hits;
+
+   /**
+    * This is the number of lookups that found no fresh form.
+    */
+   private long misses;
+
+   /**
+    * This is the number of forms that have been evicted.
+    */
+   private long evictions;
+
+   /**
+    * Constructor for the <code>RepresentationCache</code> object. This
+    * creates a cache with a budget of sixty four megabytes, where no
+    * form larger than one megabyte is cached.
+    */
+   public RepresentationCache() {
+      this(67108864);
+   }
+
+   /**
+    * Constructor for the <code>RepresentationCache</code> object. This
+    * creates a cache with the specified budget, where no form larger
+    * than one megabyte is cached.
+    *
+    * @param budget this is the maximum number of bytes to cache
+    */
+   public RepresentationCache(long budget) {
+      this(budget, 1048576);
+   }
+
+   /**
+    * Constructor for the <code>RepresentationCache</code> object. This
+    * creates a cache with the specified budget, where forms of more 
+    * than a quarter of a megabyte are mapped from a file.
+    *
+    * @param budget this is the maximum number of bytes to cache
+    * @param limit this is the size of the largest form to cache
+    */
+   public RepresentationCache(long budget, int limit) {
+      this(budget, limit, 262144);
+   }
+
+   /**
+    * Constructor for the <code>RepresentationCache</code> object. This
+    * creates a cache with the specified budget and mapping threshold.
+    * A form as large as the threshold is held in a mapped file.
+    *
+    * @param budget this is the maximum number of bytes to cache
+    * @param limit this is the size of the largest form to cache
+    * @param map this is the size at which a form is mapped
+    */
+   public RepresentationCache(long budget, int limit, int map) {
+      this.forms = new LinkedHashMap<String, Representation>(16, 0.75f, true);
+      this.variants = new ConcurrentCache<String, String>(4096);
+      this.budget = budget;
+      this.limit = limit;
+      this.map = map;
+   }
+
+   /**
+    * This provides the size of the largest form that can be cached.
+    * A resource larger than this is never captured for caching.
+    *
+    * @return this returns the size of the largest cached form
+    */
+   public int getLimit() {
+      return limit;
+   }
+
+   /**
+    * This provides the number of bytes held by the cached forms. This
+    * will never exceed the budget for the cache.
+    *
+    * @return this returns the number of bytes that are cached
+    */
+   public synchronized long getSize() {
+      return size;
+   }
+
+   /**
+    * This provides the number of forms held within the cache. Each 
+    * encoded form of a resource is counted separately.
+    *
+    * @return this returns the number of forms that are cached
+    */
+   public synchronized int getCount() {
+      return forms.size();
+   }
+
+   /**
+    * This provides the number of lookups that were answered with a
+    * fresh form. Each request answered from the cache, including a
+    * request that was answered as not modified, counts as a hit.
+    *
+    * @return this returns the number of lookups that were answered
+    */
+   public synchronized long getHits() {
+      return hits;
+   }
+
+   /**
+    * This provides the number of lookups that found no fresh form. A
+    * request that misses is produced by the wrapped container.
+    *
+    * @return this returns the number of lookups that missed
+    */
+   public synchronized long getMisses() {
+      return misses;
+   }
+
+   /**
+    * This provides the number of forms that have been evicted. A form
+    * is evicted to make space for another, or when it is found to be
+    * stale. Forms removed when the cache is cleared are not counted.
+    *
+    * @return this returns the number of forms that were evicted
+    */
+   public synchronized long getEvictions() {
+      return evictions;
+   }
+
+   /**
+    * This is used to remove every form from the cache. This should be
+    * used if the resources that have been cached have changed.
+    */
+   public synchronized void clear() {
+      variants.clear();
+      forms.clear();
+      size = 0;
+   }
+
+   /**
+    * This provides the request headers that a resource varies by. If
+    * the response for a resource declared that it varies by a header
+    * then the forms cached for it are keyed by the value of that 
+    * header, so the key for a request can not be known without it.
+    * As this is done for every request it does not lock the cache.
+    *
+    * @param identity this is the identity of the resource
+    *
+    * @return this returns the headers the resource varies by
+    */
+   String getVary(String identity) {
+      return variants.get(identity);
+   }
+
+   /**
+    * This is used to record the request headers a resource varies by.
+    * If the resource does not vary by any header then any record held
+    * for it is removed, so that it is keyed by its identity alone.
+    *
+    * @param identity this is the identity of the resource
+    * @param vary this is the headers the resource varies by or null
+    */
+   void register(String identity, String vary) {
+      if(vary != null) {
+         variants.put(identity, vary);
+      } else {
+         variants.remove(identity);
+      }
+   }
+
+   /**
+    * This is used to find the form of a resource to send. If the form 
+    * with the content coding is not cached then the identity form is
+    * used, as a resource may not benefit from being compressed. Any
+    * form that is found to be stale is evicted rather than returned.
+    *
+    * @param key this is the key the resource was cached under
+    * @param coding this is the content coding that is preferred
+    * @param time this is the time the form is to be sent
+    *
+    * @return this returns the form to send or null if not cached
+    */
+   synchronized Representation lookup(String key, String coding, long time) {
+      Representation form = find(key, coding, time);
+
+      if(form != null) {
+         hits++;
+      } else {
+         misses++;
+      }
+      return form;
+   }
+
+   /**
+    * This is used to find the form of a resource to send. The form
+    * with the content coding is preferred, however if there is no
+    * fresh form with the coding then the identity form is used.
+    *
+    * @param key this is the key the resource was cached under
+    * @param coding this is the content coding that is preferred
+    * @param time this is the time the form is to be sent
+    *
+    * @return this returns the form to send or null if not cached
+    */
+   private Representation find(String key, String coding, long time) {
+      if(coding != null) {
+         Representation form = fetch(key + " " + coding, time);
+
+         if(form != null) {
+            return form;
+         }
+      }
+      return fetch(key, time);
+   }
+
+   /**
+    * This is used to fetch the form cached under the given key. If 
+    * the form has expired then it is evicted and this returns null.
+    *
+    * @param key this is the key the form was cached under
+    * @param time this is the time the form is to be sent
+    *
+    * @return this returns the form if it is fresh or null
+    */
+   private Representation fetch(String key, long time) {
+      Representation form = forms.get(key);
+
+      if(form != null && form.isExpired(time)) {
+         forms.remove(key);
+         size -= form.getLength();
+         evictions++;
+         return null;
+      }
+      return form;
+   }
+
+   /**
+    * This is used to cache a form of a resource. If caching the form 
+    * would exceed the budget then the least recently used forms are
+    * evicted until there is enough space to hold it.
+    *
+    * @param key this is the key the resource is cached under
+    * @param form this is the encoded form that is to be cached
+    */
+   synchronized void store(String key, Representation form) {
+      String coding = form.getCoding();
+      String name = coding == null ? key : key + " " + coding;
+      Representation existing = forms.remove(name);
+      int length = form.getLength();
+
+      if(existing != null) {
+         size -= existing.getLength();
+      }
+      if(length <= budget) {
+         evict(budget - length);
+         forms.put(name, form);
+         size += length;
+      }
+   }
+
+   /**
+    * This is used to evict the least recently used forms until the
+    * bytes held within the cache is no more than the size given.
+    *
+    * @param require this is the size the cache must be reduced to
+    */
+   private void evict(long require) {
+      Iterator<Representation> iterator = forms.values().iterator();
+
+      while(size > require && iterator.hasNext()) {
+         Representation form = iterator.next();
+
+         size -= form.getLength();
+         iterator.remove();
+         evictions++;
+      }
+   }
+
+   /**
+    * This is used to create a buffer to hold the bytes of a form. If
+    * the bytes are at least the mapping threshold they are written to
+    * a file which is mapped, otherwise they are copied to the heap.
+    *
+    * @param data this is the array containing the bytes of the form
+    * @param length this is the number of bytes within the array
+    *
+    * @return this returns a buffer that holds the bytes given
+    */
+   ByteBuffer allocate(byte[] data, int length) {
+      if(length >= map) {
+         try {
+            return map(data, length);
+         } catch(Exception e) {
+            throw new IllegalStateException("Could not map representation", e);
+         }
+      }
+      byte[] copy = new byte[length];
+
+      System.arraycopy(data, 0, copy, 0, length);
+      return ByteBuffer.wrap(copy);
+   }
+
+   /**
+    * This is used to write the bytes of a form to a temporary file
+    * and map the file in to memory. The file is deleted once it has
+    * been mapped, as the mapping remains valid until it is collected.
+    * Should the platform not allow this it is deleted on exit.
+    *
+    * @param data this is the array containing the bytes of the form
+    * @param length this is the number of bytes within the array
+    *
+    * @return this returns a buffer mapped from the written file
+    */
+   private ByteBuffer map(byte[] data, int length) throws Exception {
+      File file = File.createTempFile("cache", null);
+      RandomAccessFile access = new RandomAccessFile(file, "rw");
+
+      try {
+         FileChannel channel = access.getChannel();
+
+         access.write(data, 0, length);
+         return channel.map(READ_ONLY, 0, length);
+      } finally {
+         access.close();
+
+         if(!file.delete()) {
+            file.deleteOnExit();
+         }
+      }
+   }
+}
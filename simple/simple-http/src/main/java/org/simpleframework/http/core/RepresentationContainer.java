@@ -0,0 +1,900 @@
+/*
+ * RepresentationContainer.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+
+package org.simpleframework.http.core;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static org.simpleframework.http.Method.GET;
+import static org.simpleframework.http.Method.HEAD;
+import static org.simpleframework.http.Protocol.ACCEPT_ENCODING;
+import static org.simpleframework.http.Protocol.AGE;
+import static org.simpleframework.http.Protocol.AUTHORIZATION;
+import static org.simpleframework.http.Protocol.CACHE_CONTROL;
+import static org.simpleframework.http.Protocol.CONNECTION;
+import static org.simpleframework.http.Protocol.CONTENT_ENCODING;
+import static org.simpleframework.http.Protocol.CONTENT_LENGTH;
+import static org.simpleframework.http.Protocol.COOKIE;
+import static org.simpleframework.http.Protocol.DATE;
+import static org.simpleframework.http.Protocol.ETAG;
+import static org.simpleframework.http.Protocol.EXPIRES;
+import static org.simpleframework.http.Protocol.HOST;
+import static org.simpleframework.http.Protocol.IF_MODIFIED_SINCE;
+import static org.simpleframework.http.Protocol.IF_NONE_MATCH;
+import static org.simpleframework.http.Protocol.LAST_MODIFIED;
+import static org.simpleframework.http.Protocol.SET_COOKIE;
+import static org.simpleframework.http.Protocol.TRANSFER_ENCODING;
+import static org.simpleframework.http.Protocol.VARY;
+import static org.simpleframework.http.Status.NOT_MODIFIED;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import org.simpleframework.http.Request;
+import org.simpleframework.http.Response;
+
+/**
+ * The <code>RepresentationContainer</code> is used to serve resources 
+ * from a <code>RepresentationCache</code>. When a resource is requested
+ * for the first time it is produced by the wrapped container, and if 
+ * the response is marked as cacheable its identity form along with a
+ * compressed form are cached. Subsequent requests are answered from 
+ * the cache with the form that suits the client, with an exact length,
+ * without the wrapped container being invoked.
+ * <pre>
+ * 
+ *    Container container = new RepresentationContainer(resources);
+ *    SocketProcessor server = new ContainerSocketProcessor(container);
+ * 
+ * </pre>
+ * A response is cacheable if it has a status of 200, or another 
+ * status that can be cached such as 404, and a <code>Cache-Control</code>
+ * header that allows it to be shared, such as <code>public</code> or
+ * <code>max-age=3600</code>, and if it sets no cookies. Any container
+ * can mark its responses in this way to have them cached, regardless
+ * of how the content was produced.
+ * <p>
+ * As the cache is shared by all clients, a request that carries an
+ * <code>Authorization</code> or <code>Cookie</code> header is only
+ * answered from the cache, and its response is only cached, if the
+ * response is marked <code>public</code> or has an explicit shared
+ * maximum age with <code>s-maxage</code>. Otherwise such a request is
+ * always given to the wrapped container, so that any check it makes
+ * on the credentials of the client is not bypassed.
+ * <p>
+ * The status, headers, and body of the response are cached and are
+ * replayed until the response is stale, as determined by its maximum
+ * age or its expiry date. If the response varies by request headers
+ * a form is cached for each of their values. A conditional request 
+ * with an <code>If-None-Match</code> or <code>If-Modified-Since</code>
+ * header that matches a cached form is answered with a 304 response.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.core.RepresentationCache
+ */
+public class RepresentationContainer implements Container {
+
+   /**
+    * These are the headers that are set when a form is sent.
+    */
+   private static final String[] EXCLUDE = {
+      AGE, CONNECTION, CONTENT_ENCODING, CONTENT_LENGTH, DATE,
+      ETAG, LAST_MODIFIED, SET_COOKIE, TRANSFER_ENCODING
+   };
+
+   /**
+    * This is used to determine the coding that the client accepts.
+    */
+   private final CompressionPolicy policy;
+
+   /**
+    * This is the cache that holds the forms of each resource.
+    */
+   private final RepresentationCache cache;
+
+   /**
+    * This is the container used to produce uncached resources.
+    */
+   private final Container container;
+
+   /**
+    * Constructor for the <code>RepresentationContainer</code> object.
+    * This creates a container that caches the resources produced by
+    * the wrapped container in a cache with the default budget.
+    *
+    * @param container this is the container that is to be cached
+    */
+   public RepresentationContainer(Container container) {
+      this(container, new RepresentationCache());
+   }
+
+   /**
+    * Constructor for the <code>RepresentationContainer</code> object.
+    * This creates a container that caches the resources produced by
+    * the wrapped container in the cache provided.
+    *
+    * @param container this is the container that is to be cached
+    * @param cache this is the cache used to hold the resources
+    */
+   public RepresentationContainer(Container container, RepresentationCache cache) {
+      this(container, cache, new CompressionPolicy());
+   }
+
+   /**
+    * Constructor for the <code>RepresentationContainer</code> object.
+    * This creates a container that caches the resources produced by
+    * the wrapped container. The policy determines the content types
+    * that have a compressed form, as well as the codings accepted.
+    *
+    * @param container this is the container that is to be cached
+    * @param cache this is the cache used to hold the resources
+    * @param policy this is the policy used to compress resources
+    */
+   public RepresentationContainer(Container container, RepresentationCache cache, CompressionPolicy policy) {
+      this.container = container;
+      this.policy = policy;
+      this.cache = cache;
+   }
+
+   /**
+    * This is used to serve the request from the cache if possible. If
+    * the resource is not cached then a <code>GET</code> request is given
+    * to the wrapped container with a response that captures the body,
+    * so that it can be cached once the response has been completed.
+    *
+    * @param request this is the request to be serviced
+    * @param response this is the response to the request
+    */
+   public void handle(Request request, Response response) {
+      String method = request.getMethod();
+
+      if(method.equals(GET) || method.equals(HEAD)) {
+         long time = System.currentTimeMillis();
+         String key = getKey(request);
+         String coding = policy.getCoding(request);
+         Representation form = cache.lookup(key, coding, time);
+
+         if(form != null && isShared(request, form)) {
+            try {
+               send(request, response, form, time);
+            } catch(Exception cause) {
+               throw new IllegalStateException("Could not send representation", cause);
+            }
+            return;
+         }
+      }
+      if(method.equals(GET)) {
+         int limit = cache.getLimit();
+         Response capture = new RepresentationResponse(this, request, response, limit);
+
+         container.handle(request, capture);
+      } else {
+         container.handle(request, response);
+      }
+   }
+
+   /**
+    * This is used to complete a response that has been captured. If 
+    * the response can be cached then its forms are created and cached
+    * under a key for the headers it varies by, and the one that suits
+    * the client is sent. Otherwise the bytes captured are sent with
+    * an exact length as they were written.
+    *
+    * @param request this is the request that was serviced
+    * @param response this is the response that was captured
+    * @param data this is the array containing the captured body
+    * @param count this is the number of bytes that were captured
+    */
+   void complete(Request request, Response response, byte[] data, int count) throws IOException {
+      long time = System.currentTimeMillis();
+
+      if(isCacheable(request, response, time)) {
+         String identity = getIdentity(request);
+         String coding = policy.getCoding(request);
+         String vary = response.getValue(VARY);
+         String key = getKey(request, identity, vary);
+         Representation form = store(key, response, data, count, coding, time);
+
+         cache.register(identity, vary);
+         send(request, response, form, time);
+      } else {
+         OutputStream output = response.getOutputStream();
+
+         if(response.getContentLength() < 0) {
+            response.setContentLength(count);
+         }
+         output.write(data, 0, count);
+         output.close();
+      }
+   }
+
+   /**
+    * This is used to create and cache the forms of a resource. The 
+    * identity form is always cached. If the policy considers the type
+    * of content compressible then a <code>gzip</code> form is cached
+    * as well, provided it is smaller than the identity form. The form
+    * returned is the one that suits the content coding given.
+    *
+    * @param key this is the key the resource is cached under
+    * @param response this is the response that was captured
+    * @param data this is the array containing the captured body
+    * @param count this is the number of bytes that were captured
+    * @param coding this is the content coding the client prefers
+    * @param time this is the time the response was completed
+    *
+    * @return this returns the form that is to be sent
+    */
+   private Representation store(String key, Response response, byte[] data, int count, String coding, long time) throws IOException {
+      Map<String, List<String>> headers = getHeaders(response);
+      String text = response.getDescription();
+      String tag = getTag(data, count);
+      long modified = response.getDate(LAST_MODIFIED);
+      long expiry = getExpiry(response, time);
+      int code = response.getCode();
+      byte[] compress = null;
+
+      if(modified < 0) {
+         modified = time;
+      }
+      if(policy.isCompressible(response, count)) {
+         compress = compress(data, count);
+      }
+      if(compress != null && compress.length < count) {
+         ByteBuffer plain = cache.allocate(data, count);
+         ByteBuffer gzip = cache.allocate(compress, compress.length);
+         Representation form = new Representation(plain, headers, code, text, null, "\"" + tag + "\"", true, modified, time, expiry);
+         Representation other = new Representation(gzip, headers, code, text, "gzip", "\"" + tag + "-gzip\"", true, modified, time, expiry);
+
+         cache.store(key, form);
+         cache.store(key, other);
+         
+         if("gzip".equals(coding)) {
+            return other;
+         }
+         return form;
+      }
+      ByteBuffer plain = cache.allocate(data, count);
+      Representation form = new Representation(plain, headers, code, text, null, "\"" + tag + "\"", false, modified, time, expiry);
+
+      cache.store(key, form);
+      return form;
+   }
+
+   /**
+    * This is used to send a cached form of a resource. The status and
+    * headers of the cached response are replayed, and as the length of
+    * the form is known it is sent with an exact length. For a request
+    * that has a copy matching the form only the validators are sent
+    * with a 304 status, and for a <code>HEAD</code> request no body is
+    * sent at all.
+    *
+    * @param request this is the request for the resource
+    * @param response this is the response to send the form with
+    * @param form this is the cached form that is to be sent
+    * @param time this is the time the form is being sent
+    */
+   private void send(Request request, Response response, Representation form, long time) throws IOException {
+      Map<String, List<String>> headers = form.getHeaders();
+      String method = request.getMethod();
+      String coding = form.getCoding();
+      int code = form.getCode();
+
+      if(code == 200 && !isModified(request, form)) {
+         response.setStatus(NOT_MODIFIED);
+         replay(response, headers, CACHE_CONTROL);
+         replay(response, headers, EXPIRES);
+         replay(response, headers, VARY);
+         describe(response, form, time);
+         response.close();
+      } else {
+         WritableByteChannel channel = response.getByteChannel();
+         ByteBuffer data = form.getData();
+
+         response.setCode(code);
+         response.setDescription(form.getDescription());
+
+         for(String name : headers.keySet()) {
+            replay(response, headers, name);
+         }
+         if(coding != null) {
+            response.setValue(CONTENT_ENCODING, coding);
+         }
+         describe(response, form, time);
+         response.setContentLength(form.getLength());
+
+         if(!method.equals(HEAD)) {
+            while(data.hasRemaining()) {
+               channel.write(data);
+            }
+         }
+         channel.close();
+      }
+   }
+
+   /**
+    * This is used to set the headers that describe the form being
+    * sent. These identify the form with its entity tag and its time 
+    * of modification, declare that the resource varies with accepted
+    * codings if it is compressed, and provide the age of the form.
+    *
+    * @param response this is the response the form is sent with
+    * @param form this is the cached form that is being sent
+    * @param time this is the time the form is being sent
+    */
+   private void describe(Response response, Representation form, long time) {
+      String vary = response.getValue(VARY);
+
+      if(form.isVaried()) {
+         if(vary == null) {
+            response.setValue(VARY, ACCEPT_ENCODING);
+         } else if(vary.toLowerCase().indexOf("accept-encoding") == -1) {
+            response.setValue(VARY, vary + ", " + ACCEPT_ENCODING);
+         }
+      }
+      response.setValue(ETAG, form.getTag());
+      response.setDate(LAST_MODIFIED, form.getModified());
+      response.setLong(AGE, form.getAge(time));
+   }
+
+   /**
+    * This is used to replay the values of a cached header. The values
+    * replace any already set, and are added in the order they were set
+    * on the cached response.
+    *
+    * @param response this is the response the form is sent with
+    * @param headers these are the headers of the cached response
+    * @param name this is the name of the header to be replayed
+    */
+   private void replay(Response response, Map<String, List<String>> headers, String name) {
+      List<String> values = headers.get(name);
+
+      if(values != null) {
+         for(int i = 0; i < values.size(); i++) {
+            if(i == 0) {
+               response.setValue(name, values.get(i));
+            } else {
+               response.addValue(name, values.get(i));
+            }
+         }
+      }
+   }
+
+   /**
+    * This is used to determine if the client requires the form to be
+    * sent. If the client has a copy with an entity tag that matches 
+    * the form, or if it has a copy that is at least as recent as the
+    * form, then the form has not been modified. An entity tag given
+    * by the client takes precedence over any date it has given. If 
+    * the identity form is sent it may be compressed on the way out,
+    * so a tag with the suffix of the coding the client accepts will
+    * also match the identity form.
+    *
+    * @param request this is the request for the resource
+    * @param form this is the cached form that is to be sent
+    *
+    * @return this returns true if the form must be sent in full
+    */
+   private boolean isModified(Request request, Representation form) {
+      List<String> tags = request.getValues(IF_NONE_MATCH);
+      String coding = policy.getCoding(request);
+
+      if(tags.isEmpty()) {
+         long since = request.getDate(IF_MODIFIED_SINCE);
+
+         if(since >= 0) {
+            return form.getModified() / 1000 > since / 1000;
+         }
+         return true;
+      }
+      String match = getOpaque(form.getTag());
+
+      for(String tag : tags) {
+         String value = getOpaque(tag);
+         
+         if(tag.equals("*") || value.equals(match)) {
+            return false;
+         }
+         if(coding != null && form.getCoding() == null) {
+            String suffix = "-" + coding;
+            
+            if(value.equals(match + suffix)) {
+               return false;
+            }
+         }
+      }
+      return true;
+   }
+
+   /**
+    * This is used to determine if the response can be cached. Only
+    * a complete response with a status of 200 that allows itself to
+    * be shared, and that has not already been encoded, is cached.
+    *
+    * @param request this is the request that was serviced
+    * @param response this is the response that was captured
+    *
+    * @return this returns true if the response is to be cached
+    */
+   boolean isCacheable(Request request, Response response) {
+      long time = System.currentTimeMillis();
+      return isCacheable(request, response, time);
+   }
+
+   /**
+    * This is used to determine if the response can be cached. If the
+    * request carried credentials then the response is only cached if
+    * it has explicitly declared that it can be shared with others.
+    *
+    * @param request this is the request that was serviced
+    * @param response this is the response that was captured
+    * @param time this is the time the response is to be cached
+    *
+    * @return this returns true if the response is to be cached
+    */
+   private boolean isCacheable(Request request, Response response, long time) {
+      String control = response.getValue(CACHE_CONTROL);
+
+      if(isCredential(request) && !isShared(control)) {
+         return false;
+      }
+      return isCacheable(response, time);
+   }
+
+   /**
+    * This is used to determine if the response can be cached. As well
+    * as allowing itself to be shared the response must be fresh, and
+    * it must not vary by every header of the request.
+    *
+    * @param response this is the response that was captured
+    * @param time this is the time the response is to be cached
+    *
+    * @return this returns true if the response is to be cached
+    */
+   private boolean isCacheable(Response response, long time) {
+      String control = response.getValue(CACHE_CONTROL);
+      String vary = response.getValue(VARY);
+      int code = response.getCode();
+
+      if(isCacheable(code) && control != null) {
+         String token = control.toLowerCase();
+
+         if(!response.getCookies().isEmpty() || response.getValue(SET_COOKIE) != null) {
+            return false;
+         }
+         if(response.getValue(CONTENT_ENCODING) != null) {
+            return false;
+         }
+         if(token.indexOf("no-store") != -1 || token.indexOf("no-cache") != -1 || token.indexOf("private") != -1) {
+            return false;
+         }
+         if(vary != null && vary.indexOf('*') != -1) {
+            return false;
+         }
+         if(token.indexOf("public") != -1 || token.indexOf("max-age") != -1) {
+            return getExpiry(response, time) > time;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * This is used to determine if a cached form can be sent to the
+    * client that made the request. A form can be sent to any client
+    * that has no credentials, however a client with credentials can
+    * only be sent a form that was explicitly declared to be shared.
+    *
+    * @param request this is the request for the resource
+    * @param form this is the cached form that was found
+    *
+    * @return this returns true if the form can be sent to the client
+    */
+   private boolean isShared(Request request, Representation form) {
+      if(isCredential(request)) {
+         Map<String, List<String>> headers = form.getHeaders();
+
+         for(String name : headers.keySet()) {
+            if(name.equalsIgnoreCase(CACHE_CONTROL)) {
+               for(String control : headers.get(name)) {
+                  if(isShared(control)) {
+                     return true;
+                  }
+               }
+            }
+         }
+         return false;
+      }
+      return true;
+   }
+
+   /**
+    * This is used to determine if a <code>Cache-Control</code> value
+    * explicitly allows the response to be shared by all clients. A
+    * response is shared if it is <code>public</code> or if it has a
+    * shared maximum age given by the <code>s-maxage</code> directive.
+    *
+    * @param control this is the value of the cache control header
+    *
+    * @return this returns true if the response is to be shared
+    */
+   private boolean isShared(String control) {
+      if(control != null) {
+         String token = control.toLowerCase();
+
+         if(token.indexOf("public") != -1 || token.indexOf("s-maxage") != -1) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * This is used to determine if the request carries credentials that
+    * could identify the client. If the request has either credentials
+    * for authorization or cookies then the response it is given may
+    * have been produced specifically for that client.
+    *
+    * @param request this is the request for the resource
+    *
+    * @return this returns true if the request carries credentials
+    */
+   private boolean isCredential(Request request) {
+      if(request.getValue(AUTHORIZATION) != null) {
+         return true;
+      }
+      return request.getValue(COOKIE) != null;
+   }
+
+   /**
+    * This is used to determine if a response with the status given
+    * can be cached. These are the status codes that a cache is able
+    * to reuse when the response has declared that it can be shared.
+    *
+    * @param code this is the status code of the response
+    *
+    * @return this returns true if the status code can be cached
+    */
+   private boolean isCacheable(int code) {
+      switch(code) {
+      case 200: case 203: case 300: case 301: case 404: case 410:
+         return true;
+      default:
+         return false;
+      }
+   }
+
+   /**
+    * This is used to determine the time after which the response is
+    * stale. A shared maximum age takes precedence over the maximum age,
+    * which takes precedence over an expiry date. If none of these are
+    * given the response remains fresh until it is evicted.
+    *
+    * @param response this is the response that was captured
+    * @param time this is the time the response is to be cached
+    *
+    * @return this returns the time after which the response is stale
+    */
+   private long getExpiry(Response response, long time) {
+      String control = response.getValue(CACHE_CONTROL);
+      String token = control.toLowerCase();
+      long age = getAge(token, "s-maxage=");
+
+      if(age < 0) {
+         age = getAge(token, "max-age=");
+      }
+      if(age < 0) {
+         long expires = response.getDate(EXPIRES);
+
+         if(expires >= 0) {
+            return expires;
+         }
+         return Long.MAX_VALUE;
+      }
+      return time + age * 1000;
+   }
+
+   /**
+    * This is used to read the number of seconds given by a directive
+    * of the <code>Cache-Control</code> header. If the directive is not
+    * present this returns minus one, and if it has no valid number of
+    * seconds then it is taken to be zero so the response is stale.
+    *
+    * @param control this is the value of the cache control header
+    * @param directive this is the name of the directive to read
+    *
+    * @return this returns the number of seconds the directive gives
+    */
+   private long getAge(String control, String directive) {
+      int start = control.indexOf(directive);
+      long age = 0;
+
+      if(start < 0) {
+         return -1;
+      }
+      for(int i = start + directive.length(); i < control.length(); i++) {
+         char next = control.charAt(i);
+
+         if(!Character.isDigit(next) || age > Integer.MAX_VALUE) {
+            break;
+         }
+         age = age * 10 + (next - '0');
+      }
+      return age;
+   }
+
+   /**
+    * This is used to determine the identity of the requested resource.
+    * The identity is the host the request was sent to along with the
+    * path and query of the request target.
+    *
+    * @param request this is the request for the resource
+    *
+    * @return this returns the identity of the resource requested
+    */
+   private String getIdentity(Request request) {
+      String target = request.getTarget();
+      String host = request.getValue(HOST);
+
+      if(host != null) {
+         return host + target;
+      }
+      return target;
+   }
+
+   /**
+    * This is used to determine the key the requested resource would
+    * be cached under. If the resource has been found to vary by some
+    * request headers then their values form part of the key.
+    *
+    * @param request this is the request for the resource
+    *
+    * @return this returns the key for the resource requested
+    */
+   private String getKey(Request request) {
+      String identity = getIdentity(request);
+      String vary = cache.getVary(identity);
+
+      return getKey(request, identity, vary);
+   }
+
+   /**
+    * This is used to determine the key for a resource that varies by 
+    * the request headers given. As each form has its own coding the
+    * <code>Accept-Encoding</code> header does not form part of the key.
+    *
+    * @param request this is the request for the resource
+    * @param identity this is the identity of the resource
+    * @param vary this is the headers the resource varies by or null
+    *
+    * @return this returns the key for the resource requested
+    */
+   private String getKey(Request request, String identity, String vary) {
+      if(vary != null) {
+         StringBuilder builder = new StringBuilder(identity);
+
+         for(String name : vary.split(",")) {
+            String token = name.trim();
+
+            if(token.length() > 0 && !token.equalsIgnoreCase(ACCEPT_ENCODING)) {
+               String value = request.getValue(token);
+
+               builder.append('\n');
+               builder.append(token.toLowerCase());
+               builder.append(':');
+               builder.append(value);
+            }
+         }
+         return builder.toString();
+      }
+      return identity;
+   }
+
+   /**
+    * This is used to take a copy of the headers of the response that
+    * are to be replayed. Headers that describe the framing or coding 
+    * of the body, or that are specific to the time it is sent, are
+    * not copied as these are set each time a form is sent.
+    *
+    * @param response this is the response that was captured
+    *
+    * @return this returns the headers that are to be replayed
+    */
+   private Map<String, List<String>> getHeaders(Response response) {
+      Map<String, List<String>> headers = new LinkedHashMap<String, List<String>>();
+
+      for(String name : response.getNames()) {
+         if(!isExcluded(name)) {
+            List<String> values = new ArrayList<String>();
+
+            for(int i = 0; response.getValue(name, i) != null; i++) {
+               values.add(response.getValue(name, i));
+            }
+            headers.put(name, values);
+         }
+      }
+      return headers;
+   }
+
+   /**
+    * This determines if the header is one that is set each time a
+    * form is sent, rather than being replayed from the cache.
+    *
+    * @param name this is the name of the header to check
+    *
+    * @return this returns true if the header is not replayed
+    */
+   private boolean isExcluded(String name) {
+      for(String exclude : EXCLUDE) {
+         if(exclude.equalsIgnoreCase(name)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * This is used to acquire the opaque part of an entity tag. Tags 
+    * are compared without the weak prefix or quotes, as a client can
+    * revalidate with a weak comparison.
+    *
+    * @param tag this is the entity tag that is to be compared
+    *
+    * @return this returns the opaque part of the entity tag
+    */
+   private String getOpaque(String tag) {
+      String value = tag.trim();
+
+      if(value.startsWith("W/")) {
+         value = value.substring(2);
+      }
+      if(value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+         value = value.substring(1, value.length() - 1);
+      }
+      return value;
+   }
+
+   /**
+    * This is used to create an entity tag for the captured body. The
+    * tag is a digest of the bytes, so the same content produced again
+    * will have the same tag as the form that was cached before.
+    *
+    * @param data this is the array containing the captured body
+    * @param count this is the number of bytes that were captured
+    *
+    * @return this returns the entity tag for the captured body
+    */
+   private String getTag(byte[] data, int count) {
+      StringBuilder builder = new StringBuilder();
+
+      try {
+         MessageDigest digest = MessageDigest.getInstance("MD5");
+
+         digest.update(data, 0, count);
+
+         for(byte octet : digest.digest()) {
+            builder.append(Character.forDigit((octet >>> 4) & 0xf, 16));
+            builder.append(Character.forDigit(octet & 0xf, 16));
+         }
+      } catch(Exception e) {
+         throw new IllegalStateException("Could not create entity tag", e);
+      }
+      return builder.toString();
+   }
+
+   /**
+    * This is used to compress the captured body with <code>gzip</code>.
+    * As the form is compressed once and sent many times the highest
+    * level of compression is used, with a compressor from the policy.
+    *
+    * @param data this is the array containing the captured body
+    * @param count this is the number of bytes that were captured
+    *
+    * @return this returns the body compressed with gzip
+    */
+   private byte[] compress(byte[] data, int count) throws IOException {
+      ArrayEncoder target = new ArrayEncoder(count);
+      BodyEncoder encoder = new CompressEncoder(policy, target, "gzip", Deflater.BEST_COMPRESSION);
+
+      encoder.encode(data, 0, count);
+      encoder.close();
+      return target.toByteArray();
+   }
+
+   /**
+    * The <code>ArrayEncoder</code> is used to collect the bytes that
+    * are produced when a form is compressed. This allows the form to
+    * be compressed in exactly the same way as a streamed body.
+    */
+   private static class ArrayEncoder extends ByteArrayOutputStream implements BodyEncoder {
+
+      /**
+       * Constructor for the <code>ArrayEncoder</code> object. This is
+       * used to create an encoder that collects the bytes given.
+       *
+       * @param size this is the initial capacity of the encoder
+       */
+      public ArrayEncoder(int size) {
+         super(size);
+      }
+
+      /**
+       * This is used to collect the bytes that have been produced.
+       *
+       * @param array this is the array of bytes to be collected
+       */
+      public void encode(byte[] array) {
+         write(array, 0, array.length);
+      }
+
+      /**
+       * This is used to collect the bytes that have been produced.
+       *
+       * @param array this is the array of bytes to be collected
+       * @param off this is the offset within the array to collect
+       * @param size this is the number of bytes to be collected
+       */
+      public void encode(byte[] array, int off, int size) {
+         write(array, off, size);
+      }
+
+      /**
+       * This is used to collect the bytes that have been produced.
+       *
+       * @param buffer this is the buffer of bytes to be collected
+       */
+      public void encode(ByteBuffer buffer) {
+         encode(buffer, 0, buffer.remaining());
+      }
+
+      /**
+       * This is used to collect the bytes that have been produced.
+       *
+       * @param buffer this is the buffer of bytes to be collected
+       * @param off this is the offset within the buffer to collect
+       * @param size this is the number of bytes to be collected
+       */
+      public void encode(ByteBuffer buffer, int off, int size) {
+         while(size-- > 0) {
+            write(buffer.get());
+         }
+      }
+
+      /**
+       * This is used to collect the bytes from a region of a file.
+       *
+       * @param file this is the file containing the region to collect
+       * @param position this is the position within the file to read
+       * @param length this is the number of bytes to be collected
+       */
+      public void encode(FileChannel file, long position, long length) throws IOException {
+         ByteBuffer buffer = file.map(READ_ONLY, position, length);
+
+         encode(buffer, 0, (int)length);
+      }
+   }
+}
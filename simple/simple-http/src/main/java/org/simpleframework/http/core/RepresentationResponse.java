@@ -0,0 +1,446 @@
+/*
+ * RepresentationResponse.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+
+package org.simpleframework.http.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.simpleframework.http.ContentType;
+import org.simpleframework.http.Request;
+import org.simpleframework.http.Response;
+import org.simpleframework.http.ResponseWrapper;
+
+/**
+ * The <code>RepresentationResponse</code> is used to capture the body
+ * of a response so that it can be cached. Rather than being sent, the
+ * bytes written are held in memory until the response is closed, at
+ * which point the <code>RepresentationContainer</code> decides whether 
+ * the captured response is cached before it is sent to the client.
+ * <p>
+ * Only a response that can be cached is captured. When the first bytes
+ * of the body are written the headers are examined, and if they do not
+ * allow the response to be cached then the body passes straight through.
+ * Likewise if the body grows beyond the limit of the cache, or if it is
+ * committed, then the bytes captured are written and the rest follows.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.core.RepresentationContainer
+ */
+class RepresentationResponse extends ResponseWrapper {
+
+   /**
+    * This is the container that completes the captured response.
+    */
+   private final RepresentationContainer container;
+
+   /**
+    * This is the stream that captures the body of the response.
+    */
+   private final CaptureStream stream;
+
+   /**
+    * This is the request that this response has been created for.
+    */
+   private final Request request;
+
+   /**
+    * Constructor for the <code>RepresentationResponse</code> object.
+    * This creates a response that captures up to the limit given in
+    * bytes, after which the body is written to the response wrapped.
+    *
+    * @param container this is the container to complete the response
+    * @param request this is the request the response was created for
+    * @param response this is the response that is being captured
+    * @param limit this is the maximum number of bytes to capture
+    */
+   public RepresentationResponse(RepresentationContainer container, Request request, Response response, int limit) {
+      super(response);
+      this.stream = new CaptureStream(limit);
+      this.container = container;
+      this.request = request;
+   }
+
+   /**
+    * This is used to acquire the stream that the body is written to.
+    * The same stream is always returned so that all bytes written to
+    * the response are captured in the order they were written.
+    *
+    * @return this returns the stream that captures the body
+    */
+   @Override
+   public OutputStream getOutputStream() throws IOException {
+      return stream;
+   }
+
+   /**
+    * This is used to acquire the stream that the body is written to.
+    * As the body is already held in memory the size is ignored.
+    *
+    * @param size this is the size of the buffer to be used
+    *
+    * @return this returns the stream that captures the body
+    */
+   @Override
+   public OutputStream getOutputStream(int size) throws IOException {
+      return stream;
+   }
+
+   /**
+    * This is used to write the body using the charset declared by the
+    * content type. If no charset is declared then ISO-8859-1 is used,
+    * which is the same as would be used by the response wrapped.
+    *
+    * @return this returns a print stream that captures the body
+    */
+   @Override
+   public PrintStream getPrintStream() throws IOException {
+      return new PrintStream(stream, false, getCharset());
+   }
+
+   /**
+    * This is used to write the body using the charset declared by the
+    * content type. As the body is already held in memory the size is
+    * ignored, and the stream returned writes directly to the capture.
+    *
+    * @param size this is the size of the buffer to be used
+    *
+    * @return this returns a print stream that captures the body
+    */
+   @Override
+   public PrintStream getPrintStream(int size) throws IOException {
+      return new PrintStream(stream, false, getCharset());
+   }
+
+   /**
+    * This is used to acquire a channel that the body is written to.
+    * The channel writes to the same stream as any other output that
+    * is acquired, so that the body is captured in the same way.
+    *
+    * @return this returns a channel that captures the body
+    */
+   @Override
+   public WritableByteChannel getByteChannel() throws IOException {
+      return Channels.newChannel(stream);
+   }
+
+   /**
+    * This is used to acquire a channel that the body is written to.
+    * As the body is already held in memory the size is ignored.
+    *
+    * @param size this is the size of the buffer to be used
+    *
+    * @return this returns a channel that captures the body
+    */
+   @Override
+   public WritableByteChannel getByteChannel(int size) throws IOException {
+      return Channels.newChannel(stream);
+   }
+
+   /**
+    * This is used to send a region of a file as part of the body. If 
+    * the body is still being captured then the region is read in to
+    * the capture, otherwise it is handed to the response wrapped so
+    * that it can be sent directly from the file.
+    *
+    * @param file this is the file containing the region to send
+    * @param position this is the position within the file to send from
+    * @param length this is the number of bytes that are to be sent
+    */
+   @Override
+   public void sendFile(FileChannel file, long position, long length) throws IOException {
+      stream.write(file, position, length);
+   }
+
+   /**
+    * This is used to determine if the response has been committed. A
+    * response being captured is not committed, as its header is not
+    * written until the captured body has been examined.
+    *
+    * @return this returns true if the header has been written
+    */
+   @Override
+   public boolean isCommitted() {
+      if(stream.isCapturing()) {
+         return false;
+      }
+      return response.isCommitted();
+   }
+
+   /**
+    * This is used to commit the response. Committing a response means
+    * the header must be sent immediately, so the body is no longer
+    * captured and anything captured so far is written to the client.
+    */
+   @Override
+   public void commit() throws IOException {
+      stream.release();
+      response.commit();
+   }
+
+   /**
+    * This is used to reset the response. Any body that has been 
+    * captured is discarded along with the headers that were set.
+    */
+   @Override
+   public void reset() throws IOException {
+      stream.reset();
+      response.reset();
+   }
+
+   /**
+    * This is used to close the response. If the body was captured in
+    * full then the container is given the response to complete, so
+    * that it can be cached, otherwise the response is simply closed.
+    */
+   @Override
+   public void close() throws IOException {
+      stream.close();
+   }
+
+   /**
+    * This is used to determine the charset used to write characters. 
+    * If the content type does not declare a charset, then this will
+    * return ISO-8859-1, which is the default for HTTP content.
+    *
+    * @return this returns the charset used to write characters
+    */
+   private String getCharset() {
+      ContentType type = getContentType();
+
+      if(type != null) {
+         String charset = type.getCharset();
+
+         if(charset != null) {
+            return charset;
+         }
+      }
+      return "ISO-8859-1";
+   }
+
+   /**
+    * The <code>CaptureStream</code> is used to hold the body in an
+    * array until the response is closed. If the body can not be held
+    * then the bytes captured are written to the response and all
+    * following bytes are written directly to the response stream.
+    */
+   private class CaptureStream extends OutputStream {
+
+      /**
+       * This is the stream for the response once it is released.
+       */
+      private OutputStream output;
+
+      /**
+       * This is the array that holds the bytes that are captured.
+       */
+      private byte[] buffer;
+
+      /**
+       * This is the number of bytes that have been captured.
+       */
+      private int count;
+
+      /**
+       * This is the maximum number of bytes that can be captured.
+       */
+      private int limit;
+
+      /**
+       * This is true once the stream has been closed.
+       */
+      private boolean closed;
+
+      /**
+       * Constructor for the <code>CaptureStream</code> object. This is
+       * used to create a stream that can capture a body as large as
+       * the limit provided before the body must be released.
+       *
+       * @param limit this is the maximum number of bytes to capture
+       */
+      public CaptureStream(int limit) {
+         this.buffer = new byte[Math.min(limit, 1024)];
+         this.limit = limit;
+      }
+
+      /**
+       * This is used to determine if the body is being captured. Once
+       * the stream has been released the body passes straight through.
+       *
+       * @return this returns true if the body is being captured
+       */
+      public boolean isCapturing() {
+         return output == null;
+      }
+
+      /**
+       * This is used to write a single byte to the body.
+       *
+       * @param octet this is the byte that is to be written
+       */
+      @Override
+      public void write(int octet) throws IOException {
+         write(new byte[] { (byte)octet }, 0, 1);
+      }
+
+      /**
+       * This is used to write the bytes to the body. If the bytes will
+       * take the body beyond the limit then the stream is released and
+       * the bytes are written directly to the response stream.
+       *
+       * @param array this is the array of bytes to be written
+       * @param off this is the offset within the array to write from
+       * @param size this is the number of bytes to be written
+       */
+      @Override
+      public void write(byte[] array, int off, int size) throws IOException {
+         if(closed) {
+            throw new IOException("Response has been closed");
+         }
+         if(output == null) {
+            if(count == 0 && !container.isCacheable(request, response)) {
+               release();
+            } else if(count + size > limit) {
+               release();
+            }
+         }
+         if(output != null) {
+            output.write(array, off, size);
+         } else {
+            if(count + size > buffer.length) {
+               expand(count + size);
+            }
+            System.arraycopy(array, off, buffer, count, size);
+            count += size;
+         }
+      }
+
+      /**
+       * This is used to write a region of a file to the body. If the
+       * region can be captured it is read in to the capture, however 
+       * if it would take the body beyond the limit then the capture is
+       * released and the region is sent directly from the file.
+       *
+       * @param file this is the file containing the region to write
+       * @param position this is the position within the file to write
+       * @param length this is the number of bytes that are to be written
+       */
+      public void write(FileChannel file, long position, long length) throws IOException {
+         if(closed) {
+            throw new IOException("Response has been closed");
+         }
+         if(output == null) {
+            if(count == 0 && !container.isCacheable(request, response)) {
+               release();
+            } else if(count + length > limit) {
+               release();
+            }
+         }
+         if(output != null) {
+            response.sendFile(file, position, length);
+         } else {
+            ByteBuffer region = ByteBuffer.allocate((int)length);
+
+            while(region.hasRemaining()) {
+               if(file.read(region, position + region.position()) < 0) {
+                  throw new IOException("Region exceeds the length of the file");
+               }
+            }
+            write(region.array(), 0, (int)length);
+         }
+      }
+
+      /**
+       * This is used to flush the body. While the body is captured the
+       * flush is ignored, as a response that can be cached is complete
+       * content that is sent in one piece once it has been closed.
+       */
+      @Override
+      public void flush() throws IOException {
+         if(!closed && output != null) {
+            output.flush();
+         }
+      }
+
+      /**
+       * This is used to close the body. If the body has been captured
+       * in full then the container completes the response, otherwise
+       * the response stream is closed to complete the response.
+       */
+      @Override
+      public void close() throws IOException {
+         if(!closed) {
+            closed = true;
+
+            if(output == null) {
+               container.complete(request, response, buffer, count);
+            } else {
+               output.close();
+            }
+         }
+      }
+
+      /**
+       * This is used to discard the bytes that have been captured. If
+       * the stream has been released then the bytes have already been
+       * written to the response, which must reset its own buffer.
+       */
+      public void reset() {
+         count = 0;
+      }
+
+      /**
+       * This is used to release the body. The bytes captured so far are
+       * written to the response stream, and all following bytes are
+       * written directly to that stream rather than being captured.
+       */
+      public void release() throws IOException {
+         if(output == null) {
+            output = response.getOutputStream();
+
+            if(count > 0) {
+               output.write(buffer, 0, count);
+            }
+            buffer = null;
+            count = 0;
+         }
+      }
+
+      /**
+       * This is used to expand the capture so that it can hold the
+       * number of bytes provided. The capture is doubled each time so
+       * that a body written in small pieces is copied only a few times.
+       *
+       * @param size this is the number of bytes that must be held
+       */
+      private void expand(int size) {
+         int capacity = Math.max(size, Math.min(limit, buffer.length * 2));
+         byte[] copy = new byte[capacity];
+
+         System.arraycopy(buffer, 0, copy, 0, count);
+         buffer = copy;
+      }
+   }
+}
@@ -19,13 +19,21 @@
 package org.simpleframework.http.core;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.simpleframework.http.Protocol.APPLICATION;
+import static org.simpleframework.http.Protocol.URL_ENCODED;
 import static org.simpleframework.http.core.ContainerEvent.REQUEST_READY;
 import static org.simpleframework.transport.TransportEvent.READ_WAIT;
 
 import java.io.IOException;
 import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.simpleframework.common.buffer.Allocator;
+import org.simpleframework.common.buffer.BudgetAllocator;
+import org.simpleframework.common.buffer.MemoryBudget;
+import org.simpleframework.common.buffer.RecycleAllocator;
+import org.simpleframework.http.ContentType;
 import org.simpleframework.http.message.Body;
 import org.simpleframework.http.message.EntityConsumer;
 import org.simpleframework.http.message.Header;
@@ -40,12 +48,70 @@ import org.simpleframework.transport.trace.Trace;
  * the data is consumed and the entity is created and then it is sent
  * to the <code>Selector</code> object for processing. If the request
  * has completed the next request can be collected from the 
- * underlying transport using a new collector object.  
+ * underlying transport using the next collector object.
+ * <p>
+ * Collectors are reused for each connection. Once both the dispatcher
+ * and the response have finished with a collector it becomes the
+ * spare for its connection, and is reset for a later request. Only
+ * the state the request never references is reused. The header and
+ * body are given up to the request, so it remains intact however
+ * long the container holds on to it after the response completes.
+ * <p>
+ * If streaming is enabled the request is handed to the controller as
+ * soon as its header has been read, and the body is appended to a
+ * <code>StreamBuffer</code> that the container reads as it arrives.
+ * Reading is suspended while the buffer is full. The next request is
+ * not read until both the body and the response have completed.
  * 
  * @author Niall Gallagher
  */
 class RequestCollector implements Collector {
    
+   /**
+    * This holds a finished collector that can be reused.
+    */
+   private final AtomicReference<RequestCollector> spare;
+   
+   /**
+    * This counts the parties that have yet to finish with this.
+    */
+   private final AtomicInteger references;
+   
+   /**
+    * This counts the parties that may still read the content.
+    */
+   private final AtomicInteger holders;
+   
+   /**
+    * This counts what must complete before the next request is read.
+    */
+   private final AtomicInteger pending;
+   
+   /**
+    * This is used to allocate the buffer for a streamed body.
+    */
+   private final StreamAllocator stream;
+   
+   /**
+    * If a budget is provided this charges the buffered content.
+    */
+   private final BudgetAllocator allocator;
+   
+   /**
+    * This gives back any pooled buffers once the response is sent.
+    */
+   private final RecycleAllocator recycle;
+   
+   /**
+    * This is the budget that suspends reading when exhausted.
+    */
+   private final MemoryBudget budget;
+   
+   /**
+    * This is the allocator used to create the next collector.
+    */
+   private final Allocator source;
+   
    /**
     * This is used to consume the request entity from the channel.
     */
@@ -71,6 +137,16 @@ class RequestCollector implements Collector {
     */
    private final Timer timer;
    
+   /**
+    * This is the buffer the body is streamed to once dispatched.
+    */
+   private volatile StreamBuffer buffer;
+   
+   /**
+    * This is set once the whole of a streamed body has been read.
+    */
+   private volatile boolean finished;
+   
    /**
     * The <code>RequestCollector</code> object used to collect the data 
     * from the underlying transport. In order to collect a body this 
@@ -82,11 +158,66 @@ class RequestCollector implements Collector {
     * @param channel this is the channel used to read the data
     */
    public RequestCollector(Allocator allocator, Channel channel) { 
-      this.entity = new EntityConsumer(allocator, channel);
+      this(allocator, channel, null);
+   }
+   
+   /**
+    * The <code>RequestCollector</code> object used to collect the data 
+    * from the underlying transport. If a budget is provided then the
+    * bytes buffered for the body are charged against it, and remain
+    * charged until the collector has been released.
+    * 
+    * @param allocator this is the allocator used to buffer data
+    * @param channel this is the channel used to read the data
+    * @param budget this is the budget to charge the content to
+    */
+   public RequestCollector(Allocator allocator, Channel channel, MemoryBudget budget) { 
+      this(allocator, channel, budget, false);
+   }
+   
+   /**
+    * The <code>RequestCollector</code> object used to collect the data 
+    * from the underlying transport. If streaming is enabled a request
+    * with a body of known length or a chunked body is handed to the
+    * controller once its header has been read, and the body is read
+    * by the container while it is still arriving.
+    * 
+    * @param allocator this is the allocator used to buffer data
+    * @param channel this is the channel used to read the data
+    * @param budget this is the budget to charge the content to
+    * @param stream determines if bodies are streamed to the container
+    */
+   public RequestCollector(Allocator allocator, Channel channel, MemoryBudget budget, boolean stream) { 
+      this(allocator, channel, budget, stream ? new StreamAllocator() : null, new AtomicReference<RequestCollector>());
+   }
+   
+   /**
+    * The <code>RequestCollector</code> object used to collect the data 
+    * from the underlying transport. This is used to create the next 
+    * collector for a connection, which shares the spare reference so
+    * that the collectors for the connection can be reused in turn.
+    * 
+    * @param allocator this is the allocator used to buffer data
+    * @param channel this is the channel used to read the data
+    * @param budget this is the budget to charge the content to
+    * @param stream this is used to allocate streamed bodies or null
+    * @param spare this holds a finished collector for the channel
+    */
+   private RequestCollector(Allocator allocator, Channel channel, MemoryBudget budget, StreamAllocator stream, AtomicReference<RequestCollector> spare) { 
+      this.recycle = new RecycleAllocator(allocator);
+      this.allocator = budget == null ? null : new BudgetAllocator(recycle, budget);
+      this.entity = new EntityConsumer(budget == null ? recycle : this.allocator, stream, channel);
+      this.cursor = stream == null ? channel.getCursor() : new ThrottleCursor(channel.getCursor(), stream);
       this.timer = new Timer(MILLISECONDS);
-      this.cursor = channel.getCursor();     
       this.trace = channel.getTrace();
+      this.references = new AtomicInteger(2);
+      this.holders = new AtomicInteger(2);
+      this.pending = new AtomicInteger(1);
+      this.stream = stream;
+      this.source = allocator;
       this.channel = channel;
+      this.budget = budget;
+      this.spare = spare;
    }
 
    /**
@@ -97,12 +228,34 @@ class RequestCollector implements Collector {
     * is ready to read. Also, should the entity have completed reading
     * all required content it is handed to the controller as ready,
     * which processes the entity as a new client HTTP request.
+    * If the memory budget is exhausted nothing is read and the
+    * collector is queued until memory has been released.
     * 
     * @param controller this is the controller used to queue this
     */
    public void collect(Controller controller) throws IOException {
+      if(isExhausted()) {
+         trace.trace(READ_WAIT);
+         controller.select(this);
+      } else if(buffer != null) {
+         stream(controller);
+      } else {
+         consume(controller);
+      }
+   }
+   
+   /**
+    * This is used to consume the entity until it is ready to be handed
+    * to the controller. Typically this is once the whole entity has
+    * been read, however if the body can be streamed the entity is
+    * handed over once the header has been read, and the collector
+    * then continues to read the body while the container runs.
+    * 
+    * @param controller this is the controller used to queue this
+    */
+   private void consume(Controller controller) throws IOException {
       while(cursor.isReady()) { 
-         if(entity.isFinished()) {
+         if(entity.isFinished() || isStreaming()) {
              break;
          }  else {
             timer.set();
@@ -110,7 +263,16 @@ class RequestCollector implements Collector {
          }      
       }     
       if(cursor.isOpen()) {
-         if(entity.isFinished()) {
+         if(isStreaming()) {
+            buffer = stream.getBuffer();
+            pending.set(2);
+            trace.trace(REQUEST_READY);
+            controller.ready(this);
+            stream(controller);
+         } else if(entity.isFinished()) {
+            if(stream != null) {
+               stream.close();
+            }
             trace.trace(REQUEST_READY);
             controller.ready(this);
          } else {
@@ -120,6 +282,197 @@ class RequestCollector implements Collector {
       }
    }
    
+   /**
+    * This is used to read the body once the request has been handed
+    * to the controller. Bytes are read until the buffer is full, at
+    * which point the collector is suspended until the container has
+    * read from the buffer. Once the body has been read the collector
+    * completes, so that the next request can be read if the response
+    * has also completed.
+    * 
+    * @param controller this is the controller used to queue this
+    */
+   private void stream(Controller controller) throws IOException {
+      StreamBuffer buffer = this.buffer;
+      
+      try {
+         while(cursor.isReady()) {
+            if(entity.isFinished()) {
+               break;
+            }
+            entity.consume(cursor);
+         }
+      } catch(IOException cause) {
+         buffer.abort();
+         throw cause;
+      }
+      if(entity.isFinished()) {
+         finished = true;
+         buffer.close();
+         controller.complete(this);
+      } else if(!cursor.isOpen()) {
+         buffer.abort();
+      } else if(!buffer.suspend(controller, this)) {
+         trace.trace(READ_WAIT);
+         controller.select(this);
+      }
+   }
+   
+   /**
+    * This is used to determine if the request can be handed to the
+    * controller before its body has been read. This is only the case
+    * if streaming is enabled and the body has a length or is chunked,
+    * as a multipart body that ends with its final boundary can only
+    * be delimited by consuming each of its parts as they arrive. A
+    * form post is always buffered so its parameters can be read.
+    * 
+    * @return this returns true if the body is to be streamed
+    */
+   private boolean isStreaming() {
+      if(stream != null) {
+         if(entity.isHeaderFinished() && !entity.isFinished()) {
+            Header header = entity.getHeader();
+            String encoding = header.getTransferEncoding();
+            long length = header.getContentLength();
+            
+            if(isForm(header)) {
+               return false;
+            }
+            if(encoding != null) {
+               return encoding.equals("chunked");
+            }
+            return length > 0;
+         }
+      }
+      return false;
+   }
+   
+   /**
+    * This is used to determine if the body is a form post of type
+    * application/x-www-form-urlencoded. Such a body is buffered in
+    * full before the request is dispatched to the container.
+    * 
+    * @param header this is the header that was sent with the body
+    * 
+    * @return this returns true if the body is a form post
+    */
+   private boolean isForm(Header header) {
+      ContentType type = header.getContentType();
+      
+      if(type != null) {
+         String primary = type.getPrimary();
+         String secondary = type.getSecondary();
+         
+         if(primary.equals(APPLICATION)) {
+            return secondary.equals(URL_ENCODED);
+         }
+      }
+      return false;
+   }
+   
+   /**
+    * This is used to determine if the memory budget is exhausted.
+    * If there is no budget then reading is never suspended, which
+    * is the behaviour when no budget has been provided.
+    * 
+    * @return this returns true if the budget has been exhausted
+    */
+   private boolean isExhausted() {
+      if(budget != null) {
+         return budget.isExhausted();
+      }
+      return false;
+   }
+
+   /**
+    * This is used to release any memory that has been charged to a
+    * budget while collecting the entity, and to give any pooled 
+    * buffers back to their pool. This is invoked by the response once
+    * it has completed and by the dispatcher once the container has
+    * returned, and memory is only released by the second of these. 
+    * So a container can read the body after it closes the response.
+    */
+   public void release() throws IOException {
+      if(holders.decrementAndGet() == 0) {
+         if(allocator != null) {
+            allocator.release();
+         }
+         recycle.release();
+      }
+   }
+   
+   /**
+    * This is invoked once the response has completed and, if the body
+    * was streamed, once the body has been read. If the response has
+    * completed first then whatever remains of the body is discarded
+    * as it is read, as the container no longer has any use for it.
+    * 
+    * @return this returns true if the next request can be read
+    */
+   public boolean complete() throws IOException {
+      StreamBuffer buffer = this.buffer;
+      
+      if(pending.decrementAndGet() > 0) {
+         if(!finished) {
+            buffer.discard();
+         }
+         return false;
+      }
+      return true;
+   }
+   
+   /**
+    * This is invoked by the dispatcher once the container has returned
+    * and by the response once it has completed successfully. When
+    * both have finished the collector becomes the spare for the
+    * connection. If the connection is closed or fails the response
+    * never finishes, so the collector is simply discarded.
+    */
+   public void finish() {
+      if(references.decrementAndGet() == 0) {
+         spare.set(this);
+      }
+   }
+   
+   /**
+    * This is used to acquire a collector for the next request on the
+    * connection. If the spare collector is available it is reset and
+    * returned, otherwise a new collector is created. In the steady
+    * state a connection will alternate between two collectors.
+    * 
+    * @return this returns a collector for the next request
+    */
+   public Collector next() throws IOException {
+      RequestCollector collector = spare.getAndSet(null);
+      
+      if(collector != null) {
+         collector.reset();
+         return collector;
+      }
+      if(stream != null) {
+         return new RequestCollector(source, channel, budget, new StreamAllocator(), spare);
+      }
+      return new RequestCollector(source, channel, budget, null, spare);
+   }
+   
+   /**
+    * This is used to reset the collector so that it can be used for
+    * the next request. The entity consumer is reset so that it gives
+    * up the header and body of the previous request, and both the
+    * dispatcher and the response will be required to finish again.
+    */
+   private void reset() {
+      if(stream != null) {
+         stream.reset();
+      }
+      references.set(2);
+      holders.set(2);
+      pending.set(1);
+      finished = false;
+      buffer = null;
+      entity.reset();
+   }
+   
    /**
     * This is the time in milliseconds when the request was first
     * read from the underlying channel. The time represented here
@@ -150,11 +503,20 @@ class RequestCollector implements Collector {
     * will return a body which can be used to read the content of
     * the message, also if the request is multipart upload then all
     * of the parts are provided as <code>Part</code> objects. Each
-    * part can then be read as an individual message.
+    * part can then be read as an individual message. If the body is
+    * streamed it is read from the transport as the body is read.
     *  
     * @return the body provided by the HTTP request message
     */   
    public Body getBody() {
+      if(buffer != null) {
+         Header header = entity.getHeader();
+         
+         if(allocator != null) {
+            return new StreamBody(buffer, header, allocator);
+         }
+         return new StreamBody(buffer, header, recycle);
+      }
       return entity.getBody();
    }
    
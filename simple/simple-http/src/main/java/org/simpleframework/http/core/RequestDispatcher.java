@@ -22,9 +22,9 @@ import static org.simpleframework.http.core.ContainerEvent.DISPATCH_FINISHED;
 import static org.simpleframework.http.core.ContainerEvent.DISPATCH_REQUEST;
 import static org.simpleframework.http.core.ContainerEvent.ERROR;
 
+import org.simpleframework.common.buffer.MemoryBudget;
 import org.simpleframework.http.Request;
 import org.simpleframework.http.Response;
-import org.simpleframework.http.message.Entity;
 import org.simpleframework.transport.Channel;
 import org.simpleframework.transport.trace.Trace;
 
@@ -49,6 +49,11 @@ class RequestDispatcher implements Runnable {
     */
    private final ResponseObserver observer;    
    
+   /**
+    * This is the collector that the request was collected with.
+    */
+   private final Collector collector;
+   
    /**
     * This is the container that is used to handle the transactions.
     */
@@ -81,14 +86,63 @@ class RequestDispatcher implements Runnable {
     * 
     * @param container this is the container to handle the request
     * @param controller the controller used to handle the next request
-    * @param entity this contains the current request entity
+    * @param collector this contains the current request entity
+    */
+   public RequestDispatcher(Container container, Controller controller, Collector collector) {
+      this(container, controller, collector, null);
+   }
+   
+   /**
+    * Constructor for the <code>RequestDispatcher</code> object. This 
+    * creates a request and response object using the provided entity, 
+    * these can then be passed to the container to handle it. If a
+    * budget is provided any buffering of the response is charged.
+    * 
+    * @param container this is the container to handle the request
+    * @param controller the controller used to handle the next request
+    * @param collector this contains the current request entity
+    * @param budget this is the budget to charge buffering to
+    */
+   public RequestDispatcher(Container container, Controller controller, Collector collector, MemoryBudget budget) {
+      this(container, controller, collector, budget, null);
+   }
+   
+   /**
+    * Constructor for the <code>RequestDispatcher</code> object. This 
+    * creates a request and response object using the provided entity, 
+    * these can then be passed to the container to handle it. If a
+    * policy is provided the response body may be compressed.
+    * 
+    * @param container this is the container to handle the request
+    * @param controller the controller used to handle the next request
+    * @param collector this contains the current request entity
+    * @param budget this is the budget to charge buffering to
+    * @param policy this is the policy used to compress responses
     */
-   public RequestDispatcher(Container container, Controller controller, Entity entity) {
-      this.observer = new ResponseObserver(controller, entity);
-      this.request = new RequestEntity(observer, entity);
-      this.response = new ResponseEntity(observer, request, entity);
-      this.channel = entity.getChannel();
+   public RequestDispatcher(Container container, Controller controller, Collector collector, MemoryBudget budget, CompressionPolicy policy) {
+      this(container, controller, collector, budget, policy, null);
+   }
+   
+   /**
+    * Constructor for the <code>RequestDispatcher</code> object. This 
+    * creates a request and response object using the provided entity, 
+    * these can then be passed to the container to handle it. If a
+    * pool is provided the response body is buffered by default.
+    * 
+    * @param container this is the container to handle the request
+    * @param controller the controller used to handle the next request
+    * @param collector this contains the current request entity
+    * @param budget this is the budget to charge buffering to
+    * @param policy this is the policy used to compress responses
+    * @param pool this is the pool used to buffer response bodies
+    */
+   public RequestDispatcher(Container container, Controller controller, Collector collector, MemoryBudget budget, CompressionPolicy policy, BufferPool pool) {
+      this.observer = new ResponseObserver(controller, collector);
+      this.request = new RequestEntity(observer, collector);
+      this.response = new ResponseEntity(observer, request, collector, budget, policy, pool);
+      this.channel = collector.getChannel();
       this.trace = channel.getTrace();
+      this.collector = collector;
       this.container = container;
    }
 
@@ -105,6 +159,21 @@ class RequestDispatcher implements Runnable {
          trace.trace(ERROR, cause);
       } finally {
          trace.trace(DISPATCH_FINISHED);
+         release();
+         collector.finish();
+      }
+   }
+   
+   /**
+    * This is used to signal that the container has returned and so
+    * will no longer read the content from the collector. If the 
+    * response has also completed the memory held is released.
+    */
+   private void release() {
+      try {
+         collector.release();
+      } catch(Exception cause) {
+         trace.trace(ERROR, cause);
       }
    }
    
@@ -41,6 +41,7 @@ import org.simpleframework.http.message.Body;
 import org.simpleframework.http.message.Entity;
 import org.simpleframework.transport.Certificate;
 import org.simpleframework.transport.Channel;
+import org.simpleframework.transport.Credential;
 
 /**
  * This object is used to represent a HTTP request. This defines the
@@ -206,19 +207,41 @@ class RequestEntity extends RequestMessage implements Request {
       return null;
    }
    
+   /**
+    * This is used to acquire the credential of the client process
+    * when the connection was accepted from a Unix domain socket. A
+    * domain socket has no network address, so the operating system
+    * provides the user and group of the peer instead. For TCP 
+    * connections this will be null.
+    * 
+    * @return this returns the credential of the client if any
+    */
+   public Credential getClientCredential() {
+      Map attributes = channel.getAttributes();
+      Object value = attributes.get(Credential.class);
+      
+      return (Credential)value;
+   }
+   
    /**
     * This is used to acquire the remote client address. This can 
     * be used to acquire both the port and the I.P address for the 
     * client. It allows the connected clients to be logged and if
     * require it can be used to perform course grained security.
+    * For connections accepted from a Unix domain socket this will
+    * be null, in which case the client credential should be used.
     * 
     * @return this returns the client address for this request
     */
    public InetSocketAddress getClientAddress() {
       SocketChannel socket = channel.getSocket();
-      Socket client = socket.socket();
+      Credential credential = getClientCredential();
       
-      return getClientAddress(client);
+      if(credential == null) {
+         Socket client = socket.socket();
+         return getClientAddress(client);
+      }
+      return null;
    }
    
    /**
@@ -299,12 +322,16 @@ class RequestEntity extends RequestMessage implements Request {
     * data sent by the client is chunked then it is decoded, see RFC 
     * 2616 section 3.6. This stream will never provide empty reads as
     * the content is internally buffered, so this can do a full read.
+    * If the buffer can be read as a channel it is used directly.
     * 
     * @return this returns the byte channel used to read the content
     */
    public ReadableByteChannel getByteChannel() throws IOException {
       InputStream source = getInputStream();
       
+      if(source instanceof ReadableByteChannel) {
+         return (ReadableByteChannel)source;
+      }
       if(source != null) {
          return Channels.newChannel(source);
       }
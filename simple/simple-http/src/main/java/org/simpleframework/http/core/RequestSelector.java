@@ -0,0 +1,74 @@
+/*
+ * RequestSelector.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.core;
+
+import static java.nio.channels.SelectionKey.OP_READ;
+
+import org.simpleframework.transport.reactor.Operation;
+import org.simpleframework.transport.reactor.Reactor;
+
+/**
+ * The <code>RequestSelector</code> is used to register a reader with
+ * a reactor once there is memory available to read with. If a memory
+ * budget has been exhausted the registration is suspended, and when
+ * enough memory has been released this is executed to register the
+ * reader so that it is notified when the socket is read ready.
+ * 
+ * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.common.buffer.MemoryBudget
+ */
+class RequestSelector implements Runnable {
+   
+   /**
+    * This is the reader that is to be registered for reading.
+    */
+   private final Operation reader;
+   
+   /**
+    * This is the reactor used to register the reader with.
+    */
+   private final Reactor reactor;
+   
+   /**
+    * Constructor for the <code>RequestSelector</code> object. This
+    * is used to hold the reader until there is memory available, at
+    * which point it is registered with the reactor provided.
+    * 
+    * @param reactor this is the reactor to register the reader with
+    * @param reader this is the reader that is to be registered
+    */
+   public RequestSelector(Reactor reactor, Operation reader) {
+      this.reactor = reactor;
+      this.reader = reader;
+   }
+   
+   /**
+    * This is used to register the reader with the reactor so that 
+    * it is executed when the socket is read ready. If the reader can
+    * not be registered it is cancelled, which closes the channel.
+    */
+   public void run() {
+      try {
+         reactor.process(reader, OP_READ);
+      } catch(Exception cause) {
+         reader.cancel();
+      }
+   }
+}
@@ -18,11 +18,15 @@
 
 package org.simpleframework.http.core;
 
+import static org.simpleframework.common.buffer.MemoryCategory.RESPONSE;
+
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.WritableByteChannel;
 
+import org.simpleframework.common.buffer.MemoryBudget;
 import org.simpleframework.http.Response;
 import org.simpleframework.http.message.Entity;
 import org.simpleframework.transport.Channel;
@@ -35,6 +39,11 @@ import org.simpleframework.transport.Channel;
  * enables content that has been written to be reset, by simply
  * clearing the response buffer. If the response buffer overflows
  * then the response is committed.
+ * <p>
+ * If a pool is provided the body is buffered by default in an array
+ * taken from the pool on the first write. So a small response that
+ * is closed before the array overflows is sent with an exact length
+ * along with its header, and only a larger one is streamed.
  *
  * @author Niall Gallagher
  *
@@ -47,6 +56,21 @@ class ResponseBuffer extends OutputStream implements WritableByteChannel {
     */         
    private ResponseEncoder encoder;
    
+   /**
+    * This is used to determine if the response forms a tunnel.
+    */
+   private Conversation support;
+   
+   /**
+    * If provided this is charged with the size of the buffer.
+    */
+   private MemoryBudget budget;
+   
+   /**
+    * If provided this supplies the array the body is buffered in.
+    */
+   private BufferPool pool;
+   
    /**
     * This is the buffer used to accumulate the response bytes.
     */ 
@@ -80,9 +104,44 @@ class ResponseBuffer extends OutputStream implements WritableByteChannel {
     * @param entity this is used to acquire the underlying transport   
     */ 
    public ResponseBuffer(BodyObserver observer, Response response, Conversation support, Entity entity) {
-      this(observer, response, support, entity.getChannel());
+      this(observer, response, support, entity, null);
    }   
    
+   /**
+    * Constructor for the <code>ResponseBuffer</code> object. This will
+    * create a buffering output stream which will flush data to the
+    * underlying transport provided with the entity. If a budget is
+    * provided then the internal buffer is charged against it until
+    * the response has been closed.
+    *
+    * @param observer this is used to notify of response completion
+    * @param response this is the response header for this buffer       
+    * @param support this is used to determine the response semantics
+    * @param entity this is used to acquire the underlying transport   
+    * @param budget this is the budget to charge the buffer to
+    */ 
+   public ResponseBuffer(BodyObserver observer, Response response, Conversation support, Entity entity, MemoryBudget budget) {
+      this(observer, response, support, entity, budget, null);
+   }
+   
+   /**
+    * Constructor for the <code>ResponseBuffer</code> object. This will
+    * create a buffering output stream which will flush data to the
+    * underlying transport provided with the entity. If a pool is 
+    * provided then the body is buffered in an array from the pool 
+    * until it overflows or the response is closed.
+    *
+    * @param observer this is used to notify of response completion
+    * @param response this is the response header for this buffer       
+    * @param support this is used to determine the response semantics
+    * @param entity this is used to acquire the underlying transport   
+    * @param budget this is the budget to charge the buffer to
+    * @param pool this is the pool used to buffer the body by default
+    */ 
+   public ResponseBuffer(BodyObserver observer, Response response, Conversation support, Entity entity, MemoryBudget budget, BufferPool pool) {
+      this(observer, response, support, entity.getChannel(), budget, pool);
+   }
+   
    /**
     * Constructor for the <code>ResponseBuffer</code> object. This will
     * create a buffering output stream which will flush data to the
@@ -96,8 +155,46 @@ class ResponseBuffer extends OutputStream implements WritableByteChannel {
     * @param channel this is the channel used to write the data to 
     */       
    public ResponseBuffer(BodyObserver observer, Response response, Conversation support, Channel channel) {
+      this(observer, response, support, channel, null);
+   }
+   
+   /**
+    * Constructor for the <code>ResponseBuffer</code> object. This will
+    * create a buffering output stream which will flush data to the
+    * underlying transport provided with the channel. If a budget is
+    * provided then the internal buffer is charged against it until
+    * the response has been closed.
+    *
+    * @param observer this is used to notify of response completion
+    * @param response this is the response header for this buffer    
+    * @param support this is used to determine the response semantics
+    * @param channel this is the channel used to write the data to 
+    * @param budget this is the budget to charge the buffer to
+    */       
+   public ResponseBuffer(BodyObserver observer, Response response, Conversation support, Channel channel, MemoryBudget budget) {
+      this(observer, response, support, channel, budget, null);
+   }
+   
+   /**
+    * Constructor for the <code>ResponseBuffer</code> object. This will
+    * create a buffering output stream which will flush data to the
+    * underlying transport provided with the channel. If a pool is 
+    * provided then the array taken from it is charged to the budget
+    * and returned to the pool once the response has been closed.
+    *
+    * @param observer this is used to notify of response completion
+    * @param response this is the response header for this buffer    
+    * @param support this is used to determine the response semantics
+    * @param channel this is the channel used to write the data to 
+    * @param budget this is the budget to charge the buffer to
+    * @param pool this is the pool used to buffer the body by default
+    */       
+   public ResponseBuffer(BodyObserver observer, Response response, Conversation support, Channel channel, MemoryBudget budget, BufferPool pool) {
       this.encoder = new ResponseEncoder(observer, response, support, channel);
       this.buffer = new byte[] {};
+      this.support = support;
+      this.budget = budget;
+      this.pool = pool;
    }
    
    /**
@@ -203,6 +300,9 @@ class ResponseBuffer extends OutputStream implements WritableByteChannel {
       if(limit - mark < size) { // not enough data
          size = limit - mark; // reduce expectation
       }
+      if(buffer.length == 0 && !flushed) {
+         acquire();
+      }
       if(count + size > buffer.length) {
          flush(false);
       }
@@ -215,6 +315,28 @@ class ResponseBuffer extends OutputStream implements WritableByteChannel {
       return size;
    }
    
+   /**
+    * This is used to send a region of a file as part of the body. Any
+    * bytes that have been buffered are written first, committing the
+    * response if it has not already been committed, and then the file
+    * region is handed to the encoder so that it can be sent directly
+    * from the file rather than being copied through this buffer.
+    *
+    * @param file this is the file containing the region to send
+    * @param position this is the position within the file to send from
+    * @param length this is the number of bytes that are to be sent
+    */
+   public void transfer(FileChannel file, long position, long length) throws IOException {
+      if(closed) {
+         throw new IOException("Response has been transferred");
+      }
+      flush(false);
+      
+      if(length > 0) {
+         encoder.write(file, position, length);
+      }
+   }
+   
    /**
     * This is used to expand the capacity of the internal buffer. If
     * there is already content that has been appended to the buffer
@@ -230,11 +352,47 @@ class ResponseBuffer extends OutputStream implements WritableByteChannel {
          int resize = Math.max(capacity, size);
          byte[] temp = new byte[resize];
          
+         if(budget != null) {
+            budget.charge(RESPONSE, resize - buffer.length);
+         }
          System.arraycopy(buffer, 0, temp, 0, count);
+         recycle(buffer);
          buffer = temp;
       }
    }
    
+   /**
+    * This is used to take an array from the pool to buffer the body
+    * in. This is done on the first write, so a response without a
+    * body, or one sent from a file, never holds an array. The array
+    * is charged to the budget just as an expanded buffer would be.
+    * A tunnel such as a WebSocket is never buffered by default, as
+    * its handshake must reach the client as soon as it is written.
+    */
+   private void acquire() {
+      if(pool != null && !support.isTunnel()) {
+         byte[] array = pool.acquire();
+         
+         if(budget != null) {
+            budget.charge(RESPONSE, array.length);
+         }
+         buffer = array;
+      }
+   }
+   
+   /**
+    * This is used to return an array to the pool it was taken from.
+    * The pool will only keep the array if it is of its own size, so
+    * a buffer that was expanded by the response is simply dropped.
+    *
+    * @param array this is the array that is no longer used
+    */
+   private void recycle(byte[] array) {
+      if(pool != null) {
+         pool.recycle(array);
+      }
+   }
+   
    /**
     * This is used to flush the contents of the buffer to the 
     * underlying transport. Once the accumulator is flushed the HTTP
@@ -275,13 +433,31 @@ class ResponseBuffer extends OutputStream implements WritableByteChannel {
     * Closing this stream does not mean the connection is closed.
     */ 
    public void close() throws IOException {
-      if(!closed) {
-         commit();
+      try {
+         if(!closed) {
+            commit();
+         }
+      } finally {
+         release();
       }
       flushed = true;
       closed = true;      
    }
    
+   /**
+    * This is used to release the internal buffer once the response
+    * has been closed. If the buffer was charged against a budget 
+    * then the charge is released so that other connections that 
+    * are waiting for memory can continue.
+    */
+   private void release() {
+      if(budget != null) {
+         budget.release(RESPONSE, buffer.length);
+      }
+      recycle(buffer);
+      buffer = new byte[] {};
+   }
+   
    /**
     * This will close the underlying transfer object which will 
     * notify the server kernel that the next request is read to be
@@ -22,6 +22,7 @@ import static org.simpleframework.http.core.ContainerEvent.WRITE_BODY;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import org.simpleframework.http.Response;
 import org.simpleframework.transport.Channel;
@@ -197,6 +198,24 @@ class ResponseEncoder {
       encoder.encode(buffer, off, len);
    }
    
+   /**
+    * This method is used to write a region of a file to the socket.
+    * The region is given to the <code>BodyEncoder</code> as a file so
+    * that, if the body is not transformed, it can be sent directly.
+    * If the encoder has not been created this throws an exception.
+    *
+    * @param file this is the file containing the region to send
+    * @param position this is the position within the file to send from
+    * @param length this is the number of bytes that are to be sent
+    */
+   public void write(FileChannel file, long position, long length) throws IOException {
+      if(encoder == null) {
+         throw new ResponseException("Conversation details not ready");
+      }
+      trace.trace(WRITE_BODY, length);
+      encoder.encode(file, position, length);
+   }
+   
    /**
     * This method is used to flush the contents of the buffer to 
     * the client. This method will block until such time as all of
@@ -228,13 +247,19 @@ class ResponseEncoder {
     * This method is used to set the required HTTP headers on the
     * response. This will check the existing HTTP headers, and if
     * there is insufficient data chunked encoding will be used for
-    * HTTP/1.1 and connection close will be used for HTTP/1.0.
+    * HTTP/1.1 and connection close will be used for HTTP/1.0. If 
+    * the body is to be compressed its length is no longer known.
     */ 
    private void configure() throws IOException {
       long length = support.getContentLength(); 
+      String coding = support.getCompression(length);
       boolean empty = support.isEmpty();
       boolean tunnel = support.isTunnel();
       
+      if(coding != null) {
+         support.setContentEncoded(coding);
+         length = -1;
+      }
       if(tunnel) {
          support.setConnectionUpgrade();
       } else if(empty) {
@@ -244,7 +269,7 @@ class ResponseEncoder {
       } else {
          support.setChunkedEncoded();      
       }
-      encoder = factory.getInstance();
+      encoder = factory.getInstance(coding);
    }
    
    /**
@@ -279,9 +304,14 @@ class ResponseEncoder {
     * @param length this is the actual length value to be used
     */ 
    private void configure(long count, long length) throws IOException {    
+      String coding = support.getCompression(length);
       boolean empty = support.isEmpty();
       boolean tunnel = support.isTunnel();
       
+      if(coding != null) {
+         support.setContentEncoded(coding);
+         length = -1;
+      }
       if(tunnel) {
          support.setConnectionUpgrade();
       } else if(empty) {
@@ -291,7 +321,7 @@ class ResponseEncoder {
       } else {
          support.setChunkedEncoded();         
       }      
-      encoder = factory.getInstance();
+      encoder = factory.getInstance(coding);
    }
  
    /**
@@ -25,9 +25,11 @@ import static org.simpleframework.http.core.ContainerEvent.WRITE_HEADER;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.channels.FileChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.Map;
 
+import org.simpleframework.common.buffer.MemoryBudget;
 import org.simpleframework.http.ContentType;
 import org.simpleframework.http.Request;
 import org.simpleframework.http.Response;
@@ -78,6 +80,11 @@ class ResponseEntity extends ResponseMessage implements Response {
     */
    private ResponseBuffer buffer;   
    
+   /**
+    * This is used to write the response header as bytes.
+    */
+   private HeaderEncoder encoder;
+   
    /**
     * This is the conversation used to determine connection type.
     */
@@ -111,8 +118,58 @@ class ResponseEntity extends ResponseMessage implements Response {
     * @param entity this is the entity that contains the channel
     */
    public ResponseEntity(BodyObserver observer, Request request, Entity entity) {
-      this.support = new Conversation(request, this);
-      this.buffer = new ResponseBuffer(observer, this, support, entity);
+      this(observer, request, entity, null);
+   }
+   
+   /**
+    * Constructor for the <code>ResponseEntity</code> object. This is
+    * used to create a response instance using the provided request,
+    * entity, and monitor object. If a budget is provided then any
+    * memory used to buffer the response is charged against it.
+    * 
+    * @param observer this is the observer used to signal events     
+    * @param request this is the request that was sent by the client
+    * @param entity this is the entity that contains the channel
+    * @param budget this is the budget to charge buffering to
+    */
+   public ResponseEntity(BodyObserver observer, Request request, Entity entity, MemoryBudget budget) {
+      this(observer, request, entity, budget, null);
+   }
+   
+   /**
+    * Constructor for the <code>ResponseEntity</code> object. This is
+    * used to create a response instance using the provided request,
+    * entity, and monitor object. If a policy is provided then the 
+    * body is compressed when the policy and the client allow it.
+    * 
+    * @param observer this is the observer used to signal events     
+    * @param request this is the request that was sent by the client
+    * @param entity this is the entity that contains the channel
+    * @param budget this is the budget to charge buffering to
+    * @param policy this is the policy used to compress the body
+    */
+   public ResponseEntity(BodyObserver observer, Request request, Entity entity, MemoryBudget budget, CompressionPolicy policy) {
+      this(observer, request, entity, budget, policy, null);
+   }
+   
+   /**
+    * Constructor for the <code>ResponseEntity</code> object. This is
+    * used to create a response instance using the provided request,
+    * entity, and monitor object. If a pool is provided then the body
+    * is buffered by default, so that a small body is sent with an
+    * exact Content-Length rather than being chunked.
+    * 
+    * @param observer this is the observer used to signal events     
+    * @param request this is the request that was sent by the client
+    * @param entity this is the entity that contains the channel
+    * @param budget this is the budget to charge buffering to
+    * @param policy this is the policy used to compress the body
+    * @param pool this is the pool used to buffer the body
+    */
+   public ResponseEntity(BodyObserver observer, Request request, Entity entity, MemoryBudget budget, CompressionPolicy policy, BufferPool pool) {
+      this.support = new Conversation(request, this, policy);
+      this.buffer = new ResponseBuffer(observer, this, support, entity, budget, pool);
+      this.encoder = new HeaderEncoder(this);
       this.channel = entity.getChannel();
       this.sender = channel.getWriter();
       this.trace = channel.getTrace();
@@ -355,6 +412,21 @@ class ResponseEntity extends ResponseMessage implements Response {
       return buffer;      
    }   
    
+   /**
+    * This is used to send a region of a file as the message body, or
+    * as part of it. Any content that has been buffered is written to
+    * the client first, which commits the response. The region is then
+    * given to the encoder, which hands it to the transport as a file
+    * so it can be sent without being copied through the buffer.
+    * 
+    * @param file this is the file containing the region to send
+    * @param position this is the position within the file to send from
+    * @param length this is the number of bytes that are to be sent
+    */
+   public void sendFile(FileChannel file, long position, long length) throws IOException {
+      buffer.transfer(file, position, length);
+   }
+   
    /**
     * This is used to determine if the HTTP response message is a 
     * keep alive message or if the underlying socket was closed. Even
@@ -395,16 +467,19 @@ class ResponseEntity extends ResponseMessage implements Response {
     * This is done to determine the optimal performance of the 
     * output. If no specific Connection header has been specified
     * this will set the connection so that HTTP/1.0 closes by default.
+    * <p>
+    * The header is written as bytes directly to the sender, rather
+    * than being encoded from a string. The trace is still given the
+    * header as a string, so that analyzers see the same event value.
     *
     * @exception IOException thrown if there was a problem writing
     */
    public void commit() throws IOException {
       if(!observer.isCommitted()) {    
-         String header = toString();         
-         byte[] message = header.getBytes("UTF-8");
+         String header = toString();
          
          trace.trace(WRITE_HEADER, header);
-         sender.write(message);
+         encoder.encode(sender);
          observer.commit(sender);
       }
    }
@@ -24,7 +24,6 @@ import static org.simpleframework.http.core.ContainerEvent.RESPONSE_FINISHED;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 
-import org.simpleframework.http.message.Entity;
 import org.simpleframework.transport.Channel;
 import org.simpleframework.transport.ByteWriter;
 import org.simpleframework.transport.trace.Trace;
@@ -61,6 +60,11 @@ class ResponseObserver implements BodyObserver {
     */
    private Controller controller;
    
+   /**
+    * This is the collector that was used to collect the request.
+    */
+   private Collector collector;
+   
    /**
     * This is the channel associated with the client connection.
     */
@@ -83,16 +87,17 @@ class ResponseObserver implements BodyObserver {
     * successful deliver of a response.
     * 
     * @param controller the controller used to process channels
-    * @param entity this is the entity associated with the channel
+    * @param collector this is the collector used for the request
     */ 
-   public ResponseObserver(Controller controller, Entity entity) {
+   public ResponseObserver(Controller controller, Collector collector) {
       this.timer = new Timer(MILLISECONDS);       
       this.committed = new AtomicBoolean();     
       this.closed = new AtomicBoolean();
       this.error = new AtomicBoolean();
-      this.channel = entity.getChannel();
+      this.channel = collector.getChannel();
       this.trace = channel.getTrace();
       this.controller = controller;
+      this.collector = collector;
    }
 
    /**
@@ -110,6 +115,7 @@ class ResponseObserver implements BodyObserver {
             closed.set(true);
             timer.set();
             trace.trace(RESPONSE_FINISHED);
+            release();
             writer.close();
          }
       } catch(Exception cause) {
@@ -133,6 +139,7 @@ class ResponseObserver implements BodyObserver {
             error.set(true);
             timer.set();
             trace.trace(RESPONSE_FINISHED);
+            release();
             writer.close();
          }            
       } catch(Exception cause) {
@@ -156,7 +163,8 @@ class ResponseObserver implements BodyObserver {
             writer.flush();
             timer.set();
             trace.trace(RESPONSE_FINISHED);
-            controller.start(channel);
+            release();
+            controller.complete(collector);
          }
       } catch(Exception cause) {
          trace.trace(ERROR, cause);
@@ -164,6 +172,20 @@ class ResponseObserver implements BodyObserver {
       }
    }
    
+   /**
+    * This is used to release any memory held for the request once
+    * the response has finished. The memory is returned at this point
+    * unless the container is still handling the request, in which 
+    * case it is returned once the container has returned.
+    */
+   private void release() {
+      try {
+         collector.release();
+      } catch(Exception cause) {
+         trace.trace(ERROR, cause);
+      }
+   }
+   
    /**
     * This is used to purge the writer so that it closes the socket
     * ensuring there is no connection leak on shutdown. This is used
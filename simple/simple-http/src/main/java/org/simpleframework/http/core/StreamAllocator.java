@@ -0,0 +1,142 @@
+/*
+ * StreamAllocator.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.core;
+
+import java.io.IOException;
+
+import org.simpleframework.common.buffer.Allocator;
+import org.simpleframework.common.buffer.Buffer;
+
+/**
+ * The <code>StreamAllocator</code> is used to allocate the buffer for
+ * a request body that is streamed to the container. Each request is
+ * given a single <code>StreamBuffer</code>, which is created when it
+ * is first needed, and every allocation for that request returns it.
+ * This allows the collector to hand the buffer to the container
+ * before the body consumer has read any bytes of the body.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.core.StreamBuffer
+ */
+class StreamAllocator implements Allocator {
+
+   /**
+    * This is the buffer for the request currently being read.
+    */
+   private StreamBuffer buffer;
+
+   /**
+    * This is the number of bytes a buffer holds before suspending.
+    */
+   private final int limit;
+
+   /**
+    * Constructor for the <code>StreamAllocator</code> object. This
+    * creates an allocator whose buffers will suspend reading once
+    * sixty four kilobytes of the body are waiting to be read.
+    */
+   public StreamAllocator() {
+      this(65536);
+   }
+
+   /**
+    * Constructor for the <code>StreamAllocator</code> object. This
+    * creates an allocator whose buffers will hold no more than the
+    * specified number of unread bytes before reading is suspended.
+    *
+    * @param limit this is the number of bytes a buffer can hold
+    */
+   public StreamAllocator(int limit) {
+      this.limit = limit;
+   }
+
+   /**
+    * This returns the buffer for the request currently being read.
+    * Each request has only one body, so repeated allocations will
+    * return the same buffer until the allocator has been reset.
+    *
+    * @return this returns the buffer for the current request
+    */
+   public Buffer allocate() throws IOException {
+      return getBuffer();
+   }
+
+   /**
+    * This returns the buffer for the request currently being read.
+    * The size is ignored, as a streamed body is never held in full
+    * regardless of how large the body is declared to be.
+    *
+    * @param size this is the size of the body to be streamed
+    *
+    * @return this returns the buffer for the current request
+    */
+   public Buffer allocate(long size) throws IOException {
+      return getBuffer();
+   }
+
+   /**
+    * This returns the buffer for the request currently being read.
+    * If no buffer has been created for the request one is created,
+    * so that the container can be given the buffer before any of
+    * the body has been read from the transport.
+    *
+    * @return this returns the buffer for the current request
+    */
+   public StreamBuffer getBuffer() {
+      if(buffer == null) {
+         buffer = new StreamBuffer(limit);
+      }
+      return buffer;
+   }
+
+   /**
+    * This is used to determine if the current buffer holds enough
+    * unread bytes that the collector should stop reading. If the
+    * body has not started there is nothing held.
+    *
+    * @return this returns true if the collector should stop reading
+    */
+   public boolean isFull() {
+      if(buffer != null) {
+         return buffer.isFull();
+      }
+      return false;
+   }
+
+   /**
+    * This is used to mark the end of the body for the current request.
+    * If the whole body was read before the request was handed to the
+    * container, this ensures the stream ends once it has been read.
+    */
+   public void close() throws IOException {
+      if(buffer != null) {
+         buffer.close();
+      }
+   }
+
+   /**
+    * This is used to prepare the allocator for the next request. As
+    * the container may still hold the stream of the last request,
+    * a new buffer is created rather than reusing the existing one.
+    */
+   public void reset() {
+      buffer = null;
+   }
+}
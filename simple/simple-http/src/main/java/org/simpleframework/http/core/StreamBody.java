@@ -0,0 +1,175 @@
+/*
+ * StreamBody.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+
+import org.simpleframework.common.buffer.Allocator;
+import org.simpleframework.http.ContentType;
+import org.simpleframework.http.Part;
+import org.simpleframework.http.message.Body;
+import org.simpleframework.http.message.PartList;
+import org.simpleframework.http.message.Segment;
+
+/**
+ * The <code>StreamBody</code> represents a request body that is given
+ * to the container before it has been read. The content is read from
+ * a <code>StreamBuffer</code> as it arrives, so reading the content
+ * blocks until the requested bytes have been read from the transport.
+ * <p>
+ * If the body is multipart its parts are provided by a lazy list. As
+ * the list is iterated each part is read from the stream in turn, so
+ * the content of a part can be read as it arrives. The raw content
+ * and the parts are read from the same stream, so only one of them
+ * should be used for any given request.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.core.StreamBuffer
+ */
+class StreamBody implements Body {
+
+   /**
+    * This is the buffer that the body is read from as it arrives.
+    */
+   private final StreamBuffer buffer;
+
+   /**
+    * This is used to buffer parts that are not read in turn.
+    */
+   private final Allocator allocator;
+
+   /**
+    * This is the header that was sent with the request.
+    */
+   private final Segment segment;
+
+   /**
+    * This is the list of parts if the body is multipart.
+    */
+   private PartList parts;
+
+   /**
+    * Constructor for the <code>StreamBody</code> object. This is
+    * used to create a body that reads its content from the buffer
+    * that the collector is appending the body to.
+    *
+    * @param buffer this is the buffer the body is read from
+    * @param segment this is the header sent with the request
+    * @param allocator this is used to buffer unread parts
+    */
+   public StreamBody(StreamBuffer buffer, Segment segment, Allocator allocator) {
+      this.allocator = allocator;
+      this.segment = segment;
+      this.buffer = buffer;
+   }
+
+   /**
+    * This will read the remainder of the body as a string using the
+    * UTF-8 encoding. This blocks until the body has been fully read.
+    *
+    * @return this returns the remainder of the body as a string
+    */
+   public String getContent() throws IOException {
+      return buffer.encode();
+   }
+
+   /**
+    * This will read the remainder of the body as a string using the
+    * specified encoding. This blocks until the body has been read.
+    *
+    * @param charset this is the character set used by the string
+    *
+    * @return this returns the remainder of the body as a string
+    */
+   public String getContent(String charset) throws IOException {
+      return buffer.encode(charset);
+   }
+
+   /**
+    * This returns the stream used to read the body as it arrives.
+    * Reads from this stream block until bytes have been read from
+    * the transport or the end of the body has been reached.
+    *
+    * @return this returns a stream used to read the body
+    */
+   public InputStream getInputStream() throws IOException {
+      return buffer.open();
+   }
+
+   /**
+    * This is used to acquire a part by name. The parts that precede
+    * the named part are read from the stream and buffered, so that
+    * they can still be read once the named part has been found.
+    *
+    * @param name this is the name of the part to acquire
+    *
+    * @return this returns the part with the name or null
+    */
+   public Part getPart(String name) {
+      PartList list = getPartList();
+
+      if(list != null) {
+         return list.getPart(name);
+      }
+      return null;
+   }
+
+   /**
+    * This returns the parts of a multipart body. The parts are read
+    * from the stream as the list is iterated, so each part can be
+    * read as it arrives. If the body is not multipart this is empty.
+    *
+    * @return this returns the list of parts within the body
+    */
+   public List<Part> getParts() {
+      PartList list = getPartList();
+
+      if(list != null) {
+         return list;
+      }
+      return Collections.emptyList();
+   }
+
+   /**
+    * This is used to create the list of parts for a multipart body.
+    * The list is created once, when the parts are first requested,
+    * using the boundary declared in the content type of the request.
+    *
+    * @return this returns the list of parts or null if not multipart
+    */
+   private PartList getPartList() {
+      if(parts == null) {
+         ContentType type = segment.getContentType();
+
+         if(type != null) {
+            String primary = type.getPrimary();
+            String boundary = type.getParameter("boundary");
+
+            if(primary.equals("multipart") && boundary != null) {
+               parts = new PartList(allocator, buffer.open(), boundary.getBytes());
+            }
+         }
+      }
+      return parts;
+   }
+}
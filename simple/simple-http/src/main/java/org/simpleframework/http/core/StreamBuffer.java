@@ -0,0 +1,452 @@
+/*
+ * StreamBuffer.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.simpleframework.common.buffer.Buffer;
+import org.simpleframework.common.buffer.BufferException;
+
+/**
+ * The <code>StreamBuffer</code> is used to pass the body of a request
+ * to the container while it is still being read. Bytes are appended
+ * by the collector as they arrive from the transport, and the stream
+ * opened on the buffer blocks until more bytes have arrived or until
+ * the body has been fully read. Only bytes that have not yet been
+ * read by the container are held, so the buffer stays small however
+ * large the body is.
+ * <p>
+ * Once more than the limit is held the collector stops reading from
+ * the transport and suspends itself on the buffer. It is selected
+ * for reading again by the thread that drains the buffer. If the
+ * response completes before the body is read the buffer discards
+ * everything, so the rest of the body can be read and thrown away.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.core.StreamAllocator
+ */
+class StreamBuffer implements Buffer {
+
+   /**
+    * This is the stream used by the container to read the body.
+    */
+   private final InputStream stream;
+
+   /**
+    * This is the collector that is waiting for the body to drain.
+    */
+   private Collector collector;
+
+   /**
+    * This is the controller used to resume the waiting collector.
+    */
+   private Controller controller;
+
+   /**
+    * This holds the bytes that have not yet been read.
+    */
+   private byte[] data;
+
+   /**
+    * This is the number of bytes that have been appended in total.
+    */
+   private long length;
+
+   /**
+    * This is the number of bytes held before reading is suspended.
+    */
+   private final int limit;
+
+   /**
+    * This is the offset of the first byte that has not been read.
+    */
+   private int start;
+
+   /**
+    * This is the number of bytes that have not yet been read.
+    */
+   private int count;
+
+   /**
+    * This is set once the last byte of the body has been appended.
+    */
+   private boolean closed;
+
+   /**
+    * This is set if the connection failed before the body was read.
+    */
+   private boolean aborted;
+
+   /**
+    * This is set once the response has completed with the body.
+    */
+   private boolean discard;
+
+   /**
+    * Constructor for the <code>StreamBuffer</code> object. This is
+    * used to create a buffer that will suspend the collector if more
+    * than the specified number of bytes is waiting to be read.
+    *
+    * @param limit this is the number of bytes that can be held
+    */
+   public StreamBuffer(int limit) {
+      this.stream = new StreamInputStream();
+      this.data = new byte[Math.min(limit, 8192)];
+      this.limit = limit;
+   }
+
+   /**
+    * A streamed body can not be split in to segments, as the bytes
+    * are discarded once they have been read. So this will always
+    * throw an exception to indicate it is not supported.
+    *
+    * @return this never returns as segments are not supported
+    */
+   public Buffer allocate() throws IOException {
+      throw new BufferException("Streamed body can not be divided");
+   }
+
+   /**
+    * This returns the stream used to read the body. There is only a
+    * single stream for the buffer, as each byte can be read once, so
+    * this will return the same stream each time it is invoked.
+    *
+    * @return this returns the stream used to read the body
+    */
+   public InputStream open() {
+      return stream;
+   }
+
+   /**
+    * This will read the remainder of the body and convert it to a
+    * string using the UTF-8 encoding. This blocks until the body has
+    * been read fully from the transport.
+    *
+    * @return this returns the remainder of the body as a string
+    */
+   public String encode() throws IOException {
+      return encode("UTF-8");
+   }
+
+   /**
+    * This will read the remainder of the body and convert it to a
+    * string using the specified encoding. This blocks until the body
+    * has been read fully from the transport.
+    *
+    * @param charset this is the character set used by the string
+    *
+    * @return this returns the remainder of the body as a string
+    */
+   public String encode(String charset) throws IOException {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      byte[] chunk = new byte[1024];
+      int size = 0;
+
+      while((size = stream.read(chunk)) != -1) {
+         buffer.write(chunk, 0, size);
+      }
+      return buffer.toString(charset);
+   }
+
+   /**
+    * This is used to append bytes read from the transport. The bytes
+    * are held until they are read, and any thread that is waiting for
+    * bytes to read is woken. This never blocks the calling thread.
+    *
+    * @param array this is the array of bytes to be appended
+    *
+    * @return this returns this buffer once the bytes are appended
+    */
+   public Buffer append(byte[] array) throws IOException {
+      return append(array, 0, array.length);
+   }
+
+   /**
+    * This is used to append bytes read from the transport. The bytes
+    * are held until they are read, and any thread that is waiting for
+    * bytes to read is woken. If the response has already completed
+    * the bytes are simply counted and discarded.
+    *
+    * @param array this is the array of bytes to be appended
+    * @param off this is the offset to begin reading the bytes from
+    * @param size this is the number of bytes to be appended
+    *
+    * @return this returns this buffer once the bytes are appended
+    */
+   public synchronized Buffer append(byte[] array, int off, int size) throws IOException {
+      if(closed) {
+         throw new BufferException("Buffer is closed");
+      }
+      if(!discard) {
+         if(start + count + size > data.length) {
+            expand(count + size);
+         }
+         System.arraycopy(array, off, data, start + count, size);
+         count += size;
+         notifyAll();
+      }
+      length += size;
+      return this;
+   }
+
+   /**
+    * This is used to make space for more bytes. Bytes that have been
+    * read are dropped by moving the unread bytes to the start of the
+    * array, and the array grows only if the unread bytes need it.
+    *
+    * @param capacity this is the number of bytes that must be held
+    */
+   private void expand(int capacity) {
+      if(capacity > data.length) {
+         byte[] copy = new byte[Math.max(capacity, data.length * 2)];
+         System.arraycopy(data, start, copy, 0, count);
+         data = copy;
+      } else {
+         System.arraycopy(data, start, data, 0, count);
+      }
+      start = 0;
+   }
+
+   /**
+    * This will drop the bytes that have not yet been read. Unlike
+    * discarding the body this does not affect bytes appended later,
+    * which are held for the stream as normal.
+    */
+   public synchronized void clear() throws IOException {
+      start = count = 0;
+   }
+
+   /**
+    * This is used to mark the end of the body. Once the remaining
+    * bytes have been read the stream will report the end of the
+    * body, and no further bytes can be appended to the buffer.
+    */
+   public synchronized void close() throws IOException {
+      closed = true;
+      notifyAll();
+   }
+
+   /**
+    * This returns the number of bytes that have been appended to the
+    * buffer. This is the length of the body that has been read from
+    * the transport so far, rather than the number held.
+    *
+    * @return this returns the number of bytes appended so far
+    */
+   public synchronized long length() {
+      return length;
+   }
+
+   /**
+    * This is used to determine if the buffer holds enough bytes that
+    * the collector should stop reading. If the body is being thrown
+    * away the buffer never fills and reading is never suspended.
+    *
+    * @return this returns true if the collector should stop reading
+    */
+   public synchronized boolean isFull() {
+      return count >= limit;
+   }
+
+   /**
+    * This is used to suspend the collector until the buffer drains.
+    * If the buffer is still full the collector is held so that it
+    * is selected for reading once enough bytes have been read. If
+    * the buffer has drained in the meantime this returns false.
+    *
+    * @param controller this is used to select the collector again
+    * @param collector this is the collector that is suspended
+    *
+    * @return this returns true if the collector was suspended
+    */
+   public synchronized boolean suspend(Controller controller, Collector collector) {
+      if(count >= limit) {
+         this.controller = controller;
+         this.collector = collector;
+         return true;
+      }
+      return false;
+   }
+
+   /**
+    * This is used when the response completes before the body has
+    * been read. The held bytes are dropped along with any appended
+    * later, and if the collector was suspended it is resumed so that
+    * the remainder of the body can be read from the transport.
+    */
+   public void discard() throws IOException {
+      synchronized(this) {
+         discard = true;
+         start = count = 0;
+         notifyAll();
+      }
+      resume();
+   }
+
+   /**
+    * This is used when the connection fails before the body has been
+    * read. Any thread blocked reading the stream is woken and will
+    * receive an exception rather than waiting for more bytes.
+    */
+   public synchronized void abort() {
+      aborted = true;
+      notifyAll();
+   }
+
+   /**
+    * This is used to read bytes from the buffer. If no bytes are held
+    * this will block until some arrive or until the body has ended.
+    * Once bytes have been taken, a suspended collector is resumed if
+    * the buffer has drained below its limit.
+    *
+    * @param array this is the array to read the bytes in to
+    * @param off this is the offset to read the bytes in to
+    * @param size this is the maximum number of bytes to read
+    *
+    * @return this returns the number of bytes read or minus one
+    */
+   private int read(byte[] array, int off, int size) throws IOException {
+      int ready = take(array, off, size);
+
+      if(ready > 0) {
+         resume();
+      }
+      return ready;
+   }
+
+   /**
+    * This is used to take bytes from the buffer. If no bytes are held
+    * this will block until some arrive or until the body has ended.
+    * If the connection has failed an exception is thrown.
+    *
+    * @param array this is the array to read the bytes in to
+    * @param off this is the offset to read the bytes in to
+    * @param size this is the maximum number of bytes to read
+    *
+    * @return this returns the number of bytes read or minus one
+    */
+   private synchronized int take(byte[] array, int off, int size) throws IOException {
+      while(count == 0) {
+         if(aborted) {
+            throw new BufferException("Connection closed before body was read");
+         }
+         if(closed || discard) {
+            return -1;
+         }
+         try {
+            wait();
+         } catch(InterruptedException e) {
+            throw new BufferException("Interrupted reading body");
+         }
+      }
+      int ready = Math.min(size, count);
+
+      if(ready > 0) {
+         System.arraycopy(data, start, array, off, ready);
+         start += ready;
+         count -= ready;
+      }
+      if(count == 0) {
+         start = 0;
+      }
+      return ready;
+   }
+
+   /**
+    * This is used to resume a suspended collector once the buffer
+    * has drained below its limit. The collector is selected for
+    * reading outside of the lock, so a thread reading the stream
+    * never holds the buffer while it interacts with the reactor.
+    */
+   private void resume() throws IOException {
+      Controller controller = null;
+      Collector collector = null;
+
+      synchronized(this) {
+         if(this.collector != null) {
+            if(count < limit) {
+               controller = this.controller;
+               collector = this.collector;
+               this.controller = null;
+               this.collector = null;
+            }
+         }
+      }
+      if(collector != null) {
+         controller.select(collector);
+      }
+   }
+
+   /**
+    * The <code>StreamInputStream</code> is used to read the body as
+    * it arrives. It reads directly from the enclosing buffer, and
+    * so blocks until there are bytes to read or the body has ended.
+    */
+   private class StreamInputStream extends InputStream {
+
+      /**
+       * This is used to read a single byte from the body. This will
+       * block until a byte arrives or until the body has ended.
+       *
+       * @return this returns the byte read or minus one at the end
+       */
+      public int read() throws IOException {
+         byte[] octet = new byte[1];
+         int size = read(octet, 0, 1);
+
+         if(size > 0) {
+            return octet[0] & 0xff;
+         }
+         return -1;
+      }
+
+      /**
+       * This is used to read bytes from the body. This will block
+       * until at least one byte arrives or until the body has ended.
+       *
+       * @param array this is the array to read the bytes in to
+       * @param off this is the offset to read the bytes in to
+       * @param size this is the maximum number of bytes to read
+       *
+       * @return this returns the number of bytes read or minus one
+       */
+      public int read(byte[] array, int off, int size) throws IOException {
+         if(size == 0) {
+            return 0;
+         }
+         return StreamBuffer.this.read(array, off, size);
+      }
+
+      /**
+       * This returns the number of bytes that can be read without
+       * blocking. These are the bytes that have been read from the
+       * transport but not yet read from the stream.
+       *
+       * @return this returns the number of bytes ready to be read
+       */
+      public int available() throws IOException {
+         synchronized(StreamBuffer.this) {
+            return count;
+         }
+      }
+   }
+}
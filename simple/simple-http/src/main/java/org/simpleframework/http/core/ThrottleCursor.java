@@ -0,0 +1,156 @@
+/*
+ * ThrottleCursor.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.core;
+
+import java.io.IOException;
+
+import org.simpleframework.transport.ByteCursor;
+
+/**
+ * The <code>ThrottleCursor</code> is used to stop the collector reading
+ * a streamed body faster than the container consumes it. It reports
+ * that no bytes are ready once the stream buffer is full, so that
+ * the body consumer returns and the collector can suspend itself
+ * until the container has read some of what is held.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.core.StreamAllocator
+ */
+class ThrottleCursor implements ByteCursor {
+
+   /**
+    * This is the allocator holding the buffer for the body.
+    */
+   private final StreamAllocator allocator;
+
+   /**
+    * This is the cursor used to read from the transport.
+    */
+   private final ByteCursor cursor;
+
+   /**
+    * Constructor for the <code>ThrottleCursor</code> object. This is
+    * used to wrap the cursor for the connection so that it appears
+    * to have no bytes ready while the buffer for the body is full.
+    *
+    * @param cursor this is the cursor used to read the transport
+    * @param allocator this holds the buffer for the body
+    */
+   public ThrottleCursor(ByteCursor cursor, StreamAllocator allocator) {
+      this.allocator = allocator;
+      this.cursor = cursor;
+   }
+
+   /**
+    * This is used to determine if the underlying transport is open.
+    * Being full does not affect this, as the transport can still be
+    * read once the container has drained the buffer.
+    *
+    * @return true if the transport is open and can be read from
+    */
+   public boolean isOpen() throws IOException {
+      return cursor.isOpen();
+   }
+
+   /**
+    * This is used to determine if there are bytes that can be read.
+    * If the buffer for the body is full this returns false without
+    * examining the transport, so no more of the body is read.
+    *
+    * @return true if bytes can be read and the buffer is not full
+    */
+   public boolean isReady() throws IOException {
+      if(allocator.isFull()) {
+         return false;
+      }
+      return cursor.isReady();
+   }
+
+   /**
+    * This returns the number of bytes that can be read from the
+    * transport. If the buffer for the body is full this is zero.
+    *
+    * @return this returns the number of bytes ready to be read
+    */
+   public int ready() throws IOException {
+      if(allocator.isFull()) {
+         return 0;
+      }
+      return cursor.ready();
+   }
+
+   /**
+    * This reads bytes from the underlying cursor in to the array.
+    *
+    * @param data this is the array to read the bytes in to
+    *
+    * @return this returns the number of bytes that were read
+    */
+   public int read(byte[] data) throws IOException {
+      return cursor.read(data);
+   }
+
+   /**
+    * This reads bytes from the underlying cursor in to the array.
+    *
+    * @param data this is the array to read the bytes in to
+    * @param off this is the offset to read the bytes in to
+    * @param len this is the maximum number of bytes to read
+    *
+    * @return this returns the number of bytes that were read
+    */
+   public int read(byte[] data, int off, int len) throws IOException {
+      return cursor.read(data, off, len);
+   }
+
+   /**
+    * This pushes bytes back on to the underlying cursor, so that
+    * they are read again, such as the start of the next request.
+    *
+    * @param data this is the array of bytes to be pushed back
+    */
+   public void push(byte[] data) throws IOException {
+      cursor.push(data);
+   }
+
+   /**
+    * This pushes bytes back on to the underlying cursor, so that
+    * they are read again, such as the start of the next request.
+    *
+    * @param data this is the array of bytes to be pushed back
+    * @param off this is the offset of the bytes to push back
+    * @param len this is the number of bytes to push back
+    */
+   public void push(byte[] data, int off, int len) throws IOException {
+      cursor.push(data, off, len);
+   }
+
+   /**
+    * This moves the underlying cursor back by the specified number
+    * of bytes, which makes them available to be read once more.
+    *
+    * @param len this is the number of bytes to reset by
+    *
+    * @return this returns the number of bytes that were reset
+    */
+   public int reset(int len) throws IOException {
+      return cursor.reset(len);
+   }
+}
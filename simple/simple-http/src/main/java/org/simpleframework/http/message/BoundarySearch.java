@@ -0,0 +1,197 @@
+/*
+ * BoundarySearch.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.message;
+
+/**
+ * The <code>BoundarySearch</code> is used to find the delimiter that
+ * terminates the body of a multipart part. The delimiter is a line
+ * break followed by two dashes and the boundary. It is found using
+ * the Boyer-Moore-Horspool algorithm, which compares the delimiter
+ * from its last byte backwards, and on a mismatch uses a table built
+ * from the delimiter to skip ahead by up to the delimiter length. So
+ * for a typical boundary most of the bytes of a body are never read.
+ * <p>
+ * As the body arrives in fragments the delimiter may be split over
+ * two or more reads. When no full match is found the search reports
+ * the start of the longest tail of the fragment that begins the
+ * delimiter, so the consumer can hold those bytes back until the
+ * next fragment shows whether they are the delimiter or content.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.message.ContentConsumer
+ */
+class BoundarySearch {
+
+   /**
+    * This represents the start of the delimiter for a part body.
+    */
+   private static final byte[] START = { '\r', '\n', '-', '-' };
+
+   /**
+    * This is the full delimiter that is to be searched for.
+    */
+   private final byte[] delimiter;
+
+   /**
+    * This is the distance to shift for the last byte of a window.
+    */
+   private final int[] skip;
+
+   /**
+    * Constructor for the <code>BoundarySearch</code> object. This is
+    * used to create the delimiter for the boundary and the table of
+    * shifts that is used to skip over bytes that can not be part of
+    * the delimiter at the current position.
+    *
+    * @param boundary this is the boundary that frames the parts
+    */
+   public BoundarySearch(byte[] boundary) {
+      this.delimiter = new byte[START.length + boundary.length];
+      this.skip = new int[256];
+      this.build(boundary);
+   }
+
+   /**
+    * This is used to build the delimiter and the table of shifts. The
+    * shift for a byte is the distance from its last occurrence in the
+    * delimiter, excluding the final byte, to the end of the delimiter.
+    * Bytes that do not occur can shift by the full delimiter length.
+    *
+    * @param boundary this is the boundary that frames the parts
+    */
+   private void build(byte[] boundary) {
+      int length = delimiter.length;
+
+      System.arraycopy(START, 0, delimiter, 0, START.length);
+      System.arraycopy(boundary, 0, delimiter, START.length, boundary.length);
+
+      for(int i = 0; i < skip.length; i++) {
+         skip[i] = length;
+      }
+      for(int i = 0; i < length - 1; i++) {
+         skip[delimiter[i] & 0xff] = length - 1 - i;
+      }
+   }
+
+   /**
+    * This is used to acquire the delimiter that is searched for. It
+    * is the start of a line followed by the dashes and the boundary,
+    * which must be pushed back on to the cursor once it is found.
+    *
+    * @return this returns the delimiter that is searched for
+    */
+   public byte[] getDelimiter() {
+      return delimiter;
+   }
+
+   /**
+    * This is used to determine if the byte continues a match. When
+    * part of the delimiter was found at the end of a fragment this
+    * is used to match the remainder from the start of the next.
+    *
+    * @param octet this is the byte that has been read
+    * @param index this is the position within the delimiter
+    *
+    * @return this returns true if the byte matches the delimiter
+    */
+   public boolean isMatch(byte octet, int index) {
+      return delimiter[index] == octet;
+   }
+
+   /**
+    * This is used to search the fragment for the delimiter. If the
+    * full delimiter is found then its start is returned. Otherwise
+    * this returns the start of the longest tail of the fragment that
+    * is the beginning of the delimiter, or the end of the range if
+    * no such tail exists. So the bytes before the returned index can
+    * never form part of the delimiter.
+    *
+    * @param array this is the fragment that is to be searched
+    * @param off this is the offset within the array to search from
+    * @param end this is the offset within the array to search to
+    *
+    * @return this returns the start of a full or partial match
+    */
+   public int find(byte[] array, int off, int end) {
+      int last = delimiter.length - 1;
+      int next = off + last;
+
+      while(next < end) {
+         int pos = next;
+         int index = last;
+
+         while(array[pos] == delimiter[index]) {
+            if(index-- == 0) {
+               return pos;
+            }
+            pos--;
+         }
+         next += skip[array[next] & 0xff];
+      }
+      return partial(array, next - last, end);
+   }
+
+   /**
+    * This is used to find the earliest position in the tail of the
+    * fragment that begins the delimiter. The delimiter can only begin
+    * on a carriage return, so each candidate is found a word at a
+    * time before the remaining bytes of the tail are compared.
+    *
+    * @param array this is the fragment that is to be searched
+    * @param off this is the first position that can begin a match
+    * @param end this is the offset within the array to search to
+    *
+    * @return this returns the start of the tail or the end offset
+    */
+   private int partial(byte[] array, int off, int end) {
+      while(off < end) {
+         off = ByteScanner.indexOf(array, delimiter[0], off, end);
+
+         if(off < 0) {
+            return end;
+         }
+         if(isPrefix(array, off, end)) {
+            return off;
+         }
+         off++;
+      }
+      return end;
+   }
+
+   /**
+    * This is used to determine if the bytes up to the end of the
+    * fragment are the start of the delimiter. These bytes can not be
+    * treated as content until the following fragment has been read.
+    *
+    * @param array this is the fragment that is to be searched
+    * @param off this is the position the tail begins at
+    * @param end this is the offset within the array to search to
+    *
+    * @return this returns true if the tail begins the delimiter
+    */
+   private boolean isPrefix(byte[] array, int off, int end) {
+      for(int i = 0; off + i < end; i++) {
+         if(array[off + i] != delimiter[i]) {
+            return false;
+         }
+      }
+      return true;
+   }
+}
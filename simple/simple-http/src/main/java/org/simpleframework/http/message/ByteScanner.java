@@ -0,0 +1,99 @@
+/*
+ * ByteScanner.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.message;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The <code>ByteScanner</code> is used to find a byte within an array
+ * a word at a time. Rather than comparing each byte in turn, eight
+ * bytes are read as a single <code>long</code> and a bit trick is
+ * used to determine whether any of them is the byte being searched
+ * for. Only when a word contains a candidate is its position taken,
+ * so long runs of bytes that can not match are skipped quickly.
+ * <p>
+ * This is used to find the carriage return that may begin the end of
+ * a message header, and to skip the bytes of a multipart body that
+ * can not be the start of a boundary. The words are read using a
+ * little endian buffer so that the lowest match in the word is the
+ * first match in the array, whatever the order of the platform.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.message.SegmentConsumer
+ */
+final class ByteScanner {
+
+   /**
+    * This has the lowest bit of each byte within a word set.
+    */
+   private static final long LOW = 0x0101010101010101L;
+
+   /**
+    * This has the highest bit of each byte within a word set.
+    */
+   private static final long HIGH = 0x8080808080808080L;
+
+   /**
+    * Constructor for the <code>ByteScanner</code> object. This is
+    * private as all of the methods are static and so there is no
+    * need to create an instance of the scanner.
+    */
+   private ByteScanner() {
+      super();
+   }
+
+   /**
+    * This is used to find the first occurrence of the byte within the
+    * specified range of the array. The bytes are examined a word at
+    * a time until fewer than eight remain, which are then compared
+    * individually. If the byte is not found this returns minus one.
+    *
+    * @param array this is the array of bytes that is to be searched
+    * @param octet this is the byte that is to be searched for
+    * @param off this is the offset within the array to search from
+    * @param end this is the offset within the array to search to
+    *
+    * @return this returns the index of the byte or minus one
+    */
+   public static int indexOf(byte[] array, byte octet, int off, int end) {
+      if(end - off >= 8) {
+         ByteBuffer buffer = ByteBuffer.wrap(array).order(ByteOrder.LITTLE_ENDIAN);
+         long pattern = (octet & 0xffL) * LOW;
+
+         while(end - off >= 8) {
+            long word = buffer.getLong(off) ^ pattern;
+            long match = (word - LOW) & ~word & HIGH;
+
+            if(match != 0) {
+               return off + (Long.numberOfTrailingZeros(match) >>> 3);
+            }
+            off += 8;
+         }
+      }
+      while(off < end) {
+         if(array[off] == octet) {
+            return off;
+         }
+         off++;
+      }
+      return -1;
+   }
+}
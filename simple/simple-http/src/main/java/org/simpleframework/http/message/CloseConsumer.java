@@ -0,0 +1,100 @@
+/*
+ * CloseConsumer.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.message;
+
+import java.io.IOException;
+
+import org.simpleframework.common.buffer.Allocator;
+import org.simpleframework.common.buffer.Buffer;
+
+/**
+ * The <code>CloseConsumer</code> is used to consume a response body
+ * that is delimited by the server closing the connection. This is
+ * used when the response has neither a <code>Content-Length</code>
+ * nor a chunked <code>Transfer-Encoding</code>. The consumer is
+ * only finished once the end of the stream has been reached.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.message.FixedLengthConsumer
+ */
+public class CloseConsumer extends UpdateConsumer {
+
+   /**
+    * This is the allocator used to allocate the content buffer.
+    */
+   private final Allocator allocator;
+
+   /**
+    * This is the buffer used to accumulate the body content.
+    */
+   private Buffer buffer;
+
+   /**
+    * Constructor for the <code>CloseConsumer</code> object. This is
+    * used to create a consumer that reads all bytes until the end
+    * of the stream. All bytes read are appended to a buffer created
+    * from the allocator provided.
+    *
+    * @param allocator this is used to allocate the content buffer
+    */
+   public CloseConsumer(Allocator allocator) {
+      this.allocator = allocator;
+   }
+
+   /**
+    * This is used to acquire the body that has been consumed. This
+    * will return a body which can be used to read the content of
+    * the message once the connection has been closed.
+    *
+    * @return this returns the body that has been consumed
+    */
+   public Body getBody() {
+      return new BufferBody(buffer);
+   }
+
+   /**
+    * This is invoked once the end of the stream has been reached.
+    * As the body is delimited by the connection closing this marks
+    * the consumer as finished, so that the response can complete.
+    */
+   public void terminate() {
+      finished = true;
+   }
+
+   /**
+    * This is used to process the bytes that have been read from the
+    * cursor. As the body is delimited by the end of the stream all
+    * of the bytes are appended to the buffer, and none are reset.
+    *
+    * @param array this is a chunk read from the cursor
+    * @param off this is the offset within the array the chunk starts
+    * @param count this is the number of bytes within the array
+    *
+    * @return this returns the number of bytes overflow that is read
+    */
+   @Override
+   protected int update(byte[] array, int off, int count) throws IOException {
+      if(buffer == null) {
+         buffer = allocator.allocate();
+      }
+      buffer.append(array, off, count);
+      return 0;
+   }
+}
@@ -18,9 +18,11 @@
 
 package org.simpleframework.http.message;
 
+import static org.simpleframework.http.Protocol.APPLICATION;
 import static org.simpleframework.http.Protocol.BOUNDARY;
 import static org.simpleframework.http.Protocol.CHUNKED;
 import static org.simpleframework.http.Protocol.MULTIPART;
+import static org.simpleframework.http.Protocol.URL_ENCODED;
 
 import org.simpleframework.common.buffer.Allocator;
 import org.simpleframework.http.ContentType;
@@ -41,6 +43,11 @@ class ConsumerFactory {
     */
    protected Allocator allocator;
    
+   /**
+    * This is used to allocate the memory for a body that is streamed.
+    */
+   protected Allocator stream;
+   
    /**
     * This is the header associated with the request body consumed.
     */
@@ -55,8 +62,25 @@ class ConsumerFactory {
     * @param segment this is the HTTP header used to determine type
     */
    public ConsumerFactory(Allocator allocator, Segment segment) {
+      this(allocator, null, segment);
+   }
+   
+   /**
+    * Constructor for the <code>ConsumerFactory</code> object. This
+    * will create a factory that makes use of the HTTP header in order
+    * to determine the type of the body that is to be consumed. If a
+    * stream allocator is provided then chunked and fixed length bodies
+    * are allocated from it, including multipart bodies, so that they
+    * can be streamed rather than having each part buffered.
+    * 
+    * @param allocator this is the allocator used to allocate memory
+    * @param stream this is used to allocate a streamed body or null
+    * @param segment this is the HTTP header used to determine type
+    */
+   public ConsumerFactory(Allocator allocator, Allocator stream, Segment segment) {
       this.allocator = allocator;
       this.segment = segment;
+      this.stream = stream;
    }
    
    /**
@@ -89,6 +113,12 @@ class ConsumerFactory {
    public BodyConsumer getInstance(long length) {      
       byte[] boundary = getBoundary(segment);
       
+      if(isStreamed(segment)) {
+         if(isChunked(segment)) {
+            return new ChunkedConsumer(stream);
+         }
+         return new FixedLengthConsumer(stream, length);
+      }
       if(isUpload(segment)) { 
          return new FileUploadConsumer(allocator, boundary, length);
       }
@@ -101,6 +131,52 @@ class ConsumerFactory {
       return new EmptyConsumer();
    }
    
+   /**
+    * This is used to determine if the body is to be streamed. A body
+    * can only be streamed if a stream allocator was provided and the
+    * end of the body is known without parsing it, that is if it has
+    * a length or is chunked. A multipart body that ends only with its
+    * final boundary must be consumed part by part as it arrives. A
+    * form post is never streamed, as its parameters are read from
+    * the body when the container may also want to read it.
+    * 
+    * @param segment this is the header associated with the body
+    * 
+    * @return this returns true if the body is to be streamed
+    */
+   protected boolean isStreamed(Segment segment) {
+      if(stream != null && !isForm(segment)) {
+         if(isChunked(segment)) {
+            return true;
+         }
+         return isFixed(segment);
+      }
+      return false;
+   }
+   
+   /**
+    * This is used to determine if the body is a form post of type
+    * application/x-www-form-urlencoded. The parameters of such a
+    * body are read from it when the query for the request is built.
+    * 
+    * @param segment this is the header associated with the body
+    * 
+    * @return this returns true if the body is a form post
+    */
+   protected boolean isForm(Segment segment) {
+      ContentType type = segment.getContentType();
+      
+      if(type != null) {
+         String primary = type.getPrimary();
+         String secondary = type.getSecondary();
+         
+         if(primary.equals(APPLICATION)) {
+            return secondary.equals(URL_ENCODED);
+         }
+      }
+      return false;
+   }
+   
    /**
     * This is used to extract information from the HTTP header that
     * can be used to determine the type of the body. This will look
@@ -38,11 +38,6 @@ import org.simpleframework.transport.ByteCursor;
  * @see org.simpleframework.http.message.PartConsumer
  */
 class ContentConsumer extends UpdateConsumer {
-    
-   /**
-    * This represents the start of the boundary token for the body.
-    */      
-   private static final byte[] START = { '\r', '\n', '-', '-' };  
    
    /**
     * This is the part list that this part is to be added to.
@@ -65,19 +60,14 @@ class ContentConsumer extends UpdateConsumer {
    private Buffer buffer;
    
    /**
-    * Represents the message boundary that terminates the part body.
+    * This is used to search for the delimiter ending the part body.
     */ 
-   private byte[] boundary;
-   
-   /**
-    * This is used to determine if the start token had been read.
-    */
-   private int start;
+   private BoundarySearch search;
    
    /**
-    * This is used to determine how many boundary tokens are read.
+    * This is the number of delimiter bytes that have been matched.
     */ 
-   private int seek;
+   private int match;
   
    /**
     * Constructor for the <code>ContentConsumer</code> object. This 
@@ -91,8 +81,8 @@ class ContentConsumer extends UpdateConsumer {
     * @param boundary this is the message boundary for the body part
     */  
    public ContentConsumer(Allocator allocator, Segment segment, PartSeries series, byte[] boundary) {
+      this.search = new BoundarySearch(boundary);
       this.allocator = allocator;
-      this.boundary = boundary; 
       this.segment = segment;      
       this.series = series;
    }
@@ -150,15 +140,21 @@ class ContentConsumer extends UpdateConsumer {
     */
    @Override
    protected void commit(ByteCursor cursor) throws IOException {
-      cursor.push(boundary);
-      cursor.push(START);
+      byte[] delimiter = search.getDelimiter();
+      
+      cursor.push(delimiter);
    }
    
    /**
     * This is used to process the bytes that have been read from the
     * cursor. This will search for the boundary token within the body
     * of the message part, when it is found this will returns the 
-    * number of bytes that represent the overflow.
+    * number of bytes that represent the overflow. The search skips
+    * over most of the body using the shifts of the boundary search.
+    * If the fragment ends with the start of the delimiter then those
+    * bytes are held back and matched against the next fragment. As 
+    * the delimiter only has a carriage return at its start, a failed
+    * match can release all of the bytes that were held back.
     *
     * @param array this is a chunk read from the cursor
     * @param off this is the offset within the array the chunk starts
@@ -168,57 +164,48 @@ class ContentConsumer extends UpdateConsumer {
     */        
    @Override
    protected int update(byte[] array, int off, int size) throws IOException {
-      int skip = start + seek; // did we skip previously
+      byte[] delimiter = search.getDelimiter();
+      int length = delimiter.length;
       int last = off + size;
-      int next = start;
-      int mark = off;      
+      int mark = off;
       
       while(off < last) {
-         if(start == START.length) { // search for boundary      
-            if(array[off++] != boundary[seek++]) { // boundary not found
-               if(skip > 0) {
-                  append(START, 0, next); // write skipped start
-                  append(boundary, 0, skip - next); // write skipped boundary
-               }
-               skip = start = seek = 0; // reset scan position
-            }         
-            if(seek == boundary.length) { // boundary found
-               int excess = seek + start; // boundary bytes read
-               int total = off - mark; // total bytes read
-               int valid = total - excess; // body bytes read
-               
-               finished = true;
-
-               if(valid > 0) {
-                  append(array, mark, valid);
-               }
-               Part part = getPart();
+         if(match > 0) { // continue a match from the last fragment
+            if(!search.isMatch(array[off], match)) { 
+               int held = match - (off - mark); // delimiter bytes held back
                
-               if(part != null) {
-                  series.addPart(part);  
+               if(held > 0) {
+                  append(delimiter, 0, held); // they were content after all
                }
-               return size - total; // remaining excluding boundary
+               match = 0;
+            } else {
+               match++;
+               off++;
             }
          } else {
-            byte octet = array[off++]; // current
+            int start = search.find(array, off, last);
             
-            if(octet != START[start++]) {               
-               if(skip > 0) {
-                  append(START, 0, next); // write skipped start
-               }   
-               skip = start = 0; // reset
-               
-               if(octet == START[0]) { // is previous byte the start
-                  start++;
-               }               
+            match = Math.min(length, last - start);
+            off = start + match;
+         }
+         if(match == length) { // delimiter found
+            int valid = off - mark - match; // body bytes in this fragment
+            
+            if(valid > 0) {
+               append(array, mark, valid);
+            }
+            Part part = getPart();
+            
+            if(part != null) {
+               series.addPart(part);  
             }
+            finished = true;
+            return last - off; // remaining excluding delimiter
          }
       }      
-      int excess = seek + start; // boundary bytes read
-      int total = off - mark; // total bytes read
-      int valid = total - excess; // body bytes read
+      int valid = off - mark - match; // bytes that can not be delimiter
       
-      if(valid > 0) { // can we append processed data
+      if(valid > 0) { 
          append(array, mark, valid);
       }
       return 0;
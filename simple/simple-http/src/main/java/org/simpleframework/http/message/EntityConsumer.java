@@ -66,6 +66,16 @@ public class EntityConsumer implements ByteConsumer {
     */
    protected Trace trace;
    
+   /**
+    * This is used to allocate the memory for a buffered body.
+    */
+   private Allocator allocator;
+   
+   /**
+    * This is used to allocate the memory for a streamed body.
+    */
+   private Allocator stream;
+   
    /**
     * Constructor for the <code>EntityConsumer</code> object. This
     * is used to build an entity from the constituent parts. Once
@@ -76,10 +86,26 @@ public class EntityConsumer implements ByteConsumer {
     * @param channel this is the channel used to send a response
     */
    public EntityConsumer(Allocator allocator, Channel channel) {
+      this(allocator, null, channel);
+   }
+   
+   /**
+    * Constructor for the <code>EntityConsumer</code> object. This
+    * is used to build an entity from the constituent parts. Bodies
+    * with a length or chunked encoding are allocated from the stream
+    * allocator, which allows them to be read while still arriving.
+    * 
+    * @param allocator this is used to allocate the memory used
+    * @param stream this is used to allocate a streamed body or null
+    * @param channel this is the channel used to send a response
+    */
+   public EntityConsumer(Allocator allocator, Allocator stream, Channel channel) {
       this.header = new RequestConsumer();
       this.dispatcher = new ContinueDispatcher(channel);
-      this.factory = new ConsumerFactory(allocator, header);
+      this.factory = new ConsumerFactory(allocator, stream, header);
       this.trace = channel.getTrace();
+      this.allocator = allocator;
+      this.stream = stream;
    }
    
    /**
@@ -170,6 +196,19 @@ public class EntityConsumer implements ByteConsumer {
    
    }
    
+   /**
+    * This is used to reset the consumer so that the next entity on
+    * the connection can be consumed with it. Both the header and the
+    * body are given up rather than cleared, as they are referenced by
+    * the previous request, which may be used after it has completed.
+    * So no state from one request is ever visible from the next.
+    */
+   public void reset() {
+      header = new RequestConsumer();
+      factory = new ConsumerFactory(allocator, stream, header);
+      body = null;
+   }
+   
    /**
     * This is used to determine if the header has finished. Exposing
     * this method ensures the entity consumer can be used to determine
@@ -0,0 +1,686 @@
+/*
+ * HeaderIndex.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+
+package org.simpleframework.http.message;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.simpleframework.common.KeyMap;
+import org.simpleframework.http.Cookie;
+import org.simpleframework.http.parse.DateClock;
+import org.simpleframework.http.parse.DateParser;
+import org.simpleframework.http.parse.ValueParser;
+
+/**
+ * The <code>HeaderIndex</code> is used to store the headers of a
+ * message as offsets in to the array they were consumed in to. No
+ * strings are created while the header is being parsed, instead a
+ * name or value is converted to a string only when it is requested
+ * and the result is kept so that it is only ever converted once.
+ * Lookups compare the requested name with the consumed bytes in a
+ * case insensitive manner so they do not need to create strings.
+ * Names that are well known headers are identified when they are
+ * indexed, and use the constant string for the header as the name.
+ * <p>
+ * Headers can also be added and removed using their names and values
+ * as strings, which allows the index to be used in the same way as 
+ * the <code>MessageHeader</code> once the message has been parsed.
+ * 
+ * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.http.message.SegmentConsumer
+ */
+public class HeaderIndex implements Message {
+   
+   /**
+    * This is the charset used to convert the consumed bytes.
+    */
+   private static final Charset CHARSET = Charset.forName("UTF-8");
+   
+   /**
+    * This is the number of offsets that are stored for a header.
+    */
+   private static final int WIDTH = 5;
+   
+   /**
+    * This is used to store the cookies that have been set.
+    */
+   private KeyMap<Cookie> cookies;
+   
+   /**
+    * This is used to parse and compose date header values.
+    */
+   private DateParser parser;
+   
+   /**
+    * This contains the converted or added value for each header.
+    */
+   private String[] values;
+   
+   /**
+    * This contains the converted or added name for each header.
+    */
+   private String[] names;
+   
+   /**
+    * This contains the offsets and the token for each header.
+    */
+   private int[] offsets;
+   
+   /**
+    * This is the array that the offsets refer to.
+    */
+   private byte[] array;
+   
+   /**
+    * This is the number of headers that have been stored.
+    */
+   private int count;
+   
+   /**
+    * Constructor for the <code>HeaderIndex</code> object. This is
+    * used to create an empty index with enough space for a typical
+    * message header, the index will expand if more is required.
+    */
+   public HeaderIndex() {
+      this(16);
+   }
+   
+   /**
+    * Constructor for the <code>HeaderIndex</code> object. This is
+    * used to create an empty index with space for the specified
+    * number of headers, the index will expand if more is required.
+    * 
+    * @param capacity this is the initial number of headers stored
+    */
+   public HeaderIndex(int capacity) {
+      this.offsets = new int[capacity * WIDTH];
+      this.values = new String[capacity];
+      this.names = new String[capacity];
+   }
+   
+   /**
+    * This is used to determine the number of headers in the index.
+    * Each header is counted individually, so if a name appears more
+    * than once each occurrence will be counted.
+    * 
+    * @return this returns the number of headers in the index
+    */
+   public int size() {
+      return count;
+   }
+   
+   /**
+    * This is used to add a header that has been consumed in to the
+    * provided array. Only the offsets are recorded, the name and 
+    * value are converted to strings only if they are requested.
+    * If the name is a well known header then its identifier is
+    * recorded, and if it matches exactly the constant is used.
+    * 
+    * @param array this is the array the header was consumed in to
+    * @param name this is the offset of the header name
+    * @param length this is the number of bytes in the name
+    * @param value this is the offset of the header value
+    * @param size this is the number of bytes in the value
+    * 
+    * @return this returns the position of the header in the index
+    */
+   public int index(byte[] array, int name, int length, int value, int size) {
+      int index = count * WIDTH;
+      int token = TokenTable.HEADER.find(array, name, length);
+      
+      if(count >= names.length) {
+         expand(count * 2);
+      }
+      offsets[index++] = name;
+      offsets[index++] = length;
+      offsets[index++] = value;
+      offsets[index++] = size;
+      offsets[index++] = token;
+      names[count] = null;
+      values[count] = null;
+      this.array = array;
+      
+      if(token >= 0) {
+         if(TokenTable.HEADER.exact(array, name, length, token)) {
+            names[count] = TokenTable.HEADER.get(token);
+         }
+      }
+      
+      return count++;
+   }
+   
+   /**
+    * This is used to add a header using the name and value provided.
+    * Unlike headers that are consumed there are no bytes to refer
+    * to, so the strings provided are stored directly.
+    * 
+    * @param name this is the name of the header to be added
+    * @param value this is the value of the header to be added
+    * 
+    * @return this returns the position of the header in the index
+    */
+   private int index(String name, String value) {
+      int index = count * WIDTH;
+      
+      if(count >= names.length) {
+         expand(count * 2);
+      }
+      offsets[index] = -1;
+      offsets[index + 4] = -1;
+      names[count] = name;
+      values[count] = value;
+      
+      return count++;
+   }
+   
+   /**
+    * This is used to expand the index so that it can hold more 
+    * headers. The offsets, names, and values are all copied in to
+    * new arrays large enough to hold the specified capacity.
+    * 
+    * @param capacity this is the number of headers to hold
+    */
+   private void expand(int capacity) {
+      int[] offsets = new int[capacity * WIDTH];
+      String[] values = new String[capacity];
+      String[] names = new String[capacity];
+      
+      System.arraycopy(this.offsets, 0, offsets, 0, count * WIDTH);
+      System.arraycopy(this.values, 0, values, 0, count);
+      System.arraycopy(this.names, 0, names, 0, count);
+      
+      this.offsets = offsets;
+      this.values = values;
+      this.names = names;
+   }
+   
+   /**
+    * This is used to remove the header at the specified position.
+    * All of the headers after it are moved down so that the order
+    * in which the headers were added is maintained.
+    * 
+    * @param index this is the position of the header to remove
+    */
+   private void remove(int index) {
+      int remaining = count - index - 1;
+      
+      if(remaining > 0) {
+         System.arraycopy(offsets, (index + 1) * WIDTH, offsets, index * WIDTH, remaining * WIDTH);
+         System.arraycopy(values, index + 1, values, index, remaining);
+         System.arraycopy(names, index + 1, names, index, remaining);
+      }
+      count--;
+      names[count] = null;
+      values[count] = null;
+   }
+   
+   /**
+    * This is used to acquire the name of the header at the given
+    * position. If the header was consumed then this will convert
+    * the bytes to a string the first time it is requested.
+    * 
+    * @param index this is the position of the header in the index
+    * 
+    * @return this returns the name of the header at the position
+    */
+   public String getName(int index) {
+      if(names[index] == null) {
+         int off = offsets[index * WIDTH];
+         int size = offsets[index * WIDTH + 1];
+         
+         names[index] = new String(array, off, size, CHARSET);
+      }
+      return names[index];
+   }
+   
+   /**
+    * This is used to acquire the value of the header at the given
+    * position. If the header was consumed then this will convert
+    * the bytes to a string the first time it is requested.
+    * 
+    * @param index this is the position of the header in the index
+    * 
+    * @return this returns the value of the header at the position
+    */
+   public String getValue(int index) {
+      if(values[index] == null) {
+         int off = offsets[index * WIDTH + 2];
+         int size = offsets[index * WIDTH + 3];
+         
+         values[index] = new String(array, off, size, CHARSET);
+      }
+      return values[index];
+   }
+   
+   /**
+    * This is used to acquire the identifier of the header at the 
+    * given position. The identifier is one of the header constants
+    * of the <code>TokenTable</code>, or -1 if the header consumed
+    * is not well known or if the header was added as a string.
+    * 
+    * @param index this is the position of the header in the index
+    * 
+    * @return this returns the identifier of the header or -1
+    */
+   public int getToken(int index) {
+      return offsets[index * WIDTH + 4];
+   }
+   
+   /**
+    * This is used to determine if the header at the given position
+    * has the name provided. Names are compared in a case insensitive
+    * manner, and if the header was consumed the comparison is done
+    * against the bytes so that no string needs to be created.
+    * 
+    * @param name this is the name to compare the header with
+    * @param index this is the position of the header in the index
+    * 
+    * @return this returns true if the header has the given name
+    */
+   public boolean isName(String name, int index) {
+      int off = offsets[index * WIDTH];
+      
+      if(names[index] == name) {
+         return true;
+      }
+      if(off < 0) {
+         return name.equalsIgnoreCase(names[index]);
+      }
+      int size = offsets[index * WIDTH + 1];
+      
+      if(name.length() != size) {
+         return false;
+      }
+      for(int i = 0; i < size; i++) {
+         int octet = array[off + i] & 0xff;
+         int next = name.charAt(i);
+         
+         if(octet != next && lower(octet) != lower(next)) {
+            return false;
+         }
+      }
+      return true;
+   }
+   
+   /**
+    * This is used to convert an upper case ASCII character to lower
+    * case. Header names are ASCII tokens so there is no need to 
+    * consider the case of any other characters in the name.
+    * 
+    * @param octet this is the character to be converted
+    * 
+    * @return this returns the lower case value of the character
+    */
+   private int lower(int octet) {
+      if(octet >= 'A' && octet <= 'Z') {
+         return octet + 32;
+      }
+      return octet;
+   }
+   
+   /**
+    * This is used to acquire the names of the headers that have been
+    * added. Each name is provided once, in the case it was first 
+    * added with, regardless of how many times it appears.
+    * 
+    * @return this returns the names of the headers in the index
+    */
+   public List<String> getNames() {
+      List<String> list = new ArrayList<String>(count);
+      
+      for(int i = 0; i < count; i++) {
+         String name = getName(i);
+         
+         if(indexOf(name) == i) {
+            list.add(name);
+         }
+      }
+      return list;
+   }
+   
+   /**
+    * This is used to find the position of the first header with the
+    * given name. If there is no header with the specified name then
+    * this will return -1 to indicate it could not be found.
+    * 
+    * @param name this is the name of the header to search for
+    * 
+    * @return this returns the position of the first match or -1
+    */
+   private int indexOf(String name) {
+      for(int i = 0; i < count; i++) {
+         if(isName(name, i)) {
+            return i;
+         }
+      }
+      return -1;
+   }
+   
+   /**
+    * This can be used to set a HTTP message header to this object.
+    * The name and value pair will replace any existing headers with
+    * the same name. If the value is null then all headers with the
+    * specified name are removed from the index.
+    *
+    * @param name the name of the HTTP message header to be set
+    * @param value the value of the HTTP message header to be set
+    */
+   public void setValue(String name, String value) {
+      for(int i = count - 1; i >= 0; i--) {
+         if(isName(name, i)) {
+            remove(i);
+         }
+      }
+      addValue(name, value);
+   }
+   
+   /**
+    * This can be used to set a HTTP message header to this object.
+    * The name and value pair will replace any existing headers with
+    * the same name. The value is converted in to a string.
+    *
+    * @param name the name of the HTTP message header to be set
+    * @param value the value of the HTTP message header to be set
+    */
+   public void setInteger(String name, int value) {
+      setValue(name, String.valueOf(value));
+   }
+   
+   /**
+    * This can be used to set a HTTP message header to this object.
+    * The name and value pair will replace any existing headers with
+    * the same name. The value is converted in to a string.
+    *
+    * @param name the name of the HTTP message header to be set
+    * @param value the value of the HTTP message header to be set
+    */
+   public void setLong(String name, long value) {
+      setValue(name, String.valueOf(value));
+   }
+   
+   /**
+    * This is used as a convenience method for adding a header that
+    * needs to be parsed into a HTTP date string. This will convert
+    * the date given into a date string defined in RFC 2616 sec 3.3.1.
+    *
+    * @param name the name of the HTTP message header to be set
+    * @param date the value constructed as an RFC 1123 date string
+    */
+   public void setDate(String name, long date) {
+      setValue(name, DateClock.getDate(date));
+   }
+   
+   /**
+    * This can be used to add a HTTP message header to this object.
+    * The name and value of the HTTP message header will be added to
+    * the end of the index. If the value is null it is ignored.
+    *
+    * @param name the name of the HTTP message header to be added
+    * @param value the value of the HTTP message header to be added
+    */
+   public void addValue(String name, String value) {
+      if(value != null) {
+         index(name, value);
+      }
+   }
+   
+   /**
+    * This can be used to add a HTTP message header to this object.
+    * The name and value of the HTTP message header will be added to
+    * the end of the index. The value is converted in to a string.
+    *
+    * @param name the name of the HTTP message header to be added
+    * @param value the value of the HTTP message header to be added
+    */
+   public void addInteger(String name, int value) {
+      addValue(name, String.valueOf(value));
+   }
+   
+   /**
+    * This is used as a convenience method for adding a header that
+    * needs to be parsed into a HTTP date string. This will convert
+    * the date given into a date string defined in RFC 2616 sec 3.3.1.
+    *
+    * @param name the name of the HTTP message header to be added
+    * @param date the value constructed as an RFC 1123 date string
+    */
+   public void addDate(String name, long date) {
+      addValue(name, DateClock.getDate(date));
+   }
+   
+   /**
+    * This can be used to get the value of the first message header
+    * that has the specified name. This is a case insensitive search
+    * for the header, and only the value of the matching header is
+    * converted to a string. This returns null if there is no match.
+    *
+    * @param name the HTTP message header to get the value from
+    *
+    * @return this returns the value that the HTTP message header
+    */
+   public String getValue(String name) {
+      return getValue(name, 0);
+   }
+   
+   /**
+    * This can be used to get the value of the message header that
+    * has the specified name at the given index. This is used when 
+    * a header appears several times within the message. This will
+    * return null if there is no such header at the given index.
+    *
+    * @param name the HTTP message header to get the value from
+    * @param index acquires a specific header value from multiple
+    *
+    * @return this returns the value that the HTTP message header
+    */
+   public String getValue(String name, int index) {
+      for(int i = 0, seen = 0; i < count; i++) {
+         if(isName(name, i)) {
+            if(seen++ == index) {
+               return getValue(i);
+            }
+         }
+      }
+      return null;
+   }
+   
+   /**
+    * This can be used to get the value of the first message header
+    * that has the specified name. This will return the integer
+    * value of the header, or -1 if there is no such header.
+    *
+    * @param name the HTTP message header to get the value from
+    *
+    * @return this returns the value that the HTTP message header
+    */
+   public int getInteger(String name) {
+      String value = getValue(name);
+      
+      if(value == null) {
+         return -1;
+      }
+      return Integer.parseInt(value);
+   }
+   
+   /**
+    * This can be used to get the value of the first message header
+    * that has the specified name. This will return the long value
+    * of the header, or -1 if there is no such header.
+    *
+    * @param name the HTTP message header to get the value from
+    *
+    * @return this returns the value that the HTTP message header
+    */
+   public long getLong(String name) {
+      String value = getValue(name);
+      
+      if(value == null) {
+         return -1L;
+      }
+      return Long.parseLong(value);
+   }
+   
+   /**
+    * This can be used to get the value of the first message header
+    * that has the specified name. This will return the long value
+    * of the date header, or -1 if there is no such header.
+    *
+    * @param name the HTTP message header to get the value from
+    *
+    * @return this returns the date as a long from the header value
+    */
+   public long getDate(String name) {
+      String value = getValue(name);
+      
+      if(value == null) {
+         return -1;
+      }
+      return getParser().convert(value);
+   }
+   
+   /**
+    * This is used to acquire the parser used to convert dates. The
+    * parser is created only when it is required, as most messages
+    * will not contain a date that needs to be parsed.
+    * 
+    * @return this returns the parser used to convert dates
+    */
+   private DateParser getParser() {
+      if(parser == null) {
+         parser = new DateParser();
+      }
+      return parser;
+   }
+   
+   /**
+    * This returns the <code>Cookie</code> object stored under the
+    * specified name. If there is no cookie stored under the name
+    * provided then this will return null.
+    *
+    * @param name this is the name of the cookie to be retrieved
+    *
+    * @return returns the <code>Cookie</code> by the given name
+    */
+   public Cookie getCookie(String name) {
+      if(cookies == null) {
+         return null;
+      }
+      return cookies.get(name);
+   }
+   
+   /**
+    * This returns all <code>Cookie</code> objects stored under the
+    * specified name. If there are no cookies then this will return
+    * an empty list.
+    *
+    * @return returns all the <code>Cookie</code> in the header
+    */
+   public List<Cookie> getCookies() {
+      if(cookies == null) {
+         return new ArrayList<Cookie>();
+      }
+      return cookies.getValues();
+   }
+   
+   /**
+    * This is used to set a cookie using the name and value provided.
+    * The cookie created will have a path of "/" and will replace
+    * any cookie that has been set with the same name.
+    *
+    * @param name this is the name of the cookie to be created
+    * @param value this is the value of the cookie to be created
+    *
+    * @return returns a cookie created from the name and value
+    */
+   public Cookie setCookie(String name, String value) {
+      return setCookie(new Cookie(name, value, true));
+   }
+   
+   /**
+    * This is used to set a cookie. The cookie will replace any 
+    * cookie that has been set with the same name. If the cookie
+    * does not have a name then it is ignored.
+    *
+    * @param cookie this is the cookie to be set
+    *
+    * @return returns the cookie that has been set
+    */
+   public Cookie setCookie(Cookie cookie) {
+      String name = cookie.getName();
+      
+      if(name != null) {
+         if(cookies == null) {
+            cookies = new KeyMap<Cookie>();
+         }
+         cookies.put(name, cookie);
+      }
+      return cookie;
+   }
+   
+   /**
+    * This can be used to get the values of HTTP message headers
+    * that have the specified name. The values are tokenized and 
+    * ordered according to their HTTP quality values, so the most
+    * preferred token will be at the lowest index in the list.
+    *
+    * @param name the name of the headers that are to be retrieved
+    *
+    * @return ordered list of tokens extracted from the header(s)
+    */
+   public List<String> getValues(String name) {
+      return getValues(getAll(name));
+   }
+   
+   /**
+    * This can be used to get the values of HTTP message headers
+    * from the list provided. The values are tokenized and ordered
+    * according to their HTTP quality values, so the most preferred
+    * token will be at the lowest index in the list.
+    *
+    * @param list this is the list of header values to tokenize
+    *
+    * @return ordered list of tokens extracted from the header(s)
+    */
+   public List<String> getValues(List<String> list) {
+      return new ValueParser(list).list();
+   }
+   
+   /**
+    * This is used to acquire all of the values for the headers with
+    * the specified name. The values are provided in the order they
+    * were added, and only the matching values are converted.
+    * 
+    * @param name this is the name of the headers to acquire
+    * 
+    * @return this returns the values of the matching headers
+    */
+   public List<String> getAll(String name) {
+      List<String> list = new ArrayList<String>(2);
+      
+      for(int i = 0; i < count; i++) {
+         if(isName(name, i)) {
+            list.add(getValue(i));
+         }
+      }
+      return list;
+   }
+}
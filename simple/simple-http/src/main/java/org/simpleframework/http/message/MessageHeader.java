@@ -18,11 +18,14 @@
 
 package org.simpleframework.http.message;
 
-import java.util.LinkedList;
+import java.util.AbstractList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import org.simpleframework.common.KeyMap;
 import org.simpleframework.http.Cookie;
+import org.simpleframework.http.parse.DateClock;
 import org.simpleframework.http.parse.DateParser;
 import org.simpleframework.http.parse.ValueParser;
 
@@ -33,6 +36,13 @@ import org.simpleframework.http.parse.ValueParser;
  * The message also allows multiple header values to be added to a
  * single header name, headers such as Cookie and Set-Cookie can be 
  * added multiple times with different values.
+ * <p>
+ * Headers are held in flat arrays in the order they were added, and
+ * values with the same name are chained together. An open addressing
+ * table maps the case insensitive hash of a name to the first header
+ * with that name, so lookups neither convert the name to lower case
+ * nor create any entry objects. The lists provided are views of the
+ * arrays rather than copies of them.
  * 
  * @author Niall Gallagher
  */
@@ -42,21 +52,56 @@ public class MessageHeader implements Message {
     * This is used to store the cookies added to the HTTP header.
     */
    private final KeyMap<Cookie> cookies;
-
+   
    /**
-    * This is used to store multiple header values for a name.  
+    * This is a view of the names of the headers in the message.
     */
-   private final KeyMap<Series> values;
-
+   private final List<String> view;
+   
    /**
-    * This is used to store the individual names for the header.
+    * This is used to parse all date headers added to the message.
     */
-   private final KeyMap<String> names;
-
+   private DateParser parser;
+   
    /**
-    * This is used to parse all date headers added to the message.
+    * This contains the names of the headers in the order added.
+    */
+   private String[] names;
+   
+   /**
+    * This contains the values of the headers in the order added.
     */
-   private final DateParser parser;
+   private String[] values;
+   
+   /**
+    * This contains the case insensitive hash of each header name.
+    */
+   private int[] hashes;
+   
+   /**
+    * This refers to the next header with the same name, or -1.
+    */
+   private int[] next;
+   
+   /**
+    * This maps the hash of a name to the first header plus one.
+    */
+   private int[] slots;
+   
+   /**
+    * This contains the first header with each name in added order.
+    */
+   private int[] firsts;
+   
+   /**
+    * This is the number of distinct header names that were added.
+    */
+   private int distinct;
+   
+   /**
+    * This is the number of headers that have been added.
+    */
+   private int count;
 
    /**
     * Constructor for the <code>Message</code> object. This is used 
@@ -65,10 +110,30 @@ public class MessageHeader implements Message {
     * long value and is converted to RFC 1123 compliant date string.
     */
    public MessageHeader() {
+      this(8);
+   }
+   
+   /**
+    * Constructor for the <code>Message</code> object. This is used 
+    * to create a case insensitive means for storing HTTP header
+    * names and values. The capacity determines the number of header
+    * values that can be added before the arrays need to expand. It
+    * is rounded up to a power of two, as the table is probed with a
+    * mask, and so that there is always an empty slot to be found.
+    * 
+    * @param capacity this is the initial number of header values
+    */
+   public MessageHeader(int capacity) {
+      int size = size(capacity);
+      
       this.cookies = new KeyMap<Cookie>();
-      this.values = new KeyMap<Series>();
-      this.names = new KeyMap<String>();
-      this.parser = new DateParser();
+      this.slots = new int[size * 2];
+      this.values = new String[size];
+      this.names = new String[size];
+      this.firsts = new int[size];
+      this.hashes = new int[size];
+      this.next = new int[size];
+      this.view = new NameList();
    }
 
    /**
@@ -80,7 +145,7 @@ public class MessageHeader implements Message {
     * @return a list of strings representing the set header names
     */
    public List<String> getNames() {
-      return names.getValues();
+      return view;
    }
 
    /**
@@ -95,16 +160,18 @@ public class MessageHeader implements Message {
     * @param value the value the HTTP message header will have
     */
    public void setValue(String name, String value) {
-      List<String> list = getAll(name);
-
-      if(value == null) {
-         String token = name.toLowerCase();
+      int index = find(name);
 
-         values.remove(token);
-         names.remove(token);
+      if(index < 0) {
+         addValue(name, value);
+      } else if(value == null) {
+         remove(index);
       } else {
-         list.clear();
-         list.add(value);
+         if(next[index] >= 0) {
+            remove(next[index]);
+         }
+         values[index] = value;
+         next[index] = -1;
       }
    }
 
@@ -149,7 +216,7 @@ public class MessageHeader implements Message {
     * @param date the value constructed as an RFC 1123 date string
     */
    public void setDate(String name, long date) {
-      setValue(name, parser.convert(date));
+      setValue(name, DateClock.getDate(date));
    }
 
    /**
@@ -162,10 +229,27 @@ public class MessageHeader implements Message {
     * @param value the value the HTTP message header will have
     */
    public void addValue(String name, String value) {
-      List<String> list = getAll(name);
-
       if(value != null) {
-         list.add(value);
+         int hash = hash(name);
+         int index = find(name, hash);
+         
+         if(count >= names.length) {
+            expand(count * 2);
+         }
+         names[count] = name;
+         values[count] = value;
+         hashes[count] = hash;
+         next[count] = -1;
+         
+         if(index < 0) {
+            firsts[distinct++] = count;
+            insert(count++);
+         } else {
+            while(next[index] >= 0) {
+               index = next[index];
+            }
+            next[index] = count++;
+         }
       }
    }
 
@@ -191,7 +275,7 @@ public class MessageHeader implements Message {
     * @param date the value constructed as an RFC 1123 date string
     */
    public void addDate(String name, long date) {
-      addValue(name, parser.convert(date));
+      addValue(name, DateClock.getDate(date));
    }
 
    /**
@@ -220,10 +304,13 @@ public class MessageHeader implements Message {
     * @return this returns the value that the HTTP message header
     */
    public String getValue(String name, int index) {
-      List<String> list = getAll(name);
+      int entry = find(name);
 
-      if(list.size() > index) {
-         return list.get(index);
+      for(int i = 0; i < index && entry >= 0; i++) {
+         entry = next[entry];
+      }
+      if(entry >= 0) {
+         return values[entry];
       }
       return null;
    }
@@ -282,7 +369,7 @@ public class MessageHeader implements Message {
       if(value == null) {
          return -1;
       }
-      return parser.convert(value);
+      return getParser().convert(value);
    }
 
    /**
@@ -402,76 +489,431 @@ public class MessageHeader implements Message {
     * This is used to acquire all the individual header values from
     * the message. The header values provided by this are unparsed
     * and represent the actual string values that have been added to
-    * the message keyed by a given header name.
+    * the message keyed by a given header name. The list is a view
+    * of the values, it is not a copy of them.
     * 
     * @param name the name of the header to get the values for
     * 
     * @return this returns a list of the values for the header name
     */
    public List<String> getAll(String name) {
-      String token = name.toLowerCase();
-      Series series = values.get(token);
-
-      if(series == null) {
-         return getAll(name, token);
+      return new ValueList(name);
+   }
+   
+   /**
+    * This is used to acquire the parser used to convert dates. The
+    * parser is created only when it is required, as most messages
+    * will not need to convert a date to or from a string.
+    * 
+    * @return this returns the parser used to convert dates
+    */
+   private DateParser getParser() {
+      if(parser == null) {
+         parser = new DateParser();
       }
-      return series.getValues();
+      return parser;
    }
-
+   
    /**
-    * This is used to acquire all the individual header values from
-    * the message. The header values provided by this are unparsed
-    * and represent the actual string values that have been added to
-    * the message keyed by a given header name.
+    * This is used to find the first header with the given name. The
+    * name is hashed without regard to case and the table is probed
+    * until either the name is found or an empty slot is reached.
     * 
-    * @param name the name of the header to get the values for
-    * @param token this provides a lower case version of the header
+    * @param name this is the name of the header to be found
     * 
-    * @return this returns a list of the values for the header name
+    * @return this returns the index of the first header or -1
     */
-   private List<String> getAll(String name, String token) {
-      Series series = new Series();
-      String value = names.get(token);
-
-      if(value == null) {
-         names.put(token, name);
+   private int find(String name) {
+      return find(name, hash(name));
+   }
+   
+   /**
+    * This is used to find the first header with the given name. The
+    * table is probed from the slot selected by the hash until either
+    * the name is found or an empty slot is reached.
+    * 
+    * @param name this is the name of the header to be found
+    * @param hash this is the case insensitive hash of the name
+    * 
+    * @return this returns the index of the first header or -1
+    */
+   private int find(String name, int hash) {
+      int mask = slots.length - 1;
+      
+      for(int slot = hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+         int index = slots[slot] - 1;
+         
+         if(hashes[index] == hash) {
+            if(names[index].equalsIgnoreCase(name)) {
+               return index;
+            }
+         }
       }
-      values.put(token, series);
-
-      return series.getValues();
+      return -1;
    }
-
+   
    /**
-    * The <code>Series</code> object is used to represent a list of
-    * HTTP header value for a given name. It allows multiple values
-    * to exist for a given header, such as the Cookie header. Most
-    * entries will contain a single value.
+    * This is used to insert the first header with a name in to the
+    * table. The header is placed in the first empty slot found from
+    * the slot selected by its hash. The table is kept at most half
+    * full so that probing remains short.
+    * 
+    * @param index this is the index of the header to insert
     */
-   private class Series {
-
+   private void insert(int index) {
+      int mask = slots.length - 1;
+      int slot = hashes[index] & mask;
+      
+      while(slots[slot] != 0) {
+         slot = (slot + 1) & mask;
+      }
+      slots[slot] = index + 1;
+   }
+   
+   /**
+    * This is used to remove the header at the given index as well as
+    * all the headers chained after it. The remaining headers are 
+    * moved down to keep them in order, and the table is rebuilt. As
+    * headers are rarely removed this keeps lookups simple.
+    * 
+    * @param index this is the index of the first header to remove
+    */
+   private void remove(int index) {
+      int size = 0;
+      
+      for(int entry = index; entry >= 0; entry = next[entry]) {
+         values[entry] = null;
+      }
+      for(int i = 0; i < count; i++) {
+         if(values[i] != null) {
+            names[size] = names[i];
+            values[size] = values[i];
+            hashes[size++] = hashes[i];
+         }
+      }
+      for(int i = size; i < count; i++) {
+         names[i] = null;
+         values[i] = null;
+      }
+      count = size;
+      rebuild();
+   }
+   
+   /**
+    * This is used to expand the arrays so that they can hold the 
+    * specified number of headers. The table of slots is expanded
+    * and rebuilt so that it remains at most half full.
+    * 
+    * @param capacity this is the number of headers to hold
+    */
+   private void expand(int capacity) {
+      String[] names = new String[capacity];
+      String[] values = new String[capacity];
+      int[] hashes = new int[capacity];
+      
+      System.arraycopy(this.names, 0, names, 0, count);
+      System.arraycopy(this.values, 0, values, 0, count);
+      System.arraycopy(this.hashes, 0, hashes, 0, count);
+      
+      this.slots = new int[capacity * 2];
+      this.firsts = new int[capacity];
+      this.next = new int[capacity];
+      this.names = names;
+      this.values = values;
+      this.hashes = hashes;
+      this.rebuild();
+   }
+   
+   /**
+    * This is used to rebuild the table and the chains of values from
+    * the headers held in the arrays. Headers are visited in order,
+    * so each chain keeps the values in the order they were added.
+    */
+   private void rebuild() {
+      int[] last = new int[count];
+      
+      for(int i = 0; i < slots.length; i++) {
+         slots[i] = 0;
+      }
+      distinct = 0;
+      
+      for(int i = 0; i < count; i++) {
+         int index = find(names[i], hashes[i]);
+         
+         next[i] = -1;
+         
+         if(index < 0) {
+            firsts[distinct++] = i;
+            insert(i);
+            last[i] = i;
+         } else {
+            next[last[index]] = i;
+            last[index] = i;
+         }
+      }
+   }
+   
+   /**
+    * This is used to determine the number of headers the arrays are
+    * created to hold. This is a power of two of at least four, so 
+    * that the mask used to probe the table reaches every slot, and
+    * so that doubling the arrays when they are full always grows them.
+    * 
+    * @param capacity this is the number of headers requested
+    * 
+    * @return this returns the number of headers to allocate for
+    */
+   private static int size(int capacity) {
+      int size = 4;
+      
+      while(size < capacity) {
+         size <<= 1;
+      }
+      return size;
+   }
+   
+   /**
+    * This is used to calculate a case insensitive hash of the name.
+    * Each character is converted to lower case as it is hashed, so
+    * that there is no need to create a lower case copy of the name.
+    * 
+    * @param name this is the name that is to be hashed
+    * 
+    * @return this returns the case insensitive hash of the name
+    */
+   private int hash(String name) {
+      int length = name.length();
+      int hash = 0;
+      
+      for(int i = 0; i < length; i++) {
+         char next = name.charAt(i);
+         
+         if(next >= 'A' && next <= 'Z') {
+            next += 32;
+         }
+         hash = hash * 31 + next;
+      }
+      return hash ^ (hash >>> 16);
+   }
+   
+   /**
+    * The <code>NameList</code> provides a view of the names of the
+    * headers in the message. Each name appears once, in the order 
+    * it was first added, and with the case it was first added with.
+    */
+   private class NameList extends AbstractList<String> {
+      
       /**
-       * Contains the header values that belong to the entry name. 
+       * This is used to iterate over the names in the order they
+       * were first added. This walks the first header recorded for
+       * each name, so the names are iterated in a single pass.
+       * 
+       * @return this returns an iterator over the header names
        */
-      private List<String> value;
-
+      @Override
+      public Iterator<String> iterator() {
+         return new NameIterator();
+      }
+      
       /**
-       * Constructor for the <code>Entry</code> object. The entry is
-       * created using the name of the HTTP header. Values can be
-       * added to the entry list in order to build up the header.
+       * This is used to acquire the name at the specified position.
+       * The first header with each name is recorded as it is added,
+       * so the name is taken directly from that header.
+       * 
+       * @param index this is the position of the name to acquire
+       * 
+       * @return this returns the name at the specified position
        */
-      public Series() {
-         this.value = new LinkedList<String>();
+      @Override
+      public String get(int index) {
+         if(index < 0 || index >= distinct) {
+            throw new IndexOutOfBoundsException("No name at " + index);
+         }
+         return names[firsts[index]];
       }
-
+      
       /**
-       * This returns the list of header values associated with the
-       * header name. Each value is added as an individual header
-       * prefixed by the header name and a semicolon character.
+       * This is used to determine the number of distinct names that
+       * have been added. This is the number of headers that are the
+       * first header with their name.
+       * 
+       * @return this returns the number of distinct names
+       */
+      @Override
+      public int size() {
+         return distinct;
+      }
+   }
+   
+   /**
+    * The <code>ValueList</code> provides a view of the values that
+    * have been added for a header name. The values are found by 
+    * following the chain from the first header with the name.
+    */
+   private class ValueList extends AbstractList<String> {
+      
+      /**
+       * This is the name of the header the values belong to.
+       */
+      private final String name;
+      
+      /**
+       * Constructor for the <code>ValueList</code> object. This is
+       * used to create a view of the values for the given name.
+       * 
+       * @param name this is the name of the header to view
+       */
+      public ValueList(String name) {
+         this.name = name;
+      }
+      
+      /**
+       * This is used to iterate over the values in the order they
+       * were added. This follows the chain of values from the first
+       * header with the name so they are iterated in a single pass.
+       * 
+       * @return this returns an iterator over the header values
+       */
+      @Override
+      public Iterator<String> iterator() {
+         return new ValueIterator(find(name));
+      }
+      
+      /**
+       * This is used to acquire the value at the specified position.
+       * If there is no such value then this will throw an exception
+       * as is required for a list.
+       * 
+       * @param index this is the position of the value to acquire
        * 
-       * @return this returns the list of values for the header
+       * @return this returns the value at the specified position
        */
-      public List<String> getValues() {
+      @Override
+      public String get(int index) {
+         String value = getValue(name, index);
+         
+         if(value == null) {
+            throw new IndexOutOfBoundsException("No value at " + index);
+         }
          return value;
       }
+      
+      /**
+       * This is used to determine the number of values that have 
+       * been added for the header name. This follows the chain of
+       * values from the first header with the name.
+       * 
+       * @return this returns the number of values for the name
+       */
+      @Override
+      public int size() {
+         int size = 0;
+         
+         for(int entry = find(name); entry >= 0; entry = next[entry]) {
+            size++;
+         }
+         return size;
+      }
+   }
+   
+   /**
+    * The <code>NameIterator</code> is used to iterate over the names
+    * of the headers. Only headers that are the first with their name
+    * are visited, so that each name is provided only once.
+    */
+   private class NameIterator implements Iterator<String> {
+      
+      /**
+       * This is the position of the next name to be provided.
+       */
+      private int index;
+      
+      /**
+       * This is used to determine if there is another name. There
+       * are no more names once every distinct name was provided.
+       * 
+       * @return this returns true if there is another name
+       */
+      public boolean hasNext() {
+         return index < distinct;
+      }
+      
+      /**
+       * This is used to acquire the next name. If there are no more
+       * names then this will throw an exception.
+       * 
+       * @return this returns the next name in the message
+       */
+      public String next() {
+         if(!hasNext()) {
+            throw new NoSuchElementException("No more names");
+         }
+         return names[firsts[index++]];
+      }
+      
+      /**
+       * This is not supported as the names are a view of the message
+       * and so can not be removed using the iterator.
+       */
+      public void remove() {
+         throw new UnsupportedOperationException("Names can not be removed");
+      }
+   }
+   
+   /**
+    * The <code>ValueIterator</code> is used to iterate over values
+    * that have been added with the same name. This simply follows
+    * the chain from one header to the next with the same name.
+    */
+   private class ValueIterator implements Iterator<String> {
+      
+      /**
+       * This is the index of the next value to be provided.
+       */
+      private int index;
+      
+      /**
+       * Constructor for the <code>ValueIterator</code> object. This
+       * creates an iterator that begins at the specified header.
+       * 
+       * @param index this is the first header to be visited or -1
+       */
+      public ValueIterator(int index) {
+         this.index = index;
+      }
+      
+      /**
+       * This is used to determine if there is another value. There
+       * are no more values once the end of the chain is reached.
+       * 
+       * @return this returns true if there is another value
+       */
+      public boolean hasNext() {
+         return index >= 0;
+      }
+      
+      /**
+       * This is used to acquire the next value. If there are no more
+       * values then this will throw an exception.
+       * 
+       * @return this returns the next value for the name
+       */
+      public String next() {
+         int current = index;
+         
+         if(current < 0) {
+            throw new NoSuchElementException("No more values");
+         }
+         index = next[current];
+         return values[current];
+      }
+      
+      /**
+       * This is not supported as the values are a view of the message
+       * and so can not be removed using the iterator.
+       */
+      public void remove() {
+         throw new UnsupportedOperationException("Values can not be removed");
+      }
    }
 }
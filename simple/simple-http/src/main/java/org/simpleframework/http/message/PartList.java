@@ -0,0 +1,258 @@
+/*
+ * PartList.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.message;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.simpleframework.common.KeyMap;
+import org.simpleframework.common.buffer.Allocator;
+import org.simpleframework.http.Part;
+
+/**
+ * The <code>PartList</code> is a list of the parts of a multipart body
+ * that is read from the connection as the list is used. Iterating over
+ * the list reads each part only when it is reached, so a part can be
+ * handed to the container as soon as its header has been read and its
+ * content read directly from the connection. This allows an upload
+ * to be processed without ever being written to a buffer.
+ * <p>
+ * The parts are read in the order they were sent. When the list moves
+ * on to the next part any content of the current part that was not
+ * read is buffered, so every part remains readable. Operations that
+ * need the whole list, such as its size, read all remaining parts in
+ * this way. Failure to read the body is reported as an unchecked
+ * exception, as the list methods do not declare one.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.message.PartReader
+ */
+public class PartList extends AbstractList<Part> {
+
+   /**
+    * This is used to look up the parts that have been read by name.
+    */
+   private final KeyMap<Part> map;
+
+   /**
+    * This holds the parts that have been read in the order sent.
+    */
+   private final List<Part> list;
+
+   /**
+    * This is used to buffer the content that has not been read.
+    */
+   private final Allocator allocator;
+
+   /**
+    * This is used to read the parts from the connection.
+    */
+   private final PartReader reader;
+
+   /**
+    * This is the last part that was read from the connection.
+    */
+   private StreamPart last;
+
+   /**
+    * This is true once all of the parts have been read.
+    */
+   private boolean finished;
+
+   /**
+    * Constructor for the <code>PartList</code> object. This is used to
+    * create a list of the parts read from the stream. The stream is
+    * not read until the list is used, and only then as far as needed.
+    *
+    * @param allocator this is used to buffer content not read
+    * @param source this is the stream the body is read from
+    * @param boundary this is the boundary that frames the parts
+    */
+   public PartList(Allocator allocator, InputStream source, byte[] boundary) {
+      this.reader = new PartReader(source, boundary);
+      this.list = new ArrayList<Part>();
+      this.map = new KeyMap<Part>();
+      this.allocator = allocator;
+   }
+
+   /**
+    * This is used to acquire the part at the specified index. If the
+    * part has not been read then the parts up to and including it are
+    * read, buffering the content of the parts before it.
+    *
+    * @param index this is the index of the part to acquire
+    *
+    * @return this returns the part at the specified index
+    */
+   public Part get(int index) {
+      if(!fetch(index)) {
+         throw new IndexOutOfBoundsException("No part at index " + index);
+      }
+      return list.get(index);
+   }
+
+   /**
+    * This is used to acquire a part by name. The parts that have been
+    * read are searched first, and if the part is not found the list
+    * continues reading parts until it is found or the body ends.
+    *
+    * @param name this is the name of the part to acquire
+    *
+    * @return this returns the part with the name or null
+    */
+   public Part getPart(String name) {
+      Part part = map.get(name);
+
+      while(part == null) {
+         if(!fetch(list.size())) {
+            return null;
+         }
+         part = map.get(name);
+      }
+      return part;
+   }
+
+   /**
+    * This returns the number of parts in the body. As the number of
+    * parts can only be known once the whole body has been read, this
+    * reads all remaining parts and buffers their content.
+    *
+    * @return this returns the number of parts in the body
+    */
+   public int size() {
+      while(fetch(list.size())) {
+         continue;
+      }
+      return list.size();
+   }
+
+   /**
+    * This provides an iterator that reads each part when it is
+    * reached. So the content of each part can be read directly from
+    * the connection before the iterator moves to the next part.
+    *
+    * @return this returns an iterator that reads parts in order
+    */
+   public Iterator<Part> iterator() {
+      return new PartIterator();
+   }
+
+   /**
+    * This is used to ensure that the part at the specified index has
+    * been read. Parts are read in turn until the index is reached or
+    * the final boundary of the body has been read.
+    *
+    * @param index this is the index of the part that is required
+    *
+    * @return this returns true if there is a part at the index
+    */
+   private boolean fetch(int index) {
+      try {
+         while(list.size() <= index) {
+            if(!next()) {
+               return false;
+            }
+         }
+         return true;
+      } catch(IOException e) {
+         throw new IllegalStateException("Could not read part", e);
+      }
+   }
+
+   /**
+    * This is used to read the next part from the connection. Before
+    * the reader moves on, any content of the last part that was not
+    * read is buffered. If there are no more parts this returns false.
+    *
+    * @return this returns true if another part has been read
+    */
+   private boolean next() throws IOException {
+      if(!finished) {
+         if(last != null) {
+            last.spill();
+         }
+         Segment segment = reader.next();
+
+         if(segment != null) {
+            StreamPart part = new StreamPart(reader, segment, allocator);
+            String name = part.getName();
+
+            if(name != null) {
+               map.put(name, part);
+            }
+            list.add(part);
+            last = part;
+            return true;
+         }
+         finished = true;
+      }
+      return false;
+   }
+
+   /**
+    * The <code>PartIterator</code> is used to iterate over the parts
+    * as they are read. Determining if there is a next part only reads
+    * the header of that part, so its content remains to be read
+    * directly from the connection once it has been returned.
+    */
+   private class PartIterator implements Iterator<Part> {
+
+      /**
+       * This is the index of the next part to be returned.
+       */
+      private int index;
+
+      /**
+       * This determines if there is another part to be returned. If
+       * the part has not been read its header is read from the body.
+       *
+       * @return this returns true if there is another part
+       */
+      public boolean hasNext() {
+         return fetch(index);
+      }
+
+      /**
+       * This returns the next part in the order it was sent. If the
+       * part has not been read its header is read from the body.
+       *
+       * @return this returns the next part within the body
+       */
+      public Part next() {
+         if(!fetch(index)) {
+            throw new NoSuchElementException("No more parts");
+         }
+         return list.get(index++);
+      }
+
+      /**
+       * Parts can not be removed as the list represents the body that
+       * was sent, so this will always throw an exception.
+       */
+      public void remove() {
+         throw new UnsupportedOperationException("Parts can not be removed");
+      }
+   }
+}
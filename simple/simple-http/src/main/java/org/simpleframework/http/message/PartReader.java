@@ -0,0 +1,413 @@
+/*
+ * PartReader.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.message;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.simpleframework.transport.ByteCursor;
+
+/**
+ * The <code>PartReader</code> is used to read the parts of a multipart
+ * body from a stream, one part at a time and in the order they were
+ * sent. Unlike the <code>PartSeriesConsumer</code>, which buffers each
+ * part as the body arrives, this pulls bytes from the stream only as
+ * the header and content of each part is read. So the content of a
+ * part can be read directly from the connection without it first
+ * being written to a buffer.
+ * <p>
+ * The bytes read from the stream are held in a small window, which is
+ * searched for the delimiter using a <code>BoundarySearch</code>. The
+ * window begins with a line break so that the first boundary, which
+ * need not follow a line break, is found in the same way as the rest.
+ * Anything before the first boundary is skipped as a preamble.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.message.PartList
+ */
+class PartReader {
+
+   /**
+    * This is used to search the window for the part delimiter.
+    */
+   private final BoundarySearch search;
+
+   /**
+    * This is the cursor used to read the header of a part.
+    */
+   private final ByteCursor cursor;
+
+   /**
+    * This is the stream that the multipart body is read from.
+    */
+   private final InputStream source;
+
+   /**
+    * This is the delimiter that terminates the content of a part.
+    */
+   private final byte[] delimiter;
+
+   /**
+    * This is the window of bytes that have been read from the stream.
+    */
+   private byte[] data;
+
+   /**
+    * This is the result of the last search of the window.
+    */
+   private int scan;
+
+   /**
+    * This is the offset of the first byte in the window not read.
+    */
+   private int pos;
+
+   /**
+    * This is the offset after the last byte read in to the window.
+    */
+   private int limit;
+
+   /**
+    * This is true if the content of a part is being read.
+    */
+   private boolean content;
+
+   /**
+    * This is true once the final boundary has been read.
+    */
+   private boolean end;
+
+   /**
+    * Constructor for the <code>PartReader</code> object. This creates
+    * a reader that will read the parts of the multipart body read
+    * from the stream, where each part is framed by the boundary.
+    *
+    * @param source this is the stream the body is to be read from
+    * @param boundary this is the boundary that frames the parts
+    */
+   public PartReader(InputStream source, byte[] boundary) {
+      this.search = new BoundarySearch(boundary);
+      this.delimiter = search.getDelimiter();
+      this.data = new byte[8192 + delimiter.length];
+      this.cursor = new WindowCursor();
+      this.source = source;
+      this.start();
+   }
+
+   /**
+    * This is used to prepare the window. A line break is placed at
+    * the start of the window so that a boundary at the very start of
+    * the body matches the delimiter, and the bytes before it are read
+    * as the content of an empty preamble.
+    */
+   private void start() {
+      data[limit++] = '\r';
+      data[limit++] = '\n';
+      content = true;
+      scan = -1;
+   }
+
+   /**
+    * This is used to read the header of the next part. Any content
+    * of the current part that has not been read is skipped, and if
+    * the final boundary is reached this returns null. The content of
+    * the part can then be read until the reader reports its end.
+    *
+    * @return this returns the header of the next part or null
+    */
+   public Segment next() throws IOException {
+      if(!end) {
+         while(content) {
+            skip();
+         }
+         if(!fill(2)) {
+            throw new IOException("Multipart body ended after boundary");
+         }
+         if(data[pos] == '-' && data[pos + 1] == '-') {
+            end = true;
+         } else {
+            return header();
+         }
+      }
+      return null;
+   }
+
+   /**
+    * This is used to read the header of a part. The bytes following
+    * the line break after the boundary are given to a consumer until
+    * it has found the end of the header, and any bytes it has read
+    * beyond the header are returned to the window.
+    *
+    * @return this returns the header for the part that follows
+    */
+   private Segment header() throws IOException {
+      SegmentConsumer header = new SegmentConsumer();
+
+      while(true) {
+         if(!fill(1)) {
+            throw new IOException("Multipart body ended after boundary");
+         }
+         if(data[pos++] == '\n') {
+            break;
+         }
+      }
+      while(!header.isFinished()) {
+         if(!fill(1)) {
+            throw new IOException("Multipart body ended within header");
+         }
+         header.consume(cursor);
+      }
+      content = true;
+      scan = -1;
+      return header;
+   }
+
+   /**
+    * This is used to read the content of the current part. Bytes are
+    * read from the window up to the delimiter, and the window is
+    * filled from the stream when it has no content to provide. Once
+    * the delimiter is reached this returns minus one.
+    *
+    * @param array this is the array to read the content in to
+    * @param off this is the offset to read the content in to
+    * @param size this is the maximum number of bytes to read
+    *
+    * @return this returns the number of bytes read or minus one
+    */
+   public int read(byte[] array, int off, int size) throws IOException {
+      int ready = ready();
+
+      if(ready > 0) {
+         int count = Math.min(ready, size);
+
+         System.arraycopy(data, pos, array, off, count);
+         pos += count;
+         return count;
+      }
+      return -1;
+   }
+
+   /**
+    * This is used to skip the content of the current part. This is
+    * the same as reading the content, however the bytes skipped are
+    * simply passed over within the window rather than copied.
+    */
+   private void skip() throws IOException {
+      int ready = ready();
+
+      if(ready > 0) {
+         pos += ready;
+      }
+   }
+
+   /**
+    * This returns the number of bytes of content that follow in the
+    * window. If the delimiter begins the window it is read and this
+    * returns minus one, as there is no more content for the part.
+    * The window is only searched if an earlier search has not shown
+    * where the content in the window ends.
+    *
+    * @return this returns the bytes of content ready or minus one
+    */
+   private int ready() throws IOException {
+      int length = delimiter.length;
+
+      if(!content) {
+         return -1;
+      }
+      if(limit - pos < length) {
+         fill(length);
+      }
+      if(scan < pos) {
+         scan = search.find(data, pos, limit);
+      }
+      if(scan == pos) {
+         if(limit - pos < length) {
+            throw new IOException("Multipart body ended within part");
+         }
+         content = false;
+         pos += length;
+         return -1;
+      }
+      return scan - pos;
+   }
+
+   /**
+    * This is used to fill the window so that it holds at least the
+    * specified number of bytes that have not been read. Bytes that
+    * have been read are dropped from the window first. If the end of
+    * the stream is reached before the bytes are read this returns
+    * false, and the window holds whatever remained.
+    *
+    * @param count this is the number of bytes that are required
+    *
+    * @return this returns true if the bytes are in the window
+    */
+   private boolean fill(int count) throws IOException {
+      if(pos + count > data.length) {
+         compact(count);
+      }
+      while(limit - pos < count) {
+         int size = source.read(data, limit, data.length - limit);
+
+         if(size < 0) {
+            return false;
+         }
+         limit += size;
+         scan = -1;
+      }
+      return true;
+   }
+
+   /**
+    * This is used to move the bytes that have not been read to the
+    * start of the window. If the window is too small to hold the
+    * required number of bytes then it is expanded.
+    *
+    * @param count this is the number of bytes that are required
+    */
+   private void compact(int count) {
+      int remaining = limit - pos;
+
+      if(count > data.length) {
+         byte[] copy = new byte[count];
+         System.arraycopy(data, pos, copy, 0, remaining);
+         data = copy;
+      } else {
+         System.arraycopy(data, pos, data, 0, remaining);
+      }
+      limit = remaining;
+      scan = -1;
+      pos = 0;
+   }
+
+   /**
+    * The <code>WindowCursor</code> is used to present the window to
+    * the consumer for a part header. The consumer reads as much as
+    * the window holds and resets the cursor for any bytes it read
+    * beyond the end of the header, which are then read as content.
+    */
+   private class WindowCursor implements ByteCursor {
+
+      /**
+       * The window is open for as long as the reader is being used.
+       *
+       * @return this always returns true as the window is open
+       */
+      public boolean isOpen() {
+         return true;
+      }
+
+      /**
+       * This determines if the window holds bytes that are not read.
+       *
+       * @return this returns true if there are bytes to be read
+       */
+      public boolean isReady() {
+         return limit > pos;
+      }
+
+      /**
+       * This returns the number of bytes the window holds unread.
+       *
+       * @return this returns the number of bytes to be read
+       */
+      public int ready() {
+         return limit - pos;
+      }
+
+      /**
+       * This reads bytes from the window in to the array provided.
+       *
+       * @param array this is the array to read the bytes in to
+       *
+       * @return this returns the number of bytes that were read
+       */
+      public int read(byte[] array) {
+         return read(array, 0, array.length);
+      }
+
+      /**
+       * This reads bytes from the window in to the array provided.
+       *
+       * @param array this is the array to read the bytes in to
+       * @param off this is the offset to read the bytes in to
+       * @param size this is the maximum number of bytes to read
+       *
+       * @return this returns the number of bytes that were read
+       */
+      public int read(byte[] array, int off, int size) {
+         int count = Math.min(size, limit - pos);
+
+         if(count > 0) {
+            System.arraycopy(data, pos, array, off, count);
+            pos += count;
+         }
+         return count;
+      }
+
+      /**
+       * This returns bytes to the front of the window so that they
+       * are the next bytes read.
+       *
+       * @param array this is the array of bytes to return
+       */
+      public void push(byte[] array) {
+         push(array, 0, array.length);
+      }
+
+      /**
+       * This returns bytes to the front of the window so that they
+       * are the next bytes read. If there is not enough space in
+       * front of the unread bytes the window is rebuilt.
+       *
+       * @param array this is the array of bytes to return
+       * @param off this is the offset of the bytes to return
+       * @param size this is the number of bytes to return
+       */
+      public void push(byte[] array, int off, int size) {
+         if(size > pos) {
+            byte[] copy = new byte[Math.max(data.length, size + limit - pos)];
+            System.arraycopy(data, pos, copy, size, limit - pos);
+            limit = size + limit - pos;
+            pos = size;
+            data = copy;
+         }
+         System.arraycopy(array, off, data, pos - size, size);
+         scan = -1;
+         pos -= size;
+      }
+
+      /**
+       * This moves back over bytes that have been read from the
+       * window, so that they are read again as the part content.
+       *
+       * @param size this is the number of bytes to move back by
+       *
+       * @return this returns the number of bytes moved back by
+       */
+      public int reset(int size) {
+         int count = Math.min(size, pos);
+
+         pos -= count;
+         return count;
+      }
+   }
+}
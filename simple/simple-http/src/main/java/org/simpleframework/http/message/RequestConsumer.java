@@ -240,7 +240,8 @@ public class RequestConsumer extends HeaderConsumer {
     * This will parse HTTP method from the first line of the header
     * and store the parsed string internally. The method is used to
     * determine what action to take with the request, it also acts
-    * as a means to determine the semantics of the request.
+    * as a means to determine the semantics of the request. If the
+    * method is a standard method then the constant is used for it.
     */ 
    private void method() {
       Token token = new Token(array, pos, 0);
@@ -253,7 +254,13 @@ public class RequestConsumer extends HeaderConsumer {
          token.size++;
          pos++;
       }       
-      method = token.toString();
+      int known = TokenTable.METHOD.find(array, token.off, token.size);
+      
+      if(known >= 0) {
+         method = TokenTable.METHOD.get(known);
+      } else {
+         method = token.toString();
+      }
    }
    
    /**
@@ -0,0 +1,329 @@
+/*
+ * ResponseConsumer.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.message;
+
+import static org.simpleframework.http.message.TokenTable.SET_COOKIE;
+
+import java.util.List;
+
+import org.simpleframework.http.Cookie;
+
+/**
+ * The <code>ResponseConsumer</code> object is used to parse the HTTP
+ * status line followed by the HTTP message headers. This is the
+ * client side counterpart to the <code>RequestConsumer</code> and
+ * is used to consume a response sent from a server. Once consumed
+ * the status code, description and protocol version are available
+ * along with all of the headers sent with the response.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.message.RequestConsumer
+ */
+public class ResponseConsumer extends SegmentConsumer {
+
+   /**
+    * This is the description sent with the status line.
+    */
+   protected String text;
+
+   /**
+    * This is the status code sent with the status line.
+    */
+   protected int code;
+
+   /**
+    * This is the major version number of the HTTP response.
+    */
+   protected int major;
+
+   /**
+    * This is the minor version number of the HTTP response.
+    */
+   protected int minor;
+
+   /**
+    * Constructor for the <code>ResponseConsumer</code> object. This
+    * is used to create a consumer which can consume a HTTP response
+    * header from a server. Once finished the status line and all
+    * of the response headers are available from the consumer.
+    */
+   public ResponseConsumer() {
+      super();
+   }
+
+   /**
+    * This represents the status code of the HTTP response. The
+    * response code represents the type of message that is being
+    * received from the server. For a description of the codes
+    * see RFC 2616 section 10, Status Code Definitions.
+    *
+    * @return the status code that this HTTP response has
+    */
+   public int getCode() {
+      return code;
+   }
+
+   /**
+    * This can be used to retrieve the text of a HTTP status line.
+    * This is the text description for the status code. This should
+    * match the status code specified by the RFC.
+    *
+    * @return the message description of the response
+    */
+   public String getDescription() {
+      return text;
+   }
+
+   /**
+    * This can be used to get the major number from a HTTP version.
+    * The major version corresponds to the major type that is the 1
+    * of a HTTP/1.0 version string.
+    *
+    * @return the major version number for the response message
+    */
+   public int getMajor() {
+      return major;
+   }
+
+   /**
+    * This can be used to get the minor number from a HTTP version.
+    * The minor version corresponds to the major type that is the 0
+    * of a HTTP/1.0 version string.
+    *
+    * @return the minor version number for the response message
+    */
+   public int getMinor() {
+      return minor;
+   }
+
+   /**
+    * This is used to acquire the names of the of the headers that
+    * have been set in the response. This can be used to acquire all
+    * header values by name that have been set within the response.
+    *
+    * @return this returns a list of the names within the header
+    */
+   public List<String> getNames() {
+      return header.getNames();
+   }
+
+   /**
+    * This can be used to get the integer of the first message header
+    * that has the specified name. If the header is not present then
+    * this returns a value of -1 to indicate that it does not exist.
+    *
+    * @param name the HTTP message header to get the value from
+    *
+    * @return this returns the integer value of the message header
+    */
+   public int getInteger(String name) {
+      return header.getInteger(name);
+   }
+
+   /**
+    * This can be used to get the date of the first message header
+    * that has the specified name. This is a convenience method that
+    * avoids having to deal with parsing the value of the requested
+    * HTTP message header. This returns -1 if the header is missing.
+    *
+    * @param name the HTTP message header to get the value from
+    *
+    * @return this returns the date as a long from the header value
+    */
+   public long getDate(String name) {
+      return header.getDate(name);
+   }
+
+   /**
+    * This is used to acquire the cookies that have been set by the
+    * server using the <code>Set-Cookie</code> header. Only the name
+    * and value of each cookie is recorded, which is all that is
+    * required for a client to return the cookie on a request.
+    *
+    * @return this returns the cookies set by the response
+    */
+   public List<Cookie> getCookies() {
+      return header.getCookies();
+   }
+
+   /**
+    * This method is invoked after the terminal token has been read.
+    * It is used to process the consumed data and is typically used to
+    * parse the input such that it can be used by the subclass for
+    * some useful purpose. This is called only once by the consumer.
+    */
+   @Override
+   protected void process() {
+      version();
+      adjust();
+      status();
+      adjust();
+      text();
+      end();
+      headers();
+   }
+
+   /**
+    * This is used to parse the version from the HTTP status line.
+    * The version is a string of the form "HTTP/1.1" where the major
+    * and minor numbers are separated by a single period character.
+    */
+   private void version() {
+      pos += 5;   /* "HTTP/" */
+      major();  /* "1" */
+      pos++;    /* "." */
+      minor();   /* "1" */
+   }
+
+   /**
+    * This is used to parse the major number from the HTTP version.
+    * The major version is the number that precedes the period in
+    * the protocol version, so a value of "1.0" will have 1 here.
+    */
+   private void major() {
+      while(pos < count){
+         if(!digit(array[pos])){
+            break;
+         }
+         major *= 10;
+         major += array[pos];
+         major -= '0';
+         pos++;
+      }
+   }
+
+   /**
+    * This is used to parse the minor number from the HTTP version.
+    * The minor version is the number that follows the period in
+    * the protocol version, so a value of "1.0" will have 0 here.
+    */
+   private void minor() {
+      while(pos < count){
+         if(!digit(array[pos])){
+            break;
+         }
+         minor *= 10;
+         minor += array[pos];
+         minor -= '0';
+         pos++;
+      }
+   }
+
+   /**
+    * This is used to parse the three digit status code from the
+    * status line. Parsing the status code is done without creating
+    * any intermediate strings, the digits are simply accumulated.
+    */
+   private void status() {
+      while(pos < count) {
+         if(!digit(array[pos])) {
+            break;
+         }
+         code *= 10;
+         code += array[pos];
+         code -= '0';
+         pos++;
+      }
+   }
+
+   /**
+    * This is used to parse the text description that follows the
+    * status code. The description runs up to the end of the line,
+    * and although it is typically the standard phrase for the code
+    * it may be any text the server chooses to send.
+    */
+   private void text() {
+      int mark = pos;
+
+      while(pos < count) {
+         if(terminal(array[pos])) {
+            break;
+         }
+         pos++;
+      }
+      text = new String(array, mark, pos - mark);
+   }
+
+   /**
+    * This is used to record the cookies sent by the server. Only
+    * the name and value of the cookie are recorded as all other
+    * attributes are of no concern to a client returning them.
+    *
+    * @param token this is the identifier for the header name
+    * @param index this is the position of the header in the index
+    */
+   @Override
+   protected void add(int token, int index) {
+      if(token == SET_COOKIE) {
+         String value = header.getValue(index);
+         int end = value.indexOf(';');
+
+         if(end > 0) {
+            record(value.substring(0, end));
+         } else {
+            record(value);
+         }
+      }
+      super.add(token, index);
+   }
+
+   /**
+    * This is used to record a cookie using the name and value pair
+    * provided. The pair is of the form "name=value" and is taken
+    * from the start of the <code>Set-Cookie</code> header value.
+    *
+    * @param pair this is the name value pair for the cookie
+    */
+   private void record(String pair) {
+      int index = pair.indexOf('=');
+
+      if(index > 0) {
+         String key = pair.substring(0, index);
+         String value = pair.substring(index + 1);
+
+         header.setCookie(key.trim(), value.trim());
+      }
+   }
+
+   /**
+    * This is used to determine if a given ISO-8859-1 byte is a digit
+    * character, between an ISO-8859-1 0 and 9. If it is, this will
+    * return true otherwise it returns false.
+    *
+    * @param octet this is to be checked to see if it is a digit
+    *
+    * @return true if the byte is a digit character, false otherwise
+    */
+   protected boolean digit(byte octet) {
+      return octet >= '0' && octet <= '9';
+   }
+
+   /**
+    * This method returns a <code>CharSequence</code> holding the data
+    * consumed for the response header. A character sequence is
+    * returned as it can provide a much more efficient means of
+    * representing the header data by just wrapping the byte array.
+    *
+    * @return this returns the characters consumed for the header
+    */
+   public CharSequence getHeader() {
+      return toString();
+   }
+}
@@ -18,13 +18,12 @@
 
 package org.simpleframework.http.message;
 
-import static org.simpleframework.http.Protocol.ACCEPT_LANGUAGE;
-import static org.simpleframework.http.Protocol.CONTENT_DISPOSITION;
-import static org.simpleframework.http.Protocol.CONTENT_LENGTH;
-import static org.simpleframework.http.Protocol.CONTENT_TYPE;
-import static org.simpleframework.http.Protocol.COOKIE;
-import static org.simpleframework.http.Protocol.EXPECT;
-import static org.simpleframework.http.Protocol.TRANSFER_ENCODING;
+import static org.simpleframework.http.message.TokenTable.CONTENT_DISPOSITION;
+import static org.simpleframework.http.message.TokenTable.CONTENT_LENGTH;
+import static org.simpleframework.http.message.TokenTable.CONTENT_TYPE;
+import static org.simpleframework.http.message.TokenTable.COOKIE;
+import static org.simpleframework.http.message.TokenTable.EXPECT;
+import static org.simpleframework.http.message.TokenTable.TRANSFER_ENCODING;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -34,6 +33,7 @@ import java.util.Locale;
 import org.simpleframework.http.ContentDisposition;
 import org.simpleframework.http.ContentType;
 import org.simpleframework.http.Cookie;
+import org.simpleframework.http.Protocol;
 import org.simpleframework.http.parse.ContentDispositionParser;
 import org.simpleframework.http.parse.ContentTypeParser;
 import org.simpleframework.http.parse.CookieParser;
@@ -45,7 +45,9 @@ import org.simpleframework.http.parse.LanguageParser;
  * HTTP header message until the carriage return line feed empty line
  * is encountered. Once all headers are consumed they are available 
  * using the case insensitive header name. This will remove leading
- * and trailing whitespace from the names and values parsed.
+ * and trailing whitespace from the names and values parsed. Headers
+ * are stored as offsets in to the consumed bytes, and are converted
+ * to strings only if they are requested or need to be interpreted.
  * 
  * @author Niall Gallagher
  */
@@ -74,7 +76,7 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
    /**
     * This is used to store all consumed headers by the header name.
     */
-   protected MessageHeader header;
+   protected HeaderIndex header;
    
    /**
     * This is used to parse the content type header consumed.
@@ -86,16 +88,6 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
     */
    protected String encoding;
    
-   /**
-    * During parsing this is used to store the parsed header name,
-    */
-   protected String name;   
-   
-   /**
-    * During parsing this is used to store the parsed header value.
-    */
-   protected String value;
-   
    /**
     * This is used to determine if there is a continue expected.
     */
@@ -140,9 +132,7 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
     * @param limit this is the length limit for a HTTP header
     */
    public SegmentConsumer(int limit) {
-      this.language = new LanguageParser();
-      this.cookies = new CookieParser();
-      this.header = new MessageHeader();
+      this.header = new HeaderIndex();
       this.limit = limit;
       this.length = -1;
    }   
@@ -244,15 +234,21 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
     * This is used to acquire the locales from the request header. The
     * locales are provided in the <code>Accept-Language</code> header.
     * This provides an indication as to the languages that the client 
-    * accepts. It provides the locales in preference order.
+    * accepts. It provides the locales in preference order. The
+    * header is parsed only when the locales are first requested.
     * 
     * @return this returns the locales preferred by the client
     */
    public List<Locale> getLocales() {
-      if(language != null) {
-         return language.list();
+      if(language == null) {
+         String value = header.getValue(Protocol.ACCEPT_LANGUAGE);
+         
+         if(value == null) {
+            return Collections.emptyList();
+         }
+         language(value);
       }
-      return Collections.emptyList();           
+      return language.list();
    }
    
    /**
@@ -362,53 +358,67 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
     */
    protected void headers() {
       while(pos < count) {
-         header();         
-         add(name, value);        
+         int index = header();
+         int token = header.getToken(index);
+         
+         if(token >= 0) {
+            add(token, index);
+         }
       }
    }   
 
    /**
     * This is used to parse a header from the consumed HTTP message
-    * and add them to the segment. Once added it is available via
-    * the header name in a case insensitive manner. If the header has
-    * a special value, that is, if further information is required it
-    * will be extracted and exposed in the segment interface.
+    * and add it to the index. Only the offsets of the name and value
+    * are recorded, so no strings are created for the header unless
+    * it is special or until its value is requested.
+    * 
+    * @return this returns the position of the header in the index
     */   
-   private void header() {
+   private int header() {
       adjust();
-      name();
+      int name = pos;
+      int length = name();
       adjust();
-      value();    
+      int value = pos;
+      int size = value();    
       end();
+      
+      return header.index(array, name, length, value, size);
    }
-    
+   
    /**
-    * This is used to add the name and value specified as a special
-    * header within the segment. Special headers are those where 
-    * there are values of interest to the segment. For instance the
-    * Content-Length, Content-Type, and Cookie headers are parsed
-    * using an external parser to extract the values.      
+    * This is used to interpret a well known header that has been
+    * added to the index. Special headers are those where there are
+    * values of interest to the segment. For instance the headers
+    * Content-Length, Content-Type, and Cookie are parsed using an
+    * external parser to extract the values. The header is selected
+    * by its identifier, so only special headers are converted.
     * 
-    * @param name this is the name of the header to be added
-    * @param value this is the value of the header to be added
+    * @param token this is the identifier for the header name
+    * @param index this is the position of the header in the index
     */
-   protected void add(String name, String value) {
-      if(equal(ACCEPT_LANGUAGE, name)) {
-         language(value);
-      }else if(equal(CONTENT_LENGTH, name)) {
-         length(value);
-      } else if(equal(CONTENT_TYPE, name)) {
-         type(value);
-      } else if(equal(CONTENT_DISPOSITION, name)) {
-         disposition(value);
-      } else if(equal(TRANSFER_ENCODING, name)) {
-         encoding(value);
-      } else if(equal(EXPECT, name)) {
-         expect(value);
-      } else if(equal(COOKIE, name)) {
-         cookie(value);
-      } 
-      header.addValue(name, value);
+   protected void add(int token, int index) {
+      switch(token) {
+      case CONTENT_LENGTH:
+         length(header.getValue(index));
+         break;
+      case CONTENT_TYPE:
+         type(header.getValue(index));
+         break;
+      case CONTENT_DISPOSITION:
+         disposition(header.getValue(index));
+         break;
+      case TRANSFER_ENCODING:
+         encoding(header.getValue(index));
+         break;
+      case EXPECT:
+         expect(header.getValue(index));
+         break;
+      case COOKIE:
+         cookie(header.getValue(index));
+         break;
+      }
    }   
    
    /**
@@ -432,6 +442,9 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
     * @param value this is the value of the cookie to be parsed
     */
    protected void cookie(String value) {
+      if(cookies == null) {
+         cookies = new CookieParser();
+      }
       cookies.parse(value);
          
       for(Cookie cookie : cookies) {
@@ -510,23 +523,25 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
    }
    
    /**
-    * This updates the token for the header name. The name is parsed
-    * according to the presence of a colon ':'. Once a colon character
-    * is encountered then this header name is considered to be read
-    * from the buffer and is used to key the value after the colon.
+    * This reads the header name. The name is parsed according to
+    * the presence of a colon ':'. Once a colon character is found
+    * then this header name is considered to be read from the buffer
+    * and is used to key the value after the colon.
+    * 
+    * @return this returns the number of bytes in the header name
     */ 
-   private void name() {
-      Token token = new Token(pos, 0);
+   private int name() {
+      int size = 0;
       
       while(pos < count){
          if(array[pos] == ':') {
             pos++;
             break;
          }
-         token.size++;
+         size++;
          pos++;
       }
-      name = token.text();
+      return size;
    }
 
     
@@ -537,9 +552,11 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
     * is basically a way to wrap a single  HTTP header into several 
     * lines using a tab at the start of the following line to indicate
     *  that the header flows onto the next line.
+    * 
+    * @return this returns the number of bytes in the header value
     */    
-   private void value() {   
-      Token token = new Token(pos, 0);
+   private int value() {   
+      int size = 0;
       
       scan: for(int mark = 0; pos < count;){
          if(terminal(array[pos])) {  /* CR  or  LF */
@@ -556,14 +573,14 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
             }       
          } else {
             if(!space(array[pos])){
-               token.size = ++mark;
+               size = ++mark;
             } else {
                mark++;
             }
             pos++;               
          }
       }     
-      value = token.text();
+      return size;
    }
 
    /**
@@ -604,6 +621,12 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
     * for the token and returns the number of bytes in the buffer 
     * after the terminal token. Returning the excess bytes allows the
     * consumer to reset the bytes within the consumer object.
+    * <p>
+    * When no part of the token has been matched the bytes are skipped
+    * a word at a time to the next carriage return, so only the line
+    * ends of the header are examined individually. If a partial match
+    * fails on a carriage return that byte is examined again, as it 
+    * may be the start of the token.
     *
     * @return this returns the number of excess bytes consumed
     */ 
@@ -612,7 +635,18 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
       int length = count;
       
       while(pos < count) {
+         if(scan == 0) {
+            pos = ByteScanner.indexOf(array, TERMINAL[0], pos, count);
+            
+            if(pos < 0) {
+               pos = count;
+               break;
+            }
+         }
          if(array[pos++] != TERMINAL[scan++]) {
+            if(array[pos - 1] == TERMINAL[0]) {
+               pos--;
+            }
             scan = 0;
          } 
          if(scan == TERMINAL.length) {            
@@ -625,21 +659,6 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
       return 0;
    }
    
-   /**
-    * This is used to determine if two header names are equal, this is
-    * done to ensure that the case insensitivity of HTTP header names
-    * is observed. Special headers are processed using this consumer
-    * and this is used to ensure the correct header is always matched. 
-    * 
-    * @param name this is the name to compare the parsed token with
-    * @param token this is the header name token to examine
-    * 
-    * @return true of the header name token is equal to the name
-    */
-   protected boolean equal(String name, String token) {
-      return name.equalsIgnoreCase(token);
-   }
-   
    /**
     * This identifies a given ISO-8859-1 byte as a space character. A
     * space is either a space or a tab character in ISO-8859-1.
@@ -697,62 +716,4 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
    public String toString() {
       return new String(array, 0, count);
    }
-
-   /**
-    * This is used to track the boundaries of a token so that it can
-    * be converted in to a usable string. This will track the length
-    * and offset within the consumed array of the token. When the
-    * token is to be used it can be converted in to a string.    
-    */
-   private class Token {
-      
-      /**
-       * This is used to track the number of bytes within the array.
-       */
-      public int size;
-      
-      /**
-       * This is used to mark the start offset within the array.
-       */
-      public int off;
-      
-      /**
-       * Constructor for the <code>Token</code> object. This is used
-       * to create a new token to track the range of bytes that will
-       * be used to create a string representing the parsed value.
-       * 
-       * @param off the starting offset for the token range
-       * @param size the number of bytes used for the token
-       */
-      public Token(int off, int size) {
-         this.off = off;
-         this.size = size;
-      }
-      
-      /**
-       * This is used to convert the byte range to a string. This 
-       * will use UTF-8 encoding for the string which is compatible
-       * with the HTTP default header encoding of ISO-8859-1.
-       * 
-       * @return the encoded string representing the token 
-       */
-      public String text() {
-         return text("UTF-8");
-      }
-      
-      /**
-       * This is used to convert the byte range to a string. This 
-       * will use specified encoding, if that encoding is not
-       * supported then this will return null for the token value.
-       * 
-       * @return the encoded string representing the token 
-       */      
-      public String text(String charset) {
-         try {
-            return new String(array, off, size, charset);
-         } catch(IOException e) {
-            return null;
-         }        
-      }
-   }
 }
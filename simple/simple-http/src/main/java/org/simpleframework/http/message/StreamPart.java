@@ -0,0 +1,258 @@
+/*
+ * StreamPart.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.message;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.simpleframework.common.buffer.Allocator;
+import org.simpleframework.common.buffer.Buffer;
+import org.simpleframework.http.ContentDisposition;
+import org.simpleframework.http.ContentType;
+import org.simpleframework.http.Part;
+
+/**
+ * The <code>StreamPart</code> represents a part of a multipart body
+ * that is read directly from the connection. While it is the current
+ * part its content is read from the <code>PartReader</code>, so the
+ * bytes pass straight to the container. If the container moves on to
+ * a later part before reading all of the content, the remainder is
+ * written to a buffer, so that it can still be read afterwards.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.message.PartList
+ */
+class StreamPart implements Part {
+
+   /**
+    * This is the stream used to read the content of the part.
+    */
+   private final InputStream stream;
+
+   /**
+    * This is used to allocate a buffer for unread content.
+    */
+   private final Allocator allocator;
+
+   /**
+    * This is the reader used while this is the current part.
+    */
+   private final PartReader reader;
+
+   /**
+    * This is the header that was sent with the part.
+    */
+   private final Segment segment;
+
+   /**
+    * This is the stream for the buffered remainder of the content.
+    */
+   private InputStream source;
+
+   /**
+    * This holds whatever content was not read from the reader.
+    */
+   private Buffer buffer;
+
+   /**
+    * This is true once the part is no longer read from the reader.
+    */
+   private boolean spilled;
+
+   /**
+    * Constructor for the <code>StreamPart</code> object. This is used
+    * to create a part whose content is read from the reader, which
+    * must be positioned at the start of the content of the part.
+    *
+    * @param reader this is the reader the content is read from
+    * @param segment this is the header that was sent with the part
+    * @param allocator this is used to buffer any unread content
+    */
+   public StreamPart(PartReader reader, Segment segment, Allocator allocator) {
+      this.stream = new PartInputStream();
+      this.allocator = allocator;
+      this.segment = segment;
+      this.reader = reader;
+   }
+
+   /**
+    * This method is used to determine the type of a part. Typically
+    * a part is either a text parameter or a file. If this is true
+    * then the content represented by the associated part is a file.
+    *
+    * @return this returns true if the associated part is a file
+    */
+   public boolean isFile() {
+      return getDisposition().isFile();
+   }
+
+   /**
+    * This method is used to acquire the name of the part. Typically
+    * this is used when the part represents a text parameter rather
+    * than a file. However, this can also be used with a file part.
+    *
+    * @return this returns the name of the associated part
+    */
+   public String getName() {
+      return getDisposition().getName();
+   }
+
+   /**
+    * This method is used to acquire the file name of the part. This
+    * is only provided when the part represents a file, and is null
+    * for a part that represents a text parameter.
+    *
+    * @return this returns the file name of the associated part
+    */
+   public String getFileName() {
+      return getDisposition().getFileName();
+   }
+
+   /**
+    * This is used to acquire the content of the part as a string.
+    * Any content that has not yet been read is buffered, and the
+    * buffered content is returned. So content that has already been
+    * read through the stream is not included in the string.
+    *
+    * @return the content of the part that has not been read
+    */
+   public String getContent() throws IOException {
+      spill();
+
+      if(buffer == null) {
+         return new String();
+      }
+      return buffer.encode();
+   }
+
+   /**
+    * This returns the stream used to read the content of the part.
+    * The stream reads from the connection while this is the current
+    * part, and from the buffered remainder once it is not.
+    *
+    * @return this returns the stream used to read the content
+    */
+   public InputStream getInputStream() throws IOException {
+      return stream;
+   }
+
+   /**
+    * This provides the content type of the part, which is used to
+    * determine how the content of the part is to be interpreted.
+    *
+    * @return the content type of the part or null if not provided
+    */
+   public ContentType getContentType() {
+      return segment.getContentType();
+   }
+
+   /**
+    * This provides the content disposition of the part, which holds
+    * the name of the part and the name of any file it represents.
+    *
+    * @return this returns the content disposition of the part
+    */
+   public ContentDisposition getDisposition() {
+      return segment.getDisposition();
+   }
+
+   /**
+    * This is used to provide the value of a header sent with the
+    * part. If the header was not sent with the part this is null.
+    *
+    * @param name this is the name of the header to acquire
+    *
+    * @return this returns the value of the header or null
+    */
+   public String getHeader(String name) {
+      return segment.getValue(name);
+   }
+
+   /**
+    * This is used to stop reading the part from the reader. This is
+    * invoked before the reader moves on to the next part, and any
+    * content that has not been read is written to a buffer so that
+    * it can be read later. If all of the content was read nothing is
+    * buffered, so a part read in full is never written anywhere.
+    */
+   public void spill() throws IOException {
+      if(!spilled) {
+         byte[] chunk = new byte[8192];
+         int count = 0;
+
+         while((count = reader.read(chunk, 0, chunk.length)) > 0) {
+            if(buffer == null) {
+               buffer = allocator.allocate();
+            }
+            buffer.append(chunk, 0, count);
+         }
+         if(buffer != null) {
+            source = buffer.open();
+         }
+         spilled = true;
+      }
+   }
+
+   /**
+    * The <code>PartInputStream</code> is used to read the content of
+    * the part. This reads from the reader until the part is spilled,
+    * after which it reads whatever content was buffered.
+    */
+   private class PartInputStream extends InputStream {
+
+      /**
+       * This is used to read a single byte from the part content.
+       *
+       * @return this returns the byte read or minus one at the end
+       */
+      public int read() throws IOException {
+         byte[] octet = new byte[1];
+         int count = read(octet, 0, 1);
+
+         if(count > 0) {
+            return octet[0] & 0xff;
+         }
+         return -1;
+      }
+
+      /**
+       * This is used to read bytes from the part content. This will
+       * return minus one once the delimiter for the part is reached.
+       *
+       * @param array this is the array to read the bytes in to
+       * @param off this is the offset to read the bytes in to
+       * @param size this is the maximum number of bytes to read
+       *
+       * @return this returns the number of bytes read or minus one
+       */
+      public int read(byte[] array, int off, int size) throws IOException {
+         if(size == 0) {
+            return 0;
+         }
+         if(spilled) {
+            if(source == null) {
+               return -1;
+            }
+            return source.read(array, off, size);
+         }
+         return reader.read(array, off, size);
+      }
+   }
+}
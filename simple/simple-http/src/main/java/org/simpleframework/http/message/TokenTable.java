@@ -0,0 +1,588 @@
+/*
+ * TokenTable.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+
+package org.simpleframework.http.message;
+
+import org.simpleframework.http.Method;
+import org.simpleframework.http.Protocol;
+
+/**
+ * The <code>TokenTable</code> is used to recognise well known tokens
+ * directly from the bytes of a message. Each table is a perfect hash
+ * of a fixed set of tokens, so a token is found by hashing the bytes
+ * once and comparing them with the single candidate in that slot. A
+ * token that is found is identified by a small integer and can be 
+ * given as the constant string it represents, so neither the lookup
+ * nor the result requires a string to be created.
+ * <p>
+ * The header table contains the headers declared in the protocol
+ * and is case insensitive, the identifiers of the headers are the
+ * constants declared here so they can be used in a switch. The method
+ * table contains the standard request methods and is case sensitive.
+ * 
+ * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.http.message.HeaderIndex
+ */
+class TokenTable {
+   
+   /**
+    * This is the identifier used for the <code>Accept</code> header.
+    */
+   public static final int ACCEPT = 0;
+   
+   /**
+    * This is the identifier used for the <code>Accept-Charset</code> header.
+    */
+   public static final int ACCEPT_CHARSET = 1;
+   
+   /**
+    * This is the identifier used for the <code>Accept-Encoding</code> header.
+    */
+   public static final int ACCEPT_ENCODING = 2;
+   
+   /**
+    * This is the identifier used for the <code>Accept-Language</code> header.
+    */
+   public static final int ACCEPT_LANGUAGE = 3;
+   
+   /**
+    * This is the identifier used for the <code>Accept-Ranges</code> header.
+    */
+   public static final int ACCEPT_RANGES = 4;
+   
+   /**
+    * This is the identifier used for the <code>Age</code> header.
+    */
+   public static final int AGE = 5;
+   
+   /**
+    * This is the identifier used for the <code>Allow</code> header.
+    */
+   public static final int ALLOW = 6;
+   
+   /**
+    * This is the identifier used for the <code>Authorization</code> header.
+    */
+   public static final int AUTHORIZATION = 7;
+   
+   /**
+    * This is the identifier used for the <code>Cache-Control</code> header.
+    */
+   public static final int CACHE_CONTROL = 8;
+   
+   /**
+    * This is the identifier used for the <code>Connection</code> header.
+    */
+   public static final int CONNECTION = 9;
+   
+   /**
+    * This is the identifier used for the <code>Content-Disposition</code> header.
+    */
+   public static final int CONTENT_DISPOSITION = 10;
+   
+   /**
+    * This is the identifier used for the <code>Content-Encoding</code> header.
+    */
+   public static final int CONTENT_ENCODING = 11;
+   
+   /**
+    * This is the identifier used for the <code>Content-Language</code> header.
+    */
+   public static final int CONTENT_LANGUAGE = 12;
+   
+   /**
+    * This is the identifier used for the <code>Content-Length</code> header.
+    */
+   public static final int CONTENT_LENGTH = 13;
+   
+   /**
+    * This is the identifier used for the <code>Content-Location</code> header.
+    */
+   public static final int CONTENT_LOCATION = 14;
+   
+   /**
+    * This is the identifier used for the <code>Content-MD5</code> header.
+    */
+   public static final int CONTENT_MD5 = 15;
+   
+   /**
+    * This is the identifier used for the <code>Content-Range</code> header.
+    */
+   public static final int CONTENT_RANGE = 16;
+   
+   /**
+    * This is the identifier used for the <code>Content-Type</code> header.
+    */
+   public static final int CONTENT_TYPE = 17;
+   
+   /**
+    * This is the identifier used for the <code>Cookie</code> header.
+    */
+   public static final int COOKIE = 18;
+   
+   /**
+    * This is the identifier used for the <code>Date</code> header.
+    */
+   public static final int DATE = 19;
+   
+   /**
+    * This is the identifier used for the <code>ETag</code> header.
+    */
+   public static final int ETAG = 20;
+   
+   /**
+    * This is the identifier used for the <code>Expect</code> header.
+    */
+   public static final int EXPECT = 21;
+   
+   /**
+    * This is the identifier used for the <code>Expires</code> header.
+    */
+   public static final int EXPIRES = 22;
+   
+   /**
+    * This is the identifier used for the <code>From</code> header.
+    */
+   public static final int FROM = 23;
+   
+   /**
+    * This is the identifier used for the <code>Host</code> header.
+    */
+   public static final int HOST = 24;
+   
+   /**
+    * This is the identifier used for the <code>If-Match</code> header.
+    */
+   public static final int IF_MATCH = 25;
+   
+   /**
+    * This is the identifier used for the <code>If-Modified-Since</code> header.
+    */
+   public static final int IF_MODIFIED_SINCE = 26;
+   
+   /**
+    * This is the identifier used for the <code>If-None-Match</code> header.
+    */
+   public static final int IF_NONE_MATCH = 27;
+   
+   /**
+    * This is the identifier used for the <code>If-Range</code> header.
+    */
+   public static final int IF_RANGE = 28;
+   
+   /**
+    * This is the identifier used for the <code>If-Unmodified-Since</code> header.
+    */
+   public static final int IF_UNMODIFIED_SINCE = 29;
+   
+   /**
+    * This is the identifier used for the <code>Last-Modified</code> header.
+    */
+   public static final int LAST_MODIFIED = 30;
+   
+   /**
+    * This is the identifier used for the <code>Location</code> header.
+    */
+   public static final int LOCATION = 31;
+   
+   /**
+    * This is the identifier used for the <code>Max-Forwards</code> header.
+    */
+   public static final int MAX_FORWARDS = 32;
+   
+   /**
+    * This is the identifier used for the <code>Pragma</code> header.
+    */
+   public static final int PRAGMA = 33;
+   
+   /**
+    * This is the identifier used for the <code>Proxy-Authenticate</code> header.
+    */
+   public static final int PROXY_AUTHENTICATE = 34;
+   
+   /**
+    * This is the identifier used for the <code>Proxy-Authorization</code> header.
+    */
+   public static final int PROXY_AUTHORIZATION = 35;
+   
+   /**
+    * This is the identifier used for the <code>Range</code> header.
+    */
+   public static final int RANGE = 36;
+   
+   /**
+    * This is the identifier used for the <code>Referer</code> header.
+    */
+   public static final int REFERER = 37;
+   
+   /**
+    * This is the identifier used for the <code>Retry-After</code> header.
+    */
+   public static final int RETRY_AFTER = 38;
+   
+   /**
+    * This is the identifier used for the <code>Sec-WebSocket-Key</code> header.
+    */
+   public static final int SEC_WEBSOCKET_KEY = 39;
+   
+   /**
+    * This is the identifier used for the <code>Sec-WebSocket-Accept</code> header.
+    */
+   public static final int SEC_WEBSOCKET_ACCEPT = 40;
+   
+   /**
+    * This is the identifier used for the <code>Sec-WebSocket-Protocol</code> header.
+    */
+   public static final int SEC_WEBSOCKET_PROTOCOL = 41;
+   
+   /**
+    * This is the identifier used for the <code>Sec-WebSocket-Version</code> header.
+    */
+   public static final int SEC_WEBSOCKET_VERSION = 42;
+   
+   /**
+    * This is the identifier used for the <code>Server</code> header.
+    */
+   public static final int SERVER = 43;
+   
+   /**
+    * This is the identifier used for the <code>Set-Cookie</code> header.
+    */
+   public static final int SET_COOKIE = 44;
+   
+   /**
+    * This is the identifier used for the <code>TE</code> header.
+    */
+   public static final int TE = 45;
+   
+   /**
+    * This is the identifier used for the <code>Trailer</code> header.
+    */
+   public static final int TRAILER = 46;
+   
+   /**
+    * This is the identifier used for the <code>Transfer-Encoding</code> header.
+    */
+   public static final int TRANSFER_ENCODING = 47;
+   
+   /**
+    * This is the identifier used for the <code>Upgrade</code> header.
+    */
+   public static final int UPGRADE = 48;
+   
+   /**
+    * This is the identifier used for the <code>User-Agent</code> header.
+    */
+   public static final int USER_AGENT = 49;
+   
+   /**
+    * This is the identifier used for the <code>Vary</code> header.
+    */
+   public static final int VARY = 50;
+   
+   /**
+    * This is the identifier used for the <code>Via</code> header.
+    */
+   public static final int VIA = 51;
+   
+   /**
+    * This is the identifier used for the <code>Warning</code> header.
+    */
+   public static final int WARNING = 52;
+   
+   /**
+    * This is the identifier used for the <code>WWW-Authenticate</code> header.
+    */
+   public static final int WWW_AUTHENTICATE = 53;
+   
+   /**
+    * These are the headers in the order of their identifiers.
+    */
+   private static final String[] HEADERS = {
+   Protocol.ACCEPT,
+   Protocol.ACCEPT_CHARSET,
+   Protocol.ACCEPT_ENCODING,
+   Protocol.ACCEPT_LANGUAGE,
+   Protocol.ACCEPT_RANGES,
+   Protocol.AGE,
+   Protocol.ALLOW,
+   Protocol.AUTHORIZATION,
+   Protocol.CACHE_CONTROL,
+   Protocol.CONNECTION,
+   Protocol.CONTENT_DISPOSITION,
+   Protocol.CONTENT_ENCODING,
+   Protocol.CONTENT_LANGUAGE,
+   Protocol.CONTENT_LENGTH,
+   Protocol.CONTENT_LOCATION,
+   Protocol.CONTENT_MD5,
+   Protocol.CONTENT_RANGE,
+   Protocol.CONTENT_TYPE,
+   Protocol.COOKIE,
+   Protocol.DATE,
+   Protocol.ETAG,
+   Protocol.EXPECT,
+   Protocol.EXPIRES,
+   Protocol.FROM,
+   Protocol.HOST,
+   Protocol.IF_MATCH,
+   Protocol.IF_MODIFIED_SINCE,
+   Protocol.IF_NONE_MATCH,
+   Protocol.IF_RANGE,
+   Protocol.IF_UNMODIFIED_SINCE,
+   Protocol.LAST_MODIFIED,
+   Protocol.LOCATION,
+   Protocol.MAX_FORWARDS,
+   Protocol.PRAGMA,
+   Protocol.PROXY_AUTHENTICATE,
+   Protocol.PROXY_AUTHORIZATION,
+   Protocol.RANGE,
+   Protocol.REFERER,
+   Protocol.RETRY_AFTER,
+   Protocol.SEC_WEBSOCKET_KEY,
+   Protocol.SEC_WEBSOCKET_ACCEPT,
+   Protocol.SEC_WEBSOCKET_PROTOCOL,
+   Protocol.SEC_WEBSOCKET_VERSION,
+   Protocol.SERVER,
+   Protocol.SET_COOKIE,
+   Protocol.TE,
+   Protocol.TRAILER,
+   Protocol.TRANSFER_ENCODING,
+   Protocol.UPGRADE,
+   Protocol.USER_AGENT,
+   Protocol.VARY,
+   Protocol.VIA,
+   Protocol.WARNING,
+   Protocol.WWW_AUTHENTICATE };
+   
+   /**
+    * These are the standard methods that can be recognised.
+    */
+   private static final String[] METHODS = {
+   Method.CONNECT,
+   Method.DELETE,
+   Method.GET,
+   Method.HEAD,
+   Method.OPTIONS,
+   Method.POST,
+   Method.PUT,
+   Method.TRACE };
+   
+   /**
+    * This is the case insensitive table of the protocol headers.
+    */
+   public static final TokenTable HEADER = new TokenTable(HEADERS, 643, 8, true);
+   
+   /**
+    * This is the case sensitive table of the request methods.
+    */
+   public static final TokenTable METHOD = new TokenTable(METHODS, 3387, 4, false);
+   
+   /**
+    * This maps each hash slot to a token identifier or to -1.
+    */
+   private final int[] slots;
+   
+   /**
+    * These are the tokens that can be found in this table.
+    */
+   private final String[] tokens;
+   
+   /**
+    * This is the multiplier used to spread the hash over the slots.
+    */
+   private final int multiplier;
+   
+   /**
+    * This is the shift used to select the top bits of the hash.
+    */
+   private final int shift;
+   
+   /**
+    * This determines if tokens are compared ignoring their case.
+    */
+   private final boolean fold;
+   
+   /**
+    * Constructor for the <code>TokenTable</code> object. The table
+    * is built by placing each token in the slot given by its hash.
+    * The multiplier must have been chosen so that the tokens do not
+    * collide, if any do then this will fail to create the table.
+    * 
+    * @param tokens these are the tokens that are to be found
+    * @param multiplier this is used to spread the hash over slots
+    * @param bits this is the number of bits used to select a slot
+    * @param fold this determines if the case is to be ignored
+    */
+   public TokenTable(String[] tokens, int multiplier, int bits, boolean fold) {
+      this.slots = new int[1 << bits];
+      this.multiplier = multiplier;
+      this.shift = 32 - bits;
+      this.tokens = tokens;
+      this.fold = fold;
+      this.build();
+   }
+   
+   /**
+    * This is used to place each token in the slot given by its hash.
+    * If two tokens hash to the same slot then the table is not a 
+    * perfect hash and an exception is thrown, as the table would
+    * otherwise be unable to find one of the tokens.
+    */
+   private void build() {
+      for(int i = 0; i < slots.length; i++) {
+         slots[i] = -1;
+      }
+      for(int i = 0; i < tokens.length; i++) {
+         String token = tokens[i];
+         int hash = 0;
+         
+         for(int j = 0; j < token.length(); j++) {
+            hash = hash * 31 + convert(token.charAt(j));
+         }
+         int slot = (hash * multiplier) >>> shift;
+         
+         if(slots[slot] != -1) {
+            throw new IllegalStateException("Token '" + token + "' collides with '" + tokens[slots[slot]] + "'");
+         }
+         slots[slot] = i;
+      }
+   }
+   
+   /**
+    * This is used to acquire the token with the given identifier.
+    * The string returned is the constant the token was declared
+    * with, so it can be compared by identity if required.
+    * 
+    * @param token this is the identifier of the token
+    * 
+    * @return this returns the constant string for the token
+    */
+   public String get(int token) {
+      return tokens[token];
+   }
+   
+   /**
+    * This is used to find the token represented by the bytes within
+    * the array. The bytes are hashed to find the only token that 
+    * they could represent, and are then compared with that token. If
+    * the bytes do not represent a token this will return -1.
+    * 
+    * @param array this is the array containing the bytes
+    * @param off this is the offset of the first byte
+    * @param size this is the number of bytes to examine
+    * 
+    * @return this returns the identifier of the token or -1
+    */
+   public int find(byte[] array, int off, int size) {
+      int hash = 0;
+      
+      for(int i = 0; i < size; i++) {
+         hash = hash * 31 + convert(array[off + i] & 0xff);
+      }
+      int token = slots[(hash * multiplier) >>> shift];
+      
+      if(token >= 0) {
+         if(match(array, off, size, token, fold)) {
+            return token;
+         }
+      }
+      return -1;
+   }
+   
+   /**
+    * This is used to determine if the bytes within the array are an
+    * exact match for the token, including the case of the token. If
+    * so then the constant string can be used in place of the bytes.
+    * 
+    * @param array this is the array containing the bytes
+    * @param off this is the offset of the first byte
+    * @param size this is the number of bytes to examine
+    * @param token this is the identifier of the token
+    * 
+    * @return this returns true if the bytes exactly match the token
+    */
+   public boolean exact(byte[] array, int off, int size, int token) {
+      return match(array, off, size, token, false);
+   }
+   
+   /**
+    * This is used to compare the bytes within the array with the
+    * token. If the comparison is to ignore case then upper case ASCII
+    * characters are converted to lower case before comparing them.
+    * 
+    * @param array this is the array containing the bytes
+    * @param off this is the offset of the first byte
+    * @param size this is the number of bytes to examine
+    * @param token this is the identifier of the token
+    * @param fold this determines if the case is to be ignored
+    * 
+    * @return this returns true if the bytes match the token
+    */
+   private boolean match(byte[] array, int off, int size, int token, boolean fold) {
+      String text = tokens[token];
+      
+      if(text.length() != size) {
+         return false;
+      }
+      for(int i = 0; i < size; i++) {
+         int octet = array[off + i] & 0xff;
+         int next = text.charAt(i);
+         
+         if(octet != next) {
+            if(!fold || lower(octet) != lower(next)) {
+               return false;
+            }
+         }
+      }
+      return true;
+   }
+   
+   /**
+    * This is used to convert a character before it is hashed. If the
+    * table ignores case then this will convert the character to
+    * lower case so that all cases of a token hash to the same slot.
+    * 
+    * @param octet this is the character that is to be converted
+    * 
+    * @return this returns the character that is to be hashed
+    */
+   private int convert(int octet) {
+      if(fold) {
+         return lower(octet);
+      }
+      return octet;
+   }
+   
+   /**
+    * This is used to convert an upper case ASCII character to lower
+    * case. Tokens are ASCII so there is no need to consider the case
+    * of any other characters that may be examined.
+    * 
+    * @param octet this is the character to be converted
+    * 
+    * @return this returns the lower case value of the character
+    */
+   private int lower(int octet) {
+      if(octet >= 'A' && octet <= 'Z') {
+         return octet + 32;
+      }
+      return octet;
+   }
+}
@@ -220,7 +220,8 @@ public class AddressParser extends Parser implements Address {
     * This returns a <code>org.simpleframework.http.Query</code> 
     * object that can be used to interact directly with the query 
     * values. The <code>Query</code> object is a read-only interface
-    * to the query parameters, and so will not affect the URI.
+    * to the query parameters, and so will not affect the URI. Only
+    * the parameters that are requested from the query are decoded.
     *
     * @return a <code>Query</code> object for the query part
     */
@@ -229,10 +230,10 @@ public class AddressParser extends Parser implements Address {
          String text = query.toString();      
          
          if(text == null) {
-            data = new QueryParser();
+            data = new QueryIndex();
          }
          if(data == null){
-            data = new QueryParser(text);
+            data = new QueryIndex(text);
          }
       }
       return data;
@@ -0,0 +1,192 @@
+/*
+ * DateClock.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+
+package org.simpleframework.http.parse;
+
+/**
+ * The <code>DateClock</code> is a coarse clock that provides the current
+ * time as an RFC 1123 date. As the <code>Date</code> header only has a
+ * resolution of one second, the text for the current second is formatted
+ * once and shared by every response sent within that second. The value
+ * is available both as a string and as the bytes written on the wire.
+ * <p>
+ * The clock is not advanced by a thread. Instead, the first request for
+ * the date in a new second formats the date and publishes it, so an idle
+ * server does no work at all. If two threads publish the same second at
+ * once then both produce identical values, so no locking is required.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.parse.DateParser
+ */
+public final class DateClock {
+
+   /**
+    * This is the most recent date that was formatted by the clock.
+    */
+   private static volatile Stamp stamp = new Stamp(0);
+
+   /**
+    * Constructor for the <code>DateClock</code> object. This is 
+    * private as all of the methods are static and so there is no
+    * need to create an instance of the clock.
+    */
+   private DateClock() {
+      super();
+   }
+
+   /**
+    * This is used to acquire the current time as an RFC 1123 date. The
+    * value is only formatted if the second has changed since the date
+    * was last requested, otherwise the shared value is returned.
+    *
+    * @return this returns the current time as an HTTP date
+    */
+   public static String getDate() {
+      long time = System.currentTimeMillis();
+      Stamp current = update(time);
+
+      return current.text;
+   }
+
+   /**
+    * This is used to acquire the current time as an RFC 1123 date in
+    * bytes. The array is shared by every caller within the current
+    * second and so it must only be written, never modified.
+    *
+    * @return this returns the bytes for the current HTTP date
+    */
+   public static byte[] getBytes() {
+      long time = System.currentTimeMillis();
+      Stamp current = update(time);
+
+      return current.data;
+   }
+
+   /**
+    * This is used to acquire the bytes for a date that was provided by
+    * this clock. If the date given is the shared value for the second
+    * most recently published then its bytes are returned, otherwise
+    * this returns null and the date must be encoded by the caller.
+    *
+    * @param date this is a date that may have come from the clock
+    *
+    * @return this returns the shared bytes for the date or null
+    */
+   public static byte[] getBytes(String date) {
+      Stamp current = stamp;
+
+      if(current.text == date) {
+         return current.data;
+      }
+      return null;
+   }
+
+   /**
+    * This is used to format the specified time as an RFC 1123 date. As
+    * most dates formatted are the current time, the shared value is
+    * used if it falls within the current second. For any other time a
+    * <code>DateParser</code> is used to produce the value.
+    *
+    * @param time this is the time in milliseconds to be formatted
+    *
+    * @return this returns the time represented as an HTTP date
+    */
+   public static String getDate(long time) {
+      long second = time / 1000;
+      Stamp current = stamp;
+
+      if(current.second != second) {
+         long now = System.currentTimeMillis();
+
+         if(now / 1000 != second) {
+            return new DateParser(time).toString();
+         }
+         current = update(now);
+      }
+      return current.text;
+   }
+
+   /**
+    * This is used to acquire the date for the specified time. If the
+    * shared date is for an earlier second then a new date is formatted
+    * and published so that it is seen by all subsequent requests.
+    *
+    * @param time this is the current time in milliseconds
+    *
+    * @return this returns the date for the current second
+    */
+   private static Stamp update(long time) {
+      long second = time / 1000;
+      Stamp current = stamp;
+
+      if(current.second < second) {
+         current = new Stamp(second);
+         stamp = current;
+      }
+      return current;
+   }
+
+   /**
+    * The <code>Stamp</code> represents the date for a single second.
+    * It is immutable so that it can be safely published to threads 
+    * through a volatile field without any further synchronization.
+    */
+   private static class Stamp {
+
+      /**
+       * This is the date formatted as the bytes sent on the wire.
+       */
+      private final byte[] data;
+
+      /**
+       * This is the date formatted as an RFC 1123 string.
+       */
+      private final String text;
+
+      /**
+       * This is the number of seconds since the epoch for the date.
+       */
+      private final long second;
+
+      /**
+       * Constructor for the <code>Stamp</code> object. This formats
+       * the date for the second given, both as a string and as the
+       * bytes that represent it, which are all US-ASCII characters.
+       *
+       * @param second this is the second the date represents
+       */
+      public Stamp(long second) {
+         this.text = new DateParser(second * 1000).toString();
+         this.data = new byte[text.length()];
+         this.second = second;
+         this.encode();
+      }
+
+      /**
+       * This is used to encode the date in to bytes. Each character in
+       * an HTTP date is US-ASCII, so each is simply narrowed to a byte.
+       */
+      private void encode() {
+         for(int i = 0; i < data.length; i++) {
+            data[i] = (byte)text.charAt(i);
+         }
+      }
+   }
+}
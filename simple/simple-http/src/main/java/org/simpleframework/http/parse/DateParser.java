@@ -18,18 +18,6 @@
  
 package org.simpleframework.http.parse;
 
-import static java.util.Calendar.DAY_OF_MONTH;
-import static java.util.Calendar.DAY_OF_WEEK;
-import static java.util.Calendar.HOUR_OF_DAY;
-import static java.util.Calendar.MILLISECOND;
-import static java.util.Calendar.MINUTE;
-import static java.util.Calendar.MONTH;
-import static java.util.Calendar.SECOND;
-import static java.util.Calendar.YEAR;
-
-import java.util.Calendar;
-import java.util.TimeZone;
-
 import org.simpleframework.common.parse.Parser;
 
 /** 
@@ -52,16 +40,19 @@ import org.simpleframework.common.parse.Parser;
  * <p>
  * This produces the same string as the <code>SimpleDateFormat.format</code> 
  * using the pattern <code>"EEE, dd MMM yyyy hh:mm:ss 'GMT'"</code>. This will
- * however do the job faster as it does not take arbitrary inputs.
+ * however do the job faster as it does not take arbitrary inputs. The
+ * conversion between a date and its <code>long</code> value is done 
+ * with arithmetic on the number of days since the epoch, so neither a 
+ * <code>Calendar</code> or a <code>Date</code> is created to do it.
  *
  * @author Niall Gallagher
  */
 public class DateParser extends Parser {
 
    /**
-    * Ensure that the time zone for dates if set to GMT. 
+    * This is the number of milliseconds within a single day.
     */
-   private static final TimeZone ZONE = TimeZone.getTimeZone("GMT");
+   private static final long DAY = 86400000L;
 
    /** 
     * Contains the possible days of the week for RFC 1123.
@@ -166,18 +157,58 @@ public class DateParser extends Parser {
     * @param date the date to be parsed
     */   
    public void parse(long date){
-      Calendar calendar = Calendar.getInstance(ZONE);
-      calendar.setTimeInMillis(date); 
+      long days = date / DAY;
+      long time = date % DAY;
+      
+      if(time < 0) {
+         time += DAY;
+         days--;
+      }
+      weekday = (int)((days % 7 + 10) % 7); /* 1970-01-01 was a Thursday */
+      hour = (int)(time / 3600000);
+      mins = (int)(time / 60000 % 60);
+      secs = (int)(time / 1000 % 60);
+      civil(days);
+   }
+   
+   /**
+    * This is used to determine the day, month, and year from the 
+    * number of days since the epoch. The year is taken to start in 
+    * March so that the leap day is the last day of the year, which
+    * allows the day of the year to be mapped to a month with simple
+    * arithmetic. Every four hundred years repeats the same pattern.
+    * 
+    * @param days this is the number of days since the epoch
+    */
+   private void civil(long days) {
+      long shift = days + 719468;
+      long era = (shift >= 0 ? shift : shift - 146096) / 146097;
+      long cycle = shift - era * 146097;
+      long years = (cycle - cycle / 1460 + cycle / 36524 - cycle / 146096) / 365;
+      long count = cycle - (365 * years + years / 4 - years / 100);
+      long index = (5 * count + 2) / 153;
       
-      weekday = calendar.get(DAY_OF_WEEK);
-      year = calendar.get(YEAR);
-      month = calendar.get(MONTH);
-      day = calendar.get(DAY_OF_MONTH);
-      hour = calendar.get(HOUR_OF_DAY);
-      mins = calendar.get(MINUTE);
-      secs = calendar.get(SECOND);
-      month = month > 11 ? 11: month;
-      weekday = (weekday+5) % 7;
+      day = (int)(count - (153 * index + 2) / 5 + 1);
+      month = (int)(index < 10 ? index + 2 : index - 10);
+      year = (int)(years + era * 400 + (month < 2 ? 1 : 0));
+   }
+   
+   /**
+    * This is used to determine the number of days since the epoch for
+    * the date that has been parsed. This is the reverse of the civil
+    * calculation, and as the day is added rather than checked a day
+    * beyond the end of the month rolls over in to the following month.
+    * 
+    * @return this returns the number of days since the epoch
+    */
+   private long days() {
+      long shift = month < 2 ? year - 1 : year;
+      long era = (shift >= 0 ? shift : shift - 399) / 400;
+      long years = shift - era * 400;
+      long count = (153 * (month < 2 ? month + 10 : month - 2) + 2) / 5 + day - 1;
+      long cycle = years * 365 + years / 4 - years / 100 + count;
+      
+      return era * 146097 + cycle - 719468;
    }
    
    /**
@@ -600,19 +631,18 @@ public class DateParser extends Parser {
 
    /** 
     * This returns the date in as a <code>long</code>, given the exact 
-    * time this will use the <code>java.util.Date</code> to parse this date 
-    * into a <code>long</code>. The <code>GregorianCalendar</code> uses 
-    * the method <code>getTime</code> which produces the <code>Date</code>
-    * object from this the <code>getTime</code> returns the <code>long</code>
+    * time this will determine the number of days since the epoch and
+    * add the time of day to it. No <code>Calendar</code> is used, so
+    * converting a date such as an <code>If-Modified-Since</code> value 
+    * requires no allocation and no time zone lookup.
     *
     * @return the date parsed as a <code>long</code>
     */
    public long toLong() {
-      Calendar calendar = Calendar.getInstance(ZONE); /* GMT*/
-      calendar.set(year,month, day, hour, mins, secs);
-      calendar.set(MILLISECOND, 0);
-
-      return calendar.getTime().getTime();   
+      long time = hour * 3600L + mins * 60L + secs;
+      long days = days();
+      
+      return (days * 86400L + time) * 1000L;   
    }
 
    /** 
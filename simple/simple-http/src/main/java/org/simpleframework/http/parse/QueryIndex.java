@@ -0,0 +1,853 @@
+/*
+ * QueryIndex.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.parse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.simpleframework.http.Query;
+
+/**
+ * The <code>QueryIndex</code> is used to provide parameters encoded
+ * in the <code>application/x-www-form-urlencoded</code> MIME type
+ * without decoding them up front. The raw bytes are scanned once to
+ * build an index of where each name and value begins and ends, and
+ * a value is only decoded when it is requested. As most requests 
+ * only ever look at a few of their parameters this avoids decoding
+ * and storing the ones that are never used.
+ * <p>
+ * The bytes can be read from a stream, so a form body is indexed as
+ * it is read from its buffer rather than first being converted to a
+ * string. If a parent query is provided its parameters come before
+ * those of the index, so a form post can be combined with the query
+ * from the request URI. Operations that need every parameter, such 
+ * as iterating the keys or modifying the query, decode all of the
+ * parameters in to a <code>QueryParser</code> and use that instead.
+ * <p>
+ * Escaped sequences are always decoded as UTF-8. Bytes that were sent
+ * without being escaped are decoded with the character set given,
+ * which for a form body is the charset of its content type.
+ *
+ * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.http.parse.QueryParser
+ */
+public class QueryIndex implements Query {
+   
+   /**
+    * This is the query whose parameters come before the index.
+    */
+   private final Query parent;
+   
+   /**
+    * This is the charset for unescaped bytes, or null for UTF-8.
+    */
+   private final String charset;
+   
+   /**
+    * This is used once every parameter is required to be decoded.
+    */
+   private QueryParser table;
+   
+   /**
+    * This caches the names that have been decoded from the bytes.
+    */
+   private String[] names;
+   
+   /**
+    * This caches the values that have been decoded from the bytes.
+    */
+   private String[] values;
+   
+   /**
+    * This holds the start and end of each name and value indexed.
+    */
+   private int[] index;
+   
+   /**
+    * This contains the raw bytes for all of the parameters.
+    */
+   private byte[] data;
+   
+   /**
+    * This is the number of bytes that have been read in to this.
+    */
+   private int count;
+   
+   /**
+    * This is the number of parameters that have been indexed.
+    */
+   private int size;
+   
+   /**
+    * This is the offset of the parameter that is being scanned.
+    */
+   private int start;
+   
+   /**
+    * This is the offset of the equals sign for the parameter.
+    */
+   private int equals;
+   
+   /**
+    * Constructor for the <code>QueryIndex</code> object. This will 
+    * create an empty index with no parameters. This is used when
+    * there is no query part within the request URI.
+    */
+   public QueryIndex() {
+      this((Query)null);
+   }
+   
+   /**
+    * Constructor for the <code>QueryIndex</code> object. This will 
+    * index the parameters within the provided text. Any parameter 
+    * that is not requested will never be decoded from the text.
+    * 
+    * @param text this is the text containing the parameters
+    */
+   public QueryIndex(String text) {
+      this((Query)null);
+      this.parse(text);
+   }
+   
+   /**
+    * Constructor for the <code>QueryIndex</code> object. This will 
+    * index the parameters read from the stream. The parameters are
+    * indexed as the bytes are read, and the parameters of the parent
+    * are provided before those read from the stream.
+    * 
+    * @param parent this is the query that comes before the index
+    * @param source this is the stream to read the parameters from
+    */
+   public QueryIndex(Query parent, InputStream source) throws IOException {
+      this(parent, source, "UTF-8");
+   }
+   
+   /**
+    * Constructor for the <code>QueryIndex</code> object. This will 
+    * index the parameters read from the stream. Any bytes that were
+    * not escaped are decoded with the specified character set, and
+    * the parameters of the parent are provided before those read.
+    * 
+    * @param parent this is the query that comes before the index
+    * @param source this is the stream to read the parameters from
+    * @param charset this is the charset of the unescaped bytes
+    */
+   public QueryIndex(Query parent, InputStream source, String charset) throws IOException {
+      this(parent, charset);
+      this.parse(source);
+   }
+   
+   /**
+    * Constructor for the <code>QueryIndex</code> object. This will 
+    * create an empty index, where the parameters of the parent are
+    * provided before any that are indexed.
+    * 
+    * @param parent this is the query that comes before the index
+    */
+   private QueryIndex(Query parent) {
+      this(parent, "UTF-8");
+   }
+   
+   /**
+    * Constructor for the <code>QueryIndex</code> object. This will 
+    * create an empty index, where the parameters of the parent are
+    * provided before any that are indexed. As UTF-8 is decoded even
+    * when it is malformed the charset is only kept if it is not.
+    * 
+    * @param parent this is the query that comes before the index
+    * @param charset this is the charset of the unescaped bytes
+    */
+   private QueryIndex(Query parent, String charset) {
+      this.charset = charset.equalsIgnoreCase("UTF-8") ? null : charset;
+      this.data = new byte[0];
+      this.index = new int[16];
+      this.parent = parent;
+      this.equals = -1;
+   }
+   
+   /**
+    * This is used to index the parameters within the text. As query
+    * strings are almost always ASCII this encodes the characters
+    * back in to bytes as UTF-8, which for ASCII is a simple copy.
+    * 
+    * @param text this is the text containing the parameters
+    */
+   private void parse(String text) {
+      if(text != null) {
+         try {
+            byte[] array = text.getBytes("UTF-8");
+            
+            append(array, 0, array.length);
+            finish();
+         } catch(UnsupportedEncodingException e) {
+            throw new IllegalStateException("Could not encode query", e);
+         }
+      }
+   }
+   
+   /**
+    * This is used to index the parameters read from the stream. The
+    * bytes are scanned as they are read, so each parameter is indexed
+    * once its terminating ampersand has been read.
+    * 
+    * @param source this is the stream to read the parameters from
+    */
+   private void parse(InputStream source) throws IOException {
+      byte[] chunk = new byte[2048];
+      
+      while(true) {
+         int done = source.read(chunk);
+         
+         if(done < 0) {
+            break;
+         }
+         append(chunk, 0, done);
+      }
+      finish();
+   }
+   
+   /**
+    * This is used to append bytes to the index. The bytes appended
+    * are scanned for the delimiters that separate parameters, and 
+    * each parameter that has been completed is added to the index.
+    * 
+    * @param array this is the array of bytes to be appended
+    * @param off this is the offset to begin appending from
+    * @param length this is the number of bytes to be appended
+    */
+   private void append(byte[] array, int off, int length) {
+      if(count + length > data.length) {
+         byte[] copy = new byte[Math.max(count + length, data.length * 2)];
+         System.arraycopy(data, 0, copy, 0, count);
+         data = copy;
+      }
+      System.arraycopy(array, off, data, count, length);
+      
+      for(int i = count; i < count + length; i++) {
+         byte octet = data[i];
+         
+         if(octet == '&') {
+            insert(i);
+            start = i + 1;
+            equals = -1;
+         } else if(octet == '=' && equals < 0) {
+            equals = i;
+         }
+      }
+      count += length;
+   }
+   
+   /**
+    * This is used to index the last parameter. The last parameter is
+    * not followed by an ampersand and so it must be indexed once all
+    * of the bytes have been appended.
+    */
+   private void finish() {
+      if(start < count) {
+         insert(count);
+      }
+      names = new String[size];
+      values = new String[size];
+   }
+   
+   /**
+    * This is used to add the parameter ending at the specified offset
+    * to the index. If there is no equals sign then the parameter has
+    * an empty value, and if it has an empty name it is ignored.
+    * 
+    * @param end this is the offset the parameter ends at
+    */
+   private void insert(int end) {
+      int split = equals < 0 ? end : equals;
+      int pos = size * 4;
+      
+      if(split > start) {
+         if(pos + 4 > index.length) {
+            int[] copy = new int[index.length * 2];
+            System.arraycopy(index, 0, copy, 0, pos);
+            index = copy;
+         }
+         index[pos] = start;
+         index[pos + 1] = split;
+         index[pos + 2] = Math.min(split + 1, end);
+         index[pos + 3] = end;
+         size++;
+      }
+   }
+   
+   /**
+    * This is used to acquire the decoded name of a parameter. Once
+    * a name has been decoded it is cached so that later searches for
+    * the parameter do not need to decode it again.
+    * 
+    * @param param this is the index of the parameter
+    * 
+    * @return this returns the decoded name of the parameter
+    */
+   private String name(int param) {
+      if(names[param] == null) {
+         names[param] = decode(index[param * 4], index[param * 4 + 1]);
+      }
+      return names[param];
+   }
+   
+   /**
+    * This is used to acquire the decoded value of a parameter. The
+    * value is only decoded the first time it is requested, so the
+    * values for parameters that are never requested are not decoded.
+    * 
+    * @param param this is the index of the parameter
+    * 
+    * @return this returns the decoded value of the parameter
+    */
+   private String value(int param) {
+      if(values[param] == null) {
+         values[param] = decode(index[param * 4 + 2], index[param * 4 + 3]);
+      }
+      return values[param];
+   }
+   
+   /**
+    * This is used to determine if the name of a parameter matches. If
+    * the raw name contains no escaped or encoded bytes it is compared
+    * with the name byte for byte, so most names are never decoded.
+    * 
+    * @param param this is the index of the parameter to compare
+    * @param name this is the name that is being searched for
+    * 
+    * @return this returns true if the parameter has the name
+    */
+   private boolean match(int param, String name) {
+      int from = index[param * 4];
+      int to = index[param * 4 + 1];
+      int length = name.length();
+      
+      if(names[param] != null) {
+         return names[param].equals(name);
+      }
+      for(int i = 0; i < to - from; i++) {
+         byte octet = data[from + i];
+         
+         if(octet == '%' || octet == '+' || octet < 0) {
+            return name(param).equals(name);
+         }
+         if(i >= length || octet != name.charAt(i)) {
+            return false;
+         }
+      }
+      return to - from == length;
+   }
+   
+   /**
+    * This is used to decode a name or value from the raw bytes. Each
+    * plus sign becomes a space and escaped sequences are converted to
+    * the characters they represent. Where a series of escapes forms a
+    * UTF-8 sequence they are decoded as a single character. Bytes 
+    * that were sent without being escaped are decoded using the
+    * charset of the index.
+    * 
+    * @param from this is the offset of the first byte to decode
+    * @param to this is the offset after the last byte to decode
+    * 
+    * @return this returns the decoded text for the bytes
+    */
+   private String decode(int from, int to) {
+      StringBuilder text = new StringBuilder(to - from);
+      
+      while(from < to) {
+         byte octet = data[from];
+         
+         if(octet == '+') {
+            text.append(' ');
+            from++;
+         } else if(octet == '%') {
+            from = escape(text, from, to);
+         } else if(octet < 0 && charset == null) {
+            from = unicode(text, from, to);
+         } else if(octet < 0) {
+            from = convert(text, from, to);
+         } else {
+            text.append((char)octet);
+            from++;
+         }
+      }
+      return text.toString();
+   }
+   
+   /**
+    * This is used to decode an escaped sequence. If the escape begins
+    * a UTF-8 sequence and is followed by the escaped continuation
+    * bytes then the character is decoded from the whole sequence,
+    * otherwise the escaped byte is taken as a character. An escape
+    * that is not followed by two hex digits is taken literally.
+    * 
+    * @param text this is the builder to append the character to
+    * @param from this is the offset of the escape to decode
+    * @param to this is the offset after the last byte to decode
+    * 
+    * @return this returns the offset after the decoded sequence
+    */
+   private int escape(StringBuilder text, int from, int to) {
+      int peek = hex(from, to);
+      
+      if(peek < 0) {
+         text.append('%');
+         return from + 1;
+      }
+      int more = length(peek);
+      int code = peek & (0x3f >> more);
+      int pos = from + 3;
+      
+      for(int i = 0; i < more; i++) {
+         int next = hex(pos, to);
+         
+         if(next < 0 || (next & 0xc0) != 0x80) {
+            break;
+         }
+         code = (code << 6) | (next & 0x3f);
+         pos += 3;
+      }
+      if(more > 0 && pos == from + 3 * (more + 1) && Character.isValidCodePoint(code)) {
+         text.appendCodePoint(code);
+         return pos;
+      }
+      text.append((char)peek);
+      return from + 3;
+   }
+   
+   /**
+    * This is used to decode a UTF-8 sequence that was sent without
+    * being escaped. If the bytes do not form a valid sequence then
+    * the first byte is taken as an ISO-8859-1 character.
+    * 
+    * @param text this is the builder to append the character to
+    * @param from this is the offset of the sequence to decode
+    * @param to this is the offset after the last byte to decode
+    * 
+    * @return this returns the offset after the decoded sequence
+    */
+   private int unicode(StringBuilder text, int from, int to) {
+      int peek = data[from] & 0xff;
+      int more = length(peek);
+      int code = peek & (0x3f >> more);
+      int pos = from + 1;
+      
+      while(pos < to && pos <= from + more) {
+         int next = data[pos];
+         
+         if((next & 0xc0) != 0x80) {
+            break;
+         }
+         code = (code << 6) | (next & 0x3f);
+         pos++;
+      }
+      if(more > 0 && pos == from + more + 1 && Character.isValidCodePoint(code)) {
+         text.appendCodePoint(code);
+         return pos;
+      }
+      text.append((char)peek);
+      return from + 1;
+   }
+   
+   /**
+    * This is used to decode bytes that were sent without being escaped
+    * using the character set of the index. All the bytes up to the
+    * next escape or plus sign are decoded together, as a character
+    * may be encoded as several bytes in the character set.
+    * 
+    * @param text this is the builder to append the characters to
+    * @param from this is the offset of the first byte to decode
+    * @param to this is the offset after the last byte to decode
+    * 
+    * @return this returns the offset after the decoded bytes
+    */
+   private int convert(StringBuilder text, int from, int to) {
+      int pos = from;
+      
+      while(pos < to && data[pos] != '%' && data[pos] != '+') {
+         pos++;
+      }
+      try {
+         text.append(new String(data, from, pos - from, charset));
+      } catch(UnsupportedEncodingException e) {
+         throw new IllegalStateException("Could not decode query", e);
+      }
+      return pos;
+   }
+   
+   /**
+    * This is used to determine how many continuation bytes follow the
+    * first byte of a UTF-8 sequence. If the byte can not begin a 
+    * multiple byte sequence then this will return zero.
+    * 
+    * @param peek this is the first byte of the sequence
+    * 
+    * @return this returns the number of continuation bytes
+    */
+   private int length(int peek) {
+      if((peek & 0xe0) == 0xc0) {
+         return 1;
+      }
+      if((peek & 0xf0) == 0xe0) {
+         return 2;
+      }
+      if((peek & 0xf8) == 0xf0) {
+         return 3;
+      }
+      return 0;
+   }
+   
+   /**
+    * This is used to read the value of an escaped byte. If there is
+    * no escape at the offset, or the escape is not followed by two
+    * hex digits, then this will return minus one.
+    * 
+    * @param pos this is the offset of the escape to read
+    * @param to this is the offset after the last byte to decode
+    * 
+    * @return this returns the escaped byte or minus one
+    */
+   private int hex(int pos, int to) {
+      if(pos + 2 < to && data[pos] == '%') {
+         int high = Character.digit(data[pos + 1], 16);
+         int low = Character.digit(data[pos + 2], 16);
+         
+         if(high >= 0 && low >= 0) {
+            return (high << 4) | low;
+         }
+      }
+      return -1;
+   }
+   
+   /**
+    * This is used to decode all of the parameters in to a parser. 
+    * The parameters of the parent are added first, followed by each
+    * of the indexed parameters in the order they were read. This is
+    * done at most once, after which the parser holds the parameters.
+    * 
+    * @return this returns a parser containing every parameter
+    */
+   private QueryParser table() {
+      if(table == null) {
+         QueryParser parser = new QueryParser();
+         
+         if(parent != null) {
+            for(String name : parent.keySet()) {
+               List<String> list = parent.getAll(name);
+               
+               if(list != null) {
+                  for(String value : list) {
+                     parser.put(name, value);
+                  }
+               }
+            }
+         }
+         for(int i = 0; i < size; i++) {
+            parser.put(name(i), value(i));
+         }
+         table = parser;
+      }
+      return table;
+   }
+   
+   /**
+    * This is used to acquire the first value for the named parameter.
+    * If there is a parent query and it has the parameter then its
+    * value is returned, otherwise the index is searched and only the
+    * value for the first matching parameter is decoded.
+    * 
+    * @param name this is the name of the parameter to acquire
+    * 
+    * @return this returns the value of the parameter or null
+    */
+   public String get(Object name) {
+      if(table != null) {
+         return table.get(name);
+      }
+      if(name != null) {
+         String key = name.toString();
+         
+         if(parent != null) {
+            String value = parent.get(key);
+            
+            if(value != null) {
+               return value;
+            }
+         }
+         for(int i = 0; i < size; i++) {
+            if(match(i, key)) {
+               return value(i);
+            }
+         }
+      }
+      return null;
+   }
+   
+   /**
+    * This method is used to acquire a <code>List</code> for all of
+    * the parameter values associated with the specified name. The
+    * values from the parent come first, followed by the values in 
+    * the index in the order they were read.
+    * 
+    * @param name this is the name used to search for the value
+    * 
+    * @return this is the list of values associated with the key
+    */
+   public List<String> getAll(Object name) {
+      if(table != null) {
+         return table.getAll(name);
+      }
+      List<String> list = new ArrayList<String>();
+      
+      if(name != null) {
+         String key = name.toString();
+         
+         if(parent != null) {
+            List<String> values = parent.getAll(key);
+            
+            if(values != null) {
+               list.addAll(values);
+            }
+         }
+         for(int i = 0; i < size; i++) {
+            if(match(i, key)) {
+               list.add(value(i));
+            }
+         }
+      }
+      if(list.isEmpty()) {
+         return null;
+      }
+      return list;
+   }
+   
+   /**
+    * This extracts an integer parameter for the named value. If the 
+    * named parameter does not exist this will return a zero value. 
+    * If however the parameter exists but is not in the format of a 
+    * decimal integer value then this will throw an exception.
+    *
+    * @param name the name of the parameter value to retrieve
+    *
+    * @return this returns the named parameter value as an integer   
+    */
+   public int getInteger(Object name) {
+      String value = get(name);
+
+      if(value != null) {
+         return Integer.parseInt(value);      
+      }
+      return 0;
+   }
+
+   /**
+    * This extracts a float parameter for the named value. If the 
+    * named parameter does not exist this will return a zero value. 
+    * If however the parameter exists but is not in the format of a 
+    * floating point number then this will throw an exception.
+    *
+    * @param name the name of the parameter value to retrieve
+    *
+    * @return this returns the named parameter value as a float   
+    */
+   public float getFloat(Object name) {
+      String value = get(name);
+
+      if(value != null) {
+         return Float.parseFloat(value);      
+      }
+      return 0.0f;
+   }
+
+   /**
+    * This extracts a boolean parameter for the named value. If the
+    * named parameter does not exist this will return false otherwise
+    * the value is evaluated. If it is either <code>true</code> or 
+    * <code>false</code> then those boolean values are returned.
+    * 
+    * @param name the name of the parameter value to retrieve
+    *
+    * @return this returns the named parameter value as an float
+    */
+   public boolean getBoolean(Object name) {
+      String value = get(name);
+           
+      if(value != null) {         
+         return Boolean.valueOf(value).booleanValue();
+      }
+      return false;
+   }
+   
+   /**
+    * This is used to determine if the named parameter exists. This
+    * only needs to find the parameter, so no value is decoded.
+    * 
+    * @param name this is the name of the parameter to search for
+    * 
+    * @return this returns true if the parameter exists
+    */
+   public boolean containsKey(Object name) {
+      if(table != null) {
+         return table.containsKey(name);
+      }
+      if(name != null) {
+         String key = name.toString();
+         
+         if(parent != null && parent.containsKey(key)) {
+            return true;
+         }
+         for(int i = 0; i < size; i++) {
+            if(match(i, key)) {
+               return true;
+            }
+         }
+      }
+      return false;
+   }
+   
+   /**
+    * This is used to determine if any parameter has the value. As
+    * this must examine every value all parameters are decoded.
+    * 
+    * @param value this is the value to search for
+    * 
+    * @return this returns true if a parameter has the value
+    */
+   public boolean containsValue(Object value) {
+      return table().containsValue(value);
+   }
+   
+   /**
+    * This is used to determine if there are no parameters. This does
+    * not decode anything as only the index needs to be examined.
+    * 
+    * @return this returns true if there are no parameters
+    */
+   public boolean isEmpty() {
+      if(table != null) {
+         return table.isEmpty();
+      }
+      if(parent != null && !parent.isEmpty()) {
+         return false;
+      }
+      return size == 0;
+   }
+   
+   /**
+    * This returns the number of distinct parameter names. As names
+    * may be repeated this requires every parameter to be decoded.
+    * 
+    * @return this returns the number of distinct parameter names
+    */
+   public int size() {
+      return table().size();
+   }
+   
+   /**
+    * This returns the set of distinct parameter names. As names may
+    * be repeated this requires every parameter to be decoded.
+    * 
+    * @return this returns the set of parameter names
+    */
+   public Set<String> keySet() {
+      return table().keySet();
+   }
+   
+   /**
+    * This returns the first value for each of the distinct names. 
+    * This requires every parameter to be decoded.
+    * 
+    * @return this returns the first value for each name
+    */
+   public Collection<String> values() {
+      return table().values();
+   }
+   
+   /**
+    * This returns the first value for each of the distinct names. 
+    * This requires every parameter to be decoded.
+    * 
+    * @return this returns an entry for each name
+    */
+   public Set<Map.Entry<String, String>> entrySet() {
+      return table().entrySet();
+   }
+   
+   /**
+    * This is used to add a parameter. Once the query is modified 
+    * every parameter is decoded and the parser is used from then on.
+    * 
+    * @param name this is the name of the parameter to add
+    * @param value this is the value of the parameter to add
+    * 
+    * @return this returns the previous value for the name
+    */
+   public String put(String name, String value) {
+      return table().put(name, value);
+   }
+   
+   /**
+    * This is used to add parameters. Once the query is modified 
+    * every parameter is decoded and the parser is used from then on.
+    * 
+    * @param data this contains the parameters that are to be added
+    */
+   public void putAll(Map<? extends String, ? extends String> data) {
+      table().putAll(data);
+   }
+   
+   /**
+    * This is used to remove a parameter. Once the query is modified 
+    * every parameter is decoded and the parser is used from then on.
+    * 
+    * @param name this is the name of the parameter to remove
+    * 
+    * @return this returns the value that was removed
+    */
+   public String remove(Object name) {
+      return table().remove(name);
+   }
+   
+   /**
+    * This is used to remove all parameters. Once the query is modified
+    * every parameter is decoded and the parser is used from then on.
+    */
+   public void clear() {
+      table().clear();
+   }
+   
+   /**
+    * This will return all parameters represented using the HTTP URL
+    * query format. The <code>x-www-form-urlencoded</code> encoding
+    * is used to encode the parameters, which requires each of them
+    * to be decoded first.
+    * 
+    * @return this returns a query string with every parameter
+    */
+   public String toString() {
+      return table().toString();
+   }
+}
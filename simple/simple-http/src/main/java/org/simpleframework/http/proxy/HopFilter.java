@@ -0,0 +1,99 @@
+/*
+ * HopFilter.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.proxy;
+
+import static org.simpleframework.http.Protocol.CONNECTION;
+import static org.simpleframework.http.Protocol.CONTENT_LENGTH;
+import static org.simpleframework.http.Protocol.KEEP_ALIVE;
+import static org.simpleframework.http.Protocol.PROXY_AUTHENTICATE;
+import static org.simpleframework.http.Protocol.PROXY_AUTHORIZATION;
+import static org.simpleframework.http.Protocol.TE;
+import static org.simpleframework.http.Protocol.TRAILER;
+import static org.simpleframework.http.Protocol.TRANSFER_ENCODING;
+import static org.simpleframework.http.Protocol.UPGRADE;
+
+import java.util.List;
+
+/**
+ * The <code>HopFilter</code> is used to determine which headers are
+ * forwarded by the proxy. Hop-by-hop headers, as described in RFC
+ * 2616 section 13.5.1, apply only to a single connection and so are
+ * never forwarded. Any header named by the <code>Connection</code>
+ * header is also treated as a hop-by-hop header.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.proxy.ProxyContainer
+ */
+class HopFilter {
+
+   /**
+    * This contains the headers that apply to a single connection.
+    */
+   private static final String[] HEADERS = {
+   CONNECTION,
+   KEEP_ALIVE,
+   PROXY_AUTHENTICATE,
+   PROXY_AUTHORIZATION,
+   TE,
+   TRAILER,
+   TRANSFER_ENCODING,
+   UPGRADE,
+   CONTENT_LENGTH,
+   "Proxy-Connection"};
+
+   /**
+    * This contains the tokens of the connection header.
+    */
+   private final List<String> tokens;
+
+   /**
+    * Constructor for the <code>HopFilter</code> object. This creates
+    * a filter that excludes the standard hop-by-hop headers as well
+    * as the headers named by the tokens of the connection header.
+    *
+    * @param tokens these are the tokens of the connection header
+    */
+   public HopFilter(List<String> tokens) {
+      this.tokens = tokens;
+   }
+
+   /**
+    * This is used to determine if the named header can be forwarded.
+    * The <code>Content-Length</code> header is also excluded as the
+    * length is determined by how the content is forwarded.
+    *
+    * @param name this is the name of the header to be checked
+    *
+    * @return this returns true if the header can be forwarded
+    */
+   public boolean accept(String name) {
+      for(String header : HEADERS) {
+         if(header.equalsIgnoreCase(name)) {
+            return false;
+         }
+      }
+      for(String token : tokens) {
+         if(token.equalsIgnoreCase(name)) {
+            return false;
+         }
+      }
+      return true;
+   }
+}
@@ -0,0 +1,119 @@
+/*
+ * LatencySelector.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.proxy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.simpleframework.http.Request;
+
+/**
+ * The <code>LatencySelector</code> forwards each request to the
+ * upstream server that is expected to respond soonest. The expected
+ * response time is taken from the moving average of the latency of
+ * the server plus a penalty for its recent error rate, scaled by the
+ * number of requests in progress. The penalty ensures that a server
+ * that fails quickly is not mistaken for one that responds quickly.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.proxy.RoundRobinSelector
+ */
+public class LatencySelector implements UpstreamSelector {
+
+   /**
+    * This contains the upstream servers to select from.
+    */
+   private final List<Upstream> upstreams;
+
+   /**
+    * This is the penalty in milliseconds applied for each error.
+    */
+   private final double penalty;
+
+   /**
+    * Constructor for the <code>LatencySelector</code> object. This
+    * is used to create a selector that forwards requests to the
+    * server with the lowest expected response time.
+    *
+    * @param upstreams this is the list of servers to select from
+    */
+   public LatencySelector(List<Upstream> upstreams) {
+      this(upstreams, 1000);
+   }
+
+   /**
+    * Constructor for the <code>LatencySelector</code> object. This
+    * is used to create a selector that forwards requests to the
+    * server with the lowest expected response time. The penalty is
+    * the time in milliseconds that a failed request is considered
+    * to cost, as a failure typically requires the request to be
+    * sent again.
+    *
+    * @param upstreams this is the list of servers to select from
+    * @param penalty this is the penalty in milliseconds for errors
+    */
+   public LatencySelector(List<Upstream> upstreams, double penalty) {
+      this.upstreams = new ArrayList<Upstream>(upstreams);
+      this.penalty = penalty;
+   }
+
+   /**
+    * This is used to select the upstream server that the request
+    * provided is forwarded to. Each server is scored and the server
+    * with the lowest score is chosen. If several servers have the
+    * same score the first one in the list is chosen.
+    *
+    * @param request this is the request that is to be forwarded
+    *
+    * @return this returns the server to forward the request to
+    */
+   public Upstream select(Request request) {
+      Upstream best = null;
+      double lowest = 0;
+
+      for(Upstream upstream : upstreams) {
+         double score = score(upstream);
+
+         if(best == null || score < lowest) {
+            lowest = score;
+            best = upstream;
+         }
+      }
+      return best;
+   }
+
+   /**
+    * This is used to score an upstream server. The score is the
+    * latency of the server plus the error rate multiplied by the
+    * penalty, which is then multiplied by the number of requests in
+    * progress so that a fast server is not overloaded.
+    *
+    * @param upstream this is the upstream server to be scored
+    *
+    * @return this returns the score for the upstream server
+    */
+   private double score(Upstream upstream) {
+      double latency = upstream.getLatency() + 1;
+      double rate = upstream.getErrorRate();
+      int active = upstream.getActive() + 1;
+
+      return (latency + rate * penalty) * active;
+   }
+}
@@ -0,0 +1,243 @@
+/*
+ * ProxyContainer.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.proxy;
+
+import static org.simpleframework.http.Protocol.CHUNKED;
+import static org.simpleframework.http.Protocol.CONNECTION;
+import static org.simpleframework.http.Protocol.TRANSFER_ENCODING;
+import static org.simpleframework.http.Status.SERVICE_UNAVAILABLE;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.simpleframework.common.thread.DaemonFactory;
+import org.simpleframework.http.Request;
+import org.simpleframework.http.Response;
+import org.simpleframework.http.client.Client;
+import org.simpleframework.http.client.ClientRequest;
+import org.simpleframework.http.core.Container;
+
+/**
+ * The <code>ProxyContainer</code> is a container that forwards each
+ * request to an upstream server and streams the upstream response
+ * back to the client. Requests are sent with a <code>Client</code>,
+ * so connections to the upstream servers are pooled and kept alive,
+ * and no thread is held while waiting for an upstream response. The
+ * upstream server is chosen by an <code>UpstreamSelector</code>.
+ * <pre>
+ *
+ *    List&lt;Upstream&gt; upstreams = ...
+ *    UpstreamSelector selector = new LatencySelector(upstreams);
+ *    Container container = new ProxyContainer(client, selector);
+ *
+ * </pre>
+ * The request content is copied to the upstream connection in small
+ * chunks and the response content is queued for the client as it
+ * is read, so neither is ever held in full by the proxy. The queue
+ * is drained by a thread from an executor, and if a client is slow
+ * to read then the upstream response is suspended rather than any
+ * thread reading from the upstream servers being blocked.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.proxy.UpstreamSelector
+ */
+public class ProxyContainer implements Container {
+
+   /**
+    * This is used to select the server a request is forwarded to.
+    */
+   private final UpstreamSelector selector;
+
+   /**
+    * This is used to write the response content to the clients.
+    */
+   private final Executor executor;
+
+   /**
+    * This is the client used to forward requests upstream.
+    */
+   private final Client client;
+
+   /**
+    * Constructor for the <code>ProxyContainer</code> object. This is
+    * used to create a container that forwards requests using the
+    * client provided to the servers chosen by the selector. Content
+    * is written to the clients by daemon threads created as needed.
+    *
+    * @param client this is the client used to forward requests
+    * @param selector this is used to choose the upstream server
+    */
+   public ProxyContainer(Client client, UpstreamSelector selector) {
+      this(client, selector, new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new DaemonFactory(ProxyListener.class)));
+   }
+
+   /**
+    * Constructor for the <code>ProxyContainer</code> object. This is
+    * used to create a container that forwards requests using the
+    * client provided to the servers chosen by the selector. Content
+    * is written to the clients by threads from the executor, which
+    * are only held while there is content to be written.
+    *
+    * @param client this is the client used to forward requests
+    * @param selector this is used to choose the upstream server
+    * @param executor this is used to write content to the clients
+    */
+   public ProxyContainer(Client client, UpstreamSelector selector, Executor executor) {
+      this.executor = executor;
+      this.selector = selector;
+      this.client = client;
+   }
+
+   /**
+    * This is used to forward the request to an upstream server. The
+    * method returns once the request has been queued with the
+    * client, and the response is completed asynchronously. If no
+    * upstream server is available a 503 response is sent.
+    *
+    * @param request this is the request received from the client
+    * @param response this is the response sent to the client
+    */
+   public void handle(Request request, Response response) {
+      Upstream upstream = selector.select(request);
+
+      try {
+         if(upstream == null) {
+            response.setStatus(SERVICE_UNAVAILABLE);
+            response.setContentLength(0);
+            response.close();
+         } else {
+            forward(request, response, upstream);
+         }
+      } catch(Exception cause) {
+         request.getChannel().close();
+      }
+   }
+
+   /**
+    * This is used to forward the request to the upstream server. A
+    * request is created for the upstream with all of the end-to-end
+    * headers of the original request, and the content is streamed
+    * from the original request as the upstream request is written.
+    *
+    * @param request this is the request received from the client
+    * @param response this is the response sent to the client
+    * @param upstream this is the server to forward the request to
+    */
+   private void forward(Request request, Response response, Upstream upstream) throws Exception {
+      ClientRequest outbound = create(request, upstream);
+      ProxyListener listener = new ProxyListener(request, response, upstream, executor);
+
+      upstream.start();
+      client.send(outbound, listener);
+   }
+
+   /**
+    * This is used to create the request that is sent upstream. The
+    * headers of the original request are copied, excluding those
+    * that apply only to the connection to the client, and the
+    * address of the client is added to <code>X-Forwarded-For</code>.
+    *
+    * @param request this is the request received from the client
+    * @param upstream this is the server to forward the request to
+    *
+    * @return this returns the request to send upstream
+    */
+   private ClientRequest create(Request request, Upstream upstream) throws Exception {
+      String method = request.getMethod();
+      String path = request.getTarget();
+      URI target = upstream.getTarget(path);
+      ClientRequest outbound = new ClientRequest(method, target);
+      List<String> tokens = request.getValues(CONNECTION);
+      HopFilter filter = new HopFilter(tokens);
+
+      for(String name : request.getNames()) {
+         if(filter.accept(name)) {
+            for(int i = 0; true; i++) {
+               String value = request.getValue(name, i);
+
+               if(value == null) {
+                  break;
+               }
+               outbound.addValue(name, value);
+            }
+         }
+      }
+      forward(request, outbound);
+      content(request, outbound);
+      return outbound;
+   }
+
+   /**
+    * This is used to add the forwarding headers to the request. The
+    * address of the client is appended to any existing value of the
+    * <code>X-Forwarded-For</code> header, and the scheme used by the
+    * client is provided with <code>X-Forwarded-Proto</code>.
+    *
+    * @param request this is the request received from the client
+    * @param outbound this is the request to send upstream
+    */
+   private void forward(Request request, ClientRequest outbound) {
+      InetSocketAddress address = request.getClientAddress();
+      String forwarded = request.getValue("X-Forwarded-For");
+
+      if(address != null) {
+         String client = address.getAddress().getHostAddress();
+
+         if(forwarded != null) {
+            outbound.setValue("X-Forwarded-For", forwarded + ", " + client);
+         } else {
+            outbound.setValue("X-Forwarded-For", client);
+         }
+      }
+      if(request.isSecure()) {
+         outbound.setValue("X-Forwarded-Proto", "https");
+      } else {
+         outbound.setValue("X-Forwarded-Proto", "http");
+      }
+   }
+
+   /**
+    * This is used to set the content of the upstream request. The
+    * content is streamed from the original request, and if the
+    * original request was chunked the upstream request is chunked
+    * also, as the length of the content is not known.
+    *
+    * @param request this is the request received from the client
+    * @param outbound this is the request to send upstream
+    */
+   private void content(Request request, ClientRequest outbound) throws Exception {
+      String encoding = request.getValue(TRANSFER_ENCODING);
+      long length = request.getContentLength();
+
+      if(length > 0) {
+         InputStream source = request.getInputStream();
+         outbound.setContent(source, length);
+      } else if(encoding != null && encoding.equalsIgnoreCase(CHUNKED)) {
+         InputStream source = request.getInputStream();
+         outbound.setContent(source, -1);
+      }
+   }
+}
@@ -0,0 +1,415 @@
+/*
+ * ProxyListener.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.proxy;
+
+import static org.simpleframework.http.Protocol.CONNECTION;
+import static org.simpleframework.http.Status.BAD_GATEWAY;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.simpleframework.http.Request;
+import org.simpleframework.http.Response;
+import org.simpleframework.http.client.ClientRequest;
+import org.simpleframework.http.client.ClientResponse;
+import org.simpleframework.http.client.ResponseListener;
+import org.simpleframework.transport.Channel;
+
+/**
+ * The <code>ProxyListener</code> is used to stream the response from
+ * an upstream server to the client. The status and headers are
+ * copied once the upstream header arrives. Each fragment of content
+ * is placed in a bounded queue, which is drained to the client by a
+ * task run on an executor, so the thread reading the upstream never
+ * blocks on a slow client. If the queue fills up then reading of the
+ * upstream response is suspended until the client has caught up.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.proxy.ProxyContainer
+ */
+class ProxyListener implements ResponseListener, Runnable {
+
+   /**
+    * This is queued once the upstream response has ended.
+    */
+   private static final byte[] END = new byte[0];
+
+   /**
+    * This contains the fragments yet to be written to the client.
+    */
+   private final LinkedList<byte[]> queue;
+
+   /**
+    * This is used to run the task that drains the queue.
+    */
+   private final Executor executor;
+
+   /**
+    * This is the upstream server the request was forwarded to.
+    */
+   private final Upstream upstream;
+
+   /**
+    * This is the response that is sent to the client.
+    */
+   private final Response response;
+
+   /**
+    * This is the request that was received from the client.
+    */
+   private final Request request;
+
+   /**
+    * This is the time the request was forwarded upstream.
+    */
+   private final long start;
+
+   /**
+    * This is the number of queued bytes that suspends reading.
+    */
+   private final int limit;
+
+   /**
+    * This is the upstream response used to suspend reading.
+    */
+   private ClientResponse header;
+
+   /**
+    * This is the stream used to write the response content.
+    */
+   private OutputStream output;
+
+   /**
+    * This is the time taken for the response header to arrive.
+    */
+   private long latency;
+
+   /**
+    * This determines if reading of the upstream is suspended.
+    */
+   private boolean suspended;
+
+   /**
+    * This determines if a task is draining the queue.
+    */
+   private boolean running;
+
+   /**
+    * This determines if the upstream response has failed.
+    */
+   private boolean failed;
+
+   /**
+    * This determines if the content is to be discarded.
+    */
+   private boolean discard;
+
+   /**
+    * This is the number of bytes held in the queue.
+    */
+   private int count;
+
+   /**
+    * Constructor for the <code>ProxyListener</code> object. This is
+    * used to create a listener that streams an upstream response
+    * to the client, and records the outcome with the upstream. No
+    * more than sixty four kilobytes are queued for the client.
+    *
+    * @param request this is the request received from the client
+    * @param response this is the response sent to the client
+    * @param upstream this is the server the request was sent to
+    * @param executor this is used to write content to the client
+    */
+   public ProxyListener(Request request, Response response, Upstream upstream, Executor executor) {
+      this(request, response, upstream, executor, 65536);
+   }
+
+   /**
+    * Constructor for the <code>ProxyListener</code> object. This is
+    * used to create a listener that streams an upstream response
+    * to the client, and records the outcome with the upstream. Once
+    * the limit is queued reading of the upstream is suspended.
+    *
+    * @param request this is the request received from the client
+    * @param response this is the response sent to the client
+    * @param upstream this is the server the request was sent to
+    * @param executor this is used to write content to the client
+    * @param limit this is the number of queued bytes to suspend at
+    */
+   public ProxyListener(Request request, Response response, Upstream upstream, Executor executor, int limit) {
+      this.queue = new LinkedList<byte[]>();
+      this.start = System.currentTimeMillis();
+      this.executor = executor;
+      this.response = response;
+      this.upstream = upstream;
+      this.request = request;
+      this.limit = limit;
+   }
+
+   /**
+    * This is invoked once the upstream response header has arrived.
+    * The status line and all end-to-end headers are copied to the
+    * response. If the upstream declared a length it is retained, so
+    * the response to the client is not chunked unnecessarily. Any
+    * response without a body never declares a length.
+    *
+    * @param header this is the response from the upstream server
+    */
+   public void onHeader(ClientResponse header) throws Exception {
+      List<String> tokens = header.getValues(CONNECTION);
+      HopFilter filter = new HopFilter(tokens);
+      long length = header.getContentLength();
+      int code = header.getCode();
+
+      for(String name : header.getNames()) {
+         if(filter.accept(name)) {
+            for(int i = 0; true; i++) {
+               String value = header.getValue(name, i);
+
+               if(value == null) {
+                  break;
+               }
+               response.addValue(name, value);
+            }
+         }
+      }
+      if(length >= 0 && code != 204 && code != 304) {
+         response.setContentLength(length);
+      }
+      response.setCode(code);
+      response.setDescription(header.getDescription());
+
+      synchronized(this) {
+         this.latency = System.currentTimeMillis() - start;
+         this.output = response.getOutputStream();
+         this.header = header;
+      }
+   }
+
+   /**
+    * This is invoked each time a fragment of the upstream content
+    * has been read. The fragment is copied to the queue and is then
+    * written to the client by the draining task. If the queue holds
+    * more than the limit then reading of the upstream is suspended.
+    *
+    * @param header this is the response from the upstream server
+    * @param array this is the array containing the content
+    * @param off this is the offset within the array to read from
+    * @param size this is the number of bytes provided
+    */
+   public synchronized void onContent(ClientResponse header, byte[] array, int off, int size) throws Exception {
+      if(!discard && size > 0) {
+         byte[] fragment = new byte[size];
+
+         System.arraycopy(array, off, fragment, 0, size);
+         queue.addLast(fragment);
+         count += size;
+
+         if(count >= limit && !suspended) {
+            suspended = true;
+            header.suspend();
+         }
+         schedule();
+      }
+   }
+
+   /**
+    * This is invoked once the upstream response has completed. The
+    * latency is recorded against the upstream server, and the end of
+    * the response is queued so the response to the client is closed
+    * once all of the content before it has been written.
+    *
+    * @param header this is the response from the upstream server
+    */
+   public void onComplete(ClientResponse header) {
+      upstream.success(latency);
+
+      synchronized(this) {
+         if(!discard) {
+            queue.addLast(END);
+            schedule();
+         }
+      }
+   }
+
+   /**
+    * This is invoked if the request could not be forwarded, or if
+    * the upstream connection failed before the response completed.
+    * The failure is recorded against the upstream server, and the 
+    * end of the response is queued so that it can be completed.
+    *
+    * @param outbound this is the request that was forwarded
+    * @param cause this is the reason the request failed
+    */
+   public void onFailure(ClientRequest outbound, Exception cause) {
+      long duration = System.currentTimeMillis() - start;
+
+      upstream.failure(duration);
+
+      synchronized(this) {
+         if(!discard) {
+            queue.addLast(END);
+            failed = true;
+            schedule();
+         }
+      }
+   }
+
+   /**
+    * This is used to drain the queue. Each fragment is written to
+    * the client, and reading of the upstream is resumed once enough
+    * of the queue has been written. If the client can not be written
+    * to then the remaining content is discarded.
+    */
+   public void run() {
+      try {
+         byte[] fragment = take();
+
+         while(fragment != null) {
+            if(fragment == END) {
+               finish();
+            } else {
+               output.write(fragment);
+               resume();
+            }
+            fragment = take();
+         }
+      } catch(Exception cause) {
+         abort();
+      }
+   }
+
+   /**
+    * This is used to take the next fragment from the queue. If the
+    * queue is empty the draining task is finished, and a new task
+    * will be started when the next fragment is queued.
+    *
+    * @return this returns the next fragment or null if none remain
+    */
+   private synchronized byte[] take() {
+      byte[] fragment = queue.poll();
+
+      if(fragment == null) {
+         running = false;
+      } else {
+         count -= fragment.length;
+      }
+      return fragment;
+   }
+
+   /**
+    * This is used to start the task that drains the queue if it is
+    * not already running. Only one task drains the queue at a time
+    * so that fragments are written to the client in order.
+    */
+   private void schedule() {
+      if(!running) {
+         running = true;
+         executor.execute(this);
+      }
+   }
+
+   /**
+    * This is used to resume reading of the upstream response if it
+    * was suspended and the queue has drained to half of the limit.
+    * This is done outside of the lock so that the upstream can 
+    * immediately deliver more content.
+    */
+   private void resume() throws IOException {
+      ClientResponse current = null;
+
+      synchronized(this) {
+         if(suspended && count <= limit / 2) {
+            suspended = false;
+            current = header;
+         }
+      }
+      if(current != null) {
+         current.resume();
+      }
+   }
+
+   /**
+    * This is used to complete the response to the client once all of
+    * the upstream content has been written. If the upstream failed
+    * and nothing has been sent to the client a 502 response is sent,
+    * otherwise the connection is closed to signal the truncation.
+    */
+   private void finish() {
+      try {
+         if(!failed) {
+            response.close();
+         } else if(!response.isCommitted()) {
+            response.reset();
+            response.setStatus(BAD_GATEWAY);
+            response.setContentLength(0);
+            response.close();
+         } else {
+            close();
+         }
+      } catch(Exception cause) {
+         close();
+      }
+   }
+
+   /**
+    * This is used to abandon the response when the client can not 
+    * be written to. Any queued content is discarded, as is all that
+    * is read from the upstream from now on, so reading is resumed.
+    */
+   private void abort() {
+      ClientResponse current = null;
+
+      synchronized(this) {
+         if(suspended) {
+            current = header;
+         }
+         queue.clear();
+         suspended = false;
+         running = false;
+         discard = true;
+         count = 0;
+      }
+      try {
+         if(current != null) {
+            current.resume();
+         }
+      } catch(Exception cause) {
+         close();
+      }
+      close();
+   }
+
+   /**
+    * This is used to close the connection to the client. This is
+    * done when the response can not be completed, so that the
+    * client can determine that the response was truncated.
+    */
+   private void close() {
+      Channel channel = request.getChannel();
+
+      if(channel != null) {
+         channel.close();
+      }
+   }
+}
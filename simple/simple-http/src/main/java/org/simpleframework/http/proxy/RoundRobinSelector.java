@@ -0,0 +1,81 @@
+/*
+ * RoundRobinSelector.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.proxy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.simpleframework.http.Request;
+
+/**
+ * The <code>RoundRobinSelector</code> distributes requests evenly
+ * across a set of upstream servers. Each request is forwarded to
+ * the next server in turn regardless of its statistics, which is
+ * suitable when all servers have a similar capacity.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.proxy.LatencySelector
+ */
+public class RoundRobinSelector implements UpstreamSelector {
+
+   /**
+    * This contains the upstream servers to select from.
+    */
+   private final List<Upstream> upstreams;
+
+   /**
+    * This is used to determine the next server to select.
+    */
+   private final AtomicInteger counter;
+
+   /**
+    * Constructor for the <code>RoundRobinSelector</code> object. This
+    * is used to create a selector that distributes requests evenly
+    * across the upstream servers provided.
+    *
+    * @param upstreams this is the list of servers to select from
+    */
+   public RoundRobinSelector(List<Upstream> upstreams) {
+      this.upstreams = new ArrayList<Upstream>(upstreams);
+      this.counter = new AtomicInteger();
+   }
+
+   /**
+    * This is used to select the upstream server that the request
+    * provided is forwarded to. The servers are selected in turn so
+    * that each receives an equal share of the requests.
+    *
+    * @param request this is the request that is to be forwarded
+    *
+    * @return this returns the server to forward the request to
+    */
+   public Upstream select(Request request) {
+      int size = upstreams.size();
+
+      if(size > 0) {
+         int next = counter.getAndIncrement();
+         int index = (next & Integer.MAX_VALUE) % size;
+
+         return upstreams.get(index);
+      }
+      return null;
+   }
+}
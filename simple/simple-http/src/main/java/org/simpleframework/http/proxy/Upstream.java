@@ -0,0 +1,246 @@
+/*
+ * Upstream.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.proxy;
+
+import java.net.URI;
+
+/**
+ * The <code>Upstream</code> object represents a server that requests
+ * can be forwarded to. As well as the address of the server this
+ * keeps statistics on the requests forwarded to it, which are used
+ * by an <code>UpstreamSelector</code> to choose between servers. The
+ * latency and error rate are kept as exponentially weighted moving
+ * averages so that recent behaviour has the greatest influence.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.proxy.UpstreamSelector
+ */
+public class Upstream {
+
+   /**
+    * This is the base URI that requests are forwarded to.
+    */
+   private final String target;
+
+   /**
+    * This is the weight given to each new latency sample.
+    */
+   private final double weight;
+
+   /**
+    * This is the moving average of the response latency.
+    */
+   private double latency;
+
+   /**
+    * This is the moving average of the error rate.
+    */
+   private double rate;
+
+   /**
+    * This is the total number of requests that have failed.
+    */
+   private long errors;
+
+   /**
+    * This is the total number of requests that have completed.
+    */
+   private long requests;
+
+   /**
+    * This is the number of requests currently in progress.
+    */
+   private int active;
+
+   /**
+    * Constructor for the <code>Upstream</code> object. This is used
+    * to create an upstream server with the base URI provided. The
+    * URI should contain the scheme, host and port and may also
+    * contain a path that is prefixed to each forwarded request.
+    *
+    * @param target this is the base URI for the upstream server
+    */
+   public Upstream(String target) {
+      this(URI.create(target));
+   }
+
+   /**
+    * Constructor for the <code>Upstream</code> object. This is used
+    * to create an upstream server with the base URI provided. The
+    * URI should contain the scheme, host and port and may also
+    * contain a path that is prefixed to each forwarded request.
+    *
+    * @param target this is the base URI for the upstream server
+    */
+   public Upstream(URI target) {
+      this(target, 0.2);
+   }
+
+   /**
+    * Constructor for the <code>Upstream</code> object. This is used
+    * to create an upstream server with the base URI provided. The
+    * weight determines how quickly the moving averages react to a
+    * change, a higher weight favours the most recent samples.
+    *
+    * @param target this is the base URI for the upstream server
+    * @param weight this is the weight given to each new sample
+    */
+   public Upstream(URI target, double weight) {
+      this.target = target.toString();
+      this.weight = weight;
+   }
+
+   /**
+    * This is used to create the URI a request is forwarded to. The
+    * path and query of the request are appended to the base URI of
+    * the upstream server, so any prefix in the base is retained.
+    *
+    * @param path this is the path and query of the request
+    *
+    * @return this returns the URI to forward the request to
+    */
+   public URI getTarget(String path) {
+      int length = target.length();
+
+      if(length > 0 && target.charAt(length - 1) == '/') {
+         if(path.startsWith("/")) {
+            return URI.create(target + path.substring(1));
+         }
+      }
+      return URI.create(target + path);
+   }
+
+   /**
+    * This provides the moving average of the time taken, in
+    * milliseconds, for the upstream server to respond. This is
+    * measured to the arrival of the response header.
+    *
+    * @return this returns the average latency in milliseconds
+    */
+   public synchronized double getLatency() {
+      return latency;
+   }
+
+   /**
+    * This provides the moving average of the error rate. This will
+    * be a value between zero and one, where one indicates that all
+    * of the recent requests to the server have failed.
+    *
+    * @return this returns the average error rate of the server
+    */
+   public synchronized double getErrorRate() {
+      return rate;
+   }
+
+   /**
+    * This provides the number of requests that are currently in
+    * progress on the upstream server. Selectors can use this to
+    * avoid servers that are already heavily loaded.
+    *
+    * @return this returns the number of requests in progress
+    */
+   public synchronized int getActive() {
+      return active;
+   }
+
+   /**
+    * This provides the total number of requests that have failed.
+    * A request fails if a connection can not be established or if
+    * the connection closes before the response is complete.
+    *
+    * @return this returns the number of requests that failed
+    */
+   public synchronized long getErrors() {
+      return errors;
+   }
+
+   /**
+    * This provides the total number of requests that have been
+    * forwarded to the upstream server and have completed, whether
+    * or not they were successful.
+    *
+    * @return this returns the number of requests completed
+    */
+   public synchronized long getRequests() {
+      return requests;
+   }
+
+   /**
+    * This is invoked when a request is forwarded to the upstream
+    * server. It increases the number of requests in progress so
+    * that selectors can determine the load on the server.
+    */
+   public synchronized void start() {
+      active++;
+   }
+
+   /**
+    * This is invoked when a request has completed successfully. The
+    * duration is the time taken to receive the response header, and
+    * it is added to the moving average for the latency.
+    *
+    * @param duration this is the time taken for the response
+    */
+   public synchronized void success(long duration) {
+      update(duration, 0);
+   }
+
+   /**
+    * This is invoked when a request has failed. The duration is the
+    * time taken for the failure to occur, and is added to the moving
+    * average for the latency along with an error sample.
+    *
+    * @param duration this is the time taken for the failure
+    */
+   public synchronized void failure(long duration) {
+      update(duration, 1);
+      errors++;
+   }
+
+   /**
+    * This is used to update the moving averages with a new sample.
+    * The first sample simply sets the latency so that the average
+    * does not start from zero and favour unused servers.
+    *
+    * @param duration this is the latency sample in milliseconds
+    * @param error this is one if the request failed or zero
+    */
+   private void update(long duration, int error) {
+      if(requests++ == 0) {
+         latency = duration;
+      } else {
+         latency += weight * (duration - latency);
+      }
+      rate += weight * (error - rate);
+      active--;
+   }
+
+   /**
+    * This provides the base URI of the upstream server. This is
+    * used for logging and for diagnostics, and it is the URI that
+    * requests are appended to when they are forwarded.
+    *
+    * @return this returns the base URI of the upstream server
+    */
+   @Override
+   public String toString() {
+      return target;
+   }
+}
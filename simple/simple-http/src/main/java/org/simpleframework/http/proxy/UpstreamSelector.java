@@ -0,0 +1,46 @@
+/*
+ * UpstreamSelector.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.proxy;
+
+import org.simpleframework.http.Request;
+
+/**
+ * The <code>UpstreamSelector</code> is used to choose the upstream
+ * server that a request is forwarded to. Implementations provide a
+ * load balancing policy, which may use the statistics kept by each
+ * <code>Upstream</code> to favour servers that respond quickly and
+ * reliably, or may simply distribute requests evenly.
+ *
+ * @author Niall Gallagher
+ *
+ * @see org.simpleframework.http.proxy.ProxyContainer
+ */
+public interface UpstreamSelector {
+
+   /**
+    * This is used to select the upstream server that the request
+    * provided is forwarded to. If there is no server available to
+    * handle the request then this should return null.
+    *
+    * @param request this is the request that is to be forwarded
+    *
+    * @return this returns the server to forward the request to
+    */
+   Upstream select(Request request);
+}
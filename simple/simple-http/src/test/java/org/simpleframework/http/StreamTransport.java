@@ -5,6 +5,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SocketChannel;
 import java.nio.channels.WritableByteChannel;
@@ -45,6 +46,14 @@ public class StreamTransport implements Transport {
       write.write(buffer);
    }
 
+   public void write(FileChannel file, long position, long length) throws IOException {
+      long limit = position + length;
+
+      while(position < limit) {
+         position += file.transferTo(position, limit - position, write);
+      }
+   }
+
    public Map getAttributes() {
       return null;
    }
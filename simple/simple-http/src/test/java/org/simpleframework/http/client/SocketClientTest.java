@@ -0,0 +1,249 @@
+package org.simpleframework.http.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.simpleframework.common.buffer.ArrayAllocator;
+import org.simpleframework.http.Request;
+import org.simpleframework.http.Response;
+import org.simpleframework.http.core.Container;
+import org.simpleframework.http.core.ContainerSocketProcessor;
+import org.simpleframework.transport.SocketProcessor;
+import org.simpleframework.transport.connect.Connection;
+import org.simpleframework.transport.connect.SocketConnection;
+
+public class SocketClientTest extends TestCase {
+   
+   private static class EchoContainer implements Container {
+      
+      private final ConcurrentHashMap<String, String> addresses = new ConcurrentHashMap<String, String>();
+      
+      public void handle(Request request, Response response) {
+         try {
+            String path = request.getPath().getPath();
+            String content = request.getContent();
+            InetSocketAddress client = request.getClientAddress();
+            
+            addresses.put(client.toString(), path);
+            response.setValue("Content-Type", "text/plain");
+            
+            if(path.startsWith("/chunked")) {
+               PrintStream out = response.getPrintStream();
+               
+               for(int i = 0; i < 100; i++) {
+                  out.print("chunk-" + i + ",");
+                  out.flush();
+               }
+               out.close();
+            } else {
+               PrintStream out = response.getPrintStream();
+               
+               out.print(request.getMethod() + " " + path + " " + content);
+               out.close();
+            }
+         } catch(Exception e) {
+            e.printStackTrace();
+         }
+      }
+      
+      public int getClients() {
+         return addresses.size();
+      }
+   }
+   
+   private static class StreamListener implements ResponseListener {
+      
+      private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      private final CountDownLatch latch = new CountDownLatch(1);
+      private volatile ClientResponse header;
+      private volatile Exception cause;
+      
+      public void onHeader(ClientResponse response) {
+         header = response;
+      }
+      
+      public void onContent(ClientResponse response, byte[] array, int off, int size) {
+         buffer.write(array, off, size);
+      }
+      
+      public void onComplete(ClientResponse response) {
+         latch.countDown();
+      }
+      
+      public void onFailure(ClientRequest request, Exception cause) {
+         this.cause = cause;
+         this.latch.countDown();
+      }
+   }
+   
+   private EchoContainer container;
+   private Connection connection;
+   private SocketAddress address;
+   private int port;
+   
+   public void setUp() throws Exception {
+      container = new EchoContainer();
+      SocketProcessor processor = new ContainerSocketProcessor(container);
+      connection = new SocketConnection(processor);
+      address = connection.connect(new InetSocketAddress("localhost", 0));
+      port = ((InetSocketAddress)address).getPort();
+   }
+   
+   public void tearDown() throws Exception {
+      connection.close();
+   }
+   
+   public void testGet() throws Exception {
+      Client client = new SocketClient(new ArrayAllocator());
+      
+      try {
+         ClientRequest request = new ClientRequest("GET", "http://localhost:" + port + "/index.html?a=b");
+         ClientResponse response = client.send(request).get(10, TimeUnit.SECONDS);
+         
+         assertEquals(200, response.getCode());
+         assertEquals("OK", response.getDescription());
+         assertEquals(1, response.getMajor());
+         assertEquals(1, response.getMinor());
+         assertEquals("text/plain", response.getContentType().getType());
+         assertEquals("GET /index.html ", response.getContent());
+         assertTrue(response.isKeepAlive());
+      } finally {
+         client.close();
+      }
+   }
+   
+   public void testPost() throws Exception {
+      Client client = new SocketClient(new ArrayAllocator());
+      
+      try {
+         ClientRequest request = new ClientRequest("POST", "http://localhost:" + port + "/post");
+         
+         request.setValue("Content-Type", "text/plain");
+         request.setContent("Hello World");
+         
+         ClientResponse response = client.send(request).get(10, TimeUnit.SECONDS);
+         
+         assertEquals(200, response.getCode());
+         assertEquals("POST /post Hello World", response.getContent());
+      } finally {
+         client.close();
+      }
+   }
+   
+   public void testStreamedContent() throws Exception {
+      Client client = new SocketClient(new ArrayAllocator());
+      
+      try {
+         byte[] data = "Streamed Content".getBytes("UTF-8");
+         ClientRequest fixed = new ClientRequest("PUT", "http://localhost:" + port + "/fixed");
+         ClientRequest chunked = new ClientRequest("PUT", "http://localhost:" + port + "/upload");
+         
+         fixed.setContent(new ByteArrayInputStream(data), data.length);
+         chunked.setContent(new ByteArrayInputStream(data), -1);
+         
+         assertFalse(fixed.isChunked());
+         assertTrue(chunked.isChunked());
+         assertEquals("PUT /fixed Streamed Content", client.send(fixed).get(10, TimeUnit.SECONDS).getContent());
+         assertEquals("PUT /upload Streamed Content", client.send(chunked).get(10, TimeUnit.SECONDS).getContent());
+      } finally {
+         client.close();
+      }
+   }
+   
+   public void testKeepAlive() throws Exception {
+      Client client = new SocketClient(new ArrayAllocator());
+      
+      try {
+         for(int i = 0; i < 20; i++) {
+            ClientRequest request = new ClientRequest("GET", "http://localhost:" + port + "/request/" + i);
+            ClientResponse response = client.send(request).get(10, TimeUnit.SECONDS);
+            
+            assertEquals(200, response.getCode());
+            assertEquals("GET /request/" + i + " ", response.getContent());
+         }
+         assertEquals(1, container.getClients());
+      } finally {
+         client.close();
+      }
+   }
+   
+   public void testPipeline() throws Exception {
+      Client client = new SocketClient(new ArrayAllocator(), null, 2, 8);
+      
+      try {
+         List<Future<ClientResponse>> futures = new ArrayList<Future<ClientResponse>>();
+         
+         for(int i = 0; i < 50; i++) {
+            ClientRequest request = new ClientRequest("GET", "http://localhost:" + port + "/pipeline/" + i);
+            Future<ClientResponse> future = client.send(request);
+            
+            futures.add(future);
+         }
+         for(int i = 0; i < 50; i++) {
+            ClientResponse response = futures.get(i).get(10, TimeUnit.SECONDS);
+            
+            assertEquals(200, response.getCode());
+            assertEquals("GET /pipeline/" + i + " ", response.getContent());
+         }
+         assertTrue(container.getClients() <= 2);
+      } finally {
+         client.close();
+      }
+   }
+   
+   public void testStreamingListener() throws Exception {
+      Client client = new SocketClient(new ArrayAllocator());
+      
+      try {
+         ClientRequest request = new ClientRequest("GET", "http://localhost:" + port + "/chunked");
+         StreamListener listener = new StreamListener();
+         StringBuilder expect = new StringBuilder();
+         
+         for(int i = 0; i < 100; i++) {
+            expect.append("chunk-" + i + ",");
+         }
+         client.send(request, listener);
+         
+         assertTrue(listener.latch.await(10, TimeUnit.SECONDS));
+         assertNull(listener.cause);
+         assertEquals(200, listener.header.getCode());
+         assertEquals("chunked", listener.header.getValue("Transfer-Encoding"));
+         assertEquals(expect.toString(), listener.buffer.toString("UTF-8"));
+         assertEquals("", listener.header.getContent());
+      } finally {
+         client.close();
+      }
+   }
+   
+   public void testConnectionRefused() throws Exception {
+      Client client = new SocketClient(new ArrayAllocator());
+      
+      try {
+         connection.close();
+         
+         ClientRequest request = new ClientRequest("GET", "http://localhost:" + port + "/refused");
+         Future<ClientResponse> future = client.send(request);
+         
+         try {
+            future.get(10, TimeUnit.SECONDS);
+            fail("Request should have failed");
+         } catch(ExecutionException e) {
+            assertNotNull(e.getCause());
+         }
+      } finally {
+         client.close();
+      }
+   }
+}
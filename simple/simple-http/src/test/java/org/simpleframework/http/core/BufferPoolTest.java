@@ -0,0 +1,108 @@
+package org.simpleframework.http.core;
+
+import junit.framework.TestCase;
+
+import org.simpleframework.common.buffer.MemoryBudget;
+
+public class BufferPoolTest extends TestCase {
+
+   private static byte[] content(int size) {
+      byte[] data = new byte[size];
+
+      for(int i = 0; i < size; i++) {
+         data[i] = (byte)('a' + i % 26);
+      }
+      return data;
+   }
+
+   public void testSmallResponse() throws Exception {
+      BufferPool pool = new BufferPool(1024);
+      MemoryBudget budget = new MemoryBudget(1024 * 1024);
+      MockChannel channel = new MockChannel(null);
+      MockObserver monitor = new MockObserver();
+      MockRequest request = new MockRequest();
+      MockResponse response = new MockResponse();
+      Conversation support = new Conversation(request, response);
+      ResponseBuffer buffer = new ResponseBuffer(monitor, response, support, channel, budget, pool);
+      byte[] content = content(1000);
+
+      request.setMajor(1);
+      request.setMinor(1);
+
+      buffer.write(content, 0, 500);
+      buffer.write(content, 500, 500);
+
+      assertFalse(response.isCommitted());
+      assertEquals(1024, budget.getUsage());
+
+      buffer.close();
+
+      assertEquals(response.getValue("Connection"), "keep-alive");
+      assertEquals(response.getValue("Transfer-Encoding"), null);
+      assertEquals(response.getValue("Content-Length"), "1000");
+      assertTrue(response.isCommitted());
+      assertTrue(monitor.isReady());
+      assertEquals(0, budget.getUsage());
+   }
+
+   public void testLargeResponse() throws Exception {
+      BufferPool pool = new BufferPool(256);
+      MockChannel channel = new MockChannel(null);
+      MockObserver monitor = new MockObserver();
+      MockRequest request = new MockRequest();
+      MockResponse response = new MockResponse();
+      Conversation support = new Conversation(request, response);
+      ResponseBuffer buffer = new ResponseBuffer(monitor, response, support, channel, null, pool);
+      byte[] content = content(600);
+
+      request.setMajor(1);
+      request.setMinor(1);
+
+      buffer.write(content, 0, 200);
+
+      assertFalse(response.isCommitted());
+
+      buffer.write(content, 200, 400);
+
+      assertEquals(response.getValue("Transfer-Encoding"), "chunked");
+      assertEquals(response.getValue("Content-Length"), null);
+      assertTrue(response.isCommitted());
+
+      buffer.close();
+
+      assertTrue(monitor.isReady());
+   }
+
+   public void testEmptyResponse() throws Exception {
+      BufferPool pool = new BufferPool(1024);
+      MockChannel channel = new MockChannel(null);
+      MockObserver monitor = new MockObserver();
+      MockRequest request = new MockRequest();
+      MockResponse response = new MockResponse();
+      Conversation support = new Conversation(request, response);
+      ResponseBuffer buffer = new ResponseBuffer(monitor, response, support, channel, null, pool);
+
+      request.setMajor(1);
+      request.setMinor(1);
+      buffer.close();
+
+      assertEquals(response.getValue("Content-Length"), "0");
+      assertTrue(monitor.isReady());
+   }
+
+   public void testRecycle() throws Exception {
+      BufferPool pool = new BufferPool(1024, 1);
+      byte[] first = pool.acquire();
+      byte[] second = pool.acquire();
+
+      assertEquals(1024, first.length);
+      assertNotSame(first, second);
+
+      pool.recycle(first);
+      pool.recycle(second);
+      pool.recycle(new byte[2048]);
+
+      assertSame(first, pool.acquire());
+      assertNotSame(second, pool.acquire());
+   }
+}
@@ -0,0 +1,220 @@
+package org.simpleframework.http.core;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import junit.framework.TestCase;
+
+import org.simpleframework.common.buffer.ArrayAllocator;
+import org.simpleframework.http.Cookie;
+import org.simpleframework.http.Request;
+import org.simpleframework.http.Response;
+import org.simpleframework.transport.connect.Connection;
+import org.simpleframework.transport.connect.SocketConnection;
+
+public class CollectorReuseTest extends TestCase {
+
+   private static class EchoContainer implements Container {
+
+      public void handle(Request request, Response response) {
+         try {
+            StringBuilder builder = new StringBuilder();
+            Cookie cookie = request.getCookie("id");
+
+            builder.append(request.getMethod()).append(' ');
+            builder.append(request.getPath()).append(' ');
+            builder.append(request.getValue("X-Token")).append(' ');
+            builder.append(cookie == null ? null : cookie.getValue()).append(' ');
+            builder.append(request.getContentType()).append(' ');
+            builder.append(request.getContent());
+
+            byte[] body = builder.toString().getBytes("UTF-8");
+            OutputStream out = response.getOutputStream();
+
+            response.setContentLength(body.length);
+            out.write(body);
+            out.close();
+         } catch(Exception e) {
+            e.printStackTrace();
+         }
+      }
+   }
+
+   private static class RetainContainer implements Container {
+
+      private final List<Request> requests = new CopyOnWriteArrayList<Request>();
+
+      public void handle(Request request, Response response) {
+         try {
+            byte[] body = request.getPath().getPath().getBytes("UTF-8");
+            OutputStream out = response.getOutputStream();
+
+            requests.add(request);
+            response.setContentLength(body.length);
+            out.write(body);
+            out.close();
+         } catch(Exception e) {
+            e.printStackTrace();
+         }
+      }
+   }
+
+   private static String request(int index) {
+      StringBuilder builder = new StringBuilder();
+
+      if(index % 2 == 0) {
+         String content = "content-" + index;
+
+         builder.append("POST /post/").append(index).append(" HTTP/1.1\r\n");
+         builder.append("Host: localhost\r\n");
+         builder.append("X-Token: token-").append(index).append("\r\n");
+         builder.append("Cookie: id=").append(index).append("\r\n");
+         builder.append("Content-Type: text/plain\r\n");
+         builder.append("Content-Length: ").append(content.length()).append("\r\n\r\n");
+         builder.append(content);
+      } else {
+         builder.append("GET /get/").append(index).append(" HTTP/1.1\r\n");
+         builder.append("Host: localhost\r\n\r\n");
+      }
+      return builder.toString();
+   }
+
+   private static String expect(int index) {
+      if(index % 2 == 0) {
+         return "POST /post/" + index + " token-" + index + " " + index + " text/plain content-" + index;
+      }
+      return "GET /get/" + index + " null null null ";
+   }
+
+   private static void write(SocketChannel channel, String text) throws Exception {
+      ByteBuffer buffer = ByteBuffer.wrap(text.getBytes("ISO-8859-1"));
+
+      while(buffer.hasRemaining()) {
+         channel.write(buffer);
+      }
+   }
+
+   private static String read(SocketChannel channel, StringBuilder builder) throws Exception {
+      ByteBuffer buffer = ByteBuffer.allocate(8192);
+
+      while(true) {
+         int index = builder.indexOf("\r\n\r\n");
+
+         if(index > 0) {
+            String header = builder.substring(0, index).toLowerCase();
+            int start = header.indexOf("content-length:") + 15;
+            int end = header.indexOf("\r\n", start);
+            String value = end < 0 ? header.substring(start) : header.substring(start, end);
+            int length = Integer.parseInt(value.trim());
+
+            if(builder.length() >= index + 4 + length) {
+               String body = builder.substring(index + 4, index + 4 + length);
+               builder.delete(0, index + 4 + length);
+               return body;
+            }
+         }
+         buffer.clear();
+
+         if(channel.read(buffer) < 0) {
+            throw new IllegalStateException("Connection closed");
+         }
+         buffer.flip();
+
+         while(buffer.hasRemaining()) {
+            builder.append((char)buffer.get());
+         }
+      }
+   }
+
+   public void testSequentialRequests() throws Exception {
+      Container container = new EchoContainer();
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, new ArrayAllocator(), 4, 1);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         SocketAddress address = connection.connect(new InetSocketAddress("localhost", 0));
+         SocketChannel channel = DomainSocketTest.open(address);
+         StringBuilder builder = new StringBuilder();
+
+         for(int i = 0; i < 50; i++) {
+            write(channel, request(i));
+            assertEquals(expect(i), read(channel, builder));
+         }
+         channel.close();
+      } finally {
+         connection.close();
+      }
+   }
+
+   public void testPipelinedRequests() throws Exception {
+      Container container = new EchoContainer();
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, new ArrayAllocator(), 4, 1);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         SocketAddress address = connection.connect(new InetSocketAddress("localhost", 0));
+         SocketChannel channel = DomainSocketTest.open(address);
+         StringBuilder requests = new StringBuilder();
+         StringBuilder builder = new StringBuilder();
+
+         for(int i = 0; i < 20; i++) {
+            requests.append(request(i));
+         }
+         write(channel, requests.toString());
+
+         for(int i = 0; i < 20; i++) {
+            assertEquals(expect(i), read(channel, builder));
+         }
+         channel.close();
+      } finally {
+         connection.close();
+      }
+   }
+
+   public void testRequestAfterCompletion() throws Exception {
+      RetainContainer container = new RetainContainer();
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, new ArrayAllocator(), 4, 1);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         SocketAddress address = connection.connect(new InetSocketAddress("localhost", 0));
+         SocketChannel channel = DomainSocketTest.open(address);
+         StringBuilder requests = new StringBuilder();
+         StringBuilder builder = new StringBuilder();
+
+         for(int i = 0; i < 20; i++) {
+            requests.append(request(i));
+         }
+         write(channel, requests.toString());
+
+         for(int i = 0; i < 20; i++) {
+            read(channel, builder);
+         }
+         channel.close();
+
+         for(int i = 0; i < 20; i++) {
+            Request request = container.requests.get(i);
+            Cookie cookie = request.getCookie("id");
+
+            if(i % 2 == 0) {
+               assertEquals("POST", request.getMethod());
+               assertEquals("/post/" + i, request.getPath().getPath());
+               assertEquals("token-" + i, request.getValue("X-Token"));
+               assertEquals(String.valueOf(i), cookie.getValue());
+            } else {
+               assertEquals("GET", request.getMethod());
+               assertEquals("/get/" + i, request.getPath().getPath());
+               assertNull(request.getValue("X-Token"));
+               assertNull(cookie);
+            }
+         }
+      } finally {
+         connection.close();
+      }
+   }
+}
\ No newline at end of file
@@ -0,0 +1,189 @@
+package org.simpleframework.http.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import junit.framework.TestCase;
+
+import org.simpleframework.common.buffer.ArrayAllocator;
+import org.simpleframework.http.Request;
+import org.simpleframework.http.Response;
+import org.simpleframework.transport.connect.Connection;
+import org.simpleframework.transport.connect.SocketConnection;
+
+public class CompressionTest extends TestCase {
+
+   private static class TextContainer implements Container {
+
+      public void handle(Request request, Response response) {
+         try {
+            String path = request.getPath().getPath();
+            int size = Integer.parseInt(request.getParameter("size"));
+            OutputStream out = response.getOutputStream();
+            StringBuilder builder = new StringBuilder();
+
+            for(int i = 0; builder.length() < size; i++) {
+               builder.append("line ").append(i).append(" of the text\n");
+            }
+            byte[] body = builder.substring(0, size).getBytes("UTF-8");
+
+            if(path.endsWith(".png")) {
+               response.setValue("Content-Type", "image/png");
+            } else {
+               response.setValue("Content-Type", "text/plain; charset=UTF-8");
+            }
+            if(request.getParameter("tag") != null) {
+               response.setValue("ETag", request.getParameter("tag"));
+            }
+            if(path.startsWith("/fixed")) {
+               response.setContentLength(body.length);
+            }
+            if(path.startsWith("/flush")) {
+               out.write(body, 0, body.length / 2);
+               out.flush();
+               out.write(body, body.length / 2, body.length - body.length / 2);
+            } else {
+               out.write(body);
+            }
+            out.close();
+         } catch(Exception e) {
+            e.printStackTrace();
+         }
+      }
+   }
+
+   private static byte[] read(InputStream source) throws Exception {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      byte[] chunk = new byte[8192];
+      int count = 0;
+
+      while((count = source.read(chunk)) != -1) {
+         buffer.write(chunk, 0, count);
+      }
+      source.close();
+      return buffer.toByteArray();
+   }
+
+   private static String expect(int size) {
+      StringBuilder builder = new StringBuilder();
+
+      for(int i = 0; builder.length() < size; i++) {
+         builder.append("line ").append(i).append(" of the text\n");
+      }
+      return builder.substring(0, size);
+   }
+
+   private static HttpURLConnection open(int port, String path, String coding) throws Exception {
+      URL target = new URL("http://localhost:" + port + path);
+      HttpURLConnection connection = (HttpURLConnection)target.openConnection();
+
+      if(coding != null) {
+         connection.setRequestProperty("Accept-Encoding", coding);
+      }
+      return connection;
+   }
+
+   public void testCompression() throws Exception {
+      CompressionPolicy policy = new CompressionPolicy(6, 1024);
+      ContainerSettings settings = new ContainerSettings(new ArrayAllocator(), 5, 1);
+
+      settings.setPolicy(policy);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(new TextContainer(), settings);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         InetSocketAddress address = (InetSocketAddress)connection.connect(new InetSocketAddress("localhost", 0));
+         int port = address.getPort();
+         String[] paths = { "/text?size=", "/fixed?size=", "/flush?size=" };
+
+         for(String path : paths) {
+            for(int size : new int[] { 1024, 20000, 200000 }) {
+               HttpURLConnection gzip = open(port, path + size, "gzip, deflate");
+               HttpURLConnection deflate = open(port, path + size, "gzip;q=0.5, deflate");
+
+               assertEquals("gzip", gzip.getHeaderField("Content-Encoding"));
+               assertEquals("Accept-Encoding", gzip.getHeaderField("Vary"));
+               assertNull(gzip.getHeaderField("Content-Length"));
+               assertEquals(expect(size), new String(read(new GZIPInputStream(gzip.getInputStream())), "UTF-8"));
+               assertEquals("deflate", deflate.getHeaderField("Content-Encoding"));
+               assertEquals(expect(size), new String(read(new InflaterInputStream(deflate.getInputStream())), "UTF-8"));
+            }
+         }
+         assertTrue(policy.getInput() > 0);
+         assertTrue(policy.getRatio() < 0.5);
+      } finally {
+         connection.close();
+      }
+   }
+
+   public void testNegotiation() throws Exception {
+      CompressionPolicy policy = new CompressionPolicy(6, 1024);
+      ContainerSettings settings = new ContainerSettings(new ArrayAllocator(), 5, 1);
+
+      settings.setPolicy(policy);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(new TextContainer(), settings);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         InetSocketAddress address = (InetSocketAddress)connection.connect(new InetSocketAddress("localhost", 0));
+         int port = address.getPort();
+         HttpURLConnection none = open(port, "/text?size=5000", "identity");
+         HttpURLConnection refused = open(port, "/text?size=5000", "gzip;q=0, deflate;q=0");
+         HttpURLConnection small = open(port, "/fixed?size=100", "gzip");
+         HttpURLConnection image = open(port, "/image.png?size=5000", "gzip");
+         HttpURLConnection wildcard = open(port, "/text?size=5000", "*");
+
+         assertNull(none.getHeaderField("Content-Encoding"));
+         assertEquals(expect(5000), new String(read(none.getInputStream()), "UTF-8"));
+         assertNull(refused.getHeaderField("Content-Encoding"));
+         assertEquals(expect(5000), new String(read(refused.getInputStream()), "UTF-8"));
+         assertNull(small.getHeaderField("Content-Encoding"));
+         assertEquals("100", small.getHeaderField("Content-Length"));
+         assertEquals(expect(100), new String(read(small.getInputStream()), "UTF-8"));
+         assertNull(image.getHeaderField("Content-Encoding"));
+         assertEquals(expect(5000), new String(read(image.getInputStream()), "UTF-8"));
+         assertEquals("gzip", wildcard.getHeaderField("Content-Encoding"));
+         assertEquals(expect(5000), new String(read(new GZIPInputStream(wildcard.getInputStream())), "UTF-8"));
+      } finally {
+         connection.close();
+      }
+   }
+
+   public void testEntityTag() throws Exception {
+      CompressionPolicy policy = new CompressionPolicy(6, 1024);
+      ContainerSettings settings = new ContainerSettings(new ArrayAllocator(), 5, 1);
+
+      settings.setPolicy(policy);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(new TextContainer(), settings);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         InetSocketAddress address = (InetSocketAddress)connection.connect(new InetSocketAddress("localhost", 0));
+         int port = address.getPort();
+         HttpURLConnection identity = open(port, "/text?size=5000&tag=%22abc%22", "identity");
+         HttpURLConnection gzip = open(port, "/text?size=5000&tag=%22abc%22", "gzip");
+         HttpURLConnection deflate = open(port, "/fixed?size=5000&tag=%22abc%22", "deflate");
+         HttpURLConnection weak = open(port, "/text?size=5000&tag=W/%22abc%22", "gzip");
+
+         assertEquals("\"abc\"", identity.getHeaderField("ETag"));
+         assertEquals(expect(5000), new String(read(identity.getInputStream()), "UTF-8"));
+         assertEquals("gzip", gzip.getHeaderField("Content-Encoding"));
+         assertEquals("\"abc-gzip\"", gzip.getHeaderField("ETag"));
+         assertEquals(expect(5000), new String(read(new GZIPInputStream(gzip.getInputStream())), "UTF-8"));
+         assertEquals("deflate", deflate.getHeaderField("Content-Encoding"));
+         assertEquals("\"abc-deflate\"", deflate.getHeaderField("ETag"));
+         assertEquals(expect(5000), new String(read(new InflaterInputStream(deflate.getInputStream())), "UTF-8"));
+         assertEquals("gzip", weak.getHeaderField("Content-Encoding"));
+         assertEquals("W/\"abc\"", weak.getHeaderField("ETag"));
+         assertEquals(expect(5000), new String(read(new GZIPInputStream(weak.getInputStream())), "UTF-8"));
+      } finally {
+         connection.close();
+      }
+   }
+}
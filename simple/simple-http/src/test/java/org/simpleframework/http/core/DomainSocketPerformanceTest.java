@@ -0,0 +1,76 @@
+package org.simpleframework.http.core;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.channels.SocketChannel;
+
+import junit.framework.TestCase;
+
+import org.simpleframework.http.Request;
+import org.simpleframework.http.Response;
+import org.simpleframework.transport.connect.Connection;
+import org.simpleframework.transport.connect.SocketConnection;
+
+public class DomainSocketPerformanceTest extends TestCase {
+   
+   private static final int ITERATIONS = 20000;
+   
+   private static class SmallContainer implements Container {
+      
+      private static final byte[] OK = { 'o', 'k' };
+      
+      public void handle(Request request, Response response) {
+         try {
+            OutputStream out = response.getOutputStream();
+            
+            response.setValue("Content-Type", "text/plain");
+            response.setContentLength(2);
+            out.write(OK);
+            out.close();
+         } catch(Exception e) {
+            e.printStackTrace();
+         }
+      }
+   }
+   
+   public void testTcpAgainstDomainSocket() throws Exception {
+      if(!DomainSocketTest.isSupported()) {
+         System.err.println("Domain sockets not supported");
+         return;
+      }
+      File file = File.createTempFile("simple", ".sock");
+      
+      file.delete();
+      
+      for(int i = 0; i < 2; i++) {
+         long tcp = measure(new InetSocketAddress("localhost", 0));
+         long domain = measure(DomainSocketTest.createAddress(file));
+         
+         System.err.printf("tcp=%s ms domain=%s ms (%s requests)%n", tcp, domain, ITERATIONS);
+      }
+   }
+   
+   private long measure(SocketAddress address) throws Exception {
+      Container container = new SmallContainer();
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container);
+      Connection connection = new SocketConnection(processor);
+      
+      try {
+         SocketAddress bound = connection.connect(address);
+         SocketChannel channel = DomainSocketTest.open(bound);
+         long start = System.currentTimeMillis();
+         
+         for(int i = 0; i < ITERATIONS; i++) {
+            String response = DomainSocketTest.exchange(channel, "/");
+            
+            assertTrue(response, response.endsWith("ok"));
+         }
+         channel.close();
+         return System.currentTimeMillis() - start;
+      } finally {
+         connection.close();
+      }
+   }
+}
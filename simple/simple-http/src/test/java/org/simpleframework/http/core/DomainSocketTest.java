@@ -0,0 +1,177 @@
+package org.simpleframework.http.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import junit.framework.TestCase;
+
+import org.simpleframework.http.Request;
+import org.simpleframework.http.Response;
+import org.simpleframework.transport.Credential;
+import org.simpleframework.transport.connect.Connection;
+import org.simpleframework.transport.connect.SocketConnection;
+
+public class DomainSocketTest extends TestCase {
+   
+   private static class CredentialContainer implements Container {
+      
+      public void handle(Request request, Response response) {
+         try {
+            Credential credential = request.getClientCredential();
+            InetSocketAddress address = request.getClientAddress();
+            OutputStream out = response.getOutputStream();
+            byte[] content = ("path=" + request.getPath().getPath()).getBytes("UTF-8");
+            
+            response.setValue("Content-Type", "text/plain");
+            response.setContentLength(content.length);
+            response.setValue("X-Domain", String.valueOf(credential != null));
+            response.setValue("X-Address", String.valueOf(address));
+            
+            if(credential != null) {
+               response.setValue("X-User", String.valueOf(credential.getUser()));
+            }
+            out.write(content);
+            out.close();
+         } catch(Exception e) {
+            e.printStackTrace();
+         }
+      }
+   }
+   
+   public static boolean isSupported() {
+      try {
+         Class.forName("java.net.UnixDomainSocketAddress");
+         return true;
+      } catch(Exception e) {
+         return false;
+      }
+   }
+   
+   public static SocketAddress createAddress(File file) throws Exception {
+      Class type = Class.forName("java.net.UnixDomainSocketAddress");
+      Method method = type.getMethod("of", String.class);
+      
+      return (SocketAddress)method.invoke(null, file.getAbsolutePath());
+   }
+   
+   public static SocketChannel open(SocketAddress address) throws Exception {
+      if(address instanceof InetSocketAddress) {
+         SocketChannel channel = SocketChannel.open(address);
+         channel.socket().setTcpNoDelay(true);
+         return channel;
+      }
+      ProtocolFamily family = StandardProtocolFamily.valueOf("UNIX");
+      Method method = SocketChannel.class.getMethod("open", ProtocolFamily.class);
+      SocketChannel channel = (SocketChannel)method.invoke(null, family);
+      
+      channel.connect(address);
+      return channel;
+   }
+   
+   public static String exchange(SocketChannel channel, String path) throws Exception {
+      String request = "GET " + path + " HTTP/1.1\r\nHost: localhost\r\n\r\n";
+      ByteBuffer buffer = ByteBuffer.wrap(request.getBytes("ISO-8859-1"));
+      ByteArrayOutputStream response = new ByteArrayOutputStream();
+      ByteBuffer input = ByteBuffer.allocate(8192);
+      
+      while(buffer.hasRemaining()) {
+         channel.write(buffer);
+      }
+      while(!isComplete(response.toString("ISO-8859-1"))) {
+         input.clear();
+         
+         if(channel.read(input) < 0) {
+            break;
+         }
+         response.write(input.array(), 0, input.position());
+      }
+      return response.toString("ISO-8859-1");
+   }
+   
+   private static boolean isComplete(String response) {
+      int header = response.indexOf("\r\n\r\n");
+      
+      if(header > 0) {
+         String lower = response.toLowerCase();
+         int start = lower.indexOf("content-length:");
+         
+         if(start > 0) {
+            int end = lower.indexOf("\r\n", start);
+            int length = Integer.parseInt(lower.substring(start + 15, end).trim());
+            
+            return response.length() >= header + 4 + length;
+         }
+      }
+      return false;
+   }
+   
+   public void testDomainSocket() throws Exception {
+      if(!isSupported()) {
+         System.err.println("Domain sockets not supported");
+         return;
+      }
+      File file = File.createTempFile("simple", ".sock");
+      Container container = new CredentialContainer();
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container);
+      Connection connection = new SocketConnection(processor);
+      
+      file.delete();
+      
+      try {
+         SocketAddress address = createAddress(file);
+         SocketAddress bound = connection.connect(address);
+         SocketChannel channel = open(bound);
+         
+         assertTrue(file.exists());
+         
+         for(int i = 0; i < 10; i++) {
+            String response = exchange(channel, "/path/" + i);
+            
+            assertTrue(response, response.startsWith("HTTP/1.1 200"));
+            assertTrue(response, response.contains("X-Domain: true"));
+            assertTrue(response, response.contains("X-Address: null"));
+            assertTrue(response, response.endsWith("path=/path/" + i));
+         }
+         String user = System.getProperty("user.name");
+         String response = exchange(channel, "/user");
+         
+         if(response.contains("X-User: null")) {
+            System.err.println("Peer credentials not supported");
+         } else {
+            assertTrue(response, response.contains("X-User: " + user));
+         }
+         channel.close();
+      } finally {
+         connection.close();
+      }
+      assertFalse(file.exists());
+   }
+   
+   public void testTcpSocket() throws Exception {
+      Container container = new CredentialContainer();
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container);
+      Connection connection = new SocketConnection(processor);
+      
+      try {
+         SocketAddress address = connection.connect(new InetSocketAddress("localhost", 0));
+         SocketChannel channel = open(address);
+         String response = exchange(channel, "/tcp");
+         
+         assertTrue(response, response.startsWith("HTTP/1.1 200"));
+         assertTrue(response, response.contains("X-Domain: false"));
+         assertFalse(response, response.contains("X-Address: null"));
+         assertTrue(response, response.endsWith("path=/tcp"));
+         channel.close();
+      } finally {
+         connection.close();
+      }
+   }
+}
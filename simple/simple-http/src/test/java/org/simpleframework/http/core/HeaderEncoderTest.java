@@ -0,0 +1,69 @@
+package org.simpleframework.http.core;
+
+import junit.framework.TestCase;
+
+import org.simpleframework.http.Status;
+
+public class HeaderEncoderTest extends TestCase {
+
+   private static String encode(ResponseMessage message) throws Exception {
+      HeaderEncoder encoder = new HeaderEncoder(message);
+      MockSender sender = new MockSender(1024 * 1024);
+
+      encoder.encode(sender);
+      return sender.getBuffer().encode("UTF-8");
+   }
+
+   public void testStatusLines() throws Exception {
+      for(Status status : Status.values()) {
+         for(int minor = 0; minor < 2; minor++) {
+            ResponseMessage message = new ResponseMessage();
+
+            message.setStatus(status);
+            message.setMinor(minor);
+
+            assertEquals(message.toString(), encode(message));
+         }
+      }
+      ResponseMessage message = new ResponseMessage();
+
+      message.setCode(200);
+      message.setDescription("Fine");
+      assertEquals("HTTP/1.1 200 Fine\r\n\r\n", encode(message));
+
+      message.setCode(799);
+      message.setMajor(2);
+      message.setMinor(0);
+      assertEquals("HTTP/2.0 799 Fine\r\n\r\n", encode(message));
+   }
+
+   public void testHeaders() throws Exception {
+      ResponseMessage message = new ResponseMessage();
+
+      message.setValue("Content-Type", "text/plain; charset=UTF-8");
+      message.setDate("Date", System.currentTimeMillis());
+      message.setDate("Expires", 0);
+      message.addValue("X-Value", "a");
+      message.addValue("X-Value", "b");
+      message.addValue("X-Name", "café € 😀");
+      message.setCookie("session", "1234");
+      message.setCookie("user", "niall");
+
+      assertEquals(message.toString(), encode(message));
+      assertTrue(encode(message).contains("Date: " + message.getValue("Date")));
+   }
+
+   public void testLargeHeader() throws Exception {
+      ResponseMessage message = new ResponseMessage();
+      StringBuilder builder = new StringBuilder();
+
+      for(int i = 0; i < 20000; i++) {
+         builder.append((char)('a' + i % 26));
+      }
+      for(int i = 0; i < 10; i++) {
+         message.addValue("X-Large-" + i, builder.toString());
+      }
+      assertEquals(message.toString(), encode(message));
+      assertEquals(message.toString(), encode(message));
+   }
+}
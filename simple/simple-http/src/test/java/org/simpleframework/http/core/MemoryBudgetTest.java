@@ -0,0 +1,214 @@
+package org.simpleframework.http.core;
+
+import static org.simpleframework.common.buffer.MemoryCategory.CONTENT;
+import static org.simpleframework.common.buffer.MemoryCategory.RESPONSE;
+import static org.simpleframework.common.buffer.MemoryCategory.TRANSPORT;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import junit.framework.TestCase;
+
+import org.simpleframework.common.buffer.ArrayAllocator;
+import org.simpleframework.common.buffer.MemoryBudget;
+import org.simpleframework.http.Request;
+import org.simpleframework.http.Response;
+import org.simpleframework.transport.connect.Connection;
+import org.simpleframework.transport.connect.SocketConnection;
+
+public class MemoryBudgetTest extends TestCase {
+   
+   private static class LengthContainer implements Container {
+      
+      public void handle(Request request, Response response) {
+         try {
+            String content = request.getContent();
+            byte[] body = String.valueOf(content.length()).getBytes("UTF-8");
+            OutputStream out = response.getOutputStream();
+            
+            response.setContentLength(body.length);
+            out.write(body);
+            out.close();
+         } catch(Exception e) {
+            e.printStackTrace();
+         }
+      }
+   }
+   
+   private static String post(SocketChannel channel, int size) throws Exception {
+      StringBuilder builder = new StringBuilder();
+      
+      builder.append("POST /upload HTTP/1.1\r\n");
+      builder.append("Host: localhost\r\n");
+      builder.append("Content-Length: ").append(size).append("\r\n\r\n");
+      
+      for(int i = 0; i < size; i++) {
+         builder.append('a');
+      }
+      ByteBuffer buffer = ByteBuffer.wrap(builder.toString().getBytes("ISO-8859-1"));
+      
+      while(buffer.hasRemaining()) {
+         channel.write(buffer);
+      }
+      return read(channel);
+   }
+   
+   private static String read(SocketChannel channel) throws Exception {
+      ByteBuffer buffer = ByteBuffer.allocate(8192);
+      StringBuilder builder = new StringBuilder();
+      
+      while(true) {
+         int index = builder.indexOf("\r\n\r\n");
+         
+         if(index > 0) {
+            String header = builder.substring(0, index).toLowerCase();
+            int start = header.indexOf("content-length:") + 15;
+            int end = header.indexOf("\r\n", start);
+            String value = end < 0 ? header.substring(start) : header.substring(start, end);
+            int length = Integer.parseInt(value.trim());
+            
+            if(builder.length() >= index + 4 + length) {
+               return builder.substring(index + 4, index + 4 + length);
+            }
+         }
+         buffer.clear();
+         
+         if(channel.read(buffer) < 0) {
+            throw new IllegalStateException("Connection closed");
+         }
+         buffer.flip();
+         
+         while(buffer.hasRemaining()) {
+            builder.append((char)buffer.get());
+         }
+      }
+   }
+   
+   private static void await(MemoryBudget budget, long usage) throws Exception {
+      for(int i = 0; i < 100 && budget.getUsage() != usage; i++) {
+         Thread.sleep(20);
+      }
+      assertEquals(budget.toString(), usage, budget.getUsage());
+   }
+   
+   public void testUsageReleased() throws Exception {
+      MemoryBudget budget = new MemoryBudget(10 * 1024 * 1024);
+      Container container = new LengthContainer();
+      ContainerSettings settings = new ContainerSettings(new ArrayAllocator(), 4, 1);
+
+      settings.setBudget(budget);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, settings);
+      Connection connection = new SocketConnection(processor, null, budget);
+      
+      try {
+         SocketAddress address = connection.connect(new InetSocketAddress("localhost", 0));
+         SocketChannel channel = DomainSocketTest.open(address);
+         
+         for(int i = 0; i < 10; i++) {
+            assertEquals("20000", post(channel, 20000));
+         }
+         await(budget, budget.getUsage(TRANSPORT));
+         assertEquals(0, budget.getUsage(CONTENT));
+         assertEquals(0, budget.getUsage(RESPONSE));
+         assertEquals(4096 + 2048, budget.getUsage(TRANSPORT));
+         channel.close();
+         await(budget, 0);
+      } finally {
+         connection.close();
+      }
+   }
+   
+   public void testReadSuspended() throws Exception {
+      MemoryBudget budget = new MemoryBudget(1024 * 1024);
+      Container container = new LengthContainer();
+      ContainerSettings settings = new ContainerSettings(new ArrayAllocator(), 4, 1);
+
+      settings.setBudget(budget);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, settings);
+      Connection connection = new SocketConnection(processor, null, budget);
+      
+      try {
+         SocketAddress address = connection.connect(new InetSocketAddress("localhost", 0));
+         final SocketChannel channel = DomainSocketTest.open(address);
+         final String[] result = new String[1];
+         
+         assertEquals("100", post(channel, 100));
+         await(budget, budget.getUsage(TRANSPORT));
+         budget.charge(CONTENT, 1024 * 1024);
+         
+         Thread thread = new Thread() {
+            public void run() {
+               try {
+                  result[0] = post(channel, 100);
+               } catch(Exception e) {
+                  e.printStackTrace();
+               }
+            }
+         };
+         thread.start();
+         thread.join(500);
+         
+         assertNull(result[0]);
+         budget.release(CONTENT, 1024 * 1024);
+         thread.join(5000);
+         
+         assertEquals("100", result[0]);
+         channel.close();
+      } finally {
+         connection.close();
+      }
+   }
+   
+   public void testAcceptSuspended() throws Exception {
+      MemoryBudget budget = new MemoryBudget(1024 * 1024);
+      Container container = new LengthContainer();
+      ContainerSettings settings = new ContainerSettings(new ArrayAllocator(), 4, 1);
+
+      settings.setBudget(budget);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, settings);
+      Connection connection = new SocketConnection(processor, null, budget);
+      
+      try {
+         SocketAddress address = connection.connect(new InetSocketAddress("localhost", 0));
+         final String[] result = new String[1];
+         
+         budget.charge(CONTENT, 1024 * 1024);
+         
+         final SocketChannel channel = DomainSocketTest.open(address);
+         Thread thread = new Thread() {
+            public void run() {
+               try {
+                  result[0] = post(channel, 100);
+               } catch(Exception e) {
+                  e.printStackTrace();
+               }
+            }
+         };
+         thread.start();
+         thread.join(500);
+         
+         assertNull(result[0]);
+         budget.release(CONTENT, 1024 * 1024);
+         thread.join(5000);
+         
+         assertEquals("100", result[0]);
+         channel.close();
+         await(budget, 0);
+         budget.charge(CONTENT, 1024 * 1024);
+         
+         SocketChannel waiting = DomainSocketTest.open(address);
+         
+         Thread.sleep(200);
+         long start = System.currentTimeMillis();
+         connection.close();
+         
+         assertTrue(System.currentTimeMillis() - start < 5000);
+         waiting.close();
+      } finally {
+         connection.close();
+      }
+   }
+}
@@ -28,6 +28,10 @@ public class MockController implements Controller {
       start = true;
    }
    
+   public void complete(Collector collector) throws IOException {
+      start = true;
+   }
+   
    public void stop() throws IOException {
       stop = true;
    }
@@ -1,5 +1,6 @@
 package org.simpleframework.http.core;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.InetSocketAddress;
@@ -22,6 +23,7 @@ import org.simpleframework.http.parse.ContentDispositionParser;
 import org.simpleframework.http.parse.ContentTypeParser;
 import org.simpleframework.transport.Certificate;
 import org.simpleframework.transport.Channel;
+import org.simpleframework.transport.Credential;
 
 public class MockRequest extends RequestMessage implements Request {
    
@@ -100,6 +102,10 @@ public class MockRequest extends RequestMessage implements Request {
       return null;
    }
    
+   public Credential getClientCredential() {
+      return null;
+   }
+   
    public String getContent() {
       return content;
    }
@@ -108,7 +114,15 @@ public class MockRequest extends RequestMessage implements Request {
       this.content = content;
    }
 
-   public InputStream getInputStream() {
+   public InputStream getInputStream() throws IOException {
+      if(content != null) {
+         String charset = getContentType().getCharset();
+         
+         if(charset == null) {
+            charset = "ISO-8859-1";
+         }
+         return new ByteArrayInputStream(content.getBytes(charset));
+      }
       return null;
    }
    
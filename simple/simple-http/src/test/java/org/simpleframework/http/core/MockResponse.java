@@ -6,6 +6,7 @@ import static org.simpleframework.http.Protocol.CONNECTION;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.channels.FileChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.Map;
 
@@ -81,6 +82,10 @@ public class MockResponse extends ResponseMessage implements Response {
       return null;
    }
 
+   public void sendFile(FileChannel file, long position, long length) throws IOException {
+      return;
+   }
+
    public boolean isEmpty() {
       return false;
    }
@@ -2,6 +2,7 @@ package org.simpleframework.http.core;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import org.simpleframework.common.buffer.ArrayBuffer;
 import org.simpleframework.common.buffer.Buffer;
@@ -72,4 +73,16 @@ public class MockSender implements ByteWriter {
       source.get(array, 0, len);
       buffer.append(array);
    }
+
+   public void write(FileChannel file, long position, long length) throws IOException {
+      ByteBuffer source = ByteBuffer.allocate((int)length);
+
+      while(source.hasRemaining()) {
+         if(file.read(source, position + source.position()) < 0) {
+            throw new IOException("Region exceeds the length of the file");
+         }
+      }
+      source.flip();
+      write(source);
+   }
 }
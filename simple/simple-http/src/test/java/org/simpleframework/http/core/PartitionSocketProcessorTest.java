@@ -0,0 +1,106 @@
+package org.simpleframework.http.core;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.simpleframework.http.Request;
+import org.simpleframework.http.Response;
+import org.simpleframework.transport.connect.Connection;
+import org.simpleframework.transport.connect.SocketConnection;
+
+public class PartitionSocketProcessorTest extends TestCase {
+   
+   private static class ThreadContainer implements Container {
+      
+      public void handle(Request request, Response response) {
+         try {
+            String path = request.getPath().getPath();
+            
+            if(path.startsWith("/sleep")) {
+               Thread.sleep(2000);
+            }
+            OutputStream out = response.getOutputStream();
+            byte[] content = Thread.currentThread().getName().getBytes("UTF-8");
+            
+            response.setValue("Content-Type", "text/plain");
+            response.setContentLength(content.length);
+            out.write(content);
+            out.close();
+         } catch(Exception e) {
+            e.printStackTrace();
+         }
+      }
+   }
+   
+   private static String body(String response) {
+      return response.substring(response.indexOf("\r\n\r\n") + 4);
+   }
+   
+   public void testConnectionStaysOnPartition() throws Exception {
+      Container container = new ThreadContainer();
+      PartitionSocketProcessor processor = new PartitionSocketProcessor(container, 4);
+      Connection connection = new SocketConnection(processor);
+      Set<String> threads = new HashSet<String>();
+      
+      try {
+         SocketAddress address = connection.connect(new InetSocketAddress("localhost", 0));
+         
+         for(int i = 0; i < 8; i++) {
+            SocketChannel channel = DomainSocketTest.open(address);
+            String first = body(DomainSocketTest.exchange(channel, "/first"));
+            
+            for(int j = 0; j < 20; j++) {
+               String next = body(DomainSocketTest.exchange(channel, "/next"));
+               assertEquals(first, next);
+            }
+            threads.add(first);
+            channel.close();
+         }
+      } finally {
+         connection.close();
+      }
+      assertTrue(threads.size() <= 4);
+   }
+   
+   public void testBlockingContainer() throws Exception {
+      Container container = new ThreadContainer();
+      Container blocking = new BlockingContainer(container, 4);
+      PartitionSocketProcessor processor = new PartitionSocketProcessor(blocking, 1);
+      Connection connection = new SocketConnection(processor);
+      
+      try {
+         SocketAddress address = connection.connect(new InetSocketAddress("localhost", 0));
+         final SocketChannel slow = DomainSocketTest.open(address);
+         SocketChannel fast = DomainSocketTest.open(address);
+         Thread thread = new Thread() {
+            public void run() {
+               try {
+                  DomainSocketTest.exchange(slow, "/sleep");
+               } catch(Exception e) {
+                  e.printStackTrace();
+               }
+            }
+         };
+         thread.start();
+         Thread.sleep(200);
+         
+         long start = System.currentTimeMillis();
+         String response = DomainSocketTest.exchange(fast, "/fast");
+         long duration = System.currentTimeMillis() - start;
+         
+         assertTrue(response, response.startsWith("HTTP/1.1 200"));
+         assertTrue("Request took " + duration + " ms", duration < 1000);
+         thread.join();
+         slow.close();
+         fast.close();
+      } finally {
+         connection.close();
+      }
+   }
+}
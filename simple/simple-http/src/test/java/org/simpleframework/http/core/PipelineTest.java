@@ -0,0 +1,267 @@
+package org.simpleframework.http.core;
+
+import static org.simpleframework.common.buffer.MemoryCategory.RESPONSE;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.simpleframework.common.buffer.ArrayAllocator;
+import org.simpleframework.common.buffer.MemoryBudget;
+import org.simpleframework.http.Request;
+import org.simpleframework.http.Response;
+import org.simpleframework.transport.connect.Connection;
+import org.simpleframework.transport.connect.SocketConnection;
+
+public class PipelineTest extends TestCase {
+
+   private static class DelayContainer implements Container {
+
+      private final AtomicInteger active = new AtomicInteger();
+      private final AtomicInteger maximum = new AtomicInteger();
+
+      public void handle(Request request, Response response) {
+         try {
+            int count = active.incrementAndGet();
+            String path = request.getPath().getPath();
+            String content = request.getContent();
+            int index = Integer.parseInt(path.substring(1));
+
+            if(count > maximum.get()) {
+               maximum.set(count);
+            }
+            Thread.sleep(Math.max(0, 100 - index * 10));
+
+            byte[] body = (path + " " + content).getBytes("UTF-8");
+            OutputStream out = response.getOutputStream();
+
+            active.decrementAndGet();
+            response.setContentLength(body.length);
+            out.write(body);
+            out.close();
+         } catch(Exception e) {
+            e.printStackTrace();
+         }
+      }
+
+      public int getMaximum() {
+         return maximum.get();
+      }
+   }
+
+   private static class BulkContainer implements Container {
+
+      private final AtomicInteger written = new AtomicInteger();
+      private final int size;
+
+      public BulkContainer(int size) {
+         this.size = size;
+      }
+
+      public void handle(Request request, Response response) {
+         try {
+            String path = request.getPath().getPath();
+            OutputStream out = response.getOutputStream();
+
+            if(path.equals("/slow")) {
+               Thread.sleep(500);
+               response.setContentLength(4);
+               out.write("slow".getBytes("UTF-8"));
+            } else {
+               byte[] chunk = new byte[4096];
+
+               for(int i = 0; i < chunk.length; i++) {
+                  chunk[i] = 'b';
+               }
+               response.setContentLength(size);
+
+               for(int i = 0; i < size; i += chunk.length) {
+                  out.write(chunk, 0, Math.min(chunk.length, size - i));
+                  written.addAndGet(Math.min(chunk.length, size - i));
+               }
+            }
+            out.close();
+         } catch(Exception e) {
+            e.printStackTrace();
+         }
+      }
+
+      public int getWritten() {
+         return written.get();
+      }
+   }
+
+   private static String get(int index) {
+      return "GET /" + index + " HTTP/1.1\r\nHost: localhost\r\n\r\n";
+   }
+
+   private static String post(int index, String content) {
+      return "POST /" + index + " HTTP/1.1\r\nHost: localhost\r\nContent-Length: " + content.length() + "\r\n\r\n" + content;
+   }
+
+   private static void write(SocketChannel channel, String text) throws Exception {
+      ByteBuffer buffer = ByteBuffer.wrap(text.getBytes("ISO-8859-1"));
+
+      while(buffer.hasRemaining()) {
+         channel.write(buffer);
+      }
+   }
+
+   private static String read(SocketChannel channel, StringBuilder builder) throws Exception {
+      ByteBuffer buffer = ByteBuffer.allocate(8192);
+
+      while(true) {
+         int index = builder.indexOf("\r\n\r\n");
+
+         if(index > 0) {
+            String header = builder.substring(0, index).toLowerCase();
+            int start = header.indexOf("content-length:") + 15;
+            int end = header.indexOf("\r\n", start);
+            String value = end < 0 ? header.substring(start) : header.substring(start, end);
+            int length = Integer.parseInt(value.trim());
+
+            if(builder.length() >= index + 4 + length) {
+               String body = builder.substring(index + 4, index + 4 + length);
+               builder.delete(0, index + 4 + length);
+               return body;
+            }
+         }
+         buffer.clear();
+
+         if(channel.read(buffer) < 0) {
+            throw new IllegalStateException("Connection closed");
+         }
+         buffer.flip();
+
+         while(buffer.hasRemaining()) {
+            builder.append((char)buffer.get());
+         }
+      }
+   }
+
+   public void testOrderedResponses() throws Exception {
+      DelayContainer container = new DelayContainer();
+      ContainerSettings settings = new ContainerSettings(new ArrayAllocator(), 10, 1);
+
+      settings.setDepth(8);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, settings);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         SocketAddress address = connection.connect(new InetSocketAddress("localhost", 0));
+         SocketChannel channel = DomainSocketTest.open(address);
+         StringBuilder requests = new StringBuilder();
+         StringBuilder builder = new StringBuilder();
+
+         for(int i = 0; i < 10; i++) {
+            requests.append(get(i));
+         }
+         write(channel, requests.toString());
+
+         for(int i = 0; i < 10; i++) {
+            assertEquals("/" + i + " ", read(channel, builder));
+         }
+         assertTrue(container.getMaximum() > 1);
+         assertTrue(container.getMaximum() <= 8);
+         channel.close();
+      } finally {
+         connection.close();
+      }
+   }
+
+   public void testBarrier() throws Exception {
+      DelayContainer container = new DelayContainer();
+      ContainerSettings settings = new ContainerSettings(new ArrayAllocator(), 10, 1);
+
+      settings.setDepth(8);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, settings);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         SocketAddress address = connection.connect(new InetSocketAddress("localhost", 0));
+         SocketChannel channel = DomainSocketTest.open(address);
+         StringBuilder requests = new StringBuilder();
+         StringBuilder builder = new StringBuilder();
+
+         requests.append(get(0));
+         requests.append(get(1));
+         requests.append(post(2, "post"));
+         requests.append(get(3));
+         requests.append(get(4));
+         write(channel, requests.toString());
+
+         assertEquals("/0 ", read(channel, builder));
+         assertEquals("/1 ", read(channel, builder));
+         assertEquals("/2 post", read(channel, builder));
+         assertEquals("/3 ", read(channel, builder));
+         assertEquals("/4 ", read(channel, builder));
+         channel.close();
+      } finally {
+         connection.close();
+      }
+   }
+
+   public void testSequentialRequests() throws Exception {
+      DelayContainer container = new DelayContainer();
+      ContainerSettings settings = new ContainerSettings(new ArrayAllocator(), 10, 1);
+
+      settings.setDepth(4);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, settings);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         SocketAddress address = connection.connect(new InetSocketAddress("localhost", 0));
+         SocketChannel channel = DomainSocketTest.open(address);
+         StringBuilder builder = new StringBuilder();
+
+         for(int i = 0; i < 20; i++) {
+            write(channel, i % 2 == 0 ? get(i) : post(i, "value-" + i));
+            assertEquals(i % 2 == 0 ? "/" + i + " " : "/" + i + " value-" + i, read(channel, builder));
+         }
+         assertEquals(1, container.getMaximum());
+         channel.close();
+      } finally {
+         connection.close();
+      }
+   }
+
+   public void testBoundedBuffer() throws Exception {
+      MemoryBudget budget = new MemoryBudget(10 * 1024 * 1024);
+      BulkContainer container = new BulkContainer(1024 * 1024);
+      ContainerSettings settings = new ContainerSettings(new ArrayAllocator(), 10, 1);
+
+      settings.setBudget(budget);
+      settings.setDepth(8);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, settings);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         SocketAddress address = connection.connect(new InetSocketAddress("localhost", 0));
+         SocketChannel channel = DomainSocketTest.open(address);
+         StringBuilder builder = new StringBuilder();
+
+         write(channel, "GET /slow HTTP/1.1\r\nHost: localhost\r\n\r\nGET /bulk HTTP/1.1\r\nHost: localhost\r\n\r\n");
+         Thread.sleep(250);
+
+         assertTrue(container.getWritten() < 64 * 1024);
+         assertTrue(budget.getUsage(RESPONSE) > 0);
+         assertTrue(budget.getUsage(RESPONSE) <= 64 * 1024);
+         assertEquals("slow", read(channel, builder));
+         assertEquals(1024 * 1024, read(channel, builder).length());
+         assertEquals(1024 * 1024, container.getWritten());
+
+         for(int i = 0; i < 100 && budget.getUsage(RESPONSE) > 0; i++) {
+            Thread.sleep(20);
+         }
+         assertEquals(0, budget.getUsage(RESPONSE));
+         channel.close();
+      } finally {
+         connection.close();
+      }
+   }
+}
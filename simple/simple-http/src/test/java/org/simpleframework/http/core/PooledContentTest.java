@@ -0,0 +1,65 @@
+package org.simpleframework.http.core;
+
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.simpleframework.common.buffer.DirectAllocator;
+import org.simpleframework.http.Request;
+import org.simpleframework.http.Response;
+import org.simpleframework.transport.connect.Connection;
+import org.simpleframework.transport.connect.SocketConnection;
+
+public class PooledContentTest extends TestCase {
+
+   private static class LateReadContainer implements Container {
+
+      private final BlockingQueue<String> contents = new LinkedBlockingQueue<String>();
+
+      public void handle(Request request, Response response) {
+         try {
+            response.setContentLength(0);
+            response.close();
+            contents.offer(request.getContent());
+         } catch(Exception e) {
+            contents.offer(e.toString());
+         }
+      }
+   }
+
+   public void testReadAfterClose() throws Exception {
+      LateReadContainer container = new LateReadContainer();
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, new DirectAllocator(), 4, 1);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         InetSocketAddress address = (InetSocketAddress)connection.connect(new InetSocketAddress("localhost", 0));
+
+         for(int i = 0; i < 20; i++) {
+            URL target = new URL("http://localhost:" + address.getPort() + "/post");
+            HttpURLConnection request = (HttpURLConnection)target.openConnection();
+            String content = "content-" + i;
+
+            request.setDoOutput(true);
+            request.setRequestMethod("POST");
+            request.setRequestProperty("Content-Type", "text/plain");
+
+            OutputStream out = request.getOutputStream();
+
+            out.write(content.getBytes("ISO-8859-1"));
+            out.close();
+
+            assertEquals(200, request.getResponseCode());
+            assertEquals(content, container.contents.poll(5000, TimeUnit.MILLISECONDS));
+         }
+      } finally {
+         connection.close();
+      }
+   }
+}
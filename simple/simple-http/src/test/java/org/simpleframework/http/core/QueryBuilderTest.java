@@ -31,5 +31,35 @@ public class QueryBuilderTest extends TestCase{
       assertEquals(form.get("c"), "query_C");
       assertEquals(form.get("e"), "post_E");   
    }
+   
+   public void testCharset() throws Exception {
+      MockBody body = new MockBody();
+      MockHeader header = new MockHeader("/path?a=query_A");
+      MockEntity entity = new MockEntity(body, header);
+      MockRequest request = new MockRequest();
+      
+      request.setContentType("application/x-www-form-urlencoded");
+      request.setContent("city=M\u00c3\u00bcnchen&escaped=%C3%BC");
+      
+      Query latin = new QueryBuilder(request, entity).build();
+      
+      assertEquals("M\u00c3\u00bcnchen", latin.get("city"));
+      assertEquals("\u00fc", latin.get("escaped"));
+      assertEquals("query_A", latin.get("a"));
+      
+      request.setContentType("application/x-www-form-urlencoded; charset=UTF-8");
+      request.setContent("city=M\u00fcnchen");
+      
+      Query unicode = new QueryBuilder(request, entity).build();
+      
+      assertEquals("M\u00fcnchen", unicode.get("city"));
+      
+      request.setContentType("application/x-www-form-urlencoded; charset=ISO-8859-5");
+      request.setContent("name=\u0416\u0443\u043a");
+      
+      Query cyrillic = new QueryBuilder(request, entity).build();
+      
+      assertEquals("\u0416\u0443\u043a", cyrillic.get("name"));
+   }
 
 }
@@ -126,6 +126,10 @@ public class ReactorTest extends TestCase implements Controller {
       collector.collect(this);
    }
    
+   public void complete(Collector collector) throws IOException {
+      start(collector.next());
+   }
+   
    public void ready(Collector collector) throws IOException {
       Entity entity = collector;
       Channel channel = entity.getChannel();
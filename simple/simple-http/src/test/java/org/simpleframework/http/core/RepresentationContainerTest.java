@@ -0,0 +1,432 @@
+package org.simpleframework.http.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.TestCase;
+
+import org.simpleframework.common.buffer.ArrayAllocator;
+import org.simpleframework.http.Request;
+import org.simpleframework.http.Response;
+import org.simpleframework.transport.connect.Connection;
+import org.simpleframework.transport.connect.SocketConnection;
+
+public class RepresentationContainerTest extends TestCase {
+
+   private static class TextContainer implements Container {
+
+      private final AtomicInteger count = new AtomicInteger();
+
+      public void handle(Request request, Response response) {
+         try {
+            String path = request.getPath().getPath();
+            int size = Integer.parseInt(request.getParameter("size"));
+
+            count.incrementAndGet();
+            response.setValue("Content-Type", "text/plain; charset=UTF-8");
+
+            if(path.startsWith("/public")) {
+               response.setValue("Cache-Control", "public, max-age=60");
+            } else if(path.startsWith("/private")) {
+               response.setValue("Cache-Control", "private, max-age=60");
+            } else if(path.startsWith("/cookie")) {
+               response.setValue("Cache-Control", "max-age=60");
+               response.setCookie("session", "1234");
+            } else if(path.startsWith("/stream")) {
+               response.setValue("Cache-Control", "no-cache");
+            } else if(path.startsWith("/short")) {
+               response.setValue("Cache-Control", "max-age=1");
+            } else if(path.startsWith("/language")) {
+               response.setValue("Cache-Control", "public");
+               response.setValue("Vary", "Accept-Language");
+            } else if(path.startsWith("/secure")) {
+               String credentials = request.getValue("Authorization");
+
+               if(credentials != null && !credentials.equals("Basic good")) {
+                  response.setCode(401);
+                  response.setDescription("Unauthorized");
+                  response.close();
+                  return;
+               }
+               response.setValue("Cache-Control", "max-age=60");
+               response.setValue("X-User", String.valueOf(credentials));
+            } else if(path.startsWith("/missing")) {
+               response.setValue("Cache-Control", "public, max-age=60");
+               response.setValue("X-Reason", "missing");
+               response.setCode(404);
+               response.setDescription("Not Found");
+            }
+            PrintStream out = response.getPrintStream();
+
+            if(path.startsWith("/language")) {
+               out.print(request.getValue("Accept-Language") + ":");
+               out.print(expect(size));
+            } else if(path.startsWith("/stream")) {
+               out.print(expect(size / 2));
+               out.flush();
+               out.print(expect(size).substring(size / 2));
+            } else {
+               out.print(expect(size));
+            }
+            out.close();
+         } catch(Exception e) {
+            e.printStackTrace();
+         }
+      }
+
+      public int getCount() {
+         return count.get();
+      }
+   }
+
+   private static byte[] read(InputStream source) throws Exception {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      byte[] chunk = new byte[8192];
+      int count = 0;
+
+      while((count = source.read(chunk)) != -1) {
+         buffer.write(chunk, 0, count);
+      }
+      source.close();
+      return buffer.toByteArray();
+   }
+
+   private static String expect(int size) {
+      StringBuilder builder = new StringBuilder();
+
+      for(int i = 0; builder.length() < size; i++) {
+         builder.append("line ").append(i).append(" of the text\n");
+      }
+      return builder.substring(0, size);
+   }
+
+   private static HttpURLConnection open(int port, String path, String coding) throws Exception {
+      URL target = new URL("http://localhost:" + port + path);
+      HttpURLConnection connection = (HttpURLConnection)target.openConnection();
+
+      if(coding != null) {
+         connection.setRequestProperty("Accept-Encoding", coding);
+      }
+      return connection;
+   }
+
+   public void testCachedForms() throws Exception {
+      TextContainer text = new TextContainer();
+      RepresentationCache cache = new RepresentationCache(1024 * 1024, 100000, 50000);
+      RepresentationContainer container = new RepresentationContainer(text, cache);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, new ArrayAllocator(), 5, 1);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         InetSocketAddress address = (InetSocketAddress)connection.connect(new InetSocketAddress("localhost", 0));
+         int port = address.getPort();
+
+         for(int size : new int[] { 10, 5000, 60000 }) {
+            String path = "/public?size=" + size;
+            HttpURLConnection first = open(port, path, null);
+            String body = new String(read(first.getInputStream()), "UTF-8");
+            String tag = first.getHeaderField("ETag");
+
+            assertEquals(expect(size), body);
+            assertEquals(String.valueOf(size), first.getHeaderField("Content-Length"));
+            assertEquals("public, max-age=60", first.getHeaderField("Cache-Control"));
+            assertNotNull(tag);
+
+            for(int i = 0; i < 5; i++) {
+               HttpURLConnection plain = open(port, path, "identity");
+               HttpURLConnection gzip = open(port, path, "gzip, deflate");
+
+               assertEquals(expect(size), new String(read(plain.getInputStream()), "UTF-8"));
+               assertEquals(tag, plain.getHeaderField("ETag"));
+               assertEquals(String.valueOf(size), plain.getHeaderField("Content-Length"));
+
+               if(size > 1024) {
+                  assertEquals("gzip", gzip.getHeaderField("Content-Encoding"));
+                  assertEquals("Accept-Encoding", gzip.getHeaderField("Vary"));
+                  assertEquals(tag.replace("\"", "").concat("-gzip"), gzip.getHeaderField("ETag").replace("\"", ""));
+                  assertTrue(Integer.parseInt(gzip.getHeaderField("Content-Length")) < size);
+                  assertEquals(expect(size), new String(read(new GZIPInputStream(gzip.getInputStream())), "UTF-8"));
+               } else {
+                  assertNull(gzip.getHeaderField("Content-Encoding"));
+                  assertEquals(expect(size), new String(read(gzip.getInputStream()), "UTF-8"));
+               }
+            }
+         }
+         HttpURLConnection head = open(port, "/public?size=5000", null);
+
+         head.setRequestMethod("HEAD");
+         assertEquals(200, head.getResponseCode());
+         assertEquals("5000", head.getHeaderField("Content-Length"));
+         assertEquals(3, text.getCount());
+         assertEquals(5, cache.getCount());
+         assertTrue(cache.getSize() > 65000);
+      } finally {
+         connection.close();
+      }
+   }
+
+   public void testUncachedResponses() throws Exception {
+      TextContainer text = new TextContainer();
+      RepresentationCache cache = new RepresentationCache(1024 * 1024, 10000);
+      RepresentationContainer container = new RepresentationContainer(text, cache);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, new ArrayAllocator(), 5, 1);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         InetSocketAddress address = (InetSocketAddress)connection.connect(new InetSocketAddress("localhost", 0));
+         int port = address.getPort();
+         String[] paths = { "/private?size=5000", "/cookie?size=5000", "/none?size=5000", "/public?size=50000", "/stream?size=5000" };
+
+         for(String path : paths) {
+            for(int i = 0; i < 3; i++) {
+               HttpURLConnection request = open(port, path, "gzip");
+               int size = Integer.parseInt(path.substring(path.indexOf('=') + 1));
+
+               assertNull(request.getHeaderField("Content-Encoding"));
+               assertNull(request.getHeaderField("ETag"));
+               assertEquals(expect(size), new String(read(request.getInputStream()), "UTF-8"));
+            }
+         }
+         assertEquals(15, text.getCount());
+         assertEquals(0, cache.getCount());
+      } finally {
+         connection.close();
+      }
+   }
+
+   public void testConditional() throws Exception {
+      TextContainer text = new TextContainer();
+      RepresentationCache cache = new RepresentationCache(1024 * 1024, 100000);
+      RepresentationContainer container = new RepresentationContainer(text, cache);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, new ArrayAllocator(), 5, 1);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         InetSocketAddress address = (InetSocketAddress)connection.connect(new InetSocketAddress("localhost", 0));
+         int port = address.getPort();
+         HttpURLConnection first = open(port, "/public?size=5000", "gzip");
+         String tag = first.getHeaderField("ETag");
+         String modified = first.getHeaderField("Last-Modified");
+
+         assertEquals(expect(5000), new String(read(new GZIPInputStream(first.getInputStream())), "UTF-8"));
+         assertNotNull(modified);
+         assertEquals(0, cache.getHits());
+         assertEquals(1, cache.getMisses());
+
+         HttpURLConnection match = open(port, "/public?size=5000", "gzip");
+         match.setRequestProperty("If-None-Match", "\"other\", " + tag);
+
+         assertEquals(304, match.getResponseCode());
+         assertEquals(tag, match.getHeaderField("ETag"));
+         assertEquals("public, max-age=60", match.getHeaderField("Cache-Control"));
+         assertNull(match.getHeaderField("Content-Encoding"));
+         assertEquals(0, read(match.getInputStream()).length);
+
+         HttpURLConnection mismatch = open(port, "/public?size=5000", null);
+         mismatch.setRequestProperty("If-None-Match", tag);
+
+         assertEquals(200, mismatch.getResponseCode());
+         assertEquals(expect(5000), new String(read(mismatch.getInputStream()), "UTF-8"));
+
+         HttpURLConnection since = open(port, "/public?size=5000", null);
+         since.setRequestProperty("If-Modified-Since", modified);
+
+         assertEquals(304, since.getResponseCode());
+
+         HttpURLConnection before = open(port, "/public?size=5000", null);
+         before.setRequestProperty("If-Modified-Since", "Thu, 01 Jan 1998 00:00:00 GMT");
+
+         assertEquals(200, before.getResponseCode());
+         assertEquals(expect(5000), new String(read(before.getInputStream()), "UTF-8"));
+         assertEquals(1, text.getCount());
+         assertEquals(4, cache.getHits());
+         assertEquals(1, cache.getMisses());
+      } finally {
+         connection.close();
+      }
+   }
+
+   public void testExpiry() throws Exception {
+      TextContainer text = new TextContainer();
+      RepresentationCache cache = new RepresentationCache(1024 * 1024, 100000);
+      RepresentationContainer container = new RepresentationContainer(text, cache);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, new ArrayAllocator(), 5, 1);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         InetSocketAddress address = (InetSocketAddress)connection.connect(new InetSocketAddress("localhost", 0));
+         int port = address.getPort();
+
+         for(int i = 0; i < 3; i++) {
+            HttpURLConnection request = open(port, "/short?size=100", null);
+
+            assertEquals(expect(100), new String(read(request.getInputStream()), "UTF-8"));
+            assertEquals("max-age=1", request.getHeaderField("Cache-Control"));
+            assertNotNull(request.getHeaderField("Age"));
+         }
+         assertEquals(1, text.getCount());
+         Thread.sleep(1100);
+
+         HttpURLConnection stale = open(port, "/short?size=100", null);
+
+         assertEquals(expect(100), new String(read(stale.getInputStream()), "UTF-8"));
+         assertEquals(2, text.getCount());
+         assertEquals(1, cache.getEvictions());
+         assertEquals(1, cache.getCount());
+      } finally {
+         connection.close();
+      }
+   }
+
+   public void testVariedResponses() throws Exception {
+      TextContainer text = new TextContainer();
+      RepresentationCache cache = new RepresentationCache(1024 * 1024, 100000);
+      RepresentationContainer container = new RepresentationContainer(text, cache);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, new ArrayAllocator(), 5, 1);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         InetSocketAddress address = (InetSocketAddress)connection.connect(new InetSocketAddress("localhost", 0));
+         int port = address.getPort();
+         String[] languages = { "en", "fr", "de" };
+
+         for(int i = 0; i < 3; i++) {
+            for(String language : languages) {
+               HttpURLConnection request = open(port, "/language?size=2000", "gzip");
+
+               request.setRequestProperty("Accept-Language", language);
+               assertEquals(language + ":" + expect(2000), new String(read(new GZIPInputStream(request.getInputStream())), "UTF-8"));
+               assertEquals("Accept-Language, Accept-Encoding", request.getHeaderField("Vary"));
+            }
+         }
+         assertEquals(3, text.getCount());
+         assertEquals(6, cache.getHits());
+         assertEquals(3, cache.getMisses());
+      } finally {
+         connection.close();
+      }
+   }
+
+   public void testMissingResource() throws Exception {
+      TextContainer text = new TextContainer();
+      RepresentationCache cache = new RepresentationCache(1024 * 1024, 100000);
+      RepresentationContainer container = new RepresentationContainer(text, cache);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, new ArrayAllocator(), 5, 1);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         InetSocketAddress address = (InetSocketAddress)connection.connect(new InetSocketAddress("localhost", 0));
+         int port = address.getPort();
+
+         for(int i = 0; i < 3; i++) {
+            HttpURLConnection request = open(port, "/missing?size=100", null);
+
+            assertEquals(404, request.getResponseCode());
+            assertEquals("missing", request.getHeaderField("X-Reason"));
+            assertEquals("text/plain; charset=UTF-8", request.getHeaderField("Content-Type"));
+            assertEquals(expect(100), new String(read(request.getErrorStream()), "UTF-8"));
+         }
+         assertEquals(1, text.getCount());
+      } finally {
+         connection.close();
+      }
+   }
+
+   public void testCredentials() throws Exception {
+      TextContainer text = new TextContainer();
+      RepresentationCache cache = new RepresentationCache(1024 * 1024, 100000);
+      RepresentationContainer container = new RepresentationContainer(text, cache);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, new ArrayAllocator(), 5, 1);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         InetSocketAddress address = (InetSocketAddress)connection.connect(new InetSocketAddress("localhost", 0));
+         int port = address.getPort();
+
+         for(int i = 0; i < 2; i++) {
+            HttpURLConnection request = open(port, "/secure?size=100", null);
+
+            assertEquals(200, request.getResponseCode());
+            assertEquals("null", request.getHeaderField("X-User"));
+            assertEquals(expect(100), new String(read(request.getInputStream()), "UTF-8"));
+         }
+         assertEquals(1, text.getCount());
+
+         HttpURLConnection denied = open(port, "/secure?size=100", null);
+
+         denied.setRequestProperty("Authorization", "Basic bad");
+         assertEquals(401, denied.getResponseCode());
+         assertEquals(2, text.getCount());
+
+         for(int i = 0; i < 2; i++) {
+            HttpURLConnection request = open(port, "/secure?size=100", null);
+
+            request.setRequestProperty("Authorization", "Basic good");
+            assertEquals(200, request.getResponseCode());
+            assertEquals("Basic good", request.getHeaderField("X-User"));
+            assertEquals(expect(100), new String(read(request.getInputStream()), "UTF-8"));
+         }
+         assertEquals(4, text.getCount());
+
+         HttpURLConnection cookie = open(port, "/secure?size=100", null);
+
+         cookie.setRequestProperty("Cookie", "session=1234");
+         assertEquals(200, cookie.getResponseCode());
+         assertEquals(expect(100), new String(read(cookie.getInputStream()), "UTF-8"));
+         assertEquals(5, text.getCount());
+
+         HttpURLConnection anonymous = open(port, "/secure?size=100", null);
+
+         assertEquals("null", anonymous.getHeaderField("X-User"));
+         assertEquals(expect(100), new String(read(anonymous.getInputStream()), "UTF-8"));
+         assertEquals(5, text.getCount());
+
+         for(int i = 0; i < 2; i++) {
+            HttpURLConnection request = open(port, "/public?size=100", null);
+
+            request.setRequestProperty("Authorization", "Basic good");
+            assertEquals(expect(100), new String(read(request.getInputStream()), "UTF-8"));
+         }
+         HttpURLConnection shared = open(port, "/public?size=100", null);
+
+         assertEquals(expect(100), new String(read(shared.getInputStream()), "UTF-8"));
+         assertEquals(6, text.getCount());
+      } finally {
+         connection.close();
+      }
+   }
+
+   public void testEviction() throws Exception {
+      TextContainer text = new TextContainer();
+      RepresentationCache cache = new RepresentationCache(30000, 20000);
+      RepresentationContainer container = new RepresentationContainer(text, cache, new CompressionPolicy(6, 1024, "image/png"));
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, new ArrayAllocator(), 5, 1);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         InetSocketAddress address = (InetSocketAddress)connection.connect(new InetSocketAddress("localhost", 0));
+         int port = address.getPort();
+
+         for(int i = 0; i < 10; i++) {
+            HttpURLConnection request = open(port, "/public/" + i + "?size=10000", "gzip");
+
+            assertNull(request.getHeaderField("Content-Encoding"));
+            assertEquals(expect(10000), new String(read(request.getInputStream()), "UTF-8"));
+            assertTrue(cache.getSize() <= 30000);
+         }
+         assertEquals(3, cache.getCount());
+         assertEquals(7, cache.getEvictions());
+         assertEquals(30000, cache.getSize());
+         cache.clear();
+         assertEquals(0, cache.getSize());
+      } finally {
+         connection.close();
+      }
+   }
+}
@@ -0,0 +1,259 @@
+package org.simpleframework.http.core;
+
+import static org.simpleframework.common.buffer.MemoryCategory.RESPONSE;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.TestCase;
+
+import org.simpleframework.common.buffer.ArrayAllocator;
+import org.simpleframework.common.buffer.MemoryBudget;
+import org.simpleframework.http.Request;
+import org.simpleframework.http.Response;
+import org.simpleframework.transport.connect.Connection;
+import org.simpleframework.transport.connect.SocketConnection;
+
+public class SendFileTest extends TestCase {
+
+   private static final byte[] PREFIX = "prefix:".getBytes();
+
+   private static class FileContainer implements Container {
+
+      private final File file;
+
+      public FileContainer(File file) {
+         this.file = file;
+      }
+
+      public void handle(Request request, Response response) {
+         try {
+            String path = request.getPath().getPath();
+            int offset = Integer.parseInt(request.getParameter("offset"));
+            int length = Integer.parseInt(request.getParameter("length"));
+            String delay = request.getParameter("delay");
+            RandomAccessFile source = new RandomAccessFile(file, "r");
+            FileChannel channel = source.getChannel();
+
+            if(delay != null) {
+               Thread.sleep(Integer.parseInt(delay));
+            }
+            response.setValue("Content-Type", "text/plain");
+
+            if(path.startsWith("/fixed")) {
+               response.setContentLength(length);
+               response.sendFile(channel, offset, length);
+            } else if(path.startsWith("/chunked")) {
+               response.sendFile(channel, offset, length / 2);
+               response.sendFile(channel, offset + length / 2, length - length / 2);
+            } else if(path.startsWith("/prefix")) {
+               OutputStream out = response.getOutputStream();
+
+               response.setContentLength(PREFIX.length + length);
+               out.write(PREFIX);
+               response.sendFile(channel, offset, length);
+            }
+            channel.close();
+            response.close();
+         } catch(Exception e) {
+            e.printStackTrace();
+         }
+      }
+   }
+
+   private static File create(int size) throws Exception {
+      File file = File.createTempFile("sendfile", ".txt");
+      OutputStream out = new FileOutputStream(file);
+      byte[] data = expect(size, 0, size);
+
+      file.deleteOnExit();
+      out.write(data);
+      out.close();
+      return file;
+   }
+
+   private static byte[] expect(int size, int offset, int length) {
+      byte[] data = new byte[size];
+      Random random = new Random(size);
+
+      for(int i = 0; i < size; i++) {
+         data[i] = (byte)('a' + random.nextInt(4));
+      }
+      return Arrays.copyOfRange(data, offset, offset + length);
+   }
+
+   private static byte[] read(InputStream source) throws Exception {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      byte[] chunk = new byte[8192];
+      int count = 0;
+
+      while((count = source.read(chunk)) != -1) {
+         buffer.write(chunk, 0, count);
+      }
+      source.close();
+      return buffer.toByteArray();
+   }
+
+   private static HttpURLConnection open(int port, String path) throws Exception {
+      URL target = new URL("http://localhost:" + port + path);
+      return (HttpURLConnection)target.openConnection();
+   }
+
+   public void testSendFile() throws Exception {
+      int size = 20 * 1024 * 1024;
+      File file = create(size);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(new FileContainer(file), new ArrayAllocator(), 5, 1);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         InetSocketAddress address = (InetSocketAddress)connection.connect(new InetSocketAddress("localhost", 0));
+         int port = address.getPort();
+         int[][] regions = { { 0, size }, { 1000, 5000 }, { 12345, 3 * 1024 * 1024 }, { 0, 0 } };
+
+         for(int[] region : regions) {
+            String query = "?offset=" + region[0] + "&length=" + region[1];
+            HttpURLConnection fixed = open(port, "/fixed" + query);
+            HttpURLConnection chunked = open(port, "/chunked" + query);
+            HttpURLConnection prefix = open(port, "/prefix" + query);
+            byte[] data = expect(size, region[0], region[1]);
+
+            assertEquals(String.valueOf(region[1]), fixed.getHeaderField("Content-Length"));
+            assertTrue(Arrays.equals(data, read(fixed.getInputStream())));
+            assertTrue(Arrays.equals(data, read(chunked.getInputStream())));
+            assertTrue(Arrays.equals(data, Arrays.copyOfRange(read(prefix.getInputStream()), PREFIX.length, PREFIX.length + region[1])));
+         }
+         HttpURLConnection head = open(port, "/fixed?offset=0&length=5000");
+
+         head.setRequestMethod("HEAD");
+         assertEquals(200, head.getResponseCode());
+         assertEquals("5000", head.getHeaderField("Content-Length"));
+      } finally {
+         connection.close();
+      }
+   }
+
+   public void testCompressedFile() throws Exception {
+      int size = 200000;
+      File file = create(size);
+      CompressionPolicy policy = new CompressionPolicy(6, 1024);
+      ContainerSettings settings = new ContainerSettings(new ArrayAllocator(), 5, 1);
+
+      settings.setPolicy(policy);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(new FileContainer(file), settings);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         InetSocketAddress address = (InetSocketAddress)connection.connect(new InetSocketAddress("localhost", 0));
+         HttpURLConnection request = open(address.getPort(), "/fixed?offset=10&length=150000");
+
+         request.setRequestProperty("Accept-Encoding", "gzip");
+         assertEquals("gzip", request.getHeaderField("Content-Encoding"));
+         assertTrue(Arrays.equals(expect(size, 10, 150000), read(new GZIPInputStream(request.getInputStream()))));
+      } finally {
+         connection.close();
+      }
+   }
+
+   public void testPipelinedFile() throws Exception {
+      int size = 100000;
+      File file = create(size);
+      ContainerSettings settings = new ContainerSettings(new ArrayAllocator(), 10, 1);
+
+      settings.setDepth(8);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(new FileContainer(file), settings);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         SocketAddress address = connection.connect(new InetSocketAddress("localhost", 0));
+         SocketChannel channel = DomainSocketTest.open(address);
+         String requests =
+            "GET /fixed?offset=0&length=60000&delay=200 HTTP/1.1\r\nHost: localhost\r\n\r\n" +
+            "GET /fixed?offset=500&length=70000 HTTP/1.1\r\nHost: localhost\r\n\r\n" +
+            "GET /chunked?offset=7&length=9000 HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n";
+         ByteBuffer buffer = ByteBuffer.wrap(requests.getBytes("ISO-8859-1"));
+         ByteArrayOutputStream output = new ByteArrayOutputStream();
+         ByteBuffer input = ByteBuffer.allocate(8192);
+
+         while(buffer.hasRemaining()) {
+            channel.write(buffer);
+         }
+         while(channel.read(input) >= 0) {
+            input.flip();
+            output.write(input.array(), 0, input.limit());
+            input.clear();
+         }
+         String text = new String(output.toByteArray(), "ISO-8859-1");
+         String first = new String(expect(size, 0, 60000), "ISO-8859-1");
+         String second = new String(expect(size, 500, 70000), "ISO-8859-1");
+         String third = new String(expect(size, 7, 9000), "ISO-8859-1");
+         int one = text.indexOf(first);
+         int two = text.indexOf(second);
+
+         assertTrue(one > 0);
+         assertTrue(two > one + 60000);
+         assertTrue(text.indexOf("Connection: close") > two + 70000);
+         assertTrue(text.endsWith(third));
+         channel.close();
+      } finally {
+         connection.close();
+      }
+   }
+
+   public void testPipelinedFileDeferred() throws Exception {
+      int size = 1024 * 1024;
+      File file = create(size);
+      MemoryBudget budget = new MemoryBudget(10 * 1024 * 1024);
+      ContainerSettings settings = new ContainerSettings(new ArrayAllocator(), 10, 1);
+
+      settings.setBudget(budget);
+      settings.setDepth(8);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(new FileContainer(file), settings);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         SocketAddress address = connection.connect(new InetSocketAddress("localhost", 0));
+         SocketChannel channel = DomainSocketTest.open(address);
+         String requests =
+            "GET /fixed?offset=0&length=10&delay=500 HTTP/1.1\r\nHost: localhost\r\n\r\n" +
+            "GET /fixed?offset=0&length=" + size + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n";
+         ByteBuffer buffer = ByteBuffer.wrap(requests.getBytes("ISO-8859-1"));
+         ByteArrayOutputStream output = new ByteArrayOutputStream();
+         ByteBuffer input = ByteBuffer.allocate(8192);
+
+         while(buffer.hasRemaining()) {
+            channel.write(buffer);
+         }
+         Thread.sleep(250);
+         assertTrue(budget.getUsage(RESPONSE) < 64 * 1024);
+
+         while(channel.read(input) >= 0) {
+            input.flip();
+            output.write(input.array(), 0, input.limit());
+            input.clear();
+         }
+         String text = new String(output.toByteArray(), "ISO-8859-1");
+         String first = new String(expect(size, 0, 10), "ISO-8859-1");
+         String second = new String(expect(size, 0, size), "ISO-8859-1");
+
+         assertTrue(text.indexOf(first) > 0);
+         assertTrue(text.endsWith(second));
+         channel.close();
+      } finally {
+         connection.close();
+      }
+   }
+}
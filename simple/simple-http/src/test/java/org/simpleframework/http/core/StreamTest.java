@@ -0,0 +1,327 @@
+package org.simpleframework.http.core;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.simpleframework.common.buffer.ArrayAllocator;
+import org.simpleframework.http.Part;
+import org.simpleframework.http.Request;
+import org.simpleframework.http.Response;
+import org.simpleframework.transport.connect.Connection;
+import org.simpleframework.transport.connect.SocketConnection;
+
+public class StreamTest extends TestCase {
+
+   private static class CountContainer implements Container {
+
+      private final CountDownLatch started = new CountDownLatch(1);
+
+      public void handle(Request request, Response response) {
+         try {
+            String path = request.getPath().getPath();
+            long count = 0;
+            long sum = 0;
+
+            started.countDown();
+
+            if(path.equals("/parts")) {
+               StringBuilder builder = new StringBuilder();
+
+               for(Part part : request.getParts()) {
+                  InputStream in = part.getInputStream();
+                  byte[] chunk = new byte[1000];
+                  int size = 0;
+
+                  builder.append(part.getName());
+
+                  while((size = in.read(chunk)) != -1) {
+                     count += size;
+                  }
+                  builder.append(":");
+                  builder.append(count);
+                  builder.append(" ");
+                  count = 0;
+               }
+               path = builder.toString().trim();
+            } else if(!path.equals("/ignore")) {
+               if(path.equals("/form")) {
+                  path = path + ":" + request.getParameter("a");
+               }
+               InputStream in = request.getInputStream();
+               byte[] chunk = new byte[1000];
+               int size = 0;
+
+               while((size = in.read(chunk)) != -1) {
+                  for(int i = 0; i < size; i++) {
+                     sum += chunk[i] & 0xff;
+                  }
+                  count += size;
+               }
+            }
+            byte[] body = (path + " " + count + " " + sum).getBytes("UTF-8");
+            OutputStream out = response.getOutputStream();
+
+            response.setContentLength(body.length);
+            out.write(body);
+            out.close();
+         } catch(Exception e) {
+            e.printStackTrace();
+         }
+      }
+
+      public boolean await() throws Exception {
+         return started.await(5, TimeUnit.SECONDS);
+      }
+   }
+
+   private static byte[] content(int length) {
+      byte[] data = new byte[length];
+
+      for(int i = 0; i < length; i++) {
+         data[i] = (byte)('a' + i % 26);
+      }
+      return data;
+   }
+
+   private static long sum(byte[] data) {
+      long sum = 0;
+
+      for(int i = 0; i < data.length; i++) {
+         sum += data[i] & 0xff;
+      }
+      return sum;
+   }
+
+   private static byte[] chunk(byte[] data, int size) throws Exception {
+      StringBuilder builder = new StringBuilder();
+
+      for(int off = 0; off < data.length; off += size) {
+         int length = Math.min(size, data.length - off);
+
+         builder.append(Integer.toHexString(length));
+         builder.append("\r\n");
+         builder.append(new String(data, off, length, "ISO-8859-1"));
+         builder.append("\r\n");
+      }
+      builder.append("0\r\n\r\n");
+      return builder.toString().getBytes("ISO-8859-1");
+   }
+
+   private static void write(SocketChannel channel, String text) throws Exception {
+      write(channel, text.getBytes("ISO-8859-1"));
+   }
+
+   private static void write(SocketChannel channel, byte[] data) throws Exception {
+      ByteBuffer buffer = ByteBuffer.wrap(data);
+
+      while(buffer.hasRemaining()) {
+         channel.write(buffer);
+      }
+   }
+
+   private static String read(SocketChannel channel, StringBuilder builder) throws Exception {
+      ByteBuffer buffer = ByteBuffer.allocate(8192);
+
+      while(true) {
+         int index = builder.indexOf("\r\n\r\n");
+
+         if(index > 0) {
+            String header = builder.substring(0, index).toLowerCase();
+            int start = header.indexOf("content-length:") + 15;
+            int end = header.indexOf("\r\n", start);
+            String value = end < 0 ? header.substring(start) : header.substring(start, end);
+            int length = Integer.parseInt(value.trim());
+
+            if(builder.length() >= index + 4 + length) {
+               String body = builder.substring(index + 4, index + 4 + length);
+               builder.delete(0, index + 4 + length);
+               return body;
+            }
+         }
+         buffer.clear();
+
+         if(channel.read(buffer) < 0) {
+            throw new IllegalStateException("Connection closed");
+         }
+         buffer.flip();
+
+         while(buffer.hasRemaining()) {
+            builder.append((char)buffer.get());
+         }
+      }
+   }
+
+   public void testEarlyDispatch() throws Exception {
+      CountContainer container = new CountContainer();
+      ContainerSettings settings = new ContainerSettings(new ArrayAllocator(), 10, 1);
+
+      settings.setStream(true);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, settings);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         SocketAddress address = connection.connect(new InetSocketAddress("localhost", 0));
+         SocketChannel channel = DomainSocketTest.open(address);
+         StringBuilder builder = new StringBuilder();
+         byte[] data = content(100000);
+
+         write(channel, "POST /fixed HTTP/1.1\r\nHost: localhost\r\nContent-Length: " + data.length + "\r\n\r\n");
+         assertTrue(container.await());
+         write(channel, data);
+         assertEquals("/fixed " + data.length + " " + sum(data), read(channel, builder));
+         channel.close();
+      } finally {
+         connection.close();
+      }
+   }
+
+   public void testLargeBody() throws Exception {
+      CountContainer container = new CountContainer();
+      ContainerSettings settings = new ContainerSettings(new ArrayAllocator(), 10, 1);
+
+      settings.setStream(true);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, settings);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         SocketAddress address = connection.connect(new InetSocketAddress("localhost", 0));
+         SocketChannel channel = DomainSocketTest.open(address);
+         StringBuilder builder = new StringBuilder();
+         byte[] data = content(8 * 1024 * 1024);
+
+         write(channel, "POST /fixed HTTP/1.1\r\nHost: localhost\r\nContent-Length: " + data.length + "\r\n\r\n");
+         write(channel, data);
+         assertEquals("/fixed " + data.length + " " + sum(data), read(channel, builder));
+         write(channel, "POST /chunked HTTP/1.1\r\nHost: localhost\r\nTransfer-Encoding: chunked\r\n\r\n");
+         write(channel, chunk(data, 7777));
+         assertEquals("/chunked " + data.length + " " + sum(data), read(channel, builder));
+         channel.close();
+      } finally {
+         connection.close();
+      }
+   }
+
+   public void testUnreadBody() throws Exception {
+      CountContainer container = new CountContainer();
+      ContainerSettings settings = new ContainerSettings(new ArrayAllocator(), 10, 1);
+
+      settings.setStream(true);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, settings);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         SocketAddress address = connection.connect(new InetSocketAddress("localhost", 0));
+         SocketChannel channel = DomainSocketTest.open(address);
+         StringBuilder builder = new StringBuilder();
+         byte[] data = content(1024 * 1024);
+
+         write(channel, "POST /ignore HTTP/1.1\r\nHost: localhost\r\nContent-Length: " + data.length + "\r\n\r\n");
+         assertEquals("/ignore 0 0", read(channel, builder));
+         write(channel, data);
+         write(channel, "POST /next HTTP/1.1\r\nHost: localhost\r\nContent-Length: 5\r\n\r\nhello");
+         assertEquals("/next 5 " + sum("hello".getBytes()), read(channel, builder));
+         channel.close();
+      } finally {
+         connection.close();
+      }
+   }
+
+   public void testMultipartParts() throws Exception {
+      CountContainer container = new CountContainer();
+      ContainerSettings settings = new ContainerSettings(new ArrayAllocator(), 10, 1);
+
+      settings.setStream(true);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, settings);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         SocketAddress address = connection.connect(new InetSocketAddress("localhost", 0));
+         SocketChannel channel = DomainSocketTest.open(address);
+         StringBuilder builder = new StringBuilder();
+         StringBuilder body = new StringBuilder();
+         byte[] data = content(1024 * 1024);
+         String file = new String(data, "ISO-8859-1");
+
+         body.append("--AaB03x\r\nContent-Disposition: form-data; name=\"a\"\r\n\r\nvalue\r\n");
+         body.append("--AaB03x\r\nContent-Disposition: form-data; name=\"b\"; filename=\"b.txt\"\r\n\r\n" + file + "\r\n");
+         body.append("--AaB03x\r\nContent-Disposition: form-data; name=\"c\"\r\n\r\n\r\n");
+         body.append("--AaB03x--\r\n");
+
+         write(channel, "POST /parts HTTP/1.1\r\nHost: localhost\r\nContent-Type: multipart/form-data; boundary=AaB03x\r\nContent-Length: " + body.length() + "\r\n\r\n");
+         write(channel, body.toString());
+         assertEquals("a:5 b:" + data.length + " c:0 0 0", read(channel, builder));
+         write(channel, "POST /chunked HTTP/1.1\r\nHost: localhost\r\nTransfer-Encoding: chunked\r\nContent-Type: multipart/form-data; boundary=AaB03x\r\n\r\n");
+         write(channel, chunk(body.toString().getBytes("ISO-8859-1"), 1000));
+         assertEquals("/chunked " + body.length() + " " + sum(body.toString().getBytes("ISO-8859-1")), read(channel, builder));
+         channel.close();
+      } finally {
+         connection.close();
+      }
+   }
+
+   public void testSequentialRequests() throws Exception {
+      CountContainer container = new CountContainer();
+      ContainerSettings settings = new ContainerSettings(new ArrayAllocator(), 10, 1);
+
+      settings.setDepth(4);
+      settings.setStream(true);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, settings);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         SocketAddress address = connection.connect(new InetSocketAddress("localhost", 0));
+         SocketChannel channel = DomainSocketTest.open(address);
+         StringBuilder builder = new StringBuilder();
+
+         for(int i = 0; i < 20; i++) {
+            byte[] data = content(i * 10);
+
+            if(i % 2 == 0) {
+               write(channel, "GET /" + i + " HTTP/1.1\r\nHost: localhost\r\n\r\n");
+               assertEquals("/" + i + " 0 0", read(channel, builder));
+            } else {
+               write(channel, "POST /" + i + " HTTP/1.1\r\nHost: localhost\r\nContent-Length: " + data.length + "\r\n\r\n");
+               write(channel, data);
+               assertEquals("/" + i + " " + data.length + " " + sum(data), read(channel, builder));
+            }
+         }
+         channel.close();
+      } finally {
+         connection.close();
+      }
+   }
+
+   public void testFormPost() throws Exception {
+      CountContainer container = new CountContainer();
+      ContainerSettings settings = new ContainerSettings(new ArrayAllocator(), 10, 1);
+
+      settings.setStream(true);
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container, settings);
+      Connection connection = new SocketConnection(processor);
+
+      try {
+         SocketAddress address = connection.connect(new InetSocketAddress("localhost", 0));
+         SocketChannel channel = DomainSocketTest.open(address);
+         StringBuilder builder = new StringBuilder();
+         byte[] data = "a=1&b=2&c=3".getBytes("ISO-8859-1");
+
+         write(channel, "POST /form HTTP/1.1\r\nHost: localhost\r\nContent-Type: application/x-www-form-urlencoded\r\nContent-Length: " + data.length + "\r\n\r\n");
+         write(channel, data);
+         assertEquals("/form:1 " + data.length + " " + sum(data), read(channel, builder));
+         write(channel, "POST /form HTTP/1.1\r\nHost: localhost\r\nContent-Type: application/x-www-form-urlencoded\r\nTransfer-Encoding: chunked\r\n\r\n");
+         write(channel, chunk(data, 4));
+         assertEquals("/form:1 " + data.length + " " + sum(data), read(channel, builder));
+         channel.close();
+      } finally {
+         connection.close();
+      }
+   }
+}
@@ -0,0 +1,119 @@
+package org.simpleframework.http.message;
+
+import junit.framework.TestCase;
+
+public class ByteScannerPerformanceTest extends TestCase {
+   
+   private static final int ITERATIONS = 200000;
+   
+   private static final byte[] TERMINAL = { 13, 10, 13, 10 };
+   
+   private static byte[] header() throws Exception {
+      StringBuilder builder = new StringBuilder();
+      
+      builder.append("GET /some/path/to/a/resource?with=a&query=string HTTP/1.1\r\n");
+      builder.append("Host: www.example.com\r\n");
+      builder.append("User-Agent: Mozilla/5.0 (X11; Linux x86_64; rv:130.0) Gecko/20100101 Firefox/130.0\r\n");
+      builder.append("Accept: text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8\r\n");
+      builder.append("Accept-Language: en-GB,en;q=0.5\r\n");
+      builder.append("Accept-Encoding: gzip, deflate, br\r\n");
+      builder.append("Cookie: session=0123456789abcdef0123456789abcdef; theme=dark; tracking=off\r\n");
+      builder.append("Referer: https://www.example.com/some/other/page.html\r\n");
+      builder.append("Connection: keep-alive\r\n\r\n");
+      
+      return builder.toString().getBytes("ISO-8859-1");
+   }
+   
+   private static byte[] body(int size) {
+      byte[] array = new byte[size];
+      
+      for(int i = 0; i < size; i++) {
+         array[i] = (byte)('a' + i % 26);
+         
+         if(i % 4096 == 4095) {
+            array[i] = '\r';
+         }
+      }
+      return array;
+   }
+   
+   private static int terminal(byte[] array, boolean words) {
+      int scan = 0;
+      int pos = 0;
+      
+      while(pos < array.length) {
+         if(words && scan == 0) {
+            pos = ByteScanner.indexOf(array, TERMINAL[0], pos, array.length);
+            
+            if(pos < 0) {
+               return -1;
+            }
+         }
+         if(array[pos++] != TERMINAL[scan++]) {
+            scan = 0;
+         }
+         if(scan == TERMINAL.length) {
+            return pos;
+         }
+      }
+      return -1;
+   }
+   
+   private static int count(byte[] array, boolean words) {
+      int count = 0;
+      
+      if(words) {
+         for(int off = ByteScanner.indexOf(array, (byte)'\r', 0, array.length); off >= 0; off = ByteScanner.indexOf(array, (byte)'\r', off + 1, array.length)) {
+            count++;
+         }
+      } else {
+         for(int off = 0; off < array.length; off++) {
+            if(array[off] == '\r') {
+               count++;
+            }
+         }
+      }
+      return count;
+   }
+   
+   private static long measureHeader(byte[] array, boolean words) {
+      long start = System.currentTimeMillis();
+      int total = 0;
+      
+      for(int i = 0; i < ITERATIONS; i++) {
+         total += terminal(array, words);
+      }
+      assertEquals(array.length * ITERATIONS, total);
+      return System.currentTimeMillis() - start;
+   }
+   
+   private static long measureBody(byte[] array, boolean words, int expect) {
+      long start = System.currentTimeMillis();
+      int total = 0;
+      
+      for(int i = 0; i < 100; i++) {
+         total += count(array, words);
+      }
+      assertEquals(expect * 100, total);
+      return System.currentTimeMillis() - start;
+   }
+   
+   public void testScanner() throws Exception {
+      byte[] header = header();
+      byte[] body = body(4 * 1024 * 1024);
+      int expect = count(body, false);
+      
+      for(int i = 0; i < 4; i++) {
+         long bytes = measureHeader(header, false);
+         long words = measureHeader(header, true);
+         
+         System.err.println("header bytes=" + bytes + " ms words=" + words + " ms for " + ITERATIONS + " headers of " + header.length + " bytes");
+      }
+      for(int i = 0; i < 4; i++) {
+         long bytes = measureBody(body, false, expect);
+         long words = measureBody(body, true, expect);
+         
+         System.err.println("body bytes=" + bytes + " ms words=" + words + " ms for 100 bodies of " + body.length + " bytes");
+      }
+   }
+}
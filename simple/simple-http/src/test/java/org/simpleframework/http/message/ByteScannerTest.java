@@ -0,0 +1,61 @@
+package org.simpleframework.http.message;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class ByteScannerTest extends TestCase {
+   
+   private static int search(byte[] array, byte octet, int off, int end) {
+      for(int i = off; i < end; i++) {
+         if(array[i] == octet) {
+            return i;
+         }
+      }
+      return -1;
+   }
+   
+   public void testEveryPosition() throws Exception {
+      byte[] array = new byte[40];
+      
+      for(int i = 0; i < array.length; i++) {
+         array[i] = 'a';
+      }
+      for(int i = 0; i < array.length; i++) {
+         array[i] = '\r';
+         
+         for(int off = 0; off <= array.length; off++) {
+            for(int end = off; end <= array.length; end++) {
+               assertEquals(search(array, (byte)'\r', off, end), ByteScanner.indexOf(array, (byte)'\r', off, end));
+            }
+         }
+         array[i] = 'a';
+      }
+   }
+   
+   public void testRandomBytes() throws Exception {
+      Random random = new Random(1);
+      byte[] array = new byte[1024];
+      
+      for(int i = 0; i < 1000; i++) {
+         random.nextBytes(array);
+         
+         int off = random.nextInt(array.length);
+         int end = off + random.nextInt(array.length - off + 1);
+         byte octet = (byte)random.nextInt(256);
+         
+         assertEquals(search(array, octet, off, end), ByteScanner.indexOf(array, octet, off, end));
+      }
+   }
+   
+   public void testHighBytes() throws Exception {
+      byte[] array = new byte[] { (byte)0x80, (byte)0xff, 0x7f, 0x00, 0x01, (byte)0x8d, 0x0d, 0x0a, 0x0d };
+      
+      assertEquals(6, ByteScanner.indexOf(array, (byte)0x0d, 0, array.length));
+      assertEquals(5, ByteScanner.indexOf(array, (byte)0x8d, 0, array.length));
+      assertEquals(3, ByteScanner.indexOf(array, (byte)0x00, 0, array.length));
+      assertEquals(1, ByteScanner.indexOf(array, (byte)0xff, 0, array.length));
+      assertEquals(8, ByteScanner.indexOf(array, (byte)0x0d, 7, array.length));
+      assertEquals(-1, ByteScanner.indexOf(array, (byte)0x0e, 0, array.length));
+   }
+}
@@ -0,0 +1,207 @@
+package org.simpleframework.http.message;
+
+import java.io.InputStream;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.simpleframework.common.buffer.Allocator;
+import org.simpleframework.common.buffer.Buffer;
+
+public class ContentConsumerPerformanceTest extends TestCase {
+
+   private static final byte[] BOUNDARY = "----WebKitFormBoundary7MA4YWxkTrZu0gW".getBytes();
+
+   private static final long PAYLOAD = 1024L * 1024L * 1024L;
+
+   private static final int CHUNK = 8192;
+
+   private static class CountBuffer implements Buffer {
+
+      private long count;
+
+      public Buffer allocate() {
+         return this;
+      }
+
+      public InputStream open() {
+         return null;
+      }
+
+      public String encode() {
+         return null;
+      }
+
+      public String encode(String charset) {
+         return null;
+      }
+
+      public Buffer append(byte[] array) {
+         return append(array, 0, array.length);
+      }
+
+      public Buffer append(byte[] array, int off, int len) {
+         count += len;
+         return this;
+      }
+
+      public void clear() {
+         count = 0;
+      }
+
+      public void close() {}
+
+      public long length() {
+         return count;
+      }
+   }
+
+   private static class CountAllocator implements Allocator {
+
+      private final CountBuffer buffer = new CountBuffer();
+
+      public Buffer allocate() {
+         return buffer;
+      }
+
+      public Buffer allocate(long size) {
+         return buffer;
+      }
+   }
+
+   private static class ByteScanConsumer {
+
+      private static final byte[] START = { '\r', '\n', '-', '-' };
+
+      private final CountBuffer buffer = new CountBuffer();
+      private final byte[] boundary;
+      private boolean finished;
+      private int start;
+      private int seek;
+
+      public ByteScanConsumer(byte[] boundary) {
+         this.boundary = boundary;
+      }
+
+      public int update(byte[] array, int off, int size) {
+         int skip = start + seek;
+         int last = off + size;
+         int next = start;
+         int mark = off;
+
+         while(off < last) {
+            if(start == START.length) {
+               if(array[off++] != boundary[seek++]) {
+                  if(skip > 0) {
+                     buffer.append(START, 0, next);
+                     buffer.append(boundary, 0, skip - next);
+                  }
+                  skip = start = seek = 0;
+               }
+               if(seek == boundary.length) {
+                  int excess = seek + start;
+                  int total = off - mark;
+                  int valid = total - excess;
+
+                  finished = true;
+
+                  if(valid > 0) {
+                     buffer.append(array, mark, valid);
+                  }
+                  return size - total;
+               }
+            } else {
+               byte octet = array[off++];
+
+               if(octet != START[start++]) {
+                  if(skip > 0) {
+                     buffer.append(START, 0, next);
+                  }
+                  skip = start = 0;
+
+                  if(octet == START[0]) {
+                     start++;
+                  }
+               }
+            }
+         }
+         int excess = seek + start;
+         int total = off - mark;
+         int valid = total - excess;
+
+         if(valid > 0) {
+            buffer.append(array, mark, valid);
+         }
+         return 0;
+      }
+   }
+
+   private static byte[] payload(boolean hostile) {
+      byte[] noise = "\r\n-".getBytes();
+      byte[] block = new byte[1024 * 1024];
+      Random random = new Random(1);
+
+      random.nextBytes(block);
+
+      if(hostile) {
+         for(int i = 0; i < block.length; i++) {
+            if(random.nextInt(4) == 0) {
+               block[i] = noise[random.nextInt(noise.length)];
+            }
+         }
+      }
+      return block;
+   }
+
+   private static long measure(byte[] block, boolean horspool) throws Exception {
+      long start = System.currentTimeMillis();
+      long total = 0;
+
+      if(horspool) {
+         CountAllocator allocator = new CountAllocator();
+         ContentConsumer consumer = new ContentConsumer(allocator, new MockSegment(), new PartData(), BOUNDARY);
+
+         for(long done = 0; done < PAYLOAD; done += block.length) {
+            for(int off = 0; off < block.length; off += CHUNK) {
+               consumer.update(block, off, Math.min(CHUNK, block.length - off));
+            }
+         }
+         total = allocator.buffer.length();
+      } else {
+         ByteScanConsumer consumer = new ByteScanConsumer(BOUNDARY);
+
+         for(long done = 0; done < PAYLOAD; done += block.length) {
+            for(int off = 0; off < block.length; off += CHUNK) {
+               consumer.update(block, off, Math.min(CHUNK, block.length - off));
+            }
+         }
+         total = consumer.buffer.length();
+         assertFalse(consumer.finished);
+      }
+      long time = System.currentTimeMillis() - start;
+
+      assertTrue(total > PAYLOAD - BOUNDARY.length - 4);
+      return time;
+   }
+
+   private static void report(String name, byte[] block) throws Exception {
+      for(int i = 0; i < 2; i++) {
+         long bytes = measure(block, false);
+         long horspool = measure(block, true);
+
+         System.err.println(name + " bytes=" + bytes + " ms (" + rate(bytes) + " MB/s) horspool=" + horspool + " ms (" + rate(horspool) + " MB/s) for " + (PAYLOAD >> 20) + " MB");
+      }
+   }
+
+   private static long rate(long time) {
+      return (PAYLOAD >> 20) * 1000 / Math.max(1, time);
+   }
+
+   public void testRandomUpload() throws Exception {
+      report("random", payload(false));
+   }
+
+   public void testHostileUpload() throws Exception {
+      report("hostile", payload(true));
+   }
+}
@@ -1,6 +1,7 @@
 package org.simpleframework.http.message;
 
 import java.io.IOException;
+import java.util.Random;
 
 import junit.framework.TestCase;
 
@@ -89,6 +90,49 @@ public class ContentConsumerTest extends TestCase implements Allocator {
       assertEquals(consumer.getPart().getContentType().getSecondary(), "plain");
    }
 
+   public void testAmbiguousContent() throws Exception {
+      String[] pieces = { "\r", "\n", "-", "--", "\r\n", "\r\n-", "\r\n--", "\r\n--A", "\r\n--AaB0", "\r\n--AaB03", "AaB03x", "\r\r\n--", "x", "text" };
+      Random random = new Random(1);
+      
+      for(int i = 0; i < 2000; i++) {
+         StringBuilder builder = new StringBuilder();
+         int count = random.nextInt(40);
+         
+         for(int j = 0; j < count; j++) {
+            builder.append(pieces[random.nextInt(pieces.length)]);
+         }
+         testAmbiguousContent(builder.toString(), 1 + random.nextInt(12));
+      }
+   }
+   
+   private void testAmbiguousContent(String content, int dribble) throws Exception {
+      MockSegment segment = new MockSegment();
+      PartData list = new PartData();
+      ContentConsumer consumer = new ContentConsumer(this, segment, list, BOUNDARY); 
+      String delimiter = "\r\n--" + new String(BOUNDARY, "UTF-8");
+      String message = content + delimiter + "--\r\n";
+      
+      segment.add("Content-Disposition", "form-data; name='file'; filename='file.txt'");
+      segment.add("Content-Type", "text/plain");
+      
+      if(content.indexOf(delimiter) != -1) {
+         return;
+      }
+      DribbleCursor cursor = new DribbleCursor(new StreamCursor(message), dribble);
+      
+      buffer = new ArrayAllocator().allocate();
+      
+      while(!consumer.isFinished()) {
+         consumer.consume(cursor);
+      }
+      assertEquals(content, buffer.encode("UTF-8"));
+      
+      for(int i = 0; i < delimiter.length(); i++) {
+         assertEquals(delimiter.charAt(i), cursor.read());
+      }
+      assertEquals('-', cursor.read());
+   }
+
    public void close() throws IOException {
       // TODO Auto-generated method stub
       
@@ -0,0 +1,110 @@
+package org.simpleframework.http.message;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+public class HeaderIndexTest extends TestCase {
+   
+   private static final String SOURCE =
+   "Host: some.host.com\r\n"+
+   "content-length: 42\r\n"+
+   "Accept: text/html\r\n"+
+   "ACCEPT: image/png\r\n"+
+   "X-Empty:\r\n"+
+   "\r\n";
+   
+   private static HeaderIndex index(String source) throws Exception {
+      byte[] data = source.getBytes("ISO-8859-1");
+      HeaderIndex index = new HeaderIndex(2);
+      int line = 0;
+      
+      while(data[line] != '\r') {
+         int colon = line;
+         int end = line;
+         
+         while(data[colon] != ':') {
+            colon++;
+         }
+         end = colon;
+         
+         while(data[end] != '\r') {
+            end++;
+         }
+         int value = colon + 1;
+         
+         while(value < end && data[value] == ' ') {
+            value++;
+         }
+         index.index(data, line, colon - line, value, end - value);
+         line = end + 2;
+      }
+      return index;
+   }
+   
+   public void testLookup() throws Exception {
+      HeaderIndex index = index(SOURCE);
+      
+      assertEquals(index.size(), 5);
+      assertEquals(index.getValue("host"), "some.host.com");
+      assertEquals(index.getValue("HOST"), "some.host.com");
+      assertEquals(index.getValue("Content-Length"), "42");
+      assertEquals(index.getInteger("Content-Length"), 42);
+      assertEquals(index.getValue("Accept"), "text/html");
+      assertEquals(index.getValue("Accept", 1), "image/png");
+      assertEquals(index.getValue("Accept", 2), null);
+      assertEquals(index.getValue("X-Empty"), "");
+      assertEquals(index.getValue("X-Missing"), null);
+      assertEquals(index.getInteger("X-Missing"), -1);
+      assertEquals(index.getDate("X-Missing"), -1);
+      assertEquals(index.getAll("accept").size(), 2);
+      assertEquals(index.getValues("Accept").size(), 2);
+      assertTrue(index.isName("CONTENT-LENGTH", 1));
+      assertFalse(index.isName("Content-Lengthx", 1));
+      assertFalse(index.isName("Content-Lengtx", 1));
+   }
+   
+   public void testNames() throws Exception {
+      HeaderIndex index = index(SOURCE);
+      List<String> names = index.getNames();
+      
+      assertEquals(names.size(), 4);
+      assertEquals(names.get(0), "Host");
+      assertEquals(names.get(1), "content-length");
+      assertEquals(names.get(2), "Accept");
+      assertEquals(names.get(3), "X-Empty");
+   }
+   
+   public void testModify() throws Exception {
+      HeaderIndex index = index(SOURCE);
+      
+      index.setValue("accept", "*/*");
+      
+      assertEquals(index.getValue("Accept"), "*/*");
+      assertEquals(index.getValue("Accept", 1), null);
+      assertEquals(index.getValue("Host"), "some.host.com");
+      assertEquals(index.getValue("X-Empty"), "");
+      
+      index.addValue("A", "a");
+      index.addInteger("A", 1);
+      index.addValue("A", null);
+      
+      assertEquals(index.getValue("a"), "a");
+      assertEquals(index.getValue("a", 1), "1");
+      assertEquals(index.getValue("a", 2), null);
+      
+      index.setValue("A", null);
+      index.setValue("Host", null);
+      
+      assertEquals(index.getValue("A"), null);
+      assertEquals(index.getValue("Host"), null);
+      assertEquals(index.getValue("content-length"), "42");
+      assertEquals(index.size(), 3);
+      
+      index.setCookie("A", "b");
+      
+      assertEquals(index.getCookie("A").getValue(), "b");
+      assertEquals(index.getCookies().size(), 1);
+      assertEquals(index.getCookie("B"), null);
+   }
+}
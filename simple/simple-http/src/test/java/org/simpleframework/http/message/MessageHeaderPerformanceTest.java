@@ -0,0 +1,139 @@
+package org.simpleframework.http.message;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+public class MessageHeaderPerformanceTest extends TestCase {
+   
+   private static final int ITERATIONS = 1000000;
+   
+   private static interface Header {
+      void addValue(String name, String value);
+      void setValue(String name, String value);
+      String getValue(String name);
+      List<String> getNames();
+      List<String> getAll(String name);
+   }
+   
+   private static class FlatHeader implements Header {
+      
+      private final MessageHeader header = new MessageHeader();
+      
+      public void addValue(String name, String value) {
+         header.addValue(name, value);
+      }
+      
+      public void setValue(String name, String value) {
+         header.setValue(name, value);
+      }
+      
+      public String getValue(String name) {
+         return header.getValue(name);
+      }
+      
+      public List<String> getNames() {
+         return header.getNames();
+      }
+      
+      public List<String> getAll(String name) {
+         return header.getAll(name);
+      }
+   }
+   
+   private static class MapHeader implements Header {
+      
+      private final Map<String, List<String>> values = new LinkedHashMap<String, List<String>>();
+      private final Map<String, String> names = new LinkedHashMap<String, String>();
+      
+      public void addValue(String name, String value) {
+         getAll(name).add(value);
+      }
+      
+      public void setValue(String name, String value) {
+         List<String> list = getAll(name);
+         
+         list.clear();
+         list.add(value);
+      }
+      
+      public String getValue(String name) {
+         List<String> list = getAll(name);
+         
+         if(list.size() > 0) {
+            return list.get(0);
+         }
+         return null;
+      }
+      
+      public List<String> getNames() {
+         return new ArrayList<String>(names.values());
+      }
+      
+      public List<String> getAll(String name) {
+         String token = name.toLowerCase();
+         List<String> list = values.get(token);
+         
+         if(list == null) {
+            list = new LinkedList<String>();
+            names.put(token, name);
+            values.put(token, list);
+         }
+         return list;
+      }
+   }
+   
+   private static int respond(Header header) {
+      int size = 0;
+      
+      header.addValue("Content-Type", "text/html; charset=UTF-8");
+      header.addValue("Server", "Simple/5.1");
+      header.addValue("Date", "Mon, 19 Oct 2026 10:00:00 GMT");
+      header.addValue("Connection", "keep-alive");
+      header.addValue("Set-Cookie", "a=b; path=/");
+      header.addValue("Set-Cookie", "c=d; path=/");
+      
+      if(header.getValue("Content-Length") == null) {
+         header.setValue("Transfer-Encoding", "chunked");
+      }
+      if(header.getValue("content-type") != null) {
+         size++;
+      }
+      header.getValue("Connection");
+      header.getValue("Content-Encoding");
+      
+      for(String name : header.getNames()) {
+         for(String value : header.getAll(name)) {
+            size += name.length() + value.length();
+         }
+      }
+      return size;
+   }
+   
+   private static long measure(boolean flat) {
+      long start = System.currentTimeMillis();
+      int size = 0;
+      
+      for(int i = 0; i < ITERATIONS; i++) {
+         Header header = flat ? new FlatHeader() : new MapHeader();
+         size += respond(header);
+      }
+      assertTrue(size > 0);
+      return System.currentTimeMillis() - start;
+   }
+   
+   public void testHeader() throws Exception {
+      assertEquals(respond(new FlatHeader()), respond(new MapHeader()));
+      
+      for(int i = 0; i < 4; i++) {
+         long map = measure(false);
+         long flat = measure(true);
+         
+         System.err.println("map=" + map + " ms flat=" + flat + " ms for " + ITERATIONS + " responses");
+      }
+   }
+}
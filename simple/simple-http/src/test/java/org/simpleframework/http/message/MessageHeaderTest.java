@@ -1,5 +1,7 @@
 package org.simpleframework.http.message;
 
+import java.util.List;
+
 import junit.framework.TestCase;
 
 public class MessageHeaderTest extends TestCase {
@@ -45,4 +47,95 @@ public class MessageHeaderTest extends TestCase {
       assertEquals(header.getValue("A", 1), "1");
       assertEquals(header.getValue("A", 2), null);
    }
+   
+   public void testOrder() {
+      MessageHeader header = new MessageHeader(2);
+      
+      header.addValue("Content-Type", "text/plain");
+      header.addValue("Set-Cookie", "a=b");
+      header.addValue("Content-Length", "10");
+      header.addValue("set-cookie", "c=d");
+      header.addValue("Server", "Simple");
+      header.addValue("SET-COOKIE", "e=f");
+      
+      List<String> names = header.getNames();
+      
+      assertEquals(names.size(), 4);
+      assertEquals(names.get(0), "Content-Type");
+      assertEquals(names.get(1), "Set-Cookie");
+      assertEquals(names.get(2), "Content-Length");
+      assertEquals(names.get(3), "Server");
+      assertEquals(header.getAll("Set-Cookie").size(), 3);
+      assertEquals(header.getAll("Set-Cookie").get(0), "a=b");
+      assertEquals(header.getAll("Set-Cookie").get(1), "c=d");
+      assertEquals(header.getAll("Set-Cookie").get(2), "e=f");
+      assertEquals(header.getAll("X-Missing").size(), 0);
+      
+      header.setValue("Set-Cookie", "g=h");
+      
+      assertEquals(header.getAll("set-cookie").size(), 1);
+      assertEquals(header.getValue("set-cookie"), "g=h");
+      assertEquals(names.get(1), "Set-Cookie");
+      assertEquals(header.getValue("Server"), "Simple");
+      
+      header.setValue("Content-Type", null);
+      
+      assertEquals(names.size(), 3);
+      assertEquals(names.get(0), "Set-Cookie");
+      assertEquals(header.getValue("Content-Type"), null);
+      assertEquals(header.getValue("Content-Length"), "10");
+      
+      StringBuilder builder = new StringBuilder();
+      
+      for(String name : names) {
+         for(String value : header.getAll(name)) {
+            builder.append(name).append(": ").append(value).append("\n");
+         }
+      }
+      assertEquals(builder.toString(), "Set-Cookie: g=h\nContent-Length: 10\nServer: Simple\n");
+   }
+   
+   public void testExpand() {
+      MessageHeader header = new MessageHeader(1);
+      
+      for(int i = 0; i < 100; i++) {
+         header.addValue("Header-" + (i % 10), String.valueOf(i));
+      }
+      assertEquals(header.getNames().size(), 10);
+      
+      for(int i = 0; i < 10; i++) {
+         List<String> values = header.getAll("HEADER-" + i);
+         
+         assertEquals(values.size(), 10);
+         
+         for(int j = 0; j < 10; j++) {
+            assertEquals(values.get(j), String.valueOf(j * 10 + i));
+         }
+      }
+   }
+   
+   public void testOddCapacity() {
+      for(int capacity = 0; capacity < 20; capacity++) {
+         MessageHeader header = new MessageHeader(capacity);
+         
+         for(int i = 0; i < 50; i++) {
+            header.addValue("Header-" + i, "value-" + i);
+            header.addValue("HEADER-" + i, "other-" + i);
+         }
+         List<String> names = header.getNames();
+         
+         assertEquals(50, names.size());
+         
+         for(int i = 0; i < 50; i++) {
+            assertEquals("Header-" + i, names.get(i));
+            assertEquals("value-" + i, header.getValue("header-" + i));
+            assertEquals("other-" + i, header.getValue("header-" + i, 1));
+         }
+         header.setValue("Header-10", null);
+         
+         assertEquals(49, names.size());
+         assertEquals("Header-11", names.get(10));
+         assertNull(header.getValue("Header-10"));
+      }
+   }
 }
@@ -0,0 +1,172 @@
+package org.simpleframework.http.message;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.simpleframework.common.buffer.ArrayAllocator;
+import org.simpleframework.http.Part;
+
+public class PartListTest extends TestCase {
+
+   private static final String BOUNDARY = "----WebKitFormBoundary7MA4YWxkTrZu0gW";
+
+   private static class DribbleInputStream extends InputStream {
+
+      private final byte[] data;
+      private final Random random;
+      private final int dribble;
+      private int pos;
+
+      public DribbleInputStream(byte[] data, int dribble) {
+         this.random = new Random(dribble);
+         this.dribble = dribble;
+         this.data = data;
+      }
+
+      public int read() {
+         if(pos >= data.length) {
+            return -1;
+         }
+         return data[pos++] & 0xff;
+      }
+
+      public int read(byte[] array, int off, int size) {
+         int count = Math.min(size, Math.min(data.length - pos, 1 + random.nextInt(dribble)));
+
+         if(count <= 0) {
+            return -1;
+         }
+         System.arraycopy(data, pos, array, off, count);
+         pos += count;
+         return count;
+      }
+   }
+
+   private static byte[] content(Random random, int length) throws Exception {
+      byte[] noise = ("\r\n-" + BOUNDARY.substring(0, 10)).getBytes("ISO-8859-1");
+      byte[] data = new byte[length];
+
+      for(int i = 0; i < length; i++) {
+         if(random.nextInt(3) == 0) {
+            data[i] = noise[random.nextInt(noise.length)];
+         } else {
+            data[i] = (byte)random.nextInt(256);
+         }
+      }
+      return data;
+   }
+
+   private static byte[] body(byte[][] parts, String preamble) throws Exception {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+      out.write(preamble.getBytes("ISO-8859-1"));
+
+      for(int i = 0; i < parts.length; i++) {
+         if(i > 0 || preamble.length() > 0) {
+            out.write("\r\n".getBytes("ISO-8859-1"));
+         }
+         out.write(("--" + BOUNDARY + "\r\n").getBytes("ISO-8859-1"));
+         out.write(("Content-Disposition: form-data; name=\"part" + i + "\"; filename=\"file" + i + ".bin\"\r\n").getBytes("ISO-8859-1"));
+         out.write("Content-Type: application/octet-stream\r\n\r\n".getBytes("ISO-8859-1"));
+         out.write(parts[i]);
+      }
+      out.write(("\r\n--" + BOUNDARY + "--\r\nepilogue").getBytes("ISO-8859-1"));
+      return out.toByteArray();
+   }
+
+   private static byte[] read(Part part) throws Exception {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      InputStream in = part.getInputStream();
+      byte[] chunk = new byte[100];
+      int count = 0;
+
+      while((count = in.read(chunk)) != -1) {
+         out.write(chunk, 0, count);
+      }
+      return out.toByteArray();
+   }
+
+   private static PartList list(byte[] body, int dribble) {
+      return new PartList(new ArrayAllocator(), new DribbleInputStream(body, dribble), BOUNDARY.getBytes());
+   }
+
+   public void testStreamedParts() throws Exception {
+      Random random = new Random(1);
+
+      for(int dribble = 1; dribble < 200; dribble += 7) {
+         byte[][] parts = new byte[4][];
+
+         for(int i = 0; i < parts.length; i++) {
+            parts[i] = content(random, random.nextInt(5000));
+         }
+         byte[] body = body(parts, dribble % 2 == 0 ? "" : "preamble");
+         int index = 0;
+
+         for(Part part : list(body, dribble)) {
+            assertEquals("part" + index, part.getName());
+            assertEquals("file" + index + ".bin", part.getFileName());
+            assertEquals("application/octet-stream", part.getContentType().getType());
+            assertTrue(Arrays.equals(parts[index++], read(part)));
+         }
+         assertEquals(parts.length, index);
+      }
+   }
+
+   public void testUnreadParts() throws Exception {
+      Random random = new Random(2);
+      byte[][] parts = new byte[5][];
+
+      for(int i = 0; i < parts.length; i++) {
+         parts[i] = content(random, 3000);
+      }
+      byte[] body = body(parts, "");
+      PartList list = list(body, 50);
+      Part last = list.getPart("part3");
+      InputStream first = list.get(0).getInputStream();
+      byte[] start = new byte[10];
+
+      assertEquals("part3", last.getName());
+      assertEquals(10, first.read(start));
+      assertEquals(5, list.size());
+      assertTrue(Arrays.equals(parts[3], read(last)));
+      assertTrue(Arrays.equals(parts[4], read(list.get(4))));
+      assertTrue(Arrays.equals(parts[1], read(list.getPart("part1"))));
+      assertNull(list.getPart("missing"));
+   }
+
+   public void testPartialRead() throws Exception {
+      byte[][] parts = { "first value".getBytes(), "second value".getBytes() };
+      PartList list = list(body(parts, ""), 3);
+      Part first = list.get(0);
+      InputStream in = first.getInputStream();
+
+      assertEquals('f', in.read());
+      assertEquals('i', in.read());
+      assertEquals("second value", list.get(1).getContent());
+      assertEquals("rst value", new String(read(first)));
+      assertEquals(2, list.size());
+   }
+
+   public void testTruncatedBody() throws Exception {
+      byte[][] parts = { "value".getBytes() };
+      byte[] body = body(parts, "");
+      byte[] truncated = new byte[body.length - BOUNDARY.length() - 14];
+
+      System.arraycopy(body, 0, truncated, 0, truncated.length);
+
+      PartList list = list(truncated, 5);
+      Part part = list.get(0);
+
+      try {
+         read(part);
+         fail("Truncated body should fail");
+      } catch(IOException e) {
+         assertNotNull(e.getMessage());
+      }
+   }
+}
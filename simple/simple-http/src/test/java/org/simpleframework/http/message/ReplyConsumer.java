@@ -66,8 +66,9 @@ public class ReplyConsumer extends RequestConsumer implements ResponseHeader {
    }
 
    @Override
-   protected void add(String name, String value) {
-      if(equal("Set-Cookie", name)) { // A=b; version=1; path=/;  
+   protected void add(int token, int index) {
+      if(token == TokenTable.SET_COOKIE) { // A=b; version=1; path=/;  
+         String value = header.getValue(index);
          String[] list = value.split(";"); // "A=b", "version=1", "path=/" 
 
          if(list.length > 0) {
@@ -78,7 +79,7 @@ public class ReplyConsumer extends RequestConsumer implements ResponseHeader {
             }
          }
       }
-      super.add(name, value);
+      super.add(token, index);
    }
 
    @Override
@@ -0,0 +1,73 @@
+package org.simpleframework.http.message;
+
+import junit.framework.TestCase;
+
+import org.simpleframework.http.Protocol;
+
+public class TokenTableTest extends TestCase {
+   
+   private static int find(TokenTable table, String text) throws Exception {
+      byte[] data = ("  " + text + "  ").getBytes("ISO-8859-1");
+      return table.find(data, 2, data.length - 4);
+   }
+   
+   public void testHeaders() throws Exception {
+      String[] names = {
+      Protocol.ACCEPT,
+      Protocol.CONTENT_LENGTH,
+      Protocol.CONTENT_TYPE,
+      Protocol.SEC_WEBSOCKET_KEY,
+      Protocol.SET_COOKIE,
+      Protocol.TE,
+      Protocol.WWW_AUTHENTICATE };
+      
+      for(String name : names) {
+         int token = find(TokenTable.HEADER, name);
+         
+         assertTrue(name, token >= 0);
+         assertSame(TokenTable.HEADER.get(token), name);
+         assertEquals(find(TokenTable.HEADER, name.toLowerCase()), token);
+         assertEquals(find(TokenTable.HEADER, name.toUpperCase()), token);
+      }
+      assertEquals(find(TokenTable.HEADER, "Content-Length"), TokenTable.CONTENT_LENGTH);
+      assertEquals(find(TokenTable.HEADER, "set-cookie"), TokenTable.SET_COOKIE);
+      assertEquals(find(TokenTable.HEADER, "X-Forwarded-For"), -1);
+      assertEquals(find(TokenTable.HEADER, "Content-Lengths"), -1);
+      assertEquals(find(TokenTable.HEADER, ""), -1);
+   }
+   
+   public void testExact() throws Exception {
+      byte[] data = "content-length".getBytes("ISO-8859-1");
+      
+      assertFalse(TokenTable.HEADER.exact(data, 0, data.length, TokenTable.CONTENT_LENGTH));
+      
+      data = "Content-Length".getBytes("ISO-8859-1");
+      
+      assertTrue(TokenTable.HEADER.exact(data, 0, data.length, TokenTable.CONTENT_LENGTH));
+   }
+   
+   public void testMethods() throws Exception {
+      String[] methods = { "CONNECT", "DELETE", "GET", "HEAD", "OPTIONS", "POST", "PUT", "TRACE" };
+      
+      for(String method : methods) {
+         int token = find(TokenTable.METHOD, method);
+         
+         assertTrue(method, token >= 0);
+         assertSame(TokenTable.METHOD.get(token), method);
+      }
+      assertEquals(find(TokenTable.METHOD, "get"), -1);
+      assertEquals(find(TokenTable.METHOD, "PATCH"), -1);
+      assertEquals(find(TokenTable.METHOD, "GETS"), -1);
+   }
+   
+   public void testCollision() throws Exception {
+      boolean failure = false;
+      
+      try {
+         new TokenTable(new String[]{"A", "A"}, 1, 4, false);
+      } catch(IllegalStateException e) {
+         failure = true;
+      }
+      assertTrue(failure);
+   }
+}
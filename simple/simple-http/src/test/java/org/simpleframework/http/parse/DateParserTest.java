@@ -1,6 +1,10 @@
 package org.simpleframework.http.parse;
 
+import java.text.SimpleDateFormat;
 import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
 import java.util.TimeZone;
 
 import junit.framework.TestCase;
@@ -52,4 +56,34 @@ public class DateParserTest extends TestCase {
 
 
    }
+
+   public void testArithmetic() throws Exception {
+      SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+      Random random = new Random(1);
+
+      format.setTimeZone(TimeZone.getTimeZone("GMT"));
+
+      for(int i = 0; i < 100000; i++) {
+         long time = (random.nextLong() & Long.MAX_VALUE) % 8000000000000L;
+         long second = time - time % 1000;
+         DateParser parser = new DateParser(time);
+
+         assertEquals(format.format(new Date(time)), parser.toString());
+         assertEquals(second, parser.toLong());
+         assertEquals(second, new DateParser(parser.toString()).toLong());
+      }
+      assertEquals("Thu, 01 Jan 1970 00:00:00 GMT", new DateParser(0).toString());
+      assertEquals("Tue, 29 Feb 2000 23:59:59 GMT", new DateParser(951868799000L).toString());
+      assertEquals("Sat, 02 Mar 2030 00:00:00 GMT", new DateParser(new DateParser("Thu, 29 Feb 2030 24:00:00 GMT").toLong()).toString());
+   }
+
+   public void testClock() throws Exception {
+      long time = System.currentTimeMillis();
+      String date = DateClock.getDate(time);
+      byte[] data = DateClock.getBytes();
+
+      assertEquals(new DateParser(time).toString(), date);
+      assertEquals(29, data.length);
+      assertEquals(new DateParser(0).toString(), DateClock.getDate(0));
+   }
 }
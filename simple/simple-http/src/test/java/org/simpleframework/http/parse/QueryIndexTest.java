@@ -0,0 +1,104 @@
+package org.simpleframework.http.parse;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import junit.framework.TestCase;
+
+import org.simpleframework.http.Query;
+
+public class QueryIndexTest extends TestCase {
+   
+   private static final String[] QUERIES = {
+      "",
+      "a=",
+      "a=&b=c",
+      "a=b&c=d&e=f&",
+      "a=1&a=2&a=3",
+      "a=b&c=d&c=d&a=1",
+      "name=some+value&other=%41%42%43",
+      "utf=%C3%A9t%C3%A9&latin=%E9t%E9&sign=%E2%82%AC&end=%4",
+      "na%6De=value&n+x=y&=empty",
+      "x=a=b=c&y==",
+   };
+   
+   public void testCompatibility() throws Exception {
+      for(String text : QUERIES) {
+         QueryParser expect = new QueryParser(text);
+         
+         for(String name : expect.keySet()) {
+            QueryIndex index = new QueryIndex(text);
+            
+            assertEquals(text, expect.get(name), index.get(name));
+            assertEquals(text, expect.getAll(name), index.getAll(name));
+            assertTrue(text, index.containsKey(name));
+         }
+         QueryIndex index = new QueryIndex(text);
+         
+         assertNull(index.get("missing"));
+         assertNull(index.getAll("missing"));
+         assertEquals(text, expect.size(), index.size());
+         assertEquals(text, expect.keySet(), index.keySet());
+      }
+   }
+   
+   public void testRawBytes() throws Exception {
+      QueryIndex index = new QueryIndex("city=München&café=yes&bad=%zz&flag&&x=1");
+      
+      assertEquals("München", index.get("city"));
+      assertEquals("yes", index.get("café"));
+      assertEquals("%zz", index.get("bad"));
+      assertEquals("", index.get("flag"));
+      assertEquals("1", index.get("x"));
+   }
+   
+   public void testCharset() throws Exception {
+      byte[] latin = "city=M\u00fcnchen&raw=M\u00c3\u00bcnchen&escaped=%C3%BC".getBytes("ISO-8859-1");
+      Query form = new QueryIndex(null, new DribbleInputStream(latin), "ISO-8859-1");
+      
+      assertEquals("M\u00fcnchen", form.get("city"));
+      assertEquals("M\u00c3\u00bcnchen", form.get("raw"));
+      assertEquals("\u00fc", form.get("escaped"));
+      
+      byte[] cyrillic = "name=\u0416\u0443\u043a+\u0416&\u0416=yes".getBytes("ISO-8859-5");
+      Query other = new QueryIndex(null, new DribbleInputStream(cyrillic), "ISO-8859-5");
+      
+      assertEquals("\u0416\u0443\u043a \u0416", other.get("name"));
+      assertEquals("yes", other.get("\u0416"));
+      
+      byte[] unicode = "city=M\u00fcnchen".getBytes("UTF-8");
+      Query utf = new QueryIndex(null, new DribbleInputStream(unicode), "utf-8");
+      
+      assertEquals("M\u00fcnchen", utf.get("city"));
+   }
+   
+   public void testFormPost() throws Exception {
+      Query query = new QueryIndex("a=query_A&b=query_B&c=query_C");
+      InputStream source = new DribbleInputStream("a=post_A&c=post%20C&e=post+E".getBytes("UTF-8"));
+      Query form = new QueryIndex(query, source);
+      
+      assertEquals("query_A", form.get("a"));
+      assertEquals("post_E", form.get("e").replace(' ', '_'));
+      assertEquals(2, form.getAll("a").size());
+      assertEquals("post C", form.getAll("c").get(1));
+      assertEquals(1, form.getAll("b").size());
+      assertEquals(4, form.size());
+      
+      form.put("z", "last");
+      
+      assertEquals("last", form.get("z"));
+      assertEquals("query_A", form.get("a"));
+      assertEquals(5, form.size());
+   }
+   
+   private static class DribbleInputStream extends ByteArrayInputStream {
+      
+      public DribbleInputStream(byte[] data) {
+         super(data);
+      }
+      
+      public int read(byte[] array, int off, int size) {
+         return super.read(array, off, Math.min(size, 3));
+      }
+   }
+}
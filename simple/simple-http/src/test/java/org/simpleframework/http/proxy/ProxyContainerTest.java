@@ -0,0 +1,241 @@
+package org.simpleframework.http.proxy;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.simpleframework.common.buffer.ArrayAllocator;
+import org.simpleframework.http.Request;
+import org.simpleframework.http.Response;
+import org.simpleframework.http.client.Client;
+import org.simpleframework.http.client.ClientRequest;
+import org.simpleframework.http.client.ClientResponse;
+import org.simpleframework.http.client.SocketClient;
+import org.simpleframework.http.core.Container;
+import org.simpleframework.http.core.ContainerSocketProcessor;
+import org.simpleframework.transport.connect.Connection;
+import org.simpleframework.transport.connect.SocketConnection;
+
+public class ProxyContainerTest extends TestCase {
+   
+   private static final int HUGE = 32 * 1024 * 1024;
+   
+   private static class NamedContainer implements Container {
+      
+      private final String name;
+      
+      public NamedContainer(String name) {
+         this.name = name;
+      }
+      
+      public void handle(Request request, Response response) {
+         try {
+            String path = request.getPath().getPath();
+            String content = request.getContent();
+            String forwarded = request.getValue("X-Forwarded-For");
+            
+            response.setValue("Content-Type", "text/plain");
+            response.setValue("X-Upstream", name);
+            response.setValue("X-Forwarded", String.valueOf(forwarded));
+            response.setValue("Connection", "keep-alive");
+            
+            if(path.startsWith("/huge")) {
+               OutputStream out = response.getOutputStream();
+               byte[] chunk = new byte[65536];
+               
+               Arrays.fill(chunk, (byte)'x');
+               response.setContentLength(HUGE);
+               
+               for(int i = 0; i < HUGE; i += chunk.length) {
+                  out.write(chunk);
+               }
+               out.close();
+            } else if(path.startsWith("/large")) {
+               PrintStream out = response.getPrintStream();
+               
+               for(int i = 0; i < 10000; i++) {
+                  out.print("line-" + i + "\n");
+               }
+               out.close();
+            } else {
+               PrintStream out = response.getPrintStream();
+               
+               out.print(name + " " + request.getMethod() + " " + request.getTarget() + " " + content);
+               out.close();
+            }
+         } catch(Exception e) {
+            e.printStackTrace();
+         }
+      }
+   }
+   
+   private List<Connection> connections;
+   private Client client;
+   
+   public void setUp() throws Exception {
+      connections = new ArrayList<Connection>();
+      client = new SocketClient(new ArrayAllocator());
+   }
+   
+   public void tearDown() throws Exception {
+      for(Connection connection : connections) {
+         connection.close();
+      }
+      client.close();
+   }
+   
+   private int start(Container container) throws Exception {
+      ContainerSocketProcessor processor = new ContainerSocketProcessor(container);
+      Connection connection = new SocketConnection(processor);
+      InetSocketAddress address = (InetSocketAddress)connection.connect(new InetSocketAddress("localhost", 0));
+      
+      connections.add(connection);
+      return address.getPort();
+   }
+   
+   public void testRoundRobin() throws Exception {
+      int first = start(new NamedContainer("first"));
+      int second = start(new NamedContainer("second"));
+      List<Upstream> upstreams = Arrays.asList(
+            new Upstream("http://localhost:" + first),
+            new Upstream("http://localhost:" + second + "/"));
+      Client upstream = new SocketClient(new ArrayAllocator());
+      
+      try {
+         int proxy = start(new ProxyContainer(upstream, new RoundRobinSelector(upstreams)));
+         
+         for(int i = 0; i < 10; i++) {
+            ClientRequest request = new ClientRequest("GET", "http://localhost:" + proxy + "/path/" + i + "?a=b");
+            ClientResponse response = client.send(request).get(10, TimeUnit.SECONDS);
+            String name = i % 2 == 0 ? "first" : "second";
+            
+            assertEquals(200, response.getCode());
+            assertEquals(name, response.getValue("X-Upstream"));
+            assertEquals("127.0.0.1", response.getValue("X-Forwarded"));
+            assertEquals(name + " GET /path/" + i + "?a=b ", response.getContent());
+         }
+         assertEquals(5, upstreams.get(0).getRequests());
+         assertEquals(5, upstreams.get(1).getRequests());
+         assertEquals(0, upstreams.get(0).getActive());
+      } finally {
+         upstream.close();
+      }
+   }
+   
+   public void testPostAndLargeResponse() throws Exception {
+      int port = start(new NamedContainer("only"));
+      List<Upstream> upstreams = Arrays.asList(new Upstream("http://localhost:" + port));
+      Client upstream = new SocketClient(new ArrayAllocator(), null, 2, 1);
+      
+      try {
+         int proxy = start(new ProxyContainer(upstream, new LatencySelector(upstreams)));
+         ClientRequest post = new ClientRequest("POST", "http://localhost:" + proxy + "/post");
+         
+         post.setContent("Hello Upstream");
+         
+         ClientResponse response = client.send(post).get(10, TimeUnit.SECONDS);
+         
+         assertEquals(200, response.getCode());
+         assertEquals("only POST /post Hello Upstream", response.getContent());
+         
+         ClientRequest large = new ClientRequest("GET", "http://localhost:" + proxy + "/large");
+         ClientResponse body = client.send(large).get(10, TimeUnit.SECONDS);
+         StringBuilder expect = new StringBuilder();
+         
+         for(int i = 0; i < 10000; i++) {
+            expect.append("line-" + i + "\n");
+         }
+         assertEquals(200, body.getCode());
+         assertEquals(expect.toString(), body.getContent());
+      } finally {
+         upstream.close();
+      }
+   }
+   
+   public void testBadGateway() throws Exception {
+      int port = start(new NamedContainer("closed"));
+      List<Upstream> upstreams = Arrays.asList(new Upstream("http://localhost:" + port));
+      Client upstream = new SocketClient(new ArrayAllocator());
+      
+      try {
+         int proxy = start(new ProxyContainer(upstream, new RoundRobinSelector(upstreams)));
+         
+         connections.get(0).close();
+         
+         ClientRequest request = new ClientRequest("GET", "http://localhost:" + proxy + "/down");
+         ClientResponse response = client.send(request).get(10, TimeUnit.SECONDS);
+         
+         assertEquals(502, response.getCode());
+         assertEquals(1, upstreams.get(0).getErrors());
+      } finally {
+         upstream.close();
+      }
+   }
+   
+   public void testLatencySelector() throws Exception {
+      Upstream fast = new Upstream("http://fast");
+      Upstream slow = new Upstream("http://slow");
+      Upstream broken = new Upstream("http://broken");
+      LatencySelector selector = new LatencySelector(Arrays.asList(slow, broken, fast));
+      
+      for(int i = 0; i < 10; i++) {
+         fast.start();
+         fast.success(10);
+         slow.start();
+         slow.success(100);
+         broken.start();
+         broken.failure(1);
+      }
+      assertSame(fast, selector.select(null));
+      
+      for(int i = 0; i < 20; i++) {
+         fast.start();
+      }
+      assertSame(slow, selector.select(null));
+      assertTrue(broken.getErrorRate() > 0.8);
+      assertEquals(10, broken.getErrors());
+   }
+   
+   public void testSlowClient() throws Exception {
+      int port = start(new NamedContainer("only"));
+      List<Upstream> upstreams = Arrays.asList(new Upstream("http://localhost:" + port));
+      Client upstream = new SocketClient(new ArrayAllocator(), null, 8, 1, 120000, 1);
+      Socket slow = new Socket();
+      
+      try {
+         int proxy = start(new ProxyContainer(upstream, new RoundRobinSelector(upstreams)));
+         
+         slow.connect(new InetSocketAddress("localhost", proxy));
+         slow.getOutputStream().write("GET /huge HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n".getBytes("ISO-8859-1"));
+         
+         InputStream input = slow.getInputStream();
+         byte[] chunk = new byte[65536];
+         long total = input.read(chunk);
+         
+         Thread.sleep(1000);
+         
+         ClientRequest request = new ClientRequest("GET", "http://localhost:" + proxy + "/fast");
+         ClientResponse response = client.send(request).get(10, TimeUnit.SECONDS);
+         
+         assertEquals(200, response.getCode());
+         assertEquals("only GET /fast ", response.getContent());
+         
+         for(int count = 0; count >= 0; count = input.read(chunk)) {
+            total += count;
+         }
+         assertTrue(total > HUGE);
+         assertTrue(total < HUGE + 1024);
+      } finally {
+         slow.close();
+         upstream.close();
+      }
+   }
+}
@@ -20,6 +20,7 @@ package org.simpleframework.transport;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 /**
  * The <code>ByteWriter</code> object is used to send data over the TCP
@@ -76,6 +77,19 @@ public interface ByteWriter {
     */    
    void write(ByteBuffer buffer, int off, int len) throws IOException;
    
+   /**
+    * This method is used to deliver a region of a file to the client.
+    * Any bytes written before the region are delivered first. Where
+    * the transport allows it the region is sent directly from the 
+    * file to the socket, so the bytes are never copied in to memory
+    * by the server. Otherwise the region is read and sent as bytes.
+    *
+    * @param file this is the file containing the region to send
+    * @param position this is the position within the file to send from
+    * @param length this is the number of bytes that are to be sent
+    */
+   void write(FileChannel file, long position, long length) throws IOException;
+   
    /**
     * This method is used to flush the contents of the buffer to 
     * the client. This method will block until such time as all of
@@ -0,0 +1,90 @@
+/*
+ * Credential.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.transport;
+
+/**
+ * The <code>Credential</code> object represents the identity of the
+ * peer process connected over a Unix domain socket. Such a peer has
+ * no network address, instead the operating system provides the
+ * user and group the peer process is running as. Where the platform
+ * does not provide this information the user and group are null.
+ * 
+ * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.transport.Certificate
+ */
+public class Credential {
+   
+   /**
+    * This is the name of the user the peer process runs as.
+    */
+   private final String user;
+   
+   /**
+    * This is the name of the group the peer process runs as.
+    */
+   private final String group;
+   
+   /**
+    * Constructor for the <code>Credential</code> object. This is 
+    * used to create a credential for a peer process. If either the
+    * user or group is not known then it can be provided as null.
+    * 
+    * @param user this is the user the peer process runs as
+    * @param group this is the group the peer process runs as
+    */
+   public Credential(String user, String group) {
+      this.group = group;
+      this.user = user;
+   }
+   
+   /**
+    * This is used to acquire the name of the user that the peer
+    * process is running as. This is determined by the operating 
+    * system and so can be trusted to identify the peer.
+    * 
+    * @return this returns the name of the user for the peer
+    */
+   public String getUser() {
+      return user;
+   }
+   
+   /**
+    * This is used to acquire the name of the group that the peer
+    * process is running as. This is determined by the operating
+    * system and so can be trusted to identify the peer.
+    * 
+    * @return this returns the name of the group for the peer
+    */
+   public String getGroup() {
+      return group;
+   }
+   
+   /**
+    * This provides a textual representation of the credential. It
+    * is of the form user:group and is intended for use when the 
+    * peer is logged in place of a network address.
+    * 
+    * @return this returns a description of the credential
+    */
+   @Override
+   public String toString() {
+      return String.format("%s:%s", user, group);
+   }
+}
@@ -22,6 +22,7 @@ import java.io.IOException;
 
 import javax.net.ssl.SSLEngine;
 
+import org.simpleframework.common.buffer.MemoryBudget;
 import org.simpleframework.transport.reactor.Operation;
 import org.simpleframework.transport.reactor.Reactor;
 
@@ -43,6 +44,11 @@ class OperationFactory {
     */
    private final TransportProcessor processor;
    
+   /**
+    * If provided this is charged with the transport buffers.
+    */
+   private final MemoryBudget budget;
+   
    /**
     * This is the reactor used to register for I/O notifications.
     */   
@@ -105,7 +111,25 @@ class OperationFactory {
     * @param client determines if the SSL handshake is for a client
     */
    public OperationFactory(TransportProcessor processor, Reactor reactor, int buffer, int threshold, boolean client) {
+      this(processor, reactor, buffer, threshold, client, null);
+   }
+   
+   /**
+    * Constructor for the <code>OperationFactory</code> object. This
+    * uses the processor provided to hand off the created transport
+    * when it has been created. If a budget is provided the buffers
+    * for each transport created are charged against it.
+    * 
+    * @param processor the processor used to dispatch the transport
+    * @param reactor this is the reactor used for I/O notifications 
+    * @param buffer this is the initial size of the buffer to use       
+    * @param threshold maximum size of the output buffer to use
+    * @param client determines if the SSL handshake is for a client
+    * @param budget this is the budget to charge buffers to
+    */
+   public OperationFactory(TransportProcessor processor, Reactor reactor, int buffer, int threshold, boolean client, MemoryBudget budget) {
       this.processor = processor;
+      this.budget = budget;
       this.threshold = threshold;
       this.reactor = reactor;
       this.buffer = buffer;
@@ -140,7 +164,7 @@ class OperationFactory {
     * @return this returns the operation used for processing
     */
    private Operation getInstance(Socket socket, SSLEngine engine) throws IOException {
-      Transport transport = new SocketTransport(socket, reactor, buffer, threshold);
+      Transport transport = new SocketTransport(socket, reactor, buffer, threshold, budget);
    
       if(engine != null) {
          return new Handshake(processor, transport, reactor, client);
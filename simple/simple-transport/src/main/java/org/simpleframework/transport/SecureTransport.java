@@ -18,8 +18,11 @@
 
 package org.simpleframework.transport;
 
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SocketChannel;
 import java.util.Map;
 
@@ -40,6 +43,11 @@ import org.simpleframework.transport.trace.Trace;
  */
 class SecureTransport implements Transport {  
    
+   /**
+    * This is the largest segment of a file that is mapped at once.
+    */
+   private static final long SEGMENT = 1024 * 1024;
+   
    /**
     * This is the certificate associated with this SSL connection.
     */
@@ -377,6 +385,32 @@ class SecureTransport implements Transport {
       }
    }
    
+   /**
+    * This method is used to deliver a region of a file to the client.
+    * As the bytes must be encrypted they can not be sent directly from
+    * the file system. Instead the region is mapped in to memory a
+    * segment at a time, and each segment is written as a buffer, so
+    * the file is read without being copied in to the heap first.
+    *
+    * @param file this is the file containing the region to send
+    * @param position this is the position within the file to send from
+    * @param length this is the number of bytes that are to be sent
+    */
+   public void write(FileChannel file, long position, long length) throws IOException {
+      long limit = position + length;
+      
+      if(limit > file.size()) {
+         throw new TransportException("Region exceeds the length of the file");
+      }
+      while(position < limit) {
+         long size = Math.min(limit - position, SEGMENT);
+         ByteBuffer segment = file.map(READ_ONLY, position, size);
+         
+         write(segment);
+         position += size;
+      }
+   }
+   
    /**
     * This method is used to deliver the provided buffer of bytes to
     * the underlying transport. Depending on the connection type the
@@ -24,6 +24,7 @@ import static org.simpleframework.transport.TransportEvent.WRITE;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SocketChannel;
 
 import org.simpleframework.transport.trace.Trace;
@@ -187,6 +188,34 @@ class SocketBuffer {
       return true; // everything was buffered as chunk >= capacity
    }   
    
+   /**
+    * This is used to transfer a region of a file to the socket. The
+    * bytes are sent by the file system directly, so they are never
+    * copied in to the buffer. As the socket is non-blocking this may
+    * transfer fewer bytes than requested, or none at all, in which
+    * case the caller must wait for the socket to be write ready.
+    *
+    * @param file this is the file containing the region to send
+    * @param position this is the position within the file to send from
+    * @param length this is the number of bytes that are to be sent
+    *
+    * @return this returns the number of bytes that were transferred
+    */
+   public synchronized long transfer(FileChannel file, long position, long length) throws IOException {
+      if(closed) {
+         throw new TransportException("Buffer has been closed");
+      }
+      if(reference != null || appender.length() > 0) {
+         throw new IOException("Buffer already pending write");
+      }
+      long count = file.transferTo(position, length, channel);
+      
+      if(trace != null && count > 0) {
+         trace.trace(WRITE, count);
+      }
+      return count;
+   }
+   
    /**
     * This method is used to fully flush the contents of the buffer to
     * the underlying output stream. This will only ever return true
@@ -296,7 +325,7 @@ class SocketBuffer {
          try{            
             closed = true;           
             trace.trace(CLOSE);
-            channel.socket().shutdownOutput();
+            channel.shutdownOutput();
          }catch(Throwable cause){  
             trace.trace(ERROR, cause);
          }
@@ -20,6 +20,7 @@ package org.simpleframework.transport;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import org.simpleframework.transport.reactor.Reactor;
 
@@ -76,6 +77,34 @@ class SocketBufferWriter {
       }
    }
 
+   /**
+    * This method is used to deliver a region of a file directly to
+    * the socket. Any buffered bytes are delivered first, so that the
+    * region follows them, and then the region is transferred from the
+    * file. If the socket is not write ready this waits for the reactor 
+    * to signal that it is before the remainder is transferred.
+    *
+    * @param file this is the file containing the region to send
+    * @param position this is the position within the file to send from
+    * @param length this is the number of bytes that are to be sent
+    */
+   public void write(FileChannel file, long position, long length) throws IOException {
+      long limit = position + length;
+      
+      if(limit > file.size()) {
+         throw new TransportException("Region exceeds the length of the file");
+      }
+      flusher.drain(); // everything buffered must be written first
+      
+      while(position < limit) {
+         position += writer.transfer(file, position, limit - position);
+         
+         if(position < limit) {
+            flusher.await(); // block for an op write event
+         }
+      }
+   }
+
    /**
     * This method is used to flush all of the queued buffers to 
     * the client. This method will not block but will simply flush 
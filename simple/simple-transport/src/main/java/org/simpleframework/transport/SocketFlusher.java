@@ -90,6 +90,34 @@ class SocketFlusher {
       }
    }
    
+   /**
+    * This is used to deliver all of the buffered data before this
+    * returns. Unlike a flush, which only blocks if a reference is
+    * queued, this waits for the reactor to deliver whatever could not
+    * be written immediately, so the socket has nothing outstanding.
+    */
+   public synchronized void drain() throws IOException {
+      while(!buffer.flush()) {
+         if(closed) {
+            throw new TransportException("Flusher is closed");
+         }
+         scheduler.schedule(true);
+      }
+   }
+   
+   /**
+    * This is used to wait until the socket is write ready. Nothing is
+    * buffered when this is called, so the scheduled flush completes
+    * as soon as the reactor finds the socket can accept more bytes,
+    * at which point the calling thread is released to write again.
+    */
+   public synchronized void await() throws IOException {
+      if(closed) {
+         throw new TransportException("Flusher is closed");
+      }
+      scheduler.schedule(true);
+   }
+   
    /**
     * This is executed when the flusher is to write all of the data to
     * the underlying socket. In this situation the writes are attempted
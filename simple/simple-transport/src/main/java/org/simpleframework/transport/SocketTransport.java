@@ -18,15 +18,18 @@
 
 package org.simpleframework.transport;
 
+import static org.simpleframework.common.buffer.MemoryCategory.TRANSPORT;
 import static org.simpleframework.transport.TransportEvent.READ;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SocketChannel;
 import java.util.Map;
 
 import javax.net.ssl.SSLEngine;
 
+import org.simpleframework.common.buffer.MemoryBudget;
 import org.simpleframework.transport.reactor.Reactor;
 import org.simpleframework.transport.trace.Trace;
 
@@ -60,6 +63,11 @@ public class SocketTransport implements Transport {
     */
    private SocketBufferWriter writer;
 
+   /**
+    * If provided this is charged with the buffer for the transport.
+    */
+   private MemoryBudget budget;
+
    /**
     * This is the underlying byte channel used to send the  data.
     */         
@@ -75,6 +83,11 @@ public class SocketTransport implements Transport {
     */
    private Trace trace;
   
+   /**
+    * This is the size of the buffers charged against the budget.
+    */
+   private int buffer;
+  
    /**
     * This is used to determine if the transport has been closed.
     */
@@ -122,10 +135,43 @@ public class SocketTransport implements Transport {
     * @param threshold this is the maximum size of the output buffer
     */
    public SocketTransport(Socket socket, Reactor reactor, int buffer, int threshold) throws IOException {
+     this(socket, reactor, buffer, threshold, null);
+   }
+   
+   /**
+    * Constructor for the <code>SocketTransport</code> object. This 
+    * requires a reactor to perform asynchronous writes and also the
+    * pipeline which is used to read and write data. If a budget is
+    * provided the output buffer, and the buffer the cursor for the
+    * transport reads in to, are charged until it has been closed.
+    *
+    * @param socket this is used to read and write the data
+    * @param reactor this is used to perform asynchronous writes
+    * @param buffer this is the size of the output buffer to use      
+    * @param threshold this is the maximum size of the output buffer
+    * @param budget this is the budget to charge the buffer to
+    */
+   public SocketTransport(Socket socket, Reactor reactor, int buffer, int threshold, MemoryBudget budget) throws IOException {
      this.writer = new SocketBufferWriter(socket, reactor, buffer, threshold);     
      this.channel = socket.getChannel();
      this.trace = socket.getTrace();
      this.socket = socket;
+     this.buffer = buffer + TransportCursor.SIZE;
+     this.budget = budget;
+     this.charge();
+   }
+   
+   /**
+    * This is used to charge the buffers of the transport to the 
+    * budget. As well as the output buffer, each transport is read
+    * by a cursor with a buffer of its own, so that is charged too.
+    * The buffers remain charged until the transport has been closed,
+    * at which point the charge is released.
+    */
+   private void charge() {
+      if(budget != null) {
+         budget.charge(TRANSPORT, buffer);
+      }
    }
    
    /**
@@ -233,6 +279,24 @@ public class SocketTransport implements Transport {
       writer.write(data);
    }    
    
+   /**
+    * This method is used to deliver a region of a file to the client.
+    * As the bytes are not encoded they can be transferred from the 
+    * file to the socket by the operating system, which avoids reading
+    * the region in to memory. This returns once the whole region has
+    * been transferred, waiting for the socket where it is required.
+    *
+    * @param file this is the file containing the region to send
+    * @param position this is the position within the file to send from
+    * @param length this is the number of bytes that are to be sent
+    */
+   public void write(FileChannel file, long position, long length) throws IOException {
+      if(closed) {
+         throw new TransportException("Transport is closed");
+      }    
+      writer.write(file, position, length);
+   }
+   
    /**
     * This is used to flush the internal buffer to the underlying
     * socket. Flushing with this method is always non-blocking, so
@@ -254,9 +318,15 @@ public class SocketTransport implements Transport {
     */
    public void close() throws IOException {
       if(!closed) {              
-         writer.flush();
-         writer.close();
-         closed = true;
+         try {
+            writer.flush();
+            writer.close();
+         } finally {
+            if(budget != null) {
+               budget.release(TRANSPORT, buffer);
+            }
+            closed = true;
+         }
       }
    }
 }
@@ -20,6 +20,7 @@ package org.simpleframework.transport;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 /**
  * The <code>Transport</code> interface represents a low level means
@@ -69,6 +70,19 @@ public interface Transport extends Socket {
     */      
    void write(ByteBuffer buffer) throws IOException;
    
+   /**
+    * This method is used to deliver a region of a file to the client.
+    * Unlike a buffer, which may be queued, this will block until the
+    * whole region has been handed to the network. A plain connection
+    * can send the region straight from the file system, whereas one
+    * that must encode the bytes, such as SSL, reads it in to memory.
+    *
+    * @param file this is the file containing the region to send
+    * @param position this is the position within the file to send from
+    * @param length this is the number of bytes that are to be sent
+    */
+   void write(FileChannel file, long position, long length) throws IOException;
+   
    /**
     * This method is used to flush the contents of the buffer to 
     * the client. This method will block not block but will simply
@@ -34,6 +34,11 @@ import java.io.IOException;
  */
 public class TransportCursor implements ByteCursor {
    
+   /**
+    * This is the default size of the buffer used to read bytes.
+    */
+   static final int SIZE = 2048;
+   
    /**
     * This is the stream for the bytes read by this cursor object.
     */
@@ -73,7 +78,7 @@ public class TransportCursor implements ByteCursor {
     * @param transport this is the underlying transport to use
     */  
    public TransportCursor(Transport transport) {
-      this(transport, 2048);
+      this(transport, SIZE);
    }
    
    /**
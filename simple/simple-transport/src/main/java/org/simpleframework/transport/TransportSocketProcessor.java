@@ -20,6 +20,7 @@ package org.simpleframework.transport;
 
 import java.io.IOException;
 
+import org.simpleframework.common.buffer.MemoryBudget;
 import org.simpleframework.common.thread.ConcurrentExecutor;
 import org.simpleframework.common.thread.Daemon;
 import org.simpleframework.transport.reactor.ExecutorReactor;
@@ -125,9 +126,27 @@ public class TransportSocketProcessor implements SocketProcessor {
     * @param client determines if the SSL handshake is for a client
     */
    public TransportSocketProcessor(TransportProcessor processor, int threads, int buffer, int threshold, boolean client) throws IOException {
+      this(processor, threads, buffer, threshold, client, null);
+   }
+   
+   /**
+    * Constructor for the <code>TransportSocketProcessor</code> object. 
+    * The transport processor is used to process plain connections
+    * and wrap those connections in a <code>Transport</code> that
+    * can be used to send and receive data to and from. The output
+    * buffer of each transport is charged to the budget provided.
+    * 
+    * @param processor this is used to process transports
+    * @param threads this is the number of threads this will use
+    * @param buffer this is the initial size of the output buffer      
+    * @param threshold this is the maximum size of the output buffer
+    * @param client determines if the SSL handshake is for a client
+    * @param budget this is the budget to charge buffers to
+    */
+   public TransportSocketProcessor(TransportProcessor processor, int threads, int buffer, int threshold, boolean client, MemoryBudget budget) throws IOException {
       this.executor = new ConcurrentExecutor(Operation.class, threads);     
       this.reactor = new ExecutorReactor(executor);
-      this.factory = new OperationFactory(processor, reactor, buffer, threshold, client);
+      this.factory = new OperationFactory(processor, reactor, buffer, threshold, client, budget);
       this.cleaner = new ServerCleaner(processor, executor, reactor);
    }
 
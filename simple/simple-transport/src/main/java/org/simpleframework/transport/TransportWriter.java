@@ -20,6 +20,7 @@ package org.simpleframework.transport;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -125,6 +126,22 @@ public class TransportWriter implements ByteWriter {
       transport.write(buffer);
       buffer.limit(limit);                  
    }
+   
+   /**
+    * This method is used to deliver a region of a file to the client.
+    * The region is handed to the transport, which determines whether
+    * it can be sent from the file system directly. This will block
+    * until the region has been written to the underlying socket.
+    *
+    * @param file this is the file containing the region to send
+    * @param position this is the position within the file to send from
+    * @param length this is the number of bytes that are to be sent
+    */
+   public void write(FileChannel file, long position, long length) throws IOException {
+      if(length > 0) {
+         transport.write(file, position, length);
+      }
+   }
 
    /**
     * This method is used to flush the contents of the buffer to 
@@ -0,0 +1,197 @@
+/*
+ * DomainSocketFactory.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.transport.connect;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.security.Principal;
+
+import org.simpleframework.transport.Credential;
+
+/**
+ * The <code>DomainSocketFactory</code> is used to create listening 
+ * channels for both TCP and Unix domain socket addresses. Support 
+ * for Unix domain sockets is only available from Java 16, so the
+ * domain socket classes are accessed reflectively. This ensures the
+ * framework can still run on earlier platforms with TCP alone.
+ * 
+ * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.transport.connect.SocketAcceptor
+ */
+class DomainSocketFactory {
+   
+   /**
+    * This is the name of the class for domain socket addresses.
+    */
+   private static final String ADDRESS = "java.net.UnixDomainSocketAddress";
+   
+   /**
+    * This is the name of the class holding the peer credential.
+    */
+   private static final String OPTIONS = "jdk.net.ExtendedSocketOptions";
+   
+   /**
+    * This is the address that the listening channel is bound to.
+    */
+   private final SocketAddress address;
+   
+   /**
+    * Constructor for the <code>DomainSocketFactory</code> object. 
+    * This is used to create a factory that opens channels for the 
+    * address provided, which may be a TCP address or a Unix domain
+    * socket address if the platform supports them.
+    * 
+    * @param address this is the address to open channels for
+    */
+   public DomainSocketFactory(SocketAddress address) {
+      this.address = address;
+   }
+   
+   /**
+    * This is used to determine if the address is a Unix domain
+    * socket address. Domain sockets have no TCP options and the
+    * peer is identified by a credential rather than an address.
+    * 
+    * @return this returns true if the address is a domain socket
+    */
+   public boolean isDomain() {
+      if(address != null) {
+         Class type = address.getClass();
+         String name = type.getName();
+         
+         return name.equals(ADDRESS);
+      }
+      return false;
+   }
+   
+   /**
+    * This is used to open the listening channel for the address. If
+    * the address is a TCP address a standard server socket channel
+    * is opened, otherwise a channel for the Unix protocol family is
+    * opened so that it can be bound to the domain socket path.
+    * 
+    * @return this returns the listening channel for the address
+    */
+   public ServerSocketChannel open() throws IOException {
+      if(isDomain()) {
+         try {
+            ProtocolFamily family = StandardProtocolFamily.valueOf("UNIX");
+            Method method = ServerSocketChannel.class.getMethod("open", ProtocolFamily.class);
+            
+            return (ServerSocketChannel)method.invoke(null, family);
+         } catch(Exception cause) {
+            throw new ConnectionException("Domain sockets not supported", cause);
+         }
+      }
+      return ServerSocketChannel.open();
+   }
+   
+   /**
+    * This is used to acquire the file for the domain socket. The
+    * file is created when the channel is bound and it must be 
+    * removed when the channel is closed, otherwise a subsequent 
+    * bind to the same path will fail.
+    * 
+    * @return this returns the file for the domain socket
+    */
+   public File getFile() throws IOException {
+      if(isDomain()) {
+         try {
+            Method method = address.getClass().getMethod("getPath");
+            Object path = method.invoke(address);
+            String name = String.valueOf(path);
+            
+            return new File(name);
+         } catch(Exception cause) {
+            throw new ConnectionException("Could not determine path", cause);
+         }
+      }
+      return null;
+   }
+   
+   /**
+    * This is used to configure an accepted channel. For TCP channels
+    * Nagle's algorithm is disabled to improve latency, which is an
+    * option that does not exist for Unix domain sockets. In both 
+    * cases the channel is put in to non-blocking mode.
+    * 
+    * @param channel this is the channel that has been accepted
+    */
+   public void configure(SocketChannel channel) throws IOException {
+      if(!isDomain()) {
+         channel.socket().setTcpNoDelay(true);
+      }
+      channel.configureBlocking(false);
+   }
+   
+   /**
+    * This is used to acquire the credential of the peer process for
+    * an accepted channel. If the address is not a domain socket this
+    * returns null. Where the platform does not expose the peer 
+    * credential a credential with no user or group is returned.
+    * 
+    * @param channel this is the channel that has been accepted
+    * 
+    * @return this returns the credential for the peer process
+    */
+   public Credential getCredential(SocketChannel channel) {
+      if(isDomain()) {
+         try {
+            Class type = Class.forName(OPTIONS);
+            SocketOption option = (SocketOption)type.getField("SO_PEERCRED").get(null);
+            Object principal = channel.getOption(option);
+            String user = getName(principal, "user");
+            String group = getName(principal, "group");
+            
+            return new Credential(user, group);
+         } catch(Exception cause) {
+            return new Credential(null, null);
+         }
+      }
+      return null;
+   }
+   
+   /**
+    * This is used to acquire the name of a principal from the peer 
+    * credential. The peer credential holds both a user principal and
+    * a group principal which are acquired using the named method.
+    * 
+    * @param credential this is the credential for the peer 
+    * @param name this is the name of the method for the principal
+    * 
+    * @return this returns the name of the principal 
+    */
+   private String getName(Object credential, String name) throws Exception {
+      Method method = credential.getClass().getMethod(name);
+      Principal principal = (Principal)method.invoke(credential);
+      
+      if(principal != null) {
+         return principal.getName();
+      }
+      return null;
+   }
+}
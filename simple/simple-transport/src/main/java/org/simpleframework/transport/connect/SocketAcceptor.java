@@ -21,16 +21,20 @@ package org.simpleframework.transport.connect;
 import static org.simpleframework.transport.connect.ConnectionEvent.ACCEPT;
 import static org.simpleframework.transport.connect.ConnectionEvent.ERROR;
 
+import java.io.File;
 import java.io.IOException;
-import java.net.ServerSocket;
 import java.net.SocketAddress;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
 
+import org.simpleframework.common.buffer.MemoryBudget;
+import org.simpleframework.transport.Credential;
 import org.simpleframework.transport.SocketProcessor;
 import org.simpleframework.transport.Socket;
 import org.simpleframework.transport.SocketWrapper;
@@ -44,10 +48,22 @@ import org.simpleframework.transport.trace.TraceAnalyzer;
  * the <code>Connection</code> object as a background process to 
  * accept the connections and hand them to a socket connector.
  * <p>
+ * If the address is a Unix domain socket address then connections
+ * are accepted from the socket file instead. Such connections pass
+ * through the same pipeline as TCP connections, however the peer is
+ * identified by a <code>Credential</code> placed in the attributes
+ * of the socket rather than by a network address.
+ * <p>
  * This is capable of processing SSL connections created by the
  * internal server socket. All SSL connections are forced to finish
  * the SSL handshake before being dispatched to the server. This
  * ensures that there are no problems with reading the request.
+ * <p>
+ * If a memory budget is provided and it is exhausted the acceptor
+ * waits on the budget, in the same way a suspended read does, and
+ * resumes accepting once memory has been released. As the acceptor
+ * runs on the thread of its own listener it simply blocks until the
+ * budget signals it, leaving new connections in the socket backlog.
  * 
  * @author Niall Gallagher
  * 
@@ -66,15 +82,30 @@ class SocketAcceptor implements Operation {
    private final SocketProcessor processor; 
 
    /**
-    * This is the server socket to bind the socket address to.
+    * This is used to open and configure TCP or domain sockets.
     */
-   private final ServerSocket socket;
+   private final DomainSocketFactory factory;
 
    /**
     * If provided the SSL context is used to create SSL engines.
     */
    private final SSLContext context;
 
+   /**
+    * If provided this is used to suspend accepting new sockets.
+    */
+   private final MemoryBudget budget;
+   
+   /**
+    * This is used to wait for the budget to resume the acceptor.
+    */
+   private final Semaphore resume;
+   
+   /**
+    * This is the task the budget runs when memory is released.
+    */
+   private final Runnable signal;
+
    /**
     * This is the tracing analyzer used to trace accepted sockets.
     */
@@ -116,13 +147,32 @@ class SocketAcceptor implements Operation {
     * @param context this is the SSL context used for secure HTTPS 
     */
    public SocketAcceptor(SocketAddress address, SocketProcessor processor, TraceAnalyzer analyzer, SSLContext context) throws IOException {
-      this.listener = ServerSocketChannel.open();
+      this(address, processor, analyzer, context, null);
+   }
+   
+   /**
+    * Constructor for the <code>SocketAcceptor</code> object. This 
+    * accepts new TCP connections from the specified server socket. 
+    * If a budget is provided then connections are left waiting in
+    * the backlog of the server socket while it is exhausted.
+    *
+    * @param address this is the address to accept connections from
+    * @param processor this is used to initiate the HTTP processing
+    * @param analyzer this is the tracing analyzer to be used
+    * @param context this is the SSL context used for secure HTTPS 
+    * @param budget this is the budget that suspends accepting
+    */
+   public SocketAcceptor(SocketAddress address, SocketProcessor processor, TraceAnalyzer analyzer, SSLContext context, MemoryBudget budget) throws IOException {
+      this.factory = new DomainSocketFactory(address);
+      this.listener = factory.open();
+      this.resume = new Semaphore(0);
+      this.signal = new Signal();
       this.trace = analyzer.attach(listener);
-      this.socket = listener.socket();
       this.context = context;
       this.analyzer = analyzer;
       this.processor = processor;
       this.address = address;
+      this.budget = budget;
    }
 
    /**
@@ -134,7 +184,11 @@ class SocketAcceptor implements Operation {
     * @return this returns the address for the listening address
     */
    public SocketAddress getAddress() {
-      return socket.getLocalSocketAddress();
+      try {
+         return listener.getLocalAddress();
+      } catch(Exception cause) {
+         return address;
+      }
    }
    
    /**
@@ -167,13 +221,15 @@ class SocketAcceptor implements Operation {
     * mode. It will also bind the server socket to the socket port
     * specified in the <code>SocketAddress</code> object. Once done
     * the acceptor is ready to accept newly arriving connections.
-    * 
-    * @param address this is the server socket address to bind to
+    * For a domain socket the address reuse option does not apply.
     */
    public void bind() throws IOException {
       listener.configureBlocking(false);
-      socket.setReuseAddress(true);
-      socket.bind(address, 100);
+      
+      if(!factory.isDomain()) {
+         listener.socket().setReuseAddress(true);
+      }
+      listener.bind(address, 100);
    }   
 
    /**
@@ -182,16 +238,45 @@ class SocketAcceptor implements Operation {
     * then create a HTTP pipeline object using the accepted socket
     * and if provided with an <code>SSLContext</code> it will also
     * provide an <code>SSLEngine</code> which is handed to the
-    * processor to handle the HTTP requests. 
+    * processor to handle the HTTP requests. If the memory budget
+    * is exhausted the acceptor waits for it before accepting.
     */
    public void run() {
       try {
+         if(isExhausted()) {
+            suspend();
+         }
          accept();
       } catch(Exception cause) {       
          pause();
       }
    }
    
+   /**
+    * This is used to determine if the memory budget is exhausted. If
+    * it is then no further connections are accepted until memory is
+    * released, which leaves them waiting in the socket backlog.
+    * 
+    * @return this returns true if the budget has been exhausted
+    */
+   private boolean isExhausted() {
+      if(budget != null) {
+         return budget.isExhausted();
+      }
+      return false;
+   }
+   
+   /**
+    * This is used to suspend the acceptor until memory is released.
+    * The acceptor registers with the budget as a waiting task, and
+    * the task signals the acceptor when the budget is no longer
+    * exhausted. If the acceptor is closed it is also signalled.
+    */
+   private void suspend() throws InterruptedException {
+      budget.execute(signal);
+      resume.acquire();
+   }
+   
    /**
     * This is used to throttle the acceptor when there is an error
     * such as exhaustion of file descriptors. This will prevent the
@@ -255,8 +340,7 @@ class SocketAcceptor implements Operation {
     * @param channel this is the channel that is to be configured
     */
    private void configure(SocketChannel channel) throws IOException {
-      channel.socket().setTcpNoDelay(true);   
-      channel.configureBlocking(false);
+      factory.configure(channel);
    }
 
    /**
@@ -291,7 +375,12 @@ class SocketAcceptor implements Operation {
     */
    private void process(SocketChannel channel, Trace trace, SSLEngine engine) throws IOException {
       Socket socket = new SocketWrapper(channel, trace, engine);
+      Credential credential = factory.getCredential(channel);
       
+      if(credential != null) {
+         Map attributes = socket.getAttributes();
+         attributes.put(Credential.class, credential);
+      }
       try {
          trace.trace(ACCEPT);
          processor.process(socket);
@@ -305,11 +394,38 @@ class SocketAcceptor implements Operation {
     * This is used to close the server socket channel so that the
     * port that it is bound to is released. This allows the acceptor
     * to close off the interface to the server. Ensuring the socket
-    * is closed allows it to be recreated at a later point.
+    * is closed allows it to be recreated at a later point. For a
+    * domain socket the socket file is also deleted.
     * 
     * @throws IOException thrown if the socket can not be closed
     */
    public void close() throws IOException {
-      listener.close();
+      File file = factory.getFile();
+      
+      try {
+         listener.close();
+      } finally {
+         if(file != null) {
+            file.delete();
+         }
+         resume.release();
+      }
+   }
+   
+   /**
+    * The <code>Signal</code> is the task that is handed to the memory
+    * budget while the acceptor is suspended. When enough memory has
+    * been released the budget runs the task, which wakes the acceptor
+    * so that it can accept the connections waiting in the backlog.
+    */
+   private class Signal implements Runnable {
+      
+      /**
+       * This is used to wake the acceptor that is waiting for the
+       * budget. Once woken the acceptor accepts the connections.
+       */
+      public void run() {
+         resume.release();
+      }
    }
 }
@@ -23,6 +23,7 @@ import java.net.SocketAddress;
 
 import javax.net.ssl.SSLContext;
 
+import org.simpleframework.common.buffer.MemoryBudget;
 import org.simpleframework.transport.SocketProcessor;
 import org.simpleframework.transport.trace.TraceAnalyzer;
 
@@ -83,7 +84,22 @@ public class SocketConnection implements Connection {
     * @param analyzer this is used to create a trace for the socket
     */    
    public SocketConnection(SocketProcessor processor, TraceAnalyzer analyzer) throws IOException {
-      this.manager = new SocketListenerManager(processor, analyzer);
+      this(processor, analyzer, null);
+   }
+   
+   /** 
+    * Constructor for the <code>SocketConnection</code> object. This
+    * will create a new connection that accepts incoming connections
+    * and hands these connections as <code>Socket</code> objects
+    * to the specified processor. If a budget is provided then no
+    * connections are accepted while the budget is exhausted.
+    * 
+    * @param processor this is the connector that receives requests
+    * @param analyzer this is used to create a trace for the socket
+    * @param budget this is the budget that suspends accepting
+    */    
+   public SocketConnection(SocketProcessor processor, TraceAnalyzer analyzer, MemoryBudget budget) throws IOException {
+      this.manager = new SocketListenerManager(processor, analyzer, budget);
       this.processor = processor;
    }
    
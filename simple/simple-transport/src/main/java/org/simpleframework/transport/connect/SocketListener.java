@@ -26,6 +26,7 @@ import java.net.SocketAddress;
 
 import javax.net.ssl.SSLContext;
 
+import org.simpleframework.common.buffer.MemoryBudget;
 import org.simpleframework.transport.SocketProcessor;
 import org.simpleframework.transport.reactor.SynchronousReactor;
 import org.simpleframework.transport.reactor.Reactor;
@@ -78,7 +79,23 @@ class SocketListener implements Closeable {
     * @param context this is the SSL context used for secure HTTPS     
     */
    public SocketListener(SocketAddress address, SocketProcessor processor, TraceAnalyzer analyzer, SSLContext context) throws IOException {
-      this.acceptor = new SocketAcceptor(address, processor, analyzer, context);
+      this(address, processor, analyzer, context, null);
+   }
+   
+   /**
+    * Constructor for the <code>SocketListener</code> object. This 
+    * needs a socket address and a processor to hand created sockets
+    * to. This creates a <code>Reactor</code> which will notify the
+    * acceptor when there is a new connection waiting to be accepted.
+    * 
+    * @param address this is the address to listen for new sockets
+    * @param processor this is the processor that sockets are handed to
+    * @param analyzer this is used to create a trace to monitor events
+    * @param context this is the SSL context used for secure HTTPS     
+    * @param budget this is the budget that suspends accepting
+    */
+   public SocketListener(SocketAddress address, SocketProcessor processor, TraceAnalyzer analyzer, SSLContext context, MemoryBudget budget) throws IOException {
+      this.acceptor = new SocketAcceptor(address, processor, analyzer, context, budget);
       this.reactor = new SynchronousReactor();
    }
    
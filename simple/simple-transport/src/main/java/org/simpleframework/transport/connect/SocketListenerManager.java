@@ -26,6 +26,7 @@ import java.util.concurrent.CopyOnWriteArraySet;
 
 import javax.net.ssl.SSLContext;
 
+import org.simpleframework.common.buffer.MemoryBudget;
 import org.simpleframework.transport.SocketProcessor;
 import org.simpleframework.transport.trace.TraceAnalyzer;
 
@@ -57,6 +58,11 @@ class SocketListenerManager implements Closeable {
     */
    private final TraceAnalyzer analyzer; 
    
+   /**
+    * If provided this is used to suspend accepting new sockets.
+    */
+   private final MemoryBudget budget;
+   
    /**
     * Constructor for the <code>SocketListenerManager</code> object. 
     * This is used to create a manager that will enable listeners to 
@@ -67,9 +73,24 @@ class SocketListenerManager implements Closeable {
     * @param analyzer this is the agent used to trace socket events
     */
    public SocketListenerManager(SocketProcessor processor, TraceAnalyzer analyzer) {
+      this(processor, analyzer, null);
+   }
+   
+   /**
+    * Constructor for the <code>SocketListenerManager</code> object. 
+    * This is used to create a manager that will enable listeners to 
+    * be created to listen to specified sockets for incoming TCP
+    * connections, which will be converted to socket objects.
+    * 
+    * @param processor this is the processor to hand sockets to
+    * @param analyzer this is the agent used to trace socket events
+    * @param budget this is the budget that suspends accepting
+    */
+   public SocketListenerManager(SocketProcessor processor, TraceAnalyzer analyzer, MemoryBudget budget) {
       this.listeners = new CopyOnWriteArraySet<SocketListener>();
       this.analyzer = new SocketAnalyzer(analyzer);
       this.processor = processor;
+      this.budget = budget;
    }
    
    /**
@@ -98,7 +119,7 @@ class SocketListenerManager implements Closeable {
     * @return this returns the actual local address that is used
     */ 
    public SocketAddress listen(SocketAddress address, SSLContext context) throws IOException {
-      SocketListener listener = new SocketListener(address, processor, analyzer, context);
+      SocketListener listener = new SocketListener(address, processor, analyzer, context, budget);
       
       if(processor != null) {
          listener.process();
@@ -0,0 +1,167 @@
+/*
+ * PartitionReactor.java October 2026
+ *
+ * Copyright (C) 2026, Niall Gallagher <niallg@users.sf.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.transport.reactor;
+
+import java.io.IOException;
+import java.nio.channels.SelectableChannel;
+
+import org.simpleframework.common.thread.ConcurrentExecutor;
+
+/**
+ * The <code>PartitionReactor</code> is used to divide channels in to
+ * a fixed number of partitions, each of which pairs a selector with
+ * a single dedicated worker thread. Every operation for a channel is
+ * executed by the worker for its partition, so all of the reading, 
+ * parsing and writing for a connection happens on one thread. This
+ * avoids handing a connection between thread pools and means state
+ * for a connection stays in the cache of the core that runs it.
+ * <p>
+ * Because a partition has only one worker, an operation that blocks
+ * will delay every other channel within that partition. Operations
+ * that may block should be handed to a separate executor.
+ *
+ * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.transport.reactor.ExecutorReactor
+ */
+public class PartitionReactor implements Reactor {
+   
+   /**
+    * This is the selector used to distribute for each partition.
+    */
+   private final OperationDistributor[] distributors;
+   
+   /**
+    * This is the single threaded worker used for each partition.
+    */
+   private final ConcurrentExecutor[] workers;
+   
+   /**
+    * Constructor for the <code>PartitionReactor</code> object. This
+    * creates a partition for each available processor. Each of the
+    * partitions has its own selector and its own worker thread so
+    * that channels in different partitions share nothing.
+    */
+   public PartitionReactor() throws IOException {
+      this(Runtime.getRuntime().availableProcessors());
+   }
+   
+   /**
+    * Constructor for the <code>PartitionReactor</code> object. This
+    * creates the specified number of partitions. Each of the 
+    * partitions has its own selector and its own worker thread so
+    * that channels in different partitions share nothing.
+    * 
+    * @param count this is the number of partitions to create
+    */
+   public PartitionReactor(int count) throws IOException {
+      this(count, 120000);
+   }
+   
+   /**
+    * Constructor for the <code>PartitionReactor</code> object. This
+    * creates the specified number of partitions. Each of the 
+    * partitions has its own selector and its own worker thread so
+    * that channels in different partitions share nothing.
+    * 
+    * @param count this is the number of partitions to create
+    * @param expiry this is the maximum idle time for a channel
+    */
+   public PartitionReactor(int count, long expiry) throws IOException {
+      this.distributors = new OperationDistributor[count];
+      this.workers = new ConcurrentExecutor[count];
+      this.start(expiry);
+   }
+   
+   /**
+    * This is used to create the selector and worker for each of the
+    * partitions. The selector for a partition will hand operations
+    * that are ready only to the worker for that same partition.
+    * 
+    * @param expiry this is the maximum idle time for a channel
+    */
+   private void start(long expiry) throws IOException {
+      for(int i = 0; i < workers.length; i++) {
+         workers[i] = new ConcurrentExecutor(Operation.class, 1);
+         distributors[i] = new ActionDistributor(workers[i], true, expiry);
+      }
+   }
+   
+   /**
+    * This method is used to execute the provided operation without
+    * the need to specifically check for I/O events. The operation is
+    * executed on the worker thread that owns the channel, so that it
+    * is ordered with respect to all other operations for it.
+    * 
+    * @param task this is the operation to be executed
+    */
+   public void process(Operation task) throws IOException {
+      SelectableChannel channel = task.getChannel();
+      int index = partition(channel);
+      
+      workers[index].execute(task);
+   }
+   
+   /**
+    * This method is used to execute the provided operation when there
+    * is an I/O event that task is interested in. The selector for the
+    * partition that owns the channel will register the operation and 
+    * once ready it is executed by the worker for that partition.
+    * 
+    * @param task this is the operation to be executed
+    * @param require this is the bit-mask value for interested events
+    */
+   public void process(Operation task, int require) throws IOException {
+      SelectableChannel channel = task.getChannel();
+      int index = partition(channel);
+      
+      distributors[index].process(task, require);
+   }
+   
+   /**
+    * This is used to determine the partition that owns the channel.
+    * As the partition is determined from the identity of the channel
+    * every operation for a channel is executed by the same worker.
+    * 
+    * @param channel this is the channel to find the partition for
+    * 
+    * @return this returns the index of the partition to use
+    */
+   private int partition(SelectableChannel channel) {
+      int hash = System.identityHashCode(channel);
+      int index = hash & 0x7fffffff;
+      
+      return index % workers.length;
+   }
+   
+   /**
+    * This is used to stop the reactor so that further requests to
+    * execute operations does nothing. This will clean up all of 
+    * the reactors resources and unregister any operations that are
+    * currently awaiting execution. This also stops the workers.
+    */
+   public void stop() throws IOException {
+      for(OperationDistributor distributor : distributors) {
+         distributor.close();
+      }
+      for(ConcurrentExecutor worker : workers) {
+         worker.stop();
+      }
+   }
+}